@@ -0,0 +1,348 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.AdmissionStatusDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A service deciding whether the event data received from the Scratch GUI and VM is admitted for processing. Each
+ * participant may send events of a certain kind at a configured rate with a configured burst, which is enforced by a
+ * token bucket per user, experiment and kind of event. The rate limits are only applied to authenticated
+ * participants, so that no client can exhaust the buckets of another participant. File and project uploads are not
+ * rate limited unless a specific limit is configured for them, as losing a final project is worse than saving a few
+ * additional uploads. In addition, the number of requests processed concurrently is limited. This limit is lowered
+ * whenever saving an event takes longer than the configured target latency and raised again while the latency stays
+ * below it. All state is kept in lock-free in-memory structures.
+ */
+@Service
+public class AdmissionService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AdmissionService.class);
+
+    /**
+     * The number of new token buckets after which the buckets of idle participants are removed.
+     */
+    private static final int CLEANUP_INTERVAL = 1024;
+
+    /**
+     * The event kinds that are not rate limited unless a specific limit is configured for them.
+     */
+    private static final List<String> UNLIMITED_KINDS = List.of("file", "zip");
+
+    /**
+     * The default rate limit applied to event kinds without a specific limit.
+     */
+    private final Limit defaultLimit;
+
+    /**
+     * The rate limits configured for specific event kinds.
+     */
+    private final Map<String, Limit> limits;
+
+    /**
+     * The minimum number of requests that may be processed concurrently.
+     */
+    private final int minConcurrency;
+
+    /**
+     * The maximum number of requests that may be processed concurrently.
+     */
+    private final int maxConcurrency;
+
+    /**
+     * The target latency for saving an event in nanoseconds.
+     */
+    private final long targetLatency;
+
+    /**
+     * The token buckets of the participants by event kind, keyed by their user and experiment ids. Each bucket holds
+     * the theoretical arrival time of the next request, which is equivalent to the number of tokens left.
+     */
+    private final Map<String, Map<Long, AtomicLong>> buckets = new ConcurrentHashMap<>();
+
+    /**
+     * The number of token buckets created since the last removal of idle buckets.
+     */
+    private final AtomicInteger createdBuckets = new AtomicInteger();
+
+    /**
+     * The number of requests currently being processed.
+     */
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    /**
+     * The current maximum number of requests that may be processed concurrently.
+     */
+    private final AtomicInteger limit;
+
+    /**
+     * The time at which the concurrency limit was last lowered.
+     */
+    private final AtomicLong lastDecrease = new AtomicLong(System.nanoTime());
+
+    /**
+     * The number of requests rejected due to the concurrency limit.
+     */
+    private final LongAdder concurrencyLimited = new LongAdder();
+
+    /**
+     * The number of requests rejected due to the rate limits by event kind.
+     */
+    private final Map<String, LongAdder> rateLimited = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an admission service with the given limits. Specific rate limits are passed as a comma separated
+     * list of entries of the form {@code kind:rate:burst}, e.g. {@code debugger:10:50}.
+     *
+     * @param rate The default number of events a participant may send per second, or 0 for no limit.
+     * @param burst The default number of events a participant may send at once.
+     * @param specificLimits The rate limits for specific event kinds.
+     * @param minConcurrency The minimum number of requests that may be processed concurrently.
+     * @param maxConcurrency The maximum number of requests that may be processed concurrently, or 0 for no limit.
+     * @param targetLatency The target latency for saving an event in milliseconds.
+     * @throws IllegalArgumentException if the passed specific limits are malformed.
+     */
+    @Autowired
+    public AdmissionService(@Value("${app.store.rate:" + Constants.STORE_RATE + "}") final int rate,
+                            @Value("${app.store.burst:" + Constants.STORE_BURST + "}") final int burst,
+                            @Value("${app.store.rate.limits:}") final String specificLimits,
+                            @Value("${app.store.concurrency.min:" + Constants.STORE_MIN_CONCURRENCY + "}")
+                            final int minConcurrency,
+                            @Value("${app.store.concurrency.max:" + Constants.STORE_MAX_CONCURRENCY + "}")
+                            final int maxConcurrency,
+                            @Value("${app.store.latency:" + Constants.STORE_LATENCY + "}") final long targetLatency) {
+        this.defaultLimit = new Limit(rate, burst);
+        this.limits = parseLimits(specificLimits);
+        this.minConcurrency = Math.max(1, Math.min(minConcurrency, maxConcurrency));
+        this.maxConcurrency = maxConcurrency;
+        this.targetLatency = TimeUnit.MILLISECONDS.toNanos(targetLatency);
+        this.limit = new AtomicInteger(maxConcurrency);
+    }
+
+    /**
+     * Checks, whether the given participant may send another event of the given kind. Each admitted event consumes a
+     * token from the participant's bucket, which is refilled at the configured rate. This method may only be called
+     * once the participant has been authenticated.
+     *
+     * @param kind The kind of the event, e.g. {@code block} or {@code file}.
+     * @param user The id of the user sending the event.
+     * @param experiment The id of the experiment in which the user is participating.
+     * @throws RateLimitException if the participant has exceeded the rate limit.
+     */
+    public void checkRate(final String kind, final int user, final int experiment) {
+        Limit rateLimit = limits.getOrDefault(kind, defaultLimit);
+
+        if (rateLimit.interval == 0) {
+            return;
+        }
+
+        Map<Long, AtomicLong> kindBuckets = buckets.computeIfAbsent(kind, k -> new ConcurrentHashMap<>());
+        long key = ((long) user << Integer.SIZE) | (experiment & 0xFFFFFFFFL);
+        AtomicLong bucket = kindBuckets.get(key);
+        long now = System.nanoTime();
+
+        if (bucket == null) {
+            AtomicLong created = new AtomicLong(now);
+            bucket = kindBuckets.putIfAbsent(key, created);
+
+            if (bucket == null) {
+                bucket = created;
+                removeIdleBuckets(now);
+            }
+        }
+
+        while (true) {
+            long arrival = bucket.get();
+            long start = Math.max(arrival, now);
+
+            if (start - now > rateLimit.tolerance) {
+                rateLimited.computeIfAbsent(kind, k -> new LongAdder()).increment();
+                throw new RateLimitException("User with id " + user + " exceeded the rate limit for " + kind
+                        + " events during experiment with id " + experiment + "!");
+            } else if (bucket.compareAndSet(arrival, start + rateLimit.interval)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Acquires a permit to process a request, if the number of requests currently being processed is below the
+     * concurrency limit. Each acquired permit has to be released via {@link #release(long)} afterwards.
+     *
+     * @throws RateLimitException if the concurrency limit has been reached.
+     */
+    public void acquire() {
+        if (maxConcurrency <= 0) {
+            return;
+        }
+
+        while (true) {
+            int current = inFlight.get();
+
+            if (current >= limit.get()) {
+                concurrencyLimited.increment();
+                throw new RateLimitException("Cannot process request exceeding the concurrency limit of "
+                        + limit.get() + "!");
+            } else if (inFlight.compareAndSet(current, current + 1)) {
+                return;
+            }
+        }
+    }
+
+    /**
+     * Releases a permit acquired via {@link #acquire()} and adapts the concurrency limit to the time it took to
+     * process the request. The limit is lowered by a tenth, at most once per target latency, if the request took
+     * longer than the target latency, and raised by one otherwise, as long as at least half of it is in use.
+     *
+     * @param latency The time it took to process the request in nanoseconds.
+     */
+    public void release(final long latency) {
+        if (maxConcurrency <= 0) {
+            return;
+        }
+
+        int used = inFlight.getAndDecrement();
+        int current = limit.get();
+
+        if (latency > targetLatency) {
+            long now = System.nanoTime();
+            long last = lastDecrease.get();
+
+            if (now - last >= targetLatency && current > minConcurrency && lastDecrease.compareAndSet(last, now)) {
+                int lowered = Math.max(minConcurrency, current - Math.max(1, current / 10));
+                limit.compareAndSet(current, lowered);
+                LOGGER.debug("Lowered the concurrency limit to " + lowered + " after a latency of "
+                        + TimeUnit.NANOSECONDS.toMillis(latency) + " ms.");
+            }
+        } else if (current < maxConcurrency && used * 2 >= current) {
+            limit.compareAndSet(current, current + 1);
+        }
+    }
+
+    /**
+     * Returns the current state of the admission control.
+     *
+     * @return The {@link AdmissionStatusDTO} containing the information.
+     */
+    public AdmissionStatusDTO getStatus() {
+        Map<String, Long> rejected = new TreeMap<>();
+        rateLimited.forEach((kind, count) -> rejected.put(kind, count.sum()));
+        return AdmissionStatusDTO.builder().inFlight(inFlight.get()).limit(maxConcurrency <= 0 ? 0 : limit.get())
+                .concurrencyLimited(concurrencyLimited.sum()).rateLimited(rejected).build();
+    }
+
+    /**
+     * Removes the token buckets of all participants who have not sent events for long enough to have refilled their
+     * bucket completely, as their state equals that of a new bucket. This is done each time a certain number of new
+     * buckets has been created to keep the memory consumption bounded.
+     *
+     * @param now The current time in nanoseconds.
+     */
+    private void removeIdleBuckets(final long now) {
+        if (createdBuckets.incrementAndGet() % CLEANUP_INTERVAL != 0) {
+            return;
+        }
+
+        for (Map<Long, AtomicLong> kindBuckets : buckets.values()) {
+            kindBuckets.values().removeIf(bucket -> bucket.get() <= now);
+        }
+    }
+
+    /**
+     * Parses the given comma separated list of specific rate limits. File and project uploads are not limited unless
+     * the list contains an entry for them.
+     *
+     * @param specificLimits The list of entries of the form {@code kind:rate:burst}.
+     * @return The rate limits by event kind.
+     * @throws IllegalArgumentException if an entry is malformed.
+     */
+    private Map<String, Limit> parseLimits(final String specificLimits) {
+        Map<String, Limit> parsed = new ConcurrentHashMap<>();
+        UNLIMITED_KINDS.forEach(kind -> parsed.put(kind, new Limit(0, 0)));
+
+        if (specificLimits == null || specificLimits.isBlank()) {
+            return parsed;
+        }
+
+        for (String entry : specificLimits.split(",")) {
+            String[] parts = entry.trim().split(":");
+
+            try {
+                if (parts.length != 3) {
+                    throw new NumberFormatException();
+                }
+
+                parsed.put(parts[0], new Limit(Integer.parseInt(parts[1]), Integer.parseInt(parts[2])));
+            } catch (NumberFormatException e) {
+                throw new IllegalArgumentException("Cannot parse invalid rate limit " + entry + "!", e);
+            }
+        }
+
+        return parsed;
+    }
+
+    /**
+     * A rate limit for events of a certain kind.
+     */
+    private static final class Limit {
+
+        /**
+         * The interval in nanoseconds after which a token is added to the bucket, or 0 for no limit.
+         */
+        private final long interval;
+
+        /**
+         * The time in nanoseconds by which requests may arrive earlier than the rate allows, covering the burst.
+         */
+        private final long tolerance;
+
+        /**
+         * Constructs a new rate limit with the given rate and burst.
+         *
+         * @param rate The number of events that may be sent per second, or 0 for no limit.
+         * @param burst The number of events that may be sent at once.
+         */
+        private Limit(final int rate, final int burst) {
+            this.interval = rate <= 0 ? 0 : TimeUnit.SECONDS.toNanos(1) / rate;
+            this.tolerance = interval * Math.max(0, burst - 1);
+        }
+
+    }
+
+}
@@ -0,0 +1,566 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityBucket;
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityOpcode;
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityOpcodeId;
+import fim.unipassau.de.scratchLog.persistence.repository.ActivityBucketRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ActivityOpcodeRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+import fim.unipassau.de.scratchLog.web.dto.AnalyticsDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionException;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.regex.Pattern;
+
+/**
+ * A service counting the activity of the participants of each experiment incrementally as the events are saved. The
+ * events are counted per minute and kind in a fixed number of in-memory buckets for each experiment, which are
+ * periodically added to the totals stored in the database. Thus, the analytics of an experiment can be computed from
+ * its buckets without having to read its events again. Active participants are counted once for each minute in which
+ * they caused an event. Events are only counted once the transaction in which they have been saved is committed.
+ */
+@Service
+public class AnalyticsService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsService.class);
+
+    /**
+     * The pattern a block opcode has to match, e.g. {@code motion_movesteps}.
+     */
+    private static final Pattern OPCODE = Pattern.compile("[a-z]+_[A-Za-z0-9_]+");
+
+    /**
+     * The maximum length of an opcode that can be stored in the database.
+     */
+    private static final int MAX_OPCODE_LENGTH = 255;
+
+    /**
+     * The number of activity kinds counted.
+     */
+    private static final int KINDS = ActivityKind.values().length;
+
+    /**
+     * The activity bucket repository to use for database queries related to the counted activity.
+     */
+    private final ActivityBucketRepository activityBucketRepository;
+
+    /**
+     * The activity opcode repository to use for database queries related to the counted opcodes.
+     */
+    private final ActivityOpcodeRepository activityOpcodeRepository;
+
+    /**
+     * The transaction template to use for adding the counted activity to the database.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The number of one-minute buckets kept in memory for each experiment.
+     */
+    private final int bucketCount;
+
+    /**
+     * The activity counted for each experiment that has not yet been written to the database.
+     */
+    private final Map<Integer, Activity> activities = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs an analytics service with the given dependencies.
+     *
+     * @param activityBucketRepository The {@link ActivityBucketRepository} to use.
+     * @param activityOpcodeRepository The {@link ActivityOpcodeRepository} to use.
+     * @param transactionManager The {@link PlatformTransactionManager} to use.
+     * @param bucketCount The number of one-minute buckets to keep in memory for each experiment.
+     */
+    @Autowired
+    public AnalyticsService(final ActivityBucketRepository activityBucketRepository,
+                            final ActivityOpcodeRepository activityOpcodeRepository,
+                            final PlatformTransactionManager transactionManager,
+                            @Value("${app.analytics.buckets:" + Constants.ANALYTICS_BUCKETS + "}")
+                            final int bucketCount) {
+        this.activityBucketRepository = activityBucketRepository;
+        this.activityOpcodeRepository = activityOpcodeRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.bucketCount = Math.max(1, bucketCount);
+    }
+
+    /**
+     * Writes the activity that has not yet been written to the database when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        flush();
+    }
+
+    /**
+     * Counts an event of the given kind caused by the given user during the given experiment once the current
+     * transaction has been committed, or right away if no transaction is active. Thus, events whose transaction is
+     * rolled back are not counted. If the event is the first one of the user in its minute, the user is also counted
+     * as an active participant. The given opcode is only counted if it has the format of a Scratch block opcode.
+     *
+     * @param experimentId The id of the experiment.
+     * @param userId The id of the user who caused the event.
+     * @param kind The kind of the event.
+     * @param date The time at which the event occurred.
+     * @param opcode The opcode of the block involved in the event, or {@code null}.
+     */
+    public void record(final int experimentId, final int userId, final ActivityKind kind, final LocalDateTime date,
+                       final String opcode) {
+        if (kind == null || kind == ActivityKind.PARTICIPANT || date == null) {
+            return;
+        }
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    count(experimentId, userId, kind, date, opcode);
+                }
+            });
+        } else {
+            count(experimentId, userId, kind, date, opcode);
+        }
+    }
+
+    /**
+     * Adds the activity counted in memory since the last call of this method to the totals stored in the database in
+     * a single transaction. If the activity cannot be saved, it is kept in memory to be written on the next call.
+     */
+    public void flush() {
+        ActivityDelta delta = drain();
+
+        if (delta.isEmpty()) {
+            return;
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> persist(delta));
+        } catch (DataAccessException | TransactionException e) {
+            LOGGER.error("Could not save the counted experiment activity!", e);
+            restore(delta);
+        }
+    }
+
+    /**
+     * Counts an event of the given kind caused by the given user during the given experiment.
+     *
+     * @param experimentId The id of the experiment.
+     * @param userId The id of the user who caused the event.
+     * @param kind The kind of the event.
+     * @param date The time at which the event occurred.
+     * @param opcode The opcode of the block involved in the event, or {@code null}.
+     */
+    private void count(final int experimentId, final int userId, final ActivityKind kind, final LocalDateTime date,
+                       final String opcode) {
+        long minute = toMinute(date);
+        Activity activity = activities.computeIfAbsent(experimentId, id -> new Activity(bucketCount));
+
+        synchronized (activity) {
+            activity.count(minute, kind);
+            Long last = activity.lastMinutes.put(userId, minute);
+
+            if (last == null || last != minute) {
+                activity.count(minute, ActivityKind.PARTICIPANT);
+            }
+
+            if (isOpcode(opcode)) {
+                activity.opcodes.merge(opcode, 1L, Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Removes the activity counted since the last flush from memory and returns it, so that it can be written to the
+     * database.
+     *
+     * @return The counted activity, which might be empty.
+     */
+    private ActivityDelta drain() {
+        ActivityDelta delta = new ActivityDelta();
+
+        for (Map.Entry<Integer, Activity> entry : activities.entrySet()) {
+            Activity activity = entry.getValue();
+
+            synchronized (activity) {
+                activity.drain(entry.getKey(), delta);
+            }
+        }
+
+        return delta;
+    }
+
+    /**
+     * Adds the given counted activity to the totals stored in the database. Each total is incremented by a single
+     * statement which inserts the row if it does not exist yet, so no row has to be read first.
+     *
+     * @param delta The activity to add.
+     */
+    private void persist(final ActivityDelta delta) {
+        for (ActivityBucket bucket : delta.buckets) {
+            activityBucketRepository.addTotal(bucket.getExperiment(), bucket.getBucket(), bucket.getKind().getCode(),
+                    bucket.getTotal());
+        }
+
+        for (ActivityOpcode opcode : delta.opcodes) {
+            activityOpcodeRepository.addTotal(opcode.getExperiment(), opcode.getOpcode(), opcode.getTotal());
+        }
+
+        LOGGER.debug("Saved " + delta.buckets.size() + " activity buckets and " + delta.opcodes.size()
+                + " opcode counts.");
+    }
+
+    /**
+     * Adds the given activity that could not be written to the database back to the activity kept in memory, so
+     * that it is written again on the next attempt.
+     *
+     * @param delta The activity to restore.
+     */
+    private void restore(final ActivityDelta delta) {
+        for (ActivityBucket bucket : delta.buckets) {
+            Activity activity = activities.computeIfAbsent(bucket.getExperiment(), id -> new Activity(bucketCount));
+
+            synchronized (activity) {
+                activity.addOverflow(bucket.getBucket(), bucket.getKind(), bucket.getTotal());
+            }
+        }
+
+        for (ActivityOpcode opcode : delta.opcodes) {
+            Activity activity = activities.computeIfAbsent(opcode.getExperiment(), id -> new Activity(bucketCount));
+
+            synchronized (activity) {
+                activity.opcodes.merge(opcode.getOpcode(), opcode.getTotal(), Long::sum);
+            }
+        }
+    }
+
+    /**
+     * Returns the activity counted for the experiment with the given id, including the activity that has not yet been
+     * written to the database.
+     *
+     * @param experimentId The id of the experiment.
+     * @return The {@link AnalyticsDTO} containing the counted activity.
+     * @throws IllegalArgumentException if the passed experiment id is invalid.
+     */
+    @Transactional(readOnly = true)
+    public AnalyticsDTO getAnalytics(final int experimentId) {
+        if (experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot compute the analytics for experiment with invalid id "
+                    + experimentId + "!");
+        }
+
+        ActivityDelta pending = new ActivityDelta();
+        Activity activity = activities.get(experimentId);
+
+        if (activity != null) {
+            synchronized (activity) {
+                activity.copy(experimentId, pending);
+            }
+        }
+
+        TreeMap<Long, long[]> minutes = new TreeMap<>();
+        activityBucketRepository.findAllByExperimentOrderByBucketAsc(experimentId).forEach(bucket ->
+                minutes.computeIfAbsent(bucket.getBucket(), minute -> new long[KINDS])[bucket.getKind().ordinal()]
+                        += bucket.getTotal());
+        pending.buckets.forEach(bucket ->
+                minutes.computeIfAbsent(bucket.getBucket(), minute -> new long[KINDS])[bucket.getKind().ordinal()]
+                        += bucket.getTotal());
+
+        List<LocalDateTime> times = new ArrayList<>(minutes.size());
+        Map<ActivityKind, List<Long>> counts = new EnumMap<>(ActivityKind.class);
+        Map<ActivityKind, Long> totals = new EnumMap<>(ActivityKind.class);
+
+        for (ActivityKind kind : ActivityKind.values()) {
+            counts.put(kind, new ArrayList<>(minutes.size()));
+            totals.put(kind, 0L);
+        }
+
+        for (Map.Entry<Long, long[]> entry : minutes.entrySet()) {
+            times.add(LocalDateTime.ofEpochSecond(entry.getKey() * 60, 0, ZoneOffset.UTC));
+
+            for (ActivityKind kind : ActivityKind.values()) {
+                long count = entry.getValue()[kind.ordinal()];
+                counts.get(kind).add(count);
+                totals.merge(kind, count, Long::sum);
+            }
+        }
+
+        return new AnalyticsDTO(experimentId, times, counts, totals, getTopOpcodes(experimentId, pending));
+    }
+
+    /**
+     * Returns the most frequent opcodes counted for the experiment with the given id, taking into account the given
+     * opcode counts that have not yet been written to the database.
+     *
+     * @param experimentId The id of the experiment.
+     * @param pending The activity that has not yet been written to the database.
+     * @return The opcodes and their number of occurrences in descending order.
+     */
+    private Map<String, Long> getTopOpcodes(final int experimentId, final ActivityDelta pending) {
+        Map<String, Long> totals = new HashMap<>();
+        activityOpcodeRepository.findAllByExperimentOrderByTotalDesc(experimentId,
+                PageRequest.of(0, Constants.ANALYTICS_OPCODES)).forEach(opcode ->
+                totals.put(opcode.getOpcode(), opcode.getTotal()));
+        List<ActivityOpcodeId> missing = new ArrayList<>();
+
+        for (ActivityOpcode opcode : pending.opcodes) {
+            if (!totals.containsKey(opcode.getOpcode())) {
+                missing.add(new ActivityOpcodeId(experimentId, opcode.getOpcode()));
+            }
+        }
+
+        if (!missing.isEmpty()) {
+            activityOpcodeRepository.findAllById(missing).forEach(opcode ->
+                    totals.put(opcode.getOpcode(), opcode.getTotal()));
+        }
+
+        pending.opcodes.forEach(opcode -> totals.merge(opcode.getOpcode(), opcode.getTotal(), Long::sum));
+        Map<String, Long> top = new LinkedHashMap<>();
+        totals.entrySet().stream().sorted(Map.Entry.<String, Long>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey())).limit(Constants.ANALYTICS_OPCODES)
+                .forEach(entry -> top.put(entry.getKey(), entry.getValue()));
+        return top;
+    }
+
+    /**
+     * Checks, whether the given string has the format of a Scratch block opcode.
+     *
+     * @param opcode The string to check.
+     * @return {@code true} if the string is an opcode, or {@code false} otherwise.
+     */
+    private boolean isOpcode(final String opcode) {
+        return opcode != null && opcode.length() <= MAX_OPCODE_LENGTH && OPCODE.matcher(opcode).matches();
+    }
+
+    /**
+     * Returns the number of minutes passed between the epoch and the given time.
+     *
+     * @param date The time.
+     * @return The number of minutes.
+     */
+    private static long toMinute(final LocalDateTime date) {
+        return Math.floorDiv(date.toEpochSecond(ZoneOffset.UTC), 60);
+    }
+
+    /**
+     * The activity counted for an experiment that has not yet been written to the database, consisting of a ring of
+     * one-minute buckets. Each bucket stores its minute and the count of each activity kind in a primitive array. If
+     * an event belongs to a minute whose bucket is still occupied by another minute, the older counts are moved to an
+     * overflow map to be written on the next flush. The overflow map merges the counts per minute and kind, so late
+     * events only occupy one entry per minute.
+     */
+    private static final class Activity {
+
+        /**
+         * The minute of each bucket, or -1 if the bucket is empty.
+         */
+        private final long[] minutes;
+
+        /**
+         * The counts of each bucket, with the counts of all kinds of a bucket stored next to each other.
+         */
+        private final long[] counts;
+
+        /**
+         * The counts of each kind of the minutes that had to be removed from the ring before they were written to the
+         * database.
+         */
+        private final Map<Long, long[]> overflow = new HashMap<>();
+
+        /**
+         * The last minute in which each user caused an event.
+         */
+        private final Map<Integer, Long> lastMinutes = new HashMap<>();
+
+        /**
+         * The number of occurrences of each opcode.
+         */
+        private final Map<String, Long> opcodes = new HashMap<>();
+
+        /**
+         * Constructs a new activity with the given number of buckets.
+         *
+         * @param bucketCount The number of buckets.
+         */
+        private Activity(final int bucketCount) {
+            minutes = new long[bucketCount];
+            counts = new long[bucketCount * KINDS];
+            Arrays.fill(minutes, -1);
+        }
+
+        /**
+         * Counts an activity of the given kind in the given minute.
+         *
+         * @param minute The minute.
+         * @param kind The kind of activity.
+         */
+        private void count(final long minute, final ActivityKind kind) {
+            int slot = (int) Math.floorMod(minute, (long) minutes.length);
+
+            if (minutes[slot] != minute) {
+                if (minutes[slot] > minute) {
+                    addOverflow(minute, kind, 1);
+                    return;
+                }
+
+                evict(slot);
+                minutes[slot] = minute;
+            }
+
+            counts[slot * KINDS + kind.ordinal()]++;
+        }
+
+        /**
+         * Moves the counts of the bucket in the given slot to the overflow list and marks the slot as empty.
+         *
+         * @param slot The slot of the bucket.
+         */
+        private void evict(final int slot) {
+            if (minutes[slot] >= 0) {
+                for (ActivityKind kind : ActivityKind.values()) {
+                    long count = counts[slot * KINDS + kind.ordinal()];
+
+                    if (count > 0) {
+                        addOverflow(minutes[slot], kind, count);
+                    }
+                }
+            }
+
+            Arrays.fill(counts, slot * KINDS, (slot + 1) * KINDS, 0);
+            minutes[slot] = -1;
+        }
+
+        /**
+         * Adds the given count of activities of the given kind in the given minute to the overflow map.
+         *
+         * @param minute The minute.
+         * @param kind The kind of activity.
+         * @param count The number of activities.
+         */
+        private void addOverflow(final long minute, final ActivityKind kind, final long count) {
+            overflow.computeIfAbsent(minute, key -> new long[KINDS])[kind.ordinal()] += count;
+        }
+
+        /**
+         * Adds a copy of the counted activity to the given delta.
+         *
+         * @param experimentId The id of the experiment.
+         * @param delta The delta to add the activity to.
+         */
+        private void copy(final int experimentId, final ActivityDelta delta) {
+            for (int slot = 0; slot < minutes.length; slot++) {
+                if (minutes[slot] < 0) {
+                    continue;
+                }
+
+                for (ActivityKind kind : ActivityKind.values()) {
+                    long count = counts[slot * KINDS + kind.ordinal()];
+
+                    if (count > 0) {
+                        delta.buckets.add(new ActivityBucket(experimentId, minutes[slot], kind, count));
+                    }
+                }
+            }
+
+            overflow.forEach((minute, overflowCounts) -> {
+                for (ActivityKind kind : ActivityKind.values()) {
+                    if (overflowCounts[kind.ordinal()] > 0) {
+                        delta.buckets.add(new ActivityBucket(experimentId, minute, kind,
+                                overflowCounts[kind.ordinal()]));
+                    }
+                }
+            });
+            opcodes.forEach((opcode, count) -> delta.opcodes.add(new ActivityOpcode(experimentId, opcode, count)));
+        }
+
+        /**
+         * Adds the counted activity to the given delta and resets the counts. The last minutes of users who have not
+         * caused an event within the time covered by the buckets are forgotten.
+         *
+         * @param experimentId The id of the experiment.
+         * @param delta The delta to add the activity to.
+         */
+        private void drain(final int experimentId, final ActivityDelta delta) {
+            copy(experimentId, delta);
+            long latest = Arrays.stream(minutes).max().orElse(-1);
+            Arrays.fill(minutes, -1);
+            Arrays.fill(counts, 0);
+            overflow.clear();
+            opcodes.clear();
+            lastMinutes.values().removeIf(minute -> minute < latest - minutes.length);
+        }
+
+    }
+
+    /**
+     * The activity counted in memory that is to be added to the totals stored in the database.
+     */
+    private static final class ActivityDelta {
+
+        /**
+         * The counted activity per experiment, minute and kind.
+         */
+        private final List<ActivityBucket> buckets = new ArrayList<>();
+
+        /**
+         * The counted opcodes per experiment.
+         */
+        private final List<ActivityOpcode> opcodes = new ArrayList<>();
+
+        /**
+         * Checks, whether no activity has been counted.
+         *
+         * @return {@code true} if the delta is empty, or {@code false} otherwise.
+         */
+        private boolean isEmpty() {
+            return buckets.isEmpty() && opcodes.isEmpty();
+        }
+
+    }
+
+}
@@ -28,7 +28,6 @@ import fim.unipassau.de.scratchLog.persistence.entity.CourseExperimentId;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipantId;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
-import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
 import fim.unipassau.de.scratchLog.persistence.repository.CourseExperimentRepository;
@@ -94,6 +93,11 @@ public class CourseService {
      */
     private final ParticipantRepository participantRepository;
 
+    /**
+     * The participant service to use for adding the course participants to course experiments.
+     */
+    private final ParticipantService participantService;
+
     /**
      * Constructs a new course service with the given dependencies.
      *
@@ -103,6 +107,7 @@ public class CourseService {
      * @param experimentRepository The {@link ExperimentRepository} to use.
      * @param userRepository The {@link UserRepository} to use.
      * @param participantRepository The {@link ParticipantRepository} to use.
+     * @param participantService The {@link ParticipantService} to use.
      */
     @Autowired
     public CourseService(final CourseRepository courseRepository,
@@ -110,13 +115,15 @@ public class CourseService {
                          final CourseExperimentRepository courseExperimentRepository,
                          final ExperimentRepository experimentRepository,
                          final UserRepository userRepository,
-                         final ParticipantRepository participantRepository) {
+                         final ParticipantRepository participantRepository,
+                         final ParticipantService participantService) {
         this.courseRepository = courseRepository;
         this.courseParticipantRepository = courseParticipantRepository;
         this.courseExperimentRepository = courseExperimentRepository;
         this.experimentRepository = experimentRepository;
         this.userRepository = userRepository;
         this.participantRepository = participantRepository;
+        this.participantService = participantService;
     }
 
     /**
@@ -415,13 +422,17 @@ public class CourseService {
     }
 
     /**
-     * Creates a new {@link CourseExperiment} entry for the course and experiment with the given ids.
+     * Creates a new {@link CourseExperiment} entry for the course and experiment with the given ids and adds all users
+     * participating in the course as participants to the experiment. Both are done in a single transaction, so either
+     * the experiment is added to the course with all of its participants, or nothing is saved.
      *
      * @param courseId The id of the course.
      * @param experimentId The id of the experiment.
      * @throws IllegalArgumentException if the passed course id or participant string are invalid.
      * @throws EntityNotFoundException if no corresponding course or experiment entries could be found.
      * @throws ConstraintViolationException if saving the course experiment violated the foreign key constraints.
+     * @throws NotFoundException if the course or experiment could not be found when adding the participants.
+     * @throws StoreException if adding the participants violated the foreign key constraints.
      */
     @Transactional
     public void saveCourseExperiment(final int courseId, final int experimentId) {
@@ -433,6 +444,7 @@ public class CourseService {
         Course course = courseRepository.getReferenceById(courseId);
         Experiment experiment = experimentRepository.getReferenceById(experimentId);
         persistCourseExperiment(course, experiment);
+        participantService.saveParticipants(experimentId, courseId);
     }
 
     /**
@@ -464,8 +476,10 @@ public class CourseService {
 
             CourseExperimentId courseExperimentId = new CourseExperimentId(courseId, experiment.get().getId());
             course.setLastChanged(LocalDateTime.now());
+            experiment.get().setCourseExperiment(false);
             courseExperimentRepository.deleteById(courseExperimentId);
             courseRepository.save(course);
+            experimentRepository.save(experiment.get());
         } catch (EntityNotFoundException e) {
             LOGGER.error("Could not find the course when deleting the course experiment data!", e);
             throw new NotFoundException("Could not find the course when deleting the course experiment data!", e);
@@ -474,10 +488,12 @@ public class CourseService {
 
     /**
      * Adds the course participant with the given id as a participant to all experiments offered as part of that course.
+     * The participations are created with a single statement regardless of the number of course experiments.
      *
      * @param courseId The id of the course.
      * @param userId The id of the user.
      * @throws IllegalArgumentException if the passed course or user ids are invalid.
+     * @throws IllegalStateException if the user is already participating in one of the course experiments.
      * @throws EntityNotFoundException if no corresponding course or user entry could be found.
      * @throws ConstraintViolationException if saving any experiment participation violated a foreign key constraint.
      */
@@ -488,15 +504,17 @@ public class CourseService {
                     + courseId + " or invalid user id " + userId);
         }
 
-        Course course = courseRepository.getReferenceById(courseId);
         User user = userRepository.getReferenceById(userId);
 
         try {
-            List<CourseExperiment> courseExperiments = courseExperimentRepository.findAllByCourse(course);
-            courseExperiments.forEach(courseExperiment -> addExperimentParticipant(user,
-                    courseExperiment.getExperiment()));
+            if (participantRepository.existsCourseExperimentParticipant(courseId, userId)) {
+                throw new IllegalStateException("The user with id " + userId + " already participates in an "
+                        + "experiment of the course with id " + courseId + "!");
+            }
+
+            int added = participantRepository.insertCourseExperimentParticipant(courseId, userId);
 
-            if (!courseExperiments.isEmpty() && user.getSecret() == null) {
+            if (added > 0 && user.getSecret() == null) {
                 user.setSecret(Secrets.generateRandomBytes(Constants.SECRET_LENGTH));
                 userRepository.save(user);
             }
@@ -576,10 +594,14 @@ public class CourseService {
     /**
      * Deactivates all courses in which all experiments are deactivated and which have not been updated for a specific
      * time. Only the course itself is deactivated, the status of the participant accounts does not change.
+     *
+     * @return The number of deactivated courses.
      */
     @Transactional
-    public void deactivateInactiveCourses() {
-        courseRepository.findAllByActiveIsTrue().forEach(this::checkDeactivateCourse);
+    public int deactivateInactiveCourses() {
+        List<Integer> ids = courseRepository.findInactiveCourseIds(LocalDateTime.now().minusDays(
+                Constants.COURSE_INACTIVE_DAYS));
+        return ids.isEmpty() ? 0 : courseRepository.deactivateCourses(ids);
     }
 
     /**
@@ -599,23 +621,6 @@ public class CourseService {
         userRepository.save(user);
     }
 
-    /**
-     * Adds the given user as a participant to the given experiment.
-     *
-     * @param user The {@link User} to be added as a participant.
-     * @param experiment The {@link Experiment} in which the user should participate.
-     * @throws IllegalStateException if the user is already participating in the experiment.
-     */
-    private void addExperimentParticipant(final User user, final Experiment experiment) {
-        if (participantRepository.existsByUserAndExperiment(user, experiment)) {
-            throw new IllegalStateException("A participant entry for the user with id " + user.getId()
-                    + " and experiment with id " + experiment.getId() + " already exists!");
-        }
-
-        Participant participant = new Participant(user, experiment, null, null);
-        participantRepository.save(participant);
-    }
-
     /**
      * Removes the participant entry for the given user in the given experiment, if such an entry exists.
      *
@@ -643,6 +648,7 @@ public class CourseService {
             LocalDateTime now = LocalDateTime.now();
             CourseExperiment courseExperiment = new CourseExperiment(course, experiment, now);
             experiment.setActive(true);
+            experiment.setCourseExperiment(true);
             course.setActive(true);
             course.setLastChanged(now);
             courseExperimentRepository.save(courseExperiment);
@@ -657,25 +663,6 @@ public class CourseService {
         }
     }
 
-    /**
-     * Checks whether a course should be deactivated due to inactivity. A course is considered to be inactive if all its
-     * experiments are inactive, and it hasn't been updated for a specified time. If the course is considered to be
-     * inactive, it is deactivated.
-     *
-     * @param course The {@link Course} to check.
-     */
-    private void checkDeactivateCourse(final Course course) {
-        List<CourseExperiment> courseExperiments = courseExperimentRepository.findAllByCourse(course);
-        boolean experimentsInactive = !courseExperiments.isEmpty() && courseExperiments.stream().noneMatch(
-                courseExperiment -> courseExperiment.getExperiment().isActive());
-
-        if (experimentsInactive && course.getLastChanged().isBefore(LocalDateTime.now().minusDays(
-                Constants.COURSE_INACTIVE_DAYS))) {
-            course.setActive(false);
-            courseRepository.save(course);
-        }
-    }
-
     /**
      * Creates a {@link Course} entity with the information of the given {@link CourseDTO}.
      *
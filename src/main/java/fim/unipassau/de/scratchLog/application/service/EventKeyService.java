@@ -0,0 +1,120 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.repository.EventKeyRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * A service recognizing events that the Scratch GUI sent repeatedly, e.g. when retrying a request whose response was
+ * lost. Clients can assign a key to each event which has to be unique for the participant. The keys of the saved
+ * events are registered in the same transaction as the event itself, so that a repeated event is not saved again.
+ * Events without a key are always saved. As no further events are saved for a participant who has finished the
+ * experiment, their keys are removed once they finish, so that only the keys of active participants are kept.
+ */
+@Service
+public class EventKeyService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventKeyService.class);
+
+    /**
+     * The event key repository to use for database queries related to event keys.
+     */
+    private final EventKeyRepository eventKeyRepository;
+
+    /**
+     * Constructs an event key service with the given dependencies.
+     *
+     * @param eventKeyRepository The {@link EventKeyRepository} to use.
+     */
+    @Autowired
+    public EventKeyService(final EventKeyRepository eventKeyRepository) {
+        this.eventKeyRepository = eventKeyRepository;
+    }
+
+    /**
+     * Checks, whether an event with the given key has already been saved for the given user during the given
+     * experiment. The key is registered for the participant with a single insert that is skipped for an existing key,
+     * and the number of inserted rows decides whether the event is a duplicate. A concurrent request with the same key
+     * waits for the lock on the key and is recognized as a duplicate once the first one commits. This method must
+     * only be called right before the event is saved in the same transaction.
+     *
+     * @param userId The id of the user who sent the event.
+     * @param experimentId The id of the experiment during which the event occurred.
+     * @param key The key assigned to the event by the client, or {@code null}.
+     * @return {@code true} if the event has already been saved, or {@code false} otherwise.
+     */
+    @Transactional
+    public boolean isDuplicate(final int userId, final int experimentId, final String key) {
+        if (key == null || key.isBlank()) {
+            return false;
+        }
+
+        if (eventKeyRepository.insertKey(userId, experimentId, hash(key)) == 0) {
+            LOGGER.debug("Ignoring repeated event with key " + key + " for user with id " + userId
+                    + " during experiment with id " + experimentId + ".");
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Removes all keys registered for the given user during the given experiment. This method should be called once
+     * the participant has finished the experiment, as their events are rejected afterwards anyway.
+     *
+     * @param userId The id of the user.
+     * @param experimentId The id of the experiment.
+     */
+    @Transactional
+    public void removeKeys(final int userId, final int experimentId) {
+        int removed = eventKeyRepository.deleteKeys(userId, experimentId);
+        LOGGER.debug("Removed " + removed + " event keys of user with id " + userId + " for experiment with id "
+                + experimentId + ".");
+    }
+
+    /**
+     * Computes a 64-bit hash of the given key from the first bytes of its SHA-256 digest.
+     *
+     * @param key The key to hash.
+     * @return The hash.
+     */
+    private long hash(final String key) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return ByteBuffer.wrap(digest.digest(key.getBytes(StandardCharsets.UTF_8))).getLong();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("The SHA-256 algorithm is not supported!", e);
+        }
+    }
+
+}
@@ -45,6 +45,7 @@ import fim.unipassau.de.scratchLog.persistence.repository.QuestionEventRepositor
 import fim.unipassau.de.scratchLog.persistence.repository.ResourceEventRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
 import fim.unipassau.de.scratchLog.util.enums.LibraryResource;
 import fim.unipassau.de.scratchLog.web.dto.BlockEventDTO;
 import fim.unipassau.de.scratchLog.web.dto.ClickEventDTO;
@@ -69,11 +70,15 @@ import org.springframework.transaction.annotation.Transactional;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
 
 /**
- * A service providing methods related to event logging and retrieving event count results.
+ * A service providing methods related to event logging and retrieving event count results. Events carrying a key
+ * that has already been saved for the participant are repeated requests and are not saved again.
  */
 @Service
 public class EventService {
@@ -133,6 +138,21 @@ public class EventService {
      */
     private final ExperimentRepository experimentRepository;
 
+    /**
+     * The snapshot service to use for keeping track of the latest json code of the participants.
+     */
+    private final SnapshotService snapshotService;
+
+    /**
+     * The event key service to use for recognizing repeated events.
+     */
+    private final EventKeyService eventKeyService;
+
+    /**
+     * The analytics service to use for counting the activity during the experiments.
+     */
+    private final AnalyticsService analyticsService;
+
     /**
      * Constructs an event service with the given dependencies.
      *
@@ -146,6 +166,9 @@ public class EventService {
      * @param participantRepository The {@link ParticipantRepository} to use.
      * @param userRepository The {@link UserRepository} to use.
      * @param experimentRepository The {@link ExperimentRepository} to use.
+     * @param snapshotService The {@link SnapshotService} to use.
+     * @param eventKeyService The {@link EventKeyService} to use.
+     * @param analyticsService The {@link AnalyticsService} to use.
      */
     @Autowired
     public EventService(final EventCountRepository eventCountRepository,
@@ -157,7 +180,10 @@ public class EventService {
                         final ResourceEventRepository resourceEventRepository,
                         final ParticipantRepository participantRepository,
                         final UserRepository userRepository,
-                        final ExperimentRepository experimentRepository) {
+                        final ExperimentRepository experimentRepository,
+                        final SnapshotService snapshotService,
+                        final EventKeyService eventKeyService,
+                        final AnalyticsService analyticsService) {
         this.eventCountRepository = eventCountRepository;
         this.codesDataRepository = codesDataRepository;
         this.blockEventRepository = blockEventRepository;
@@ -168,23 +194,45 @@ public class EventService {
         this.participantRepository = participantRepository;
         this.userRepository = userRepository;
         this.experimentRepository = experimentRepository;
+        this.snapshotService = snapshotService;
+        this.eventKeyService = eventKeyService;
+        this.analyticsService = analyticsService;
     }
 
     /**
-     * Creates a new block event with the given parameters in the database.
+     * Creates a new block event with the given parameters in the database. If the event contains json code, the code
+     * is also saved as the latest snapshot of the participant.
      *
      * @param blockEventDTO The dto containing the event information to set.
      */
     @Transactional
     public void saveBlockEvent(final BlockEventDTO blockEventDTO) {
+        saveBlockEvent(blockEventDTO, null);
+    }
+
+    /**
+     * Creates a new block event with the given parameters in the database. If the time at which the event was received
+     * is given, the event is also saved if the participant finished the experiment after that time. If the event
+     * contains json code, the code is also saved as the latest snapshot of the participant.
+     *
+     * @param blockEventDTO The dto containing the event information to set.
+     * @param received The time at which the event was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveBlockEvent(final BlockEventDTO blockEventDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(blockEventDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(blockEventDTO.getExperiment());
 
         try {
-            if (isParticipant(user, experiment, blockEventDTO.getUser(), blockEventDTO.getExperiment())
-                    && isValidEvent(user, experiment, blockEventDTO.getDate())) {
+            if (isParticipant(user, experiment, blockEventDTO.getUser(), blockEventDTO.getExperiment(), received)
+                    && isValidEvent(user, experiment, blockEventDTO.getDate(), received)
+                    && !eventKeyService.isDuplicate(blockEventDTO.getUser(), blockEventDTO.getExperiment(),
+                    blockEventDTO.getKey())) {
                 BlockEvent blockEvent = createBlockEvent(blockEventDTO, user, experiment);
                 blockEventRepository.save(blockEvent);
+                snapshotService.saveSnapshot(user, experiment, blockEvent.getDate(), blockEvent.getCode());
+                analyticsService.record(blockEventDTO.getExperiment(), blockEventDTO.getUser(), ActivityKind.BLOCK,
+                        blockEventDTO.getDate(), blockEventDTO.getMetadata());
             }
         } catch (ConstraintViolationException e) {
             LOGGER.error("Could not store the block event data for user with id " + blockEventDTO.getUser()
@@ -200,14 +248,30 @@ public class EventService {
      */
     @Transactional
     public void saveClickEvent(final ClickEventDTO clickEventDTO) {
+        saveClickEvent(clickEventDTO, null);
+    }
+
+    /**
+     * Creates a new click event with the given parameters in the database. If the time at which the event was received
+     * is given, the event is also saved if the participant finished the experiment after that time.
+     *
+     * @param clickEventDTO The dto containing the event information to set.
+     * @param received The time at which the event was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveClickEvent(final ClickEventDTO clickEventDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(clickEventDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(clickEventDTO.getExperiment());
 
         try {
-            if (isParticipant(user, experiment, clickEventDTO.getUser(), clickEventDTO.getExperiment())
-                    && isValidEvent(user, experiment, clickEventDTO.getDate())) {
+            if (isParticipant(user, experiment, clickEventDTO.getUser(), clickEventDTO.getExperiment(), received)
+                    && isValidEvent(user, experiment, clickEventDTO.getDate(), received)
+                    && !eventKeyService.isDuplicate(clickEventDTO.getUser(), clickEventDTO.getExperiment(),
+                    clickEventDTO.getKey())) {
                 ClickEvent clickEvent = createClickEvent(clickEventDTO, user, experiment);
                 clickEventRepository.save(clickEvent);
+                analyticsService.record(clickEventDTO.getExperiment(), clickEventDTO.getUser(), ActivityKind.CLICK,
+                        clickEventDTO.getDate(), null);
             }
         } catch (ConstraintViolationException e) {
             LOGGER.error("Could not store the click event data for user with id " + clickEventDTO.getUser()
@@ -223,14 +287,30 @@ public class EventService {
      */
     @Transactional
     public void saveDebuggerEvent(final DebuggerEventDTO debuggerEventDTO) {
+        saveDebuggerEvent(debuggerEventDTO, null);
+    }
+
+    /**
+     * Creates a new debugger event with the given parameters in the database. If the time at which the event was
+     * received is given, the event is also saved if the participant finished the experiment after that time.
+     *
+     * @param debuggerEventDTO The dto containing the event information to set.
+     * @param received The time at which the event was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveDebuggerEvent(final DebuggerEventDTO debuggerEventDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(debuggerEventDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(debuggerEventDTO.getExperiment());
 
         try {
-            if (isParticipant(user, experiment, debuggerEventDTO.getUser(), debuggerEventDTO.getExperiment())
-                    && isValidEvent(user, experiment, debuggerEventDTO.getDate())) {
+            if (isParticipant(user, experiment, debuggerEventDTO.getUser(), debuggerEventDTO.getExperiment(), received)
+                    && isValidEvent(user, experiment, debuggerEventDTO.getDate(), received)
+                    && !eventKeyService.isDuplicate(debuggerEventDTO.getUser(), debuggerEventDTO.getExperiment(),
+                    debuggerEventDTO.getKey())) {
                 DebuggerEvent debuggerEvent = createDebuggerEvent(debuggerEventDTO, user, experiment);
                 debuggerEventRepository.save(debuggerEvent);
+                analyticsService.record(debuggerEventDTO.getExperiment(), debuggerEventDTO.getUser(),
+                        ActivityKind.DEBUGGER, debuggerEventDTO.getDate(), null);
             }
         } catch (ConstraintViolationException e) {
             LOGGER.error("Could not store the debugger event data for user with id " + debuggerEventDTO.getUser()
@@ -246,14 +326,30 @@ public class EventService {
      */
     @Transactional
     public void saveQuestionEvent(final QuestionEventDTO questionEventDTO) {
+        saveQuestionEvent(questionEventDTO, null);
+    }
+
+    /**
+     * Creates a new question event with the given parameters in the database. If the time at which the event was
+     * received is given, the event is also saved if the participant finished the experiment after that time.
+     *
+     * @param questionEventDTO The dto containing the event information to set.
+     * @param received The time at which the event was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveQuestionEvent(final QuestionEventDTO questionEventDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(questionEventDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(questionEventDTO.getExperiment());
 
         try {
-            if (isParticipant(user, experiment, questionEventDTO.getUser(), questionEventDTO.getExperiment())
-                    && isValidEvent(user, experiment, questionEventDTO.getDate())) {
+            if (isParticipant(user, experiment, questionEventDTO.getUser(), questionEventDTO.getExperiment(), received)
+                    && isValidEvent(user, experiment, questionEventDTO.getDate(), received)
+                    && !eventKeyService.isDuplicate(questionEventDTO.getUser(), questionEventDTO.getExperiment(),
+                    questionEventDTO.getKey())) {
                 QuestionEvent questionEvent = createQuestionEvent(questionEventDTO, user, experiment);
                 questionEventRepository.save(questionEvent);
+                analyticsService.record(questionEventDTO.getExperiment(), questionEventDTO.getUser(),
+                        ActivityKind.QUESTION, questionEventDTO.getDate(), questionEventDTO.getOpcode());
             }
         } catch (ConstraintViolationException e) {
             LOGGER.error("Could not store the question event data for user with id " + questionEventDTO.getUser()
@@ -269,14 +365,30 @@ public class EventService {
      */
     @Transactional
     public void saveResourceEvent(final ResourceEventDTO resourceEventDTO) {
+        saveResourceEvent(resourceEventDTO, null);
+    }
+
+    /**
+     * Creates a new resource event with the given parameters in the database. If the time at which the event was
+     * received is given, the event is also saved if the participant finished the experiment after that time.
+     *
+     * @param resourceEventDTO The dto containing the event information to set.
+     * @param received The time at which the event was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveResourceEvent(final ResourceEventDTO resourceEventDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(resourceEventDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(resourceEventDTO.getExperiment());
 
         try {
-            if (isParticipant(user, experiment, resourceEventDTO.getUser(), resourceEventDTO.getExperiment())
-                    && isValidEvent(user, experiment, resourceEventDTO.getDate())) {
+            if (isParticipant(user, experiment, resourceEventDTO.getUser(), resourceEventDTO.getExperiment(), received)
+                    && isValidEvent(user, experiment, resourceEventDTO.getDate(), received)
+                    && !eventKeyService.isDuplicate(resourceEventDTO.getUser(), resourceEventDTO.getExperiment(),
+                    resourceEventDTO.getKey())) {
                 ResourceEvent resourceEvent = createResourceEvent(resourceEventDTO, user, experiment);
                 resourceEventRepository.save(resourceEvent);
+                analyticsService.record(resourceEventDTO.getExperiment(), resourceEventDTO.getUser(),
+                        ActivityKind.RESOURCE, resourceEventDTO.getDate(), null);
             }
         } catch (ConstraintViolationException e) {
             LOGGER.error("Could not store the resource event data for user with id " + resourceEventDTO.getUser()
@@ -332,15 +444,14 @@ public class EventService {
         Experiment experiment = experimentRepository.getReferenceById(experimentId);
 
         try {
-            BlockEventJSONProjection projection =
-                    blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
+            String code = snapshotService.findSnapshot(userId, experimentId);
             Optional<Participant> participant = participantRepository.findByUserAndExperiment(user, experiment);
 
-            if (!checkReturnFirstJson(participant, projection, user, experiment)) {
+            if (!checkReturnFirstJson(participant, code, user, experiment)) {
                 return null;
             }
 
-            return projection.getCode();
+            return code;
         } catch (EntityNotFoundException e) {
             LOGGER.error("Could not find user with id " + userId + " or experiment with id " + experimentId
                     + " when trying to retrieve the last json file!", e);
@@ -447,6 +558,94 @@ public class EventService {
         }
     }
 
+    /**
+     * Retrieves the JSON data saved for the user with the given ID during the experiment with the given ID as it was at
+     * each of the given times, i.e. the code of the latest block event at or before that time. Each time is looked up
+     * with a single index seek instead of loading all JSON data of the participant. Times before the first saved JSON
+     * data are left out of the result.
+     *
+     * @param userId The user ID.
+     * @param experimentId The experiment ID.
+     * @param dates The times at which the JSON data is to be returned.
+     * @return The data found for the given times in the order of the given times.
+     * @throws IllegalArgumentException if the user or experiment ids or the times are invalid.
+     * @throws NotFoundException if no JSON data could be found for any of the times or no corresponding user or
+     *                           experiment could be found.
+     */
+    @Transactional
+    public Map<LocalDateTime, BlockEventJSONProjection> getJsonAt(final int userId, final int experimentId,
+                                                                  final List<LocalDateTime> dates) {
+        checkPointInTimeParameters(userId, experimentId, dates);
+        User user = userRepository.getReferenceById(userId);
+        Experiment experiment = experimentRepository.getReferenceById(experimentId);
+        Map<LocalDateTime, BlockEventJSONProjection> json = new LinkedHashMap<>();
+
+        try {
+            for (LocalDateTime date : dates) {
+                blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(
+                        user, experiment, date).ifPresent(projection -> json.put(date, projection));
+            }
+        } catch (EntityNotFoundException e) {
+            LOGGER.error("Could not find user with id " + userId + " or experiment with id " + experimentId
+                    + " when trying to retrieve json data at given times!", e);
+            throw new NotFoundException("Could not find user with id " + userId + " or experiment with id "
+                    + experimentId + " when trying to retrieve json data at given times!", e);
+        }
+
+        if (json.isEmpty()) {
+            LOGGER.error("Could not find any json data for user with id " + userId + " for experiment with id "
+                    + experimentId + " at the given times!");
+            throw new NotFoundException("Could not find any json data for user with id " + userId + " for experiment "
+                    + "with id " + experimentId + " at the given times!");
+        }
+
+        return json;
+    }
+
+    /**
+     * Retrieves the xml data saved for the user with the given ID during the experiment with the given ID as it was at
+     * each of the given times, i.e. the xml of the latest block event at or before that time. Each time is looked up
+     * with a single index seek instead of loading all xml data of the participant. Times before the first saved xml
+     * data are left out of the result.
+     *
+     * @param userId The user ID.
+     * @param experimentId The experiment ID.
+     * @param dates The times at which the xml data is to be returned.
+     * @return The data found for the given times in the order of the given times.
+     * @throws IllegalArgumentException if the user or experiment ids or the times are invalid.
+     * @throws NotFoundException if no xml data could be found for any of the times or no corresponding user or
+     *                           experiment could be found.
+     */
+    @Transactional
+    public Map<LocalDateTime, BlockEventXMLProjection> getXmlAt(final int userId, final int experimentId,
+                                                                final List<LocalDateTime> dates) {
+        checkPointInTimeParameters(userId, experimentId, dates);
+        User user = userRepository.getReferenceById(userId);
+        Experiment experiment = experimentRepository.getReferenceById(experimentId);
+        Map<LocalDateTime, BlockEventXMLProjection> xml = new LinkedHashMap<>();
+
+        try {
+            for (LocalDateTime date : dates) {
+                blockEventRepository.findFirstByUserAndExperimentAndXmlIsNotNullAndDateLessThanEqualOrderByDateDesc(
+                        user, experiment, date).ifPresent(projection -> xml.put(date, projection));
+            }
+        } catch (EntityNotFoundException e) {
+            LOGGER.error("Could not find user with id " + userId + " or experiment with id " + experimentId
+                    + " when trying to retrieve xml data at given times!", e);
+            throw new NotFoundException("Could not find user with id " + userId + " or experiment with id "
+                    + experimentId + " when trying to retrieve xml data at given times!", e);
+        }
+
+        if (xml.isEmpty()) {
+            LOGGER.error("Could not find any xml data for user with id " + userId + " for experiment with id "
+                    + experimentId + " at the given times!");
+            throw new NotFoundException("Could not find any xml data for user with id " + userId + " for experiment "
+                    + "with id " + experimentId + " at the given times!");
+        }
+
+        return xml;
+    }
+
     /**
      * Retrieves all xml data and corresponding block event ids saved for the user with the given ID during the
      * experiment with the given ID.
@@ -701,18 +900,40 @@ public class EventService {
         return createCodesDataList(codesData);
     }
 
+    /**
+     * Checks, whether the given parameters for retrieving code at given times are valid.
+     *
+     * @param userId The user ID.
+     * @param experimentId The experiment ID.
+     * @param dates The times at which the code is to be returned.
+     * @throws IllegalArgumentException if the user or experiment ids or the times are invalid.
+     */
+    private void checkPointInTimeParameters(final int userId, final int experimentId,
+                                            final List<LocalDateTime> dates) {
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot retrieve code for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        } else if (dates == null || dates.isEmpty() || dates.stream().anyMatch(Objects::isNull)) {
+            throw new IllegalArgumentException("Cannot retrieve code for user with id " + userId + " for experiment "
+                    + "with id " + experimentId + " without valid times!");
+        }
+    }
+
     /**
      * Checks whether any participant entry exists for the user and experiment with the given id. If no user or
      * experiment with the given id exist, or the user has already finished the experiment, {@code false} is returned.
+     * If the time at which the event was received is given, participants who finished the experiment at or after that
+     * time are still accepted.
      *
      * @param user The user to search for.
      * @param experiment The experiment to search for.
      * @param userId The user id.
      * @param experimentId The experiment id.
+     * @param received The time at which the event was received, or {@code null} if it is unknown.
      * @return {@code true} if a valid participant entry could be found, or {@code false} otherwise.
      */
     private boolean isParticipant(final User user, final Experiment experiment, final int userId,
-                                  final int experimentId) {
+                                  final int experimentId, final LocalDateTime received) {
         try {
             Optional<Participant> participant = participantRepository.findByUserAndExperiment(user, experiment);
 
@@ -720,7 +941,8 @@ public class EventService {
                 LOGGER.error("No corresponding participant entry could be found for user with id " + userId
                         + " and experiment " + experimentId + " when trying to save an event!");
                 return false;
-            } else if (participant.get().getEnd() != null) {
+            } else if (participant.get().getEnd() != null
+                    && (received == null || received.isAfter(participant.get().getEnd()))) {
                 LOGGER.error("Tried to insert an event for participant " + userId + " during experiment "
                         + experimentId + " who has already finished!");
                 return false;
@@ -735,18 +957,22 @@ public class EventService {
     }
 
     /**
-     * Checks whether the user, experiment and date instances required for saving any type of event are present.
+     * Checks whether the user, experiment and date instances required for saving any type of event are present. If
+     * the time at which the event was received is given, the user account need not be active any more, as it is
+     * deactivated when the participant finishes the experiment.
      *
      * @param user The {@link User} who caused the event.
      * @param experiment The {@link Experiment} during which the event occurred.
      * @param date The time at which the event occurred.
+     * @param received The time at which the event was received, or {@code null} if it is unknown.
      * @return {@code true} if the given attributes are non-null values, or {@code false} otherwise.
      */
-    private boolean isValidEvent(final User user, final Experiment experiment, final LocalDateTime date) {
+    private boolean isValidEvent(final User user, final Experiment experiment, final LocalDateTime date,
+                                 final LocalDateTime received) {
         if (user == null || experiment == null || date == null) {
             LOGGER.error("Cannot save event to database with user, experiment or timestamp null!");
             return false;
-        } else if (!user.isActive() || !experiment.isActive()) {
+        } else if ((!user.isActive() && received == null) || !experiment.isActive()) {
             LOGGER.error("Cannot save event to database with user or experiment inactive!");
             return false;
         } else {
@@ -760,19 +986,19 @@ public class EventService {
      * inactive.
      *
      * @param participant The {@link Participant} to check.
-     * @param projection The {@link BlockEventJSONProjection} to check.
+     * @param code The json code to check.
      * @param user The {@link User} for whom the code should be retrieved.
      * @param experiment The {@link Experiment} during which the code was generated.
      * @return {@code true} if the code should be returned, or {@code false} otherwise.
      */
     private boolean checkReturnFirstJson(final Optional<Participant> participant,
-                                         final BlockEventJSONProjection projection,
+                                         final String code,
                                          final User user, final Experiment experiment) {
         if (participant.isEmpty()) {
             LOGGER.error("No corresponding participant entry could be found for user with id " + user.getId()
                     + " and experiment with id " + experiment.getId() + " when trying to load the last json code!");
             return false;
-        } else if (projection == null) {
+        } else if (code == null) {
             LOGGER.info("No json code saved for user with id " + user.getId() + " for experiment with id "
                     + experiment.getId() + ".");
             return false;
@@ -0,0 +1,966 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.entity.SpoolCheckpoint;
+import fim.unipassau.de.scratchLog.persistence.repository.SpoolCheckpointRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.SpoolStatusDTO;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.RecoverableDataAccessException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.sql.SQLRecoverableException;
+import java.sql.SQLTransientException;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * A service buffering the event data received from the Scratch GUI and VM in a local append-only spool, so that no data
+ * is lost while the database is slow or unavailable. The spool consists of numbered segment files to which each event
+ * is appended as a record containing its length, a checksum, the time at which it was received and the raw request
+ * data. Once a segment exceeds the configured size, a new segment is started. The spooled events are replayed to the
+ * database in batches, and the position up to which they have been replayed is saved in the same transaction, so that
+ * no event is saved twice. Segments that have been replayed completely are deleted. If the database is temporarily
+ * unavailable, the replay is stopped without advancing the replay position and retried with an increasing delay. The
+ * spool is disabled by default. As the segments contain the raw request data including the secrets of the participants,
+ * the spool directory and the segment files are only accessible by the owner on file systems supporting POSIX
+ * permissions.
+ */
+@Service
+public class EventSpoolService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventSpoolService.class);
+
+    /**
+     * The file ending to use for the segment files.
+     */
+    private static final String FILE_ENDING = ".spool";
+
+    /**
+     * The number of bytes preceding the data of each record, holding its length and checksum.
+     */
+    private static final int HEADER_SIZE = 8;
+
+    /**
+     * The permissions of the spool directory, if supported by the file system.
+     */
+    private static final Set<PosixFilePermission> DIRECTORY_PERMISSIONS = PosixFilePermissions.fromString("rwx------");
+
+    /**
+     * The permissions of the segment files, if supported by the file system.
+     */
+    private static final Set<PosixFilePermission> FILE_PERMISSIONS = PosixFilePermissions.fromString("rw-------");
+
+    /**
+     * The spool checkpoint repository to use for saving the replay position.
+     */
+    private final SpoolCheckpointRepository spoolCheckpointRepository;
+
+    /**
+     * The transaction template to use for replaying events together with the replay position.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * Whether incoming events are written to the spool.
+     */
+    private final boolean enabled;
+
+    /**
+     * The directory in which the segment files are stored.
+     */
+    private final Path directory;
+
+    /**
+     * The unique name of the spool under which its replay position is saved.
+     */
+    private final String name;
+
+    /**
+     * The number of bytes after which a new segment file is started.
+     */
+    private final long segmentSize;
+
+    /**
+     * The maximum number of bytes the segment files may occupy on disk.
+     */
+    private final long maxSize;
+
+    /**
+     * Whether each record is forced to the storage device before it is acknowledged.
+     */
+    private final boolean sync;
+
+    /**
+     * The sizes of the segment files currently stored on disk by their sequence number.
+     */
+    private final TreeMap<Long, Long> segments = new TreeMap<>();
+
+    /**
+     * The sequence number of the first segment file created by this instance.
+     */
+    private long firstSegment;
+
+    /**
+     * The sequence number of the next segment file to be created.
+     */
+    private long nextSegment;
+
+    /**
+     * The channel of the segment file to which events are currently appended, if any.
+     */
+    private FileChannel writer;
+
+    /**
+     * The sequence number of the segment file to which events are currently appended.
+     */
+    private long writeSegment = -1;
+
+    /**
+     * The number of bytes occupied by the segment files.
+     */
+    private long currentSize = 0;
+
+    /**
+     * The lock guarding the replay of events.
+     */
+    private final Object replayLock = new Object();
+
+    /**
+     * Whether the replay position has been loaded from the database.
+     */
+    private boolean checkpointLoaded = false;
+
+    /**
+     * The sequence number of the segment file containing the next event to be replayed.
+     */
+    private volatile long readSegment = 0;
+
+    /**
+     * The byte offset of the next event to be replayed within its segment file.
+     */
+    private volatile long readPosition = 0;
+
+    /**
+     * The number of events replayed to the database.
+     */
+    private long replayed = 0;
+
+    /**
+     * The number of events that could not be replayed and were skipped.
+     */
+    private long failed = 0;
+
+    /**
+     * The number of events that could not be written to the spool.
+     */
+    private long rejected = 0;
+
+    /**
+     * The current delay in milliseconds before the replay is retried after a temporary database failure.
+     */
+    private long retryDelay = 0;
+
+    /**
+     * The time in milliseconds before which no replay is attempted after a temporary database failure.
+     */
+    private long retryAt = 0;
+
+    /**
+     * The time at which events were last replayed to the database.
+     */
+    private LocalDateTime lastReplay;
+
+    /**
+     * The message of the last error that occurred while replaying events.
+     */
+    private String lastError;
+
+    /**
+     * Constructs an event spool service with the given dependencies. If the spool is enabled, the segment files left
+     * from a previous run are registered to be replayed. The spool directory has to be configured explicitly, as the
+     * segments have to outlive a restart of the host. The name of the spool defaults to the name of the node, as each
+     * node sharing the database has to save its replay position under a name of its own.
+     *
+     * @param spoolCheckpointRepository The {@link SpoolCheckpointRepository} to use.
+     * @param transactionManager The {@link PlatformTransactionManager} to use.
+     * @param enabled Whether incoming events are to be written to the spool.
+     * @param directory The path to the directory in which the segment files are to be stored.
+     * @param name The unique name of the spool.
+     * @param segmentSize The number of bytes after which a new segment file is started.
+     * @param maxSize The maximum size of the spool in bytes.
+     * @param sync Whether each record is to be forced to the storage device.
+     * @throws IllegalStateException if the spool is enabled, but no directory or name has been configured.
+     */
+    @Autowired
+    public EventSpoolService(final SpoolCheckpointRepository spoolCheckpointRepository,
+                             final PlatformTransactionManager transactionManager,
+                             @Value("${app.spool.enabled:false}") final boolean enabled,
+                             @Value("${app.spool.path:}") final String directory,
+                             @Value("${app.spool.name:${app.node:}}") final String name,
+                             @Value("${app.spool.segment.size:" + Constants.SPOOL_SEGMENT_SIZE + "}")
+                             final long segmentSize,
+                             @Value("${app.spool.size:" + Constants.SPOOL_SIZE + "}") final long maxSize,
+                             @Value("${app.spool.sync:true}") final boolean sync) {
+        if (enabled && (directory == null || directory.isBlank())) {
+            throw new IllegalStateException("Cannot enable the event spool without a spool directory set via "
+                    + "app.spool.path!");
+        } else if (enabled && (name == null || name.isBlank())) {
+            throw new IllegalStateException("Cannot enable the event spool without a unique name set via "
+                    + "app.spool.name or app.node!");
+        }
+
+        this.spoolCheckpointRepository = spoolCheckpointRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.directory = Paths.get(directory);
+        this.name = name;
+        this.segmentSize = segmentSize;
+        this.maxSize = maxSize;
+        this.sync = sync;
+
+        if (enabled) {
+            loadSegments();
+        }
+    }
+
+    /**
+     * Returns whether incoming events are written to the spool.
+     *
+     * @return {@code true} if the spool is enabled, or {@code false} otherwise.
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Appends the given event data to the current segment file together with the current time. If the segment would
+     * exceed its maximum size, a new segment is started first. The data is not written if the spool is disabled, full
+     * or cannot be written to, in which case the caller has to save the event directly.
+     *
+     * @param kind The kind of the event, e.g. {@code block} or {@code file}.
+     * @param data The raw event data passed in the request body.
+     * @return {@code true} if the event was written to the spool, or {@code false} otherwise.
+     */
+    public synchronized boolean append(final String kind, final String data) {
+        if (!enabled) {
+            return false;
+        }
+
+        byte[] payload = (kind + " " + LocalDateTime.now() + "\n" + data).getBytes(StandardCharsets.UTF_8);
+        int length = HEADER_SIZE + payload.length;
+
+        if (currentSize + length > maxSize) {
+            LOGGER.warn("Cannot write " + kind + " event to the spool exceeding the maximum spool size!");
+            rejected++;
+            return false;
+        }
+
+        try {
+            if (writer == null || (segments.get(writeSegment) > 0
+                    && segments.get(writeSegment) + length > segmentSize)) {
+                startSegment();
+            }
+
+            CRC32 crc = new CRC32();
+            crc.update(payload);
+            ByteBuffer buffer = ByteBuffer.allocate(length).putInt(payload.length).putInt((int) crc.getValue())
+                    .put(payload).flip();
+
+            while (buffer.hasRemaining()) {
+                writer.write(buffer);
+            }
+
+            if (sync) {
+                writer.force(false);
+            }
+
+            segments.merge(writeSegment, (long) length, Long::sum);
+            currentSize += length;
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Could not write " + kind + " event to the spool segment " + writeSegment + "!", e);
+            closeWriter();
+            rejected++;
+            return false;
+        }
+    }
+
+    /**
+     * Replays all events written to the spool since the last invocation to the database. The events are read in
+     * batches of the given size, which are passed to the given handler in a single transaction together with the new
+     * replay position. If a batch cannot be saved, its events are replayed one by one instead, and any event that
+     * still fails permanently is skipped. If the database is temporarily unavailable, or the replay position cannot
+     * be saved, the replay is aborted without skipping any event and retried after a delay that is doubled with each
+     * consecutive failure.
+     *
+     * @param batchSize The maximum number of events to replay in a single transaction.
+     * @param handler The handler saving the event data passed to it.
+     * @return The number of events replayed.
+     */
+    public int replayEvents(final int batchSize, final Consumer<SpoolRecord> handler) {
+        if (!enabled) {
+            return 0;
+        }
+
+        synchronized (replayLock) {
+            int count = 0;
+
+            if (System.currentTimeMillis() < retryAt) {
+                return count;
+            }
+
+            try {
+                loadCheckpoint();
+                forceWriter();
+                Batch batch;
+
+                do {
+                    batch = readBatch(batchSize);
+
+                    if (!batch.records.isEmpty()) {
+                        replayBatch(batch, handler);
+                        count += batch.records.size();
+                    }
+
+                    readSegment = batch.segment;
+                    readPosition = batch.position;
+                    deleteSegments();
+                } while (batch.records.size() == batchSize);
+
+                retryDelay = 0;
+            } catch (IOException | RuntimeException e) {
+                retryDelay = Math.min(Math.max(retryDelay * 2, Constants.SPOOL_RETRY_DELAY),
+                        Constants.SPOOL_MAX_RETRY_DELAY);
+                retryAt = System.currentTimeMillis() + retryDelay;
+                LOGGER.error("Could not replay the events written to the spool, retrying in " + retryDelay + " ms!",
+                        e);
+                setLastError(e.getMessage());
+            }
+
+            return count;
+        }
+    }
+
+    /**
+     * Returns the current state of the spool.
+     *
+     * @return The {@link SpoolStatusDTO} containing the information.
+     */
+    public synchronized SpoolStatusDTO getStatus() {
+        long pending = segments.tailMap(readSegment, true).values().stream().mapToLong(Long::longValue).sum();
+
+        if (segments.containsKey(readSegment)) {
+            pending -= Math.min(readPosition, segments.get(readSegment));
+        }
+
+        return SpoolStatusDTO.builder().enabled(enabled).segments(segments.size()).pending(pending).maxSize(maxSize)
+                .replayed(replayed).failed(failed).rejected(rejected).lastReplay(lastReplay).lastError(lastError)
+                .build();
+    }
+
+    /**
+     * Forces any data written to the current segment file to the storage device and closes it.
+     */
+    @PreDestroy
+    public synchronized void close() {
+        forceWriter();
+        closeWriter();
+    }
+
+    /**
+     * Replays the events contained in the given batch in a single transaction and saves the position following the
+     * last event. If the transaction fails due to a temporary database failure, the exception is rethrown to abort the
+     * replay. Otherwise, the events are replayed one by one instead.
+     *
+     * @param batch The batch to replay.
+     * @param handler The handler saving the event data.
+     */
+    private void replayBatch(final Batch batch, final Consumer<SpoolRecord> handler) {
+        SpoolRecord last = batch.records.get(batch.records.size() - 1);
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                batch.records.forEach(handler);
+                saveCheckpoint(last.segment, last.position);
+            });
+            updateReplayed(batch.records.size());
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+
+            LOGGER.error("Could not replay a batch of " + batch.records.size() + " spooled events, replaying them "
+                    + "individually!", e);
+
+            for (SpoolRecord record : batch.records) {
+                replayRecord(record, handler);
+            }
+        }
+    }
+
+    /**
+     * Replays the given event in its own transaction and saves the position following it. If the event cannot be
+     * saved due to a permanent error, e.g. incomplete data, it is skipped by saving the position in a separate
+     * transaction. Temporary database failures are rethrown to abort the replay without skipping the event.
+     *
+     * @param record The event to replay.
+     * @param handler The handler saving the event data.
+     */
+    private void replayRecord(final SpoolRecord record, final Consumer<SpoolRecord> handler) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                handler.accept(record);
+                saveCheckpoint(record.segment, record.position);
+            });
+            updateReplayed(1);
+        } catch (RuntimeException e) {
+            if (isTransient(e)) {
+                throw e;
+            }
+
+            LOGGER.error("Could not replay spooled " + record.kind + " event, skipping it!", e);
+            transactionTemplate.executeWithoutResult(status -> saveCheckpoint(record.segment, record.position));
+            updateFailed(e.getMessage());
+        }
+
+        readSegment = record.segment;
+        readPosition = record.position;
+    }
+
+    /**
+     * Checks, whether the given exception or any of its causes indicates a temporary database failure, e.g. a lock
+     * timeout, a deadlock or an unavailable database, after which the same operation might succeed.
+     *
+     * @param exception The exception to check.
+     * @return {@code true} if the failure is temporary, or {@code false} otherwise.
+     */
+    private static boolean isTransient(final Throwable exception) {
+        for (Throwable cause = exception; cause != null; cause = cause.getCause()) {
+            if (cause instanceof TransientDataAccessException || cause instanceof RecoverableDataAccessException
+                    || cause instanceof DataAccessResourceFailureException
+                    || cause instanceof CannotCreateTransactionException || cause instanceof SQLTransientException
+                    || cause instanceof SQLRecoverableException) {
+                return true;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Reads up to the given number of events starting at the current replay position. Reading stops at the end of
+     * the segment to which events are currently appended, or at a record that has not been written completely yet.
+     * The incomplete or corrupted end of a segment which is no longer written to is skipped.
+     *
+     * @param batchSize The maximum number of events to read.
+     * @return The {@link Batch} containing the events and the position following them.
+     * @throws IOException if a segment file could not be read.
+     */
+    private Batch readBatch(final int batchSize) throws IOException {
+        Batch batch = new Batch(readSegment, readPosition);
+
+        while (batch.records.size() < batchSize) {
+            Long segment = findSegment(batch.segment);
+
+            if (segment == null) {
+                break;
+            } else if (segment != batch.segment) {
+                batch.segment = segment;
+                batch.position = 0;
+            }
+
+            boolean closed = isClosed(segment);
+            long size = readRecords(batch, batchSize);
+
+            if (!closed || batch.records.size() == batchSize) {
+                break;
+            } else if (batch.position < size) {
+                LOGGER.warn("Skipping " + (size - batch.position) + " corrupted bytes at the end of spool segment "
+                        + segment + "!");
+            }
+
+            batch.segment = segment + 1;
+            batch.position = 0;
+        }
+
+        return batch;
+    }
+
+    /**
+     * Reads the complete records following the position of the given batch within its segment file and adds them to
+     * the batch until it contains the given number of events.
+     *
+     * @param batch The batch to which the events are added.
+     * @param batchSize The maximum number of events in the batch.
+     * @return The size of the segment file at the time it was read.
+     * @throws IOException if the segment file could not be read.
+     */
+    private long readRecords(final Batch batch, final int batchSize) throws IOException {
+        try (FileChannel channel = FileChannel.open(getPath(batch.segment), StandardOpenOption.READ)) {
+            long size = channel.size();
+            ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE);
+
+            while (batch.records.size() < batchSize && batch.position + HEADER_SIZE <= size) {
+                header.clear();
+                read(channel, header, batch.position);
+                int length = header.flip().getInt();
+                int checksum = header.getInt();
+
+                if (length < 0 || batch.position + HEADER_SIZE + length > size) {
+                    break;
+                }
+
+                ByteBuffer payload = ByteBuffer.allocate(length);
+                read(channel, payload, batch.position + HEADER_SIZE);
+                CRC32 crc = new CRC32();
+                crc.update(payload.array());
+                String content = new String(payload.array(), StandardCharsets.UTF_8);
+                int separator = content.indexOf('\n');
+
+                if ((int) crc.getValue() != checksum || separator < 0) {
+                    break;
+                }
+
+                batch.position += HEADER_SIZE + length;
+                batch.records.add(createRecord(content.substring(0, separator), content.substring(separator + 1),
+                        batch.segment, batch.position));
+            }
+
+            return size;
+        }
+    }
+
+    /**
+     * Creates a spool record from the given first line of a record, containing the kind of the event and the time at
+     * which it was received, and the given event data. Records written before the time was added to the spool only
+     * contain the kind, in which case the time is {@code null}.
+     *
+     * @param header The first line of the record.
+     * @param data The raw event data.
+     * @param segment The sequence number of the segment file.
+     * @param position The byte offset following the event.
+     * @return The new spool record.
+     */
+    private static SpoolRecord createRecord(final String header, final String data, final long segment,
+                                            final long position) {
+        int separator = header.indexOf(' ');
+
+        if (separator < 0) {
+            return new SpoolRecord(header, null, data, segment, position);
+        }
+
+        LocalDateTime received;
+
+        try {
+            received = LocalDateTime.parse(header.substring(separator + 1));
+        } catch (DateTimeParseException e) {
+            LOGGER.error("Could not read the receiving time " + header.substring(separator + 1) + " of a spooled "
+                    + "event!", e);
+            received = null;
+        }
+
+        return new SpoolRecord(header.substring(0, separator), received, data, segment, position);
+    }
+
+    /**
+     * Fills the given buffer with the bytes of the given channel starting at the given position.
+     *
+     * @param channel The channel to read from.
+     * @param buffer The buffer to fill.
+     * @param position The position in the channel at which to start reading.
+     * @throws IOException if the channel ends before the buffer is filled or could not be read.
+     */
+    private void read(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new EOFException("Unexpected end of spool segment at position " + position + "!");
+            }
+        }
+    }
+
+    /**
+     * Saves the given replay position in the database.
+     *
+     * @param segment The sequence number of the segment file.
+     * @param position The byte offset within the segment file.
+     */
+    private void saveCheckpoint(final long segment, final long position) {
+        spoolCheckpointRepository.save(new SpoolCheckpoint(name, segment, position));
+    }
+
+    /**
+     * Loads the replay position saved in the database, if this has not been done yet. If the saved position refers to
+     * a segment file created by this instance, the files of the previous run have been removed, and the replay starts
+     * with the first segment file created by this instance.
+     */
+    private void loadCheckpoint() {
+        if (checkpointLoaded) {
+            return;
+        }
+
+        Optional<SpoolCheckpoint> checkpoint = spoolCheckpointRepository.findById(name);
+
+        if (checkpoint.isPresent()) {
+            long segment = checkpoint.get().getSegment();
+
+            if (segment >= firstSegment) {
+                LOGGER.warn("Could not find spool segment " + segment + ", replaying the segments created since the "
+                        + "last start!");
+                readSegment = firstSegment;
+                readPosition = 0;
+            } else {
+                readSegment = segment;
+                readPosition = checkpoint.get().getPosition();
+            }
+        }
+
+        checkpointLoaded = true;
+        deleteSegments();
+    }
+
+    /**
+     * Registers the segment files found in the spool directory. New segment files are numbered after the last one
+     * found.
+     */
+    private synchronized void loadSegments() {
+        try {
+            createDirectory();
+
+            try (Stream<Path> paths = Files.list(directory)) {
+                for (Path path : paths.filter(file -> file.getFileName().toString().endsWith(FILE_ENDING)).toList()) {
+                    String fileName = path.getFileName().toString();
+                    long segment = Long.parseLong(fileName.substring(0, fileName.length() - FILE_ENDING.length()));
+                    long size = Files.size(path);
+                    segments.put(segment, size);
+                    currentSize += size;
+                }
+            }
+        } catch (IOException | NumberFormatException e) {
+            LOGGER.error("Could not load the segments of the spool directory " + directory + "!", e);
+        }
+
+        firstSegment = segments.isEmpty() ? 0 : segments.lastKey() + 1;
+        nextSegment = firstSegment;
+    }
+
+    /**
+     * Closes the current segment file, if any, and starts a new one.
+     *
+     * @throws IOException if the new segment file could not be created.
+     */
+    private void startSegment() throws IOException {
+        closeWriter();
+        createDirectory();
+        long segment = nextSegment++;
+        writer = FileChannel.open(getPath(segment), Set.of(StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE),
+                ownerOnly(FILE_PERMISSIONS));
+        writeSegment = segment;
+        segments.put(segment, 0L);
+    }
+
+    /**
+     * Creates the spool directory accessible by the owner only, if it does not exist yet. The permissions of an
+     * existing directory are restricted to the owner as well.
+     *
+     * @throws IOException if the directory could not be created or its permissions could not be set.
+     */
+    private void createDirectory() throws IOException {
+        Files.createDirectories(directory, ownerOnly(DIRECTORY_PERMISSIONS));
+
+        if (isPosix()) {
+            Files.setPosixFilePermissions(directory, DIRECTORY_PERMISSIONS);
+        }
+    }
+
+    /**
+     * Returns the file attributes restricting the access to a file to the given owner permissions, if the file system
+     * supports POSIX permissions.
+     *
+     * @param permissions The permissions of the owner.
+     * @return The file attributes, or an empty array if POSIX permissions are not supported.
+     */
+    private FileAttribute<?>[] ownerOnly(final Set<PosixFilePermission> permissions) {
+        return isPosix() ? new FileAttribute<?>[] {PosixFilePermissions.asFileAttribute(permissions)}
+                : new FileAttribute<?>[0];
+    }
+
+    /**
+     * Checks, whether the file system of the spool directory supports POSIX permissions.
+     *
+     * @return {@code true} if POSIX permissions are supported, or {@code false} otherwise.
+     */
+    private boolean isPosix() {
+        return directory.getFileSystem().supportedFileAttributeViews().contains("posix");
+    }
+
+    /**
+     * Forces the data written to the current segment file to the storage device.
+     */
+    private synchronized void forceWriter() {
+        if (writer != null) {
+            try {
+                writer.force(false);
+            } catch (IOException e) {
+                LOGGER.error("Could not force spool segment " + writeSegment + " to the storage device!", e);
+            }
+        }
+    }
+
+    /**
+     * Closes the current segment file, if any. Further events are appended to a new segment.
+     */
+    private synchronized void closeWriter() {
+        if (writer != null) {
+            try {
+                writer.close();
+            } catch (IOException e) {
+                LOGGER.error("Could not close spool segment " + writeSegment + "!", e);
+            }
+
+            writer = null;
+        }
+    }
+
+    /**
+     * Deletes all segment files preceding the segment containing the current replay position. The segment containing
+     * the replay position is kept, so that the numbering of new segments continues after it on a restart.
+     */
+    private synchronized void deleteSegments() {
+        Map<Long, Long> consumed = segments.headMap(readSegment);
+
+        for (Map.Entry<Long, Long> entry : new ArrayList<>(consumed.entrySet())) {
+            try {
+                Files.deleteIfExists(getPath(entry.getKey()));
+                consumed.remove(entry.getKey());
+                currentSize -= entry.getValue();
+            } catch (IOException e) {
+                LOGGER.error("Could not delete spool segment " + entry.getKey() + "!", e);
+            }
+        }
+    }
+
+    /**
+     * Returns the sequence number of the first segment file not preceding the given one.
+     *
+     * @param segment The sequence number to search for.
+     * @return The sequence number, or {@code null} if no such segment exists.
+     */
+    private synchronized Long findSegment(final long segment) {
+        return segments.ceilingKey(segment);
+    }
+
+    /**
+     * Checks, whether no further events are appended to the segment file with the given sequence number.
+     *
+     * @param segment The sequence number of the segment.
+     * @return {@code true} if the segment is closed, or {@code false} otherwise.
+     */
+    private synchronized boolean isClosed(final long segment) {
+        return writer == null || segment != writeSegment;
+    }
+
+    /**
+     * Adds the given number of events to the number of replayed events and updates the time of the last replay.
+     *
+     * @param count The number of replayed events.
+     */
+    private synchronized void updateReplayed(final int count) {
+        replayed += count;
+        lastReplay = LocalDateTime.now();
+    }
+
+    /**
+     * Increments the number of skipped events and sets the given message as the last error.
+     *
+     * @param message The error message.
+     */
+    private synchronized void updateFailed(final String message) {
+        failed++;
+        lastError = message;
+    }
+
+    /**
+     * Sets the given message as the last error.
+     *
+     * @param message The error message.
+     */
+    private synchronized void setLastError(final String message) {
+        lastError = message;
+    }
+
+    /**
+     * Returns the path of the segment file with the given sequence number.
+     *
+     * @param segment The sequence number of the segment.
+     * @return The path of the file.
+     */
+    private Path getPath(final long segment) {
+        return directory.resolve(String.format("%020d", segment) + FILE_ENDING);
+    }
+
+    /**
+     * An event read from the spool.
+     */
+    public static final class SpoolRecord {
+
+        /**
+         * The kind of the event, e.g. {@code block} or {@code file}.
+         */
+        private final String kind;
+
+        /**
+         * The time at which the event was received, or {@code null} if it is unknown.
+         */
+        private final LocalDateTime received;
+
+        /**
+         * The raw event data passed in the request body.
+         */
+        private final String data;
+
+        /**
+         * The sequence number of the segment file containing the event.
+         */
+        private final long segment;
+
+        /**
+         * The byte offset following the event within its segment file.
+         */
+        private final long position;
+
+        /**
+         * Constructs a new spool record with the given attributes.
+         *
+         * @param kind The kind of the event.
+         * @param received The time at which the event was received, or {@code null} if it is unknown.
+         * @param data The raw event data.
+         * @param segment The sequence number of the segment file.
+         * @param position The byte offset following the event.
+         */
+        public SpoolRecord(final String kind, final LocalDateTime received, final String data, final long segment,
+                           final long position) {
+            this.kind = kind;
+            this.received = received;
+            this.data = data;
+            this.segment = segment;
+            this.position = position;
+        }
+
+        /**
+         * Returns the kind of the event.
+         *
+         * @return The kind.
+         */
+        public String getKind() {
+            return kind;
+        }
+
+        /**
+         * Returns the time at which the event was received.
+         *
+         * @return The time, or {@code null} if it is unknown.
+         */
+        public LocalDateTime getReceived() {
+            return received;
+        }
+
+        /**
+         * Returns the raw event data.
+         *
+         * @return The data.
+         */
+        public String getData() {
+            return data;
+        }
+
+    }
+
+    /**
+     * A batch of events read from the spool together with the position following them.
+     */
+    private static final class Batch {
+
+        /**
+         * The events contained in the batch.
+         */
+        private final List<SpoolRecord> records = new ArrayList<>();
+
+        /**
+         * The sequence number of the segment file following the batch.
+         */
+        private long segment;
+
+        /**
+         * The byte offset following the batch within its segment file.
+         */
+        private long position;
+
+        /**
+         * Constructs a new empty batch starting at the given position.
+         *
+         * @param segment The sequence number of the segment file.
+         * @param position The byte offset within the segment file.
+         */
+        private Batch(final long segment, final long position) {
+            this.segment = segment;
+            this.position = position;
+        }
+
+    }
+
+}
@@ -24,20 +24,29 @@ import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.ExperimentData;
+import fim.unipassau.de.scratchLog.persistence.entity.ExperimentProject;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentVersionProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentDataRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentProjectRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentProjectDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -61,17 +70,55 @@ public class ExperimentService {
      */
     private final ExperimentDataRepository experimentDataRepository;
 
+    /**
+     * The experiment project repository to use for database queries related to experiment sb3 projects.
+     */
+    private final ExperimentProjectRepository experimentProjectRepository;
+
+    /**
+     * The result cache service to use for invalidating the cached sb3 files generated with an experiment project.
+     */
+    private final ResultCacheService resultCacheService;
+
+    /**
+     * The sb3 projects of the experiments that have recently been requested by participants, mapped to the experiment
+     * id. The GUI fetches the project every time a participant starts or reloads an experiment, so the projects are
+     * kept in memory instead of loading the blob from the database each time. The map is kept in access order, so
+     * that the least recently used projects are evicted first once the number or the total size of the cached projects
+     * exceeds its limit. A cached project is only used while its version matches the hash stored in the database. All
+     * accesses are synchronized on the map.
+     */
+    private final LinkedHashMap<Integer, ExperimentProjectDTO> projectCache = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The total number of bytes of the cached sb3 projects.
+     */
+    private long projectCacheBytes = 0;
+
+    /**
+     * The generation of the project cache, which is incremented whenever a project is invalidated. A project loaded
+     * from the database is only cached if no project has been invalidated since the loading started, so that a
+     * concurrent request cannot re-insert an outdated project after it has been changed.
+     */
+    private long projectGeneration = 0;
+
     /**
      * Constructs an experiment service with the given dependencies.
      *
      * @param experimentRepository The experiment repository to use.
      * @param experimentDataRepository The experiment data repository to use.
+     * @param experimentProjectRepository The experiment project repository to use.
+     * @param resultCacheService The result cache service to use.
      */
     @Autowired
     public ExperimentService(final ExperimentRepository experimentRepository,
-                             final ExperimentDataRepository experimentDataRepository) {
+                             final ExperimentDataRepository experimentDataRepository,
+                             final ExperimentProjectRepository experimentProjectRepository,
+                             final ResultCacheService resultCacheService) {
         this.experimentRepository = experimentRepository;
         this.experimentDataRepository = experimentDataRepository;
+        this.experimentProjectRepository = experimentProjectRepository;
+        this.resultCacheService = resultCacheService;
     }
 
     /**
@@ -129,7 +176,7 @@ public class ExperimentService {
                     + id + "!");
         }
 
-        return experimentRepository.existsByIdAndProjectIsNotNull(id);
+        return experimentProjectRepository.existsById(id);
     }
 
     /**
@@ -154,7 +201,7 @@ public class ExperimentService {
 
         if (experimentDTO.getId() != null) {
             Optional<Experiment> exists = experimentRepository.findById(experimentDTO.getId());
-            exists.ifPresent(value -> experiment.setProject(value.getProject()));
+            exists.ifPresent(value -> experiment.setCourseExperiment(value.isCourseExperiment()));
         }
 
         Experiment saved = experimentRepository.save(experiment);
@@ -204,6 +251,7 @@ public class ExperimentService {
         }
 
         experimentRepository.deleteById(id);
+        invalidateProject(id);
     }
 
     /**
@@ -273,9 +321,17 @@ public class ExperimentService {
         }
 
         try {
-            Experiment experiment = experimentRepository.getReferenceById(id);
-            experiment.setProject(project);
-            experimentRepository.save(experiment);
+            Optional<ExperimentProject> experimentProject = experimentProjectRepository.findById(id);
+
+            if (experimentProject.isPresent()) {
+                experimentProject.get().setProject(project);
+                experimentProjectRepository.save(experimentProject.get());
+            } else {
+                Experiment experiment = experimentRepository.getReferenceById(id);
+                experimentProjectRepository.save(new ExperimentProject(experiment, project));
+            }
+
+            invalidateProject(id);
         } catch (EntityNotFoundException e) {
             LOGGER.error("Could not find experiment with id " + id + " when trying to upload an sb3 project!", e);
             throw new NotFoundException("Could not find experiment with id " + id + " when trying to upload an sb3 "
@@ -296,15 +352,14 @@ public class ExperimentService {
             throw new IllegalArgumentException("Cannot delete sb3 project for experiment with invalid id " + id + "!");
         }
 
-        try {
-            Experiment experiment = experimentRepository.getReferenceById(id);
-            experiment.setProject(null);
-            experimentRepository.save(experiment);
-        } catch (EntityNotFoundException e) {
-            LOGGER.error("Could not find experiment with id " + id + " when trying to delete an sb3 project!", e);
+        if (!experimentRepository.existsById(id)) {
+            LOGGER.error("Could not find experiment with id " + id + " when trying to delete an sb3 project!");
             throw new NotFoundException("Could not find experiment with id " + id + " when trying to delete an sb3 "
-                    + "project!", e);
+                    + "project!");
         }
+
+        experimentProjectRepository.deleteById(id);
+        invalidateProject(id);
     }
 
     /**
@@ -337,6 +392,162 @@ public class ExperimentService {
         return projection.get();
     }
 
+    /**
+     * Retrieves the current sb3 project of the experiment with the given id together with a version identifying its
+     * content. The experiment status and the hash of the stored project are always read from the database, as
+     * experiments can be deactivated in various places and the project can be replaced on another node. The project
+     * itself is loaded only if no cached project with the same hash exists.
+     *
+     * @param id The experiment ID.
+     * @return The {@link ExperimentProjectDTO} containing the project.
+     * @throws IllegalArgumentException if the passed id is invalid.
+     * @throws NotFoundException if no corresponding active experiment or no project could be found.
+     */
+    @Transactional
+    public ExperimentProjectDTO getSb3Project(final int id) {
+        if (id < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot retrieve sb3 project for experiment with invalid id " + id
+                    + "!");
+        }
+
+        long generation;
+
+        synchronized (projectCache) {
+            generation = projectGeneration;
+        }
+
+        Optional<ExperimentVersionProjection> experiment = experimentRepository.findExperimentVersionById(id);
+
+        if (experiment.isEmpty()) {
+            LOGGER.error("Could not find experiment with " + id + " when trying to retrieve its sb3 project!");
+            throw new NotFoundException("Could not find experiment with " + id + " when trying to retrieve its sb3 "
+                    + "project!");
+        } else if (!experiment.get().isActive()) {
+            LOGGER.error("Tried to retrieve the sb3 project for inactive experiment " + id + "!");
+            throw new NotFoundException("Tried to retrieve the sb3 project for inactive experiment " + id + "!");
+        }
+
+        String hash = experiment.get().getHash();
+
+        synchronized (projectCache) {
+            ExperimentProjectDTO cached = projectCache.get(id);
+
+            if (cached != null && hash != null && cached.getVersion().equals(createProjectVersion(id, hash))) {
+                return cached;
+            } else if (cached != null) {
+                removeCachedProject(id);
+            }
+        }
+
+        Optional<ExperimentProject> experimentProject = hash == null ? Optional.empty()
+                : experimentProjectRepository.findById(id);
+
+        if (experimentProject.isEmpty()) {
+            LOGGER.debug("No sb3 project has been uploaded for experiment " + id + ".");
+            throw new NotFoundException("No sb3 project has been uploaded for experiment " + id + "!");
+        }
+
+        ExperimentProjectDTO experimentProjectDTO = ExperimentProjectDTO.builder()
+                .experiment(id)
+                .project(experimentProject.get().getProject())
+                .version(createProjectVersion(id, experimentProject.get().getHash()))
+                .build();
+
+        cacheProject(experimentProjectDTO, generation);
+        return experimentProjectDTO;
+    }
+
+    /**
+     * Creates the version of the sb3 project with the given hash for the experiment with the given id, which is used as
+     * its entity tag.
+     *
+     * @param id The experiment ID.
+     * @param hash The hash of the project.
+     * @return The version of the project.
+     */
+    private String createProjectVersion(final int id, final String hash) {
+        return "\"" + id + "-" + hash + "\"";
+    }
+
+    /**
+     * Adds the given sb3 project to the cache, unless a project has been invalidated since the given generation or the
+     * project exceeds the size of the cache on its own. The least recently used projects are evicted until the cache
+     * is back within its limits.
+     *
+     * @param experimentProjectDTO The {@link ExperimentProjectDTO} containing the project.
+     * @param generation The generation of the cache before the project has been loaded.
+     */
+    private void cacheProject(final ExperimentProjectDTO experimentProjectDTO, final long generation) {
+        long size = experimentProjectDTO.getProject().length;
+
+        synchronized (projectCache) {
+            if (generation != projectGeneration || size > Constants.PROJECT_CACHE_BYTES) {
+                return;
+            }
+
+            removeCachedProject(experimentProjectDTO.getExperiment());
+            projectCache.put(experimentProjectDTO.getExperiment(), experimentProjectDTO);
+            projectCacheBytes += size;
+            Iterator<Map.Entry<Integer, ExperimentProjectDTO>> iterator = projectCache.entrySet().iterator();
+
+            while (projectCache.size() > Constants.PROJECT_CACHE_SIZE
+                    || projectCacheBytes > Constants.PROJECT_CACHE_BYTES) {
+                projectCacheBytes -= iterator.next().getValue().getProject().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * Removes the cached sb3 project of the experiment with the given id, if any, and starts a new generation of the
+     * cache.
+     *
+     * @param id The experiment ID.
+     */
+    private void evictProject(final int id) {
+        synchronized (projectCache) {
+            projectGeneration++;
+            removeCachedProject(id);
+        }
+    }
+
+    /**
+     * Removes the cached sb3 project of the experiment with the given id from the cache, if any. The caller has to
+     * hold the lock of the cache.
+     *
+     * @param id The experiment ID.
+     */
+    private void removeCachedProject(final int id) {
+        ExperimentProjectDTO removed = projectCache.remove(id);
+
+        if (removed != null) {
+            projectCacheBytes -= removed.getProject().length;
+        }
+    }
+
+    /**
+     * Removes the cached sb3 project of the experiment with the given id along with the cached result files containing
+     * it. If called within a transaction, both are removed again once the transaction has completed, since a
+     * concurrent request might have loaded the old project in the meantime. Each removal starts a new generation of
+     * the cache, so that such a request cannot cache the old project afterwards.
+     *
+     * @param id The experiment ID.
+     */
+    private void invalidateProject(final int id) {
+        evictProject(id);
+        resultCacheService.invalidateExperimentResults(id);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(final int status) {
+                    evictProject(id);
+                    resultCacheService.invalidateExperimentResults(id);
+                }
+            });
+        }
+    }
+
     /**
      * Creates a {@link Experiment} with the given information of the {@link ExperimentDTO}.
      *
@@ -42,12 +42,14 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
 
 /**
- * A service providing methods related to file persistence and retrieval.
+ * A service providing methods related to file persistence and retrieval. Files carrying a key that has already been
+ * saved for the participant are repeated requests and are not saved again.
  */
 @Service
 public class FileService {
@@ -82,6 +84,11 @@ public class FileService {
      */
     private final Sb3ZipRepository sb3ZipRepository;
 
+    /**
+     * The event key service to use for recognizing repeated files.
+     */
+    private final EventKeyService eventKeyService;
+
     /**
      * Constructs a file service with the given dependencies.
      *
@@ -90,16 +97,18 @@ public class FileService {
      * @param userRepository The user repository to use.
      * @param experimentRepository The experiment repository to use.
      * @param sb3ZipRepository The sb3 zip repository to use.
+     * @param eventKeyService The event key service to use.
      */
     @Autowired
     public FileService(final FileRepository fileRepository, final ParticipantRepository participantRepository,
                        final UserRepository userRepository, final ExperimentRepository experimentRepository,
-                       final Sb3ZipRepository sb3ZipRepository) {
+                       final Sb3ZipRepository sb3ZipRepository, final EventKeyService eventKeyService) {
         this.fileRepository = fileRepository;
         this.participantRepository = participantRepository;
         this.userRepository = userRepository;
         this.experimentRepository = experimentRepository;
         this.sb3ZipRepository = sb3ZipRepository;
+        this.eventKeyService = eventKeyService;
     }
 
     /**
@@ -109,13 +118,26 @@ public class FileService {
      */
     @Transactional
     public void saveFile(final FileDTO fileDTO) {
+        saveFile(fileDTO, null);
+    }
+
+    /**
+     * Creates a new file with the given parameters in the database. If the time at which the file was received is
+     * given, the file is also saved if the participant finished the experiment after that time.
+     *
+     * @param fileDTO The dto containing the file information to set.
+     * @param received The time at which the file was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveFile(final FileDTO fileDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(fileDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(fileDTO.getExperiment());
 
         try {
             Optional<Participant> participant = participantRepository.findByUserAndExperiment(user, experiment);
 
-            if (isInvalidParticipant(participant, user, experiment, "file")) {
+            if (isInvalidParticipant(participant, user, experiment, "file", received)
+                    || eventKeyService.isDuplicate(fileDTO.getUser(), fileDTO.getExperiment(), fileDTO.getKey())) {
                 return;
             }
 
@@ -137,13 +159,27 @@ public class FileService {
      */
     @Transactional
     public void saveSb3Zip(final Sb3ZipDTO sb3ZipDTO) {
+        saveSb3Zip(sb3ZipDTO, null);
+    }
+
+    /**
+     * Creates a new sb3 zip file with the given parameters in the database. If the time at which the file was
+     * received is given, the file is also saved if the participant finished the experiment after that time.
+     *
+     * @param sb3ZipDTO The dto containing the file information to set.
+     * @param received The time at which the file was received by the server, or {@code null} if it is unknown.
+     */
+    @Transactional
+    public void saveSb3Zip(final Sb3ZipDTO sb3ZipDTO, final LocalDateTime received) {
         User user = userRepository.getReferenceById(sb3ZipDTO.getUser());
         Experiment experiment = experimentRepository.getReferenceById(sb3ZipDTO.getExperiment());
 
         try {
             Optional<Participant> participant = participantRepository.findByUserAndExperiment(user, experiment);
 
-            if (isInvalidParticipant(participant, user, experiment, "sb3 zip file")) {
+            if (isInvalidParticipant(participant, user, experiment, "sb3 zip file", received)
+                    || eventKeyService.isDuplicate(sb3ZipDTO.getUser(), sb3ZipDTO.getExperiment(),
+                    sb3ZipDTO.getKey())) {
                 return;
             }
 
@@ -375,25 +411,30 @@ public class FileService {
 
     /**
      * Checks, whether the given participant data is valid. This is the case if no corresponding participant exists, the
-     * participant has already finished the experiment, or the user or experiment itself is inactive.
+     * participant has already finished the experiment, or the user or experiment itself is inactive. If the time at
+     * which the file was received is given, participants who finished the experiment at or after that time and whose
+     * user account has been deactivated in the process are still accepted.
      *
      * @param participant The {@link Participant} to check.
      * @param user The {@link User} participating in the experiment.
      * @param experiment The {@link Experiment} in question.
      * @param fileType The type of file that is to be saved.
+     * @param received The time at which the file was received, or {@code null} if it is unknown.
      * @return {@code true} if the participant data is invalid, or {@code false} otherwise.
      */
     private boolean isInvalidParticipant(final Optional<Participant> participant, final User user,
-                                         final Experiment experiment, final String fileType) {
+                                         final Experiment experiment, final String fileType,
+                                         final LocalDateTime received) {
         if (participant.isEmpty()) {
             LOGGER.error("No corresponding participant entry could be found for user with id " + user.getId()
                     + " and experiment " + experiment.getId() + " when trying to save a " + fileType + "!");
             return true;
-        } else if (participant.get().getEnd() != null) {
+        } else if (participant.get().getEnd() != null
+                && (received == null || received.isAfter(participant.get().getEnd()))) {
             LOGGER.error("Tried to save a " + fileType + " for participant " + user.getId() + " during experiment "
                     + experiment.getId() + " who has already finished!");
             return true;
-        } else if (!user.isActive() || !experiment.isActive()) {
+        } else if ((!user.isActive() && received == null) || !experiment.isActive()) {
             LOGGER.error("Tried to save a " + fileType + " for participant " + user.getId() + " during experiment "
                     + experiment.getId() + " with user or experiment inactive!");
             return true;
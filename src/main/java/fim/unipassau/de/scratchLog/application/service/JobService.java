@@ -0,0 +1,383 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.JobRunDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+import java.util.stream.Collectors;
+
+/**
+ * A service coordinating the scheduled jobs that should only be executed by a single node when several application
+ * nodes share the same database. Before running a job, a node has to acquire the lease for the job in the database.
+ * The lease expires after a given time, so that jobs are taken over by another node if the node holding the lease
+ * crashes. Once a job has finished, the lease is kept for most of the job interval, so that the other nodes skip
+ * their own invocations during that interval. All lease times are computed on the database clock, so that the
+ * coordination does not depend on the clocks of the nodes being synchronized. Each run is recorded in the database
+ * together with the counts reported by the job, so that the results of a job can be shown on every node.
+ */
+@Service
+public class JobService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(JobService.class);
+
+    /**
+     * The statement used to take over the lease of a job that has expired.
+     */
+    private static final String ACQUIRE_LEASE = "UPDATE job_lease SET owner = ?, locked_until = "
+            + "TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP) WHERE name = ? AND locked_until <= CURRENT_TIMESTAMP";
+
+    /**
+     * The statement used to create the lease of a job that has never been run before.
+     */
+    private static final String INSERT_LEASE = "INSERT INTO job_lease (name, owner, locked_until) VALUES (?, ?, "
+            + "TIMESTAMPADD(SECOND, ?, CURRENT_TIMESTAMP))";
+
+    /**
+     * The statement used to change the expiration of a lease held by this node.
+     */
+    private static final String UPDATE_LEASE = "UPDATE job_lease SET locked_until = TIMESTAMPADD(SECOND, ?, "
+            + "CURRENT_TIMESTAMP) WHERE name = ? AND owner = ?";
+
+    /**
+     * The statement used to record a run of a job.
+     */
+    private static final String INSERT_RUN = "INSERT INTO job_run (name, node, started, duration, affected, failed, "
+            + "counts) VALUES (?, ?, ?, ?, ?, ?, ?)";
+
+    /**
+     * The statement used to delete the runs that are no longer kept.
+     */
+    private static final String DELETE_RUNS = "DELETE FROM job_run WHERE started < ?";
+
+    /**
+     * The query used to retrieve the latest runs of all jobs.
+     */
+    private static final String FIND_RUNS = "SELECT r.name, r.node, r.started, r.duration, r.affected, r.failed, "
+            + "r.counts FROM job_run AS r ORDER BY r.started DESC, r.id DESC LIMIT ?";
+
+    /**
+     * The query used to retrieve the latest run of a single job.
+     */
+    private static final String FIND_LATEST_RUN = "SELECT r.name, r.node, r.started, r.duration, r.affected, r.failed, "
+            + "r.counts FROM job_run AS r WHERE r.name = ? ORDER BY r.started DESC, r.id DESC LIMIT 1";
+
+    /**
+     * The JDBC template to use for acquiring the leases outside any surrounding transaction.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The name identifying this node in the leases and job runs.
+     */
+    private final String node;
+
+    /**
+     * Constructs a new job service with the given dependencies. If no node name is configured, a name is generated
+     * from the host name and a random suffix.
+     *
+     * @param jdbcTemplate The {@link JdbcTemplate} to use.
+     * @param node The name of this node.
+     */
+    @Autowired
+    public JobService(final JdbcTemplate jdbcTemplate, @Value("${app.node:}") final String node) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.node = node == null || node.isBlank() ? createNodeName() : node;
+    }
+
+    /**
+     * Runs the given job if this node can acquire its lease and records the run afterwards. The job is passed a
+     * heartbeat which it has to invoke before processing each chunk. The heartbeat renews the lease for the given lease
+     * time and returns {@code false} if the lease has been taken over by another node in the meantime, in which case
+     * the job has to stop. The counts the job reports to the heartbeat are recorded along with the run. Once the job
+     * has finished, the lease is kept until nine tenths of the given interval have passed since the start of the run,
+     * so that the job is not run again by any node in the meantime. If the job fails, the lease is released right away,
+     * so that the next invocation on any node can retry it.
+     *
+     * @param name The name of the job.
+     * @param lease The time in milliseconds after which the lease expires if the node crashes during a chunk.
+     * @param interval The interval in milliseconds in which the job is to be run once.
+     * @param job The job taking the heartbeat and returning the number of affected rows.
+     * @return {@code true} if the job has been run by this node, or {@code false} if it has been skipped.
+     */
+    public boolean runExclusively(final String name, final long lease, final long interval,
+                                  final ToIntFunction<? super Heartbeat> job) {
+        if (!acquireLease(name, lease)) {
+            LOGGER.debug("Skipping job " + name + " as it is currently leased by another node.");
+            return false;
+        }
+
+        LocalDateTime start = LocalDateTime.now();
+        long startMillis = System.currentTimeMillis();
+        boolean failed = true;
+        int affected = 0;
+        Map<String, Long> counts = new LinkedHashMap<>();
+
+        try {
+            affected = job.applyAsInt(new Heartbeat() {
+                @Override
+                public boolean getAsBoolean() {
+                    return renewLease(name, lease);
+                }
+
+                @Override
+                public void count(final String key, final long count) {
+                    counts.merge(key, count, Long::sum);
+                }
+            });
+            failed = false;
+        } finally {
+            long duration = System.currentTimeMillis() - startMillis;
+            long keep = failed ? 0 : interval - interval / 10 - duration;
+            finishRun(name, start, duration, affected, failed, formatCounts(counts), keep);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the latest runs of all coordinated jobs, starting with the most recent one.
+     *
+     * @return A list of {@link JobRunDTO}s.
+     */
+    public List<JobRunDTO> getRecentRuns() {
+        return jdbcTemplate.query(FIND_RUNS, (resultSet, row) -> createJobRunDTO(resultSet),
+                Constants.JOB_HISTORY_SIZE);
+    }
+
+    /**
+     * Returns the latest run of the job with the given name, regardless of the node that executed it.
+     *
+     * @param name The name of the job.
+     * @return An {@link Optional} containing the run, if the job has been run within the kept history.
+     */
+    public Optional<JobRunDTO> findLatestRun(final String name) {
+        return jdbcTemplate.query(FIND_LATEST_RUN, (resultSet, row) -> createJobRunDTO(resultSet), name).stream()
+                .findFirst();
+    }
+
+    /**
+     * Returns the name identifying this node in the leases and job runs.
+     *
+     * @return The node name.
+     */
+    public String getNode() {
+        return node;
+    }
+
+    /**
+     * Tries to acquire the lease for the job with the given name for the given time. The lease can only be acquired
+     * if it has expired or if it does not exist yet. As both cases are handled by a single statement, at most one node
+     * can acquire the lease.
+     *
+     * @param name The name of the job.
+     * @param lease The time in milliseconds for which the lease is to be held.
+     * @return {@code true} if the lease has been acquired, or {@code false} otherwise.
+     */
+    private boolean acquireLease(final String name, final long lease) {
+        try {
+            if (jdbcTemplate.update(ACQUIRE_LEASE, node, toSeconds(lease), name) > 0) {
+                return true;
+            }
+
+            return jdbcTemplate.update(INSERT_LEASE, name, node, toSeconds(lease)) > 0;
+        } catch (DataIntegrityViolationException e) {
+            LOGGER.debug("The lease for job " + name + " has been created by another node in the meantime.");
+            return false;
+        } catch (DataAccessException e) {
+            LOGGER.error("Could not acquire the lease for job " + name + "!", e);
+            return false;
+        }
+    }
+
+    /**
+     * Renews the lease this node holds for the job with the given name for the given time.
+     *
+     * @param name The name of the job.
+     * @param lease The time in milliseconds for which the lease is to be held.
+     * @return {@code true} if the lease is still held by this node, or {@code false} if it has been taken over by
+     *         another node or could not be renewed.
+     */
+    private boolean renewLease(final String name, final long lease) {
+        try {
+            if (jdbcTemplate.update(UPDATE_LEASE, toSeconds(lease), name, node) > 0) {
+                return true;
+            }
+
+            LOGGER.warn("The lease for job " + name + " has been taken over by another node!");
+            return false;
+        } catch (DataAccessException e) {
+            LOGGER.error("Could not renew the lease for job " + name + "!", e);
+            return false;
+        }
+    }
+
+    /**
+     * Records the finished run of the job with the given name, deletes the runs that are no longer kept and keeps the
+     * lease of the job for the given time.
+     *
+     * @param name The name of the job.
+     * @param start The time at which the run started.
+     * @param duration The time in milliseconds the run took.
+     * @param affected The number of affected rows.
+     * @param failed Whether the run failed.
+     * @param counts The counts reported by the job, or {@code null} if it did not report any.
+     * @param keep The time in milliseconds for which the lease is to be kept.
+     */
+    private void finishRun(final String name, final LocalDateTime start, final long duration, final int affected,
+                           final boolean failed, final String counts, final long keep) {
+        try {
+            jdbcTemplate.update(UPDATE_LEASE, toSeconds(keep), name, node);
+            jdbcTemplate.update(INSERT_RUN, name, node, start, duration, affected, failed, counts);
+            jdbcTemplate.update(DELETE_RUNS, start.minusDays(Constants.JOB_HISTORY_DAYS));
+        } catch (DataAccessException e) {
+            LOGGER.error("Could not record the run of job " + name + "!", e);
+        }
+    }
+
+    /**
+     * Creates a {@link JobRunDTO} from the current row of the given result set.
+     *
+     * @param resultSet The result set of a query on the job runs.
+     * @return The new job run DTO.
+     * @throws SQLException if the row could not be read.
+     */
+    private static JobRunDTO createJobRunDTO(final ResultSet resultSet) throws SQLException {
+        return JobRunDTO.builder()
+                .name(resultSet.getString("name"))
+                .node(resultSet.getString("node"))
+                .started(resultSet.getObject("started", LocalDateTime.class))
+                .duration(resultSet.getLong("duration"))
+                .affected(resultSet.getInt("affected"))
+                .failed(resultSet.getBoolean("failed"))
+                .counts(parseCounts(resultSet.getString("counts")))
+                .build();
+    }
+
+    /**
+     * Formats the given counts reported by a job as a comma separated list of {@code key=count} pairs to be stored
+     * with the run.
+     *
+     * @param counts The counts mapped to their keys.
+     * @return The formatted counts, or {@code null} if no counts have been reported.
+     */
+    private static String formatCounts(final Map<String, Long> counts) {
+        if (counts.isEmpty()) {
+            return null;
+        }
+
+        return counts.entrySet().stream().map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Parses the counts stored with a run as formatted by {@link #formatCounts(Map)}.
+     *
+     * @param counts The formatted counts, or {@code null}.
+     * @return The counts mapped to their keys.
+     */
+    private static Map<String, Long> parseCounts(final String counts) {
+        Map<String, Long> parsed = new LinkedHashMap<>();
+
+        if (counts == null || counts.isBlank()) {
+            return parsed;
+        }
+
+        for (String pair : counts.split(",")) {
+            int separator = pair.indexOf('=');
+
+            try {
+                parsed.put(pair.substring(0, separator), Long.parseLong(pair.substring(separator + 1)));
+            } catch (IndexOutOfBoundsException | NumberFormatException e) {
+                LOGGER.warn("Ignoring invalid job run count " + pair + "!");
+            }
+        }
+
+        return parsed;
+    }
+
+    /**
+     * Converts the given time in milliseconds to whole seconds, as the lease expiration is stored with a precision of
+     * seconds. Negative times are treated as zero.
+     *
+     * @param millis The time in milliseconds.
+     * @return The time in seconds.
+     */
+    private static long toSeconds(final long millis) {
+        return Math.max(0, millis / 1000);
+    }
+
+    /**
+     * Generates a name for this node from the host name and a random suffix, so that several nodes on the same host
+     * can be told apart.
+     *
+     * @return The generated node name.
+     */
+    private static String createNodeName() {
+        String suffix = UUID.randomUUID().toString().substring(0, 8);
+
+        try {
+            return InetAddress.getLocalHost().getHostName() + "-" + suffix;
+        } catch (UnknownHostException e) {
+            return suffix;
+        }
+    }
+
+    /**
+     * The heartbeat passed to a job. Invoking it renews the lease of the job and returns {@code false} once the lease
+     * has been lost. Jobs can additionally report named counts, which are summed up and recorded with the run.
+     */
+    public interface Heartbeat extends BooleanSupplier {
+
+        /**
+         * Adds the given count to the count with the given key recorded with the current run. The key must not
+         * contain commas or equals signs.
+         *
+         * @param key The key of the count.
+         * @param count The count to add.
+         */
+        void count(String key, long count);
+
+    }
+
+}
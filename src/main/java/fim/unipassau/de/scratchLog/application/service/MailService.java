@@ -16,27 +16,43 @@
  * You should have received a copy of the GNU General Public License
  * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
  */
-
 package fim.unipassau.de.scratchLog.application.service;
 
+import fim.unipassau.de.scratchLog.persistence.entity.OutboxMail;
+import fim.unipassau.de.scratchLog.persistence.repository.OutboxMailRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.MailStatusDTO;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailException;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.thymeleaf.context.Context;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
- * A service providing methods related to sending emails to users.
+ * A service providing methods related to sending emails to users. Emails are not sent directly, but added to the mail
+ * outbox table and sent by background workers later on, so that requests do not have to wait for the mail server.
+ * Emails that could not be sent are retried with an exponentially increasing delay.
  */
 @Service
 public class MailService {
@@ -46,6 +62,17 @@ public class MailService {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(MailService.class);
 
+    /**
+     * The maximum length of the error message stored for an email that could not be sent.
+     */
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    /**
+     * The statement used to add the emails queued in a bulk to the mail outbox.
+     */
+    private static final String INSERT_MAIL = "INSERT INTO mail_outbox (recipient, subject, template, model, attempts, "
+            + "failed, next_attempt, created) VALUES (?, ?, ?, ?, 0, FALSE, ?, ?)";
+
     /**
      * The email address to use for sending emails as defined in the application properties file.
      */
@@ -62,48 +89,206 @@ public class MailService {
      */
     private final SpringTemplateEngine templateEngine;
 
+    /**
+     * The outbox mail repository to use for queuing the emails to be sent.
+     */
+    private final OutboxMailRepository outboxMailRepository;
+
+    /**
+     * The JDBC template to use for adding emails to the outbox in batches.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The number of emails sent since the application was started.
+     */
+    private final AtomicLong sent = new AtomicLong();
+
+    /**
+     * The number of failed attempts to send an email since the application was started.
+     */
+    private final AtomicLong retried = new AtomicLong();
+
     /**
      * Constructs a new mail service with the given dependencies.
      *
      * @param emailSender The mail sender to use.
      * @param templateEngine The template engine to use.
+     * @param outboxMailRepository The {@link OutboxMailRepository} to use.
+     * @param jdbcTemplate The {@link JdbcTemplate} to use.
      */
     @Autowired
     public MailService(@Qualifier("mailSender") final JavaMailSender emailSender,
-                       final SpringTemplateEngine templateEngine) {
+                       final SpringTemplateEngine templateEngine, final OutboxMailRepository outboxMailRepository,
+                       final JdbcTemplate jdbcTemplate) {
         this.emailSender = emailSender;
         this.templateEngine = templateEngine;
+        this.outboxMailRepository = outboxMailRepository;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
-     * Sends the given email template to the given addresses. If the {@link MailService} fails to send the message
-     * three consecutive times, it stops.
+     * Adds the given email template to the mail outbox to be sent to the given address by the mail workers. The entry
+     * is written within the surrounding transaction, if any, so the email is only sent if the corresponding changes
+     * are committed as well.
      *
      * @param to The recipient of the email.
      * @param subject The subject of this email.
      * @param templateModel The template model containing additional properties.
      * @param template The name of the mail template to use.
-     * @return {@code true} if the email was sent successfully, or {@code false} otherwise.
+     * @return {@code true} if the email was added to the outbox, or {@code false} if the recipient is missing.
      */
+    @Transactional
     public boolean sendEmail(final String to, final String subject, final Map<String, Object> templateModel,
-                              final String template) {
-        int tries = 0;
+                             final String template) {
+        if (to == null || to.trim().isBlank()) {
+            LOGGER.error("Cannot send email with subject " + subject + " to recipient null or blank!");
+            return false;
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        OutboxMail mail = OutboxMail.builder().recipient(to).subject(subject).template(template)
+                .model(new JSONObject(templateModel).toString()).nextAttempt(now).created(now).build();
+        outboxMailRepository.save(mail);
+        return true;
+    }
+
+    /**
+     * Adds an email with the given subject and template to the mail outbox for each of the given recipients, using the
+     * template model stored for the respective address. The entries are written in batches of
+     * {@link Constants#MAIL_BATCH_SIZE} rows within the surrounding transaction, if any. Recipients that are blank are
+     * skipped.
+     *
+     * @param templateModels The template models mapped to the addresses of the recipients.
+     * @param subject The subject of the emails.
+     * @param template The name of the mail template to use.
+     * @return The number of emails added to the outbox.
+     */
+    @Transactional
+    public int sendEmails(final Map<String, Map<String, Object>> templateModels, final String subject,
+                          final String template) {
+        List<Map.Entry<String, Map<String, Object>>> mails = templateModels.entrySet().stream()
+                .filter(entry -> entry.getKey() != null && !entry.getKey().trim().isBlank()).toList();
+
+        if (mails.size() < templateModels.size()) {
+            LOGGER.error("Skipped " + (templateModels.size() - mails.size()) + " emails with subject " + subject
+                    + " to recipients null or blank!");
+        }
+
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        jdbcTemplate.batchUpdate(INSERT_MAIL, mails, Constants.MAIL_BATCH_SIZE, (statement, mail) -> {
+            statement.setString(1, mail.getKey());
+            statement.setString(2, subject);
+            statement.setString(3, template);
+            statement.setString(4, new JSONObject(mail.getValue()).toString());
+            statement.setTimestamp(5, now);
+            statement.setTimestamp(6, now);
+        });
+        return mails.size();
+    }
+
+    /**
+     * Claims up to the given number of emails from the outbox that are due to be sent. The due emails are marked with
+     * a random claim token by a conditional update that only matches rows which are still due, and their next attempt
+     * is postponed by {@link Constants#MAIL_LEASE} seconds. Only the emails carrying the token afterwards are returned,
+     * so an email picked up concurrently by a worker on this or another node is never handed out twice.
+     *
+     * @param limit The maximum number of emails to return.
+     * @return The list of claimed emails.
+     */
+    @Transactional
+    public List<OutboxMail> claimMails(final int limit) {
+        LocalDateTime now = LocalDateTime.now();
+        List<Integer> ids = outboxMailRepository.findDueMailIds(now, limit);
+
+        if (ids.isEmpty()) {
+            return List.of();
+        }
+
+        String claim = UUID.randomUUID().toString();
+
+        if (outboxMailRepository.claimMails(ids, claim, now, now.plusSeconds(Constants.MAIL_LEASE)) == 0) {
+            return List.of();
+        }
+
+        return outboxMailRepository.findAllByClaim(claim);
+    }
 
-        while (tries < Constants.MAX_EMAIL_TRIES) {
+    /**
+     * Renders the templates of the given emails from the outbox and sends them over a single connection to the mail
+     * server. Emails that have been sent are removed from the outbox. The next attempt of emails that could not be
+     * sent is postponed by a delay doubling with each attempt, and emails that could not be sent within
+     * {@link Constants#MAX_EMAIL_TRIES} attempts are marked as failed.
+     *
+     * @param mails The emails to send.
+     */
+    public void sendMails(final List<OutboxMail> mails) {
+        Map<MimeMessage, OutboxMail> messages = new IdentityHashMap<>();
+        List<OutboxMail> failed = new ArrayList<>();
+
+        for (OutboxMail mail : mails) {
             try {
-                sendTemplateMessage(to, null, null, null, subject, templateModel, template);
-                return true;
-            } catch (MessagingException e) {
-                tries++;
-                LOGGER.error("Failed to send message to address " + to + " on try #" + tries + "!", e);
+                messages.put(createTemplateMessage(mail.getRecipient(), null, null, null, mail.getSubject(),
+                        new JSONObject(mail.getModel()).toMap(), mail.getTemplate()), mail);
+            } catch (MessagingException | RuntimeException e) {
+                LOGGER.error("Could not render email with id " + mail.getId() + "!", e);
+                recordFailure(mail, e, failed);
             }
         }
 
-        return false;
+        if (!messages.isEmpty()) {
+            try {
+                emailSender.send(messages.keySet().toArray(new MimeMessage[0]));
+            } catch (MailException e) {
+                Map<Object, Exception> failedMessages = e instanceof MailSendException sendException
+                        ? sendException.getFailedMessages() : Map.of();
+                LOGGER.error("Could not send " + (failedMessages.isEmpty() ? messages.size() : failedMessages.size())
+                        + " of " + messages.size() + " emails!", e);
+
+                if (failedMessages.isEmpty()) {
+                    messages.values().forEach(mail -> recordFailure(mail, e, failed));
+                    messages.clear();
+                } else {
+                    failedMessages.forEach((message, cause) -> {
+                        OutboxMail mail = messages.remove(message);
+
+                        if (mail != null) {
+                            recordFailure(mail, cause, failed);
+                        }
+                    });
+                }
+            }
+        }
+
+        if (!messages.isEmpty()) {
+            outboxMailRepository.deleteAllByIdInBatch(messages.values().stream().map(OutboxMail::getId).toList());
+            sent.addAndGet(messages.size());
+        }
+        if (!failed.isEmpty()) {
+            outboxMailRepository.saveAll(failed);
+            retried.addAndGet(failed.size());
+        }
+    }
+
+    /**
+     * Returns the current state of the mail outbox, i.e. the number of pending and failed emails and the time at
+     * which the oldest pending email was queued, along with the number of sent emails and failed attempts since the
+     * application was started.
+     *
+     * @return The {@link MailStatusDTO} containing the information.
+     */
+    @Transactional(readOnly = true)
+    public MailStatusDTO getStatus() {
+        return MailStatusDTO.builder().pending(outboxMailRepository.countByFailed(false))
+                .failed(outboxMailRepository.countByFailed(true))
+                .oldestPending(outboxMailRepository.findFirstByFailedFalseOrderByCreatedAsc()
+                        .map(OutboxMail::getCreated).orElse(null))
+                .sent(sent.get()).retried(retried.get()).build();
     }
 
     /**
-     * Sends a new template message to the given addresses with the content specified in the given template.
+     * Sends a new template message to the given addresses with the content specified in the given template right
+     * away, bypassing the mail outbox.
      *
      * @param to The recipient of the email.
      * @param cc The address to which a copy of this email should be send.
@@ -117,16 +302,65 @@ public class MailService {
     public void sendTemplateMessage(final String to, final String cc, final String bcc, final String replyTo,
                                     final String subject, final Map<String, Object> templateModel,
                                     final String template) throws MessagingException {
+        MimeMessage message = createTemplateMessage(to, cc, bcc, replyTo, subject, templateModel, template);
+        LOGGER.debug("Sending email to " + to + " with subject " + subject);
+        emailSender.send(message);
+    }
+
+    /**
+     * Records a failed attempt to send the given email. The next attempt is postponed by
+     * {@link Constants#MAIL_RETRY_DELAY} seconds, doubled for each previous attempt up to
+     * {@link Constants#MAIL_MAX_RETRY_DELAY} seconds. If the maximum number of attempts has been reached, the email is
+     * marked as failed instead.
+     *
+     * @param mail The email that could not be sent.
+     * @param cause The exception that occurred.
+     * @param failed The list to which the email is added to be updated later on.
+     */
+    private void recordFailure(final OutboxMail mail, final Exception cause, final List<OutboxMail> failed) {
+        int attempts = mail.getAttempts() + 1;
+        long delay = Math.min(Constants.MAIL_RETRY_DELAY << Math.min(attempts - 1, Long.SIZE - 2),
+                Constants.MAIL_MAX_RETRY_DELAY);
+        String error = String.valueOf(cause.getMessage());
+        mail.setAttempts(attempts);
+        mail.setFailed(attempts >= Constants.MAX_EMAIL_TRIES);
+        mail.setNextAttempt(LocalDateTime.now().plusSeconds(delay));
+        mail.setLastError(error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error);
+        failed.add(mail);
+
+        if (mail.isFailed()) {
+            LOGGER.error("Giving up on sending email with id " + mail.getId() + " to " + mail.getRecipient()
+                    + " after " + attempts + " attempts!");
+        }
+    }
+
+    /**
+     * Creates a new template message to the given addresses with the content specified in the given template.
+     *
+     * @param to The recipient of the email.
+     * @param cc The address to which a copy of this email should be send.
+     * @param bcc The address to which a blind copy of this email should be send.
+     * @param replyTo The reply to address.
+     * @param subject The subject of this email.
+     * @param templateModel The template model containing additional properties.
+     * @param template The name of the mail template to use.
+     * @return The message.
+     * @throws MessagingException if the message could not be created.
+     */
+    private MimeMessage createTemplateMessage(final String to, final String cc, final String bcc,
+                                              final String replyTo, final String subject,
+                                              final Map<String, Object> templateModel, final String template)
+            throws MessagingException {
         Context thymeleafContext = new Context();
         thymeleafContext.setVariables(templateModel);
 
         String htmlBody = templateEngine.process(template, thymeleafContext);
 
-        sendHtmlMessage(to, cc, bcc, replyTo, subject, htmlBody);
+        return createHtmlMessage(to, cc, bcc, replyTo, subject, htmlBody);
     }
 
     /**
-     * Sends the given html message to the given addresses.
+     * Creates the given html message to the given addresses.
      *
      * @param to The recipient of the email.
      * @param cc The address to which a copy of this email should be send.
@@ -134,11 +368,11 @@ public class MailService {
      * @param replyTo The reply to address.
      * @param subject The subject of this email.
      * @param htmlBody The html representation of the mail template.
-     * @throws MessagingException if the email could not be sent.
+     * @return The message.
+     * @throws MessagingException if the message could not be created.
      */
-    private void sendHtmlMessage(final String to, final String cc, final String bcc, final String replyTo,
-                                 final String subject, final String htmlBody) throws MessagingException {
-        LOGGER.debug("Sending email to " + to + " with subject " + subject);
+    private MimeMessage createHtmlMessage(final String to, final String cc, final String bcc, final String replyTo,
+                                          final String subject, final String htmlBody) throws MessagingException {
         MimeMessage message = emailSender.createMimeMessage();
         MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
         helper.setFrom(email);
@@ -156,7 +390,7 @@ public class MailService {
             helper.setReplyTo(replyTo);
         }
 
-        emailSender.send(message);
+        return message;
     }
 
 }
@@ -0,0 +1,265 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.util.ApplicationProperties;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
+import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
+import fim.unipassau.de.scratchLog.web.dto.UserDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.ResourceBundle;
+
+/**
+ * A service making changes to user accounts and experiment participations together with queuing the emails informing
+ * the users about them. Both are done in a single transaction, so an email is only added to the mail outbox if the
+ * corresponding change has been committed, and the change is rolled back if the email could not be queued.
+ */
+@Service
+public class NotificationService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(NotificationService.class);
+
+    /**
+     * The name of the mail template used for experiment invitations.
+     */
+    private static final String PARTICIPANT_TEMPLATE = "participant-email";
+
+    /**
+     * The message key of the subject used for experiment invitations.
+     */
+    private static final String PARTICIPANT_SUBJECT = "participant_email_subject";
+
+    /**
+     * The user service to use for changing user accounts.
+     */
+    private final UserService userService;
+
+    /**
+     * The token service to use for generating tokens.
+     */
+    private final TokenService tokenService;
+
+    /**
+     * The participant service to use for adding participants to experiments.
+     */
+    private final ParticipantService participantService;
+
+    /**
+     * The experiment service to use for changing the status of experiments.
+     */
+    private final ExperimentService experimentService;
+
+    /**
+     * The mail service to use for queuing the emails.
+     */
+    private final MailService mailService;
+
+    /**
+     * Constructs a new notification service with the given dependencies.
+     *
+     * @param userService The {@link UserService} to use.
+     * @param tokenService The {@link TokenService} to use.
+     * @param participantService The {@link ParticipantService} to use.
+     * @param experimentService The {@link ExperimentService} to use.
+     * @param mailService The {@link MailService} to use.
+     */
+    @Autowired
+    public NotificationService(final UserService userService, final TokenService tokenService,
+                               final ParticipantService participantService, final ExperimentService experimentService,
+                               final MailService mailService) {
+        this.userService = userService;
+        this.tokenService = tokenService;
+        this.participantService = participantService;
+        this.experimentService = experimentService;
+        this.mailService = mailService;
+    }
+
+    /**
+     * Creates a new user with the given information along with a registration token and queues an email asking the
+     * user to set their password.
+     *
+     * @param userDTO The dto containing the user information to set.
+     * @param subject The subject of the email.
+     * @return The newly created user.
+     * @throws IllegalArgumentException if the username is null or blank.
+     * @throws NotFoundException if the user could not be found after creating it.
+     * @throws StoreException if the user, token or email could not be persisted.
+     */
+    @Transactional
+    public UserDTO saveUser(final UserDTO userDTO, final String subject) {
+        UserDTO saved = userService.saveUser(userDTO);
+        sendToken(TokenType.REGISTER, null, saved.getId(), userDTO.getEmail(), subject, "password-set-email.html");
+        return saved;
+    }
+
+    /**
+     * Generates a new token of the given type for the user with the given id and queues an email with the given
+     * subject and template containing the link to redeem the token to the given address.
+     *
+     * @param type The {@link TokenType} of the token.
+     * @param metadata Optional metadata for the token.
+     * @param userId The user for whom the token is to be created.
+     * @param email The email address to which the link is to be sent.
+     * @param subject The subject of the email.
+     * @param template The name of the mail template to use.
+     * @throws IllegalArgumentException if the passed token type is null or the user id is invalid.
+     * @throws NotFoundException if no corresponding user could be found.
+     * @throws StoreException if the token or email could not be persisted.
+     */
+    @Transactional
+    public void sendToken(final TokenType type, final String metadata, final int userId, final String email,
+                          final String subject, final String template) {
+        TokenDTO tokenDTO = tokenService.generateToken(type, metadata, userId);
+        String tokenUrl = ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH + "/token?value="
+                + tokenDTO.getValue();
+        Map<String, Object> templateModel = new HashMap<>();
+        templateModel.put("baseUrl", ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH);
+        templateModel.put("token", tokenUrl);
+        queueEmail(email, subject, templateModel, template);
+    }
+
+    /**
+     * Creates the given user, or updates them if they exist already, and adds them as a participant to the experiment
+     * with the given id. If requested, an invitation email containing the participation link is queued for the user
+     * in their preferred language.
+     *
+     * @param userDTO The dto containing the user information including the secret.
+     * @param experimentId The id of the experiment.
+     * @param sendMail Whether to queue an invitation email.
+     * @return The saved user.
+     * @throws IllegalArgumentException if the user information or the experiment id are invalid.
+     * @throws NotFoundException if no corresponding user or experiment could be found.
+     * @throws StoreException if the user, participation or email could not be persisted.
+     */
+    @Transactional
+    public UserDTO saveParticipant(final UserDTO userDTO, final int experimentId, final boolean sendMail) {
+        UserDTO saved = userDTO.getId() == null ? userService.saveUser(userDTO) : userService.updateUser(userDTO);
+        participantService.saveParticipant(saved.getId(), experimentId);
+
+        if (sendMail) {
+            ResourceBundle userLanguage = ResourceBundle.getBundle("i18n/messages",
+                    getLocaleFromLanguage(saved.getLanguage()));
+            queueEmail(saved.getEmail(), userLanguage.getString(PARTICIPANT_SUBJECT),
+                    getTemplateModel(experimentId, saved.getSecret()), PARTICIPANT_TEMPLATE);
+        }
+
+        return saved;
+    }
+
+    /**
+     * Reopens the experiment with the given id and reactivates the accounts of the participants who have not finished
+     * it yet. If requested, new invitation emails are queued for the reactivated participants, grouped by their
+     * preferred language so that each group is added to the mail outbox in one batch.
+     *
+     * @param experimentId The id of the experiment.
+     * @param sendMails Whether to queue invitation emails.
+     * @return The updated experiment data.
+     * @throws IllegalArgumentException if the passed id is invalid.
+     * @throws NotFoundException if no corresponding experiment could be found.
+     */
+    @Transactional
+    public ExperimentDTO openExperiment(final int experimentId, final boolean sendMails) {
+        ExperimentDTO experimentDTO = experimentService.changeExperimentStatus(true, experimentId);
+        List<UserDTO> userDTOS = userService.reactivateUserAccounts(experimentId);
+
+        if (sendMails) {
+            Map<Language, Map<String, Map<String, Object>>> templateModels = new HashMap<>();
+
+            for (UserDTO userDTO : userDTOS) {
+                if (userDTO.getEmail() == null) {
+                    LOGGER.error("Cannot send invitation mail to user with email null!");
+                } else {
+                    templateModels.computeIfAbsent(userDTO.getLanguage(), language -> new HashMap<>())
+                            .put(userDTO.getEmail(), getTemplateModel(experimentId, userDTO.getSecret()));
+                }
+            }
+
+            templateModels.forEach((language, models) -> {
+                ResourceBundle userLanguage = ResourceBundle.getBundle("i18n/messages",
+                        getLocaleFromLanguage(language));
+                mailService.sendEmails(models, userLanguage.getString(PARTICIPANT_SUBJECT), PARTICIPANT_TEMPLATE);
+            });
+        }
+
+        return experimentDTO;
+    }
+
+    /**
+     * Adds the given email to the mail outbox within the current transaction.
+     *
+     * @param email The recipient of the email.
+     * @param subject The subject of the email.
+     * @param templateModel The template model containing additional properties.
+     * @param template The name of the mail template to use.
+     * @throws StoreException if the email could not be queued, so that the surrounding transaction is rolled back.
+     */
+    private void queueEmail(final String email, final String subject, final Map<String, Object> templateModel,
+                            final String template) {
+        if (!mailService.sendEmail(email, subject, templateModel, template)) {
+            throw new StoreException("Could not queue email with subject " + subject + " to " + email + "!");
+        }
+    }
+
+    /**
+     * Creates a template model containing the base URL and the participation link for the experiment with the given
+     * id and the given secret.
+     *
+     * @param experimentId The id of the experiment.
+     * @param secret The user's secret.
+     * @return The map containing the base URL and the experiment URL.
+     */
+    private Map<String, Object> getTemplateModel(final int experimentId, final String secret) {
+        String experimentUrl = ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH
+                + "/users/authenticate?id=" + experimentId + "&secret=" + secret;
+        Map<String, Object> templateModel = new HashMap<>();
+        templateModel.put("baseUrl", ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH);
+        templateModel.put("secret", experimentUrl);
+        return templateModel;
+    }
+
+    /**
+     * Returns the proper {@link Locale} based on the user's preferred language settings.
+     *
+     * @param language The user's preferred language.
+     * @return The corresponding locale, or English as a default value.
+     */
+    private Locale getLocaleFromLanguage(final Language language) {
+        if (language == Language.GERMAN) {
+            return Locale.GERMAN;
+        }
+        return Locale.ENGLISH;
+    }
+
+}
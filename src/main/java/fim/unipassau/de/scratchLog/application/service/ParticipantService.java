@@ -22,7 +22,6 @@ package fim.unipassau.de.scratchLog.application.service;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
-import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
@@ -41,13 +40,15 @@ import jakarta.validation.ConstraintViolationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -61,6 +62,12 @@ public class ParticipantService {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(ParticipantService.class);
 
+    /**
+     * The statement used to generate a secret for and activate the users added to an experiment in a bulk.
+     */
+    private static final String ACTIVATE_USER = "UPDATE `user` SET secret = ?, active = TRUE WHERE id = ? AND secret "
+            + "IS NULL";
+
     /**
      * The user repository to use for database queries related to user data.
      */
@@ -91,6 +98,32 @@ public class ParticipantService {
      */
     private final ParticipantRepository participantRepository;
 
+    /**
+     * The snapshot service to use for removing the snapshots of participants who no longer save any events.
+     */
+    private final SnapshotService snapshotService;
+
+    /**
+     * The event key service to use for removing the event keys of participants who no longer save any events.
+     */
+    private final EventKeyService eventKeyService;
+
+    /**
+     * The JDBC template to use for updating the users added to an experiment in batches.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The secrets of the recently verified active participants together with the time in milliseconds until which
+     * they may be used, in least recently used order. Guarded by itself.
+     */
+    private final Map<ParticipantId, VerifiedParticipant> verified = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<ParticipantId, VerifiedParticipant> eldest) {
+            return size() > Constants.PARTICIPANT_CACHE_SIZE;
+        }
+    };
+
     /**
      * Constructs a participant service with the given dependencies.
      *
@@ -100,19 +133,27 @@ public class ParticipantService {
      * @param courseExperimentRepository The {@link CourseExperimentRepository} to use.
      * @param courseParticipantRepository The {@link CourseParticipantRepository} to use.
      * @param experimentRepository The {@link ExperimentRepository} to use.
+     * @param snapshotService The {@link SnapshotService} to use.
+     * @param eventKeyService The {@link EventKeyService} to use.
+     * @param jdbcTemplate The {@link JdbcTemplate} to use.
      */
     @Autowired
     public ParticipantService(final UserRepository userRepository, final ParticipantRepository participantRepository,
                               final CourseRepository courseRepository,
                               final CourseExperimentRepository courseExperimentRepository,
                               final CourseParticipantRepository courseParticipantRepository,
-                              final ExperimentRepository experimentRepository) {
+                              final ExperimentRepository experimentRepository,
+                              final SnapshotService snapshotService, final EventKeyService eventKeyService,
+                              final JdbcTemplate jdbcTemplate) {
         this.userRepository = userRepository;
         this.participantRepository = participantRepository;
         this.courseRepository = courseRepository;
         this.courseExperimentRepository = courseExperimentRepository;
         this.courseParticipantRepository = courseParticipantRepository;
         this.experimentRepository = experimentRepository;
+        this.snapshotService = snapshotService;
+        this.eventKeyService = eventKeyService;
+        this.jdbcTemplate = jdbcTemplate;
     }
 
     /**
@@ -155,6 +196,8 @@ public class ParticipantService {
 
     /**
      * Adds the users participating in the course with the given id as participants to the experiment with the given id.
+     * The participations are created with a single statement, and the course participants who do not have a secret yet
+     * are assigned one in batches, so the number of queries does not depend on the size of the course.
      *
      * @param experimentId The id of the experiment.
      * @param courseId The id of the course.
@@ -181,9 +224,10 @@ public class ParticipantService {
                         + "course!");
             }
 
-            List<CourseParticipant> courseParticipants = courseParticipantRepository.findAllByCourse(course);
-            courseParticipants.forEach(courseParticipant -> addCourseParticipantToExperiment(courseParticipant,
-                    experiment));
+            int added = participantRepository.insertCourseParticipants(courseId, experimentId);
+            activateUsers(courseParticipantRepository.findUserIdsWithoutSecret(courseId));
+            LOGGER.debug("Added " + added + " participants of course with id " + courseId + " to experiment with id "
+                    + experimentId + ".");
         } catch (EntityNotFoundException e) {
             LOGGER.error("Could not find the course or experiment data when trying to save course participants!", e);
             throw new NotFoundException("Could not find the course or experiment data when trying to save course "
@@ -242,6 +286,13 @@ public class ParticipantService {
 
         try {
             participantRepository.save(createParticipant(participantDTO, user, experiment));
+
+            if (participantDTO.getEnd() != null) {
+                snapshotService.evictSnapshot(participantDTO.getUser(), participantDTO.getExperiment());
+                eventKeyService.removeKeys(participantDTO.getUser(), participantDTO.getExperiment());
+                forgetParticipant(participantDTO.getUser(), participantDTO.getExperiment());
+            }
+
             return true;
         } catch (EntityNotFoundException e) {
             LOGGER.error("Could not find the user with id " + participantDTO.getUser() + " or experiment with id "
@@ -345,6 +396,8 @@ public class ParticipantService {
 
         ParticipantId participantId = new ParticipantId(userId, experimentId);
         participantRepository.deleteById(participantId);
+        snapshotService.discardSnapshot(userId, experimentId);
+        forgetParticipant(userId, experimentId);
     }
 
     /**
@@ -406,9 +459,15 @@ public class ParticipantService {
             } else if ((!user.isActive() && userActive) || !experiment.isActive()) {
                 LOGGER.error("Cannot save event data for inactive experiment or user!");
                 return true;
-            } else {
-                return !user.getSecret().equals(secret);
+            } else if (!secret.equals(user.getSecret())) {
+                return true;
             }
+
+            if (userActive) {
+                rememberParticipant(userId, experimentId, secret);
+            }
+
+            return false;
         } catch (EntityNotFoundException e) {
             LOGGER.error("Could not find user or experiment when trying to verify a participant!", e);
             return true;
@@ -416,65 +475,63 @@ public class ParticipantService {
     }
 
     /**
-     * Deactivates all experiments where participants have not started or finished the experiment for a specified number
-     * of days. Only the experiment itself is deactivated, the status of the participant accounts does not change.
-     */
-    @Transactional
-    public void deactivateInactiveExperiments() {
-        List<Experiment> experiments = experimentRepository.findAllByActiveIsTrue();
-        experiments.forEach(this::checkDeactivateExperiment);
-    }
-
-    /**
-     * Adds the user provided by the given {@link CourseParticipant} as a participant to the given experiment.
+     * Checks, whether the user with the given id has recently been verified as an active participant in the experiment
+     * with the given id with the given secret by {@link #isInvalidParticipant(int, int, String, boolean)}. This check
+     * does not query the database and can therefore be used while the database is slow or unavailable. As the
+     * participant may have finished the experiment or been deactivated in the meantime, the event data of a
+     * participant verified this way still has to be verified before it is saved.
      *
-     * @param courseParticipant The {@link CourseParticipant} containing the user information.
-     * @param experiment The {@link Experiment} to which the user should be added.
+     * @param userId The id of the user.
+     * @param experimentId The id of the experiment.
+     * @param secret The user's secret.
+     * @return {@code true} if the participant has recently been verified with the given secret, or {@code false}
+     *         otherwise.
      */
-    private void addCourseParticipantToExperiment(final CourseParticipant courseParticipant,
-                                                  final Experiment experiment) {
-        User user = courseParticipant.getUser();
-        Participant participant = new Participant(user, experiment, null, null);
-        participantRepository.save(participant);
-        updateUser(user);
+    public boolean isVerifiedParticipant(final int userId, final int experimentId, final String secret) {
+        if (secret == null) {
+            return false;
+        }
+
+        ParticipantId id = new ParticipantId(userId, experimentId);
+
+        synchronized (verified) {
+            VerifiedParticipant participant = verified.get(id);
+
+            if (participant == null) {
+                return false;
+            } else if (participant.expires < System.currentTimeMillis()) {
+                verified.remove(id);
+                return false;
+            }
+
+            return participant.secret.equals(secret);
+        }
     }
 
     /**
-     * Generates a new secret for the given user and activates their user account, if their secret is null.
+     * Deactivates all experiments where participants have not started or finished the experiment for a specified number
+     * of days. Only the experiment itself is deactivated, the status of the participant accounts does not change.
      *
-     * @param user The {@link User} to update.
+     * @return The number of deactivated experiments.
      */
-    private void updateUser(final User user) {
-        if (user.getSecret() == null) {
-            user.setSecret(Secrets.generateRandomBytes(Constants.SECRET_LENGTH));
-            user.setActive(true);
-            userRepository.save(user);
-        }
+    @Transactional
+    public int deactivateInactiveExperiments() {
+        List<Integer> ids = experimentRepository.findInactiveExperimentIds(LocalDateTime.now().minusDays(
+                Constants.EXPERIMENT_INACTIVE_DAYS));
+        return ids.isEmpty() ? 0 : experimentRepository.deactivateExperiments(ids);
     }
 
     /**
-     * Checks whether an experiment should be deactivated due to inactivity. An experiment is considered inactive if no
-     * participant has started or finished it for a specified number of days. If the experiment is considered to be
-     * inactive, it is deactivated.
+     * Generates a new secret for and activates the users with the given ids in batches of
+     * {@link Constants#USER_BATCH_SIZE} rows. Users who already have a secret are not changed.
      *
-     * @param experiment The {@link Experiment} to check.
+     * @param ids The ids of the users to update.
      */
-    private void checkDeactivateExperiment(final Experiment experiment) {
-        List<Participant> participants = participantRepository.findAllByExperiment(experiment);
-
-        if (participants.size() > 0) {
-            LocalDateTime maxInactiveTime = LocalDateTime.now().minusDays(Constants.EXPERIMENT_INACTIVE_DAYS);
-            LocalDateTime lastStart = participants.stream().map(
-                    Participant::getStart).filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(null);
-            LocalDateTime lastEnd = participants.stream().map(
-                    Participant::getEnd).filter(Objects::nonNull).max(LocalDateTime::compareTo).orElse(null);
-            boolean inactiveStart = lastStart != null && lastStart.isBefore(maxInactiveTime);
-            boolean inactiveEnd = lastEnd != null && lastEnd.isBefore(maxInactiveTime);
-            if (inactiveStart || inactiveEnd) {
-                experiment.setActive(false);
-                experimentRepository.save(experiment);
-            }
-        }
+    private void activateUsers(final List<Integer> ids) {
+        jdbcTemplate.batchUpdate(ACTIVATE_USER, ids, Constants.USER_BATCH_SIZE, (statement, id) -> {
+            statement.setString(1, Secrets.generateRandomBytes(Constants.SECRET_LENGTH));
+            statement.setInt(2, id);
+        });
     }
 
     /**
@@ -525,4 +582,58 @@ public class ParticipantService {
         return participantDTO;
     }
 
+    /**
+     * Keeps the given secret in memory as the secret of the verified participant with the given ids.
+     *
+     * @param userId The id of the user.
+     * @param experimentId The id of the experiment.
+     * @param secret The user's secret.
+     */
+    private void rememberParticipant(final int userId, final int experimentId, final String secret) {
+        synchronized (verified) {
+            verified.put(new ParticipantId(userId, experimentId), new VerifiedParticipant(secret,
+                    System.currentTimeMillis() + Constants.PARTICIPANT_CACHE_TIME));
+        }
+    }
+
+    /**
+     * Removes the participant with the given ids from the verified participants kept in memory.
+     *
+     * @param userId The id of the user.
+     * @param experimentId The id of the experiment.
+     */
+    private void forgetParticipant(final int userId, final int experimentId) {
+        synchronized (verified) {
+            verified.remove(new ParticipantId(userId, experimentId));
+        }
+    }
+
+    /**
+     * The secret of a verified participant together with the time until which it may be used.
+     */
+    private static final class VerifiedParticipant {
+
+        /**
+         * The user's secret.
+         */
+        private final String secret;
+
+        /**
+         * The time in milliseconds after which the participant has to be verified again.
+         */
+        private final long expires;
+
+        /**
+         * Constructs a new verified participant with the given attributes.
+         *
+         * @param secret The user's secret.
+         * @param expires The time in milliseconds after which the participant has to be verified again.
+         */
+        private VerifiedParticipant(final String secret, final long expires) {
+            this.secret = secret;
+            this.expires = expires;
+        }
+
+    }
+
 }
@@ -0,0 +1,617 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.Participant;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityNotFoundException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.file.DirectoryNotEmptyException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * A service caching the result files generated for participants who have already finished an experiment. Since no
+ * further events can be saved for these participants, the generated files do not change until the participant
+ * restarts the experiment or the project of the experiment is replaced. The files are stored on disk and evicted in
+ * least recently used order once the configured maximum cache size is exceeded. The lock of the service only guards
+ * the bookkeeping in memory, while the files are written, moved, read and deleted without holding it. Every cached
+ * file gets a name of its own, so a file that is being read is never overwritten by a newer file for the same key.
+ * Each node stores its files in a subdirectory of the configured cache directory named after the node, which it locks
+ * for as long as it is running. On startup, the files left in this subdirectory from a previous run are removed, as
+ * they might no longer be up-to-date, as are those left in the subdirectories of nodes that are no longer running.
+ * Only files following the layout of the cache are ever deleted.
+ */
+@Service
+public class ResultCacheService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(ResultCacheService.class);
+
+    /**
+     * The file ending to use for the cached result files.
+     */
+    private static final String FILE_ENDING = ".zip";
+
+    /**
+     * The name of the subdirectory in which the result files are generated before they are added to the cache.
+     */
+    private static final String TEMP_DIRECTORY = "tmp";
+
+    /**
+     * The prefix of the names of the subdirectories in which the nodes store their result files.
+     */
+    private static final String NODE_PREFIX = "node-";
+
+    /**
+     * The name of the file locked by the node owning a subdirectory.
+     */
+    private static final String LOCK_FILE = ".lock";
+
+    /**
+     * The pattern matching the names of the directories holding the result files of a participant.
+     */
+    private static final Pattern PARTICIPANT_DIRECTORY = Pattern.compile("\\d+_\\d+");
+
+    /**
+     * The pattern matching the names of the cached result files.
+     */
+    private static final Pattern RESULT_FILE = Pattern.compile("[A-Za-z0-9_]+_\\d+\\.zip");
+
+    /**
+     * The pattern matching the names of the files in which the result files are generated.
+     */
+    private static final Pattern TEMP_FILE = Pattern.compile("result\\d+\\.zip");
+
+    /**
+     * The user repository to use for database queries related to user data.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The experiment repository to use for database queries related to experiment data.
+     */
+    private final ExperimentRepository experimentRepository;
+
+    /**
+     * The participant repository to use for database queries related to participant data.
+     */
+    private final ParticipantRepository participantRepository;
+
+    /**
+     * The directory of this node in which the cached result files are stored.
+     */
+    private final Path directory;
+
+    /**
+     * The channel of the lock file of the directory of this node, if it could be opened.
+     */
+    private FileChannel lockChannel;
+
+    /**
+     * The maximum number of bytes the cached result files may occupy on disk.
+     */
+    private final long maxSize;
+
+    /**
+     * The cached result files mapped to their keys in least recently used order. Guarded by this service.
+     */
+    private final LinkedHashMap<String, CachedFile> entries = new LinkedHashMap<>(16, 0.75f, true);
+
+    /**
+     * The number of bytes currently occupied by the cached result files. Guarded by this service.
+     */
+    private long currentSize = 0;
+
+    /**
+     * The number of files that have been added to the cache, used to give every file a name of its own. Guarded by
+     * this service.
+     */
+    private long fileCount = 0;
+
+    /**
+     * The number of times cached results have been invalidated. Guarded by this service.
+     */
+    private long generation = 0;
+
+    /**
+     * Constructs a result cache service with the given dependencies. The subdirectory of this node is locked, and the
+     * result files left in it and in the subdirectories of nodes that are no longer running are removed.
+     *
+     * @param userRepository The {@link UserRepository} to use.
+     * @param experimentRepository The {@link ExperimentRepository} to use.
+     * @param participantRepository The {@link ParticipantRepository} to use.
+     * @param jobService The {@link JobService} providing the name of this node.
+     * @param directory The path to the directory in which the subdirectories of the nodes are to be created.
+     * @param maxSize The maximum size of the cache in bytes.
+     * @throws IllegalStateException if the subdirectory of this node is locked by another running instance.
+     */
+    @Autowired
+    public ResultCacheService(final UserRepository userRepository, final ExperimentRepository experimentRepository,
+                              final ParticipantRepository participantRepository, final JobService jobService,
+                              @Value("${app.result.cache.path:${java.io.tmpdir}/scratchLog-results}")
+                              final String directory,
+                              @Value("${app.result.cache.size:" + Constants.RESULT_CACHE_SIZE + "}")
+                              final long maxSize) {
+        this.userRepository = userRepository;
+        this.experimentRepository = experimentRepository;
+        this.participantRepository = participantRepository;
+        Path root = Paths.get(directory);
+        this.directory = root.resolve(NODE_PREFIX + jobService.getNode().replaceAll("[^A-Za-z0-9_.-]", "_"));
+        this.maxSize = maxSize;
+
+        if (lockDirectory()) {
+            clearDirectory(this.directory);
+        }
+
+        clearAbandonedDirectories(root);
+    }
+
+    /**
+     * Releases the lock on the subdirectory of this node when the application context is closed. The cached files are
+     * removed on the next start.
+     */
+    @PreDestroy
+    public void close() {
+        if (lockChannel != null) {
+            try {
+                lockChannel.close();
+            } catch (IOException e) {
+                LOGGER.error("Could not release the lock of the result cache directory " + directory + "!", e);
+            }
+        }
+    }
+
+    /**
+     * Checks, whether the user with the given id has already finished the experiment with the given id, meaning that
+     * the results generated for the participant can be cached.
+     *
+     * @param userId The user id to search for.
+     * @param experimentId The experiment id to search for.
+     * @return {@code true} if the participant has finished the experiment, or {@code false} otherwise.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    @Transactional
+    public boolean isFinished(final int userId, final int experimentId) {
+        checkIds(userId, experimentId);
+        User user = userRepository.getReferenceById(userId);
+        Experiment experiment = experimentRepository.getReferenceById(experimentId);
+
+        try {
+            Optional<Participant> participant = participantRepository.findByUserAndExperiment(user, experiment);
+            return participant.isPresent() && participant.get().getEnd() != null;
+        } catch (EntityNotFoundException e) {
+            LOGGER.error("Could not find user with id " + userId + " or experiment with id " + experimentId
+                    + " when checking for a finished participation!", e);
+            return false;
+        }
+    }
+
+    /**
+     * Returns the path of the result file cached for the given user, experiment and export parameters, if any. The
+     * file might be evicted before it is read, in which case reading it fails with a
+     * {@link java.nio.file.NoSuchFileException}. A file that is already being read can be evicted safely.
+     *
+     * @param userId The user id to search for.
+     * @param experimentId The experiment id to search for.
+     * @param parameters The export parameters used to generate the file.
+     * @return An {@link Optional} containing the path of the file, or an empty optional, if no such file is cached.
+     * @throws IllegalArgumentException if the passed user or experiment ids or parameters are invalid.
+     */
+    public synchronized Optional<Path> findResult(final int userId, final int experimentId,
+                                                  final String parameters) {
+        CachedFile file = entries.get(getKey(userId, experimentId, parameters));
+        return file == null ? Optional.empty() : Optional.of(file.path);
+    }
+
+    /**
+     * Returns the current generation of the cache, which changes whenever cached results are invalidated. It has to be
+     * retrieved before the data of a result file is read from the database and passed to
+     * {@link #saveResult(int, int, String, Path, long)} afterwards.
+     *
+     * @return The current generation.
+     */
+    public synchronized long getGeneration() {
+        return generation;
+    }
+
+    /**
+     * Creates a new empty file in the cache directory in which a result file can be generated before it is added to
+     * the cache with {@link #saveResult(int, int, String, Path, long)}.
+     *
+     * @return The path of the new file.
+     * @throws IOException if the file could not be created.
+     */
+    public Path createTempFile() throws IOException {
+        Path temp = Files.createDirectories(directory.resolve(TEMP_DIRECTORY));
+        return Files.createTempFile(temp, "result", FILE_ENDING);
+    }
+
+    /**
+     * Adds the given generated file to the cache as the result file for the given user, experiment and export
+     * parameters by moving it into the cache directory. If the cache exceeds its maximum size afterwards, the least
+     * recently used files are removed until it fits again. Files that are larger than the cache itself and files
+     * generated from data read before the cached results have been invalidated are not added, but deleted. In any
+     * case, the given file no longer exists afterwards.
+     *
+     * @param userId The user id of the participant.
+     * @param experimentId The experiment id of the participant.
+     * @param parameters The export parameters used to generate the file.
+     * @param file The generated file created with {@link #createTempFile()}.
+     * @param fileGeneration The generation of the cache before the data of the file has been read.
+     * @throws IllegalArgumentException if the passed user or experiment ids or parameters are invalid.
+     */
+    public void saveResult(final int userId, final int experimentId, final String parameters, final Path file,
+                           final long fileGeneration) {
+        String key = getKey(userId, experimentId, parameters);
+        long size;
+        Path path;
+
+        synchronized (this) {
+            path = directory.resolve(userId + "_" + experimentId).resolve(parameters + "_" + fileCount++
+                    + FILE_ENDING);
+        }
+
+        try {
+            size = Files.size(file);
+
+            if (size > maxSize) {
+                LOGGER.debug("Not caching result file " + key + " exceeding the maximum cache size!");
+                deleteFile(file);
+                return;
+            }
+
+            Files.createDirectories(path.getParent());
+            Files.move(file, path, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.error("Could not add result file " + key + " to the cache!", e);
+            deleteFile(file);
+            return;
+        }
+
+        List<Path> removed = new ArrayList<>();
+
+        synchronized (this) {
+            if (fileGeneration != generation) {
+                removed.add(path);
+            } else {
+                removeEntry(key, removed);
+                entries.put(key, new CachedFile(path, size));
+                currentSize += size;
+                evictEntries(removed);
+            }
+        }
+
+        removed.forEach(this::deleteFile);
+    }
+
+    /**
+     * Removes all result files cached for the given user and experiment. This method has to be called whenever the
+     * data of a participant might change again, e.g. when they restart an experiment.
+     *
+     * @param userId The user id of the participant.
+     * @param experimentId The experiment id of the participant.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    public void invalidateResults(final int userId, final int experimentId) {
+        checkIds(userId, experimentId);
+        String prefix = userId + "_" + experimentId + "/";
+        invalidate(key -> key.startsWith(prefix));
+    }
+
+    /**
+     * Removes all result files cached for the participants of the experiment with the given id. This method has to be
+     * called whenever the project of the experiment is replaced or deleted, as the generated sb3 files contain it.
+     *
+     * @param experimentId The experiment id.
+     * @throws IllegalArgumentException if the passed experiment id is invalid.
+     */
+    public void invalidateExperimentResults(final int experimentId) {
+        checkIds(Constants.MIN_ID, experimentId);
+        String infix = "_" + experimentId + "/";
+        invalidate(key -> key.contains(infix));
+    }
+
+    /**
+     * Removes all result files whose keys match the given filter from the cache and starts a new generation, so files
+     * generated from data read before are not added anymore.
+     *
+     * @param filter The filter matching the keys of the files to remove.
+     */
+    private void invalidate(final Predicate<String> filter) {
+        List<Path> removed = new ArrayList<>();
+
+        synchronized (this) {
+            generation++;
+            List<String> keys = entries.keySet().stream().filter(filter).toList();
+            keys.forEach(key -> removeEntry(key, removed));
+        }
+
+        removed.forEach(this::deleteFile);
+    }
+
+    /**
+     * Removes the least recently used files from the cache until the cache size no longer exceeds the maximum size.
+     * The paths of the removed files are added to the given list to be deleted once the lock has been released.
+     *
+     * @param removed The list of paths to be deleted.
+     */
+    private void evictEntries(final List<Path> removed) {
+        Iterator<Map.Entry<String, CachedFile>> iterator = entries.entrySet().iterator();
+
+        while (currentSize > maxSize && iterator.hasNext()) {
+            CachedFile file = iterator.next().getValue();
+            iterator.remove();
+            currentSize -= file.size;
+            removed.add(file.path);
+        }
+    }
+
+    /**
+     * Removes the file with the given key from the cache, if it is present. Its path is added to the given list to be
+     * deleted once the lock has been released.
+     *
+     * @param key The key of the file.
+     * @param removed The list of paths to be deleted.
+     */
+    private void removeEntry(final String key, final List<Path> removed) {
+        CachedFile file = entries.remove(key);
+
+        if (file != null) {
+            currentSize -= file.size;
+            removed.add(file.path);
+        }
+    }
+
+    /**
+     * Deletes the file with the given path from disk.
+     *
+     * @param path The path of the file.
+     */
+    private void deleteFile(final Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            LOGGER.error("Could not delete cached result file " + path + "!", e);
+        }
+    }
+
+    /**
+     * Locks the subdirectory of this node, creating it if necessary. The lock is held until {@link #close()} is
+     * called.
+     *
+     * @return {@code true} if the directory has been locked, or {@code false} if the lock file could not be accessed.
+     * @throws IllegalStateException if the directory is locked by another running instance.
+     */
+    private boolean lockDirectory() {
+        try {
+            Files.createDirectories(directory);
+            lockChannel = FileChannel.open(directory.resolve(LOCK_FILE), StandardOpenOption.CREATE,
+                    StandardOpenOption.WRITE);
+
+            if (tryLock(lockChannel) == null) {
+                lockChannel.close();
+                lockChannel = null;
+                throw new IllegalStateException("The result cache directory " + directory + " is used by another "
+                        + "running instance with the same node name!");
+            }
+
+            return true;
+        } catch (IOException e) {
+            LOGGER.error("Could not lock the result cache directory " + directory + ", keeping its files!", e);
+            return false;
+        }
+    }
+
+    /**
+     * Removes the result files left in the subdirectories of other nodes that are no longer running, i.e. whose lock
+     * file is not locked, along with the subdirectories themselves, if they are empty afterwards. Subdirectories
+     * without a lock file have not been created by this service and are left untouched.
+     *
+     * @param root The directory containing the subdirectories of the nodes.
+     */
+    private void clearAbandonedDirectories(final Path root) {
+        List<Path> nodes;
+
+        try (Stream<Path> paths = Files.list(root)) {
+            nodes = paths.filter(path -> path.getFileName().toString().startsWith(NODE_PREFIX)
+                    && !path.equals(directory) && Files.isRegularFile(path.resolve(LOCK_FILE))).toList();
+        } catch (IOException e) {
+            LOGGER.error("Could not list the result cache directory " + root + "!", e);
+            return;
+        }
+
+        for (Path node : nodes) {
+            try (FileChannel channel = FileChannel.open(node.resolve(LOCK_FILE), StandardOpenOption.WRITE)) {
+                if (tryLock(channel) != null) {
+                    LOGGER.info("Removing the result files left in the cache directory " + node + ".");
+                    clearDirectory(node);
+                    deleteFile(node.resolve(LOCK_FILE));
+                }
+            } catch (IOException e) {
+                LOGGER.error("Could not check whether the result cache directory " + node + " is in use!", e);
+                continue;
+            }
+
+            deleteEmptyDirectory(node);
+        }
+    }
+
+    /**
+     * Tries to lock the given lock file channel without waiting.
+     *
+     * @param channel The channel of the lock file.
+     * @return The lock, or {@code null} if the file is locked by another running instance.
+     * @throws IOException if the file could not be locked.
+     */
+    private FileLock tryLock(final FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Deletes the cached result files and the files in which result files were generated contained in the given
+     * directory of a node. Empty directories of participants are deleted as well. Any other files are kept.
+     *
+     * @param node The directory of the node.
+     */
+    private void clearDirectory(final Path node) {
+        try (Stream<Path> paths = Files.list(node)) {
+            for (Path path : paths.filter(Files::isDirectory).toList()) {
+                String name = path.getFileName().toString();
+
+                if (PARTICIPANT_DIRECTORY.matcher(name).matches()) {
+                    deleteFiles(path, RESULT_FILE);
+                } else if (name.equals(TEMP_DIRECTORY)) {
+                    deleteFiles(path, TEMP_FILE);
+                }
+            }
+        } catch (IOException e) {
+            LOGGER.error("Could not clear the result cache directory " + node + "!", e);
+        }
+    }
+
+    /**
+     * Deletes the regular files contained in the given directory whose names match the given pattern, and the
+     * directory itself, if it is empty afterwards.
+     *
+     * @param directoryPath The directory.
+     * @param pattern The pattern the names of the files to delete have to match.
+     * @throws IOException if the directory could not be listed.
+     */
+    private void deleteFiles(final Path directoryPath, final Pattern pattern) throws IOException {
+        try (Stream<Path> paths = Files.list(directoryPath)) {
+            paths.filter(path -> Files.isRegularFile(path) && pattern.matcher(path.getFileName().toString())
+                    .matches()).forEach(this::deleteFile);
+        }
+
+        deleteEmptyDirectory(directoryPath);
+    }
+
+    /**
+     * Deletes the given directory, if it is empty.
+     *
+     * @param directoryPath The directory.
+     */
+    private void deleteEmptyDirectory(final Path directoryPath) {
+        try {
+            Files.deleteIfExists(directoryPath);
+        } catch (DirectoryNotEmptyException e) {
+            LOGGER.debug("Keeping the result cache directory " + directoryPath + " containing other files.");
+        } catch (IOException e) {
+            LOGGER.error("Could not delete the result cache directory " + directoryPath + "!", e);
+        }
+    }
+
+    /**
+     * Returns the key of the file cached for the given user, experiment and export parameters.
+     *
+     * @param userId The user id of the participant.
+     * @param experimentId The experiment id of the participant.
+     * @param parameters The export parameters.
+     * @return The key of the file.
+     * @throws IllegalArgumentException if the passed user or experiment ids or parameters are invalid.
+     */
+    private String getKey(final int userId, final int experimentId, final String parameters) {
+        checkIds(userId, experimentId);
+
+        if (parameters == null || !parameters.matches("[A-Za-z0-9_]+")) {
+            throw new IllegalArgumentException("Cannot cache result file with invalid parameters " + parameters + "!");
+        }
+
+        return userId + "_" + experimentId + "/" + parameters;
+    }
+
+    /**
+     * Checks, whether the given user and experiment ids are valid.
+     *
+     * @param userId The user id.
+     * @param experimentId The experiment id.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    private void checkIds(final int userId, final int experimentId) {
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot access cached results for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+    }
+
+    /**
+     * A result file stored in the cache directory along with its size.
+     */
+    private static final class CachedFile {
+
+        /**
+         * The path of the file.
+         */
+        private final Path path;
+
+        /**
+         * The size of the file in bytes.
+         */
+        private final long size;
+
+        /**
+         * Constructs a new cached file with the given path and size.
+         *
+         * @param path The path of the file.
+         * @param size The size of the file in bytes.
+         */
+        private CachedFile(final Path path, final long size) {
+            this.path = path;
+            this.size = size;
+        }
+
+    }
+
+}
@@ -21,24 +21,41 @@ package fim.unipassau.de.scratchLog.application.service;
 
 import fim.unipassau.de.scratchLog.persistence.entity.CourseExperiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.projection.CourseResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.CourseTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentTableProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserResultProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.CourseExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.SearchResultDTO;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 /**
- * A service providing methods related to search queries.
+ * A service providing methods related to search queries. If enabled, queries for users, experiments and courses are
+ * first looked up in the n-gram full-text indexes of the MySQL database instead of scanning the entire tables. Queries
+ * the indexes cannot answer exactly, as well as all queries on databases without these indexes, fall back to plain
+ * substring matching.
  */
 @Service
 public class SearchService {
@@ -63,6 +80,21 @@ public class SearchService {
      */
     private final CourseExperimentRepository courseExperimentRepository;
 
+    /**
+     * The suggestion index service to use for answering search suggestions from memory.
+     */
+    private final SuggestionIndexService suggestionIndexService;
+
+    /**
+     * Whether the full-text indexes are available to look up search queries.
+     */
+    private final boolean fulltext;
+
+    /**
+     * The bounded thread pool running the searches of the search result page concurrently.
+     */
+    private final ExecutorService executor;
+
     /**
      * Constructs a search service with the given dependencies.
      *
@@ -70,146 +102,111 @@ public class SearchService {
      * @param experimentRepository The {@link ExperimentRepository} to use.
      * @param courseRepository The {@link CourseRepository} to use.
      * @param courseExperimentRepository The {@link CourseExperimentRepository} to use.
+     * @param suggestionIndexService The {@link SuggestionIndexService} to use.
+     * @param fulltext Whether the full-text indexes are to be used.
+     * @param threads The number of threads running the searches of the search result page.
      */
     @Autowired
     public SearchService(final UserRepository userRepository, final ExperimentRepository experimentRepository,
                          final CourseRepository courseRepository,
-                         final CourseExperimentRepository courseExperimentRepository) {
+                         final CourseExperimentRepository courseExperimentRepository,
+                         final SuggestionIndexService suggestionIndexService,
+                         @Value("${app.search.fulltext:true}") final boolean fulltext,
+                         @Value("${app.search.threads:" + Constants.SEARCH_THREADS + "}") final int threads) {
         this.userRepository = userRepository;
         this.experimentRepository = experimentRepository;
         this.courseRepository = courseRepository;
         this.courseExperimentRepository = courseExperimentRepository;
+        this.suggestionIndexService = suggestionIndexService;
+        this.fulltext = fulltext;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Constants.SEARCH_QUEUE_SIZE), new CustomizableThreadFactory("search-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
     }
 
     /**
-     * Retrieves a list of up to as many user projections as specified in the given limit where the username or email
-     * contains the search query string.
-     *
-     * @param query The username or email to search for.
-     * @param limit The maximum amount of results to return.
-     * @return A list of matching {@link UserProjection}s, or an empty list, if no entries could be found.
-     * @throws IllegalArgumentException if the query is null or blank or the passed limit is invalid.
-     */
-    @Transactional
-    public List<UserProjection> getUserList(final String query, final int limit) {
-        if (query == null || query.trim().isBlank()) {
-            throw new IllegalArgumentException("Cannot search for users with invalid query string null or blank!");
-        } else if (limit < Constants.PAGE_SIZE) {
-            throw new IllegalArgumentException("Cannot search for users with invalid search result limit " + limit);
-        }
-
-        return userRepository.findUserResults(query, limit, 0);
-    }
-
-    /**
-     * Retrieves a list of up to as many experiment search suggestions as specified in the given limit where the title
-     * matches the query string.
-     *
-     * @param query The title to search for.
-     * @param limit The maximum amount of results to return.
-     * @return A list of matching {@link ExperimentTableProjection}s, or an empty list, if no entries could be found.
-     * @throws IllegalArgumentException if the query is null or blank or the passed limit is invalid.
+     * Shuts down the search thread pool when the application context is closed.
      */
-    @Transactional
-    public List<ExperimentTableProjection> getExperimentList(final String query, final int limit) {
-        if (query == null || query.trim().isBlank()) {
-            throw new IllegalArgumentException("Cannot search for experiments with invalid query string null or "
-                    + "blank!");
-        } else if (limit < Constants.PAGE_SIZE) {
-            throw new IllegalArgumentException("Cannot search for experiments with invalid search result limit "
-                    + limit);
-        }
-
-        return experimentRepository.findExperimentResults(query, limit, 0);
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
     }
 
     /**
-     * Retrieves a list of up to as many course search suggestions as specified in the given limit where the title
-     * matches the query string.
+     * Retrieves the first page of user, experiment and course results for the given query string along with the total
+     * number of results in each category. The three searches run concurrently on the search thread pool, and each of
+     * them retrieves its results and their total number with a single query. As the searches run on different
+     * threads, each of them uses its own read-only transaction.
      *
-     * @param query The title to search for.
-     * @param limit The maximum amount of results to return.
-     * @return A list of matching {@link CourseTableProjection}s, or an empty list, if no entries could be found.
-     * @throws IllegalArgumentException if the query is null or blank or the passed limit is invalid.
-     */
-    @Transactional
-    public List<CourseTableProjection> getCourseList(final String query, final int limit) {
-        if (query == null || query.trim().isBlank()) {
-            throw new IllegalArgumentException("Cannot search for courses with invalid query string null or "
-                    + "blank!");
-        } else if (limit < Constants.PAGE_SIZE) {
-            throw new IllegalArgumentException("Cannot search for courses with invalid search result limit "
-                    + limit);
-        }
-
-        return courseRepository.findCourseResults(query, limit, 0);
-    }
-
-    /**
-     * Returns the number of users whose username or email contain the search query string.
-     *
-     * @param query The username or email to search for.
-     * @return The number of matching user results.
+     * @param query The username, email or title to search for.
+     * @return A {@link SearchResultDTO} containing the results.
      * @throws IllegalArgumentException if the query is null or blank.
      */
-    @Transactional
-    public int getUserCount(final String query) {
+    public SearchResultDTO getSearchResults(final String query) {
         if (query == null || query.trim().isBlank()) {
-            throw new IllegalArgumentException("Cannot get the number of user results with invalid query string null or"
-                    + " blank!");
+            throw new IllegalArgumentException("Cannot search for results with invalid query string null or blank!");
         }
 
-        return userRepository.getUserResultsCount(query);
-    }
-
-    /**
-     * Returns the number of experiments whose title contains the search query string.
-     *
-     * @param query The title to search for.
-     * @return The number of matching experiment results.
-     * @throws IllegalArgumentException if the query is null or blank.
-     */
-    @Transactional
-    public int getExperimentCount(final String query) {
-        if (query == null || query.trim().isBlank()) {
-            throw new IllegalArgumentException("Cannot get the number of experiment results with invalid query string "
-                    + "null or blank!");
-        }
-
-        return experimentRepository.getExperimentResultsCount(query);
-    }
-
-    /**
-     * Returns the number of courses whose title contains the search query string.
-     *
-     * @param query The title to search for.
-     * @return The number of matching course results.
-     * @throws IllegalArgumentException if the query is null or blank.
-     */
-    @Transactional
-    public int getCourseCount(final String query) {
-        if (query == null || query.trim().isBlank()) {
-            throw new IllegalArgumentException("Cannot get the number of course results with invalid query string "
-                    + "null or blank!");
+        CompletableFuture<List<UserResultProjection>> users = CompletableFuture.supplyAsync(() ->
+                findUserResultPage(query), executor);
+        CompletableFuture<List<ExperimentResultProjection>> experiments = CompletableFuture.supplyAsync(() ->
+                findExperimentResultPage(query), executor);
+        CompletableFuture<List<CourseResultProjection>> courses = CompletableFuture.supplyAsync(() ->
+                findCourseResultPage(query), executor);
+
+        try {
+            CompletableFuture.allOf(users, experiments, courses).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
         }
 
-        return courseRepository.getCourseResultsCount(query);
+        List<UserResultProjection> userResults = users.join();
+        List<ExperimentResultProjection> experimentResults = experiments.join();
+        List<CourseResultProjection> courseResults = courses.join();
+        return SearchResultDTO.builder()
+                .users(new ArrayList<>(userResults))
+                .experiments(new ArrayList<>(experimentResults))
+                .courses(new ArrayList<>(courseResults))
+                .userCount(userResults.isEmpty() ? 0 : userResults.get(0).getTotal().intValue())
+                .experimentCount(experimentResults.isEmpty() ? 0 : experimentResults.get(0).getTotal().intValue())
+                .courseCount(courseResults.isEmpty() ? 0 : courseResults.get(0).getTotal().intValue())
+                .build();
     }
 
     /**
      * Retrieves a list of up to five usernames and emails where one of the two contains the search query string or up
-     * to five experiment ids and titles where the title contains the query string.
+     * to five experiment ids and titles where the title contains the query string. Once the suggestion index has
+     * been built, the suggestions are retrieved from memory instead of the database.
      *
      * @param query The username, email, or title to search for.
      * @return A list of matching suggestions, or an empty list, if no entries could be found.
      */
     @Transactional
     public List<String[]> getSearchSuggestions(final String query) {
-        List<UserProjection> users = userRepository.findUserSuggestions(query, Constants.MAX_SEARCH_RESULTS);
-        List<ExperimentTableProjection> experiments = experimentRepository.findExperimentSuggestions(query,
-                Constants.MAX_SEARCH_RESULTS);
-        List<CourseTableProjection> courses = courseRepository.findCourseSuggestions(query,
-                Constants.MAX_SEARCH_RESULTS);
+        if (suggestionIndexService.isReady()) {
+            return getIndexedSuggestions(query);
+        }
+
+        List<UserProjection> users;
+        List<ExperimentTableProjection> experiments;
+        List<CourseTableProjection> courses;
+
+        if (isIndexed(query)) {
+            String phrase = toPhrase(query);
+            users = userRepository.findUserSuggestionsByIndex(phrase, query, Constants.MAX_SEARCH_RESULTS);
+            experiments = experimentRepository.findExperimentSuggestionsByIndex(phrase, query,
+                    Constants.MAX_SEARCH_RESULTS);
+            courses = courseRepository.findCourseSuggestionsByIndex(phrase, query, Constants.MAX_SEARCH_RESULTS);
+        } else {
+            users = userRepository.findUserSuggestions(query, Constants.MAX_SEARCH_RESULTS);
+            experiments = experimentRepository.findExperimentSuggestions(query, Constants.MAX_SEARCH_RESULTS);
+            courses = courseRepository.findCourseSuggestions(query, Constants.MAX_SEARCH_RESULTS);
+        }
+
         List<String[]> suggestions = addCourseInfo(courses);
         suggestions.addAll(addExperimentInfo(experiments));
         suggestions.addAll(addUserInfo(users));
@@ -317,51 +314,142 @@ public class SearchService {
 
     /**
      * Retrieves a list of additional user information for the search page with a maximum size as specified in the page
-     * size constant with the computed offset where the username or email contain the search query string.
+     * size constant where the username or email contain the search query string. Only users with an id greater than
+     * the given one, i.e. following the last user already shown, are retrieved.
      *
      * @param query The username or email to search for.
-     * @param page The current page used to compute the offset.
+     * @param last The id of the last user already shown.
      * @return A list of ids, usernames, emails and roles, or an empty list, if no entries could be found.
      */
     @Transactional
-    public List<String[]> getNextUsers(final String query, final int page) {
-        int offset = Constants.PAGE_SIZE * page;
-        List<UserProjection> users = userRepository.findUserResults(query, Constants.PAGE_SIZE, offset);
+    public List<String[]> getNextUsers(final String query, final int last) {
+        List<UserProjection> users = isIndexed(query)
+                ? userRepository.findUserResultsAfterByIndex(toPhrase(query), query, last, Constants.PAGE_SIZE)
+                : userRepository.findUserResultsAfter(query, last, Constants.PAGE_SIZE);
         return addUserProjectionInfo(users);
     }
 
     /**
      * Retrieves a list of additional experiment information for the search page with a maximum size as specified in
-     * the page size constant with the computed offset where the title contains the query string.
+     * the page size constant where the title contains the query string. Only experiments with an id greater than the
+     * given one, i.e. following the last experiment already shown, are retrieved.
      *
      * @param query The title to search for.
-     * @param page The current page used to compute the offset.
+     * @param last The id of the last experiment already shown.
      * @return A list of ids, titles and descriptions, or an empty list, if no entries could be found.
      */
     @Transactional
-    public List<String[]> getNextExperiments(final String query, final int page) {
-        int offset = Constants.PAGE_SIZE * page;
-        List<ExperimentTableProjection> projections = experimentRepository.findExperimentResults(query,
-                Constants.PAGE_SIZE, offset);
+    public List<String[]> getNextExperiments(final String query, final int last) {
+        List<ExperimentTableProjection> projections = isIndexed(query)
+                ? experimentRepository.findExperimentResultsAfterByIndex(toPhrase(query), query, last,
+                        Constants.PAGE_SIZE)
+                : experimentRepository.findExperimentResultsAfter(query, last, Constants.PAGE_SIZE);
         return addExperimentTableInfo(projections);
     }
 
     /**
      * Retrieves a list of additional course information for the search page with a maximum size as specified in
-     * the page size constant with the computed offset where the title contains the query string.
+     * the page size constant where the title contains the query string. Only courses with an id greater than the given
+     * one, i.e. following the last course already shown, are retrieved.
      *
      * @param query The title to search for.
-     * @param page The current page used to compute the offset.
+     * @param last The id of the last course already shown.
      * @return A list of ids, titles and descriptions, or an empty list, if no entries could be found.
      */
     @Transactional
-    public List<String[]> getNextCourses(final String query, final int page) {
-        int offset = Constants.PAGE_SIZE * page;
-        List<CourseTableProjection> projections = courseRepository.findCourseResults(query, Constants.PAGE_SIZE,
-                offset);
+    public List<String[]> getNextCourses(final String query, final int last) {
+        List<CourseTableProjection> projections = isIndexed(query)
+                ? courseRepository.findCourseResultsAfterByIndex(toPhrase(query), query, last, Constants.PAGE_SIZE)
+                : courseRepository.findCourseResultsAfter(query, last, Constants.PAGE_SIZE);
         return addCourseTableInfo(projections);
     }
 
+    /**
+     * Retrieves the course, experiment and user search suggestions for the given query from the suggestion index in
+     * the same format as the suggestions retrieved from the database.
+     *
+     * @param query The username, email, or title to search for.
+     * @return A list of matching suggestions, or an empty list, if no entries could be found.
+     */
+    private List<String[]> getIndexedSuggestions(final String query) {
+        List<String[]> suggestions = new ArrayList<>();
+        Map<Integer, String[]> courses = suggestionIndexService.findCourses(query, Constants.MAX_SEARCH_RESULTS);
+        Map<Integer, String[]> experiments = suggestionIndexService.findExperiments(query,
+                Constants.MAX_SEARCH_RESULTS);
+        Map<Integer, String[]> users = suggestionIndexService.findUsers(query, Constants.MAX_SEARCH_RESULTS);
+        courses.forEach((id, values) -> suggestions.add(new String[] {"/course?id=" + id, String.valueOf(id),
+                values[0]}));
+        experiments.forEach((id, values) -> suggestions.add(new String[] {"/experiment?id=" + id, String.valueOf(id),
+                values[0]}));
+        users.values().forEach(values -> suggestions.add(new String[] {"/users/profile?name=" + values[0], values[0],
+                values[1]}));
+        return suggestions;
+    }
+
+    /**
+     * Retrieves the first page of users whose username or email contain the search query string along with the total
+     * number of matching users, using the full-text index if possible.
+     *
+     * @param query The username or email to search for.
+     * @return A list of matching {@link UserResultProjection}s, or an empty list, if no entries could be found.
+     */
+    private List<UserResultProjection> findUserResultPage(final String query) {
+        return isIndexed(query) ? userRepository.findUserResultPageByIndex(toPhrase(query), query, Constants.PAGE_SIZE)
+                : userRepository.findUserResultPage(query, Constants.PAGE_SIZE);
+    }
+
+    /**
+     * Retrieves the first page of experiments whose title contains the search query string along with the total
+     * number of matching experiments, using the full-text index if possible.
+     *
+     * @param query The title to search for.
+     * @return A list of matching {@link ExperimentResultProjection}s, or an empty list, if no entries could be found.
+     */
+    private List<ExperimentResultProjection> findExperimentResultPage(final String query) {
+        return isIndexed(query)
+                ? experimentRepository.findExperimentResultPageByIndex(toPhrase(query), query, Constants.PAGE_SIZE)
+                : experimentRepository.findExperimentResultPage(query, Constants.PAGE_SIZE);
+    }
+
+    /**
+     * Retrieves the first page of courses whose title contains the search query string along with the total number of
+     * matching courses, using the full-text index if possible.
+     *
+     * @param query The title to search for.
+     * @return A list of matching {@link CourseResultProjection}s, or an empty list, if no entries could be found.
+     */
+    private List<CourseResultProjection> findCourseResultPage(final String query) {
+        return isIndexed(query)
+                ? courseRepository.findCourseResultPageByIndex(toPhrase(query), query, Constants.PAGE_SIZE)
+                : courseRepository.findCourseResultPage(query, Constants.PAGE_SIZE);
+    }
+
+    /**
+     * Checks, whether the given query can be looked up in the full-text indexes without changing the results. This is
+     * not the case for queries shorter than an n-gram token, for queries containing whitespace, which the n-gram
+     * parser discards, or for queries containing double quotes or the wildcards and escape character of a LIKE
+     * comparison, which the index would match literally.
+     *
+     * @param query The query to check.
+     * @return {@code true} if the full-text indexes can be used, or {@code false} otherwise.
+     */
+    private boolean isIndexed(final String query) {
+        return fulltext && query != null && query.length() >= Constants.SEARCH_NGRAM_SIZE
+                && query.chars().noneMatch(c -> Character.isWhitespace(c) || c == '"' || c == '%' || c == '_'
+                || c == '\\');
+    }
+
+    /**
+     * Returns the given query as a phrase for a boolean mode full-text search, matching only entries in which the
+     * n-grams of the query occur consecutively.
+     *
+     * @param query The query.
+     * @return The phrase.
+     */
+    private String toPhrase(final String query) {
+        return "\"" + query + "\"";
+    }
+
     /**
      * Retrieves a list of up to five usernames and emails where one of the two contain the search query string. Only
      * users who are not already participating in the experiment with the given id and who are participating in the
@@ -0,0 +1,447 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.projection.EventTimeProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.BlockEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ClickEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.DebuggerEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.QuestionEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ResourceEventRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.SessionDTO;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * A service computing the working sessions of participants from the timestamps of their block, click, debugger,
+ * question and resource events. The events of each table are read in batches ordered by user and timestamp and merged
+ * into a single chronological stream, so the metrics are computed in one pass while only keeping one batch per table
+ * and the metrics of the current participant in memory.
+ */
+@Service
+public class SessionService {
+
+    /**
+     * The timestamp before all event timestamps, used to start reading the events of a participant.
+     */
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+
+    /**
+     * The header of the session data in the experiment csv file.
+     */
+    private static final String[] HEADER = {"user", "events", "sessions", "active", "idle", "idle_gaps",
+        "longest_idle", "first", "last"};
+
+    /**
+     * The order in which the event cursors are merged.
+     */
+    private static final Comparator<EventCursor> ORDER = Comparator.comparing(
+            (EventCursor cursor) -> cursor.current.getUserId()).thenComparing(cursor -> cursor.current.getDate());
+
+    /**
+     * The block event repository to use for database queries related to block event data.
+     */
+    private final BlockEventRepository blockEventRepository;
+
+    /**
+     * The click event repository to use for database queries related to click event data.
+     */
+    private final ClickEventRepository clickEventRepository;
+
+    /**
+     * The debugger event repository to use for database queries related to debugger event data.
+     */
+    private final DebuggerEventRepository debuggerEventRepository;
+
+    /**
+     * The question event repository to use for database queries related to question event data.
+     */
+    private final QuestionEventRepository questionEventRepository;
+
+    /**
+     * The resource event repository to use for database queries related to resource event data.
+     */
+    private final ResourceEventRepository resourceEventRepository;
+
+    /**
+     * The experiment repository to use for database queries related to experiment data.
+     */
+    private final ExperimentRepository experimentRepository;
+
+    /**
+     * The time in seconds between two events after which the participant is considered idle.
+     */
+    private final long idleThreshold;
+
+    /**
+     * The time in seconds between two events after which a new session is started.
+     */
+    private final long sessionTimeout;
+
+    /**
+     * Constructs a session service with the given dependencies.
+     *
+     * @param blockEventRepository The {@link BlockEventRepository} to use.
+     * @param clickEventRepository The {@link ClickEventRepository} to use.
+     * @param debuggerEventRepository The {@link DebuggerEventRepository} to use.
+     * @param questionEventRepository The {@link QuestionEventRepository} to use.
+     * @param resourceEventRepository The {@link ResourceEventRepository} to use.
+     * @param experimentRepository The {@link ExperimentRepository} to use.
+     * @param idleThreshold The time in seconds between two events after which the participant is considered idle.
+     * @param sessionTimeout The time in seconds between two events after which a new session is started.
+     */
+    @Autowired
+    public SessionService(final BlockEventRepository blockEventRepository,
+                          final ClickEventRepository clickEventRepository,
+                          final DebuggerEventRepository debuggerEventRepository,
+                          final QuestionEventRepository questionEventRepository,
+                          final ResourceEventRepository resourceEventRepository,
+                          final ExperimentRepository experimentRepository,
+                          @Value("${app.session.idle:" + Constants.SESSION_IDLE + "}") final long idleThreshold,
+                          @Value("${app.session.timeout:" + Constants.SESSION_TIMEOUT + "}")
+                          final long sessionTimeout) {
+        this.blockEventRepository = blockEventRepository;
+        this.clickEventRepository = clickEventRepository;
+        this.debuggerEventRepository = debuggerEventRepository;
+        this.questionEventRepository = questionEventRepository;
+        this.resourceEventRepository = resourceEventRepository;
+        this.experimentRepository = experimentRepository;
+        this.idleThreshold = idleThreshold;
+        this.sessionTimeout = Math.max(idleThreshold, sessionTimeout);
+    }
+
+    /**
+     * Computes the sessions of the user with the given id during the experiment with the given id. If the user has not
+     * caused any events, a {@link SessionDTO} without any sessions is returned.
+     *
+     * @param userId The user id to search for.
+     * @param experimentId The experiment id to search for.
+     * @return The sessions of the participant.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    @Transactional(readOnly = true)
+    public SessionDTO getSession(final int userId, final int experimentId) {
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot compute sessions for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+
+        SessionDTO[] session = {SessionDTO.builder().user(userId).build()};
+        computeSessions(experimentId, userId, userId, sessionDTO -> session[0] = sessionDTO);
+        return session[0];
+    }
+
+    /**
+     * Computes the sessions of all participants of the experiment with the given id who caused any events and passes
+     * them to the given consumer as rows of the experiment csv file, starting with the header.
+     *
+     * @param experimentId The experiment id to search for.
+     * @param consumer The consumer receiving the csv rows.
+     * @return The number of participants whose sessions were computed.
+     * @throws IllegalArgumentException if the passed experiment id is invalid.
+     */
+    @Transactional(readOnly = true)
+    public int getSessionData(final int experimentId, final Consumer<String[]> consumer) {
+        if (experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot compute sessions for experiment with invalid id " + experimentId
+                    + "!");
+        }
+
+        consumer.accept(HEADER);
+        return computeSessions(experimentId, Constants.MIN_ID, Integer.MAX_VALUE, sessionDTO -> consumer.accept(
+                new String[]{String.valueOf(sessionDTO.getUser()), String.valueOf(sessionDTO.getEvents()),
+                    String.valueOf(sessionDTO.getSessions()), String.valueOf(sessionDTO.getActive()),
+                    String.valueOf(sessionDTO.getIdle()), String.valueOf(sessionDTO.getIdleGaps()),
+                    String.valueOf(sessionDTO.getLongestIdle()), String.valueOf(sessionDTO.getFirst()),
+                    String.valueOf(sessionDTO.getLast())}));
+    }
+
+    /**
+     * Merges the events of the users with ids in the given range during the given experiment from all event tables
+     * into a single stream ordered by user and timestamp and passes the sessions of each user to the given consumer.
+     *
+     * @param experimentId The experiment id to search for.
+     * @param first The lowest user id to include.
+     * @param last The highest user id to include.
+     * @param consumer The consumer receiving the sessions of each user.
+     * @return The number of users whose sessions were computed.
+     */
+    private int computeSessions(final int experimentId, final int first, final int last,
+                                final Consumer<SessionDTO> consumer) {
+        Experiment experiment = experimentRepository.getReferenceById(experimentId);
+        List<EventTimeQuery> queries = List.of(
+                (user, date, id, pageable) -> blockEventRepository.findTimesAfter(experiment, last, user, date, id,
+                        pageable),
+                (user, date, id, pageable) -> clickEventRepository.findTimesAfter(experiment, last, user, date, id,
+                        pageable),
+                (user, date, id, pageable) -> debuggerEventRepository.findTimesAfter(experiment, last, user, date,
+                        id, pageable),
+                (user, date, id, pageable) -> questionEventRepository.findTimesAfter(experiment, last, user, date,
+                        id, pageable),
+                (user, date, id, pageable) -> resourceEventRepository.findTimesAfter(experiment, last, user, date,
+                        id, pageable));
+        PriorityQueue<EventCursor> cursors = new PriorityQueue<>(ORDER);
+
+        for (EventTimeQuery query : queries) {
+            EventCursor cursor = new EventCursor(query, first - 1);
+
+            if (cursor.next()) {
+                cursors.add(cursor);
+            }
+        }
+
+        int count = 0;
+        SessionAccumulator accumulator = null;
+
+        while (!cursors.isEmpty()) {
+            EventCursor cursor = cursors.poll();
+            EventTimeProjection event = cursor.current;
+
+            if (accumulator == null || accumulator.user != event.getUserId()) {
+                if (accumulator != null) {
+                    consumer.accept(accumulator.toDTO());
+                    count++;
+                }
+
+                accumulator = new SessionAccumulator(event.getUserId());
+            }
+
+            accumulator.add(event.getDate());
+
+            if (cursor.next()) {
+                cursors.add(cursor);
+            }
+        }
+
+        if (accumulator != null) {
+            consumer.accept(accumulator.toDTO());
+            count++;
+        }
+
+        return count;
+    }
+
+    /**
+     * A query returning the timestamps of the events of an event table after the given position.
+     */
+    @FunctionalInterface
+    private interface EventTimeQuery {
+
+        /**
+         * Returns the events following the event with the given user id, timestamp and id.
+         *
+         * @param user The user id of the last event that has already been returned.
+         * @param date The timestamp of the last event that has already been returned.
+         * @param id The id of the last event that has already been returned.
+         * @param pageable The pageable limiting the number of returned entries.
+         * @return The event times.
+         */
+        List<EventTimeProjection> find(int user, LocalDateTime date, int id, Pageable pageable);
+
+    }
+
+    /**
+     * A cursor reading the events of one event table in batches.
+     */
+    private static final class EventCursor {
+
+        /**
+         * The query returning the next batch of events.
+         */
+        private final EventTimeQuery query;
+
+        /**
+         * The current batch of events.
+         */
+        private List<EventTimeProjection> batch = List.of();
+
+        /**
+         * The index of the current event in the batch.
+         */
+        private int index = 0;
+
+        /**
+         * The user id of the last event read, used to start reading the next batch.
+         */
+        private int user;
+
+        /**
+         * The current event.
+         */
+        private EventTimeProjection current;
+
+        /**
+         * Whether the last batch loaded was the last one of the event table.
+         */
+        private boolean exhausted = false;
+
+        /**
+         * Constructs a new cursor reading the events of users with ids greater than the given id.
+         *
+         * @param query The query returning the batches of events.
+         * @param user The user id after which to start.
+         */
+        private EventCursor(final EventTimeQuery query, final int user) {
+            this.query = query;
+            this.user = user;
+        }
+
+        /**
+         * Moves the cursor to the next event, loading the next batch if necessary.
+         *
+         * @return {@code true} if there is a next event, or {@code false} otherwise.
+         */
+        private boolean next() {
+            if (index >= batch.size()) {
+                if (exhausted) {
+                    return false;
+                }
+
+                LocalDateTime date = current == null ? START : current.getDate();
+                int id = current == null ? 0 : current.getId();
+                batch = query.find(user, date, id, PageRequest.of(0, Constants.SESSION_BATCH_SIZE));
+                index = 0;
+                exhausted = batch.size() < Constants.SESSION_BATCH_SIZE;
+
+                if (batch.isEmpty()) {
+                    return false;
+                }
+            }
+
+            current = batch.get(index++);
+            user = current.getUserId();
+            return true;
+        }
+
+    }
+
+    /**
+     * The metrics of the participant whose events are currently processed.
+     */
+    private final class SessionAccumulator {
+
+        /**
+         * The id of the user.
+         */
+        private final int user;
+
+        /**
+         * The number of events processed.
+         */
+        private long events = 0;
+
+        /**
+         * The number of sessions.
+         */
+        private int sessions = 0;
+
+        /**
+         * The active time in seconds.
+         */
+        private long active = 0;
+
+        /**
+         * The idle time in seconds.
+         */
+        private long idle = 0;
+
+        /**
+         * The number of idle gaps.
+         */
+        private int idleGaps = 0;
+
+        /**
+         * The longest idle gap in seconds.
+         */
+        private long longestIdle = 0;
+
+        /**
+         * The timestamp of the first event.
+         */
+        private LocalDateTime first;
+
+        /**
+         * The timestamp of the last event processed.
+         */
+        private LocalDateTime last;
+
+        /**
+         * Constructs a new accumulator for the user with the given id.
+         *
+         * @param user The user id.
+         */
+        private SessionAccumulator(final int user) {
+            this.user = user;
+        }
+
+        /**
+         * Adds the event with the given timestamp to the metrics.
+         *
+         * @param date The timestamp of the event.
+         */
+        private void add(final LocalDateTime date) {
+            events++;
+
+            if (last == null) {
+                first = date;
+                sessions = 1;
+            } else {
+                long gap = Duration.between(last, date).getSeconds();
+
+                if (gap > sessionTimeout) {
+                    sessions++;
+                } else if (gap > idleThreshold) {
+                    idle += gap;
+                    idleGaps++;
+                    longestIdle = Math.max(longestIdle, gap);
+                } else {
+                    active += gap;
+                }
+            }
+
+            last = date;
+        }
+
+        /**
+         * Returns the metrics as a {@link SessionDTO}.
+         *
+         * @return The session dto.
+         */
+        private SessionDTO toDTO() {
+            return new SessionDTO(user, events, sessions, active, idle, idleGaps, longestIdle, first, last);
+        }
+
+    }
+
+}
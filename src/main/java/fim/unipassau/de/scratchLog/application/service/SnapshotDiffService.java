@@ -0,0 +1,339 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.projection.BlockEventJSONProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.BlockEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.enums.BlockDiffType;
+import fim.unipassau.de.scratchLog.web.dto.BlockDiffDTO;
+import jakarta.persistence.EntityNotFoundException;
+import org.json.JSONArray;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Consumer;
+
+/**
+ * A service computing the structural changes between consecutive json snapshots saved for a participant. The
+ * snapshots are loaded in batches in the order in which they were saved, and only the blocks of the previous snapshot
+ * are kept in memory while comparing it to the next one. For each sprite, blocks are identified by the id assigned by
+ * the Scratch GUI and reported as added, removed or moved together with their opcode.
+ */
+@Service
+public class SnapshotDiffService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotDiffService.class);
+
+    /**
+     * The block event repository to use for database queries related to block event data.
+     */
+    private final BlockEventRepository blockEventRepository;
+
+    /**
+     * The user repository to use for database queries related to user data.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The experiment repository to use for database queries related to experiment data.
+     */
+    private final ExperimentRepository experimentRepository;
+
+    /**
+     * Constructs a snapshot diff service with the given dependencies.
+     *
+     * @param blockEventRepository The {@link BlockEventRepository} to use.
+     * @param userRepository The {@link UserRepository} to use.
+     * @param experimentRepository The {@link ExperimentRepository} to use.
+     */
+    @Autowired
+    public SnapshotDiffService(final BlockEventRepository blockEventRepository, final UserRepository userRepository,
+                               final ExperimentRepository experimentRepository) {
+        this.blockEventRepository = blockEventRepository;
+        this.userRepository = userRepository;
+        this.experimentRepository = experimentRepository;
+    }
+
+    /**
+     * Compares all json snapshots saved for the user with the given id during the experiment with the given id to their
+     * respective predecessor and passes every block change to the given consumer in the order in which the snapshots
+     * were saved. The first snapshot is compared to an empty project. Snapshots that cannot be parsed are skipped, so
+     * the following snapshot is compared to the last valid one.
+     *
+     * @param userId The user id to search for.
+     * @param experimentId The experiment id to search for.
+     * @param consumer The consumer processing the block changes.
+     * @return The number of compared snapshots.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     * @throws NotFoundException if no corresponding user or experiment could be found.
+     */
+    @Transactional(readOnly = true)
+    public int diffSnapshots(final int userId, final int experimentId, final Consumer<BlockDiffDTO> consumer) {
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot compute block changes for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+
+        User user = userRepository.getReferenceById(userId);
+        Experiment experiment = experimentRepository.getReferenceById(experimentId);
+        Map<String, Map<String, BlockState>> previous = new HashMap<>();
+        int count = 0;
+
+        try {
+            List<BlockEventJSONProjection> batch = blockEventRepository.findAllByUserAndExperimentAndCodeIsNotNull(
+                    user, experiment, PageRequest.of(0, Constants.SNAPSHOT_DIFF_BATCH_SIZE, Sort.by("date", "id")));
+
+            while (!batch.isEmpty()) {
+                for (BlockEventJSONProjection projection : batch) {
+                    Map<String, Map<String, BlockState>> current = parseSnapshot(projection);
+
+                    if (current != null) {
+                        diffSprites(previous, current, projection, consumer);
+                        previous = current;
+                        count++;
+                    }
+                }
+
+                if (batch.size() < Constants.SNAPSHOT_DIFF_BATCH_SIZE) {
+                    break;
+                }
+
+                BlockEventJSONProjection last = batch.get(batch.size() - 1);
+                batch = blockEventRepository.findJsonAfter(user, experiment, last.getDate(), last.getId(),
+                        PageRequest.of(0, Constants.SNAPSHOT_DIFF_BATCH_SIZE));
+            }
+        } catch (EntityNotFoundException e) {
+            LOGGER.error("Could not find user with id " + userId + " or experiment with id " + experimentId
+                    + " when trying to compute block changes!", e);
+            throw new NotFoundException("Could not find user with id " + userId + " or experiment with id "
+                    + experimentId + " when trying to compute block changes!", e);
+        }
+
+        return count;
+    }
+
+    /**
+     * Compares the blocks of each sprite in the given snapshots and passes the changes to the given consumer. Sprites
+     * that are only contained in one of the snapshots have been added or deleted together with all of their blocks.
+     *
+     * @param previous The blocks of the previous snapshot mapped by sprite name.
+     * @param current The blocks of the current snapshot mapped by sprite name.
+     * @param projection The block event holding the current snapshot.
+     * @param consumer The consumer processing the block changes.
+     */
+    private void diffSprites(final Map<String, Map<String, BlockState>> previous,
+                             final Map<String, Map<String, BlockState>> current,
+                             final BlockEventJSONProjection projection, final Consumer<BlockDiffDTO> consumer) {
+        for (Map.Entry<String, Map<String, BlockState>> sprite : current.entrySet()) {
+            Map<String, BlockState> oldBlocks = previous.getOrDefault(sprite.getKey(), Map.of());
+
+            for (Map.Entry<String, BlockState> block : sprite.getValue().entrySet()) {
+                BlockState oldBlock = oldBlocks.get(block.getKey());
+
+                if (oldBlock == null) {
+                    consumer.accept(createBlockDiffDTO(projection, sprite.getKey(), BlockDiffType.ADDED,
+                            block.getKey(), block.getValue()));
+                } else if (block.getValue().isMovedFrom(oldBlock)) {
+                    consumer.accept(createBlockDiffDTO(projection, sprite.getKey(), BlockDiffType.MOVED,
+                            block.getKey(), block.getValue()));
+                }
+            }
+
+            for (Map.Entry<String, BlockState> block : oldBlocks.entrySet()) {
+                if (!sprite.getValue().containsKey(block.getKey())) {
+                    consumer.accept(createBlockDiffDTO(projection, sprite.getKey(), BlockDiffType.REMOVED,
+                            block.getKey(), block.getValue()));
+                }
+            }
+        }
+
+        for (Map.Entry<String, Map<String, BlockState>> sprite : previous.entrySet()) {
+            if (!current.containsKey(sprite.getKey())) {
+                for (Map.Entry<String, BlockState> block : sprite.getValue().entrySet()) {
+                    consumer.accept(createBlockDiffDTO(projection, sprite.getKey(), BlockDiffType.REMOVED,
+                            block.getKey(), block.getValue()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Parses the blocks of each sprite contained in the json snapshot of the given block event. Only the attributes
+     * needed to detect changes are kept.
+     *
+     * @param projection The block event holding the snapshot.
+     * @return The blocks mapped by sprite name, or {@code null}, if the snapshot could not be parsed.
+     */
+    private Map<String, Map<String, BlockState>> parseSnapshot(final BlockEventJSONProjection projection) {
+        try {
+            JSONArray targets = new JSONObject(projection.getCode()).getJSONArray("targets");
+            Map<String, Map<String, BlockState>> sprites = new LinkedHashMap<>();
+
+            for (int i = 0; i < targets.length(); i++) {
+                JSONObject target = targets.getJSONObject(i);
+                JSONObject blocks = target.optJSONObject("blocks");
+                Map<String, BlockState> states = new HashMap<>();
+
+                if (blocks != null) {
+                    for (String id : blocks.keySet()) {
+                        BlockState state = parseBlock(blocks.get(id));
+
+                        if (state != null) {
+                            states.put(id, state);
+                        } else {
+                            LOGGER.debug("Skipping block " + id + " with unexpected format in json snapshot of block "
+                                    + "event with id " + projection.getId() + ".");
+                        }
+                    }
+                }
+
+                sprites.put(target.getString("name"), states);
+            }
+
+            return sprites;
+        } catch (JSONException e) {
+            LOGGER.warn("Skipping json snapshot of block event with id " + projection.getId()
+                    + " that could not be parsed!", e);
+            return null;
+        }
+    }
+
+    /**
+     * Parses the given block of a json snapshot. Blocks are usually stored as json objects. Top-level variable and
+     * list reporters are stored in a compressed array format containing their position at indices 3 and 4 instead.
+     * Any other value is not a valid block.
+     *
+     * @param block The json representation of the block.
+     * @return The parsed block, or {@code null}, if the value is neither a json object nor a json array.
+     */
+    private BlockState parseBlock(final Object block) {
+        if (block instanceof JSONArray array) {
+            return new BlockState("primitive", null, array.optDouble(3), array.optDouble(4));
+        } else if (block instanceof JSONObject object) {
+            return new BlockState(object.optString("opcode", null), object.optString("parent", null),
+                    object.optDouble("x"), object.optDouble("y"));
+        }
+
+        return null;
+    }
+
+    /**
+     * Creates a new {@link BlockDiffDTO} for the given block change.
+     *
+     * @param projection The block event holding the snapshot in which the change was observed.
+     * @param sprite The name of the sprite containing the block.
+     * @param type The type of the change.
+     * @param id The id of the block.
+     * @param block The changed block.
+     * @return The new block diff dto.
+     */
+    private BlockDiffDTO createBlockDiffDTO(final BlockEventJSONProjection projection, final String sprite,
+                                            final BlockDiffType type, final String id, final BlockState block) {
+        return BlockDiffDTO.builder()
+                .eventId(projection.getId())
+                .date(projection.getDate())
+                .event(projection.getEvent())
+                .sprite(sprite)
+                .type(type)
+                .block(id)
+                .opcode(block.opcode)
+                .build();
+    }
+
+    /**
+     * The attributes of a block needed to detect changes between snapshots.
+     */
+    private static final class BlockState {
+
+        /**
+         * The opcode of the block.
+         */
+        private final String opcode;
+
+        /**
+         * The id of the parent block, or {@code null} for a top-level block.
+         */
+        private final String parent;
+
+        /**
+         * The horizontal position of a top-level block, or {@code NaN}, if not present.
+         */
+        private final double x;
+
+        /**
+         * The vertical position of a top-level block, or {@code NaN}, if not present.
+         */
+        private final double y;
+
+        /**
+         * Constructs a new block state with the given attributes.
+         *
+         * @param opcode The opcode of the block.
+         * @param parent The id of the parent block.
+         * @param x The horizontal position of the block.
+         * @param y The vertical position of the block.
+         */
+        private BlockState(final String opcode, final String parent, final double x, final double y) {
+            this.opcode = opcode;
+            this.parent = parent;
+            this.x = x;
+            this.y = y;
+        }
+
+        /**
+         * Checks, whether this block has been moved compared to the given state of the same block in the previous
+         * snapshot. This is the case if the block has been attached to another parent, or if it is a top-level block
+         * whose position has changed.
+         *
+         * @param previous The state of the block in the previous snapshot.
+         * @return {@code true} if the block has been moved, or {@code false} otherwise.
+         */
+        private boolean isMovedFrom(final BlockState previous) {
+            if (!Objects.equals(parent, previous.parent)) {
+                return true;
+            }
+
+            return parent == null && (Double.compare(x, previous.x) != 0 || Double.compare(y, previous.y) != 0);
+        }
+
+    }
+
+}
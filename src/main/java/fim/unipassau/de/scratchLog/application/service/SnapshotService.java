@@ -0,0 +1,277 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.LastSnapshot;
+import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.LastSnapshotRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * A service keeping track of the latest json code saved for each participant. Each snapshot is written to the last
+ * snapshot table as soon as the transaction of its block event has been committed, so saving a block event does not
+ * depend on any state kept in memory and the current project state can be restored on a reload or restart without
+ * searching all block events of the participant. The snapshots of the most recently active participants are
+ * additionally kept in memory as a read-through cache. Before a cached snapshot is returned, its date is compared to
+ * the date saved in the database, so a snapshot written by another instance of the application is never shadowed by an
+ * outdated cached one.
+ */
+@Service
+public class SnapshotService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SnapshotService.class);
+
+    /**
+     * The last snapshot repository to use for database queries related to the latest json code.
+     */
+    private final LastSnapshotRepository lastSnapshotRepository;
+
+    /**
+     * The template running each write of a snapshot in a transaction of its own.
+     */
+    private final TransactionTemplate transactionTemplate;
+
+    /**
+     * The snapshots of the most recently active participants in least recently used order. Guarded by this service.
+     */
+    private final LinkedHashMap<ParticipantId, LastSnapshot> snapshots;
+
+    /**
+     * Constructs a snapshot service with the given dependencies.
+     *
+     * @param lastSnapshotRepository The {@link LastSnapshotRepository} to use.
+     * @param transactionManager The {@link PlatformTransactionManager} to use.
+     * @param maxSize The maximum number of snapshots to keep in memory.
+     */
+    @Autowired
+    public SnapshotService(final LastSnapshotRepository lastSnapshotRepository,
+                           final PlatformTransactionManager transactionManager,
+                           @Value("${app.snapshot.cache.size:" + Constants.SNAPSHOT_CACHE_SIZE + "}")
+                           final int maxSize) {
+        this.lastSnapshotRepository = lastSnapshotRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.snapshots = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ParticipantId, LastSnapshot> eldest) {
+                return size() > maxSize;
+            }
+        };
+    }
+
+    /**
+     * Writes the given json code to the database as the latest snapshot of the given user during the given experiment,
+     * unless a more recent snapshot has already been saved. If called within a transaction, the snapshot is only
+     * written once the transaction has been committed, so the json code of a block event that has not been saved is
+     * never restored. Once the snapshot has been written, it is kept in memory as well.
+     *
+     * @param user The user who caused the block event.
+     * @param experiment The experiment during which the block event occurred.
+     * @param date The time at which the block event occurred.
+     * @param code The json code of the block event.
+     */
+    public void saveSnapshot(final User user, final Experiment experiment, final LocalDateTime date,
+                             final String code) {
+        if (code == null || date == null) {
+            return;
+        }
+
+        LastSnapshot snapshot = new LastSnapshot(user.getId(), experiment.getId(), date, code);
+        afterCommit(() -> writeSnapshot(snapshot));
+    }
+
+    /**
+     * Returns the latest json code saved for the user with the given id during the experiment with the given id. The
+     * snapshot kept in memory is only returned if no more recent snapshot has been saved in the database, otherwise
+     * the snapshot is loaded from the database.
+     *
+     * @param userId The user id to search for.
+     * @param experimentId The experiment id to search for.
+     * @return The json code, or {@code null}, if no code has been saved for the participant.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    @Transactional
+    public String findSnapshot(final int userId, final int experimentId) {
+        checkIds(userId, experimentId);
+        ParticipantId id = new ParticipantId(userId, experimentId);
+        Optional<LocalDateTime> date = lastSnapshotRepository.findDateByUserAndExperiment(userId, experimentId);
+
+        if (date.isEmpty()) {
+            LOGGER.debug("No snapshot saved for user with id " + userId + " for experiment with id " + experimentId
+                    + ".");
+            removeCached(id);
+            return null;
+        }
+
+        LastSnapshot cached = getCached(id);
+
+        if (cached != null && !cached.getDate().isBefore(date.get())) {
+            return cached.getCode();
+        }
+
+        Optional<LastSnapshot> snapshot = lastSnapshotRepository.findById(id);
+
+        if (snapshot.isEmpty()) {
+            removeCached(id);
+            return null;
+        }
+
+        putCached(id, snapshot.get());
+        return snapshot.get().getCode();
+    }
+
+    /**
+     * Removes the snapshot of the user with the given id during the experiment with the given id from memory. This
+     * method should be called once a participant has finished the experiment, as no further json code is saved for
+     * them. The snapshot remains in the database to be able to restart the experiment.
+     *
+     * @param userId The user id of the participant.
+     * @param experimentId The experiment id of the participant.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    public void evictSnapshot(final int userId, final int experimentId) {
+        checkIds(userId, experimentId);
+        removeCached(new ParticipantId(userId, experimentId));
+    }
+
+    /**
+     * Removes the snapshot of the user with the given id during the experiment with the given id from memory. This
+     * method should be called once a participant has been deleted, as their snapshot is deleted along with them.
+     *
+     * @param userId The user id of the participant.
+     * @param experimentId The experiment id of the participant.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    public void discardSnapshot(final int userId, final int experimentId) {
+        checkIds(userId, experimentId);
+        removeCached(new ParticipantId(userId, experimentId));
+    }
+
+    /**
+     * Returns the snapshot with the given id kept in memory, if any.
+     *
+     * @param id The id of the participant.
+     * @return The snapshot, or {@code null}, if it is not kept in memory.
+     */
+    private synchronized LastSnapshot getCached(final ParticipantId id) {
+        return snapshots.get(id);
+    }
+
+    /**
+     * Keeps the given snapshot in memory, unless a more recent snapshot is already kept for the participant. If the
+     * maximum size is exceeded afterwards, the least recently used snapshot is evicted.
+     *
+     * @param id The id of the participant.
+     * @param snapshot The snapshot to keep.
+     */
+    private synchronized void putCached(final ParticipantId id, final LastSnapshot snapshot) {
+        LastSnapshot current = snapshots.get(id);
+
+        if (current == null || !current.getDate().isAfter(snapshot.getDate())) {
+            snapshots.put(id, snapshot);
+        }
+    }
+
+    /**
+     * Removes the snapshot with the given id from memory, if it is kept.
+     *
+     * @param id The id of the participant.
+     */
+    private synchronized void removeCached(final ParticipantId id) {
+        snapshots.remove(id);
+    }
+
+    /**
+     * Writes the given snapshot to the database in a transaction of its own and keeps it in memory afterwards. The
+     * snapshot is only written if no more recent snapshot has been saved for the participant in the meantime. If the
+     * snapshot cannot be written, e.g. as the participant has been deleted in the meantime, the snapshot kept in memory
+     * for the participant is removed, so the next lookup reads the database.
+     *
+     * @param snapshot The snapshot to write.
+     */
+    private void writeSnapshot(final LastSnapshot snapshot) {
+        ParticipantId id = new ParticipantId(snapshot.getUser(), snapshot.getExperiment());
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> lastSnapshotRepository.saveIfNewer(
+                    snapshot.getUser(), snapshot.getExperiment(), snapshot.getDate(), snapshot.getCode()));
+            putCached(id, snapshot);
+        } catch (DataAccessException e) {
+            LOGGER.error("Could not save the snapshot of user with id " + snapshot.getUser() + " for experiment "
+                    + "with id " + snapshot.getExperiment() + "!", e);
+            removeCached(id);
+        }
+    }
+
+    /**
+     * Runs the given action once the current transaction has been committed, or right away if no transaction is
+     * active.
+     *
+     * @param action The action to run.
+     */
+    private void afterCommit(final Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * Checks, whether the given user and experiment ids are valid.
+     *
+     * @param userId The user id.
+     * @param experimentId The experiment id.
+     * @throws IllegalArgumentException if the passed user or experiment ids are invalid.
+     */
+    private void checkIds(final int userId, final int experimentId) {
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IllegalArgumentException("Cannot access the snapshot for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+    }
+
+}
@@ -0,0 +1,467 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application.service;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Course;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeEvent;
+import fim.unipassau.de.scratchLog.persistence.projection.TitleProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.ToIntFunction;
+
+/**
+ * A service keeping an in-memory index of all usernames, emails and experiment and course titles to answer search
+ * suggestions without querying the database. The index is built once the application has started and afterwards kept up
+ * to date with the {@link EntityChangeEvent}s published for the committed changes to users, experiments and courses. As
+ * these events only cover the changes made by this instance of the application, the index is rebuilt from the database
+ * once per hour, which bounds how long changes made by other instances sharing the database remain missing. The index
+ * is built from the ids and values only, read in pages ordered by id. Like the corresponding database queries, the
+ * index returns the entries with the lowest ids whose values contain the query, ignoring upper and lower case.
+ */
+@Service
+public class SuggestionIndexService {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionIndexService.class);
+
+    /**
+     * The maximum length of the suffixes stored in the index. Longer queries are looked up by their first characters
+     * and the candidates checked against the entire query.
+     */
+    private static final int KEY_LENGTH = 8;
+
+    /**
+     * The maximum number of rows read from the database with a single query when the index is built.
+     */
+    private static final int PAGE_SIZE = 1000;
+
+    /**
+     * The user repository to use for database queries related to user data.
+     */
+    private final UserRepository userRepository;
+
+    /**
+     * The experiment repository to use for database queries related to experiment data.
+     */
+    private final ExperimentRepository experimentRepository;
+
+    /**
+     * The course repository to use for database queries related to course data.
+     */
+    private final CourseRepository courseRepository;
+
+    /**
+     * The index of the usernames and emails of all users.
+     */
+    private volatile SuggestionIndex users = new SuggestionIndex();
+
+    /**
+     * The index of the titles of all experiments.
+     */
+    private volatile SuggestionIndex experiments = new SuggestionIndex();
+
+    /**
+     * The index of the titles of all courses.
+     */
+    private volatile SuggestionIndex courses = new SuggestionIndex();
+
+    /**
+     * The changes committed while the index is being rebuilt, or {@code null} if no rebuild is in progress. Guarded
+     * by this service.
+     */
+    private List<EntityChangeEvent> pending;
+
+    /**
+     * Whether the index has been built and can be used to answer queries.
+     */
+    private volatile boolean ready = false;
+
+    /**
+     * Constructs a suggestion index service with the given dependencies.
+     *
+     * @param userRepository The {@link UserRepository} to use.
+     * @param experimentRepository The {@link ExperimentRepository} to use.
+     * @param courseRepository The {@link CourseRepository} to use.
+     */
+    @Autowired
+    public SuggestionIndexService(final UserRepository userRepository, final ExperimentRepository experimentRepository,
+                                  final CourseRepository courseRepository) {
+        this.userRepository = userRepository;
+        this.experimentRepository = experimentRepository;
+        this.courseRepository = courseRepository;
+    }
+
+    /**
+     * Builds a new index from all users, experiments and courses currently stored in the database and replaces the
+     * current index with it. This happens once the application has started and afterwards periodically. Only the ids,
+     * usernames, emails and titles are read, in pages ordered by id, so no transaction is kept open and no entities are
+     * loaded while the index is built. The current index keeps answering queries in the meantime. Changes committed
+     * while the new index is being built are applied to it after all rows have been added, so a row changed or removed
+     * after it has been read is never added in its outdated state. If a rebuild is already in progress, nothing
+     * happens.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void buildIndex() {
+        synchronized (this) {
+            if (pending != null) {
+                return;
+            }
+
+            pending = new ArrayList<>();
+        }
+
+        try {
+            SuggestionIndex newUsers = new SuggestionIndex();
+            SuggestionIndex newExperiments = new SuggestionIndex();
+            SuggestionIndex newCourses = new SuggestionIndex();
+            readPages(userRepository::findUsersAfter, UserProjection::getId,
+                    user -> newUsers.put(user.getId(), new String[]{user.getUsername(), user.getEmail()}));
+            readPages(experimentRepository::findTitlesAfter, TitleProjection::getId,
+                    experiment -> newExperiments.put(experiment.getId(), new String[]{experiment.getTitle()}));
+            readPages(courseRepository::findTitlesAfter, TitleProjection::getId,
+                    course -> newCourses.put(course.getId(), new String[]{course.getTitle()}));
+
+            synchronized (this) {
+                pending.forEach(event -> apply(event, newUsers, newExperiments, newCourses));
+                users = newUsers;
+                experiments = newExperiments;
+                courses = newCourses;
+                ready = true;
+            }
+
+            LOGGER.info("Built the search suggestion index with " + newUsers.size() + " users, "
+                    + newExperiments.size() + " experiments and " + newCourses.size() + " courses.");
+        } finally {
+            synchronized (this) {
+                pending = null;
+            }
+        }
+    }
+
+    /**
+     * Updates the index with the given change to a user, experiment or course once the transaction in which it
+     * occurred has been committed. If the index is being rebuilt, the change is also kept to be applied to the new
+     * index. Changes to any other entities are ignored.
+     *
+     * @param event The {@link EntityChangeEvent} to apply.
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public synchronized void onEntityChange(final EntityChangeEvent event) {
+        apply(event, users, experiments, courses);
+
+        if (pending != null) {
+            pending.add(event);
+        }
+    }
+
+    /**
+     * Returns whether the index has been built and can be used to answer queries.
+     *
+     * @return {@code true} if the index is ready, or {@code false} otherwise.
+     */
+    public boolean isReady() {
+        return ready;
+    }
+
+    /**
+     * Returns the usernames and emails of up to as many users as the given limit whose username or email contain the
+     * given query.
+     *
+     * @param query The username or email to search for.
+     * @param limit The maximum number of results to return.
+     * @return The usernames and emails of the matching users mapped to their ids in ascending order.
+     */
+    public Map<Integer, String[]> findUsers(final String query, final int limit) {
+        return users.find(query, limit);
+    }
+
+    /**
+     * Returns the titles of up to as many experiments as the given limit whose title contains the given query.
+     *
+     * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return The titles of the matching experiments mapped to their ids in ascending order.
+     */
+    public Map<Integer, String[]> findExperiments(final String query, final int limit) {
+        return experiments.find(query, limit);
+    }
+
+    /**
+     * Returns the titles of up to as many courses as the given limit whose title contains the given query.
+     *
+     * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return The titles of the matching courses mapped to their ids in ascending order.
+     */
+    public Map<Integer, String[]> findCourses(final String query, final int limit) {
+        return courses.find(query, limit);
+    }
+
+    /**
+     * Reads all rows with the given query in pages ordered by their id and passes them to the given consumer. Each page
+     * starts after the id of the last row of the previous one.
+     *
+     * @param findAfter The query returning up to the given number of rows with an id greater than the given one.
+     * @param getId The function returning the id of a row.
+     * @param consumer The consumer to pass the rows to.
+     * @param <T> The type of the rows.
+     */
+    private static <T> void readPages(final BiFunction<Integer, Integer, List<T>> findAfter,
+                                      final ToIntFunction<T> getId, final Consumer<T> consumer) {
+        int last = 0;
+        List<T> page;
+
+        do {
+            page = findAfter.apply(last, PAGE_SIZE);
+
+            for (T row : page) {
+                consumer.accept(row);
+                last = getId.applyAsInt(row);
+            }
+        } while (page.size() == PAGE_SIZE);
+    }
+
+    /**
+     * Applies the given change to a user, experiment or course to the given indexes. Changes to any other entities are
+     * ignored.
+     *
+     * @param event The {@link EntityChangeEvent} to apply.
+     * @param userIndex The index of the users.
+     * @param experimentIndex The index of the experiments.
+     * @param courseIndex The index of the courses.
+     */
+    private void apply(final EntityChangeEvent event, final SuggestionIndex userIndex,
+                       final SuggestionIndex experimentIndex, final SuggestionIndex courseIndex) {
+        if (event.getEntity() instanceof User user) {
+            if (event.isRemoved()) {
+                userIndex.remove(user.getId());
+            } else {
+                addUser(userIndex, user);
+            }
+        } else if (event.getEntity() instanceof Experiment experiment) {
+            if (event.isRemoved()) {
+                experimentIndex.remove(experiment.getId());
+            } else {
+                addExperiment(experimentIndex, experiment);
+            }
+        } else if (event.getEntity() instanceof Course course) {
+            if (event.isRemoved()) {
+                courseIndex.remove(course.getId());
+            } else {
+                addCourse(courseIndex, course);
+            }
+        }
+    }
+
+    /**
+     * Adds the username and email of the given user to the given index, replacing any previous values.
+     *
+     * @param index The index of the users.
+     * @param user The {@link User} to add.
+     */
+    private void addUser(final SuggestionIndex index, final User user) {
+        index.put(user.getId(), new String[]{user.getUsername(), user.getEmail()});
+    }
+
+    /**
+     * Adds the title of the given experiment to the given index, replacing any previous value.
+     *
+     * @param index The index of the experiments.
+     * @param experiment The {@link Experiment} to add.
+     */
+    private void addExperiment(final SuggestionIndex index, final Experiment experiment) {
+        index.put(experiment.getId(), new String[]{experiment.getTitle()});
+    }
+
+    /**
+     * Adds the title of the given course to the given index, replacing any previous value.
+     *
+     * @param index The index of the courses.
+     * @param course The {@link Course} to add.
+     */
+    private void addCourse(final SuggestionIndex index, final Course course) {
+        index.put(course.getId(), new String[]{course.getTitle()});
+    }
+
+    /**
+     * An index mapping the lower case suffixes of the values of its entries, shortened to the key length, to the ids of
+     * the entries. Since every substring of a value is the prefix of one of its suffixes, all entries containing a
+     * query can be found with a single range lookup in the sorted suffixes.
+     */
+    private static final class SuggestionIndex {
+
+        /**
+         * The values of the entries mapped to their ids.
+         */
+        private final TreeMap<Integer, String[]> entries = new TreeMap<>();
+
+        /**
+         * The ids of the entries mapped to the shortened suffixes of their values.
+         */
+        private final TreeMap<String, Set<Integer>> suffixes = new TreeMap<>();
+
+        /**
+         * Adds an entry with the given id and values to the index, replacing any previous entry with the same id.
+         *
+         * @param id The id of the entry.
+         * @param values The values of the entry, which may contain {@code null}.
+         */
+        private synchronized void put(final Integer id, final String[] values) {
+            if (id == null) {
+                return;
+            }
+
+            remove(id);
+            entries.put(id, values);
+            getKeys(values).forEach(key -> suffixes.computeIfAbsent(key, k -> new HashSet<>()).add(id));
+        }
+
+        /**
+         * Removes the entry with the given id from the index, if it is present.
+         *
+         * @param id The id of the entry.
+         */
+        private synchronized void remove(final Integer id) {
+            String[] values = entries.remove(id);
+
+            if (values == null) {
+                return;
+            }
+
+            for (String key : getKeys(values)) {
+                Set<Integer> ids = suffixes.get(key);
+
+                if (ids != null && ids.remove(id) && ids.isEmpty()) {
+                    suffixes.remove(key);
+                }
+            }
+        }
+
+        /**
+         * Returns the values of up to as many entries as the given limit of which at least one value contains the
+         * given query, ignoring upper and lower case.
+         *
+         * @param query The query to search for.
+         * @param limit The maximum number of entries to return.
+         * @return The values of the matching entries mapped to their ids in ascending order.
+         */
+        private synchronized Map<Integer, String[]> find(final String query, final int limit) {
+            Map<Integer, String[]> results = new LinkedHashMap<>();
+
+            if (query == null || query.isEmpty() || limit < 1) {
+                return results;
+            }
+
+            String lowerCase = query.toLowerCase(Locale.ROOT);
+            String prefix = lowerCase.substring(0, Math.min(lowerCase.length(), KEY_LENGTH));
+            TreeSet<Integer> candidates = new TreeSet<>();
+            suffixes.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values().forEach(candidates::addAll);
+
+            for (Integer id : candidates) {
+                String[] values = entries.get(id);
+
+                if (lowerCase.length() <= KEY_LENGTH || contains(values, lowerCase)) {
+                    results.put(id, values);
+
+                    if (results.size() == limit) {
+                        break;
+                    }
+                }
+            }
+
+            return results;
+        }
+
+        /**
+         * Returns the number of entries in the index.
+         *
+         * @return The number of entries.
+         */
+        private synchronized int size() {
+            return entries.size();
+        }
+
+        /**
+         * Returns the shortened lower case suffixes of all given values.
+         *
+         * @param values The values.
+         * @return The set of suffixes.
+         */
+        private static Set<String> getKeys(final String[] values) {
+            Set<String> keys = new HashSet<>();
+
+            for (String value : values) {
+                if (value != null) {
+                    String lowerCase = value.toLowerCase(Locale.ROOT);
+
+                    for (int i = 0; i < lowerCase.length(); i++) {
+                        keys.add(lowerCase.substring(i, Math.min(lowerCase.length(), i + KEY_LENGTH)));
+                    }
+                }
+            }
+
+            return keys;
+        }
+
+        /**
+         * Checks, whether any of the given values contains the given lower case query.
+         *
+         * @param values The values.
+         * @param query The lower case query.
+         * @return {@code true} if one of the values contains the query, or {@code false} otherwise.
+         */
+        private static boolean contains(final String[] values, final String query) {
+            for (String value : values) {
+                if (value != null && value.toLowerCase(Locale.ROOT).contains(query)) {
+                    return true;
+                }
+            }
+
+            return false;
+        }
+
+    }
+
+}
@@ -23,20 +23,26 @@ import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.persistence.entity.Token;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeEvent;
 import fim.unipassau.de.scratchLog.persistence.repository.TokenRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import fim.unipassau.de.scratchLog.web.dto.JobRunDTO;
+import fim.unipassau.de.scratchLog.web.dto.TokenCleanupStatusDTO;
 import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 /**
@@ -60,6 +66,16 @@ public class TokenService {
      */
     private final TokenRepository tokenRepository;
 
+    /**
+     * The publisher to use for announcing users that have been deleted without the entity manager.
+     */
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * The job service to use for retrieving the recorded token cleanup runs.
+     */
+    private final JobService jobService;
+
     /**
      * The time in hours until an email token expires.
      */
@@ -85,11 +101,16 @@ public class TokenService {
      *
      * @param userRepository The user repository to use.
      * @param tokenRepository The token repository to use.
+     * @param publisher The application event publisher to use.
+     * @param jobService The job service to use.
      */
     @Autowired
-    public TokenService(final UserRepository userRepository, final TokenRepository tokenRepository) {
+    public TokenService(final UserRepository userRepository, final TokenRepository tokenRepository,
+                        final ApplicationEventPublisher publisher, final JobService jobService) {
         this.userRepository = userRepository;
         this.tokenRepository = tokenRepository;
+        this.publisher = publisher;
+        this.jobService = jobService;
     }
 
     /**
@@ -170,80 +191,107 @@ public class TokenService {
     }
 
     /**
-     * Deletes all expired tokens from the database.
+     * Deletes the next chunk of at most {@link Constants#TOKEN_CLEANUP_CHUNK_SIZE} expired tokens from the database.
+     * Callers have to invoke this method repeatedly until fewer tokens than the chunk size are processed.
      *
      * @param localDateTime The current {@link LocalDateTime}.
+     * @return The number of processed tokens.
      * @throws IllegalArgumentException if the passed time is null.
      */
     @Transactional
-    public void deleteExpiredTokens(final LocalDateTime localDateTime) {
+    public int deleteExpiredTokens(final LocalDateTime localDateTime) {
         if (localDateTime == null) {
             throw new IllegalArgumentException("Cannot delete expired tokens with timestamp null!");
         }
 
-        tokenRepository.deleteAllByDateBefore(localDateTime);
+        List<String> values = tokenRepository.findValuesByDateBefore(localDateTime, PageRequest.of(0,
+                Constants.TOKEN_CLEANUP_CHUNK_SIZE));
+
+        if (!values.isEmpty()) {
+            tokenRepository.deleteByValues(values);
+        }
+
+        return values.size();
     }
 
     /**
-     * Deletes the user accounts whose registration tokens have expired.
+     * Deletes the user accounts whose registration tokens have expired in chunks of at most
+     * {@link Constants#TOKEN_CLEANUP_CHUNK_SIZE} tokens. The tokens and all other data of the users are removed by the
+     * database along with them. Callers have to invoke this method repeatedly until fewer tokens than the chunk size
+     * are processed.
      *
      * @param localDateTime The current {@link LocalDateTime}.
+     * @return The number of processed tokens.
      * @throws IllegalArgumentException if the passed time is null.
-     * @throws IllegalStateException if the user referenced by the token does not exist.
      */
     @Transactional
-    public void deleteExpiredAccounts(final LocalDateTime localDateTime) {
+    public int deleteExpiredAccounts(final LocalDateTime localDateTime) {
         if (localDateTime == null) {
             throw new IllegalArgumentException("Cannot delete expired accounts with timestamp null!");
         }
 
-        List<Token> expiredRegistrations = tokenRepository.findAllByDateBeforeAndType(localDateTime,
-                TokenType.REGISTER);
+        List<Integer> ids = tokenRepository.findUserIdsByDateBeforeAndType(localDateTime, TokenType.REGISTER,
+                PageRequest.of(0, Constants.TOKEN_CLEANUP_CHUNK_SIZE));
 
-        for (Token token : expiredRegistrations) {
-            if (token.getUser() == null) {
-                throw new IllegalStateException("Cannot delete expired user account from token " + token.getValue()
-                        + " with user null!");
-            }
-
-            userRepository.deleteById(token.getUser().getId());
+        if (!ids.isEmpty()) {
+            userRepository.deleteUsers(ids);
+            ids.forEach(id -> {
+                User user = new User();
+                user.setId(id);
+                publisher.publishEvent(new EntityChangeEvent(user, true));
+            });
         }
+
+        return ids.size();
     }
 
     /**
-     * Reactivates the user accounts whose deactivated tokens have expired.
+     * Reactivates the user accounts whose deactivated tokens have expired in chunks of at most
+     * {@link Constants#TOKEN_CLEANUP_CHUNK_SIZE} tokens and deletes these tokens. Callers have to invoke this method
+     * repeatedly until fewer tokens than the chunk size are processed.
      *
      * @param localDateTime The current {@link LocalDateTime}.
+     * @return The number of processed tokens.
      * @throws IllegalArgumentException if the passed time is null.
-     * @throws IllegalStateException if the user referenced by the token does not exist.
-     * @throws NotFoundException if no corresponding user entry could be found.
      */
     @Transactional
-    public void reactivateUserAccounts(final LocalDateTime localDateTime) {
+    public int reactivateUserAccounts(final LocalDateTime localDateTime) {
         if (localDateTime == null) {
             throw new IllegalArgumentException("Cannot reactivate user accounts with timestamp null!");
         }
 
-        List<Token> deactivatedAccounts = tokenRepository.findAllByDateBeforeAndType(localDateTime,
-                TokenType.DEACTIVATED);
-
-        for (Token token : deactivatedAccounts) {
-            if (token.getUser() == null || token.getUser().getId() == null) {
-                throw new IllegalStateException("Cannot reactivate user from token " + token.getValue()
-                        + " with user null!");
-            }
-
-            User user = userRepository.getReferenceById(token.getUser().getId());
-
-            try {
-                user.setAttempts(0);
-                user.setActive(true);
-                userRepository.save(user);
-            } catch (EntityNotFoundException e) {
-                LOGGER.error("Cannot reactivate user account for user with id " + user.getId() + "!", e);
-                throw new NotFoundException("Cannot reactivate user account for user with id " + user.getId() + "!", e);
-            }
+        List<Integer> ids = tokenRepository.findUserIdsByDateBeforeAndType(localDateTime, TokenType.DEACTIVATED,
+                PageRequest.of(0, Constants.TOKEN_CLEANUP_CHUNK_SIZE));
+
+        if (!ids.isEmpty()) {
+            userRepository.reactivateUsers(ids);
+            tokenRepository.deleteByUsersAndDateBeforeAndType(ids, localDateTime, TokenType.DEACTIVATED);
+        }
+
+        return ids.size();
+    }
+
+    /**
+     * Returns the number of tokens processed by the last token cleanup run together with its start time, duration and
+     * the node that executed it. As the cleanup is only run by the node holding the job lease, the information is read
+     * from the job runs recorded in the database.
+     *
+     * @return The {@link TokenCleanupStatusDTO} containing the information, which is empty if no run has been
+     *         recorded.
+     */
+    public TokenCleanupStatusDTO getCleanupStatus() {
+        Optional<JobRunDTO> run = jobService.findLatestRun(Constants.TOKEN_CLEANUP_JOB);
+
+        if (run.isEmpty()) {
+            return new TokenCleanupStatusDTO();
         }
+
+        Map<String, Long> counts = run.get().getCounts();
+        return TokenCleanupStatusDTO.builder().lastRun(run.get().getStarted()).node(run.get().getNode())
+                .duration(run.get().getDuration())
+                .deletedAccounts(counts.getOrDefault(Constants.TOKEN_CLEANUP_DELETED_ACCOUNTS, 0L))
+                .reactivatedAccounts(counts.getOrDefault(Constants.TOKEN_CLEANUP_REACTIVATED_ACCOUNTS, 0L))
+                .deletedTokens(counts.getOrDefault(Constants.TOKEN_CLEANUP_DELETED_TOKENS, 0L)).build();
     }
 
     /**
@@ -24,6 +24,7 @@ import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeEvent;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
@@ -31,19 +32,36 @@ import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.Secrets;
 import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.web.dto.UserBulkResultDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import jakarta.annotation.PreDestroy;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Locale;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -57,6 +75,12 @@ public class UserService {
      */
     private static final Logger LOGGER = LoggerFactory.getLogger(UserService.class);
 
+    /**
+     * The statement used to insert the users created in a bulk.
+     */
+    private static final String INSERT_USER = "INSERT INTO `user` (username, email, role, language, password, secret, "
+            + "attempts, active, last_login) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)";
+
     /**
      * The user repository to use for database queries related to user data.
      */
@@ -77,6 +101,22 @@ public class UserService {
      */
     private final PasswordEncoder passwordEncoder;
 
+    /**
+     * The JDBC template to use for inserting users in batches.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The publisher to use for announcing users that have been inserted without the entity manager.
+     */
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * The executor hashing the passwords of users created in a bulk. Hashes are computed on a pool of its own, so a
+     * large import neither occupies the common fork join pool nor more than the configured number of cores.
+     */
+    private final ExecutorService hashExecutor;
+
     /**
      * Constructs a user service with the given dependencies.
      *
@@ -84,14 +124,32 @@ public class UserService {
      * @param participantRepository The participant repository to use.
      * @param experimentRepository The experiment repository to use.
      * @param passwordEncoder The password encoder to use.
+     * @param jdbcTemplate The JDBC template to use.
+     * @param publisher The application event publisher to use.
+     * @param hashThreads The number of threads hashing the passwords of users created in a bulk.
      */
     @Autowired
     public UserService(final UserRepository userRepository, final ParticipantRepository participantRepository,
-                       final ExperimentRepository experimentRepository, final PasswordEncoder passwordEncoder) {
+                       final ExperimentRepository experimentRepository, final PasswordEncoder passwordEncoder,
+                       final JdbcTemplate jdbcTemplate, final ApplicationEventPublisher publisher,
+                       @Value("${app.password.threads:" + Constants.PASSWORD_THREADS + "}") final int hashThreads) {
         this.userRepository = userRepository;
         this.participantRepository = participantRepository;
         this.experimentRepository = experimentRepository;
         this.passwordEncoder = passwordEncoder;
+        this.jdbcTemplate = jdbcTemplate;
+        this.publisher = publisher;
+        this.hashExecutor = new ThreadPoolExecutor(hashThreads, hashThreads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Constants.CSV_CHUNK_SIZE), new CustomizableThreadFactory("password-"),
+                new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+
+    /**
+     * Shuts down the password hashing thread pool when the application context is closed.
+     */
+    @PreDestroy
+    public void shutdown() {
+        hashExecutor.shutdown();
     }
 
     /**
@@ -126,6 +184,28 @@ public class UserService {
         return userRepository.existsByEmail(email);
     }
 
+    /**
+     * Returns those usernames out of the given collection that are already taken by a user in the database.
+     *
+     * @param usernames The usernames to search for.
+     * @return The list of existing usernames.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findExistingUsernames(final Collection<String> usernames) {
+        return usernames.isEmpty() ? new ArrayList<>() : userRepository.findExistingUsernames(usernames);
+    }
+
+    /**
+     * Returns those email addresses out of the given collection that are already used by a user in the database.
+     *
+     * @param emails The email addresses to search for.
+     * @return The list of existing email addresses.
+     */
+    @Transactional(readOnly = true)
+    public List<String> findExistingEmails(final Collection<String> emails) {
+        return emails.isEmpty() ? new ArrayList<>() : userRepository.findExistingEmails(emails);
+    }
+
     /**
      * Checks, whether any participant relation for the given user and experiment IDs exists.
      *
@@ -164,6 +244,76 @@ public class UserService {
         return saved;
     }
 
+    /**
+     * Creates new users for all users contained in the given list whose username is not yet taken. The existing
+     * usernames are looked up with a single query, secrets are generated for all users without one and the new users
+     * are inserted in JDBC batches within one transaction. Usernames that already exist, or occur more than once in
+     * the given list, are rejected. As usernames are compared case-insensitively by the database, they are compared
+     * the same way here.
+     *
+     * @param userDTOS The list of users to be saved.
+     * @return A {@link UserBulkResultDTO} containing the persisted users and the rejected usernames.
+     * @throws IllegalArgumentException if any username is null or blank.
+     * @throws StoreException if not all users could be persisted.
+     */
+    @Transactional
+    public UserBulkResultDTO saveUsersBulk(final List<UserDTO> userDTOS) {
+        List<String> usernames = new ArrayList<>();
+
+        for (UserDTO userDTO : userDTOS) {
+            if (userDTO.getUsername() == null || userDTO.getUsername().trim().isBlank()) {
+                throw new IllegalArgumentException("Cannot create user with username null or blank!");
+            }
+
+            usernames.add(userDTO.getUsername());
+        }
+
+        List<String> rejected = new ArrayList<>();
+
+        if (usernames.isEmpty()) {
+            return new UserBulkResultDTO(new ArrayList<>(), rejected);
+        }
+
+        Set<String> taken = new HashSet<>();
+        userRepository.findExistingUsernames(usernames).forEach(username -> taken.add(username.toLowerCase(
+                Locale.ROOT)));
+        List<User> users = new ArrayList<>();
+        List<String> created = new ArrayList<>();
+
+        for (UserDTO userDTO : userDTOS) {
+            if (!taken.add(userDTO.getUsername().toLowerCase(Locale.ROOT))) {
+                rejected.add(userDTO.getUsername());
+            } else {
+                User user = createUser(userDTO);
+
+                if (user.getSecret() == null) {
+                    user.setSecret(Secrets.generateRandomBytes(Constants.SECRET_LENGTH));
+                }
+                if (user.getLastLogin() == null) {
+                    user.setLastLogin(LocalDateTime.now());
+                }
+
+                users.add(user);
+                created.add(user.getUsername());
+            }
+        }
+
+        if (users.isEmpty()) {
+            return new UserBulkResultDTO(new ArrayList<>(), rejected);
+        }
+
+        insertUsers(users);
+        List<User> saved = userRepository.findAllByUsernameInOrderById(created);
+
+        if (saved.size() != users.size()) {
+            throw new StoreException("Failed to save " + (users.size() - saved.size()) + " of " + users.size()
+                    + " users!");
+        }
+
+        saved.forEach(user -> publisher.publishEvent(new EntityChangeEvent(user, false)));
+        return new UserBulkResultDTO(saved.stream().map(this::createUserDTO).collect(Collectors.toList()), rejected);
+    }
+
     /**
      * Creates a new user with the given parameters in the database.
      *
@@ -389,18 +539,17 @@ public class UserService {
     }
 
     /**
-     * Deactivates all participant accounts where participants have not logged in for a specified number of days.
+     * Deactivates the next chunk of at most {@link Constants#DEACTIVATION_CHUNK_SIZE} participant accounts where
+     * participants have not logged in for a specified number of days. Callers have to invoke this method repeatedly
+     * until fewer accounts than the chunk size are deactivated, which keeps each transaction short.
+     *
+     * @return The number of deactivated accounts.
      */
     @Transactional
-    public void deactivateOldParticipantAccounts() {
-        List<User> inactiveUsers = userRepository.findAllByRoleAndLastLoginBefore(Role.PARTICIPANT,
-                LocalDateTime.now().minusDays(Constants.PARTICIPANT_INACTIVE_DAYS));
-
-        for (User user : inactiveUsers) {
-            user.setActive(false);
-            user.setSecret(null);
-            userRepository.save(user);
-        }
+    public int deactivateOldParticipantAccounts() {
+        List<Integer> ids = userRepository.findInactiveParticipantIds(LocalDateTime.now().minusDays(
+                Constants.PARTICIPANT_INACTIVE_DAYS), Constants.DEACTIVATION_CHUNK_SIZE);
+        return ids.isEmpty() ? 0 : userRepository.deactivateUsers(ids);
     }
 
     /**
@@ -541,6 +690,28 @@ public class UserService {
         return passwordEncoder.encode(password);
     }
 
+    /**
+     * Encodes the given password strings concurrently on the password hashing thread pool. If the pool is saturated,
+     * the remaining passwords are hashed by the calling thread.
+     *
+     * @param passwords The passwords to be encoded.
+     * @return The hashed password values in the order of the given passwords.
+     */
+    public List<String> encodePasswords(final List<String> passwords) {
+        List<CompletableFuture<String>> hashes = passwords.stream().map(password -> CompletableFuture.supplyAsync(() ->
+                passwordEncoder.encode(password), hashExecutor)).toList();
+
+        try {
+            return hashes.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+
+            throw e;
+        }
+    }
+
     /**
      * Returns the position of the first digit at the end of the string after which only more numbers occur, if any.
      *
@@ -606,6 +777,26 @@ public class UserService {
         return participants;
     }
 
+    /**
+     * Inserts the given users in batches of {@link Constants#USER_BATCH_SIZE} rows. Since the user ids are generated by
+     * the database, Hibernate would insert each user on its own, which is why the rows are written via JDBC instead.
+     *
+     * @param users The users to insert.
+     */
+    private void insertUsers(final List<User> users) {
+        jdbcTemplate.batchUpdate(INSERT_USER, users, Constants.USER_BATCH_SIZE, (statement, user) -> {
+            statement.setString(1, user.getUsername());
+            statement.setString(2, user.getEmail());
+            statement.setString(3, user.getRole().name());
+            statement.setString(4, user.getLanguage().name());
+            statement.setString(5, user.getPassword());
+            statement.setString(6, user.getSecret());
+            statement.setInt(7, user.getAttempts());
+            statement.setBoolean(8, user.isActive());
+            statement.setTimestamp(9, Timestamp.valueOf(user.getLastLogin()));
+        });
+    }
+
     /**
      * Creates a {@link User} with the given information of the {@link UserDTO}.
      *
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.converter;
+
+import fim.unipassau.de.scratchLog.util.enums.EventCode;
+import jakarta.persistence.AttributeConverter;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Base class for the converters storing the constants of an {@link EventCode} enum as their {@code SMALLINT} code.
+ *
+ * @param <E> The enum type to convert.
+ */
+public abstract class EventCodeConverter<E extends Enum<E> & EventCode> implements AttributeConverter<E, Short> {
+
+    /**
+     * The enum type to convert.
+     */
+    private final Class<E> type;
+
+    /**
+     * The constants of the enum type mapped by their code.
+     */
+    private final Map<Short, E> constants = new HashMap<>();
+
+    /**
+     * Constructs a new converter for the given enum type.
+     *
+     * @param type The enum type to convert.
+     * @throws IllegalStateException if two constants of the enum type share the same code.
+     */
+    protected EventCodeConverter(final Class<E> type) {
+        this.type = type;
+
+        for (E constant : type.getEnumConstants()) {
+            if (constants.put(constant.getCode(), constant) != null) {
+                throw new IllegalStateException("The code " + constant.getCode() + " of " + type.getSimpleName()
+                        + " is used by more than one constant!");
+            }
+        }
+    }
+
+    /**
+     * Converts the given constant to its database code.
+     *
+     * @param attribute The constant to convert.
+     * @return The code, or {@code null}, if the constant is {@code null}.
+     */
+    @Override
+    public Short convertToDatabaseColumn(final E attribute) {
+        return attribute == null ? null : attribute.getCode();
+    }
+
+    /**
+     * Converts the given database code to the corresponding constant.
+     *
+     * @param code The code to convert.
+     * @return The constant, or {@code null}, if the code is {@code null}.
+     * @throws IllegalArgumentException if no constant with the given code exists.
+     */
+    @Override
+    public E convertToEntityAttribute(final Short code) {
+        if (code == null) {
+            return null;
+        }
+
+        E constant = constants.get(code);
+
+        if (constant == null) {
+            throw new IllegalArgumentException("Cannot convert unknown code " + code + " to " + type.getSimpleName()
+                    + "!");
+        }
+
+        return constant;
+    }
+
+}
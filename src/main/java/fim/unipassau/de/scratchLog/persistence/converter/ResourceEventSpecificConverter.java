@@ -0,0 +1,38 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.converter;
+
+import fim.unipassau.de.scratchLog.util.enums.ResourceEventSpecific;
+import jakarta.persistence.Converter;
+
+/**
+ * A converter storing the {@link ResourceEventSpecific} of an event as its database code.
+ */
+@Converter
+public class ResourceEventSpecificConverter extends EventCodeConverter<ResourceEventSpecific> {
+
+    /**
+     * Constructs a new converter for the {@link ResourceEventSpecific} values.
+     */
+    public ResourceEventSpecificConverter() {
+        super(ResourceEventSpecific.class);
+    }
+
+}
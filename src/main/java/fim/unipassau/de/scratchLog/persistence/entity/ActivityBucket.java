@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import fim.unipassau.de.scratchLog.persistence.converter.ActivityKindConverter;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An entity representing the number of activities of a certain kind that occurred during an {@link Experiment} within
+ * one minute.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "activity_bucket")
+@IdClass(ActivityBucketId.class)
+public class ActivityBucket {
+
+    /**
+     * The id of the experiment.
+     */
+    @Id
+    @Column(name = "experiment_id")
+    private int experiment;
+
+    /**
+     * The start of the time bucket in minutes since the epoch.
+     */
+    @Id
+    @Column(name = "bucket")
+    private long bucket;
+
+    /**
+     * The kind of activity counted.
+     */
+    @Id
+    @Convert(converter = ActivityKindConverter.class)
+    @Column(name = "kind")
+    private ActivityKind kind;
+
+    /**
+     * The number of activities counted.
+     */
+    @Column(name = "total")
+    private long total;
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Utility class for the composite key of {@link ActivityBucket} as per JPA specification.
+ */
+public class ActivityBucketId implements Serializable {
+
+    /**
+     * The id of the experiment.
+     */
+    private int experiment;
+
+    /**
+     * The start of the time bucket in minutes since the epoch.
+     */
+    private long bucket;
+
+    /**
+     * The kind of activity counted.
+     */
+    private ActivityKind kind;
+
+    /**
+     * Default constructor for the ID.
+     */
+    public ActivityBucketId() {
+    }
+
+    /**
+     * Constructs a new activity bucket ID with the given experiment ID, bucket and kind.
+     *
+     * @param experiment The experiment ID.
+     * @param bucket The start of the time bucket in minutes since the epoch.
+     * @param kind The kind of activity.
+     */
+    public ActivityBucketId(final int experiment, final long bucket, final ActivityKind kind) {
+        this.experiment = experiment;
+        this.bucket = bucket;
+        this.kind = kind;
+    }
+
+    /**
+     * Indicates whether some {@code other} activity bucket id is semantically equal to this id.
+     *
+     * @param other The object to compare this id to.
+     * @return {@code true} iff {@code other} is a semantically equivalent activity bucket id.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        ActivityBucketId that = (ActivityBucketId) other;
+        return experiment == that.experiment && bucket == that.bucket && kind == that.kind;
+    }
+
+    /**
+     * Calculates a hash code for the activity bucket id for hashing purposes, and to fulfill the
+     * {@link Object#equals(Object)} contract.
+     *
+     * @return The hash code value of the activity bucket id.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(experiment, bucket, kind);
+    }
+
+}
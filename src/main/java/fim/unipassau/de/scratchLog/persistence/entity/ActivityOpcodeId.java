@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Utility class for the composite key of {@link ActivityOpcode} as per JPA specification.
+ */
+public class ActivityOpcodeId implements Serializable {
+
+    /**
+     * The id of the experiment.
+     */
+    private int experiment;
+
+    /**
+     * The block opcode.
+     */
+    private String opcode;
+
+    /**
+     * Default constructor for the ID.
+     */
+    public ActivityOpcodeId() {
+    }
+
+    /**
+     * Constructs a new activity opcode ID with the given experiment ID and opcode.
+     *
+     * @param experiment The experiment ID.
+     * @param opcode The block opcode.
+     */
+    public ActivityOpcodeId(final int experiment, final String opcode) {
+        this.experiment = experiment;
+        this.opcode = opcode;
+    }
+
+    /**
+     * Indicates whether some {@code other} activity opcode id is semantically equal to this id.
+     *
+     * @param other The object to compare this id to.
+     * @return {@code true} iff {@code other} is a semantically equivalent activity opcode id.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        ActivityOpcodeId that = (ActivityOpcodeId) other;
+        return experiment == that.experiment && Objects.equals(opcode, that.opcode);
+    }
+
+    /**
+     * Calculates a hash code for the activity opcode id for hashing purposes, and to fulfill the
+     * {@link Object#equals(Object)} contract.
+     *
+     * @return The hash code value of the activity opcode id.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(experiment, opcode);
+    }
+
+}
@@ -19,12 +19,13 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.converter.BlockEventSpecificConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.BlockEventTypeConverter;
 import fim.unipassau.de.scratchLog.util.enums.BlockEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.BlockEventType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -81,14 +82,14 @@ public class BlockEvent implements Event {
     /**
      * The type of block event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = BlockEventTypeConverter.class)
     @Column(name = "event_type")
     private BlockEventType eventType;
 
     /**
      * The specific event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = BlockEventSpecificConverter.class)
     @Column(name = "event")
     private BlockEventSpecific event;
 
@@ -19,12 +19,13 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.converter.ClickEventSpecificConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.ClickEventTypeConverter;
 import fim.unipassau.de.scratchLog.util.enums.ClickEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.ClickEventType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -81,14 +82,14 @@ public class ClickEvent implements Event {
     /**
      * The type of click event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = ClickEventTypeConverter.class)
     @Column(name = "event_type")
     private ClickEventType eventType;
 
     /**
      * The specific event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = ClickEventSpecificConverter.class)
     @Column(name = "event")
     private ClickEventSpecific event;
 
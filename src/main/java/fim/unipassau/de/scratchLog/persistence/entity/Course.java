@@ -19,8 +19,10 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -41,6 +43,7 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @Builder
 @Entity
+@EntityListeners(EntityChangeListener.class)
 public class Course {
 
     /**
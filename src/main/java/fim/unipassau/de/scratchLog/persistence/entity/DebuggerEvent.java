@@ -19,12 +19,13 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.converter.DebuggerEventSpecificConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.DebuggerEventTypeConverter;
 import fim.unipassau.de.scratchLog.util.enums.DebuggerEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.DebuggerEventType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -82,14 +83,14 @@ public class DebuggerEvent implements Event {
     /**
      * The type of debugger event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = DebuggerEventTypeConverter.class)
     @Column(name = "event_type")
     private DebuggerEventType eventType;
 
     /**
      * The specific event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = DebuggerEventSpecificConverter.class)
     @Column(name = "event")
     private DebuggerEventSpecific event;
 
@@ -0,0 +1,70 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An entity representing the key a client assigned to an event saved for a {@link Participant}. Only a 64-bit hash of
+ * the key is stored to keep the index compact. An event carrying a key that has already been saved for the
+ * participant is a repeated request and is not saved again. The keys of a participant are deleted once they have
+ * finished the experiment.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "event_key")
+@IdClass(EventKeyId.class)
+public class EventKey {
+
+    /**
+     * The id of the participating user.
+     */
+    @Id
+    @Column(name = "user_id")
+    private int user;
+
+    /**
+     * The id of the experiment in which the user is participating.
+     */
+    @Id
+    @Column(name = "experiment_id")
+    private int experiment;
+
+    /**
+     * The hash of the key assigned to the event by the client.
+     */
+    @Id
+    @Column(name = "hash")
+    private long hash;
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+/**
+ * Utility class for the composite key of {@link EventKey} as per JPA specification.
+ */
+public class EventKeyId implements Serializable {
+
+    /**
+     * The id of the participating user.
+     */
+    private int user;
+
+    /**
+     * The experiment id in which the user participated.
+     */
+    private int experiment;
+
+    /**
+     * The hash of the key assigned to the event by the client.
+     */
+    private long hash;
+
+    /**
+     * Default constructor for the ID.
+     */
+    public EventKeyId() {
+    }
+
+    /**
+     * Constructs a new event key ID with the given user and experiment IDs and key hash.
+     *
+     * @param user The participating user's ID.
+     * @param experiment The respective experiment ID.
+     * @param hash The hash of the event key.
+     */
+    public EventKeyId(final int user, final int experiment, final long hash) {
+        this.user = user;
+        this.experiment = experiment;
+        this.hash = hash;
+    }
+
+    /**
+     * Indicates whether some {@code other} event key id is semantically equal to this id.
+     *
+     * @param other The object to compare this id to.
+     * @return {@code true} iff {@code other} is a semantically equivalent event key id.
+     */
+    @Override
+    public boolean equals(final Object other) {
+        if (this == other) {
+            return true;
+        }
+
+        if (other == null || getClass() != other.getClass()) {
+            return false;
+        }
+
+        EventKeyId that = (EventKeyId) other;
+        return user == that.user && experiment == that.experiment && hash == that.hash;
+    }
+
+    /**
+     * Calculates a hash code for the event key id for hashing purposes, and to fulfill the
+     * {@link Object#equals(Object)} contract.
+     *
+     * @return The hash code value of the event key id.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(user, experiment, hash);
+    }
+
+}
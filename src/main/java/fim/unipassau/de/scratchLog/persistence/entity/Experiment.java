@@ -19,8 +19,10 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeListener;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
+import jakarta.persistence.EntityListeners;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
@@ -29,7 +31,6 @@ import lombok.Builder;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
-import org.hibernate.annotations.Formula;
 
 /**
  * An entity representing an experiment.
@@ -40,6 +41,7 @@ import org.hibernate.annotations.Formula;
 @NoArgsConstructor
 @Builder
 @Entity
+@EntityListeners(EntityChangeListener.class)
 public class Experiment {
 
     /**
@@ -83,7 +85,7 @@ public class Experiment {
     /**
      * Boolean indicating whether the experiment is part of a course.
      */
-    @Formula("(SELECT EXISTS(SELECT c.experiment_id FROM course_experiment AS c WHERE c.experiment_id = id))")
+    @Column(name = "course_experiment")
     private boolean courseExperiment;
 
     /**
@@ -92,34 +94,4 @@ public class Experiment {
     @Column(name = "gui_url")
     private String guiURL;
 
-    /**
-     * The sb3 project to load on experiment start.
-     */
-    private byte[] project;
-
-    /**
-     * Constructs a new experiment with the given attributes.
-     *
-     * @param id The experiment id.
-     * @param title The experiment title.
-     * @param description The experiment description.
-     * @param info The experiment information text.
-     * @param postscript The postscript text.
-     * @param active Whether the experiment is currently running or not.
-     * @param courseExperiment Whether the experiment is part of a course or not.
-     * @param guiURL The URL of the instrumented Scratch-GUI this experiment uses.
-     */
-    public Experiment(final Integer id, final String title, final String description, final String info,
-                      final String postscript, final boolean active, final boolean courseExperiment,
-                      final String guiURL) {
-        this.id = id;
-        this.title = title;
-        this.description = description;
-        this.info = info;
-        this.postscript = postscript;
-        this.active = active;
-        this.courseExperiment = courseExperiment;
-        this.guiURL = guiURL;
-    }
-
 }
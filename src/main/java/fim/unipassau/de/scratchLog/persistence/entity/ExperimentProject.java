@@ -0,0 +1,97 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.FetchType;
+import jakarta.persistence.Id;
+import jakarta.persistence.JoinColumn;
+import jakarta.persistence.MapsId;
+import jakarta.persistence.OneToOne;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+import org.springframework.util.DigestUtils;
+
+/**
+ * An entity representing the sb3 project to load on experiment start. The project is stored separately from the
+ * {@link Experiment} itself to avoid loading it whenever experiment information is needed.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "experiment_project")
+public class ExperimentProject {
+
+    /**
+     * The unique ID of the experiment to which the project belongs.
+     */
+    @Id
+    @Column(name = "experiment_id")
+    private Integer id;
+
+    /**
+     * The {@link Experiment} to which the project belongs.
+     */
+    @MapsId
+    @OneToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "experiment_id")
+    private Experiment experiment;
+
+    /**
+     * The sb3 project to load on experiment start.
+     */
+    @Column(name = "project")
+    private byte[] project;
+
+    /**
+     * The hex encoded MD5 hash of the sb3 project, identifying its current version.
+     */
+    @Column(name = "hash")
+    private String hash;
+
+    /**
+     * Constructs a new experiment project with the given attributes.
+     *
+     * @param experiment The experiment to which the project belongs.
+     * @param project The sb3 project.
+     */
+    public ExperimentProject(final Experiment experiment, final byte[] project) {
+        this.experiment = experiment;
+        setProject(project);
+    }
+
+    /**
+     * Sets the sb3 project along with its hash.
+     *
+     * @param project The sb3 project.
+     */
+    public void setProject(final byte[] project) {
+        this.project = project;
+        this.hash = project == null ? null : DigestUtils.md5DigestAsHex(project);
+    }
+
+}
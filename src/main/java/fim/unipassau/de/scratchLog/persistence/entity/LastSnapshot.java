@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entity representing the latest json code saved for a {@link Participant}. The code is kept separately from the
+ * block events to be able to load the current project state on a restart without searching all block events of the
+ * participant.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "last_snapshot")
+@IdClass(ParticipantId.class)
+public class LastSnapshot {
+
+    /**
+     * The id of the participating user.
+     */
+    @Id
+    @Column(name = "user_id")
+    private int user;
+
+    /**
+     * The id of the experiment in which the user is participating.
+     */
+    @Id
+    @Column(name = "experiment_id")
+    private int experiment;
+
+    /**
+     * The datetime of the block event with which the json code was saved.
+     */
+    @Column(name = "date")
+    private LocalDateTime date;
+
+    /**
+     * The latest json code of the participant.
+     */
+    @Column(name = "json")
+    private String code;
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * An entity representing an email waiting in the mail outbox to be sent. The entry is written in the same transaction
+ * as the change the email informs about and removed once the email has been sent.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "mail_outbox")
+public class OutboxMail {
+
+    /**
+     * The unique ID of the email.
+     */
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id")
+    private Integer id;
+
+    /**
+     * The address of the recipient.
+     */
+    @Column(name = "recipient")
+    private String recipient;
+
+    /**
+     * The subject of the email.
+     */
+    @Column(name = "subject")
+    private String subject;
+
+    /**
+     * The name of the mail template to render.
+     */
+    @Column(name = "template")
+    private String template;
+
+    /**
+     * The template model containing the properties to render the template with as a JSON object.
+     */
+    @Column(name = "model")
+    private String model;
+
+    /**
+     * The number of failed attempts to send the email.
+     */
+    @Column(name = "attempts")
+    private int attempts;
+
+    /**
+     * Whether sending the email has been given up after the maximum number of attempts.
+     */
+    @Column(name = "failed")
+    private boolean failed;
+
+    /**
+     * The time after which the email is to be sent next.
+     */
+    @Column(name = "next_attempt")
+    private LocalDateTime nextAttempt;
+
+    /**
+     * The time at which the email was added to the outbox.
+     */
+    @Column(name = "created")
+    private LocalDateTime created;
+
+    /**
+     * The error that occurred on the last attempt to send the email, if any.
+     */
+    @Column(name = "last_error")
+    private String lastError;
+
+    /**
+     * The random token of the last claim under which a mail worker has picked up the email, if any.
+     */
+    @Column(name = "claim")
+    private String claim;
+
+}
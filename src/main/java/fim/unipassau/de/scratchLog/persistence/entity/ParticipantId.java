@@ -23,7 +23,7 @@ import java.io.Serializable;
 import java.util.Objects;
 
 /**
- * Utility class for the composite key of {@link Participant} as per JPA specification.
+ * Utility class for the composite key of {@link Participant} and {@link LastSnapshot} as per JPA specification.
  */
 public class ParticipantId implements Serializable {
 
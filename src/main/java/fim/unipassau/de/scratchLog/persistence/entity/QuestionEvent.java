@@ -19,12 +19,13 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.converter.QuestionEventSpecificConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.QuestionEventTypeConverter;
 import fim.unipassau.de.scratchLog.util.enums.QuestionEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.QuestionEventType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -82,14 +83,14 @@ public class QuestionEvent implements Event {
     /**
      * The type of question event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = QuestionEventTypeConverter.class)
     @Column(name = "event_type")
     private QuestionEventType eventType;
 
     /**
      * The specific event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = QuestionEventSpecificConverter.class)
     @Column(name = "event")
     private QuestionEventSpecific event;
 
@@ -19,12 +19,13 @@
 
 package fim.unipassau.de.scratchLog.persistence.entity;
 
+import fim.unipassau.de.scratchLog.persistence.converter.ResourceEventSpecificConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.ResourceEventTypeConverter;
 import fim.unipassau.de.scratchLog.util.enums.ResourceEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.ResourceEventType;
 import jakarta.persistence.Column;
+import jakarta.persistence.Convert;
 import jakarta.persistence.Entity;
-import jakarta.persistence.EnumType;
-import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
@@ -81,14 +82,14 @@ public class ResourceEvent implements Event {
     /**
      * The type of resource event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = ResourceEventTypeConverter.class)
     @Column(name = "event_type")
     private ResourceEventType eventType;
 
     /**
      * The specific event that occurred.
      */
-    @Enumerated(EnumType.STRING)
+    @Convert(converter = ResourceEventSpecificConverter.class)
     @Column(name = "event")
     private ResourceEventSpecific event;
 
@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.entity;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * An entity representing the position up to which the events written to a local event spool have been replayed to
+ * the database. The checkpoint is updated in the same transaction as the replayed events, so that no event is saved
+ * twice after a restart.
+ */
+@Setter
+@Getter
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+@Entity
+@Table(name = "spool_checkpoint")
+public class SpoolCheckpoint {
+
+    /**
+     * The unique name of the spool.
+     */
+    @Id
+    @Column(name = "name")
+    private String name;
+
+    /**
+     * The sequence number of the segment file containing the next event to be replayed.
+     */
+    @Column(name = "segment")
+    private long segment;
+
+    /**
+     * The byte offset of the next event to be replayed within the segment file.
+     */
+    @Column(name = "position")
+    private long position;
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.listener;
+
+/**
+ * An application event published whenever an entity observed by the {@link EntityChangeListener} has been saved or
+ * removed.
+ */
+public class EntityChangeEvent {
+
+    /**
+     * The entity that has been saved or removed.
+     */
+    private final Object entity;
+
+    /**
+     * Whether the entity has been removed.
+     */
+    private final boolean removed;
+
+    /**
+     * Constructs a new entity change event for the given entity.
+     *
+     * @param entity The entity that has been saved or removed.
+     * @param removed Whether the entity has been removed.
+     */
+    public EntityChangeEvent(final Object entity, final boolean removed) {
+        this.entity = entity;
+        this.removed = removed;
+    }
+
+    /**
+     * Returns the entity that has been saved or removed.
+     *
+     * @return The entity.
+     */
+    public Object getEntity() {
+        return entity;
+    }
+
+    /**
+     * Returns whether the entity has been removed.
+     *
+     * @return {@code true} if the entity has been removed, or {@code false} if it has been saved.
+     */
+    public boolean isRemoved() {
+        return removed;
+    }
+
+}
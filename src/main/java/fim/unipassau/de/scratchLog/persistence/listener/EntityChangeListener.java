@@ -0,0 +1,71 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.listener;
+
+import jakarta.persistence.PostPersist;
+import jakarta.persistence.PostRemove;
+import jakarta.persistence.PostUpdate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+
+/**
+ * An entity listener publishing an {@link EntityChangeEvent} whenever an entity has been inserted, updated or removed.
+ * Listeners of these events should only act once the surrounding transaction has been committed, as the changes might
+ * otherwise still be rolled back.
+ */
+public class EntityChangeListener {
+
+    /**
+     * The publisher to use for publishing the entity change events.
+     */
+    private final ApplicationEventPublisher publisher;
+
+    /**
+     * Constructs a new entity change listener with the given dependencies.
+     *
+     * @param publisher The {@link ApplicationEventPublisher} to use.
+     */
+    @Autowired
+    public EntityChangeListener(final ApplicationEventPublisher publisher) {
+        this.publisher = publisher;
+    }
+
+    /**
+     * Publishes an event for the given entity that has just been inserted or updated.
+     *
+     * @param entity The saved entity.
+     */
+    @PostPersist
+    @PostUpdate
+    public void onSave(final Object entity) {
+        publisher.publishEvent(new EntityChangeEvent(entity, false));
+    }
+
+    /**
+     * Publishes an event for the given entity that has just been removed.
+     *
+     * @param entity The removed entity.
+     */
+    @PostRemove
+    public void onRemove(final Object entity) {
+        publisher.publishEvent(new EntityChangeEvent(entity, true));
+    }
+
+}
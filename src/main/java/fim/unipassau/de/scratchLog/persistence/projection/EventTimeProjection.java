@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.projection;
+
+import java.time.LocalDateTime;
+
+/**
+ * Projection interface for the event classes to return only the event id, the id of the user who caused the event and
+ * the timestamp.
+ */
+public interface EventTimeProjection {
+
+    /**
+     * Returns the unique id of the event.
+     *
+     * @return The event id.
+     */
+    Integer getId();
+
+    /**
+     * Returns the id of the user who caused the event.
+     *
+     * @return The user id.
+     */
+    Integer getUserId();
+
+    /**
+     * Returns the timestamp of the event.
+     *
+     * @return The timestamp.
+     */
+    LocalDateTime getDate();
+
+}
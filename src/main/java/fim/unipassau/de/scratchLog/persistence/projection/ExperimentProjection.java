@@ -21,7 +21,8 @@ package fim.unipassau.de.scratchLog.persistence.projection;
 
 /**
  * Projection interface for the {@link fim.unipassau.de.scratchLog.persistence.entity.Experiment} class to return only
- * the id and the sb3 project.
+ * the id, the status and the sb3 project stored in the
+ * {@link fim.unipassau.de.scratchLog.persistence.entity.ExperimentProject}.
  */
 public interface ExperimentProjection {
 
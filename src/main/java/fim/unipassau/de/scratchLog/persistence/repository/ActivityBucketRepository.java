@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.repository;
+
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityBucket;
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityBucketId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * A repository providing functionality for retrieving the activity counted per minute during an experiment.
+ */
+public interface ActivityBucketRepository extends JpaRepository<ActivityBucket, ActivityBucketId> {
+
+    /**
+     * Returns all activity buckets saved for the experiment with the given id in chronological order.
+     *
+     * @param experiment The experiment id to search for.
+     * @return The activity buckets or an empty list, if no entry could be found.
+     */
+    List<ActivityBucket> findAllByExperimentOrderByBucketAsc(int experiment);
+
+    /**
+     * Adds the given total to the activity bucket of the given experiment, minute and kind. If no such bucket exists
+     * yet, it is inserted with the given total.
+     *
+     * @param experiment The experiment id.
+     * @param bucket The minute of the bucket.
+     * @param kind The database code of the activity kind.
+     * @param total The number of activities to add.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO activity_bucket (experiment_id, bucket, kind, total) VALUES (:experiment, :bucket, "
+            + ":kind, :total) ON DUPLICATE KEY UPDATE total = total + VALUES(total)", nativeQuery = true)
+    void addTotal(@Param("experiment") int experiment, @Param("bucket") long bucket, @Param("kind") short kind,
+                  @Param("total") long total);
+
+}
@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.repository;
+
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityOpcode;
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityOpcodeId;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.util.List;
+
+/**
+ * A repository providing functionality for retrieving the block opcodes counted during an experiment.
+ */
+public interface ActivityOpcodeRepository extends JpaRepository<ActivityOpcode, ActivityOpcodeId> {
+
+    /**
+     * Returns the most frequent block opcodes counted for the experiment with the given id corresponding to the
+     * parameters set in the pageable.
+     *
+     * @param experiment The experiment id to search for.
+     * @param pageable The pageable to use.
+     * @return The opcodes or an empty list, if no entry could be found.
+     */
+    List<ActivityOpcode> findAllByExperimentOrderByTotalDesc(int experiment, Pageable pageable);
+
+    /**
+     * Adds the given total to the count of the given opcode for the given experiment. If the opcode has not been
+     * counted for the experiment yet, it is inserted with the given total.
+     *
+     * @param experiment The experiment id.
+     * @param opcode The opcode.
+     * @param total The number of occurrences to add.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO activity_opcode (experiment_id, opcode, total) VALUES (:experiment, :opcode, :total) "
+            + "ON DUPLICATE KEY UPDATE total = total + VALUES(total)", nativeQuery = true)
+    void addTotal(@Param("experiment") int experiment, @Param("opcode") String opcode, @Param("total") long total);
+
+}
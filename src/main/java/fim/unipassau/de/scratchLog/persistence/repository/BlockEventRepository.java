@@ -25,11 +25,16 @@ import fim.unipassau.de.scratchLog.persistence.entity.User;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventJSONProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventXMLProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.EventTimeProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Optional;
 
 /**
  * A repository providing functionality for retrieving the block event data.
@@ -57,6 +62,64 @@ public interface BlockEventRepository extends JpaRepository<BlockEvent, Integer>
     List<BlockEventJSONProjection> findAllByCodeIsNotNullAndUserAndExperimentOrderByDateAsc(User user,
                                                                                             Experiment experiment);
 
+    /**
+     * Returns the json data of the latest block event saved for the given user in the given experiment at or before
+     * the given time, if any. The query seeks the block_event_date index backwards from the given time, so only a
+     * single row is read.
+     *
+     * @param user The user to search for.
+     * @param experiment The experiment to search for.
+     * @param date The time at which the json data is to be returned.
+     * @return An {@link Optional} containing the json data, or an empty optional, if no entry could be found.
+     */
+    Optional<BlockEventJSONProjection> findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(
+            User user, Experiment experiment, LocalDateTime date);
+
+    /**
+     * Returns the xml data of the latest block event saved for the given user in the given experiment at or before
+     * the given time, if any. The query seeks the block_event_date index backwards from the given time, so only a
+     * single row is read.
+     *
+     * @param user The user to search for.
+     * @param experiment The experiment to search for.
+     * @param date The time at which the xml data is to be returned.
+     * @return An {@link Optional} containing the xml data, or an empty optional, if no entry could be found.
+     */
+    Optional<BlockEventXMLProjection> findFirstByUserAndExperimentAndXmlIsNotNullAndDateLessThanEqualOrderByDateDesc(
+            User user, Experiment experiment, LocalDateTime date);
+
+    /**
+     * Returns the json data of the block events saved for the given user in the given experiment corresponding to the
+     * parameters set in the pageable. No count query is issued.
+     *
+     * @param user The user to search for.
+     * @param experiment The experiment to search for.
+     * @param pageable The pageable to use.
+     * @return The json data or an empty list, if no entry could be found.
+     */
+    List<BlockEventJSONProjection> findAllByUserAndExperimentAndCodeIsNotNull(User user, Experiment experiment,
+                                                                              Pageable pageable);
+
+    /**
+     * Returns the json data of the block events saved for the given user in the given experiment after the block event
+     * with the given date and id, ordered by date and id. Together with
+     * {@link #findAllByUserAndExperimentAndCodeIsNotNull(User, Experiment, Pageable)}, this allows to iterate over all
+     * json data of a participant in batches using the block_event_date index without skipping rows via offsets.
+     *
+     * @param user The user to search for.
+     * @param experiment The experiment to search for.
+     * @param date The date of the last block event that has already been returned.
+     * @param id The id of the last block event that has already been returned.
+     * @param pageable The pageable limiting the number of returned entries.
+     * @return The json data or an empty list, if no further entry could be found.
+     */
+    @Query("SELECT b.id AS id, b.code AS code, b.date AS date, b.event AS event FROM BlockEvent b WHERE b.user = :user"
+            + " AND b.experiment = :experiment AND b.code IS NOT NULL AND (b.date > :date OR (b.date = :date"
+            + " AND b.id > :id)) ORDER BY b.date ASC, b.id ASC")
+    List<BlockEventJSONProjection> findJsonAfter(@Param("user") User user, @Param("experiment") Experiment experiment,
+                                                 @Param("date") LocalDateTime date, @Param("id") int id,
+                                                 Pageable pageable);
+
     /**
      * Returns a page of {@link BlockEventProjection}s for the given user and experiment corresponding to the parameters
      * set in the pageable.
@@ -78,14 +141,24 @@ public interface BlockEventRepository extends JpaRepository<BlockEvent, Integer>
     List<BlockEvent> findAllByExperiment(Experiment experiment);
 
     /**
-     * Returns a {@link BlockEventJSONProjection} containing the last non-null JSON code that was saved for the given
-     * user during the given experiment.
+     * Returns the ids, user ids and timestamps of the block events of the users with ids up to the given id
+     * during the given experiment that come after the given event in the order of user id, timestamp and id. This
+     * allows to read the events of one or more participants in chronological order in batches using the
+     * block_event_experiment index.
      *
-     * @param user The user to search for.
      * @param experiment The experiment to search for.
-     * @return The {@link BlockEventJSONProjection}.
+     * @param last The highest user id to include.
+     * @param user The user id of the last event that has already been returned.
+     * @param date The date of the last event that has already been returned.
+     * @param id The id of the last event that has already been returned.
+     * @param pageable The pageable limiting the number of returned entries.
+     * @return The event times or an empty list, if no further entry could be found.
      */
-    BlockEventJSONProjection findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(User user,
-                                                                                         Experiment experiment);
+    @Query("SELECT b.id AS id, b.user.id AS userId, b.date AS date FROM BlockEvent b"
+            + " WHERE b.experiment = :experiment AND b.user.id <= :last"
+            + " AND (b.user.id, b.date, b.id) > (:user, :date, :id) ORDER BY b.user.id ASC, b.date ASC, b.id ASC")
+    List<EventTimeProjection> findTimesAfter(@Param("experiment") Experiment experiment, @Param("last") int last,
+                                             @Param("user") int user, @Param("date") LocalDateTime date,
+                                             @Param("id") int id, Pageable pageable);
 
 }
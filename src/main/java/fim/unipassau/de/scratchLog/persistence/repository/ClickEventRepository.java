@@ -21,8 +21,13 @@ package fim.unipassau.de.scratchLog.persistence.repository;
 
 import fim.unipassau.de.scratchLog.persistence.entity.ClickEvent;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.projection.EventTimeProjection;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
 /**
@@ -38,4 +43,25 @@ public interface ClickEventRepository extends JpaRepository<ClickEvent, Integer>
      */
     List<ClickEvent> findAllByExperiment(Experiment experiment);
 
+    /**
+     * Returns the ids, user ids and timestamps of the click events of the users with ids up to the given id
+     * during the given experiment that come after the given event in the order of user id, timestamp and id. This
+     * allows to read the events of one or more participants in chronological order in batches using the
+     * click_event_experiment index.
+     *
+     * @param experiment The experiment to search for.
+     * @param last The highest user id to include.
+     * @param user The user id of the last event that has already been returned.
+     * @param date The date of the last event that has already been returned.
+     * @param id The id of the last event that has already been returned.
+     * @param pageable The pageable limiting the number of returned entries.
+     * @return The event times or an empty list, if no further entry could be found.
+     */
+    @Query("SELECT c.id AS id, c.user.id AS userId, c.date AS date FROM ClickEvent c"
+            + " WHERE c.experiment = :experiment AND c.user.id <= :last"
+            + " AND (c.user.id, c.date, c.id) > (:user, :date, :id) ORDER BY c.user.id ASC, c.date ASC, c.id ASC")
+    List<EventTimeProjection> findTimesAfter(@Param("experiment") Experiment experiment, @Param("last") int last,
+                                             @Param("user") int user, @Param("date") LocalDateTime date,
+                                             @Param("id") int id, Pageable pageable);
+
 }
@@ -72,4 +72,15 @@ public interface CourseParticipantRepository extends JpaRepository<CoursePartici
     @Query(nativeQuery = true, value = "SELECT COUNT(*) FROM course_participant AS c WHERE c.course_id = :id")
     int getCourseParticipantRowCount(@Param("id") int id);
 
+    /**
+     * Returns the ids of all users participating in the course with the given id for whom no secret has been generated
+     * yet.
+     *
+     * @param id The course id to search for.
+     * @return A list of the user ids.
+     */
+    @Query(nativeQuery = true, value = "SELECT c.user_id FROM course_participant AS c INNER JOIN `user` AS u ON "
+            + "c.user_id = u.id WHERE c.course_id = :id AND u.secret IS NULL")
+    List<Integer> findUserIdsWithoutSecret(@Param("id") int id);
+
 }
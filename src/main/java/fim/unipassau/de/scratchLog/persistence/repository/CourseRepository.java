@@ -20,13 +20,18 @@
 package fim.unipassau.de.scratchLog.persistence.repository;
 
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
+import fim.unipassau.de.scratchLog.persistence.projection.CourseResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.CourseTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.TitleProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -74,6 +79,29 @@ public interface CourseRepository extends JpaRepository<Course, Integer> {
      */
     List<Course> findAllByActiveIsTrue();
 
+    /**
+     * Returns the ids of all active courses which have last been changed before the given date and time and which
+     * contain at least one experiment, but no active ones.
+     *
+     * @param time The date and time to compare to.
+     * @return A list of course ids.
+     */
+    @Query(nativeQuery = true, value = "SELECT c.id FROM course AS c WHERE c.active = TRUE AND c.last_changed < :time "
+            + "AND EXISTS (SELECT 1 FROM course_experiment AS ce WHERE ce.course_id = c.id) AND NOT EXISTS (SELECT 1 "
+            + "FROM course_experiment AS ce INNER JOIN experiment AS e ON e.id = ce.experiment_id WHERE ce.course_id = "
+            + "c.id AND e.active = TRUE)")
+    List<Integer> findInactiveCourseIds(@Param("time") LocalDateTime time);
+
+    /**
+     * Deactivates the courses with the given ids in a single statement.
+     *
+     * @param ids The ids of the courses to deactivate.
+     * @return The number of deactivated courses.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE course SET active = FALSE WHERE id IN (:ids)")
+    int deactivateCourses(@Param("ids") Collection<Integer> ids);
+
     /**
      * Returns a list of the first courses up to the given limit whose title contains the given query value.
      *
@@ -86,27 +114,92 @@ public interface CourseRepository extends JpaRepository<Course, Integer> {
     List<CourseTableProjection> findCourseSuggestions(@Param("query") String query, @Param("limit") int limit);
 
     /**
-     * Returns a list of at most as many courses as the given limit with the given offset whose title contains the
-     * given query value.
+     * Returns a list of the first courses up to the given limit whose title contains the given query value. The
+     * candidates are looked up in the full-text index with the given phrase which has to consist of the query value in
+     * double quotes. As the index does not distinguish between upper and lower case, the candidates are checked again
+     * against the query value.
+     *
+     * @param phrase The query value as a phrase to search for in the full-text index.
+     * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link CourseTableProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM course AS c WHERE MATCH(c.title) AGAINST(:phrase IN BOOLEAN "
+            + "MODE) AND c.title LIKE CONCAT('%', :query, '%') ORDER BY c.id LIMIT :limit")
+    List<CourseTableProjection> findCourseSuggestionsByIndex(@Param("phrase") String phrase,
+                                                             @Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Returns a list of the first courses up to the given limit whose title contains the given query value ordered by
+     * their id. Each course additionally contains the total number of matching courses, so the first result
+     * page and the result count are retrieved with a single query.
      *
      * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link CourseResultProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT c.*, COUNT(*) OVER () AS total FROM course AS c WHERE c.title LIKE "
+            + "CONCAT('%', :query, '%') ORDER BY c.id LIMIT :limit")
+    List<CourseResultProjection> findCourseResultPage(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Returns a list of the first courses up to the given limit whose title contains the given query value ordered by
+     * their id along with the total number of matching courses. The candidates are looked up in the full-text index
+     * with the given phrase.
+     *
+     * @param phrase The query value as a phrase to search for in the full-text index.
+     * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link CourseResultProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT c.*, COUNT(*) OVER () AS total FROM course AS c WHERE "
+            + "MATCH(c.title) AGAINST(:phrase IN BOOLEAN MODE) AND c.title LIKE CONCAT('%', :query, '%') "
+            + "ORDER BY c.id LIMIT :limit")
+    List<CourseResultProjection> findCourseResultPageByIndex(@Param("phrase") String phrase,
+                                                             @Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Returns a list of at most as many courses as the given limit with an id greater than the given one whose title
+     * contains the given query value ordered by their id.
+     *
+     * @param query The title to search for.
+     * @param last The id of the last course that has already been retrieved.
      * @param limit The maximum amount of results to be returned.
-     * @param offset The offset used to return new results.
      * @return A list of {@link CourseTableProjection}s.
      */
-    @Query(nativeQuery = true, value = "SELECT * FROM course AS c WHERE c.title LIKE CONCAT('%', :query, '%')"
-            + " LIMIT :limit OFFSET :offset")
-    List<CourseTableProjection> findCourseResults(@Param("query") String query, @Param("limit") int limit,
-                                                  @Param("offset") int offset);
+    @Query(nativeQuery = true, value = "SELECT * FROM course AS c WHERE c.title LIKE CONCAT('%', :query, '%') "
+            + "AND c.id > :last ORDER BY c.id LIMIT :limit")
+    List<CourseTableProjection> findCourseResultsAfter(@Param("query") String query, @Param("last") int last,
+                                                       @Param("limit") int limit);
+
+    /**
+     * Returns the ids and titles of at most as many courses as the given limit with an id greater than the given one
+     * ordered by their id.
+     *
+     * @param last The id of the last course that has already been retrieved.
+     * @param limit The maximum amount of results to be returned.
+     * @return A list of {@link TitleProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT c.id, c.title FROM course AS c WHERE c.id > :last ORDER BY c.id "
+            + "LIMIT :limit")
+    List<TitleProjection> findTitlesAfter(@Param("last") int last, @Param("limit") int limit);
 
     /**
-     * Returns the number of courses whose title contains the given query value.
+     * Returns a list of at most as many courses as the given limit with an id greater than the given one whose title
+     * contains the given query value ordered by their id. The candidates are looked up in the full-text index with the
+     * given phrase.
      *
+     * @param phrase The query value as a phrase to search for in the full-text index.
      * @param query The title to search for.
-     * @return The number of course results.
+     * @param last The id of the last course that has already been retrieved.
+     * @param limit The maximum amount of results to be returned.
+     * @return A list of {@link CourseTableProjection}s.
      */
-    @Query(nativeQuery = true, value = "SELECT COUNT(*) FROM course AS c WHERE c.title LIKE CONCAT('%', :query, '%')")
-    int getCourseResultsCount(@Param("query") String query);
+    @Query(nativeQuery = true, value = "SELECT * FROM course AS c WHERE MATCH(c.title) AGAINST(:phrase IN BOOLEAN "
+            + "MODE) AND c.title LIKE CONCAT('%', :query, '%') AND c.id > :last ORDER BY c.id LIMIT :limit")
+    List<CourseTableProjection> findCourseResultsAfterByIndex(@Param("phrase") String phrase,
+                                                              @Param("query") String query, @Param("last") int last,
+                                                              @Param("limit") int limit);
 
     /**
      * Returns a page of courses in which the user with the given id is participating.
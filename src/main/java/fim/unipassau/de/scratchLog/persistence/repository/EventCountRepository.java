@@ -40,7 +40,7 @@ public interface EventCountRepository extends JpaRepository<EventCount, EventCou
      * @return A list of event counts that is empty if no entry could be found.
      */
     @Query(nativeQuery = true, value = "SELECT * FROM user_num_block_events AS n WHERE n.`user` = :uId AND "
-            + "n.experiment = :expId")
+            + "n.experiment = :expId ORDER BY n.event")
     List<EventCount> findAllBlockEventsByUserAndExperiment(@Param("uId") Integer user,
                                                            @Param("expId") Integer experiment);
 
@@ -50,7 +50,8 @@ public interface EventCountRepository extends JpaRepository<EventCount, EventCou
      * @param experiment The experiment to search for.
      * @return A list of event counts that is empty if no entry could be found.
      */
-    @Query(nativeQuery = true, value = "SELECT * FROM user_num_block_events AS n WHERE n.experiment = :expId")
+    @Query(nativeQuery = true, value = "SELECT * FROM user_num_block_events AS n WHERE n.experiment = :expId "
+            + "ORDER BY n.`user`, n.event")
     List<EventCount> findAllBlockEventsByExperiment(@Param("expId") Integer experiment);
 
     /**
@@ -61,7 +62,7 @@ public interface EventCountRepository extends JpaRepository<EventCount, EventCou
      * @return A list of event counts that is empty if no entry could be found.
      */
     @Query(nativeQuery = true, value = "SELECT * FROM user_num_click_events AS n WHERE n.`user` = :uId AND "
-            + "n.experiment = :expId")
+            + "n.experiment = :expId ORDER BY n.event")
     List<EventCount> findAllClickEventsByUserAndExperiment(@Param("uId") Integer user,
                                                            @Param("expId") Integer experiment);
 
@@ -71,7 +72,8 @@ public interface EventCountRepository extends JpaRepository<EventCount, EventCou
      * @param experiment The experiment to search for.
      * @return A list of event counts that is empty if no entry could be found.
      */
-    @Query(nativeQuery = true, value = "SELECT * FROM user_num_click_events AS n WHERE n.experiment = :expId")
+    @Query(nativeQuery = true, value = "SELECT * FROM user_num_click_events AS n WHERE n.experiment = :expId "
+            + "ORDER BY n.`user`, n.event")
     List<EventCount> findAllClickEventsByExperiment(@Param("expId") Integer experiment);
 
     /**
@@ -82,7 +84,7 @@ public interface EventCountRepository extends JpaRepository<EventCount, EventCou
      * @return A list of event counts that is empty if no entry could be found.
      */
     @Query(nativeQuery = true, value = "SELECT * FROM user_num_resource_events AS n WHERE n.`user` = :uId AND "
-            + "n.experiment = :expId")
+            + "n.experiment = :expId ORDER BY n.event")
     List<EventCount> findAllResourceEventsByUserIdAndExperimentId(@Param("uId") Integer user,
                                                                   @Param("expId") Integer experiment);
 
@@ -92,7 +94,8 @@ public interface EventCountRepository extends JpaRepository<EventCount, EventCou
      * @param experiment The experiment to search for.
      * @return A list of event counts that is empty if no entry could be found.
      */
-    @Query(nativeQuery = true, value = "SELECT * FROM user_num_resource_events AS n WHERE n.experiment = :expId")
+    @Query(nativeQuery = true, value = "SELECT * FROM user_num_resource_events AS n WHERE n.experiment = :expId "
+            + "ORDER BY n.`user`, n.event")
     List<EventCount> findAllResourceEventsByExperiment(@Param("expId") Integer experiment);
 
 }
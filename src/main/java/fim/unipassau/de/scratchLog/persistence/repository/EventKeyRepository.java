@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.repository;
+
+import fim.unipassau.de.scratchLog.persistence.entity.EventKey;
+import fim.unipassau.de.scratchLog.persistence.entity.EventKeyId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+/**
+ * A repository providing functionality for recognizing events that have already been saved for a participant.
+ */
+public interface EventKeyRepository extends JpaRepository<EventKey, EventKeyId> {
+
+    /**
+     * Inserts the given key hash for the given user and experiment, unless it has already been saved. Existence check
+     * and insert are a single statement, so two concurrent requests with the same key cannot both insert it.
+     *
+     * @param user The id of the user.
+     * @param experiment The id of the experiment.
+     * @param hash The key hash.
+     * @return The number of inserted rows, i.e. {@code 0} if the key had already been saved.
+     */
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO event_key (user_id, experiment_id, hash) VALUES (:user, :experiment, :hash)",
+            nativeQuery = true)
+    int insertKey(@Param("user") int user, @Param("experiment") int experiment, @Param("hash") long hash);
+
+    /**
+     * Deletes all key hashes saved for the given user and experiment.
+     *
+     * @param user The id of the user.
+     * @param experiment The id of the experiment.
+     * @return The number of deleted rows.
+     */
+    @Modifying
+    @Query("DELETE FROM EventKey k WHERE k.user = :user AND k.experiment = :experiment")
+    int deleteKeys(@Param("user") int user, @Param("experiment") int experiment);
+
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence.repository;
+
+import fim.unipassau.de.scratchLog.persistence.entity.ExperimentProject;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.Optional;
+
+/**
+ * A repository providing functionality for retrieving the sb3 projects of experiments.
+ */
+public interface ExperimentProjectRepository extends JpaRepository<ExperimentProject, Integer> {
+
+    /**
+     * Checks, whether a project for the experiment with the given id exists in the database.
+     *
+     * @param id The experiment id to search for.
+     * @return {@code true} iff such a project exists.
+     */
+    boolean existsById(int id);
+
+    /**
+     * Returns the project of the experiment with the given id, if one exists.
+     *
+     * @param id The experiment id to search for.
+     * @return An {@link Optional} containing the project, if it exists.
+     */
+    Optional<ExperimentProject> findById(int id);
+
+    /**
+     * Deletes the project of the experiment with the given id from the database, if existent.
+     *
+     * @param id The experiment id.
+     */
+    void deleteById(int id);
+
+}
@@ -21,7 +21,10 @@ package fim.unipassau.de.scratchLog.persistence.repository;
 
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentVersionProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.TitleProjection;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
@@ -29,6 +32,8 @@ import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -53,14 +58,6 @@ public interface ExperimentRepository extends JpaRepository<Experiment, Integer>
      */
     boolean existsById(int id);
 
-    /**
-     * Checks, whether an experiment with the given id and project not null exists in the database.
-     *
-     * @param id The id to search for.
-     * @return {@code true} iff such an experiment exists.
-     */
-    boolean existsByIdAndProjectIsNotNull(int id);
-
     /**
      * Returns the experiment identified by the given title, if one exists.
      *
@@ -78,12 +75,27 @@ public interface ExperimentRepository extends JpaRepository<Experiment, Integer>
     Experiment findById(int id);
 
     /**
-     * Returns the experiment projection identified by the given id, if one exists.
+     * Returns the experiment projection identified by the given id, if one exists. The sb3 project of the experiment
+     * is joined from the separate project table and is {@code null}, if no project has been uploaded.
+     *
+     * @param id The id to search for.
+     * @return An {@link Optional} containing the data, if it exists.
+     */
+    @Query("SELECT e.id AS id, e.active AS active, p.project AS project FROM Experiment e LEFT JOIN ExperimentProject p"
+            + " ON p.experiment = e WHERE e.id = :id")
+    Optional<ExperimentProjection> findExperimentById(@Param("id") int id);
+
+    /**
+     * Returns the id, the status and the hash of the sb3 project of the experiment with the given id, if the experiment
+     * exists. The hash is joined from the separate project table without loading the project itself and is
+     * {@code null}, if no project has been uploaded.
      *
      * @param id The id to search for.
      * @return An {@link Optional} containing the data, if it exists.
      */
-    Optional<ExperimentProjection> findExperimentById(int id);
+    @Query("SELECT e.id AS id, e.active AS active, p.hash AS hash FROM Experiment e LEFT JOIN ExperimentProject p"
+            + " ON p.experiment = e WHERE e.id = :id")
+    Optional<ExperimentVersionProjection> findExperimentVersionById(@Param("id") int id);
 
     /**
      * Returns a page of experiments corresponding to the parameters set in the pageable.
@@ -117,6 +129,28 @@ public interface ExperimentRepository extends JpaRepository<Experiment, Integer>
     @Query("UPDATE Experiment e SET e.active = :change WHERE e.id = :id")
     void updateStatusById(@Param("id") int id, @Param("change") boolean change);
 
+    /**
+     * Returns the ids of all active experiments in which the last participant started or finished the experiment
+     * before the given date and time. Experiments without any participants are not included.
+     *
+     * @param time The date and time to compare to.
+     * @return A list of experiment ids.
+     */
+    @Query(nativeQuery = true, value = "SELECT p.experiment_id FROM participant AS p INNER JOIN experiment AS e ON "
+            + "e.id = p.experiment_id WHERE e.active = TRUE GROUP BY p.experiment_id HAVING MAX(p.start) < :time OR "
+            + "MAX(p.finish) < :time")
+    List<Integer> findInactiveExperimentIds(@Param("time") LocalDateTime time);
+
+    /**
+     * Deactivates the experiments with the given ids in a single statement.
+     *
+     * @param ids The ids of the experiments to deactivate.
+     * @return The number of deactivated experiments.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE experiment SET active = FALSE WHERE id IN (:ids)")
+    int deactivateExperiments(@Param("ids") Collection<Integer> ids);
+
     /**
      * Returns a list of the first experiments up to the given limit whose title contains the given query value.
      *
@@ -158,28 +192,95 @@ public interface ExperimentRepository extends JpaRepository<Experiment, Integer>
                                                                           @Param("limit") int limit);
 
     /**
-     * Returns a list of at most as many experiments as the given limit with the given offset whose title contains the
-     * given query value.
+     * Returns a list of the first experiments up to the given limit whose title contains the given query value. The
+     * candidates are looked up in the full-text index with the given phrase which has to consist of the query value in
+     * double quotes. As the index does not distinguish between upper and lower case, the candidates are checked again
+     * against the query value.
      *
+     * @param phrase The query value as a phrase to search for in the full-text index.
      * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link ExperimentTableProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT * FROM experiment AS e WHERE MATCH(e.title) AGAINST(:phrase IN BOOLEAN "
+            + "MODE) AND e.title LIKE CONCAT('%', :query, '%') ORDER BY e.id LIMIT :limit")
+    List<ExperimentTableProjection> findExperimentSuggestionsByIndex(@Param("phrase") String phrase,
+                                                                     @Param("query") String query,
+                                                                     @Param("limit") int limit);
+
+    /**
+     * Returns a list of the first experiments up to the given limit whose title contains the given query value ordered
+     * by their id. Each experiment additionally contains the total number of matching experiments, so the first result
+     * page and the result count are retrieved with a single query.
+     *
+     * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link ExperimentResultProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT e.*, COUNT(*) OVER () AS total FROM experiment AS e WHERE e.title LIKE "
+            + "CONCAT('%', :query, '%') ORDER BY e.id LIMIT :limit")
+    List<ExperimentResultProjection> findExperimentResultPage(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Returns a list of the first experiments up to the given limit whose title contains the given query value ordered
+     * by their id along with the total number of matching experiments. The candidates are looked up in the full-text
+     * index with the given phrase.
+     *
+     * @param phrase The query value as a phrase to search for in the full-text index.
+     * @param query The title to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link ExperimentResultProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT e.*, COUNT(*) OVER () AS total FROM experiment AS e WHERE "
+            + "MATCH(e.title) AGAINST(:phrase IN BOOLEAN MODE) AND e.title LIKE CONCAT('%', :query, '%') "
+            + "ORDER BY e.id LIMIT :limit")
+    List<ExperimentResultProjection> findExperimentResultPageByIndex(@Param("phrase") String phrase,
+                                                                     @Param("query") String query,
+                                                                     @Param("limit") int limit);
+
+    /**
+     * Returns a list of at most as many experiments as the given limit with an id greater than the given one whose
+     * title contains the given query value ordered by their id.
+     *
+     * @param query The title to search for.
+     * @param last The id of the last experiment that has already been retrieved.
      * @param limit The maximum amount of results to be returned.
-     * @param offset The offset used to return new results.
      * @return A list of {@link ExperimentTableProjection}s.
      */
-    @Query(nativeQuery = true, value = "SELECT * FROM experiment AS e WHERE e.title LIKE CONCAT('%', :query, '%')"
-            + " LIMIT :limit OFFSET :offset")
-    List<ExperimentTableProjection> findExperimentResults(@Param("query") String query, @Param("limit") int limit,
-                                                          @Param("offset") int offset);
+    @Query(nativeQuery = true, value = "SELECT * FROM experiment AS e WHERE e.title LIKE CONCAT('%', :query, '%') "
+            + "AND e.id > :last ORDER BY e.id LIMIT :limit")
+    List<ExperimentTableProjection> findExperimentResultsAfter(@Param("query") String query, @Param("last") int last,
+                                                               @Param("limit") int limit);
 
     /**
-     * Returns the number of experiments whose title contains the given query value.
+     * Returns the ids and titles of at most as many experiments as the given limit with an id greater than the given
+     * one ordered by their id.
      *
+     * @param last The id of the last experiment that has already been retrieved.
+     * @param limit The maximum amount of results to be returned.
+     * @return A list of {@link TitleProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT e.id, e.title FROM experiment AS e WHERE e.id > :last ORDER BY e.id "
+            + "LIMIT :limit")
+    List<TitleProjection> findTitlesAfter(@Param("last") int last, @Param("limit") int limit);
+
+    /**
+     * Returns a list of at most as many experiments as the given limit with an id greater than the given one whose
+     * title contains the given query value ordered by their id. The candidates are looked up in the full-text index
+     * with the given phrase.
+     *
+     * @param phrase The query value as a phrase to search for in the full-text index.
      * @param query The title to search for.
-     * @return The number of experiment results.
+     * @param last The id of the last experiment that has already been retrieved.
+     * @param limit The maximum amount of results to be returned.
+     * @return A list of {@link ExperimentTableProjection}s.
      */
-    @Query(nativeQuery = true, value = "SELECT COUNT(*) FROM experiment AS e WHERE e.title LIKE"
-            + " CONCAT('%', :query, '%')")
-    int getExperimentResultsCount(@Param("query") String query);
+    @Query(nativeQuery = true, value = "SELECT * FROM experiment AS e WHERE MATCH(e.title) AGAINST(:phrase IN BOOLEAN "
+            + "MODE) AND e.title LIKE CONCAT('%', :query, '%') AND e.id > :last ORDER BY e.id LIMIT :limit")
+    List<ExperimentTableProjection> findExperimentResultsAfterByIndex(@Param("phrase") String phrase,
+                                                                      @Param("query") String query,
+                                                                      @Param("last") int last,
+                                                                      @Param("limit") int limit);
 
     /**
      * Returns a page of experiments in which the user with the given id is participating in.
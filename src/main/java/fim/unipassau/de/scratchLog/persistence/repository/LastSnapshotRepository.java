@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence.repository;
+
+import fim.unipassau.de.scratchLog.persistence.entity.LastSnapshot;
+import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+/**
+ * A repository providing functionality for retrieving the latest json code saved for participants.
+ */
+public interface LastSnapshotRepository extends JpaRepository<LastSnapshot, ParticipantId> {
+
+    /**
+     * Returns the date of the latest json code saved for the given user during the given experiment, if any exists,
+     * without loading the json code itself.
+     *
+     * @param user The user id to search for.
+     * @param experiment The experiment id to search for.
+     * @return An {@link Optional} containing the date, if a snapshot exists.
+     */
+    @Query("SELECT s.date FROM LastSnapshot s WHERE s.user = :user AND s.experiment = :experiment")
+    Optional<LocalDateTime> findDateByUserAndExperiment(@Param("user") int user,
+                                                       @Param("experiment") int experiment);
+
+    /**
+     * Saves the given json code as the latest snapshot of the given user during the given experiment, unless a more
+     * recent snapshot has already been saved. Inserting the first snapshot and updating an existing one are done in a
+     * single statement, so concurrent writes for the same participant cannot conflict.
+     *
+     * @param user The user id of the participant.
+     * @param experiment The experiment id of the participant.
+     * @param date The time at which the json code has been saved.
+     * @param code The json code.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO last_snapshot (user_id, experiment_id, date, json) VALUES (:user, :experiment, :date, "
+            + ":code) ON DUPLICATE KEY UPDATE json = CASE WHEN VALUES(date) >= date THEN VALUES(json) ELSE json END, "
+            + "date = GREATEST(date, VALUES(date))", nativeQuery = true)
+    void saveIfNewer(@Param("user") int user, @Param("experiment") int experiment, @Param("date") LocalDateTime date,
+                     @Param("code") String code);
+
+}
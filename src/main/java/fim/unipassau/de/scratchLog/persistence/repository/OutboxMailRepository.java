@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence.repository;
+
+import fim.unipassau.de.scratchLog.persistence.entity.OutboxMail;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * A repository providing functionality for retrieving and updating the emails waiting in the mail outbox.
+ */
+public interface OutboxMailRepository extends JpaRepository<OutboxMail, Integer> {
+
+    /**
+     * Returns the ids of up to the given number of emails that have not failed permanently and are due to be sent at
+     * the given time, starting with the ones that have been due the longest.
+     *
+     * @param now The current time.
+     * @param limit The maximum number of ids to return.
+     * @return A list of the ids of the due emails.
+     */
+    @Query(nativeQuery = true, value = "SELECT m.id FROM mail_outbox AS m WHERE m.failed = FALSE AND m.next_attempt <= "
+            + ":now ORDER BY m.next_attempt, m.id LIMIT :limit")
+    List<Integer> findDueMailIds(@Param("now") LocalDateTime now, @Param("limit") int limit);
+
+    /**
+     * Claims those emails with the given ids that are still due at the given time for the given claim token and
+     * postpones their next attempt to the given time, so they are not picked up again while they are being sent. As
+     * the condition is re-checked on the locked rows, an email that has been claimed by another worker in the meantime
+     * is not updated.
+     *
+     * @param ids The ids of the emails.
+     * @param claim The claim token.
+     * @param now The current time.
+     * @param lease The time until which the emails are not due again.
+     * @return The number of claimed emails.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE mail_outbox SET claim = :claim, next_attempt = :lease WHERE id IN (:ids) "
+            + "AND failed = FALSE AND next_attempt <= :now")
+    int claimMails(@Param("ids") Collection<Integer> ids, @Param("claim") String claim,
+                   @Param("now") LocalDateTime now, @Param("lease") LocalDateTime lease);
+
+    /**
+     * Returns all emails claimed for the given claim token.
+     *
+     * @param claim The claim token.
+     * @return A list of the claimed emails.
+     */
+    List<OutboxMail> findAllByClaim(String claim);
+
+    /**
+     * Returns the number of emails in the outbox that have or have not failed permanently.
+     *
+     * @param failed Whether to count the permanently failed emails.
+     * @return The number of emails.
+     */
+    long countByFailed(boolean failed);
+
+    /**
+     * Returns the email that has been waiting in the outbox the longest without failing permanently, if any.
+     *
+     * @return The oldest pending email, or an empty {@link Optional}.
+     */
+    Optional<OutboxMail> findFirstByFailedFalseOrderByCreatedAsc();
+
+}
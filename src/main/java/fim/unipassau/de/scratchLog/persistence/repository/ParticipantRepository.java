@@ -25,7 +25,11 @@ import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -73,11 +77,13 @@ public interface ParticipantRepository extends JpaRepository<Participant, Partic
 
     /**
      * Returns a list of all participants for the given experiment with the given end datetime, if any entries exist.
+     * The users are fetched along with the participants, as they are needed for sending the invitation emails.
      *
      * @param experiment The experiment to search for.
      * @param end The ending datetime.
      * @return The participant list.
      */
+    @EntityGraph(attributePaths = "user")
     List<Participant> findAllByExperimentAndEnd(Experiment experiment, LocalDateTime end);
 
     /**
@@ -97,4 +103,44 @@ public interface ParticipantRepository extends JpaRepository<Participant, Partic
      */
     List<Participant> findAllByEndIsNullAndUser(User user);
 
+    /**
+     * Checks, whether the user with the given id already participates in any of the experiments offered in the course
+     * with the given id.
+     *
+     * @param course The course id to search for.
+     * @param user The user id to search for.
+     * @return {@code true} iff the user participates in at least one of the course experiments.
+     */
+    @Query("SELECT CASE WHEN COUNT(p) > 0 THEN TRUE ELSE FALSE END FROM Participant p, CourseExperiment c "
+            + "WHERE p.experiment = c.experiment AND c.course.id = :course AND p.user.id = :user")
+    boolean existsCourseExperimentParticipant(@Param("course") int course, @Param("user") int user);
+
+    /**
+     * Adds all users participating in the course with the given id as participants to the experiment with the given
+     * id in a single statement. Users who already participate in the experiment are skipped.
+     *
+     * @param course The course id.
+     * @param experiment The experiment id.
+     * @return The number of added participants.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO participant (user_id, experiment_id) SELECT c.user_id, "
+            + ":experiment FROM course_participant AS c WHERE c.course_id = :course AND NOT EXISTS (SELECT 1 FROM "
+            + "participant AS p WHERE p.user_id = c.user_id AND p.experiment_id = :experiment)")
+    int insertCourseParticipants(@Param("course") int course, @Param("experiment") int experiment);
+
+    /**
+     * Adds the user with the given id as a participant to all experiments offered in the course with the given id in
+     * a single statement. Experiments in which the user already participates are skipped.
+     *
+     * @param course The course id.
+     * @param user The user id.
+     * @return The number of added participations.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "INSERT INTO participant (user_id, experiment_id) SELECT :user, "
+            + "c.experiment_id FROM course_experiment AS c WHERE c.course_id = :course AND NOT EXISTS (SELECT 1 FROM "
+            + "participant AS p WHERE p.user_id = :user AND p.experiment_id = c.experiment_id)")
+    int insertCourseExperimentParticipant(@Param("course") int course, @Param("user") int user);
+
 }
@@ -21,9 +21,14 @@ package fim.unipassau.de.scratchLog.persistence.repository;
 
 import fim.unipassau.de.scratchLog.persistence.entity.Token;
 import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -38,19 +43,59 @@ public interface TokenRepository extends JpaRepository<Token, String> {
     Optional<Token> findByValue(String value);
 
     /**
-     * Deletes all expired tokens from the database.
+     * Returns a list of all tokens with an expiration date prior to the given value and with the given type.
      *
-     * @param date The current date datetime.
+     * @param date The expiration date to match.
+     * @param type The token type to search for.
+     * @return A list of tokens matching the specified criteria.
      */
-    void deleteAllByDateBefore(LocalDateTime date);
+    List<Token> findAllByDateBeforeAndType(LocalDateTime date, TokenType type);
 
     /**
-     * Returns a list of all tokens with an expiration date prior to the given value and with the given type.
+     * Returns the ids of the users referenced by the tokens with an expiration date prior to the given value and with
+     * the given type, limited to the given page.
      *
      * @param date The expiration date to match.
      * @param type The token type to search for.
-     * @return A list of tokens matching the specified criteria.
+     * @param pageable The page to return.
+     * @return A list of user ids.
      */
-    List<Token> findAllByDateBeforeAndType(LocalDateTime date, TokenType type);
+    @Query("SELECT t.user.id FROM Token t WHERE t.date < :date AND t.type = :type ORDER BY t.user.id")
+    List<Integer> findUserIdsByDateBeforeAndType(@Param("date") LocalDateTime date, @Param("type") TokenType type,
+                                                 Pageable pageable);
+
+    /**
+     * Returns the values of the tokens with an expiration date prior to the given value, limited to the given page.
+     *
+     * @param date The expiration date to match.
+     * @param pageable The page to return.
+     * @return A list of token values.
+     */
+    @Query("SELECT t.value FROM Token t WHERE t.date < :date ORDER BY t.date")
+    List<String> findValuesByDateBefore(@Param("date") LocalDateTime date, Pageable pageable);
+
+    /**
+     * Deletes the tokens with the given values in a single statement.
+     *
+     * @param values The token values.
+     * @return The number of deleted tokens.
+     */
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.value IN :values")
+    int deleteByValues(@Param("values") Collection<String> values);
+
+    /**
+     * Deletes the tokens of the given users with an expiration date prior to the given value and with the given type
+     * in a single statement.
+     *
+     * @param users The user ids.
+     * @param date The expiration date to match.
+     * @param type The token type to delete.
+     * @return The number of deleted tokens.
+     */
+    @Modifying
+    @Query("DELETE FROM Token t WHERE t.user.id IN :users AND t.date < :date AND t.type = :type")
+    int deleteByUsersAndDateBeforeAndType(@Param("users") Collection<Integer> users,
+                                          @Param("date") LocalDateTime date, @Param("type") TokenType type);
 
 }
@@ -21,12 +21,15 @@ package fim.unipassau.de.scratchLog.persistence.repository;
 
 import fim.unipassau.de.scratchLog.persistence.entity.User;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserResultProjection;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -59,6 +62,32 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      */
     Optional<User> findUserByUsername(String username);
 
+    /**
+     * Returns all users whose username is contained in the given collection of usernames.
+     *
+     * @param usernames The usernames to search for.
+     * @return A list of all matching users, ordered by their id.
+     */
+    List<User> findAllByUsernameInOrderById(Collection<String> usernames);
+
+    /**
+     * Returns those usernames out of the given collection of usernames that already exist in the database.
+     *
+     * @param usernames The usernames to search for.
+     * @return A list of the existing usernames.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.username FROM `user` AS u WHERE u.username IN (:usernames)")
+    List<String> findExistingUsernames(@Param("usernames") Collection<String> usernames);
+
+    /**
+     * Returns those email addresses out of the given collection of email addresses that already exist in the database.
+     *
+     * @param emails The email addresses to search for.
+     * @return A list of the existing email addresses.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.email FROM `user` AS u WHERE u.email IN (:emails)")
+    List<String> findExistingEmails(@Param("emails") Collection<String> emails);
+
     /**
      * Returns the user with the given secret, if one exists.
      *
@@ -110,6 +139,49 @@ public interface UserRepository extends JpaRepository<User, Integer> {
      */
     List<User> findAllByRoleAndLastLoginBefore(Role role, LocalDateTime lastLogin);
 
+    /**
+     * Returns the ids of the first participants up to the given limit who have last logged in before the given date
+     * and time and whose accounts are still active or have a secret.
+     *
+     * @param lastLogin The last login time to search for.
+     * @param limit The maximum number of ids to return.
+     * @return A list of user ids.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.id FROM `user` AS u WHERE u.role = 'PARTICIPANT' AND u.last_login "
+            + "< :lastLogin AND (u.active = TRUE OR u.secret IS NOT NULL) ORDER BY u.id LIMIT :limit")
+    List<Integer> findInactiveParticipantIds(@Param("lastLogin") LocalDateTime lastLogin, @Param("limit") int limit);
+
+    /**
+     * Deactivates the accounts of the users with the given ids and resets their secrets in a single statement.
+     *
+     * @param ids The ids of the users to deactivate.
+     * @return The number of deactivated accounts.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE `user` SET active = FALSE, secret = NULL WHERE id IN (:ids)")
+    int deactivateUsers(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Activates the accounts of the users with the given ids and resets their login attempts in a single statement.
+     *
+     * @param ids The ids of the users to reactivate.
+     * @return The number of reactivated accounts.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "UPDATE `user` SET attempts = 0, active = TRUE WHERE id IN (:ids)")
+    int reactivateUsers(@Param("ids") Collection<Integer> ids);
+
+    /**
+     * Deletes the users with the given ids in a single statement. All data referencing these users is removed by the
+     * database.
+     *
+     * @param ids The ids of the users to delete.
+     * @return The number of deleted users.
+     */
+    @Modifying
+    @Query(nativeQuery = true, value = "DELETE FROM `user` WHERE id IN (:ids)")
+    int deleteUsers(@Param("ids") Collection<Integer> ids);
+
     /**
      * Returns the user with the highest user id currently existing in the database.
      *
@@ -129,28 +201,93 @@ public interface UserRepository extends JpaRepository<User, Integer> {
     List<UserProjection> findUserSuggestions(@Param("query") String query, @Param("limit") int limit);
 
     /**
-     * Returns a list of at most as many users as the given limit with the given offset whose email or username contain
-     * the given query value.
+     * Returns a list of the first users up to the given limit whose email or username contain the given query value.
+     * The candidates are looked up in the full-text index with the given phrase which has to consist of the query
+     * value in double quotes. As the index does not distinguish between upper and lower case or the two columns, the
+     * candidates are checked again against the query value.
+     *
+     * @param phrase The query value as a phrase to search for in the full-text index.
+     * @param query The username or email to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link UserProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.* FROM `user` AS u WHERE MATCH(u.username, u.email) AGAINST(:phrase "
+            + "IN BOOLEAN MODE) AND (u.username LIKE CONCAT('%', :query, '%') OR u.email LIKE CONCAT('%', :query, '%'))"
+            + " ORDER BY u.id LIMIT :limit")
+    List<UserProjection> findUserSuggestionsByIndex(@Param("phrase") String phrase, @Param("query") String query,
+                                                    @Param("limit") int limit);
+
+    /**
+     * Returns a list of the first users up to the given limit whose email or username contain the given query value
+     * ordered by their id. Each user additionally contains the total number of matching users, so the first result page
+     * and the result count are retrieved with a single query.
+     *
+     * @param query The username or email to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link UserResultProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.*, COUNT(*) OVER () AS total FROM `user` AS u WHERE (u.username LIKE "
+            + "CONCAT('%', :query, '%') OR u.email LIKE CONCAT('%', :query, '%')) ORDER BY u.id LIMIT :limit")
+    List<UserResultProjection> findUserResultPage(@Param("query") String query, @Param("limit") int limit);
+
+    /**
+     * Returns a list of the first users up to the given limit whose email or username contain the given query value
+     * ordered by their id along with the total number of matching users. The candidates are looked up in the full-text
+     * index with the given phrase.
      *
+     * @param phrase The query value as a phrase to search for in the full-text index.
      * @param query The username or email to search for.
+     * @param limit The maximum number of results to return.
+     * @return A list of {@link UserResultProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.*, COUNT(*) OVER () AS total FROM `user` AS u WHERE MATCH(u.username, "
+            + "u.email) AGAINST(:phrase IN BOOLEAN MODE) AND (u.username LIKE CONCAT('%', :query, '%') OR u.email LIKE "
+            + "CONCAT('%', :query, '%')) ORDER BY u.id LIMIT :limit")
+    List<UserResultProjection> findUserResultPageByIndex(@Param("phrase") String phrase, @Param("query") String query,
+                                                         @Param("limit") int limit);
+
+    /**
+     * Returns a list of at most as many users as the given limit with an id greater than the given one whose email or
+     * username contain the given query value ordered by their id.
+     *
+     * @param query The username or email to search for.
+     * @param last The id of the last user that has already been retrieved.
      * @param limit The maximum amount of results to be returned.
-     * @param offset The offset used to return new results.
      * @return A list of {@link UserProjection}s.
      */
     @Query(nativeQuery = true, value = "SELECT u.* FROM `user` AS u WHERE (u.username LIKE CONCAT('%', :query, '%') "
-            + "OR u.email LIKE CONCAT('%', :query, '%')) LIMIT :limit OFFSET :offset")
-    List<UserProjection> findUserResults(@Param("query") String query, @Param("limit") int limit,
-                                         @Param("offset") int offset);
+            + "OR u.email LIKE CONCAT('%', :query, '%')) AND u.id > :last ORDER BY u.id LIMIT :limit")
+    List<UserProjection> findUserResultsAfter(@Param("query") String query, @Param("last") int last,
+                                              @Param("limit") int limit);
+
+    /**
+     * Returns a list of at most as many users as the given limit with an id greater than the given one ordered by
+     * their id, containing only the columns needed to build the search suggestion index.
+     *
+     * @param last The id of the last user that has already been retrieved.
+     * @param limit The maximum amount of results to be returned.
+     * @return A list of {@link UserProjection}s.
+     */
+    @Query(nativeQuery = true, value = "SELECT u.id, u.username, u.email, u.role FROM `user` AS u WHERE u.id > :last "
+            + "ORDER BY u.id LIMIT :limit")
+    List<UserProjection> findUsersAfter(@Param("last") int last, @Param("limit") int limit);
 
     /**
-     * Returns the number of users whose email or username contain the given query value.
+     * Returns a list of at most as many users as the given limit with an id greater than the given one whose email or
+     * username contain the given query value ordered by their id. The candidates are looked up in the full-text index
+     * with the given phrase.
      *
+     * @param phrase The query value as a phrase to search for in the full-text index.
      * @param query The username or email to search for.
-     * @return The number of user results.
+     * @param last The id of the last user that has already been retrieved.
+     * @param limit The maximum amount of results to be returned.
+     * @return A list of {@link UserProjection}s.
      */
-    @Query(nativeQuery = true, value = "SELECT COUNT(*) FROM `user` AS u WHERE (u.username LIKE "
-            + "CONCAT('%', :query, '%') OR u.email LIKE CONCAT('%', :query, '%'))")
-    int getUserResultsCount(@Param("query") String query);
+    @Query(nativeQuery = true, value = "SELECT u.* FROM `user` AS u WHERE MATCH(u.username, u.email) AGAINST(:phrase "
+            + "IN BOOLEAN MODE) AND (u.username LIKE CONCAT('%', :query, '%') OR u.email LIKE CONCAT('%', :query, '%'))"
+            + " AND u.id > :last ORDER BY u.id LIMIT :limit")
+    List<UserProjection> findUserResultsAfterByIndex(@Param("phrase") String phrase, @Param("query") String query,
+                                                     @Param("last") int last, @Param("limit") int limit);
 
     /**
      * Returns a list of the first users whose email or username contain the given query value up to the given limit who
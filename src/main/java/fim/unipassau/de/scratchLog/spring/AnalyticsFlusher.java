@@ -0,0 +1,60 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.spring;
+
+import fim.unipassau.de.scratchLog.application.service.AnalyticsService;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Class performing scheduled tasks to write the experiment activity counted in memory to the database.
+ */
+@Configuration
+public class AnalyticsFlusher {
+
+    /**
+     * The interval in milliseconds between the end of a write and the start of the next one.
+     */
+    private static final int FLUSH_INTERVAL = 30000;
+
+    /**
+     * The analytics service to use for counting the activity.
+     */
+    private final AnalyticsService analyticsService;
+
+    /**
+     * Constructs a new analytics flusher with the given dependencies.
+     *
+     * @param analyticsService The {@link AnalyticsService} to use.
+     */
+    public AnalyticsFlusher(final AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Task scheduled to run every 30 seconds to add the activity counted since its last run to the database. If the
+     * activity cannot be saved, it is kept in memory for the next run.
+     */
+    @Scheduled(fixedDelay = FLUSH_INTERVAL)
+    public void flushActivity() {
+        analyticsService.flush();
+    }
+
+}
@@ -20,13 +20,17 @@
 package fim.unipassau.de.scratchLog.spring;
 
 import fim.unipassau.de.scratchLog.application.service.CourseService;
+import fim.unipassau.de.scratchLog.application.service.JobService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
+import fim.unipassau.de.scratchLog.util.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 
+import java.util.function.BooleanSupplier;
+
 /**
  * Class performing scheduled tasks to deactivate old participant accounts, experiments and courses.
  */
@@ -53,34 +57,84 @@ public class DeactivationHandler {
      */
     private final CourseService courseService;
 
+    /**
+     * The job service to use for coordinating the deactivation with other nodes.
+     */
+    private final JobService jobService;
+
     /**
      * The interval in milliseconds until the next scheduled task invocation.
      */
     private static final int INTERVAL = 86400000;
 
+    /**
+     * The time in milliseconds after which the lease of a deactivation run expires if the node running it crashes
+     * while processing a chunk.
+     */
+    private static final int LEASE = 600000;
+
+    /**
+     * The name under which the deactivation is coordinated with other nodes.
+     */
+    private static final String JOB_NAME = "deactivation";
+
     /**
      * Constructs a new deactivation handler with the given dependencies.
      *
      * @param userService The {@link UserService} to use.
      * @param participantService The {@link ParticipantService} to use.
      * @param courseService The {@link CourseService} to use.
+     * @param jobService The {@link JobService} to use.
      */
     public DeactivationHandler(final UserService userService, final ParticipantService participantService,
-                               final CourseService courseService) {
+                               final CourseService courseService, final JobService jobService) {
         this.userService = userService;
         this.participantService = participantService;
         this.courseService = courseService;
+        this.jobService = jobService;
     }
 
     /**
-     * Task scheduled to run once a day to deactivate old participant accounts, experiments and courses.
+     * Task scheduled to run once a day to deactivate old participant accounts, experiments and courses. The
+     * participant accounts are deactivated in chunks, each of which is processed in its own transaction. If several
+     * nodes share the database, the deactivation is only run by the node acquiring the job lease, which is renewed
+     * before each chunk.
      */
     @Scheduled(fixedRate = INTERVAL)
     public void deactivateInactiveEntities() {
+        jobService.runExclusively(JOB_NAME, LEASE, INTERVAL, this::deactivate);
+    }
+
+    /**
+     * Deactivates the old participant accounts, experiments and courses. No further chunks are processed once the job
+     * lease has been lost.
+     *
+     * @param heartbeat The heartbeat renewing the job lease, returning {@code false} once the lease has been lost.
+     * @return The total number of deactivated entities.
+     */
+    private int deactivate(final BooleanSupplier heartbeat) {
         LOGGER.info("Starting scheduled task to deactivate old participant accounts, experiments and courses.");
-        userService.deactivateOldParticipantAccounts();
-        participantService.deactivateInactiveExperiments();
-        courseService.deactivateInactiveCourses();
+        int users = 0;
+
+        while (heartbeat.getAsBoolean()) {
+            int deactivated = userService.deactivateOldParticipantAccounts();
+            users += deactivated;
+
+            if (deactivated < Constants.DEACTIVATION_CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        if (!heartbeat.getAsBoolean()) {
+            LOGGER.warn("Stopped the deactivation after " + users + " participant accounts as the lease was lost.");
+            return users;
+        }
+
+        int experiments = participantService.deactivateInactiveExperiments();
+        int courses = courseService.deactivateInactiveCourses();
+        LOGGER.info("Deactivated " + users + " participant accounts, " + experiments + " experiments and " + courses
+                + " courses.");
+        return users + experiments + courses;
     }
 
 }
@@ -0,0 +1,133 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.spring;
+
+import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.persistence.entity.OutboxMail;
+import fim.unipassau.de.scratchLog.util.ApplicationProperties;
+import fim.unipassau.de.scratchLog.util.Constants;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Class performing scheduled tasks to hand the emails waiting in the mail outbox to a pool of workers. Each worker
+ * sends a batch of emails over a single connection to the mail server. New emails are only taken from the outbox if
+ * a worker is idle, so that the emails remain in the outbox while the mail server is slow.
+ */
+@Configuration
+public class MailDispatcher {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(MailDispatcher.class);
+
+    /**
+     * The interval in milliseconds between the end of a dispatch and the start of the next one.
+     */
+    private static final int DISPATCH_INTERVAL = 1000;
+
+    /**
+     * The mail service to use for sending the emails.
+     */
+    private final MailService mailService;
+
+    /**
+     * The maximum number of emails handed to a worker at once.
+     */
+    private final int batchSize;
+
+    /**
+     * The executor running the workers sending the emails.
+     */
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Constructs a new mail dispatcher with the given dependencies.
+     *
+     * @param mailService The {@link MailService} to use.
+     * @param threads The number of workers sending emails concurrently.
+     * @param batchSize The maximum number of emails sent by a worker over one connection.
+     */
+    public MailDispatcher(final MailService mailService,
+                          @Value("${app.mail.threads:" + Constants.MAIL_THREADS + "}") final int threads,
+                          @Value("${app.mail.batch:" + Constants.MAIL_BATCH_SIZE + "}") final int batchSize) {
+        this.mailService = mailService;
+        this.batchSize = batchSize;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), new CustomizableThreadFactory("mail-"));
+    }
+
+    /**
+     * Stops the workers once the application context is closed. Emails that have already been handed to a worker
+     * but not sent yet are picked up again after their lease has expired.
+     */
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    /**
+     * Task scheduled to run every second to hand one batch of due emails to each idle worker.
+     */
+    @Scheduled(fixedDelay = DISPATCH_INTERVAL)
+    public void dispatchMails() {
+        if (!ApplicationProperties.MAIL_SERVER) {
+            return;
+        }
+
+        int idle = executor.getMaximumPoolSize() - executor.getActiveCount() - executor.getQueue().size();
+
+        if (idle <= 0) {
+            return;
+        }
+
+        List<OutboxMail> mails = mailService.claimMails(idle * batchSize);
+
+        for (int i = 0; i < mails.size(); i += batchSize) {
+            List<OutboxMail> batch = new ArrayList<>(mails.subList(i, Math.min(i + batchSize, mails.size())));
+            executor.execute(() -> sendMails(batch));
+        }
+    }
+
+    /**
+     * Sends the given batch of emails.
+     *
+     * @param batch The emails to send.
+     */
+    private void sendMails(final List<OutboxMail> batch) {
+        try {
+            mailService.sendMails(batch);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not record the outcome of sending " + batch.size() + " emails!", e);
+        }
+    }
+
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.spring;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.application.service.FileService;
+import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.BlockEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.ClickEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.DebuggerEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.EventDTO;
+import fim.unipassau.de.scratchLog.web.dto.FileDTO;
+import fim.unipassau.de.scratchLog.web.dto.QuestionEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.ResourceEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.Sb3ZipDTO;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.Scheduled;
+
+import java.time.LocalDateTime;
+import java.util.function.BiConsumer;
+
+/**
+ * Class performing scheduled tasks to replay the events written to the local event spool to the database. As events
+ * are written to the spool without querying the database, the event data is checked against the participation and
+ * secret of the participant on replay. Each event is saved together with the time at which it was received, so that
+ * participants who finished the experiment after sending it, which sets the end of their participation and deactivates
+ * their user account, still get the event saved. Events received after the participant finished are discarded.
+ */
+@Configuration
+public class SpoolReplayer {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SpoolReplayer.class);
+
+    /**
+     * The interval in milliseconds between the end of a replay and the start of the next one.
+     */
+    private static final int REPLAY_INTERVAL = 1000;
+
+    /**
+     * The object mapper to use for reading the event data.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    /**
+     * The event spool service to use for reading the spooled events.
+     */
+    private final EventSpoolService eventSpoolService;
+
+    /**
+     * The event service to use to save the event data.
+     */
+    private final EventService eventService;
+
+    /**
+     * The file service to use to save the file data.
+     */
+    private final FileService fileService;
+
+    /**
+     * The participant service to use for verifying participants.
+     */
+    private final ParticipantService participantService;
+
+    /**
+     * Constructs a new spool replayer with the given dependencies.
+     *
+     * @param eventSpoolService The {@link EventSpoolService} to use.
+     * @param eventService The {@link EventService} to use.
+     * @param fileService The {@link FileService} to use.
+     * @param participantService The {@link ParticipantService} to use.
+     */
+    public SpoolReplayer(final EventSpoolService eventSpoolService, final EventService eventService,
+                         final FileService fileService, final ParticipantService participantService) {
+        this.eventSpoolService = eventSpoolService;
+        this.eventService = eventService;
+        this.fileService = fileService;
+        this.participantService = participantService;
+    }
+
+    /**
+     * Task scheduled to run every second to replay the events written to the spool since its last run.
+     */
+    @Scheduled(fixedDelay = REPLAY_INTERVAL)
+    public void replayEvents() {
+        if (!eventSpoolService.isEnabled()) {
+            return;
+        }
+
+        int count = eventSpoolService.replayEvents(Constants.SPOOL_BATCH_SIZE, this::replayEvent);
+
+        if (count > 0) {
+            LOGGER.debug("Replayed " + count + " spooled events to the database.");
+        }
+    }
+
+    /**
+     * Saves the given spooled event in the database, if its data is complete and belongs to a valid participant.
+     *
+     * @param record The spooled event.
+     */
+    private void replayEvent(final EventSpoolService.SpoolRecord record) {
+        switch (record.getKind()) {
+            case "block" -> replayEvent(record, BlockEventDTO.class, eventService::saveBlockEvent);
+            case "click" -> replayEvent(record, ClickEventDTO.class, eventService::saveClickEvent);
+            case "debugger" -> replayEvent(record, DebuggerEventDTO.class, eventService::saveDebuggerEvent);
+            case "question" -> replayEvent(record, QuestionEventDTO.class, eventService::saveQuestionEvent);
+            case "resource" -> replayEvent(record, ResourceEventDTO.class, eventService::saveResourceEvent);
+            case "file" -> replayEvent(record, FileDTO.class, fileService::saveFile);
+            case "zip" -> replayEvent(record, Sb3ZipDTO.class, fileService::saveSb3Zip);
+            default -> LOGGER.error("Cannot replay spooled event of unknown kind " + record.getKind() + "!");
+        }
+    }
+
+    /**
+     * Reads the data of the given spooled event into a DTO of the given type and passes it to the given save method,
+     * together with the time at which the event was received, if the user is a participant of the experiment with the
+     * given secret. The user account need not be active any more, as the save method accepts participants who finished
+     * the experiment after the event was received.
+     *
+     * @param record The spooled event.
+     * @param type The class of the DTO to create.
+     * @param save The method saving the DTO.
+     * @param <T> The type of the DTO.
+     */
+    private <T extends EventDTO> void replayEvent(final EventSpoolService.SpoolRecord record, final Class<T> type,
+                                                  final BiConsumer<T, LocalDateTime> save) {
+        try {
+            T eventDTO = MAPPER.readValue(record.getData(), type);
+            String secret = new JSONObject(record.getData()).getString("secret");
+
+            if (!participantService.isInvalidParticipant(eventDTO.getUser(), eventDTO.getExperiment(), secret,
+                    false)) {
+                save.accept(eventDTO, record.getReceived());
+            }
+        } catch (JsonProcessingException | JSONException e) {
+            LOGGER.error("The spooled " + record.getKind() + " event data was incomplete!", e);
+        }
+    }
+
+}
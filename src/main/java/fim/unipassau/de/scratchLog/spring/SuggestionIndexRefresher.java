@@ -0,0 +1,75 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.spring;
+
+import fim.unipassau.de.scratchLog.application.service.SuggestionIndexService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.dao.DataAccessException;
+import org.springframework.scheduling.annotation.Scheduled;
+
+/**
+ * Class performing scheduled tasks to rebuild the search suggestion index from the database, so changes made by other
+ * instances of the application sharing the same database are picked up as well. Changes made by this instance are
+ * applied to the index as soon as they are committed, so the rebuild only runs once per hour.
+ */
+@Configuration
+public class SuggestionIndexRefresher {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(SuggestionIndexRefresher.class);
+
+    /**
+     * The interval in milliseconds between the end of a rebuild and the start of the next one.
+     */
+    private static final int REFRESH_INTERVAL = 3600000;
+
+    /**
+     * The suggestion index service to use for rebuilding the index.
+     */
+    private final SuggestionIndexService suggestionIndexService;
+
+    /**
+     * Constructs a new suggestion index refresher with the given dependencies.
+     *
+     * @param suggestionIndexService The {@link SuggestionIndexService} to use.
+     */
+    public SuggestionIndexRefresher(final SuggestionIndexService suggestionIndexService) {
+        this.suggestionIndexService = suggestionIndexService;
+    }
+
+    /**
+     * Task scheduled to run every hour to rebuild the suggestion index. The first run is delayed by the same
+     * interval, as the index is built on startup anyway. If the index cannot be rebuilt, the current one is kept
+     * until the next run.
+     */
+    @Scheduled(fixedDelay = REFRESH_INTERVAL, initialDelay = REFRESH_INTERVAL)
+    public void refreshIndex() {
+        try {
+            suggestionIndexService.buildIndex();
+        } catch (DataAccessException e) {
+            LOGGER.error("Could not rebuild the search suggestion index!", e);
+        }
+    }
+
+}
@@ -19,13 +19,17 @@
 
 package fim.unipassau.de.scratchLog.spring;
 
+import fim.unipassau.de.scratchLog.application.service.JobService;
 import fim.unipassau.de.scratchLog.application.service.TokenService;
+import fim.unipassau.de.scratchLog.util.Constants;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.scheduling.annotation.Scheduled;
 
 import java.time.LocalDateTime;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
 
 /**
  * Class performing scheduled tasks to clean up expired tokens and any changes associated with them.
@@ -44,29 +48,88 @@ public class TokenCleaner {
     private final TokenService tokenService;
 
     /**
-     * The interval in milliseconds until the next scheduled task invocation.
+     * The job service to use for coordinating the cleanup with other nodes.
+     */
+    private final JobService jobService;
+
+    /**
+     * The interval in milliseconds between the end of a cleanup run and the start of the next one.
      */
     private static final int CLEANER_INTERVAL = 600000;
 
+    /**
+     * The time in milliseconds after which the lease of a cleanup run expires if the node running it crashes while
+     * processing a chunk.
+     */
+    private static final int CLEANER_LEASE = 300000;
+
     /**
      * Constructs a new token cleaner with the given dependencies.
      *
      * @param tokenService The {@link TokenService} to use.
+     * @param jobService The {@link JobService} to use.
      */
-    public TokenCleaner(final TokenService tokenService) {
+    public TokenCleaner(final TokenService tokenService, final JobService jobService) {
         this.tokenService = tokenService;
+        this.jobService = jobService;
     }
 
     /**
-     * Task scheduled to run every 10 minutes to delete expired tokens from the database.
+     * Task scheduled to run 10 minutes after the previous run has finished to delete expired tokens from the database.
+     * The tokens are processed in chunks, each of which is handled in its own transaction. If several nodes share the
+     * database, the cleanup is only run by the node acquiring the job lease, which is renewed before each chunk.
      */
-    @Scheduled(fixedRate = CLEANER_INTERVAL)
+    @Scheduled(fixedDelay = CLEANER_INTERVAL)
     public void cleanOldTokens() {
+        jobService.runExclusively(Constants.TOKEN_CLEANUP_JOB, CLEANER_LEASE, CLEANER_INTERVAL, this::cleanup);
+    }
+
+    /**
+     * Deletes the expired tokens and accounts and reactivates the accounts whose deactivation has expired. The number
+     * of tokens processed by each step is reported to the heartbeat to be recorded with the job run.
+     *
+     * @param heartbeat The heartbeat renewing the job lease, returning {@code false} once the lease has been lost.
+     * @return The total number of processed tokens.
+     */
+    private int cleanup(final JobService.Heartbeat heartbeat) {
         LOGGER.info("Starting scheduled task to delete expired tokens.");
         LocalDateTime time = LocalDateTime.now();
-        tokenService.deleteExpiredAccounts(time);
-        tokenService.reactivateUserAccounts(time);
-        tokenService.deleteExpiredTokens(time);
+        long start = System.currentTimeMillis();
+        int registrations = processChunks(tokenService::deleteExpiredAccounts, time, heartbeat);
+        heartbeat.count(Constants.TOKEN_CLEANUP_DELETED_ACCOUNTS, registrations);
+        int deactivations = processChunks(tokenService::reactivateUserAccounts, time, heartbeat);
+        heartbeat.count(Constants.TOKEN_CLEANUP_REACTIVATED_ACCOUNTS, deactivations);
+        int tokens = processChunks(tokenService::deleteExpiredTokens, time, heartbeat);
+        heartbeat.count(Constants.TOKEN_CLEANUP_DELETED_TOKENS, tokens);
+        long duration = System.currentTimeMillis() - start;
+        LOGGER.info("Processed " + registrations + " expired registrations, " + deactivations + " expired "
+                + "deactivations and " + tokens + " other expired tokens in " + duration + " ms.");
+        return registrations + deactivations + tokens;
+    }
+
+    /**
+     * Invokes the given cleanup step until it processes fewer tokens than the chunk size. The job lease is renewed
+     * before each chunk and no further chunks are processed once it has been lost.
+     *
+     * @param step The cleanup step returning the number of tokens processed in one chunk.
+     * @param time The time before which tokens are considered to be expired.
+     * @param heartbeat The heartbeat renewing the job lease.
+     * @return The total number of processed tokens.
+     */
+    private int processChunks(final ToIntFunction<LocalDateTime> step, final LocalDateTime time,
+                              final BooleanSupplier heartbeat) {
+        int total = 0;
+
+        while (heartbeat.getAsBoolean()) {
+            int processed = step.applyAsInt(time);
+            total += processed;
+
+            if (processed < Constants.TOKEN_CLEANUP_CHUNK_SIZE) {
+                break;
+            }
+        }
+
+        return total;
     }
 
 }
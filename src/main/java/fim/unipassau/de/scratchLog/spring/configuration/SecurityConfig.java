@@ -79,7 +79,8 @@ public class SecurityConfig {
                 .requestMatchers("/login", "/finish", "/token/password", "/reset",
                         "/users/reset", "/users/login", "/users/authenticate").anonymous()
                 .requestMatchers("/experiment/*", "/users/add", "/users/delete", "/users/forgot", "/users/add",
-                        "/users/bulk", "/result", "/search", "/secret", "/search/*").hasRole("ADMIN")
+                        "/users/bulk", "/result", "/search", "/secret", "/search/*", "/spool", "/status",
+                        "/analytics", "/analytics/data").hasRole("ADMIN")
                 .requestMatchers("/experiment", "/users/profile", "/users/logout", "/users/edit",
                         "/users/update", "/course").hasRole("PARTICIPANT")
                 .requestMatchers("/design/*", "/js/*", "/webfonts/*", "/", "/finish",
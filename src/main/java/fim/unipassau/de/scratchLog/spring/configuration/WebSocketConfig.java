@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.spring.configuration;
+
+import fim.unipassau.de.scratchLog.util.ApplicationProperties;
+import fim.unipassau.de.scratchLog.web.socket.EventWebSocketHandler;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.socket.config.annotation.EnableWebSocket;
+import org.springframework.web.socket.config.annotation.WebSocketConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketHandlerRegistry;
+
+/**
+ * The WebSocket configuration registering the channel over which the instrumented Scratch GUI can stream its events.
+ */
+@Configuration
+@EnableWebSocket
+public class WebSocketConfig implements WebSocketConfigurer {
+
+    /**
+     * The handler receiving the events sent over the WebSocket connections.
+     */
+    private final EventWebSocketHandler eventWebSocketHandler;
+
+    /**
+     * Constructs a new WebSocket configuration with the given dependencies.
+     *
+     * @param eventWebSocketHandler The {@link EventWebSocketHandler} to use.
+     */
+    @Autowired
+    public WebSocketConfig(final EventWebSocketHandler eventWebSocketHandler) {
+        this.eventWebSocketHandler = eventWebSocketHandler;
+    }
+
+    /**
+     * Registers the event handler under the store path, accepting connections only from the Scratch GUI instances
+     * that are also allowed to send cross-origin requests to the REST endpoints.
+     *
+     * @param registry The registry storing the necessary information.
+     */
+    @Override
+    public void registerWebSocketHandlers(final WebSocketHandlerRegistry registry) {
+        registry.addHandler(eventWebSocketHandler, "/store/socket")
+                .setAllowedOrigins(ApplicationProperties.GUI_BASE_URL);
+    }
+
+}
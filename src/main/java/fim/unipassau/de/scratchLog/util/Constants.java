@@ -87,9 +87,9 @@ public final class Constants {
     public static final int PAGE_SIZE = 10;
 
     /**
-     * The maximum number of attempts to send an email.
+     * The maximum number of attempts to send an email before it is marked as failed in the mail outbox.
      */
-    public static final int MAX_EMAIL_TRIES = 3;
+    public static final int MAX_EMAIL_TRIES = 8;
 
     /**
      * The maximum number of login attempts before the user account is temporarily deactivated.
@@ -111,6 +111,21 @@ public final class Constants {
      */
     public static final int MAX_ADD_PARTICIPANTS = 50;
 
+    /**
+     * The number of user rows sent to the database in one JDBC batch when creating several users at once.
+     */
+    public static final int USER_BATCH_SIZE = 100;
+
+    /**
+     * The maximum number of participants that can be added from a single CSV file.
+     */
+    public static final int MAX_CSV_PARTICIPANTS = 5000;
+
+    /**
+     * The number of CSV rows that are checked against the database and inserted together when importing participants.
+     */
+    public static final int CSV_CHUNK_SIZE = 500;
+
     /**
      * The maximum allowed break time factor when downloading sb3 files in steps.
      */
@@ -142,4 +157,225 @@ public final class Constants {
      */
     public static final long COURSE_INACTIVE_DAYS = 180;
 
+    /**
+     * The maximum number of participant accounts to deactivate within a single transaction.
+     */
+    public static final int DEACTIVATION_CHUNK_SIZE = 500;
+
+    /**
+     * The maximum number of expired tokens processed within a single transaction when cleaning up tokens.
+     */
+    public static final int TOKEN_CLEANUP_CHUNK_SIZE = 100;
+
+    /**
+     * The name under which the token cleanup is coordinated between the nodes and recorded in the job runs.
+     */
+    public static final String TOKEN_CLEANUP_JOB = "token_cleanup";
+
+    /**
+     * The name of the count of user accounts deleted due to expired registration tokens in a token cleanup run.
+     */
+    public static final String TOKEN_CLEANUP_DELETED_ACCOUNTS = "deleted_accounts";
+
+    /**
+     * The name of the count of user accounts reactivated due to expired deactivation tokens in a token cleanup run.
+     */
+    public static final String TOKEN_CLEANUP_REACTIVATED_ACCOUNTS = "reactivated_accounts";
+
+    /**
+     * The name of the count of other expired tokens deleted in a token cleanup run.
+     */
+    public static final String TOKEN_CLEANUP_DELETED_TOKENS = "deleted_tokens";
+
+    /**
+     * The maximum number of scheduled job runs to display on the status page.
+     */
+    public static final int JOB_HISTORY_SIZE = 20;
+
+    /**
+     * The number of days for which the runs of scheduled jobs are kept in the database.
+     */
+    public static final long JOB_HISTORY_DAYS = 30;
+
+    /**
+     * The default maximum number of bytes the cached result files of finished participants may occupy on disk.
+     */
+    public static final long RESULT_CACHE_SIZE = 536_870_912;
+
+    /**
+     * The maximum number of experiment sb3 projects to keep in memory.
+     */
+    public static final int PROJECT_CACHE_SIZE = 50;
+
+    /**
+     * The maximum number of bytes the experiment sb3 projects kept in memory may occupy in total.
+     */
+    public static final long PROJECT_CACHE_BYTES = 104_857_600;
+
+    /**
+     * The default maximum number of participant snapshots to keep in memory.
+     */
+    public static final int SNAPSHOT_CACHE_SIZE = 1000;
+
+    /**
+     * The maximum number of verified participants to keep in memory.
+     */
+    public static final int PARTICIPANT_CACHE_SIZE = 10000;
+
+    /**
+     * The time in milliseconds for which a verified participant is kept in memory.
+     */
+    public static final long PARTICIPANT_CACHE_TIME = 300000;
+
+    /**
+     * The default maximum number of unacknowledged messages a client may send over an event WebSocket connection.
+     */
+    public static final int SOCKET_WINDOW = 100;
+
+    /**
+     * The default number of messages received over an event WebSocket connection after which they are acknowledged.
+     */
+    public static final int SOCKET_BATCH_SIZE = 20;
+
+    /**
+     * The maximum size of a single message sent over an event WebSocket connection in bytes.
+     */
+    public static final int SOCKET_MAX_MESSAGE_SIZE = 10_485_760;
+
+    /**
+     * The default number of bytes after which a new segment file of the local event spool is started.
+     */
+    public static final long SPOOL_SEGMENT_SIZE = 16_777_216;
+
+    /**
+     * The default maximum number of bytes the segment files of the local event spool may occupy on disk.
+     */
+    public static final long SPOOL_SIZE = 1_073_741_824;
+
+    /**
+     * The maximum number of spooled events replayed to the database in a single transaction.
+     */
+    public static final int SPOOL_BATCH_SIZE = 500;
+
+    /**
+     * The initial delay in milliseconds before the spool replay is retried after a temporary database failure.
+     */
+    public static final long SPOOL_RETRY_DELAY = 1000;
+
+    /**
+     * The maximum delay in milliseconds before the spool replay is retried after a temporary database failure.
+     */
+    public static final long SPOOL_MAX_RETRY_DELAY = 60000;
+
+    /**
+     * The default number of events of each kind a participant may send per second.
+     */
+    public static final int STORE_RATE = 50;
+
+    /**
+     * The default number of events of each kind a participant may send at once before the rate limit applies.
+     */
+    public static final int STORE_BURST = 200;
+
+    /**
+     * The default minimum number of event requests that may be processed concurrently.
+     */
+    public static final int STORE_MIN_CONCURRENCY = 4;
+
+    /**
+     * The default maximum number of event requests that may be processed concurrently.
+     */
+    public static final int STORE_MAX_CONCURRENCY = 64;
+
+    /**
+     * The default target latency for saving an event in milliseconds, above which fewer requests are processed
+     * concurrently.
+     */
+    public static final long STORE_LATENCY = 100;
+
+    /**
+     * The maximum number of times for which projects can be downloaded with a single request.
+     */
+    public static final int MAX_PROJECT_TIMES = 100;
+
+    /**
+     * The number of json snapshots loaded at once when computing the block changes of a participant.
+     */
+    public static final int SNAPSHOT_DIFF_BATCH_SIZE = 50;
+
+    /**
+     * The default number of one-minute buckets kept in memory for each experiment before the counted activity has to
+     * be written to the database.
+     */
+    public static final int ANALYTICS_BUCKETS = 60;
+
+    /**
+     * The number of most frequent block opcodes shown in the experiment analytics.
+     */
+    public static final int ANALYTICS_OPCODES = 10;
+
+    /**
+     * The number of event timestamps loaded at once from each event table when computing the sessions of participants.
+     */
+    public static final int SESSION_BATCH_SIZE = 500;
+
+    /**
+     * The default time in seconds between two events of a participant after which the participant is considered idle.
+     */
+    public static final long SESSION_IDLE = 60;
+
+    /**
+     * The default time in seconds between two events of a participant after which a new session is started.
+     */
+    public static final long SESSION_TIMEOUT = 1800;
+
+    /**
+     * The minimum length of a search query to be looked up in the full-text indexes, matching the default n-gram token
+     * size of MySQL.
+     */
+    public static final int SEARCH_NGRAM_SIZE = 2;
+
+    /**
+     * The default number of threads running the user, experiment and course searches of the search result page.
+     */
+    public static final int SEARCH_THREADS = 6;
+
+    /**
+     * The maximum number of searches waiting for a free search thread. Any further searches are run by the requesting
+     * thread itself.
+     */
+    public static final int SEARCH_QUEUE_SIZE = 60;
+
+    /**
+     * The default number of threads hashing the generated passwords of participants imported from a CSV file.
+     */
+    public static final int PASSWORD_THREADS = 4;
+
+    /**
+     * The default number of threads sending the emails waiting in the mail outbox.
+     */
+    public static final int MAIL_THREADS = 2;
+
+    /**
+     * The default maximum number of emails sent over one SMTP connection.
+     */
+    public static final int MAIL_BATCH_SIZE = 20;
+
+    /**
+     * The delay in seconds before the first retry of an email that could not be sent. The delay doubles with each
+     * further attempt.
+     */
+    public static final long MAIL_RETRY_DELAY = 30;
+
+    /**
+     * The maximum delay in seconds between two attempts to send an email.
+     */
+    public static final long MAIL_MAX_RETRY_DELAY = 3600;
+
+    /**
+     * The time in seconds for which emails handed to a worker are not picked up again, in case the worker is stopped
+     * before it could record the outcome.
+     */
+    public static final long MAIL_LEASE = 600;
+
 }
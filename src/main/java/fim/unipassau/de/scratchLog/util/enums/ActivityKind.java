@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.util.enums;
+
+/**
+ * The kinds of activity counted in the time buckets of the experiment analytics.
+ */
+public enum ActivityKind implements EventCode {
+
+    /**
+     * The number of block events.
+     */
+    BLOCK(1),
+
+    /**
+     * The number of click events.
+     */
+    CLICK(2),
+
+    /**
+     * The number of debugger events.
+     */
+    DEBUGGER(3),
+
+    /**
+     * The number of question events.
+     */
+    QUESTION(4),
+
+    /**
+     * The number of resource events.
+     */
+    RESOURCE(5),
+
+    /**
+     * The number of participants who caused at least one event.
+     */
+    PARTICIPANT(6);
+
+    /**
+     * The code under which the kind is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    ActivityKind(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
+
+}
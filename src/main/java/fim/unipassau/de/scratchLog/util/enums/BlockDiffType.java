@@ -0,0 +1,43 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.util.enums;
+
+/**
+ * The available types of block changes between two consecutive json snapshots of a project.
+ */
+public enum BlockDiffType {
+
+    /**
+     * A block that is not contained in the previous snapshot.
+     */
+    ADDED,
+
+    /**
+     * A block that is no longer contained in the current snapshot.
+     */
+    REMOVED,
+
+    /**
+     * A block that has been attached to another parent block, or a top-level block that has been dragged to another
+     * position.
+     */
+    MOVED
+
+}
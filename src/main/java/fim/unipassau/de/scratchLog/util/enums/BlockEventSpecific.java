@@ -22,106 +22,128 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible specific events for a block event.
  */
-public enum BlockEventSpecific {
+public enum BlockEventSpecific implements EventCode {
 
     /**
      * The user clicked on the green flag icon.
      */
-    GREENFLAG,
+    GREENFLAG(1),
 
     /**
      * The user clicked on the stop all icon.
      */
-    STOPALL,
+    STOPALL(2),
 
     /**
      * The user renamed the sprite.
      */
-    SPRITE,
+    SPRITE(3),
 
     /**
      * The user clicked on a block.
      */
-    STACKCLICK,
+    STACKCLICK(4),
 
     /**
      * The user created a new block.
      */
-    CREATE,
+    CREATE(5),
 
     /**
      * The user changed an existing block.
      */
-    CHANGE,
+    CHANGE(6),
 
     /**
      * The user moved a block.
      */
-    MOVE,
+    MOVE(7),
 
     /**
      * The user dragged a block outside.
      */
-    DRAGOUTSIDE,
+    DRAGOUTSIDE(8),
 
     /**
      * The user dragged a block onto another.
      */
-    ENDDRAGONTO,
+    ENDDRAGONTO(9),
 
     /**
      * The user finished dragging the block.
      */
-    ENDDRAG,
+    ENDDRAG(10),
 
     /**
      * The user deleted a block.
      */
-    DELETE,
+    DELETE(11),
 
     /**
      * The user created a global variable.
      */
-    VAR_CREATE_GLOBAL,
+    VAR_CREATE_GLOBAL(12),
 
     /**
      * The user created a local variable.
      */
-    VAR_CREATE_LOCAL,
+    VAR_CREATE_LOCAL(13),
 
     /**
      * The user renamed a global variable.
      */
-    VAR_RENAME_GLOBAL,
+    VAR_RENAME_GLOBAL(14),
 
     /**
      * The user renamed a local variable.
      */
-    VAR_RENAME_LOCAL,
+    VAR_RENAME_LOCAL(15),
 
     /**
      * The user deleted a variable.
      */
-    VAR_DELETE,
+    VAR_DELETE(16),
 
     /**
      * The user created a comment.
      */
-    COMMENT_CREATE,
+    COMMENT_CREATE(17),
 
     /**
      * The user changed a comment.
      */
-    COMMENT_CHANGE,
+    COMMENT_CHANGE(18),
 
     /**
      * The user moved a comment.
      */
-    COMMENT_MOVE,
+    COMMENT_MOVE(19),
 
     /**
      * The user deleted a comment.
      */
-    COMMENT_DELETE
+    COMMENT_DELETE(20);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    BlockEventSpecific(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
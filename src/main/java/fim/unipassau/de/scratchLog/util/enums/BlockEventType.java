@@ -22,41 +22,63 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible event types for a block event.
  */
-public enum BlockEventType {
+public enum BlockEventType implements EventCode {
 
     /**
      * The event was caused by a mouse click.
      */
-    CLICK,
+    CLICK(1),
 
     /**
      * The event was caused by the renaming of a variable or sprite.
      */
-    RENAME,
+    RENAME(2),
 
     /**
      * The event was caused by the creation of a block, comment or variable.
      */
-    CREATE,
+    CREATE(3),
 
     /**
      * The event was caused by the change of an existent block or comment.
      */
-    CHANGE,
+    CHANGE(4),
 
     /**
      * The event was caused by a block being moved.
      */
-    MOVE,
+    MOVE(5),
 
     /**
      * The event was caused by the deletion of a block, variable or comment.
      */
-    DELETE,
+    DELETE(6),
 
     /**
      * The event was caused by dragging a block.
      */
-    DRAG
+    DRAG(7);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    BlockEventType(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -22,61 +22,83 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible specific events for a click event.
  */
-public enum ClickEventSpecific {
+public enum ClickEventSpecific implements EventCode {
 
     /**
      * The user clicked on the green flag icon.
      */
-    GREENFLAG,
+    GREENFLAG(1),
 
     /**
      * The user clicked on the stop all icon.
      */
-    STOPALL,
+    STOPALL(2),
 
     /**
      * The user clicked on a block.
      */
-    STACKCLICK,
+    STACKCLICK(3),
 
     /**
      * The user rewound the execution slider.
      */
-    REWIND_EXECUTION_SLIDER_CHANGE,
+    REWIND_EXECUTION_SLIDER_CHANGE(4),
 
     /**
      * The user revisited the previous step in the block execution.
      */
-    STEP_BACK,
+    STEP_BACK(5),
 
     /**
      * The user jumped over an execution step.
      */
-    STEP_OVER,
+    STEP_OVER(6),
 
     /**
      * The user paused the execution of a code block.
      */
-    PAUSE_EXECUTION,
+    PAUSE_EXECUTION(7),
 
     /**
      * The user resumed the execution of a code block.
      */
-    RESUME_EXECUTION,
+    RESUME_EXECUTION(8),
 
     /**
      * The user deactivated the observation.
      */
-    DEACTIVATE_OBSERVATION,
+    DEACTIVATE_OBSERVATION(9),
 
     /**
      * The user activated the observation.
      */
-    ACTIVATE_OBSERVATION,
+    ACTIVATE_OBSERVATION(10),
 
     /**
      * The user closed the debugger.
      */
-    CLOSE_DEBUGGER
+    CLOSE_DEBUGGER(11);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    ClickEventSpecific(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -22,21 +22,43 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible event types for a click event.
  */
-public enum ClickEventType {
+public enum ClickEventType implements EventCode {
 
     /**
      * The event was caused by clicking on a button.
      */
-    BUTTON,
+    BUTTON(1),
 
     /**
      * The event was caused by clicking on an icon.
      */
-    ICON,
+    ICON(2),
 
     /**
      * The event was caused by clicking on code segments.
      */
-    CODE
+    CODE(3);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    ClickEventType(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -22,41 +22,63 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible specific events for a debugger event.
  */
-public enum DebuggerEventSpecific {
+public enum DebuggerEventSpecific implements EventCode {
 
     /**
      * The user opened the debugger on a sprite or stage.
      */
-    OPEN_DEBUGGER,
+    OPEN_DEBUGGER(1),
 
     /**
      * The user selected a sprite instance in the dropdown list of the debugger.
      */
-    SELECT_SPRITE,
+    SELECT_SPRITE(2),
 
     /**
      * The user opened the debugger for a specific block.
      */
-    OPEN_BLOCK,
+    OPEN_BLOCK(3),
 
     /**
      * The user selected a block execution in the dropdown list of the debugger.
      */
-    SELECT_BLOCK_EXECUTION,
+    SELECT_BLOCK_EXECUTION(4),
 
     /**
      * The user clicked on a block and is routed to the block-debugger.
      */
-    ROUTE_TO_BLOCK,
+    ROUTE_TO_BLOCK(5),
 
     /**
      * The user added a breakpoint.
      */
-    ADD_BREAKPOINT,
+    ADD_BREAKPOINT(6),
 
     /**
      * The user deleted a breakpoint.
      */
-    DELETE_BREAKPOINT
+    DELETE_BREAKPOINT(7);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    DebuggerEventSpecific(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -22,26 +22,48 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible event types for a debugger event.
  */
-public enum DebuggerEventType {
+public enum DebuggerEventType implements EventCode {
 
     /**
      * The event was caused by a breakpoint interaction.
      */
-    BREAKPOINT,
+    BREAKPOINT(1),
 
     /**
      * The event was caused by a block interaction in the debugger.
      */
-    BLOCK,
+    BLOCK(2),
 
     /**
      * The event was caused by selecting a sprite in the debugger.
      */
-    SPRITE,
+    SPRITE(3),
 
     /**
      * The event was caused by opening the debugger.
      */
-    TARGET
+    TARGET(4);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    DebuggerEventType(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
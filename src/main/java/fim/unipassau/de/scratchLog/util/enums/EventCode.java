@@ -0,0 +1,37 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.util.enums;
+
+/**
+ * An enum whose constants are stored in the database as compact {@code SMALLINT} codes instead of their names. The
+ * code of a constant must never change once it has been released, and the code of a removed constant must not be
+ * reused, as the stored events refer to it. New constants are added with the next free code, together with a row in
+ * the {@code event_code} lookup table.
+ */
+public interface EventCode {
+
+    /**
+     * Returns the code under which this constant is stored in the database.
+     *
+     * @return The code.
+     */
+    short getCode();
+
+}
@@ -22,26 +22,48 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible specific events for a question event.
  */
-public enum QuestionEventSpecific {
+public enum QuestionEventSpecific implements EventCode {
 
     /**
      * The user opened a question category.
      */
-    OPEN_CATEGORY,
+    OPEN_CATEGORY(1),
 
     /**
      * The user closed a question category.
      */
-    CLOSE_CATEGORY,
+    CLOSE_CATEGORY(2),
 
     /**
      * The user selected a question.
      */
-    SELECT,
+    SELECT(3),
 
     /**
      * The user rated a question.
      */
-    RATE
+    RATE(4);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    QuestionEventSpecific(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -22,16 +22,38 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible event types for a question event.
  */
-public enum QuestionEventType {
+public enum QuestionEventType implements EventCode {
 
     /**
      * The event was caused by selecting or rating a question.
      */
-    QUESTION,
+    QUESTION(1),
 
     /**
      * The event was caused by opening a question category.
      */
-    QUESTION_CATEGORY
+    QUESTION_CATEGORY(2);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    QuestionEventType(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
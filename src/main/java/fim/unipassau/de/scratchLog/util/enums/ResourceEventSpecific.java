@@ -22,41 +22,63 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible specific events for a resource event.
  */
-public enum ResourceEventSpecific {
+public enum ResourceEventSpecific implements EventCode {
 
     /**
      * The user deleted a costume or backdrop.
      */
-    DELETE_COSTUME,
+    DELETE_COSTUME(1),
 
     /**
      * The user deleted a sound.
      */
-    DELETE_SOUND,
+    DELETE_SOUND(2),
 
     /**
      * The user added a costume or backdrop.
      */
-    ADD_COSTUME,
+    ADD_COSTUME(3),
 
     /**
      * The user added a sound.
      */
-    ADD_SOUND,
+    ADD_SOUND(4),
 
     /**
      * The user renamed a costume.
      */
-    RENAME_COSTUME,
+    RENAME_COSTUME(5),
 
     /**
      * The user renamed a backdrop.
      */
-    RENAME_BACKDROP,
+    RENAME_BACKDROP(6),
 
     /**
      * The user renamed a sound.
      */
-    RENAME_SOUND
+    RENAME_SOUND(7);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    ResourceEventSpecific(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -22,21 +22,43 @@ package fim.unipassau.de.scratchLog.util.enums;
 /**
  * All possible event types for a resource event.
  */
-public enum ResourceEventType {
+public enum ResourceEventType implements EventCode {
 
     /**
      * The event was caused by a user adding a resource.
      */
-    ADD,
+    ADD(1),
 
     /**
      * The event was caused by a user renaming a resource.
      */
-    RENAME,
+    RENAME(2),
 
     /**
      * The event was caused by a user deleting a resource.
      */
-    DELETE
+    DELETE(3);
+
+    /**
+     * The code under which the event is stored in the database.
+     */
+    private final short code;
+
+    /**
+     * Constructs a new constant with the given database code.
+     *
+     * @param code The code.
+     */
+    ResourceEventType(final int code) {
+        this.code = (short) code;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public short getCode() {
+        return code;
+    }
 
 }
@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.controller;
+
+import fim.unipassau.de.scratchLog.application.exception.IncompleteDataException;
+import fim.unipassau.de.scratchLog.application.service.AnalyticsService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.NumberParser;
+import fim.unipassau.de.scratchLog.web.dto.AnalyticsDTO;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.ResponseBody;
+
+/**
+ * The controller responsible for displaying the activity counted during an experiment.
+ */
+@Controller
+@RequestMapping("/analytics")
+public class AnalyticsController {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(AnalyticsController.class);
+
+    /**
+     * The analytics service to use for retrieving the counted activity.
+     */
+    private final AnalyticsService analyticsService;
+
+    /**
+     * String corresponding to the analytics page.
+     */
+    private static final String ANALYTICS = "analytics";
+
+    /**
+     * String corresponding to the id request parameter.
+     */
+    private static final String ID = "id";
+
+    /**
+     * Constructs a new analytics controller with the given dependencies.
+     *
+     * @param analyticsService The {@link AnalyticsService} to use.
+     */
+    @Autowired
+    public AnalyticsController(final AnalyticsService analyticsService) {
+        this.analyticsService = analyticsService;
+    }
+
+    /**
+     * Returns the analytics page displaying the number of events of each kind and the number of active participants
+     * per minute as well as the most frequent block opcodes of the experiment with the given id. If the passed id is
+     * invalid, the user is redirected to the error page instead.
+     *
+     * @param id The experiment id.
+     * @param model The {@link Model} to hold the information.
+     * @return The analytics page on success, or the error page otherwise.
+     */
+    @GetMapping
+    @Secured(Constants.ROLE_ADMIN)
+    public String getAnalytics(@RequestParam(ID) final String id, final Model model) {
+        int experimentId = NumberParser.parseId(id);
+
+        if (experimentId < Constants.MIN_ID) {
+            LOGGER.error("Cannot return the analytics page for experiment with invalid id " + id + "!");
+            return Constants.ERROR;
+        }
+
+        model.addAttribute("analytics", analyticsService.getAnalytics(experimentId));
+        return ANALYTICS;
+    }
+
+    /**
+     * Returns the activity counted during the experiment with the given id.
+     *
+     * @param id The experiment id.
+     * @return The {@link AnalyticsDTO} containing the counted activity.
+     * @throws IncompleteDataException if the passed experiment id is invalid.
+     */
+    @GetMapping("/data")
+    @Secured(Constants.ROLE_ADMIN)
+    @ResponseBody
+    public AnalyticsDTO getAnalyticsData(@RequestParam(ID) final String id) {
+        int experimentId = NumberParser.parseId(id);
+
+        if (experimentId < Constants.MIN_ID) {
+            throw new IncompleteDataException("Cannot return the analytics for experiment with invalid id " + id
+                    + "!");
+        }
+
+        return analyticsService.getAnalytics(experimentId);
+    }
+
+}
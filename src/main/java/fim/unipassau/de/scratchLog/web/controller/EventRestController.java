@@ -23,15 +23,18 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
-import fim.unipassau.de.scratchLog.persistence.projection.ExperimentProjection;
 import fim.unipassau.de.scratchLog.web.dto.BlockEventDTO;
 import fim.unipassau.de.scratchLog.web.dto.ClickEventDTO;
 import fim.unipassau.de.scratchLog.web.dto.DebuggerEventDTO;
 import fim.unipassau.de.scratchLog.web.dto.EventDTO;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentProjectDTO;
 import fim.unipassau.de.scratchLog.web.dto.FileDTO;
 import fim.unipassau.de.scratchLog.web.dto.QuestionEventDTO;
 import fim.unipassau.de.scratchLog.web.dto.ResourceEventDTO;
@@ -42,8 +45,10 @@ import org.json.JSONObject;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
@@ -51,9 +56,13 @@ import java.io.IOException;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 /**
- * The REST controller receiving all the logging requests sent by the Scratch GUI and VM.
+ * The REST controller receiving all the logging requests sent by the Scratch GUI and VM. If the local event spool is
+ * enabled, the event data of verified participants is written to the spool and saved in the database later on, so the
+ * database is only queried for participants not recently verified by this instance. Requests exceeding the rate limit
+ * of a participant or the concurrency limit of the application are rejected.
  */
 @RestController
 @RequestMapping(value = "/store")
@@ -84,6 +93,16 @@ public class EventRestController {
      */
     private final ParticipantService participantService;
 
+    /**
+     * The event spool service to use to buffer the received data before it is saved.
+     */
+    private final EventSpoolService eventSpoolService;
+
+    /**
+     * The admission service to use for limiting the number of requests processed.
+     */
+    private final AdmissionService admissionService;
+
     /**
      * Constructs an event rest controller with the given dependencies.
      *
@@ -91,138 +110,114 @@ public class EventRestController {
      * @param fileService The file service to use.
      * @param experimentService The experiment service to use.
      * @param participantService The participant service to use.
+     * @param eventSpoolService The event spool service to use.
+     * @param admissionService The admission service to use.
      */
     @Autowired
     public EventRestController(final EventService eventService, final FileService fileService,
-                               final ExperimentService experimentService, final ParticipantService participantService) {
+                               final ExperimentService experimentService, final ParticipantService participantService,
+                               final EventSpoolService eventSpoolService,
+                               final AdmissionService admissionService) {
         this.eventService = eventService;
         this.fileService = fileService;
         this.experimentService = experimentService;
         this.participantService = participantService;
+        this.eventSpoolService = eventSpoolService;
+        this.admissionService = admissionService;
     }
 
     /**
      * Saves the block event data passed in the request body.
      *
      * @param data The string containing the block event data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/block")
     public void storeBlockEvent(@RequestBody final String data) {
-        BlockEventDTO blockEventDTO = createBlockEventDTO(data);
-
-        if (blockEventDTO == null || isInvalidRequest(data, blockEventDTO)) {
-            return;
-        }
-
-        eventService.saveBlockEvent(blockEventDTO);
+        storeEvent("block", data, createBlockEventDTO(data), eventService::saveBlockEvent);
     }
 
     /**
      * Saves the click event data passed in the request body.
      *
      * @param data The string containing the click event data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/click")
     public void storeClickEvent(@RequestBody final String data) {
-        ClickEventDTO clickEventDTO = createClickEventDTO(data);
-
-        if (clickEventDTO == null || isInvalidRequest(data, clickEventDTO)) {
-            return;
-        }
-
-        eventService.saveClickEvent(clickEventDTO);
+        storeEvent("click", data, createClickEventDTO(data), eventService::saveClickEvent);
     }
 
     /**
      * Saves the debugger event data passed in the request body.
      *
      * @param data The string containing the debugger event data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/debugger")
     public void storeDebuggerEvent(@RequestBody final String data) {
-        DebuggerEventDTO debuggerEventDTO = createDebuggerEventDTO(data);
-
-        if (debuggerEventDTO == null || isInvalidRequest(data, debuggerEventDTO)) {
-            return;
-        }
-
-        eventService.saveDebuggerEvent(debuggerEventDTO);
+        storeEvent("debugger", data, createDebuggerEventDTO(data), eventService::saveDebuggerEvent);
     }
 
     /**
      * Saves the question event data passed in the request body.
      *
      * @param data The string containing the question event data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/question")
     public void storeQuestionEvent(@RequestBody final String data) {
-        QuestionEventDTO questionEventDTO = createQuestionEventDTO(data);
-
-        if (questionEventDTO == null || isInvalidRequest(data, questionEventDTO)) {
-            return;
-        }
-
-        eventService.saveQuestionEvent(questionEventDTO);
+        storeEvent("question", data, createQuestionEventDTO(data), eventService::saveQuestionEvent);
     }
 
     /**
      * Saves the resource event data passed in the request body.
      *
      * @param data The string containing the resource event data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/resource")
     public void storeResourceEvent(@RequestBody final String data) {
-        ResourceEventDTO resourceEventDTO = createResourceEventDTO(data);
-
-        if (resourceEventDTO == null || isInvalidRequest(data, resourceEventDTO)) {
-            return;
-        }
-
-        eventService.saveResourceEvent(resourceEventDTO);
+        storeEvent("resource", data, createResourceEventDTO(data), eventService::saveResourceEvent);
     }
 
     /**
      * Saves the file data passed in the request body.
      *
      * @param data The string containing the file data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/file")
     public void storeFileEvent(@RequestBody final String data) {
-        FileDTO fileDTO = createFileDTO(data);
-
-        if (fileDTO == null || isInvalidRequest(data, fileDTO)) {
-            return;
-        }
-
-        fileService.saveFile(fileDTO);
+        storeEvent("file", data, createFileDTO(data), fileService::saveFile);
     }
 
     /**
      * Saves the sb3 project zip data passed in the request body.
      *
      * @param data The string containing the project data.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
      */
     @PostMapping("/zip")
     public void storeZipFile(@RequestBody final String data) {
-        Sb3ZipDTO sb3ZipDTO = createSb3ZipDTO(data);
-
-        if (sb3ZipDTO == null || isInvalidRequest(data, sb3ZipDTO)) {
-            return;
-        }
-
-        fileService.saveSb3Zip(sb3ZipDTO);
+        storeEvent("zip", data, createSb3ZipDTO(data), fileService::saveSb3Zip);
     }
 
     /**
      * Retrieves the sb3 file stored for the experiment with the id passed in the request body, if it exists. If the
      * information passed in the body could not be verified or no file was stored for the experiment, the
-     * {@link HttpServletResponse} returns an error status code instead.
+     * {@link HttpServletResponse} returns an error status code instead. The response carries an entity tag identifying
+     * the project version. If the client already holds the current version, as indicated by the given
+     * {@code If-None-Match} header, only the status {@code 304} is returned without the project content.
      *
      * @param data The request body containing the required information.
+     * @param ifNoneMatch The entity tags of the project versions cached by the client, if any.
      * @param response The servlet response.
      */
     @PostMapping("/sb3")
-    public void retrieveSb3File(@RequestBody final String data, final HttpServletResponse response) {
+    public void retrieveSb3File(@RequestBody final String data,
+                                @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false)
+                                final String ifNoneMatch, final HttpServletResponse response) {
         List<Integer> ids = checkValidRequestData(data);
 
         if (ids.isEmpty()) {
@@ -233,20 +228,22 @@ public class EventRestController {
         int experimentId = ids.get(0);
 
         try {
-            ExperimentProjection projection = experimentService.getSb3File(experimentId);
+            ExperimentProjectDTO experimentProjectDTO = experimentService.getSb3Project(experimentId);
+            response.setHeader(HttpHeaders.ETAG, experimentProjectDTO.getVersion());
+            response.setHeader(HttpHeaders.CACHE_CONTROL, "private, no-cache");
 
-            if (projection.getProject() == null) {
-                response.setStatus(HttpServletResponse.SC_NOT_FOUND);
+            if (matchesVersion(ifNoneMatch, experimentProjectDTO.getVersion())) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
                 return;
             }
 
             response.setContentType("application/zip");
-            response.setContentLength(projection.getProject().length);
+            response.setContentLength(experimentProjectDTO.getProject().length);
             response.setHeader("Content-Disposition", "attachment;filename=\"" + "sb3zip_eid_" + experimentId
                     + "\"");
             response.setStatus(HttpServletResponse.SC_OK);
             ServletOutputStream op = response.getOutputStream();
-            op.write(projection.getProject());
+            op.write(experimentProjectDTO.getProject());
             op.flush();
         } catch (NotFoundException e) {
             response.setStatus(HttpServletResponse.SC_NOT_FOUND);
@@ -297,6 +294,110 @@ public class EventRestController {
         }
     }
 
+    /**
+     * Saves the given event using the given save method, if the participant data is valid and the participant has not
+     * exceeded the rate limit for the given kind of event. The rate limit is checked for every event once the
+     * participant has been verified, whether the event is spooled or saved directly. If the local event spool is enabled, the event is written to the spool instead. In this case, the
+     * database is only queried if the participant has not recently been verified by this instance, so invalid events
+     * are never written to the spool. Every spooled event is verified against the database again once it is replayed.
+     * Otherwise, a permit of the concurrency limit is held while the event is verified and saved.
+     *
+     * @param kind The kind of the event, e.g. {@code block} or {@code file}.
+     * @param data The data passed in the request body.
+     * @param eventDTO The {@link EventDTO} created from the data, or {@code null} if the data was incomplete.
+     * @param save The method saving the event DTO.
+     * @param <T> The type of the event DTO.
+     * @throws RateLimitException if the participant or the application exceeded the rate or concurrency limit.
+     */
+    private <T extends EventDTO> void storeEvent(final String kind, final String data, final T eventDTO,
+                                                 final Consumer<T> save) {
+        if (eventDTO == null) {
+            return;
+        }
+
+        boolean verified = false;
+
+        if (eventSpoolService.isEnabled()) {
+            String secret = new JSONObject(data).optString("secret", null);
+
+            if (!participantService.isVerifiedParticipant(eventDTO.getUser(), eventDTO.getExperiment(), secret)
+                    && isInvalidLimitedRequest(data, eventDTO)) {
+                return;
+            }
+
+            verified = true;
+            admissionService.checkRate(kind, eventDTO.getUser(), eventDTO.getExperiment());
+
+            if (eventSpoolService.append(kind, data)) {
+                return;
+            }
+        }
+
+        admissionService.acquire();
+        long start = System.nanoTime();
+
+        try {
+            if (!verified) {
+                if (isInvalidRequest(data, eventDTO)) {
+                    return;
+                }
+
+                admissionService.checkRate(kind, eventDTO.getUser(), eventDTO.getExperiment());
+            }
+
+            save.accept(eventDTO);
+        } finally {
+            admissionService.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Checks, if the data passed to the REST controller should be stored while holding a permit of the concurrency
+     * limit, as the participant is verified against the database.
+     *
+     * @param data The data passed in the request body.
+     * @param eventDTO The {@link EventDTO} to check.
+     * @return {@code true} if the event should not be persisted or {@code false} otherwise.
+     * @throws RateLimitException if the application exceeded the concurrency limit.
+     */
+    private boolean isInvalidLimitedRequest(final String data, final EventDTO eventDTO) {
+        admissionService.acquire();
+        long start = System.nanoTime();
+
+        try {
+            return isInvalidRequest(data, eventDTO);
+        } finally {
+            admissionService.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Checks, whether the given {@code If-None-Match} header value contains the given entity tag or the wildcard.
+     * Weak entity tags are compared by their opaque value, as weak comparison is required for this header.
+     *
+     * @param ifNoneMatch The header value, or {@code null} if the header was not sent.
+     * @param version The entity tag of the current project version.
+     * @return {@code true} if the client already holds the current version, or {@code false} otherwise.
+     */
+    private boolean matchesVersion(final String ifNoneMatch, final String version) {
+        if (ifNoneMatch == null || ifNoneMatch.isBlank()) {
+            return false;
+        }
+
+        for (String tag : ifNoneMatch.split(",")) {
+            String trimmed = tag.trim();
+
+            if (trimmed.startsWith("W/")) {
+                trimmed = trimmed.substring(2);
+            }
+            if (trimmed.equals("*") || trimmed.equals(version)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
     /**
      * Extracts the user and experiment id as well as the user's secret from the given request data and checks if the
      * user is a valid participant in the experiment with the given secret.
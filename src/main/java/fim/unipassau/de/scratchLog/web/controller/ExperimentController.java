@@ -22,12 +22,14 @@ package fim.unipassau.de.scratchLog.web.controller;
 import com.opencsv.CSVWriter;
 import fim.unipassau.de.scratchLog.application.exception.IncompleteDataException;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.CourseService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.PageService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.SessionService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.util.ApplicationProperties;
@@ -37,7 +39,6 @@ import fim.unipassau.de.scratchLog.util.MarkdownHandler;
 import fim.unipassau.de.scratchLog.util.NumberParser;
 import fim.unipassau.de.scratchLog.util.PageUtils;
 import fim.unipassau.de.scratchLog.util.Secrets;
-import fim.unipassau.de.scratchLog.util.enums.Language;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.util.validation.StringValidator;
 import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
@@ -67,10 +68,7 @@ import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Locale;
-import java.util.Map;
 import java.util.ResourceBundle;
 
 /**
@@ -111,15 +109,20 @@ public class ExperimentController {
     private final PageService pageService;
 
     /**
-     * The mail service to use for sending emails.
+     * The notification service to use for changes of which participants are informed by email.
      */
-    private final MailService mailService;
+    private final NotificationService notificationService;
 
     /**
      * The event service to use for event management.
      */
     private final EventService eventService;
 
+    /**
+     * The session service to use for computing the sessions of the participants.
+     */
+    private final SessionService sessionService;
+
     /**
      * String corresponding to the experiment page.
      */
@@ -173,21 +176,24 @@ public class ExperimentController {
      * @param courseService The {@link CourseService} to use.
      * @param participantService The {@link ParticipantService} to use.
      * @param pageService The {@link PageService} to use.
-     * @param mailService The {@link MailService} to use.
+     * @param notificationService The {@link NotificationService} to use.
      * @param eventService The {@link EventService} to use.
+     * @param sessionService The {@link SessionService} to use.
      */
     @Autowired
     public ExperimentController(final ExperimentService experimentService, final UserService userService,
                                 final CourseService courseService, final ParticipantService participantService,
-                                final PageService pageService, final MailService mailService,
-                                final EventService eventService) {
+                                final PageService pageService,
+                                final NotificationService notificationService, final EventService eventService,
+                                final SessionService sessionService) {
         this.experimentService = experimentService;
         this.userService = userService;
         this.courseService = courseService;
         this.participantService = participantService;
         this.pageService = pageService;
-        this.mailService = mailService;
+        this.notificationService = notificationService;
         this.eventService = eventService;
+        this.sessionService = sessionService;
     }
 
     /**
@@ -409,13 +415,10 @@ public class ExperimentController {
             ExperimentDTO experimentDTO;
 
             if (status.equals("open")) {
-                experimentDTO = experimentService.changeExperimentStatus(true, experimentId);
-                List<UserDTO> userDTOS = userService.reactivateUserAccounts(experimentId);
+                experimentDTO = notificationService.openExperiment(experimentId, ApplicationProperties.MAIL_SERVER);
 
                 if (!ApplicationProperties.MAIL_SERVER) {
                     return REDIRECT_SECRET_LIST + experimentId;
-                } else {
-                    userDTOS.forEach(userDTO -> sendEmail(userDTO, id));
                 }
             } else if (status.equals("close")) {
                 experimentDTO = experimentService.changeExperimentStatus(false, experimentId);
@@ -480,18 +483,15 @@ public class ExperimentController {
             String secret = userDTO.getSecret() == null ? Secrets.generateRandomBytes(Constants.SECRET_LENGTH)
                     : userDTO.getSecret();
             userDTO.setSecret(secret);
-            UserDTO saved = userService.updateUser(userDTO);
-            participantService.saveParticipant(saved.getId(), experimentId);
-        } catch (NotFoundException e) {
+            notificationService.saveParticipant(userDTO, experimentId, ApplicationProperties.MAIL_SERVER);
+        } catch (NotFoundException | StoreException e) {
             return Constants.ERROR;
         }
 
         if (!ApplicationProperties.MAIL_SERVER) {
             return REDIRECT_SECRET + userDTO.getId() + EXPERIMENT_PARAM + experimentId;
-        } else if (sendEmail(userDTO, id)) {
-            return REDIRECT_EXPERIMENT + id;
         } else {
-            return Constants.ERROR;
+            return REDIRECT_EXPERIMENT + id;
         }
     }
 
@@ -526,8 +526,8 @@ public class ExperimentController {
     }
 
     /**
-     * Retrieves all block event, resource event, block and resource event counts, codes and experiment data for the
-     * given experiment and makes them available for download in a csv file.
+     * Retrieves all block event, resource event, block and resource event counts, codes and experiment data as well as
+     * the sessions of the participants for the given experiment and makes them available for download in a csv file.
      *
      * @param id The experiment id to search for.
      * @param httpServletResponse The servlet response returning the files.
@@ -573,6 +573,7 @@ public class ExperimentController {
             csvWriter.writeAll(resourceEventCounts);
             csvWriter.writeAll(codesData);
             csvWriter.writeAll(experimentData);
+            sessionService.getSessionData(experimentId, csvWriter::writeNext);
         } catch (IOException e) {
             LOGGER.error("Could not download csv file due to IOException!", e);
             throw new RuntimeException("Could not download csv file due to IOException!");
@@ -667,50 +668,6 @@ public class ExperimentController {
         }
     }
 
-    /**
-     * Sends an email with a participation link for the experiment with the given id to the email address of the given
-     * {@link UserDTO}.
-     *
-     * @param userDTO The user to whom the email should be sent.
-     * @param experimentId The id of the experiment in which the user is participating.
-     * @return {@code true} if the message has been sent successfully or {@code false} otherwise.
-     */
-    private boolean sendEmail(final UserDTO userDTO, final String experimentId) {
-        if (userDTO.getEmail() == null) {
-            LOGGER.error("Cannot send invitation mail to user with email null!");
-            return false;
-        }
-
-        Map<String, Object> templateModel = getTemplateModel(experimentId, userDTO.getSecret());
-        ResourceBundle userLanguage = ResourceBundle.getBundle("i18n/messages",
-                getLocaleFromLanguage(userDTO.getLanguage()));
-
-        if (!mailService.sendEmail(userDTO.getEmail(), userLanguage.getString("participant_email_subject"),
-                templateModel, "participant-email")) {
-            LOGGER.error("Could not send invitation mail to user with email " + userDTO.getEmail() + ".");
-            return false;
-        }
-
-        return true;
-    }
-
-    /**
-     * Creates a {@link Map} containing the base URL of the application and the link to the experiment with the given id
-     * and the generated secret for the user that are going to be used in the experiment invitation email template.
-     *
-     * @param id The id of the experiment.
-     * @param secret The user's secret.
-     * @return The map containing the base URL and the experiment URL.
-     */
-    private Map<String, Object> getTemplateModel(final String id, final String secret) {
-        String experimentUrl = ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH
-                + "/users/authenticate?id=" + id + "&secret=" + secret;
-        Map<String, Object> templateModel = new HashMap<>();
-        templateModel.put("baseUrl", ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH);
-        templateModel.put("secret", experimentUrl);
-        return templateModel;
-    }
-
     /**
      * Retrieves the current participant page information from the database and adds the page to the {@link Model} along
      * with the {@link ExperimentDTO} and the last page.
@@ -799,7 +756,8 @@ public class ExperimentController {
 
     /**
      * Tries to add the experiment with the given id to the course with the given id and adds all users as experiment
-     * participants who are part of that course.
+     * participants who are part of that course. Both are done in a single transaction, so the experiment is deleted
+     * again without leaving a partial enrolment behind if an error occurs.
      *
      * @param courseId The id of the course.
      * @param experimentId The id of the experiment.
@@ -808,7 +766,6 @@ public class ExperimentController {
     private boolean isErrorSavingCourseExperiment(final int courseId, final int experimentId) {
         try {
             courseService.saveCourseExperiment(courseId, experimentId);
-            participantService.saveParticipants(experimentId, courseId);
             return false;
         } catch (Exception e) {
             LOGGER.error("Could not save course experiment!", e);
@@ -817,19 +774,6 @@ public class ExperimentController {
         }
     }
 
-    /**
-     * Returns the proper {@link Locale} based on the user's preferred language settings.
-     *
-     * @param language The user's preferred language.
-     * @return The corresponding locale, or English as a default value.
-     */
-    private Locale getLocaleFromLanguage(final Language language) {
-        if (language == Language.GERMAN) {
-            return Locale.GERMAN;
-        }
-        return Locale.ENGLISH;
-    }
-
     /**
      * Checks whether the given search string respects the chosen input restrictions. If not, a corresponding error
      * message is added to the given model.
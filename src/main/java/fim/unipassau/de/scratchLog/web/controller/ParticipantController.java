@@ -20,10 +20,12 @@
 package fim.unipassau.de.scratchLog.web.controller;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.PageService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.util.ApplicationProperties;
@@ -32,7 +34,6 @@ import fim.unipassau.de.scratchLog.util.FieldErrorHandler;
 import fim.unipassau.de.scratchLog.util.MarkdownHandler;
 import fim.unipassau.de.scratchLog.util.NumberParser;
 import fim.unipassau.de.scratchLog.util.Secrets;
-import fim.unipassau.de.scratchLog.util.enums.Language;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
 import fim.unipassau.de.scratchLog.web.dto.ParticipantDTO;
@@ -58,9 +59,6 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 
 import java.time.LocalDateTime;
-import java.util.HashMap;
-import java.util.Locale;
-import java.util.Map;
 import java.util.ResourceBundle;
 
 /**
@@ -96,9 +94,14 @@ public class ParticipantController {
     private final PageService pageService;
 
     /**
-     * The mail service to use for sending emails.
+     * The notification service to use for adding participants together with their invitation mails.
      */
-    private final MailService mailService;
+    private final NotificationService notificationService;
+
+    /**
+     * The result cache service to use for invalidating the cached results of participants.
+     */
+    private final ResultCacheService resultCacheService;
 
     /**
      * String corresponding to redirecting to the experiment page.
@@ -147,17 +150,20 @@ public class ParticipantController {
      * @param userService The user service to use.
      * @param participantService The participant service to use.
      * @param pageService The page service to use.
-     * @param mailService The mail service to use.
+     * @param notificationService The notification service to use.
+     * @param resultCacheService The result cache service to use.
      */
     @Autowired
     public ParticipantController(final UserService userService, final ExperimentService experimentService,
                                  final ParticipantService participantService, final PageService pageService,
-                                 final MailService mailService) {
+                                 final NotificationService notificationService,
+                                 final ResultCacheService resultCacheService) {
         this.userService = userService;
         this.experimentService = experimentService;
         this.participantService = participantService;
         this.pageService = pageService;
-        this.mailService = mailService;
+        this.notificationService = notificationService;
+        this.resultCacheService = resultCacheService;
     }
 
     /**
@@ -250,29 +256,18 @@ public class ParticipantController {
         userDTO.setRole(Role.PARTICIPANT);
         userDTO.setSecret(secret);
         userDTO.setLastLogin(LocalDateTime.now());
-        UserDTO saved = userService.saveUser(userDTO);
+        UserDTO saved;
 
         try {
-            participantService.saveParticipant(saved.getId(), id);
-        } catch (NotFoundException e) {
+            saved = notificationService.saveParticipant(userDTO, id, ApplicationProperties.MAIL_SERVER);
+        } catch (NotFoundException | StoreException e) {
             return Constants.ERROR;
         }
 
-        String experimentUrl = ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH
-                + "/users/authenticate?id=" + id + "&secret=" + secret;
-        Map<String, Object> templateModel = new HashMap<>();
-        templateModel.put("baseUrl", ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH);
-        templateModel.put("secret", experimentUrl);
-        ResourceBundle userLanguage = ResourceBundle.getBundle("i18n/messages",
-                getLocaleFromLanguage(userDTO.getLanguage()));
-
         if (!ApplicationProperties.MAIL_SERVER) {
             return "redirect:/secret" + "?user=" + saved.getId() + EXPERIMENT_PARAM + id;
-        } else if (mailService.sendEmail(userDTO.getEmail(), userLanguage.getString("participant_email_subject"),
-                templateModel, "participant-email")) {
-            return REDIRECT_EXPERIMENT + id;
         } else {
-            return Constants.ERROR;
+            return REDIRECT_EXPERIMENT + id;
         }
     }
 
@@ -340,6 +335,7 @@ public class ParticipantController {
             }
 
             participantService.deleteParticipant(userDTO.getId(), experimentId);
+            resultCacheService.invalidateResults(userDTO.getId(), experimentId);
         } catch (NotFoundException e) {
             return Constants.ERROR;
         }
@@ -506,6 +502,7 @@ public class ParticipantController {
                 LOGGER.error("Could not reset the ending time for user " + userId + " and experiment " + experimentId);
                 return Constants.ERROR;
             } else {
+                resultCacheService.invalidateResults(userId, experimentId);
                 userDTO.setActive(true);
                 userService.updateUser(userDTO);
                 return "redirect:" + experimentDTO.getGuiURL() + USER_ID_PARAM + participantDTO.getUser()
@@ -584,18 +581,6 @@ public class ParticipantController {
         }
     }
 
-    /**
-     * Returns the proper {@link Locale} based on the user's preferred language settings.
-     *
-     * @param language The user's preferred language.
-     * @return The corresponding locale, or English as a default value.
-     */
-    private Locale getLocaleFromLanguage(final Language language) {
-        if (language == Language.GERMAN) {
-            return Locale.GERMAN;
-        }
-        return Locale.ENGLISH;
-    }
 
     /**
      * Checks, if the passed user, experiment and participant fulfill the requirements to start the experiment. If the
@@ -25,6 +25,9 @@ import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.service.EventService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
+import fim.unipassau.de.scratchLog.application.service.SessionService;
+import fim.unipassau.de.scratchLog.application.service.SnapshotDiffService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventJSONProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventProjection;
@@ -37,6 +40,7 @@ import fim.unipassau.de.scratchLog.web.dto.CodesDataDTO;
 import fim.unipassau.de.scratchLog.web.dto.EventCountDTO;
 import fim.unipassau.de.scratchLog.web.dto.FileDTO;
 import fim.unipassau.de.scratchLog.web.dto.Sb3ZipDTO;
+import fim.unipassau.de.scratchLog.web.dto.SessionDTO;
 import jakarta.servlet.http.HttpServletResponse;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -60,10 +64,15 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.Set;
 import java.util.zip.ZipEntry;
@@ -102,6 +111,21 @@ public class ResultController {
      */
     private final FileService fileService;
 
+    /**
+     * The result cache service to use for caching the results of finished participants.
+     */
+    private final ResultCacheService resultCacheService;
+
+    /**
+     * The snapshot diff service to use for computing the block changes between json snapshots.
+     */
+    private final SnapshotDiffService snapshotDiffService;
+
+    /**
+     * The session service to use for computing the sessions of the participants.
+     */
+    private final SessionService sessionService;
+
     /**
      * String corresponding to the result page.
      */
@@ -122,6 +146,31 @@ public class ResultController {
      */
     private static final String EXPERIMENT = "experiment";
 
+    /**
+     * String corresponding to the time request parameter.
+     */
+    private static final String TIME = "time";
+
+    /**
+     * String corresponding to the format request parameter.
+     */
+    private static final String FORMAT = "format";
+
+    /**
+     * String corresponding to the json project format.
+     */
+    private static final String JSON = "json";
+
+    /**
+     * String corresponding to the xml project format.
+     */
+    private static final String XML = "xml";
+
+    /**
+     * String corresponding to the sb3 project format.
+     */
+    private static final String SB3 = "sb3";
+
     /**
      * Constructs a new result controller with the given dependencies.
      *
@@ -129,14 +178,23 @@ public class ResultController {
      * @param experimentService The {@link ExperimentService} to use.
      * @param eventService The {@link EventService} to use.
      * @param fileService The {@link FileService} to use.
+     * @param resultCacheService The {@link ResultCacheService} to use.
+     * @param snapshotDiffService The {@link SnapshotDiffService} to use.
+     * @param sessionService The {@link SessionService} to use.
      */
     @Autowired
     public ResultController(final UserService userService, final ExperimentService experimentService,
-                            final EventService eventService, final FileService fileService) {
+                            final EventService eventService, final FileService fileService,
+                            final ResultCacheService resultCacheService,
+                            final SnapshotDiffService snapshotDiffService,
+                            final SessionService sessionService) {
         this.userService = userService;
         this.experimentService = experimentService;
         this.eventService = eventService;
         this.fileService = fileService;
+        this.resultCacheService = resultCacheService;
+        this.snapshotDiffService = snapshotDiffService;
+        this.sessionService = sessionService;
     }
 
     /**
@@ -179,12 +237,14 @@ public class ResultController {
             List<FileProjection> files = fileService.getFiles(userId, experimentId);
             List<Integer> zipIds = fileService.getZipIds(userId, experimentId);
             CodesDataDTO codesDataDTO = eventService.getCodesData(userId, experimentId);
+            SessionDTO sessionDTO = sessionService.getSession(userId, experimentId);
 
             model.addAttribute("codeCount", Math.max(codesDataDTO.getCount(), 0));
             model.addAttribute("pageSize", Constants.PAGE_SIZE);
             model.addAttribute("blockEvents", blockEvents);
             model.addAttribute("clickEvents", clickEvents);
             model.addAttribute("resourceEvents", resourceEvents);
+            model.addAttribute("session", sessionDTO);
             model.addAttribute("files", files);
             model.addAttribute("zips", zipIds);
             model.addAttribute("user", userId);
@@ -357,7 +417,8 @@ public class ResultController {
 
     /**
      * Retrieves all the xml codes that were saved for the given user during the given experiment and makes them
-     * available for download in a zip file.
+     * available for download in a zip file. If the user has already finished the experiment, the generated file is
+     * cached and returned from the cache on subsequent requests.
      *
      * @param experiment The experiment id to search for.
      * @param user The user id to search for.
@@ -383,18 +444,18 @@ public class ResultController {
                     + " or experiment with invalid id " + experimentId + "!");
         }
 
-        try (ZipOutputStream zos = getZipOutputStream(httpServletResponse, userId, experimentId, "xml")) {
-            List<BlockEventXMLProjection> xml = eventService.getXMLForUser(userId, experimentId);
-
-            for (BlockEventXMLProjection projection : xml) {
-                ZipEntry entry = new ZipEntry("xml" + projection.getId() + ".xml");
-                entry.setSize(projection.getXml().length());
-                zos.putNextEntry(entry);
-                zos.write(projection.getXml().getBytes(StandardCharsets.UTF_8));
-                zos.closeEntry();
-            }
+        try {
+            writeResult(httpServletResponse, userId, experimentId, "xml", "xmls", zos -> {
+                List<BlockEventXMLProjection> xml = eventService.getXMLForUser(userId, experimentId);
 
-            zos.finish();
+                for (BlockEventXMLProjection projection : xml) {
+                    ZipEntry entry = new ZipEntry("xml" + projection.getId() + ".xml");
+                    entry.setSize(projection.getXml().length());
+                    zos.putNextEntry(entry);
+                    zos.write(projection.getXml().getBytes(StandardCharsets.UTF_8));
+                    zos.closeEntry();
+                }
+            });
         } catch (IOException e) {
             throw new RuntimeException("Could not download xml files due to IOException!", e);
         }
@@ -402,7 +463,8 @@ public class ResultController {
 
     /**
      * Retrieves all the json strings that were saved for the given user during the given experiment and makes them
-     * available for download in a zip file.
+     * available for download in a zip file. If the user has already finished the experiment, the generated file is
+     * cached and returned from the cache on subsequent requests.
      *
      * @param experiment The experiment id to search for.
      * @param user The user id to search for.
@@ -428,24 +490,69 @@ public class ResultController {
                     + " or experiment with invalid id " + experimentId + "!");
         }
 
-        try (ZipOutputStream zos = getZipOutputStream(httpServletResponse, userId, experimentId, "json")) {
-            List<BlockEventJSONProjection> json = eventService.getJsonForUser(userId, experimentId);
-            writeCSVData(zos, json, Optional.empty(), false);
-
-            for (BlockEventJSONProjection projection : json) {
-                ZipEntry entry = new ZipEntry("json" + projection.getId() + ".json");
-                entry.setSize(projection.getCode().length());
-                zos.putNextEntry(entry);
-                zos.write(projection.getCode().getBytes(StandardCharsets.UTF_8));
-                zos.closeEntry();
-            }
+        try {
+            writeResult(httpServletResponse, userId, experimentId, "json", "jsons", zos -> {
+                List<BlockEventJSONProjection> json = eventService.getJsonForUser(userId, experimentId);
+                writeCSVData(zos, json, Optional.empty(), false);
 
-            zos.finish();
+                for (BlockEventJSONProjection projection : json) {
+                    ZipEntry entry = new ZipEntry("json" + projection.getId() + ".json");
+                    entry.setSize(projection.getCode().length());
+                    zos.putNextEntry(entry);
+                    zos.write(projection.getCode().getBytes(StandardCharsets.UTF_8));
+                    zos.closeEntry();
+                }
+            });
         } catch (IOException e) {
             throw new RuntimeException("Could not download json files due to IOException!", e);
         }
     }
 
+    /**
+     * Computes the block changes between all consecutive json snapshots saved for the given user during the given
+     * experiment and makes them available for download as an edit log in a csv file. For each change, the block event
+     * holding the snapshot, the sprite, the type of the change as well as the id and opcode of the block are written.
+     * The rows are written while the snapshots are compared, so the snapshots are never held in memory at once.
+     *
+     * @param experiment The experiment id to search for.
+     * @param user The user id to search for.
+     * @param httpServletResponse The servlet response returning the file.
+     * @throws IncompleteDataException if the passed user or experiment ids are invalid.
+     * @throws RuntimeException if an {@link IOException} occurs.
+     */
+    @GetMapping("/diffs")
+    @Secured(Constants.ROLE_ADMIN)
+    public void downloadDiffs(@RequestParam(EXPERIMENT) final String experiment,
+                              @RequestParam(USER) final String user, final HttpServletResponse httpServletResponse) {
+        if (user == null || experiment == null) {
+            throw new IncompleteDataException("Cannot download block changes for user with id null or experiment "
+                    + "with id null!");
+        }
+
+        int userId = NumberParser.parseNumber(user);
+        int experimentId = NumberParser.parseNumber(experiment);
+
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IncompleteDataException("Cannot download block changes for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+
+        try {
+            httpServletResponse.setContentType("text/csv");
+            httpServletResponse.setHeader("Content-Disposition", "attachment;filename=diffs_user" + userId
+                    + "_experiment" + experimentId + ".csv");
+            httpServletResponse.setStatus(HttpServletResponse.SC_OK);
+            CSVWriter csvWriter = new CSVWriter(httpServletResponse.getWriter());
+            csvWriter.writeNext(new String[]{"id", "date", "event", "sprite", "change", "block", "opcode"});
+            snapshotDiffService.diffSnapshots(userId, experimentId, diff -> csvWriter.writeNext(new String[]{
+                    String.valueOf(diff.getEventId()), String.valueOf(diff.getDate()), diff.getEvent(),
+                    diff.getSprite(), diff.getType().toString(), diff.getBlock(), diff.getOpcode()}));
+            csvWriter.flush();
+        } catch (IOException e) {
+            throw new RuntimeException("Could not download block changes due to IOException!", e);
+        }
+    }
+
     /**
      * Loads a list of {@link BlockEventProjection}s for the given page number, user and experiment from the
      * database.
@@ -491,7 +598,9 @@ public class ResultController {
      * in a zip file as a project.json file together with all costumes and sounds present in the experiment project file
      * as well as all files saved for the user during the experiment that were not saved as zip files, meaning they are
      * not resources that can be loaded from the Scratch library. The resulting sb3 zip file is then written into
-     * another zip file made available for download containing all the created sb3 files.
+     * another zip file made available for download containing all the created sb3 files. If the user has already
+     * finished the experiment, the generated file is cached for the given parameters and returned from the cache on
+     * subsequent requests.
      *
      * @param experiment The experiment id to search for.
      * @param user The user id to search for.
@@ -538,27 +647,254 @@ public class ResultController {
                     + " or experiment with invalid id " + experiment + "!");
         }
 
-        ExperimentProjection projection = experimentService.getSb3File(experimentId);
-        List<FileDTO> fileDTOS = fileService.getFileDTOs(userId, experimentId);
-        Optional<Sb3ZipDTO> finalProject = fileService.findFinalProject(userId, experimentId);
-        List<BlockEventJSONProjection> jsons = filterJsons(steps, startPosition, endPosition, userId, experimentId,
-                finalProject);
+        String parameters = "sb3s_" + steps + "_" + startPosition + "_" + endPosition + "_" + includeFinalProject;
+        int stepInterval = steps;
+        int firstPosition = startPosition;
+        int lastPosition = endPosition;
+        boolean includeFinal = includeFinalProject;
 
-        try (ZipOutputStream zos = getZipOutputStream(httpServletResponse, userId, experimentId, "zip")) {
-            writeCSVData(zos, jsons, finalProject, includeFinalProject);
+        try {
+            writeResult(httpServletResponse, userId, experimentId, "zip", parameters, zos -> {
+                ExperimentProjection projection = experimentService.getSb3File(experimentId);
+                List<FileDTO> fileDTOS = fileService.getFileDTOs(userId, experimentId);
+                Optional<Sb3ZipDTO> finalProject = fileService.findFinalProject(userId, experimentId);
+                List<BlockEventJSONProjection> jsons = filterJsons(stepInterval, firstPosition, lastPosition, userId,
+                        experimentId, finalProject);
+                writeCSVData(zos, jsons, finalProject, includeFinal);
+
+                for (int i = 0; i < jsons.size(); i++) {
+                    createSb3File(jsons.get(i), zos, i, projection, fileDTOS);
+                }
 
-            for (int i = 0; i < jsons.size(); i++) {
-                createSb3File(jsons.get(i), zos, i, projection, fileDTOS);
-            }
+                if (finalProject.isPresent() && includeFinal) {
+                    writeFinalProjectData(zos, finalProject.get());
+                }
+            });
+        } catch (IOException e) {
+            throw new RuntimeException("Could not generate zip file due to IOException!", e);
+        }
+    }
+
+    /**
+     * Returns the project of the given user during the given experiment as it was at the given time, i.e. the code of
+     * the latest block event saved at or before that time. Depending on the format, the json code, the xml code, or a
+     * sb3 file generated from the json code is returned. The code is retrieved with a single index lookup, so the
+     * other json files saved for the user do not have to be loaded.
+     *
+     * @param experiment The experiment id to search for.
+     * @param user The user id to search for.
+     * @param time The time in ISO-8601 format, e.g. 2023-05-02T10:15:30.
+     * @param format The format of the project, either json, xml or sb3. Defaults to json.
+     * @param httpServletResponse The servlet response returning the project.
+     * @throws IncompleteDataException if any of the passed parameters are invalid.
+     * @throws RuntimeException if an {@link IOException} occurs.
+     */
+    @GetMapping("/project")
+    @Secured(Constants.ROLE_ADMIN)
+    public void downloadProject(@RequestParam(EXPERIMENT) final String experiment,
+                                @RequestParam(USER) final String user, @RequestParam(TIME) final String time,
+                                @RequestParam(value = FORMAT, required = false) final String format,
+                                final HttpServletResponse httpServletResponse) {
+        if (user == null || experiment == null || time == null) {
+            throw new IncompleteDataException("Cannot download project for user, experiment or time null!");
+        }
+
+        int userId = NumberParser.parseNumber(user);
+        int experimentId = NumberParser.parseNumber(experiment);
+        String projectFormat = getProjectFormat(format);
+        List<LocalDateTime> dates = parseTimes(List.of(time));
 
-            if (finalProject.isPresent() && includeFinalProject) {
-                writeFinalProjectData(zos, finalProject.get());
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IncompleteDataException("Cannot download project for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+
+        String name = projectFormat + "_user" + userId + "_experiment" + experimentId + "_";
+
+        try {
+            if (projectFormat.equals(XML)) {
+                BlockEventXMLProjection xml = eventService.getXmlAt(userId, experimentId, dates).get(dates.get(0));
+                writeProjectFile(httpServletResponse, "application/xml", name + xml.getId() + ".xml",
+                        xml.getXml().getBytes(StandardCharsets.UTF_8));
+            } else if (projectFormat.equals(SB3)) {
+                BlockEventJSONProjection json = eventService.getJsonAt(userId, experimentId, dates).get(dates.get(0));
+                byte[] sb3 = createSb3Data(json.getCode(), experimentService.getSb3File(experimentId),
+                        fileService.getFileDTOs(userId, experimentId));
+                writeProjectFile(httpServletResponse, "application/zip", name + json.getId() + ".sb3", sb3);
+            } else {
+                BlockEventJSONProjection json = eventService.getJsonAt(userId, experimentId, dates).get(dates.get(0));
+                writeProjectFile(httpServletResponse, "application/json", name + json.getId() + ".json",
+                        json.getCode().getBytes(StandardCharsets.UTF_8));
             }
+        } catch (IOException e) {
+            throw new RuntimeException("Could not download project due to IOException!", e);
+        }
+    }
 
-            zos.finish();
+    /**
+     * Returns the projects of the given user during the given experiment as they were at each of the given times in a
+     * zip file. Every project is retrieved with a single index lookup as in
+     * {@link #downloadProject(String, String, String, String, HttpServletResponse)}. The name of each zip entry
+     * contains the requested time and the id of the block event holding the code. Times before the first code saved
+     * for the user are left out.
+     *
+     * @param experiment The experiment id to search for.
+     * @param user The user id to search for.
+     * @param times The times in ISO-8601 format, e.g. 2023-05-02T10:15:30.
+     * @param format The format of the projects, either json, xml or sb3. Defaults to json.
+     * @param httpServletResponse The servlet response returning the projects.
+     * @throws IncompleteDataException if any of the passed parameters are invalid.
+     * @throws RuntimeException if an {@link IOException} occurs.
+     */
+    @GetMapping("/projects")
+    @Secured(Constants.ROLE_ADMIN)
+    public void downloadProjects(@RequestParam(EXPERIMENT) final String experiment,
+                                 @RequestParam(USER) final String user, @RequestParam(TIME) final List<String> times,
+                                 @RequestParam(value = FORMAT, required = false) final String format,
+                                 final HttpServletResponse httpServletResponse) {
+        if (user == null || experiment == null || times == null) {
+            throw new IncompleteDataException("Cannot download projects for user, experiment or times null!");
+        } else if (times.size() > Constants.MAX_PROJECT_TIMES) {
+            throw new IncompleteDataException("Cannot download projects for more than " + Constants.MAX_PROJECT_TIMES
+                    + " times at once!");
+        }
+
+        int userId = NumberParser.parseNumber(user);
+        int experimentId = NumberParser.parseNumber(experiment);
+        String projectFormat = getProjectFormat(format);
+        List<LocalDateTime> dates = parseTimes(times);
+
+        if (userId < Constants.MIN_ID || experimentId < Constants.MIN_ID) {
+            throw new IncompleteDataException("Cannot download projects for user with invalid id " + userId
+                    + " or experiment with invalid id " + experimentId + "!");
+        }
+
+        try {
+            if (projectFormat.equals(XML)) {
+                Map<LocalDateTime, BlockEventXMLProjection> xml = eventService.getXmlAt(userId, experimentId, dates);
+
+                try (ZipOutputStream zos = getZipOutputStream(httpServletResponse, userId, experimentId,
+                        "projects_" + XML)) {
+                    for (Map.Entry<LocalDateTime, BlockEventXMLProjection> entry : xml.entrySet()) {
+                        writeProjectEntry(zos, getProjectEntryName(XML, entry.getKey(), entry.getValue().getId()),
+                                entry.getValue().getXml().getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    zos.finish();
+                }
+            } else {
+                Map<LocalDateTime, BlockEventJSONProjection> json = eventService.getJsonAt(userId, experimentId,
+                        dates);
+                boolean sb3 = projectFormat.equals(SB3);
+                ExperimentProjection projection = sb3 ? experimentService.getSb3File(experimentId) : null;
+                List<FileDTO> fileDTOS = sb3 ? fileService.getFileDTOs(userId, experimentId) : List.of();
+
+                try (ZipOutputStream zos = getZipOutputStream(httpServletResponse, userId, experimentId,
+                        "projects_" + projectFormat)) {
+                    for (Map.Entry<LocalDateTime, BlockEventJSONProjection> entry : json.entrySet()) {
+                        String code = entry.getValue().getCode();
+                        writeProjectEntry(zos, getProjectEntryName(projectFormat, entry.getKey(),
+                                entry.getValue().getId()), sb3 ? createSb3Data(code, projection, fileDTOS)
+                                : code.getBytes(StandardCharsets.UTF_8));
+                    }
+
+                    zos.finish();
+                }
+            }
         } catch (IOException e) {
-            throw new RuntimeException("Could not generate zip file due to IOException!", e);
+            throw new RuntimeException("Could not download projects due to IOException!", e);
+        }
+    }
+
+    /**
+     * Checks, whether the given project format is valid and returns it, or the json format, if no format is given.
+     *
+     * @param format The requested format.
+     * @return The project format.
+     * @throws IncompleteDataException if the format is invalid.
+     */
+    private String getProjectFormat(final String format) {
+        if (format == null) {
+            return JSON;
+        } else if (!format.equals(JSON) && !format.equals(XML) && !format.equals(SB3)) {
+            throw new IncompleteDataException("Cannot download project in invalid format " + format + "!");
         }
+
+        return format;
+    }
+
+    /**
+     * Parses the given times in ISO-8601 format.
+     *
+     * @param times The string representations of the times.
+     * @return The parsed times.
+     * @throws IncompleteDataException if no times are given or any of the times are invalid.
+     */
+    private List<LocalDateTime> parseTimes(final List<String> times) {
+        if (times.isEmpty()) {
+            throw new IncompleteDataException("Cannot download project without any times!");
+        }
+
+        List<LocalDateTime> dates = new ArrayList<>();
+
+        for (String time : times) {
+            try {
+                dates.add(LocalDateTime.parse(time));
+            } catch (DateTimeParseException e) {
+                throw new IncompleteDataException("Cannot download project for invalid time " + time + "!", e);
+            }
+        }
+
+        return dates;
+    }
+
+    /**
+     * Returns the name of the zip entry for a project retrieved for the given time.
+     *
+     * @param format The format of the project.
+     * @param date The time for which the project was retrieved.
+     * @param id The id of the block event holding the code.
+     * @return The name of the zip entry.
+     */
+    private String getProjectEntryName(final String format, final LocalDateTime date, final int id) {
+        String fileEnding = format.equals(SB3) ? ".sb3" : "." + format;
+        return format + "_" + date.toString().replace(':', '-') + "_" + id + fileEnding;
+    }
+
+    /**
+     * Writes the given project data as a zip entry with the given name.
+     *
+     * @param zos The {@link ZipOutputStream} in which the project should be written.
+     * @param name The name of the zip entry.
+     * @param content The project data.
+     * @throws IOException if the data could not be written correctly.
+     */
+    private void writeProjectEntry(final ZipOutputStream zos, final String name, final byte[] content)
+            throws IOException {
+        ZipEntry entry = new ZipEntry(name);
+        entry.setSize(content.length);
+        zos.putNextEntry(entry);
+        zos.write(content);
+        zos.closeEntry();
+    }
+
+    /**
+     * Writes the given project file to the {@link HttpServletResponse} output stream and sets the content type, header
+     * and status of the servlet response accordingly.
+     *
+     * @param httpServletResponse The servlet response.
+     * @param contentType The content type of the file.
+     * @param filename The name of the file.
+     * @param content The content of the file.
+     * @throws IOException if the content could not be written correctly.
+     */
+    private void writeProjectFile(final HttpServletResponse httpServletResponse, final String contentType,
+                                  final String filename, final byte[] content) throws IOException {
+        httpServletResponse.setContentType(contentType);
+        httpServletResponse.setHeader("Content-Disposition", "attachment;filename=" + filename);
+        httpServletResponse.setStatus(HttpServletResponse.SC_OK);
+        httpServletResponse.getOutputStream().write(content);
+        httpServletResponse.getOutputStream().flush();
     }
 
     /**
@@ -657,6 +993,24 @@ public class ResultController {
      */
     private void createSb3File(final BlockEventJSONProjection json, final ZipOutputStream zos, final int counter,
                                final ExperimentProjection projection, final List<FileDTO> fileDTOS) throws IOException {
+        ZipEntry createdZip = new ZipEntry("project_" + json.getId() + "_" + counter + ".sb3");
+        zos.putNextEntry(createdZip);
+        zos.write(createSb3Data(json.getCode(), projection, fileDTOS));
+        zos.closeEntry();
+    }
+
+    /**
+     * Creates the content of a sb3 file for the given json code. Beside the json itself, all saved files and the
+     * initial project data are included in the sb3 file.
+     *
+     * @param json The json code to be used.
+     * @param projection The initial experiment project data.
+     * @param fileDTOS The saved files.
+     * @return The content of the sb3 file.
+     * @throws IOException if the data could not be written correctly.
+     */
+    private byte[] createSb3Data(final String json, final ExperimentProjection projection,
+                                 final List<FileDTO> fileDTOS) throws IOException {
         ByteArrayOutputStream innerZip = new ByteArrayOutputStream();
 
         try (ZipOutputStream innerZos = new ZipOutputStream(new BufferedOutputStream(innerZip))) {
@@ -670,16 +1024,13 @@ public class ResultController {
                 writeFileData(innerZos, fileDTO, fileNames);
             }
 
-            byte[] code = json.getCode().getBytes(StandardCharsets.UTF_8);
+            byte[] code = json.getBytes(StandardCharsets.UTF_8);
             writeJsonData(innerZos, code);
 
             innerZos.flush();
         }
 
-        ZipEntry createdZip = new ZipEntry("project_" + json.getId() + "_" + counter + ".sb3");
-        zos.putNextEntry(createdZip);
-        zos.write(innerZip.toByteArray());
-        zos.closeEntry();
+        return innerZip.toByteArray();
     }
 
     /**
@@ -694,12 +1045,105 @@ public class ResultController {
      */
     private ZipOutputStream getZipOutputStream(final HttpServletResponse httpServletResponse, final int userId,
                                                final int experimentId, final String filetype) throws IOException {
+        setZipResponseHeaders(httpServletResponse, userId, experimentId, filetype);
+        return new ZipOutputStream(httpServletResponse.getOutputStream());
+    }
+
+    /**
+     * Returns the zip file with the given export parameters generated for the given user during the given experiment.
+     * If the file has already been cached, it is copied from the cache to the {@link HttpServletResponse} output
+     * stream. Otherwise, it is generated by the given writer. If the user has not yet finished the experiment, the
+     * file is streamed directly to the response. Otherwise, it is written to a temporary file on disk, copied to the
+     * response and added to the cache afterwards, so the file is never held in memory as a whole.
+     *
+     * @param httpServletResponse The servlet response.
+     * @param userId The user id of the participant.
+     * @param experimentId The experiment id of the participant.
+     * @param filetype The filetype to use to name the zip file.
+     * @param parameters The export parameters under which the file is cached.
+     * @param writer The {@link ZipWriter} writing the entries of the zip file.
+     * @throws IOException if the file could not be generated or written correctly.
+     */
+    private void writeResult(final HttpServletResponse httpServletResponse, final int userId, final int experimentId,
+                             final String filetype, final String parameters, final ZipWriter writer)
+            throws IOException {
+        Optional<Path> cachedResult = resultCacheService.findResult(userId, experimentId, parameters);
+
+        if (cachedResult.isPresent() && writeCachedResult(httpServletResponse, userId, experimentId, filetype,
+                cachedResult.get())) {
+            return;
+        }
+
+        long generation = resultCacheService.getGeneration();
+
+        if (!resultCacheService.isFinished(userId, experimentId)) {
+            try (ZipOutputStream zos = getZipOutputStream(httpServletResponse, userId, experimentId, filetype)) {
+                writer.write(zos);
+                zos.finish();
+            }
+
+            return;
+        }
+
+        Path file = resultCacheService.createTempFile();
+
+        try {
+            try (ZipOutputStream zos = new ZipOutputStream(new BufferedOutputStream(Files.newOutputStream(file)))) {
+                writer.write(zos);
+                zos.finish();
+            }
+
+            writeCachedResult(httpServletResponse, userId, experimentId, filetype, file);
+            resultCacheService.saveResult(userId, experimentId, parameters, file, generation);
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    /**
+     * Copies the zip file with the given path to the {@link HttpServletResponse} output stream and sets the content
+     * type, header and status of the servlet response accordingly. If the file has been evicted from the cache in the
+     * meantime, nothing is written.
+     *
+     * @param httpServletResponse The servlet response.
+     * @param userId The user id to use to name the zip file.
+     * @param experimentId The experiment id to use to name the zip file.
+     * @param filetype The filetype to use to name the zip file.
+     * @param path The path of the zip file.
+     * @return {@code true} if the file has been written, or {@code false} if it no longer exists.
+     * @throws IOException if the file could not be written correctly.
+     */
+    private boolean writeCachedResult(final HttpServletResponse httpServletResponse, final int userId,
+                                      final int experimentId, final String filetype, final Path path)
+            throws IOException {
+        setZipResponseHeaders(httpServletResponse, userId, experimentId, filetype);
+
+        try {
+            Files.copy(path, httpServletResponse.getOutputStream());
+        } catch (NoSuchFileException e) {
+            LOGGER.debug("Cached result file " + path + " has been evicted before it could be read.");
+            return false;
+        }
+
+        httpServletResponse.getOutputStream().flush();
+        return true;
+    }
+
+    /**
+     * Sets the content type, header and status of the given {@link HttpServletResponse} for returning a zip file.
+     *
+     * @param httpServletResponse The servlet response.
+     * @param userId The user id to use to name the zip file.
+     * @param experimentId The experiment id to use to name the zip file.
+     * @param filetype The filetype to use to name the zip file.
+     */
+    private void setZipResponseHeaders(final HttpServletResponse httpServletResponse, final int userId,
+                                       final int experimentId, final String filetype) {
         String fileEnding = filetype.equals("sb3") ? ".sb3" : ".zip";
         httpServletResponse.setContentType("application/zip");
         httpServletResponse.setHeader("Content-Disposition", "attachment;filename=" + filetype + "_user" + userId
                 + "_experiment" + experimentId + fileEnding);
         httpServletResponse.setStatus(HttpServletResponse.SC_OK);
-        return new ZipOutputStream(httpServletResponse.getOutputStream());
     }
 
     /**
@@ -923,4 +1367,20 @@ public class ResultController {
         }
     }
 
+    /**
+     * Writes the entries of a generated zip file.
+     */
+    @FunctionalInterface
+    private interface ZipWriter {
+
+        /**
+         * Writes the entries of the zip file to the given {@link ZipOutputStream}.
+         *
+         * @param zos The {@link ZipOutputStream} in which the entries are to be written.
+         * @throws IOException if the entries could not be written.
+         */
+        void write(ZipOutputStream zos) throws IOException;
+
+    }
+
 }
@@ -24,6 +24,7 @@ import fim.unipassau.de.scratchLog.persistence.projection.CourseTableProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentTableProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
 import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.SearchResultDTO;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -71,8 +72,9 @@ public class SearchController {
 
     /**
      * Retrieves the user, experiment and course results for the given query string with a maximum amount of results
-     * equal to the default page size. If the passed parameters are invalid, the user is redirected to the error page
-     * instead. If the query string is blank, no results are retrieved.
+     * equal to the default page size along with the total number of results in each category. If the passed parameters
+     * are invalid, the user is redirected to the error page instead. If the query string is blank, no results are
+     * retrieved.
      *
      * @param query The query string.
      * @param model The model to add the information to.
@@ -89,14 +91,9 @@ public class SearchController {
         if (query.trim().isBlank()) {
             addModelInfo(new ArrayList<>(), new ArrayList<>(), new ArrayList<>(), 0, 0, 0, "", model);
         } else {
-            int limit = Constants.PAGE_SIZE;
-            int userCount = searchService.getUserCount(query);
-            int experimentCount = searchService.getExperimentCount(query);
-            int courseCount = searchService.getCourseCount(query);
-            List<UserProjection> users = searchService.getUserList(query, limit);
-            List<ExperimentTableProjection> experiments = searchService.getExperimentList(query, limit);
-            List<CourseTableProjection> courses = searchService.getCourseList(query, limit);
-            addModelInfo(users, experiments, courses, userCount, experimentCount, courseCount, query, model);
+            SearchResultDTO results = searchService.getSearchResults(query);
+            addModelInfo(results.getUsers(), results.getExperiments(), results.getCourses(), results.getUserCount(),
+                    results.getExperimentCount(), results.getCourseCount(), query, model);
         }
 
         return SEARCH;
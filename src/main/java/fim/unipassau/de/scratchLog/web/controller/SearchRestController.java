@@ -55,9 +55,9 @@ public class SearchRestController {
     private static final String ID = "id";
 
     /**
-     * String corresponding to the page request parameter.
+     * String corresponding to the request parameter holding the id of the last result already shown.
      */
-    private static final String PAGE = "page";
+    private static final String LAST = "last";
 
     /**
      * Constructs a new search REST controller with the given dependencies.
@@ -88,65 +88,62 @@ public class SearchRestController {
 
     /**
      * Retrieves a list of additional user results for the search page where the username or email contain the search
-     * query and the given page parameter is used to compute the offset of results to be retrieved from the database. If
-     * the passed parameters are invalid, an empty list is returned instead.
+     * query and the id is greater than the given id of the last user result already shown. If the passed parameters are
+     * invalid, an empty list is returned instead.
      *
      * @param query The username or email to search for.
-     * @param page The current user result page used to compute the offset.
+     * @param last The id of the last user result already shown.
      * @return A list of matching suggestions, or an empty list, if no entries could be found.
      */
     @GetMapping("/users")
     @Secured(Constants.ROLE_ADMIN)
     public List<String[]> getMoreUsers(@RequestParam(QUERY) final String query,
-                                       @RequestParam(PAGE) final String page) {
-        if (invalidParams(query, page)) {
+                                       @RequestParam(LAST) final String last) {
+        if (invalidParams(query, last)) {
             return new ArrayList<>();
         }
 
-        int pageNumber = NumberParser.parseNumber(page);
-        return searchService.getNextUsers(query, pageNumber);
+        return searchService.getNextUsers(query, NumberParser.parseNumber(last));
     }
 
     /**
      * Retrieves a list of additional experiment results for the search page where the title contains the search query
-     * and the given page parameter is used to compute the offset of results to be retrieved from the database. If the
-     * passed parameters are invalid, an empty list is returned instead.
+     * and the id is greater than the given id of the last experiment result already shown. If the passed parameters are
+     * invalid, an empty list is returned instead.
      *
      * @param query The title to search for.
-     * @param page The current experiment result page used to compute the offset.
+     * @param last The id of the last experiment result already shown.
      * @return A list of matching suggestions, or an empty list, if no entries could be found.
      */
     @GetMapping("/experiments")
     @Secured(Constants.ROLE_ADMIN)
     public List<String[]> getMoreExperiments(@RequestParam(QUERY) final String query,
-                                             @RequestParam(PAGE) final String page) {
-        if (invalidParams(query, page)) {
+                                             @RequestParam(LAST) final String last) {
+        if (invalidParams(query, last)) {
             return new ArrayList<>();
         }
 
-        int pageNumber = NumberParser.parseNumber(page);
-        return searchService.getNextExperiments(query, pageNumber);
+        return searchService.getNextExperiments(query, NumberParser.parseNumber(last));
     }
 
     /**
      * Retrieves a list of additional course results for the search page where the title contains the search query
-     * and the given page parameter is used to compute the offset of results to be retrieved from the database. If the
-     * passed parameters are invalid, an empty list is returned instead.
+     * and the id is greater than the given id of the last course result already shown. If the passed parameters are
+     * invalid, an empty list is returned instead.
      *
      * @param query The title to search for.
-     * @param page The current course result page used to compute the offset.
+     * @param last The id of the last course result already shown.
      * @return A list of matching suggestions, or an empty list, if no entries could be found.
      */
     @GetMapping("/courses")
     @Secured(Constants.ROLE_ADMIN)
     public List<String[]> getMoreCourses(@RequestParam(QUERY) final String query,
-                                         @RequestParam(PAGE) final String page) {
-        if (invalidParams(query, page)) {
+                                         @RequestParam(LAST) final String last) {
+        if (invalidParams(query, last)) {
             return new ArrayList<>();
         }
 
-        int pageNumber = NumberParser.parseNumber(page);
-        return searchService.getNextCourses(query, pageNumber);
+        return searchService.getNextCourses(query, NumberParser.parseNumber(last));
     }
 
     /**
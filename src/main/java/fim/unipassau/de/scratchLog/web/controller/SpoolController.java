@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.controller;
+
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/**
+ * The controller responsible for displaying the state of the local event spool and the admission control of the
+ * event endpoints.
+ */
+@Controller
+@RequestMapping("/spool")
+public class SpoolController {
+
+    /**
+     * The event spool service to use for retrieving the spool state.
+     */
+    private final EventSpoolService eventSpoolService;
+
+    /**
+     * The admission service to use for retrieving the admission control state.
+     */
+    private final AdmissionService admissionService;
+
+    /**
+     * String corresponding to the spool page.
+     */
+    private static final String SPOOL = "spool";
+
+    /**
+     * Constructs a new spool controller with the given dependencies.
+     *
+     * @param eventSpoolService The {@link EventSpoolService} to use.
+     * @param admissionService The {@link AdmissionService} to use.
+     */
+    @Autowired
+    public SpoolController(final EventSpoolService eventSpoolService, final AdmissionService admissionService) {
+        this.eventSpoolService = eventSpoolService;
+        this.admissionService = admissionService;
+    }
+
+    /**
+     * Returns the spool page displaying the number of spooled events not yet saved in the database as well as the
+     * number of replayed, skipped and rejected events. The page also displays the current concurrency limit and the
+     * number of requests rejected by the admission control.
+     *
+     * @param model The {@link Model} to hold the information.
+     * @return The spool page.
+     */
+    @GetMapping
+    @Secured(Constants.ROLE_ADMIN)
+    public String getSpool(final Model model) {
+        model.addAttribute("status", eventSpoolService.getStatus());
+        model.addAttribute("admission", admissionService.getStatus());
+        return SPOOL;
+    }
+
+}
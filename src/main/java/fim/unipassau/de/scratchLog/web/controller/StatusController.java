@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.controller;
+
+import fim.unipassau.de.scratchLog.application.service.JobService;
+import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.TokenService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.access.annotation.Secured;
+import org.springframework.stereotype.Controller;
+import org.springframework.ui.Model;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+
+/**
+ * The controller responsible for displaying the state of the background tasks of the application, namely the mail
+ * outbox, the token cleanup and the scheduled jobs.
+ */
+@Controller
+@RequestMapping("/status")
+public class StatusController {
+
+    /**
+     * The mail service to use for retrieving the mail outbox state.
+     */
+    private final MailService mailService;
+
+    /**
+     * The token service to use for retrieving the token cleanup state.
+     */
+    private final TokenService tokenService;
+
+    /**
+     * The job service to use for retrieving the latest runs of the scheduled jobs.
+     */
+    private final JobService jobService;
+
+    /**
+     * String corresponding to the status page.
+     */
+    private static final String STATUS = "status";
+
+    /**
+     * Constructs a new status controller with the given dependencies.
+     *
+     * @param mailService The {@link MailService} to use.
+     * @param tokenService The {@link TokenService} to use.
+     * @param jobService The {@link JobService} to use.
+     */
+    @Autowired
+    public StatusController(final MailService mailService, final TokenService tokenService,
+                            final JobService jobService) {
+        this.mailService = mailService;
+        this.tokenService = tokenService;
+        this.jobService = jobService;
+    }
+
+    /**
+     * Returns the status page displaying the number of emails waiting in the mail outbox as well as the number of
+     * sent, retried and failed emails, the rows processed by the token cleanup and the latest runs of the scheduled
+     * jobs.
+     *
+     * @param model The {@link Model} to hold the information.
+     * @return The status page.
+     */
+    @GetMapping
+    @Secured(Constants.ROLE_ADMIN)
+    public String getStatus(final Model model) {
+        model.addAttribute("mail", mailService.getStatus());
+        model.addAttribute("tokens", tokenService.getCleanupStatus());
+        model.addAttribute("jobs", jobService.getRecentRuns());
+        return STATUS;
+    }
+
+}
@@ -19,9 +19,11 @@
 
 package fim.unipassau.de.scratchLog.web.controller;
 
+import com.opencsv.bean.CsvToBean;
 import com.opencsv.bean.CsvToBeanBuilder;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
 import fim.unipassau.de.scratchLog.application.service.TokenService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
@@ -39,8 +41,8 @@ import fim.unipassau.de.scratchLog.util.validation.PasswordValidator;
 import fim.unipassau.de.scratchLog.util.validation.StringValidator;
 import fim.unipassau.de.scratchLog.util.validation.UsernameValidator;
 import fim.unipassau.de.scratchLog.web.dto.PasswordDTO;
-import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserBulkDTO;
+import fim.unipassau.de.scratchLog.web.dto.UserBulkResultDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserDTO;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -50,7 +52,6 @@ import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.http.HttpHeaders;
-import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.annotation.Secured;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.Authentication;
@@ -71,15 +72,18 @@ import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStreamReader;
 import java.io.Reader;
+import java.io.Writer;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Random;
 import java.util.ResourceBundle;
+import java.util.Set;
 
 import static org.springframework.security.web.context.HttpSessionSecurityContextRepository.SPRING_SECURITY_CONTEXT_KEY;
 
@@ -106,9 +110,9 @@ public class UserController {
     private final ParticipantService participantService;
 
     /**
-     * The mail service to use for sending emails.
+     * The notification service to use for changes of which users are informed by email.
      */
-    private final MailService mailService;
+    private final NotificationService notificationService;
 
     /**
      * The token service to use for generating tokens.
@@ -175,19 +179,19 @@ public class UserController {
      *
      * @param userService The {@link UserService} to use.
      * @param participantService The {@link ParticipantService} to use.
-     * @param mailService The {@link MailService} to use.
+     * @param notificationService The {@link NotificationService} to use.
      * @param tokenService The {@link TokenService} to use.
      * @param authenticationProvider The {@link CustomAuthenticationProvider} to use.
      * @param localeResolver The locale resolver to use.
      */
     @Autowired
     public UserController(final UserService userService, final ParticipantService participantService,
-                          final MailService mailService, final TokenService tokenService,
+                          final NotificationService notificationService, final TokenService tokenService,
                           final CustomAuthenticationProvider authenticationProvider,
                           final LocaleResolver localeResolver) {
         this.userService = userService;
         this.participantService = participantService;
-        this.mailService = mailService;
+        this.notificationService = notificationService;
         this.tokenService = tokenService;
         this.authenticationProvider = authenticationProvider;
         this.localeResolver = localeResolver;
@@ -376,19 +380,17 @@ public class UserController {
         }
 
         userDTO.setLastLogin(LocalDateTime.now());
-        UserDTO saved = userService.saveUser(userDTO);
 
         if (!ApplicationProperties.MAIL_SERVER) {
+            UserDTO saved = userService.saveUser(userDTO);
             return "redirect:/users/profile?name=" + saved.getUsername();
-        } else {
-            TokenDTO tokenDTO = tokenService.generateToken(TokenType.REGISTER, null, saved.getId());
+        }
 
-            if (sendEmail(userDTO.getEmail(), tokenDTO.getValue(), "password_set", "password-set-email.html",
-                    resourceBundle)) {
-                return "redirect:/?success=true";
-            } else {
-                return Constants.ERROR;
-            }
+        try {
+            notificationService.saveUser(userDTO, resourceBundle.getString("password_set"));
+            return "redirect:/?success=true";
+        } catch (NotFoundException | StoreException e) {
+            return Constants.ERROR;
         }
     }
 
@@ -409,8 +411,8 @@ public class UserController {
     }
 
     /**
-     * Adds the given amount of participants to the database if the numbered username doesn't yet exist. For any
-     * username that already exists in the database, the corresponding username is saved to a list. If the given
+     * Adds the given amount of participants to the database at once if the numbered username doesn't yet exist. Any
+     * username that already exists in the database is rejected and returned to the user. If the given
      * username pattern is invalid or a pre-existing username has been found, the user returns to the add participants
      * page where corresponding information is displayed. If the any necessary information passed is invalid, the user
      * is redirected to the error page instead.
@@ -442,24 +444,20 @@ public class UserController {
 
         int number = userBulkDTO.isStartAtOne() ? userService.findValidNumberForUsername(userBulkDTO.getUsername())
                 : userService.findLastId() + 1;
-        List<String> invalidUsernames = new ArrayList<>();
+        List<UserDTO> userDTOS = new ArrayList<>();
+        LocalDateTime now = LocalDateTime.now();
 
         for (int i = 0; i < userBulkDTO.getAmount(); i++) {
-            String username = userBulkDTO.getUsername() + number;
-
-            if (userService.existsUser(username)) {
-                invalidUsernames.add(username);
-            } else {
-                UserDTO userDTO = new UserDTO(userBulkDTO.getUsername() + number, null, Role.PARTICIPANT,
-                        userBulkDTO.getLanguage(), null, null);
-                userDTO.setActive(true);
-                userDTO.setLastLogin(LocalDateTime.now());
-                userService.saveUser(userDTO);
-            }
-
+            UserDTO userDTO = new UserDTO(userBulkDTO.getUsername() + number, null, Role.PARTICIPANT,
+                    userBulkDTO.getLanguage(), null, null);
+            userDTO.setActive(true);
+            userDTO.setLastLogin(now);
+            userDTOS.add(userDTO);
             number++;
         }
 
+        List<String> invalidUsernames = userService.saveUsersBulk(userDTOS).getRejected();
+
         if (invalidUsernames.isEmpty()) {
             return "redirect:/?success=true";
         } else {
@@ -480,19 +478,26 @@ public class UserController {
     }
 
     /**
-     * Creates new users in the database with the information provided by the given CSV file. Another CSV file
-     * containing information about the passwords generated for each user is returned. If the passed file is invalid,
-     * users could not be added or the file could not be parsed correctly, the CSV participants page is returned where
-     * a corresponding error message is displayed.
+     * Creates new users in the database with the information provided by the given CSV file. The file is read twice
+     * without ever holding all rows in memory: first, all usernames and emails are validated and checked against the
+     * database in chunks. If they are all valid, the users are inserted in chunks and another CSV file containing
+     * information about the passwords generated for each user is streamed back while the chunks are being saved. As
+     * every chunk is saved in a transaction of its own, the returned file states for every row whether the user has
+     * been created, rejected as the username has been taken in the meantime, or not created as the import failed. If
+     * the passed file is invalid, contains invalid or existing user information or could not be parsed correctly, the
+     * CSV participants page is returned where a corresponding error message is displayed.
      *
      * @param file The file containing the user information.
      * @param model The {@link Model} used to store information on errors.
-     * @return The CSV file containing information on the created users on success, or the CSV participants page
-     * otherwise.
+     * @param httpServletResponse The {@link HttpServletResponse} returning the CSV file on success.
+     * @return {@code null} if the CSV file containing information on the created users has been written to the
+     * response, or the CSV participants page otherwise.
+     * @throws RuntimeException if an {@link IOException} occurred while importing the users.
      */
     @PostMapping("/csv")
     @Secured(Constants.ROLE_ADMIN)
-    public Object addCSVParticipants(@RequestParam("file") final MultipartFile file, final Model model) {
+    public String addCSVParticipants(@RequestParam("file") final MultipartFile file, final Model model,
+                                     final HttpServletResponse httpServletResponse) {
         ResourceBundle resourceBundle = ResourceBundle.getBundle("i18n/messages",
                 LocaleContextHolder.getLocale());
 
@@ -500,17 +505,8 @@ public class UserController {
             return "participants-csv";
         }
 
-        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
-            List<UserDTO> users = new CsvToBeanBuilder<UserDTO>(reader).withType(UserDTO.class).build().parse();
-
-            if (isValidUserInfo(users, model, resourceBundle)) {
-                Random random = new Random();
-                StringBuilder builder = new StringBuilder("username, password" + System.lineSeparator());
-                users.forEach(userDTO -> completeUserInformation(userDTO, random, builder));
-                userService.saveUsers(users);
-                return ResponseEntity.ok().header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv"
-                        + "\"").body(builder.toString());
-            } else {
+        try {
+            if (!isValidUserInfo(file, model, resourceBundle)) {
                 return "participants-csv";
             }
         } catch (IOException e) {
@@ -518,6 +514,16 @@ public class UserController {
             model.addAttribute(ERROR, resourceBundle.getString("csv_error"));
             return "participants-csv";
         }
+
+        try {
+            httpServletResponse.setContentType("text/csv");
+            httpServletResponse.setHeader(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"users.csv\"");
+            httpServletResponse.setStatus(HttpServletResponse.SC_OK);
+            importUsers(file, httpServletResponse.getWriter());
+            return null;
+        } catch (IOException e) {
+            throw new RuntimeException("Could not import participants from CSV file due to IOException!", e);
+        }
     }
 
     /**
@@ -550,13 +556,12 @@ public class UserController {
             UserDTO findEmail = userService.getUserByEmail(userDTO.getEmail());
 
             if (findEmail.equals(findUsername)) {
-                TokenDTO tokenDTO = tokenService.generateToken(TokenType.FORGOT_PASSWORD, null, findEmail.getId());
-                sendEmail(userDTO.getEmail(), tokenDTO.getValue(), "password_set", "password-set-email.html",
-                        resourceBundle);
+                notificationService.sendToken(TokenType.FORGOT_PASSWORD, null, findEmail.getId(), userDTO.getEmail(),
+                        resourceBundle.getString("password_set"), "password-set-email.html");
             }
 
             return "redirect:/?info=true";
-        } catch (NotFoundException e) {
+        } catch (NotFoundException | StoreException e) {
             return "redirect:/?info=true";
         }
     }
@@ -1053,37 +1058,16 @@ public class UserController {
      * @param email The new email address.
      * @param id The id of the user for whom the token is to be generated.
      * @param resourceBundle The resource bundle for message translations.
-     * @return {@code true} if a token was created and the email sent, or {@code false} otherwise.
+     * @return {@code true} if a token was created and the email queued, or {@code false} otherwise.
      */
     private boolean updateEmail(final String email, final int id, final ResourceBundle resourceBundle) {
-        TokenDTO tokenDTO;
-
         try {
-            tokenDTO = tokenService.generateToken(TokenType.CHANGE_EMAIL, email, id);
-        } catch (NotFoundException e) {
+            notificationService.sendToken(TokenType.CHANGE_EMAIL, email, id, email,
+                    resourceBundle.getString("change_email_subject"), "change-email.html");
+            return true;
+        } catch (NotFoundException | StoreException e) {
             return false;
         }
-
-        return sendEmail(email, tokenDTO.getValue(), "change_email_subject", "change-email.html", resourceBundle);
-    }
-
-    /**
-     * Sends an email is with the given subject and template to the given email address.
-     *
-     * @param email The email address.
-     * @param value The token value to identify the user.
-     * @param subject The email subject.
-     * @param template The email template to be sent.
-     * @param resourceBundle The resource bundle for message translation.
-     * @return {@code true} if the email was sent, or {@code false} otherwise.
-     */
-    private boolean sendEmail(final String email, final String value, final String subject, final String template,
-                              final ResourceBundle resourceBundle) {
-        String tokenUrl = ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH + "/token?value=" + value;
-        Map<String, Object> templateModel = new HashMap<>();
-        templateModel.put("baseUrl", ApplicationProperties.BASE_URL + ApplicationProperties.CONTEXT_PATH);
-        templateModel.put("token", tokenUrl);
-        return mailService.sendEmail(email, resourceBundle.getString(subject), templateModel, template);
     }
 
     /**
@@ -1114,25 +1098,45 @@ public class UserController {
     }
 
     /**
-     * Checks, whether the given list of DTOs contains valid usernames and emails. If the size of the list is more than
-     * the maximum allowed size, it is considered invalid as well.
+     * Checks, whether the users contained in the given CSV file all have valid usernames and emails that do not yet
+     * exist. The rows are read one by one and the usernames and emails are checked against the database in chunks of
+     * {@link Constants#CSV_CHUNK_SIZE}. Usernames and emails occurring more than once in the file are considered to be
+     * existing as well. If the file contains more than the maximum allowed number of rows, it is considered invalid.
      *
-     * @param users The list of users.
+     * @param file The CSV file containing the user information.
      * @param model The {@link Model} used to store error information.
      * @param resourceBundle The {@link ResourceBundle} used to display error messages in the desired language.
      * @return {@code true} if all user information is valid, or {@code false} otherwise.
+     * @throws IOException if the file could not be read.
      */
-    private boolean isValidUserInfo(final List<UserDTO> users, final Model model, final ResourceBundle resourceBundle) {
+    private boolean isValidUserInfo(final MultipartFile file, final Model model, final ResourceBundle resourceBundle)
+            throws IOException {
         List<String> invalidAttributes = new ArrayList<>();
         List<String> existingAttributes = new ArrayList<>();
+        Set<String> usernames = new HashSet<>();
+        Set<String> emails = new HashSet<>();
+        List<String> usernameChunk = new ArrayList<>();
+        List<String> emailChunk = new ArrayList<>();
+        int rows = 0;
 
-        if (users.size() > Constants.MAX_ADD_PARTICIPANTS) {
-            LOGGER.error("Cannot add an invalid number of participants " + users.size() + " from CSV!");
-            model.addAttribute(ERROR, resourceBundle.getString("max_participants"));
-            return false;
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
+            for (UserDTO userDTO : parseUsers(reader)) {
+                if (++rows > Constants.MAX_CSV_PARTICIPANTS) {
+                    LOGGER.error("Cannot add more than " + Constants.MAX_CSV_PARTICIPANTS + " participants from CSV!");
+                    model.addAttribute(ERROR, resourceBundle.getString("max_csv_participants"));
+                    return false;
+                }
+
+                checkValidUserInfo(userDTO, invalidAttributes, existingAttributes, usernames, emails, usernameChunk,
+                        emailChunk);
+
+                if (usernameChunk.size() + emailChunk.size() >= Constants.CSV_CHUNK_SIZE) {
+                    checkExistingUserInfo(usernameChunk, emailChunk, existingAttributes);
+                }
+            }
         }
 
-        users.forEach(userDTO -> checkValidUserInfo(userDTO, invalidAttributes, existingAttributes));
+        checkExistingUserInfo(usernameChunk, emailChunk, existingAttributes);
 
         if (!invalidAttributes.isEmpty()) {
             LOGGER.error("Cannot create users from CSV with invalid usernames or emails!");
@@ -1148,48 +1152,206 @@ public class UserController {
     }
 
     /**
-     * Checks, if the username and email address of the given user meet the requirements and cannot be found in the
-     * database.
+     * Checks, if the username and email address of the given user meet the requirements and have not yet occurred in
+     * the file. Valid values are added to the given chunks to be looked up in the database later on.
      *
      * @param userDTO The DTO containing the information to check.
      * @param invalid A list used to store all invalid usernames and emails.
      * @param existing A list used to store all usernames and emails that already exist.
+     * @param usernames The lowercase usernames that have already occurred in the file.
+     * @param emails The lowercase emails that have already occurred in the file.
+     * @param usernameChunk The valid usernames that still have to be looked up in the database.
+     * @param emailChunk The valid emails that still have to be looked up in the database.
      */
-    private void checkValidUserInfo(final UserDTO userDTO, final List<String> invalid, final List<String> existing) {
-        userDTO.setRole(Role.PARTICIPANT);
-
+    private void checkValidUserInfo(final UserDTO userDTO, final List<String> invalid, final List<String> existing,
+                                    final Set<String> usernames, final Set<String> emails,
+                                    final List<String> usernameChunk, final List<String> emailChunk) {
         if (UsernameValidator.validate(userDTO.getUsername()) != null) {
             invalid.add(userDTO.getUsername());
-        } else if (userService.existsUser(userDTO.getUsername())) {
+        } else if (!usernames.add(userDTO.getUsername().toLowerCase(Locale.ROOT))) {
             existing.add(userDTO.getUsername());
+        } else {
+            usernameChunk.add(userDTO.getUsername());
         }
         if (userDTO.getEmail() != null) {
             if (EmailValidator.validate(userDTO.getEmail()) != null) {
                 invalid.add(userDTO.getEmail());
-            } else if (userService.existsEmail(userDTO.getEmail())) {
+            } else if (!emails.add(userDTO.getEmail().toLowerCase(Locale.ROOT))) {
                 existing.add(userDTO.getEmail());
+            } else {
+                emailChunk.add(userDTO.getEmail());
             }
         }
     }
 
+    /**
+     * Looks up the given chunks of usernames and emails in the database with one query each and adds all values that
+     * already exist to the given list. The chunks are cleared afterwards.
+     *
+     * @param usernameChunk The usernames to look up.
+     * @param emailChunk The emails to look up.
+     * @param existing A list used to store all usernames and emails that already exist.
+     */
+    private void checkExistingUserInfo(final List<String> usernameChunk, final List<String> emailChunk,
+                                       final List<String> existing) {
+        if (!usernameChunk.isEmpty()) {
+            existing.addAll(userService.findExistingUsernames(usernameChunk));
+            usernameChunk.clear();
+        }
+        if (!emailChunk.isEmpty()) {
+            existing.addAll(userService.findExistingEmails(emailChunk));
+            emailChunk.clear();
+        }
+    }
+
+    /**
+     * Reads the users contained in the given CSV file once more, saves them in chunks of
+     * {@link Constants#CSV_CHUNK_SIZE} and writes the outcome for every row to the given writer after each chunk, so
+     * neither the users nor the generated passwords are kept in memory as a whole. Once a chunk could not be saved,
+     * the import stops and all remaining rows are reported as failed.
+     *
+     * @param file The CSV file containing the user information.
+     * @param writer The {@link Writer} used to return the generated passwords.
+     * @throws IOException if the file could not be read or the passwords could not be written.
+     */
+    private void importUsers(final MultipartFile file, final Writer writer) throws IOException {
+        Random random = new Random();
+        List<UserDTO> chunk = new ArrayList<>();
+        boolean failed = false;
+        writer.write("username, password, status" + System.lineSeparator());
+
+        try (Reader reader = new BufferedReader(new InputStreamReader(file.getInputStream()))) {
+            for (UserDTO userDTO : parseUsers(reader)) {
+                chunk.add(userDTO);
+
+                if (chunk.size() >= Constants.CSV_CHUNK_SIZE) {
+                    failed = importChunk(chunk, random, writer, failed);
+                }
+            }
+        }
+
+        if (!chunk.isEmpty()) {
+            importChunk(chunk, random, writer, failed);
+        }
+    }
+
+    /**
+     * Saves the given chunk of users, unless a previous chunk of the same import could not be saved, in which case
+     * the users of the given chunk are reported as failed right away.
+     *
+     * @param chunk The users to be saved.
+     * @param random Instance used to generating a random number for the password length.
+     * @param writer The {@link Writer} used to return the generated passwords.
+     * @param failed Whether a previous chunk of the import could not be saved.
+     * @return {@code true} if this or a previous chunk could not be saved, or {@code false} otherwise.
+     * @throws IOException if the outcome could not be written.
+     */
+    private boolean importChunk(final List<UserDTO> chunk, final Random random, final Writer writer,
+                                final boolean failed) throws IOException {
+        if (failed) {
+            writeFailedChunk(chunk, writer);
+            return true;
+        }
+
+        return !saveUserChunk(chunk, random, writer);
+    }
+
+    /**
+     * Completes the information of the given users, saves them at once and writes the outcome for every user to the
+     * given writer. Saved users are written along with their generated password, while users whose username has been
+     * taken in the meantime are marked as rejected. As hashing the passwords takes most of the time, it is done on the
+     * password hashing thread pool of the user service. If the chunk could not be saved, all of its users are marked as
+     * failed. The chunk is cleared afterwards.
+     *
+     * @param chunk The users to be saved.
+     * @param random Instance used to generating a random number for the password length.
+     * @param writer The {@link Writer} used to return the generated passwords.
+     * @return {@code true} if the chunk has been saved, or {@code false} otherwise.
+     * @throws IOException if the passwords could not be written.
+     */
+    private boolean saveUserChunk(final List<UserDTO> chunk, final Random random, final Writer writer)
+            throws IOException {
+        Map<String, String> passwords = new HashMap<>();
+        UserBulkResultDTO result;
+
+        try {
+            chunk.forEach(userDTO -> completeUserInformation(userDTO, random));
+            List<String> hashes = userService.encodePasswords(chunk.stream().map(UserDTO::getConfirmPassword)
+                    .toList());
+
+            for (int i = 0; i < chunk.size(); i++) {
+                chunk.get(i).setPassword(hashes.get(i));
+                passwords.put(chunk.get(i).getUsername(), chunk.get(i).getConfirmPassword());
+            }
+
+            result = userService.saveUsersBulk(chunk);
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not create users from CSV starting with username " + chunk.get(0).getUsername()
+                    + "!", e);
+            writeFailedChunk(chunk, writer);
+            return false;
+        }
+
+        if (!result.getRejected().isEmpty()) {
+            LOGGER.error("Could not create users from CSV with usernames " + result.getRejected() + " that have been "
+                    + "taken in the meantime!");
+        }
+
+        for (UserDTO userDTO : result.getUsers()) {
+            writer.write(userDTO.getUsername() + ", " + passwords.get(userDTO.getUsername()) + ", created"
+                    + System.lineSeparator());
+        }
+        for (String username : result.getRejected()) {
+            writer.write(username + ", , rejected" + System.lineSeparator());
+        }
+
+        writer.flush();
+        chunk.clear();
+        return true;
+    }
+
+    /**
+     * Writes the usernames of the given users that have not been saved to the given writer, marking them as failed.
+     * The chunk is cleared afterwards.
+     *
+     * @param chunk The users that have not been saved.
+     * @param writer The {@link Writer} used to return the outcome of the import.
+     * @throws IOException if the usernames could not be written.
+     */
+    private void writeFailedChunk(final List<UserDTO> chunk, final Writer writer) throws IOException {
+        for (UserDTO userDTO : chunk) {
+            writer.write(userDTO.getUsername() + ", , failed" + System.lineSeparator());
+        }
+
+        writer.flush();
+        chunk.clear();
+    }
+
+    /**
+     * Returns a {@link CsvToBean} reading the users contained in the CSV data of the given reader one row at a time.
+     *
+     * @param reader The {@link Reader} providing the CSV data.
+     * @return The CSV to bean instance to iterate over.
+     */
+    private CsvToBean<UserDTO> parseUsers(final Reader reader) {
+        return new CsvToBeanBuilder<UserDTO>(reader).withType(UserDTO.class).build();
+    }
+
     /**
      * Sets all the required attributes for user information retrieved from a CSV file to subsequently be persisted.
-     * This includes the generation of a new password for the user, which is then appended to the given string builder
-     * to be returned later.
+     * This includes the generation of a new password for the user, the plain text of which is kept as the confirmed
+     * password to be hashed and returned later.
      *
      * @param userDTO The user to be added.
      * @param random Instance used to generating a random number for the password length.
-     * @param builder The {@link StringBuilder} used to store the information.
      */
-    private void completeUserInformation(final UserDTO userDTO, final Random random, final StringBuilder builder) {
+    private void completeUserInformation(final UserDTO userDTO, final Random random) {
         int randomLength = random.nextInt(Constants.PASSWORD_MIN * 2 - Constants.PASSWORD_MIN) + Constants.PASSWORD_MIN;
         String password = CustomPasswordGenerator.generatePassword(randomLength);
-        userDTO.setPassword(userService.encodePassword(password));
+        userDTO.setRole(Role.PARTICIPANT);
         userDTO.setConfirmPassword(password);
         userDTO.setActive(true);
         userDTO.setLastLogin(LocalDateTime.now());
-        builder.append(userDTO.getUsername()).append(", ").append(userDTO.getConfirmPassword()).append(
-                System.lineSeparator());
     }
 
     /**
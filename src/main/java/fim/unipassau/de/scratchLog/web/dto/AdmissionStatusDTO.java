@@ -0,0 +1,62 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.Map;
+
+/**
+ * A DTO representing the current state of the admission control applied to the event data received from the Scratch
+ * GUI and VM.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdmissionStatusDTO {
+
+    /**
+     * The number of requests currently being processed.
+     */
+    private int inFlight;
+
+    /**
+     * The current maximum number of requests that may be processed concurrently.
+     */
+    private int limit;
+
+    /**
+     * The number of requests rejected since the application was started, as the concurrency limit was reached.
+     */
+    private long concurrencyLimited;
+
+    /**
+     * The number of requests rejected since the application was started, as the participant exceeded the rate limit,
+     * by the kind of the event.
+     */
+    private Map<String, Long> rateLimited;
+
+}
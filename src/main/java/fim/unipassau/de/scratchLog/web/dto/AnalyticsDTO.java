@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A DTO representing the activity counted during an experiment per minute.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class AnalyticsDTO {
+
+    /**
+     * The id of the experiment.
+     */
+    private int experiment;
+
+    /**
+     * The minutes in which any activity occurred in chronological order.
+     */
+    private List<LocalDateTime> minutes;
+
+    /**
+     * The number of activities of each kind counted for the minutes at the same index.
+     */
+    private Map<ActivityKind, List<Long>> counts;
+
+    /**
+     * The total number of activities of each kind. The total for {@link ActivityKind#PARTICIPANT} is the sum of the
+     * participants active in each minute.
+     */
+    private Map<ActivityKind, Long> totals;
+
+    /**
+     * The most frequent block opcodes and their number of occurrences in descending order.
+     */
+    private Map<String, Long> opcodes;
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import fim.unipassau.de.scratchLog.util.enums.BlockDiffType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing a single block change between two consecutive json snapshots saved for a participant.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class BlockDiffDTO {
+
+    /**
+     * The id of the block event holding the snapshot in which the change was observed.
+     */
+    private Integer eventId;
+
+    /**
+     * The time at which the snapshot was saved.
+     */
+    private LocalDateTime date;
+
+    /**
+     * The block event that caused the snapshot to be saved.
+     */
+    private String event;
+
+    /**
+     * The name of the sprite or stage containing the block.
+     */
+    private String sprite;
+
+    /**
+     * The type of the change.
+     */
+    private BlockDiffType type;
+
+    /**
+     * The unique id of the block assigned by the Scratch GUI.
+     */
+    private String block;
+
+    /**
+     * The opcode of the block.
+     */
+    private String opcode;
+
+}
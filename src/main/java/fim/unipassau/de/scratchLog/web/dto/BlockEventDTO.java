@@ -103,6 +103,12 @@ public class BlockEventDTO implements EventDTO {
     @JsonProperty("json")
     private String code;
 
+    /**
+     * The key assigned to the event by the client to recognize repeated requests, e.g. a UUID or a sequence number
+     * that is unique for the participant.
+     */
+    private String key;
+
     /**
      * Constructs a new block event dto with the given attributes.
      *
@@ -85,6 +85,12 @@ public class ClickEventDTO implements EventDTO {
      */
     private String metadata;
 
+    /**
+     * The key assigned to the event by the client to recognize repeated requests, e.g. a UUID or a sequence number
+     * that is unique for the participant.
+     */
+    private String key;
+
     /**
      * Constructs a new click event dto with the given attributes.
      *
@@ -40,6 +40,20 @@ public interface EventDTO {
      */
     void setId(Integer id);
 
+    /**
+     * Returns the key assigned to the event by the client to recognize repeated requests, if any.
+     *
+     * @return The idempotency key.
+     */
+    String getKey();
+
+    /**
+     * Sets the key assigned to the event by the client to recognize repeated requests.
+     *
+     * @param key The idempotency key to be set.
+     */
+    void setKey(String key);
+
     /**
      * Returns the ID of the user who caused the event.
      *
@@ -0,0 +1,54 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+/**
+ * A DTO representing the sb3 project uploaded as the starter project of an experiment together with a version
+ * identifying its content, which can be used as an entity tag for conditional requests.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class ExperimentProjectDTO {
+
+    /**
+     * The ID of the experiment to which the project belongs.
+     */
+    private Integer experiment;
+
+    /**
+     * The content of the sb3 project.
+     */
+    private byte[] project;
+
+    /**
+     * The version of the project content, formatted as a quoted entity tag.
+     */
+    private String version;
+
+}
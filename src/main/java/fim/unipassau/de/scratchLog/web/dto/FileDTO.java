@@ -86,6 +86,12 @@ public class FileDTO implements EventDTO {
     @JsonDeserialize(using = ByteArrayDeserializer.class)
     private byte[] content;
 
+    /**
+     * The key assigned to the file by the client to recognize repeated requests, e.g. a UUID or a sequence number
+     * that is unique for the participant.
+     */
+    private String key;
+
     /**
      * Constructs a new file dto with the given attributes.
      *
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+
+/**
+ * A DTO representing a single run of a scheduled job that is coordinated between all application nodes.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class JobRunDTO {
+
+    /**
+     * The name of the job.
+     */
+    private String name;
+
+    /**
+     * The name of the node that executed the job.
+     */
+    private String node;
+
+    /**
+     * The time at which the run started.
+     */
+    private LocalDateTime started;
+
+    /**
+     * The time in milliseconds the run took.
+     */
+    private long duration;
+
+    /**
+     * The number of rows affected by the run.
+     */
+    private int affected;
+
+    /**
+     * Whether the run was aborted due to an error.
+     */
+    private boolean failed;
+
+    /**
+     * The named counts reported by the job during the run.
+     */
+    private Map<String, Long> counts;
+
+}
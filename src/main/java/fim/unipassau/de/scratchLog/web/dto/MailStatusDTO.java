@@ -0,0 +1,64 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing the current state of the mail outbox and of the workers sending its emails.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class MailStatusDTO {
+
+    /**
+     * The number of emails waiting to be sent.
+     */
+    private long pending;
+
+    /**
+     * The number of emails that could not be sent within the maximum number of attempts.
+     */
+    private long failed;
+
+    /**
+     * The time at which the oldest email still waiting to be sent was added to the outbox, if any.
+     */
+    private LocalDateTime oldestPending;
+
+    /**
+     * The number of emails sent since the application was started.
+     */
+    private long sent;
+
+    /**
+     * The number of failed attempts to send an email since the application was started.
+     */
+    private long retried;
+
+}
@@ -116,6 +116,12 @@ public class QuestionEventDTO implements EventDTO {
      */
     private String opcode;
 
+    /**
+     * The key assigned to the event by the client to recognize repeated requests, e.g. a UUID or a sequence number
+     * that is unique for the participant.
+     */
+    private String key;
+
     /**
      * Constructs a new question event dto with the given attributes.
      *
@@ -103,6 +103,12 @@ public class ResourceEventDTO implements EventDTO {
      */
     private LibraryResource libraryResource;
 
+    /**
+     * The key assigned to the event by the client to recognize repeated requests, e.g. a UUID or a sequence number
+     * that is unique for the participant.
+     */
+    private String key;
+
     /**
      * Constructs a new resource event dto with the given attributes.
      *
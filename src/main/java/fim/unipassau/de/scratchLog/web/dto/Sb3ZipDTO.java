@@ -80,6 +80,12 @@ public class Sb3ZipDTO implements EventDTO {
     @JsonDeserialize(using = ByteArrayDeserializer.class)
     private byte[] content;
 
+    /**
+     * The key assigned to the project by the client to recognize repeated requests, e.g. a UUID or a sequence number
+     * that is unique for the participant.
+     */
+    private String key;
+
     /**
      * Constructs a new sb3 zip dto with the given attributes.
      *
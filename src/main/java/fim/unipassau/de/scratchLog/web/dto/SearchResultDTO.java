@@ -0,0 +1,74 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import fim.unipassau.de.scratchLog.persistence.projection.CourseTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.util.List;
+
+/**
+ * A DTO representing the first page of user, experiment and course results for a search query along with the total
+ * number of results in each category.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SearchResultDTO {
+
+    /**
+     * The first page of users whose username or email contain the query.
+     */
+    private List<UserProjection> users;
+
+    /**
+     * The first page of experiments whose title contains the query.
+     */
+    private List<ExperimentTableProjection> experiments;
+
+    /**
+     * The first page of courses whose title contains the query.
+     */
+    private List<CourseTableProjection> courses;
+
+    /**
+     * The total number of matching users.
+     */
+    private int userCount;
+
+    /**
+     * The total number of matching experiments.
+     */
+    private int experimentCount;
+
+    /**
+     * The total number of matching courses.
+     */
+    private int courseCount;
+
+}
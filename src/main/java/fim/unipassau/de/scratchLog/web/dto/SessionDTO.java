@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing the working sessions of a participant derived from the timestamps of their events.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SessionDTO {
+
+    /**
+     * The id of the user.
+     */
+    private int user;
+
+    /**
+     * The number of events the participant caused.
+     */
+    private long events;
+
+    /**
+     * The number of sessions, separated by breaks longer than the session timeout.
+     */
+    private int sessions;
+
+    /**
+     * The time in seconds between consecutive events that were not further apart than the idle threshold.
+     */
+    private long active;
+
+    /**
+     * The time in seconds between consecutive events within a session that were further apart than the idle threshold.
+     */
+    private long idle;
+
+    /**
+     * The number of idle gaps within the sessions.
+     */
+    private int idleGaps;
+
+    /**
+     * The longest idle gap within a session in seconds.
+     */
+    private long longestIdle;
+
+    /**
+     * The timestamp of the first event.
+     */
+    private LocalDateTime first;
+
+    /**
+     * The timestamp of the last event.
+     */
+    private LocalDateTime last;
+
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing the current state of the local event spool.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class SpoolStatusDTO {
+
+    /**
+     * Whether incoming events are written to the spool.
+     */
+    private boolean enabled;
+
+    /**
+     * The number of segment files currently stored on disk.
+     */
+    private int segments;
+
+    /**
+     * The number of bytes occupied by spooled events that have not yet been replayed.
+     */
+    private long pending;
+
+    /**
+     * The maximum number of bytes the segment files may occupy on disk.
+     */
+    private long maxSize;
+
+    /**
+     * The number of events replayed to the database since the application was started.
+     */
+    private long replayed;
+
+    /**
+     * The number of events that could not be replayed and were skipped since the application was started.
+     */
+    private long failed;
+
+    /**
+     * The number of events rejected since the application was started, as the spool was full or not writable.
+     */
+    private long rejected;
+
+    /**
+     * The time at which events were last replayed to the database.
+     */
+    private LocalDateTime lastReplay;
+
+    /**
+     * The message of the last error that occurred while replaying events.
+     */
+    private String lastError;
+
+}
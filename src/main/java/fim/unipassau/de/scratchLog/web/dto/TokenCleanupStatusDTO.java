@@ -0,0 +1,69 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.web.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * A DTO representing the tokens processed by the last run of the scheduled token cleanup and the duration of the run.
+ */
+@Builder
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+public class TokenCleanupStatusDTO {
+
+    /**
+     * The time at which the last cleanup run started, if any.
+     */
+    private LocalDateTime lastRun;
+
+    /**
+     * The name of the node that executed the last cleanup run.
+     */
+    private String node;
+
+    /**
+     * The time in milliseconds the last cleanup run took.
+     */
+    private long duration;
+
+    /**
+     * The number of user accounts deleted due to expired registration tokens in the last cleanup run.
+     */
+    private long deletedAccounts;
+
+    /**
+     * The number of user accounts reactivated due to expired deactivation tokens in the last cleanup run.
+     */
+    private long reactivatedAccounts;
+
+    /**
+     * The number of other expired tokens deleted in the last cleanup run.
+     */
+    private long deletedTokens;
+
+}
@@ -0,0 +1,460 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web.socket;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
+import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.application.service.FileService;
+import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.BlockEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.ClickEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.DebuggerEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.EventDTO;
+import fim.unipassau.de.scratchLog.web.dto.FileDTO;
+import fim.unipassau.de.scratchLog.web.dto.QuestionEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.ResourceEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.Sb3ZipDTO;
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.TextWebSocketHandler;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The WebSocket handler receiving the events streamed by the Scratch GUI over a persistent connection as an
+ * alternative to sending a separate request to the
+ * {@link fim.unipassau.de.scratchLog.web.controller.EventRestController} for each event.
+ *
+ * <p>The first message sent over a connection has to authenticate the participant with the kind {@code auth} and the
+ * user id, experiment id and secret, which are then used for all following messages. The server answers with a
+ * {@code ready} message stating the flow control window and the acknowledgement batch size. Each following message
+ * carries the kind of event, i.e. {@code block}, {@code click}, {@code debugger}, {@code question}, {@code resource},
+ * {@code file} or {@code zip}, a strictly increasing sequence number {@code seq} and the same event data as the
+ * respective REST endpoint. The server acknowledges the received messages with an {@code ack} message containing the
+ * highest received sequence number and the sequence numbers of the messages that could not be stored, either after
+ * each batch or when the client sends a {@code flush} message. All other messages up to the acknowledged sequence
+ * number have been stored and need not be sent again. A client may not send more messages than the window size beyond
+ * the last acknowledged sequence number, otherwise the connection is closed. The events take the same path as the
+ * events sent to the REST endpoints: they are subject to the same rate limits and are written to the local event spool,
+ * if it is enabled, or saved while holding a permit of the concurrency limit otherwise. Events exceeding the limits are
+ * rejected.</p>
+ */
+@Component
+public class EventWebSocketHandler extends TextWebSocketHandler {
+
+    /**
+     * The log instance associated with this class for logging purposes.
+     */
+    private static final Logger LOGGER = LoggerFactory.getLogger(EventWebSocketHandler.class);
+
+    /**
+     * The name of the session attribute holding the state of the authenticated participant.
+     */
+    private static final String PARTICIPANT = "participant";
+
+    /**
+     * The kinds of events that can be sent over a connection mapped to the type of DTO containing their data.
+     */
+    private static final Map<String, Class<? extends EventDTO>> KINDS = Map.of("block", BlockEventDTO.class,
+            "click", ClickEventDTO.class, "debugger", DebuggerEventDTO.class, "question", QuestionEventDTO.class,
+            "resource", ResourceEventDTO.class, "file", FileDTO.class, "zip", Sb3ZipDTO.class);
+
+    /**
+     * The object mapper to use for converting the received messages to event DTOs.
+     */
+    private static final ObjectMapper MAPPER = new ObjectMapper().registerModule(new JavaTimeModule());
+
+    /**
+     * The event service to use to save the received event data.
+     */
+    private final EventService eventService;
+
+    /**
+     * The file service to use to save the received file data.
+     */
+    private final FileService fileService;
+
+    /**
+     * The participant service to use for verifying participants.
+     */
+    private final ParticipantService participantService;
+
+    /**
+     * The admission service to use for limiting the number of events processed.
+     */
+    private final AdmissionService admissionService;
+
+    /**
+     * The event spool service to use to buffer the received data before it is saved.
+     */
+    private final EventSpoolService eventSpoolService;
+
+    /**
+     * The maximum number of messages a client may send beyond the last acknowledged sequence number.
+     */
+    private final int window;
+
+    /**
+     * The number of received messages after which they are acknowledged.
+     */
+    private final int batchSize;
+
+    /**
+     * Constructs a new event WebSocket handler with the given dependencies.
+     *
+     * @param eventService The {@link EventService} to use.
+     * @param fileService The {@link FileService} to use.
+     * @param participantService The {@link ParticipantService} to use.
+     * @param admissionService The {@link AdmissionService} to use.
+     * @param eventSpoolService The {@link EventSpoolService} to use.
+     * @param window The maximum number of unacknowledged messages per connection.
+     * @param batchSize The number of messages after which they are acknowledged.
+     */
+    @Autowired
+    public EventWebSocketHandler(final EventService eventService, final FileService fileService,
+                                 final ParticipantService participantService,
+                                 final AdmissionService admissionService,
+                                 final EventSpoolService eventSpoolService,
+                                 @Value("${app.socket.window:" + Constants.SOCKET_WINDOW + "}") final int window,
+                                 @Value("${app.socket.batch:" + Constants.SOCKET_BATCH_SIZE + "}")
+                                 final int batchSize) {
+        this.eventService = eventService;
+        this.fileService = fileService;
+        this.participantService = participantService;
+        this.admissionService = admissionService;
+        this.eventSpoolService = eventSpoolService;
+        this.window = window;
+        this.batchSize = Math.min(batchSize, window);
+    }
+
+    /**
+     * Raises the maximum message size of the new connection, as messages may contain whole projects.
+     *
+     * @param session The new session.
+     */
+    @Override
+    public void afterConnectionEstablished(final WebSocketSession session) {
+        session.setTextMessageSizeLimit(Constants.SOCKET_MAX_MESSAGE_SIZE);
+    }
+
+    /**
+     * Handles a message received over the given session. If the participant has not yet been authenticated, the
+     * message has to contain their credentials. Otherwise, the event contained in the message is saved and
+     * acknowledged once the batch size has been reached. Connections violating the protocol are closed.
+     *
+     * @param session The session over which the message was received.
+     * @param message The received message.
+     * @throws IOException if a response could not be sent.
+     */
+    @Override
+    protected void handleTextMessage(final WebSocketSession session, final TextMessage message) throws IOException {
+        JSONObject object;
+
+        try {
+            object = new JSONObject(message.getPayload());
+        } catch (JSONException e) {
+            LOGGER.error("Received a malformed message over WebSocket session " + session.getId() + "!", e);
+            close(session, CloseStatus.BAD_DATA);
+            return;
+        }
+
+        String kind = object.optString("kind");
+        ParticipantState state = (ParticipantState) session.getAttributes().get(PARTICIPANT);
+
+        if (state == null) {
+            authenticate(session, kind, object);
+        } else if (kind.equals("flush")) {
+            acknowledge(session, state);
+        } else {
+            receiveEvent(session, state, kind, object.optLong("seq", -1), object);
+        }
+    }
+
+    /**
+     * Authenticates the participant with the credentials contained in the given message. If the credentials are
+     * invalid, the connection is closed.
+     *
+     * @param session The session over which the message was received.
+     * @param kind The kind of the message.
+     * @param object The message content.
+     * @throws IOException if the response could not be sent.
+     */
+    private void authenticate(final WebSocketSession session, final String kind, final JSONObject object)
+            throws IOException {
+        int userId = object.optInt("user", -1);
+        int experimentId = object.optInt("experiment", -1);
+        String secret = object.optString("secret", null);
+
+        if (!kind.equals("auth") || secret == null || userId < Constants.MIN_ID || experimentId < Constants.MIN_ID
+                || participantService.isInvalidParticipant(userId, experimentId, secret, true)) {
+            LOGGER.debug("Closing WebSocket session " + session.getId() + " due to invalid credentials!");
+            close(session, CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+
+        session.getAttributes().put(PARTICIPANT, new ParticipantState(userId, experimentId, secret));
+        send(session, new JSONObject().put("kind", "ready").put("window", window).put("batch", batchSize));
+    }
+
+    /**
+     * Saves the event contained in the given message and acknowledges the received events once the batch size has
+     * been reached. If the sequence number of the message is not greater than the previous one or exceeds the flow
+     * control window, the connection is closed.
+     *
+     * @param session The session over which the message was received.
+     * @param state The state of the authenticated participant.
+     * @param kind The kind of event.
+     * @param sequence The sequence number of the message.
+     * @param object The message content.
+     * @throws IOException if the acknowledgement could not be sent.
+     */
+    private void receiveEvent(final WebSocketSession session, final ParticipantState state, final String kind,
+                              final long sequence, final JSONObject object) throws IOException {
+        if (sequence <= state.received) {
+            LOGGER.debug("Closing WebSocket session " + session.getId() + " due to invalid sequence number "
+                    + sequence + "!");
+            close(session, CloseStatus.BAD_DATA);
+            return;
+        } else if (sequence - state.acknowledged > window) {
+            LOGGER.debug("Closing WebSocket session " + session.getId() + " exceeding the flow control window!");
+            close(session, CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+
+        state.received = sequence;
+        state.pending++;
+
+        if (!saveEvent(kind, object, state)) {
+            state.rejected.add(sequence);
+        }
+
+        if (state.pending >= batchSize) {
+            acknowledge(session, state);
+        }
+    }
+
+    /**
+     * Acknowledges all events received so far. If the participant is no longer allowed to send events, e.g. since
+     * they have finished the experiment in the meantime, the connection is closed instead.
+     *
+     * @param session The session over which the events were received.
+     * @param state The state of the authenticated participant.
+     * @throws IOException if the acknowledgement could not be sent.
+     */
+    private void acknowledge(final WebSocketSession session, final ParticipantState state) throws IOException {
+        if (participantService.isInvalidParticipant(state.user, state.experiment, state.secret, true)) {
+            LOGGER.debug("Closing WebSocket session " + session.getId() + " of user with id " + state.user
+                    + " who is no longer participating in experiment with id " + state.experiment + "!");
+            close(session, CloseStatus.POLICY_VIOLATION);
+            return;
+        }
+
+        send(session, new JSONObject().put("kind", "ack").put("seq", state.received).put("rejected",
+                state.rejected));
+        state.acknowledged = state.received;
+        state.pending = 0;
+        state.rejected.clear();
+    }
+
+    /**
+     * Saves the event of the given kind contained in the given message for the authenticated participant the same way
+     * as the {@link fim.unipassau.de.scratchLog.web.controller.EventRestController} does, if the participant has not
+     * exceeded the rate limit for the given kind of event. If the local event spool is enabled, the event data is
+     * written to the spool together with the credentials of the participant, so it can be verified on replay.
+     * Otherwise, a permit of the concurrency limit is held while the event is saved.
+     *
+     * @param kind The kind of event.
+     * @param object The message content.
+     * @param state The state of the authenticated participant.
+     * @return {@code true} if the event was spooled or saved, or {@code false} if the data was invalid, the event was
+     *         rejected by the admission control or could not be saved.
+     */
+    private boolean saveEvent(final String kind, final JSONObject object, final ParticipantState state) {
+        if (!KINDS.containsKey(kind)) {
+            LOGGER.debug("Received event of unknown kind " + kind + " over WebSocket!");
+            return false;
+        }
+
+        String data = object.put("user", state.user).put("experiment", state.experiment).put("secret", state.secret)
+                .toString();
+        EventDTO eventDTO;
+
+        try {
+            eventDTO = createDTO(data, KINDS.get(kind), state);
+        } catch (JsonProcessingException e) {
+            LOGGER.error("The " + kind + " event data sent over WebSocket was incomplete!", e);
+            return false;
+        }
+
+        try {
+            admissionService.checkRate(kind, state.user, state.experiment);
+
+            if (eventSpoolService.isEnabled() && eventSpoolService.append(kind, data)) {
+                return true;
+            }
+
+            admissionService.acquire();
+        } catch (RateLimitException e) {
+            LOGGER.debug("Rejecting the " + kind + " event sent over WebSocket by user with id " + state.user
+                    + " due to the admission control!");
+            return false;
+        }
+
+        long start = System.nanoTime();
+
+        try {
+            switch (kind) {
+                case "block" -> eventService.saveBlockEvent((BlockEventDTO) eventDTO);
+                case "click" -> eventService.saveClickEvent((ClickEventDTO) eventDTO);
+                case "debugger" -> eventService.saveDebuggerEvent((DebuggerEventDTO) eventDTO);
+                case "question" -> eventService.saveQuestionEvent((QuestionEventDTO) eventDTO);
+                case "resource" -> eventService.saveResourceEvent((ResourceEventDTO) eventDTO);
+                case "file" -> fileService.saveFile((FileDTO) eventDTO);
+                case "zip" -> fileService.saveSb3Zip((Sb3ZipDTO) eventDTO);
+                default -> throw new IllegalStateException("Unexpected event kind " + kind + "!");
+            }
+
+            return true;
+        } catch (RuntimeException e) {
+            LOGGER.error("Could not save the " + kind + " event sent over WebSocket by user with id " + state.user
+                    + " for experiment with id " + state.experiment + "!", e);
+            return false;
+        } finally {
+            admissionService.release(System.nanoTime() - start);
+        }
+    }
+
+    /**
+     * Creates a DTO of the given type with the given data, using the user and experiment id of the authenticated
+     * participant.
+     *
+     * @param data The event data.
+     * @param type The type of DTO to create.
+     * @param state The state of the authenticated participant.
+     * @param <T> The type of DTO to create.
+     * @return The new DTO.
+     * @throws JsonProcessingException if the data could not be converted.
+     */
+    private <T extends EventDTO> T createDTO(final String data, final Class<T> type, final ParticipantState state)
+            throws JsonProcessingException {
+        T dto = MAPPER.readValue(data, type);
+        dto.setUser(state.user);
+        dto.setExperiment(state.experiment);
+        return dto;
+    }
+
+    /**
+     * Sends the given content over the given session.
+     *
+     * @param session The session.
+     * @param content The content to send.
+     * @throws IOException if the message could not be sent.
+     */
+    private void send(final WebSocketSession session, final JSONObject content) throws IOException {
+        session.sendMessage(new TextMessage(content.toString()));
+    }
+
+    /**
+     * Closes the given session with the given status.
+     *
+     * @param session The session to close.
+     * @param status The close status.
+     */
+    private void close(final WebSocketSession session, final CloseStatus status) {
+        try {
+            session.close(status);
+        } catch (IOException e) {
+            LOGGER.error("Could not close WebSocket session " + session.getId() + "!", e);
+        }
+    }
+
+    /**
+     * The state of the participant authenticated on a WebSocket session.
+     */
+    private static final class ParticipantState {
+
+        /**
+         * The user id of the participant.
+         */
+        private final int user;
+
+        /**
+         * The experiment id of the participant.
+         */
+        private final int experiment;
+
+        /**
+         * The secret of the participant.
+         */
+        private final String secret;
+
+        /**
+         * The highest sequence number received so far.
+         */
+        private long received = 0;
+
+        /**
+         * The highest sequence number acknowledged so far.
+         */
+        private long acknowledged = 0;
+
+        /**
+         * The number of messages received since the last acknowledgement.
+         */
+        private int pending = 0;
+
+        /**
+         * The sequence numbers of the events received since the last acknowledgement that could not be saved.
+         */
+        private final List<Long> rejected = new ArrayList<>();
+
+        /**
+         * Constructs a new participant state with the given credentials.
+         *
+         * @param user The user id.
+         * @param experiment The experiment id.
+         * @param secret The secret.
+         */
+        private ParticipantState(final int user, final int experiment, final String secret) {
+            this.user = user;
+            this.experiment = experiment;
+            this.secret = secret;
+        }
+
+    }
+
+}
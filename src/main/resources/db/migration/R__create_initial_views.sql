@@ -6,47 +6,74 @@
 
 CREATE OR REPLACE VIEW `user_num_block_events` (`user`, `experiment`, `count`, `event`) AS
 select
-    `b`.`user_id` AS `user_id`,
-    `b`.`experiment_id` AS `experiment_id`,
-    count(`b`.`event`) AS `COUNT(b.event)`,
-    `b`.`event` AS `event`
+    `n`.`user_id` AS `user_id`,
+    `n`.`experiment_id` AS `experiment_id`,
+    `n`.`count` AS `count`,
+    `c`.`name` AS `event`
 from
-    `block_event` `b`
-group by
-    `b`.`user_id`,
-    `b`.`experiment_id`,
-    `b`.`event`;
+    ((select
+        `b`.`user_id` AS `user_id`,
+        `b`.`experiment_id` AS `experiment_id`,
+        count(`b`.`event`) AS `count`,
+        `b`.`event` AS `event`
+    from
+        `block_event` `b`
+    group by
+        `b`.`user_id`,
+        `b`.`experiment_id`,
+        `b`.`event`) `n`
+        join `event_code` `c`)
+where
+    ((`c`.`enum_type` = 'BlockEventSpecific') and (`c`.`code` = `n`.`event`));
 
 -- user_num_click_events view source
 
 CREATE OR REPLACE VIEW `user_num_click_events` (`user`, `experiment`, `count`, `event`) AS
 select
-    `b`.`user_id` AS `user_id`,
-    `b`.`experiment_id` AS `experiment_id`,
-    count(`b`.`event`) AS `COUNT(b.event)`,
-    `b`.`event` AS `event`
+    `n`.`user_id` AS `user_id`,
+    `n`.`experiment_id` AS `experiment_id`,
+    `n`.`count` AS `count`,
+    `c`.`name` AS `event`
 from
-    `click_event` `b`
-group by
-    `b`.`user_id`,
-    `b`.`experiment_id`,
-    `b`.`event`;
+    ((select
+        `b`.`user_id` AS `user_id`,
+        `b`.`experiment_id` AS `experiment_id`,
+        count(`b`.`event`) AS `count`,
+        `b`.`event` AS `event`
+    from
+        `click_event` `b`
+    group by
+        `b`.`user_id`,
+        `b`.`experiment_id`,
+        `b`.`event`) `n`
+        join `event_code` `c`)
+where
+    ((`c`.`enum_type` = 'ClickEventSpecific') and (`c`.`code` = `n`.`event`));
 
 
 -- user_num_resource_events view source
 
 CREATE OR REPLACE VIEW `user_num_resource_events` (`user`, `experiment`, `count`, `event`) AS
 select
-    `r`.`user_id` AS `user_id`,
-    `r`.`experiment_id` AS `experiment_id`,
-    count(`r`.`event`) AS `COUNT(r.event)`,
-    `r`.`event` AS `event`
+    `n`.`user_id` AS `user_id`,
+    `n`.`experiment_id` AS `experiment_id`,
+    `n`.`count` AS `count`,
+    `c`.`name` AS `event`
 from
-    `resource_event` `r`
-group by
-    `r`.`user_id`,
-    `r`.`experiment_id`,
-    `r`.`event`;
+    ((select
+        `r`.`user_id` AS `user_id`,
+        `r`.`experiment_id` AS `experiment_id`,
+        count(`r`.`event`) AS `count`,
+        `r`.`event` AS `event`
+    from
+        `resource_event` `r`
+    group by
+        `r`.`user_id`,
+        `r`.`experiment_id`,
+        `r`.`event`) `n`
+        join `event_code` `c`)
+where
+    ((`c`.`enum_type` = 'ResourceEventSpecific') and (`c`.`code` = `n`.`event`));
 
 -- experiment_data view source
 
@@ -0,0 +1,9 @@
+-- event_key table definition
+
+CREATE TABLE IF NOT EXISTS `event_key` (
+    `user_id` int NOT NULL,
+    `experiment_id` int NOT NULL,
+    `hash` bigint NOT NULL,
+    PRIMARY KEY (`user_id`,`experiment_id`,`hash`),
+    CONSTRAINT `event_key_ibfk_1` FOREIGN KEY (`user_id`, `experiment_id`) REFERENCES `participant` (`user_id`, `experiment_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -0,0 +1,3 @@
+-- block_event index for point-in-time project queries
+
+ALTER TABLE block_event ADD KEY `block_event_date` (`user_id`, `experiment_id`, `date`);
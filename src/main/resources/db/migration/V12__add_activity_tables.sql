@@ -0,0 +1,28 @@
+-- activity_bucket table definition
+
+CREATE TABLE IF NOT EXISTS `activity_bucket` (
+    `experiment_id` int NOT NULL,
+    `bucket` bigint NOT NULL,
+    `kind` smallint NOT NULL,
+    `total` bigint NOT NULL,
+    PRIMARY KEY (`experiment_id`,`bucket`,`kind`),
+    CONSTRAINT `activity_bucket_ibfk_1` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- activity_opcode table definition
+
+CREATE TABLE IF NOT EXISTS `activity_opcode` (
+    `experiment_id` int NOT NULL,
+    `opcode` varchar(255) NOT NULL,
+    `total` bigint NOT NULL,
+    PRIMARY KEY (`experiment_id`,`opcode`),
+    CONSTRAINT `activity_opcode_ibfk_1` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+INSERT IGNORE INTO event_code (enum_type, code, name) VALUES
+    ('ActivityKind', 1, 'BLOCK'),
+    ('ActivityKind', 2, 'CLICK'),
+    ('ActivityKind', 3, 'DEBUGGER'),
+    ('ActivityKind', 4, 'QUESTION'),
+    ('ActivityKind', 5, 'RESOURCE'),
+    ('ActivityKind', 6, 'PARTICIPANT');
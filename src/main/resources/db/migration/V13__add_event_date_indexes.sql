@@ -0,0 +1,6 @@
+-- Event indexes for reading the events of a participant in chronological order
+
+ALTER TABLE click_event ADD KEY `click_event_date` (`user_id`, `experiment_id`, `date`);
+ALTER TABLE debugger_event ADD KEY `debugger_event_date` (`user_id`, `experiment_id`, `date`);
+ALTER TABLE question_event ADD KEY `question_event_date` (`user_id`, `experiment_id`, `date`);
+ALTER TABLE resource_event ADD KEY `resource_event_date` (`user_id`, `experiment_id`, `date`);
@@ -0,0 +1,16 @@
+-- Full-text indexes for the search, using the n-gram parser to match arbitrary substrings. The indexes are created with
+-- the empty search_stopword table as stopword list, as the n-gram parser would otherwise skip every token containing a
+-- default stopword such as 'a' or 'i'. InnoDB only applies the stopword settings of the session creating or rebuilding
+-- an index, so any later rebuild of these indexes, e.g. by OPTIMIZE TABLE or a table-copying ALTER TABLE, has to be run
+-- with innodb_ft_user_stopword_table set to this table as well, or with innodb_ft_server_stopword_table pointing to it
+-- in the server configuration (see README).
+
+CREATE TABLE IF NOT EXISTS `search_stopword` (
+    `value` varchar(30) NOT NULL DEFAULT ''
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+SET SESSION innodb_ft_user_stopword_table = CONCAT(DATABASE(), '/search_stopword');
+
+ALTER TABLE `user` ADD FULLTEXT KEY `user_search` (`username`, `email`) WITH PARSER ngram;
+ALTER TABLE experiment ADD FULLTEXT KEY `experiment_search` (`title`) WITH PARSER ngram;
+ALTER TABLE course ADD FULLTEXT KEY `course_search` (`title`) WITH PARSER ngram;
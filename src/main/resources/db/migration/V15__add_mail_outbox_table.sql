@@ -0,0 +1,16 @@
+-- mail_outbox table definition
+
+CREATE TABLE IF NOT EXISTS `mail_outbox` (
+    `id` int NOT NULL AUTO_INCREMENT,
+    `recipient` varchar(255) NOT NULL,
+    `subject` varchar(255) NOT NULL,
+    `template` varchar(255) NOT NULL,
+    `model` text NOT NULL,
+    `attempts` int NOT NULL DEFAULT 0,
+    `failed` boolean NOT NULL DEFAULT 0,
+    `next_attempt` datetime NOT NULL,
+    `created` datetime NOT NULL,
+    `last_error` varchar(1000) NULL DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `mail_outbox_due` (`failed`, `next_attempt`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
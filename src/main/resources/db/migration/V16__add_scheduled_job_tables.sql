@@ -0,0 +1,22 @@
+-- job_lease table definition
+
+CREATE TABLE IF NOT EXISTS `job_lease` (
+    `name` varchar(64) NOT NULL,
+    `owner` varchar(255) NOT NULL,
+    `locked_until` datetime NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- job_run table definition
+
+CREATE TABLE IF NOT EXISTS `job_run` (
+    `id` int NOT NULL AUTO_INCREMENT,
+    `name` varchar(64) NOT NULL,
+    `node` varchar(255) NOT NULL,
+    `started` datetime NOT NULL,
+    `duration` bigint NOT NULL,
+    `affected` int NOT NULL,
+    `failed` boolean NOT NULL DEFAULT 0,
+    PRIMARY KEY (`id`),
+    KEY `job_run_started` (`started`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
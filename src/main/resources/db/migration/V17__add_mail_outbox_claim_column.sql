@@ -0,0 +1,2 @@
+ALTER TABLE mail_outbox ADD COLUMN claim varchar(36) NULL DEFAULT NULL;
+CREATE INDEX mail_outbox_claim ON mail_outbox (claim);
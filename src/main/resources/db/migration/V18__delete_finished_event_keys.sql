@@ -0,0 +1,2 @@
+DELETE k FROM event_key AS k INNER JOIN participant AS p ON k.user_id = p.user_id AND k.experiment_id = p.experiment_id
+WHERE p.finish IS NOT NULL;
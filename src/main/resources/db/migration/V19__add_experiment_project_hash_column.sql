@@ -0,0 +1,3 @@
+ALTER TABLE experiment_project ADD COLUMN hash char(32) NULL DEFAULT NULL AFTER project;
+UPDATE experiment_project SET hash = MD5(project);
+ALTER TABLE experiment_project MODIFY hash char(32) NOT NULL;
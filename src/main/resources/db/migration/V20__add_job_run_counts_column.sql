@@ -0,0 +1 @@
+ALTER TABLE job_run ADD COLUMN counts varchar(255) NULL DEFAULT NULL AFTER failed;
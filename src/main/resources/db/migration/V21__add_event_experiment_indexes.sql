@@ -0,0 +1,7 @@
+-- Event indexes for reading the events of all participants of an experiment in chronological order
+
+ALTER TABLE block_event ADD KEY `block_event_experiment` (`experiment_id`, `user_id`, `date`, `id`);
+ALTER TABLE click_event ADD KEY `click_event_experiment` (`experiment_id`, `user_id`, `date`, `id`);
+ALTER TABLE debugger_event ADD KEY `debugger_event_experiment` (`experiment_id`, `user_id`, `date`, `id`);
+ALTER TABLE question_event ADD KEY `question_event_experiment` (`experiment_id`, `user_id`, `date`, `id`);
+ALTER TABLE resource_event ADD KEY `resource_event_experiment` (`experiment_id`, `user_id`, `date`, `id`);
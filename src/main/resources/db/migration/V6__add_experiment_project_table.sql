@@ -0,0 +1,17 @@
+-- experiment_project table definition
+
+CREATE TABLE IF NOT EXISTS `experiment_project` (
+    `experiment_id` int NOT NULL,
+    `project` longblob NOT NULL,
+    PRIMARY KEY (`experiment_id`),
+    CONSTRAINT `experiment_project_ibfk_1` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+INSERT INTO experiment_project (experiment_id, project) SELECT e.id, e.project FROM experiment AS e
+    WHERE e.project IS NOT NULL;
+ALTER TABLE experiment DROP COLUMN project;
+
+-- cached course experiment flag
+
+ALTER TABLE experiment ADD COLUMN course_experiment bit(1) NOT NULL DEFAULT b'0' AFTER active;
+UPDATE experiment AS e SET e.course_experiment = b'1' WHERE e.id IN (SELECT c.experiment_id FROM course_experiment AS c);
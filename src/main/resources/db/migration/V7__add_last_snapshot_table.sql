@@ -0,0 +1,18 @@
+-- last_snapshot table definition
+
+CREATE TABLE IF NOT EXISTS `last_snapshot` (
+    `user_id` int NOT NULL,
+    `experiment_id` int NOT NULL,
+    `date` DATETIME NOT NULL,
+    `json` text NOT NULL,
+    PRIMARY KEY (`user_id`,`experiment_id`),
+    CONSTRAINT `last_snapshot_ibfk_1` FOREIGN KEY (`user_id`, `experiment_id`) REFERENCES `participant` (`user_id`, `experiment_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+INSERT IGNORE INTO last_snapshot (user_id, experiment_id, date, json) SELECT b.user_id, b.experiment_id, b.date, b.json
+    FROM block_event AS b
+    INNER JOIN (SELECT l.user_id, l.experiment_id, MAX(l.date) AS date FROM block_event AS l WHERE l.json IS NOT NULL
+        GROUP BY l.user_id, l.experiment_id) AS m ON m.user_id = b.user_id AND m.experiment_id = b.experiment_id
+        AND m.date = b.date
+    INNER JOIN participant AS p ON p.user_id = b.user_id AND p.experiment_id = b.experiment_id
+    WHERE b.json IS NOT NULL;
@@ -0,0 +1,159 @@
+-- event_code table definition
+
+CREATE TABLE IF NOT EXISTS `event_code` (
+    `enum_type` varchar(64) NOT NULL,
+    `code` smallint NOT NULL,
+    `name` varchar(255) NOT NULL,
+    PRIMARY KEY (`enum_type`,`code`),
+    UNIQUE KEY `event_code_name` (`enum_type`,`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+INSERT IGNORE INTO event_code (enum_type, code, name) VALUES
+    ('BlockEventType', 1, 'CLICK'),
+    ('BlockEventType', 2, 'RENAME'),
+    ('BlockEventType', 3, 'CREATE'),
+    ('BlockEventType', 4, 'CHANGE'),
+    ('BlockEventType', 5, 'MOVE'),
+    ('BlockEventType', 6, 'DELETE'),
+    ('BlockEventType', 7, 'DRAG'),
+    ('BlockEventSpecific', 1, 'GREENFLAG'),
+    ('BlockEventSpecific', 2, 'STOPALL'),
+    ('BlockEventSpecific', 3, 'SPRITE'),
+    ('BlockEventSpecific', 4, 'STACKCLICK'),
+    ('BlockEventSpecific', 5, 'CREATE'),
+    ('BlockEventSpecific', 6, 'CHANGE'),
+    ('BlockEventSpecific', 7, 'MOVE'),
+    ('BlockEventSpecific', 8, 'DRAGOUTSIDE'),
+    ('BlockEventSpecific', 9, 'ENDDRAGONTO'),
+    ('BlockEventSpecific', 10, 'ENDDRAG'),
+    ('BlockEventSpecific', 11, 'DELETE'),
+    ('BlockEventSpecific', 12, 'VAR_CREATE_GLOBAL'),
+    ('BlockEventSpecific', 13, 'VAR_CREATE_LOCAL'),
+    ('BlockEventSpecific', 14, 'VAR_RENAME_GLOBAL'),
+    ('BlockEventSpecific', 15, 'VAR_RENAME_LOCAL'),
+    ('BlockEventSpecific', 16, 'VAR_DELETE'),
+    ('BlockEventSpecific', 17, 'COMMENT_CREATE'),
+    ('BlockEventSpecific', 18, 'COMMENT_CHANGE'),
+    ('BlockEventSpecific', 19, 'COMMENT_MOVE'),
+    ('BlockEventSpecific', 20, 'COMMENT_DELETE'),
+    ('ClickEventType', 1, 'BUTTON'),
+    ('ClickEventType', 2, 'ICON'),
+    ('ClickEventType', 3, 'CODE'),
+    ('ClickEventSpecific', 1, 'GREENFLAG'),
+    ('ClickEventSpecific', 2, 'STOPALL'),
+    ('ClickEventSpecific', 3, 'STACKCLICK'),
+    ('ClickEventSpecific', 4, 'REWIND_EXECUTION_SLIDER_CHANGE'),
+    ('ClickEventSpecific', 5, 'STEP_BACK'),
+    ('ClickEventSpecific', 6, 'STEP_OVER'),
+    ('ClickEventSpecific', 7, 'PAUSE_EXECUTION'),
+    ('ClickEventSpecific', 8, 'RESUME_EXECUTION'),
+    ('ClickEventSpecific', 9, 'DEACTIVATE_OBSERVATION'),
+    ('ClickEventSpecific', 10, 'ACTIVATE_OBSERVATION'),
+    ('ClickEventSpecific', 11, 'CLOSE_DEBUGGER'),
+    ('DebuggerEventType', 1, 'BREAKPOINT'),
+    ('DebuggerEventType', 2, 'BLOCK'),
+    ('DebuggerEventType', 3, 'SPRITE'),
+    ('DebuggerEventType', 4, 'TARGET'),
+    ('DebuggerEventSpecific', 1, 'OPEN_DEBUGGER'),
+    ('DebuggerEventSpecific', 2, 'SELECT_SPRITE'),
+    ('DebuggerEventSpecific', 3, 'OPEN_BLOCK'),
+    ('DebuggerEventSpecific', 4, 'SELECT_BLOCK_EXECUTION'),
+    ('DebuggerEventSpecific', 5, 'ROUTE_TO_BLOCK'),
+    ('DebuggerEventSpecific', 6, 'ADD_BREAKPOINT'),
+    ('DebuggerEventSpecific', 7, 'DELETE_BREAKPOINT'),
+    ('QuestionEventType', 1, 'QUESTION'),
+    ('QuestionEventType', 2, 'QUESTION_CATEGORY'),
+    ('QuestionEventSpecific', 1, 'OPEN_CATEGORY'),
+    ('QuestionEventSpecific', 2, 'CLOSE_CATEGORY'),
+    ('QuestionEventSpecific', 3, 'SELECT'),
+    ('QuestionEventSpecific', 4, 'RATE'),
+    ('ResourceEventType', 1, 'ADD'),
+    ('ResourceEventType', 2, 'RENAME'),
+    ('ResourceEventType', 3, 'DELETE'),
+    ('ResourceEventSpecific', 1, 'DELETE_COSTUME'),
+    ('ResourceEventSpecific', 2, 'DELETE_SOUND'),
+    ('ResourceEventSpecific', 3, 'ADD_COSTUME'),
+    ('ResourceEventSpecific', 4, 'ADD_SOUND'),
+    ('ResourceEventSpecific', 5, 'RENAME_COSTUME'),
+    ('ResourceEventSpecific', 6, 'RENAME_BACKDROP'),
+    ('ResourceEventSpecific', 7, 'RENAME_SOUND');
+
+-- Aborts the migration before any event column is changed if an event row holds a value that has no code in
+-- event_code, as such a row could not be converted. The missing values have to be added to event_code first.
+
+DROP PROCEDURE IF EXISTS check_event_codes;
+
+DELIMITER //
+
+CREATE PROCEDURE check_event_codes()
+BEGIN
+    IF EXISTS (SELECT 1 FROM block_event AS e
+            LEFT JOIN event_code AS t ON t.enum_type = 'BlockEventType' AND t.name = e.event_type
+            LEFT JOIN event_code AS s ON s.enum_type = 'BlockEventSpecific' AND s.name = e.event
+            WHERE t.code IS NULL OR s.code IS NULL) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'block_event contains event values without a code in event_code';
+    END IF;
+    IF EXISTS (SELECT 1 FROM click_event AS e
+            LEFT JOIN event_code AS t ON t.enum_type = 'ClickEventType' AND t.name = e.event_type
+            LEFT JOIN event_code AS s ON s.enum_type = 'ClickEventSpecific' AND s.name = e.event
+            WHERE t.code IS NULL OR s.code IS NULL) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'click_event contains event values without a code in event_code';
+    END IF;
+    IF EXISTS (SELECT 1 FROM debugger_event AS e
+            LEFT JOIN event_code AS t ON t.enum_type = 'DebuggerEventType' AND t.name = e.event_type
+            LEFT JOIN event_code AS s ON s.enum_type = 'DebuggerEventSpecific' AND s.name = e.event
+            WHERE t.code IS NULL OR s.code IS NULL) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'debugger_event contains event values without a code in event_code';
+    END IF;
+    IF EXISTS (SELECT 1 FROM question_event AS e
+            LEFT JOIN event_code AS t ON t.enum_type = 'QuestionEventType' AND t.name = e.event_type
+            LEFT JOIN event_code AS s ON s.enum_type = 'QuestionEventSpecific' AND s.name = e.event
+            WHERE t.code IS NULL OR s.code IS NULL) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'question_event contains event values without a code in event_code';
+    END IF;
+    IF EXISTS (SELECT 1 FROM resource_event AS e
+            LEFT JOIN event_code AS t ON t.enum_type = 'ResourceEventType' AND t.name = e.event_type
+            LEFT JOIN event_code AS s ON s.enum_type = 'ResourceEventSpecific' AND s.name = e.event
+            WHERE t.code IS NULL OR s.code IS NULL) THEN
+        SIGNAL SQLSTATE '45000' SET MESSAGE_TEXT = 'resource_event contains event values without a code in event_code';
+    END IF;
+END //
+
+DELIMITER ;
+
+CALL check_event_codes();
+DROP PROCEDURE check_event_codes;
+
+UPDATE block_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'BlockEventType' AND t.name = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'BlockEventSpecific' AND s.name = e.event
+    SET e.event_type = t.code, e.event = s.code;
+
+UPDATE click_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'ClickEventType' AND t.name = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'ClickEventSpecific' AND s.name = e.event
+    SET e.event_type = t.code, e.event = s.code;
+
+UPDATE debugger_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'DebuggerEventType' AND t.name = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'DebuggerEventSpecific' AND s.name = e.event
+    SET e.event_type = t.code, e.event = s.code;
+
+UPDATE question_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'QuestionEventType' AND t.name = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'QuestionEventSpecific' AND s.name = e.event
+    SET e.event_type = t.code, e.event = s.code;
+
+UPDATE resource_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'ResourceEventType' AND t.name = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'ResourceEventSpecific' AND s.name = e.event
+    SET e.event_type = t.code, e.event = s.code;
+
+ALTER TABLE block_event MODIFY event_type smallint NOT NULL, MODIFY event smallint NOT NULL,
+    ADD KEY `block_event_count` (`user_id`, `experiment_id`, `event`);
+ALTER TABLE click_event MODIFY event_type smallint NOT NULL, MODIFY event smallint NOT NULL,
+    ADD KEY `click_event_count` (`user_id`, `experiment_id`, `event`);
+ALTER TABLE debugger_event MODIFY event_type smallint NOT NULL, MODIFY event smallint NOT NULL;
+ALTER TABLE question_event MODIFY event_type smallint NOT NULL, MODIFY event smallint NOT NULL;
+ALTER TABLE resource_event MODIFY event_type smallint NOT NULL, MODIFY event smallint NOT NULL,
+    ADD KEY `resource_event_count` (`user_id`, `experiment_id`, `event`);
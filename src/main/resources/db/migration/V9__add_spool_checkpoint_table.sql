@@ -0,0 +1,8 @@
+-- spool_checkpoint table definition
+
+CREATE TABLE IF NOT EXISTS `spool_checkpoint` (
+    `name` varchar(255) NOT NULL,
+    `segment` bigint NOT NULL,
+    `position` bigint NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -0,0 +1,2 @@
+DROP TABLE event_key;
+DELETE FROM flyway_schema_history AS f WHERE f.version='10';
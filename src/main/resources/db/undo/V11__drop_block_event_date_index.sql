@@ -0,0 +1,2 @@
+ALTER TABLE block_event DROP KEY `block_event_date`;
+DELETE FROM flyway_schema_history AS f WHERE f.version='11';
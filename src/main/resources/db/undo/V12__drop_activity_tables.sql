@@ -0,0 +1,4 @@
+DROP TABLE activity_opcode;
+DROP TABLE activity_bucket;
+DELETE FROM event_code AS e WHERE e.enum_type='ActivityKind';
+DELETE FROM flyway_schema_history AS f WHERE f.version='12';
@@ -0,0 +1,5 @@
+ALTER TABLE click_event DROP KEY `click_event_date`;
+ALTER TABLE debugger_event DROP KEY `debugger_event_date`;
+ALTER TABLE question_event DROP KEY `question_event_date`;
+ALTER TABLE resource_event DROP KEY `resource_event_date`;
+DELETE FROM flyway_schema_history AS f WHERE f.version='13';
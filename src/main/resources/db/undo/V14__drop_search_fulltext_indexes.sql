@@ -0,0 +1,5 @@
+ALTER TABLE `user` DROP KEY `user_search`;
+ALTER TABLE experiment DROP KEY `experiment_search`;
+ALTER TABLE course DROP KEY `course_search`;
+DROP TABLE IF EXISTS `search_stopword`;
+DELETE FROM flyway_schema_history AS f WHERE f.version='14';
@@ -0,0 +1,2 @@
+DROP TABLE mail_outbox;
+DELETE FROM flyway_schema_history AS f WHERE f.version='15';
@@ -0,0 +1,3 @@
+DROP TABLE job_run;
+DROP TABLE job_lease;
+DELETE FROM flyway_schema_history AS f WHERE f.version='16';
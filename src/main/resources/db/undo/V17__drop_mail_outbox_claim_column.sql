@@ -0,0 +1,3 @@
+DROP INDEX mail_outbox_claim ON mail_outbox;
+ALTER TABLE mail_outbox DROP COLUMN claim;
+DELETE FROM flyway_schema_history AS f WHERE f.version='17';
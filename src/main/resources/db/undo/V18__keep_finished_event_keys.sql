@@ -0,0 +1 @@
+DELETE FROM flyway_schema_history AS f WHERE f.version='18';
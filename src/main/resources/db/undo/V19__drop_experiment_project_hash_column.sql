@@ -0,0 +1,2 @@
+ALTER TABLE experiment_project DROP COLUMN hash;
+DELETE FROM flyway_schema_history AS f WHERE f.version='19';
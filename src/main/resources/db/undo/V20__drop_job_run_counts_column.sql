@@ -0,0 +1,2 @@
+ALTER TABLE job_run DROP COLUMN counts;
+DELETE FROM flyway_schema_history AS f WHERE f.version='20';
@@ -0,0 +1,6 @@
+ALTER TABLE block_event DROP KEY `block_event_experiment`;
+ALTER TABLE click_event DROP KEY `click_event_experiment`;
+ALTER TABLE debugger_event DROP KEY `debugger_event_experiment`;
+ALTER TABLE question_event DROP KEY `question_event_experiment`;
+ALTER TABLE resource_event DROP KEY `resource_event_experiment`;
+DELETE FROM flyway_schema_history AS f WHERE f.version='21';
@@ -0,0 +1,5 @@
+ALTER TABLE experiment DROP COLUMN course_experiment;
+ALTER TABLE experiment ADD COLUMN project longblob NULL DEFAULT NULL AFTER active;
+UPDATE experiment AS e INNER JOIN experiment_project AS p ON p.experiment_id = e.id SET e.project = p.project;
+DROP TABLE experiment_project;
+DELETE FROM flyway_schema_history AS f WHERE f.version='6';
@@ -0,0 +1,2 @@
+DROP TABLE last_snapshot;
+DELETE FROM flyway_schema_history AS f WHERE f.version='7';
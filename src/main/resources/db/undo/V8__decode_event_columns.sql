@@ -0,0 +1,75 @@
+ALTER TABLE block_event DROP KEY `block_event_count`, MODIFY event_type varchar(255) NOT NULL,
+    MODIFY event varchar(255) NOT NULL;
+ALTER TABLE click_event DROP KEY `click_event_count`, MODIFY event_type varchar(255) NOT NULL,
+    MODIFY event varchar(255) NOT NULL;
+ALTER TABLE debugger_event MODIFY event_type varchar(255) NOT NULL, MODIFY event varchar(255) NOT NULL;
+ALTER TABLE question_event MODIFY event_type varchar(255) NOT NULL, MODIFY event varchar(255) NOT NULL;
+ALTER TABLE resource_event DROP KEY `resource_event_count`, MODIFY event_type varchar(255) NOT NULL,
+    MODIFY event varchar(255) NOT NULL;
+
+UPDATE block_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'BlockEventType' AND t.code = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'BlockEventSpecific' AND s.code = e.event
+    SET e.event_type = t.name, e.event = s.name;
+
+UPDATE click_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'ClickEventType' AND t.code = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'ClickEventSpecific' AND s.code = e.event
+    SET e.event_type = t.name, e.event = s.name;
+
+UPDATE debugger_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'DebuggerEventType' AND t.code = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'DebuggerEventSpecific' AND s.code = e.event
+    SET e.event_type = t.name, e.event = s.name;
+
+UPDATE question_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'QuestionEventType' AND t.code = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'QuestionEventSpecific' AND s.code = e.event
+    SET e.event_type = t.name, e.event = s.name;
+
+UPDATE resource_event AS e
+    INNER JOIN event_code AS t ON t.enum_type = 'ResourceEventType' AND t.code = e.event_type
+    INNER JOIN event_code AS s ON s.enum_type = 'ResourceEventSpecific' AND s.code = e.event
+    SET e.event_type = t.name, e.event = s.name;
+
+CREATE OR REPLACE VIEW `user_num_block_events` (`user`, `experiment`, `count`, `event`) AS
+select
+    `b`.`user_id` AS `user_id`,
+    `b`.`experiment_id` AS `experiment_id`,
+    count(`b`.`event`) AS `COUNT(b.event)`,
+    `b`.`event` AS `event`
+from
+    `block_event` `b`
+group by
+    `b`.`user_id`,
+    `b`.`experiment_id`,
+    `b`.`event`;
+
+CREATE OR REPLACE VIEW `user_num_click_events` (`user`, `experiment`, `count`, `event`) AS
+select
+    `b`.`user_id` AS `user_id`,
+    `b`.`experiment_id` AS `experiment_id`,
+    count(`b`.`event`) AS `COUNT(b.event)`,
+    `b`.`event` AS `event`
+from
+    `click_event` `b`
+group by
+    `b`.`user_id`,
+    `b`.`experiment_id`,
+    `b`.`event`;
+
+CREATE OR REPLACE VIEW `user_num_resource_events` (`user`, `experiment`, `count`, `event`) AS
+select
+    `r`.`user_id` AS `user_id`,
+    `r`.`experiment_id` AS `experiment_id`,
+    count(`r`.`event`) AS `COUNT(r.event)`,
+    `r`.`event` AS `event`
+from
+    `resource_event` `r`
+group by
+    `r`.`user_id`,
+    `r`.`experiment_id`,
+    `r`.`event`;
+
+DROP TABLE event_code;
+DELETE FROM flyway_schema_history AS f WHERE f.version='8';
@@ -0,0 +1,2 @@
+DROP TABLE spool_checkpoint;
+DELETE FROM flyway_schema_history AS f WHERE f.version='9';
@@ -2,6 +2,16 @@
  *  Definition of tables.  *
  **************************/
 
+-- search_stopword table definition, used as empty stopword list for the full-text search indexes, as the n-gram parser
+-- would skip every token containing a default stopword. The setting only applies to indexes created or rebuilt in this
+-- session (see README).
+
+CREATE TABLE IF NOT EXISTS `search_stopword` (
+    `value` varchar(30) NOT NULL DEFAULT ''
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+SET SESSION innodb_ft_user_stopword_table = CONCAT(DATABASE(), '/search_stopword');
+
 -- experiment table definition
 
 CREATE TABLE IF NOT EXISTS `experiment` (
@@ -11,10 +21,11 @@ CREATE TABLE IF NOT EXISTS `experiment` (
     `postscript` text,
     `infotext` text,
     `active` bit(1) NOT NULL DEFAULT b'0',
-    `project` longblob NULL DEFAULT NULL,
+    `course_experiment` bit(1) NOT NULL DEFAULT b'0',
     `gui_url` varchar(2000) NOT NULL,
     PRIMARY KEY (`id`),
-    UNIQUE KEY `experiment_title` (`title`)
+    UNIQUE KEY `experiment_title` (`title`),
+    FULLTEXT KEY `experiment_search` (`title`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 
@@ -33,7 +44,8 @@ CREATE TABLE IF NOT EXISTS `user` (
     `last_login` DATETIME NOT NULL DEFAULT NOW(),
     PRIMARY KEY (`id`),
     UNIQUE KEY `username` (`username`),
-    UNIQUE KEY `secret` (`secret`)
+    UNIQUE KEY `secret` (`secret`),
+    FULLTEXT KEY `user_search` (`username`, `email`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 
@@ -44,8 +56,8 @@ CREATE TABLE IF NOT EXISTS `block_event` (
     `user_id` int NOT NULL,
     `experiment_id` int NOT NULL,
     `date` DATETIME NOT NULL DEFAULT NOW(),
-    `event_type` varchar(255) NOT NULL,
-    `event` varchar(255) NOT NULL,
+    `event_type` smallint NOT NULL,
+    `event` smallint NOT NULL,
     `spritename` varchar(255) DEFAULT NULL,
     `metadata` varchar(255) DEFAULT NULL,
     `xml` text,
@@ -53,6 +65,9 @@ CREATE TABLE IF NOT EXISTS `block_event` (
     PRIMARY KEY (`id`),
     KEY `user_id` (`user_id`),
     KEY `experiment_id` (`experiment_id`),
+    KEY `block_event_count` (`user_id`,`experiment_id`,`event`),
+    KEY `block_event_date` (`user_id`,`experiment_id`,`date`),
+    KEY `block_event_experiment` (`experiment_id`,`user_id`,`date`,`id`),
     CONSTRAINT `block_event_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `block_event_ibfk_2` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -65,12 +80,15 @@ CREATE TABLE IF NOT EXISTS `click_event` (
     `user_id` int NOT NULL,
     `experiment_id` int NOT NULL,
     `date` DATETIME NOT NULL DEFAULT NOW(),
-    `event_type` varchar(255) NOT NULL,
-    `event` varchar(255) NOT NULL,
+    `event_type` smallint NOT NULL,
+    `event` smallint NOT NULL,
     `metadata` varchar(255) DEFAULT NULL,
     PRIMARY KEY (`id`),
     KEY `user_id` (`user_id`),
     KEY `experiment_id` (`experiment_id`),
+    KEY `click_event_count` (`user_id`,`experiment_id`,`event`),
+    KEY `click_event_date` (`user_id`,`experiment_id`,`date`),
+    KEY `click_event_experiment` (`experiment_id`,`user_id`,`date`,`id`),
     CONSTRAINT `click_event_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `click_event_ibfk_2` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -83,8 +101,8 @@ CREATE TABLE IF NOT EXISTS `debugger_event` (
     `user_id` int NOT NULL,
     `experiment_id` int NOT NULL,
     `date` DATETIME NOT NULL DEFAULT NOW(),
-    `event_type` varchar(255) NOT NULL,
-    `event` varchar(255) NOT NULL,
+    `event_type` smallint NOT NULL,
+    `event` smallint NOT NULL,
     `block_target_id` varchar(255) DEFAULT NULL,
     `name_opcode` varchar(255) DEFAULT NULL,
     `original` int DEFAULT NULL,
@@ -92,6 +110,8 @@ CREATE TABLE IF NOT EXISTS `debugger_event` (
     PRIMARY KEY (`id`),
     KEY `user_id` (`user_id`),
     KEY `experiment_id` (`experiment_id`),
+    KEY `debugger_event_date` (`user_id`,`experiment_id`,`date`),
+    KEY `debugger_event_experiment` (`experiment_id`,`user_id`,`date`,`id`),
     CONSTRAINT `debugger_event_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `debugger_event_ibfk_2` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -104,8 +124,8 @@ CREATE TABLE IF NOT EXISTS `question_event` (
     `user_id` int NOT NULL,
     `experiment_id` int NOT NULL,
     `date` DATETIME NOT NULL DEFAULT NOW(),
-    `event_type` varchar(255) NOT NULL,
-    `event` varchar(255) NOT NULL,
+    `event_type` smallint NOT NULL,
+    `event` smallint NOT NULL,
     `feedback` int DEFAULT NULL,
     `q_type` varchar(255) DEFAULT NULL,
     `q_values` varchar(255) DEFAULT NULL,
@@ -116,6 +136,8 @@ CREATE TABLE IF NOT EXISTS `question_event` (
     PRIMARY KEY (`id`),
     KEY `user_id` (`user_id`),
     KEY `experiment_id` (`experiment_id`),
+    KEY `question_event_date` (`user_id`,`experiment_id`,`date`),
+    KEY `question_event_experiment` (`experiment_id`,`user_id`,`date`,`id`),
     CONSTRAINT `question_event_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `question_event_ibfk_2` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -160,8 +182,8 @@ CREATE TABLE IF NOT EXISTS `resource_event` (
     `user_id` int NOT NULL,
     `experiment_id` int NOT NULL,
     `date` DATETIME NOT NULL DEFAULT NOW(),
-    `event_type` varchar(255) NOT NULL,
-    `event` varchar(255) NOT NULL,
+    `event_type` smallint NOT NULL,
+    `event` smallint NOT NULL,
     `name` varchar(255) DEFAULT NULL,
     `md5` varchar(255) DEFAULT NULL,
     `type` varchar(255) DEFAULT NULL,
@@ -169,6 +191,9 @@ CREATE TABLE IF NOT EXISTS `resource_event` (
     PRIMARY KEY (`id`),
     KEY `user_id` (`user_id`),
     KEY `experiment_id` (`experiment_id`),
+    KEY `resource_event_count` (`user_id`,`experiment_id`,`event`),
+    KEY `resource_event_date` (`user_id`,`experiment_id`,`date`),
+    KEY `resource_event_experiment` (`experiment_id`,`user_id`,`date`,`id`),
     CONSTRAINT `resource_event_ibfk_1` FOREIGN KEY (`user_id`) REFERENCES `user` (`id`) ON DELETE CASCADE,
     CONSTRAINT `resource_event_ibfk_2` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
@@ -212,7 +237,8 @@ CREATE TABLE IF NOT EXISTS `course` (
     `active` bit(1) NOT NULL DEFAULT b'0',
     `last_changed` DATETIME NOT NULL DEFAULT NOW(),
     PRIMARY KEY (`id`),
-    UNIQUE KEY `course_title` (`title`)
+    UNIQUE KEY `course_title` (`title`),
+    FULLTEXT KEY `course_search` (`title`) WITH PARSER ngram
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
 -- course_participant table definition
@@ -239,6 +265,196 @@ CREATE TABLE IF NOT EXISTS `course_experiment` (
     CONSTRAINT `course_experiment_ibfk_2` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
 
+-- experiment_project table definition
+
+CREATE TABLE IF NOT EXISTS `experiment_project` (
+    `experiment_id` int NOT NULL,
+    `project` longblob NOT NULL,
+    `hash` char(32) NOT NULL,
+    PRIMARY KEY (`experiment_id`),
+    CONSTRAINT `experiment_project_ibfk_1` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- last_snapshot table definition
+
+CREATE TABLE IF NOT EXISTS `last_snapshot` (
+    `user_id` int NOT NULL,
+    `experiment_id` int NOT NULL,
+    `date` DATETIME NOT NULL,
+    `json` text NOT NULL,
+    PRIMARY KEY (`user_id`,`experiment_id`),
+    CONSTRAINT `last_snapshot_ibfk_1` FOREIGN KEY (`user_id`, `experiment_id`) REFERENCES `participant` (`user_id`, `experiment_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- event_code table definition
+
+CREATE TABLE IF NOT EXISTS `event_code` (
+    `enum_type` varchar(64) NOT NULL,
+    `code` smallint NOT NULL,
+    `name` varchar(255) NOT NULL,
+    PRIMARY KEY (`enum_type`,`code`),
+    UNIQUE KEY `event_code_name` (`enum_type`,`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+INSERT IGNORE INTO `event_code` (`enum_type`, `code`, `name`) VALUES
+    ('BlockEventType', 1, 'CLICK'),
+    ('BlockEventType', 2, 'RENAME'),
+    ('BlockEventType', 3, 'CREATE'),
+    ('BlockEventType', 4, 'CHANGE'),
+    ('BlockEventType', 5, 'MOVE'),
+    ('BlockEventType', 6, 'DELETE'),
+    ('BlockEventType', 7, 'DRAG'),
+    ('BlockEventSpecific', 1, 'GREENFLAG'),
+    ('BlockEventSpecific', 2, 'STOPALL'),
+    ('BlockEventSpecific', 3, 'SPRITE'),
+    ('BlockEventSpecific', 4, 'STACKCLICK'),
+    ('BlockEventSpecific', 5, 'CREATE'),
+    ('BlockEventSpecific', 6, 'CHANGE'),
+    ('BlockEventSpecific', 7, 'MOVE'),
+    ('BlockEventSpecific', 8, 'DRAGOUTSIDE'),
+    ('BlockEventSpecific', 9, 'ENDDRAGONTO'),
+    ('BlockEventSpecific', 10, 'ENDDRAG'),
+    ('BlockEventSpecific', 11, 'DELETE'),
+    ('BlockEventSpecific', 12, 'VAR_CREATE_GLOBAL'),
+    ('BlockEventSpecific', 13, 'VAR_CREATE_LOCAL'),
+    ('BlockEventSpecific', 14, 'VAR_RENAME_GLOBAL'),
+    ('BlockEventSpecific', 15, 'VAR_RENAME_LOCAL'),
+    ('BlockEventSpecific', 16, 'VAR_DELETE'),
+    ('BlockEventSpecific', 17, 'COMMENT_CREATE'),
+    ('BlockEventSpecific', 18, 'COMMENT_CHANGE'),
+    ('BlockEventSpecific', 19, 'COMMENT_MOVE'),
+    ('BlockEventSpecific', 20, 'COMMENT_DELETE'),
+    ('ClickEventType', 1, 'BUTTON'),
+    ('ClickEventType', 2, 'ICON'),
+    ('ClickEventType', 3, 'CODE'),
+    ('ClickEventSpecific', 1, 'GREENFLAG'),
+    ('ClickEventSpecific', 2, 'STOPALL'),
+    ('ClickEventSpecific', 3, 'STACKCLICK'),
+    ('ClickEventSpecific', 4, 'REWIND_EXECUTION_SLIDER_CHANGE'),
+    ('ClickEventSpecific', 5, 'STEP_BACK'),
+    ('ClickEventSpecific', 6, 'STEP_OVER'),
+    ('ClickEventSpecific', 7, 'PAUSE_EXECUTION'),
+    ('ClickEventSpecific', 8, 'RESUME_EXECUTION'),
+    ('ClickEventSpecific', 9, 'DEACTIVATE_OBSERVATION'),
+    ('ClickEventSpecific', 10, 'ACTIVATE_OBSERVATION'),
+    ('ClickEventSpecific', 11, 'CLOSE_DEBUGGER'),
+    ('DebuggerEventType', 1, 'BREAKPOINT'),
+    ('DebuggerEventType', 2, 'BLOCK'),
+    ('DebuggerEventType', 3, 'SPRITE'),
+    ('DebuggerEventType', 4, 'TARGET'),
+    ('DebuggerEventSpecific', 1, 'OPEN_DEBUGGER'),
+    ('DebuggerEventSpecific', 2, 'SELECT_SPRITE'),
+    ('DebuggerEventSpecific', 3, 'OPEN_BLOCK'),
+    ('DebuggerEventSpecific', 4, 'SELECT_BLOCK_EXECUTION'),
+    ('DebuggerEventSpecific', 5, 'ROUTE_TO_BLOCK'),
+    ('DebuggerEventSpecific', 6, 'ADD_BREAKPOINT'),
+    ('DebuggerEventSpecific', 7, 'DELETE_BREAKPOINT'),
+    ('QuestionEventType', 1, 'QUESTION'),
+    ('QuestionEventType', 2, 'QUESTION_CATEGORY'),
+    ('QuestionEventSpecific', 1, 'OPEN_CATEGORY'),
+    ('QuestionEventSpecific', 2, 'CLOSE_CATEGORY'),
+    ('QuestionEventSpecific', 3, 'SELECT'),
+    ('QuestionEventSpecific', 4, 'RATE'),
+    ('ResourceEventType', 1, 'ADD'),
+    ('ResourceEventType', 2, 'RENAME'),
+    ('ResourceEventType', 3, 'DELETE'),
+    ('ResourceEventSpecific', 1, 'DELETE_COSTUME'),
+    ('ResourceEventSpecific', 2, 'DELETE_SOUND'),
+    ('ResourceEventSpecific', 3, 'ADD_COSTUME'),
+    ('ResourceEventSpecific', 4, 'ADD_SOUND'),
+    ('ResourceEventSpecific', 5, 'RENAME_COSTUME'),
+    ('ResourceEventSpecific', 6, 'RENAME_BACKDROP'),
+    ('ResourceEventSpecific', 7, 'RENAME_SOUND'),
+    ('ActivityKind', 1, 'BLOCK'),
+    ('ActivityKind', 2, 'CLICK'),
+    ('ActivityKind', 3, 'DEBUGGER'),
+    ('ActivityKind', 4, 'QUESTION'),
+    ('ActivityKind', 5, 'RESOURCE'),
+    ('ActivityKind', 6, 'PARTICIPANT');
+
+-- spool_checkpoint table definition
+
+CREATE TABLE IF NOT EXISTS `spool_checkpoint` (
+    `name` varchar(255) NOT NULL,
+    `segment` bigint NOT NULL,
+    `position` bigint NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- event_key table definition
+
+CREATE TABLE IF NOT EXISTS `event_key` (
+    `user_id` int NOT NULL,
+    `experiment_id` int NOT NULL,
+    `hash` bigint NOT NULL,
+    PRIMARY KEY (`user_id`,`experiment_id`,`hash`),
+    CONSTRAINT `event_key_ibfk_1` FOREIGN KEY (`user_id`, `experiment_id`) REFERENCES `participant` (`user_id`, `experiment_id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- activity_bucket table definition
+
+CREATE TABLE IF NOT EXISTS `activity_bucket` (
+    `experiment_id` int NOT NULL,
+    `bucket` bigint NOT NULL,
+    `kind` smallint NOT NULL,
+    `total` bigint NOT NULL,
+    PRIMARY KEY (`experiment_id`,`bucket`,`kind`),
+    CONSTRAINT `activity_bucket_ibfk_1` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- activity_opcode table definition
+
+CREATE TABLE IF NOT EXISTS `activity_opcode` (
+    `experiment_id` int NOT NULL,
+    `opcode` varchar(255) NOT NULL,
+    `total` bigint NOT NULL,
+    PRIMARY KEY (`experiment_id`,`opcode`),
+    CONSTRAINT `activity_opcode_ibfk_1` FOREIGN KEY (`experiment_id`) REFERENCES `experiment` (`id`) ON DELETE CASCADE
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- mail_outbox table definition
+
+CREATE TABLE IF NOT EXISTS `mail_outbox` (
+    `id` int NOT NULL AUTO_INCREMENT,
+    `recipient` varchar(255) NOT NULL,
+    `subject` varchar(255) NOT NULL,
+    `template` varchar(255) NOT NULL,
+    `model` text NOT NULL,
+    `attempts` int NOT NULL DEFAULT 0,
+    `failed` boolean NOT NULL DEFAULT 0,
+    `next_attempt` datetime NOT NULL,
+    `created` datetime NOT NULL,
+    `last_error` varchar(1000) NULL DEFAULT NULL,
+    `claim` varchar(36) NULL DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `mail_outbox_due` (`failed`, `next_attempt`),
+    KEY `mail_outbox_claim` (`claim`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- job_lease table definition
+
+CREATE TABLE IF NOT EXISTS `job_lease` (
+    `name` varchar(64) NOT NULL,
+    `owner` varchar(255) NOT NULL,
+    `locked_until` datetime NOT NULL,
+    PRIMARY KEY (`name`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
+-- job_run table definition
+
+CREATE TABLE IF NOT EXISTS `job_run` (
+    `id` int NOT NULL AUTO_INCREMENT,
+    `name` varchar(64) NOT NULL,
+    `node` varchar(255) NOT NULL,
+    `started` datetime NOT NULL,
+    `duration` bigint NOT NULL,
+    `affected` int NOT NULL,
+    `failed` boolean NOT NULL DEFAULT 0,
+    `counts` varchar(255) NULL DEFAULT NULL,
+    PRIMARY KEY (`id`),
+    KEY `job_run_started` (`started`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci;
+
 /**************************
  *  Definition of views.  *
  **************************/
@@ -247,48 +463,75 @@ CREATE TABLE IF NOT EXISTS `course_experiment` (
 
 CREATE OR REPLACE VIEW `user_num_block_events` (`user`, `experiment`, `count`, `event`) AS
 select
-    `b`.`user_id` AS `user_id`,
-    `b`.`experiment_id` AS `experiment_id`,
-    count(`b`.`event`) AS `COUNT(b.event)`,
-    `b`.`event` AS `event`
+    `n`.`user_id` AS `user_id`,
+    `n`.`experiment_id` AS `experiment_id`,
+    `n`.`count` AS `count`,
+    `c`.`name` AS `event`
 from
-    `block_event` `b`
-group by
-    `b`.`user_id`,
-    `b`.`experiment_id`,
-    `b`.`event`;
+    ((select
+        `b`.`user_id` AS `user_id`,
+        `b`.`experiment_id` AS `experiment_id`,
+        count(`b`.`event`) AS `count`,
+        `b`.`event` AS `event`
+    from
+        `block_event` `b`
+    group by
+        `b`.`user_id`,
+        `b`.`experiment_id`,
+        `b`.`event`) `n`
+        join `event_code` `c`)
+where
+    ((`c`.`enum_type` = 'BlockEventSpecific') and (`c`.`code` = `n`.`event`));
 
 
 -- user_num_click_events view source
 
 CREATE OR REPLACE VIEW `user_num_click_events` (`user`, `experiment`, `count`, `event`) AS
 select
-    `b`.`user_id` AS `user_id`,
-    `b`.`experiment_id` AS `experiment_id`,
-    count(`b`.`event`) AS `COUNT(b.event)`,
-    `b`.`event` AS `event`
+    `n`.`user_id` AS `user_id`,
+    `n`.`experiment_id` AS `experiment_id`,
+    `n`.`count` AS `count`,
+    `c`.`name` AS `event`
 from
-    `click_event` `b`
-group by
-    `b`.`user_id`,
-    `b`.`experiment_id`,
-    `b`.`event`;
+    ((select
+        `b`.`user_id` AS `user_id`,
+        `b`.`experiment_id` AS `experiment_id`,
+        count(`b`.`event`) AS `count`,
+        `b`.`event` AS `event`
+    from
+        `click_event` `b`
+    group by
+        `b`.`user_id`,
+        `b`.`experiment_id`,
+        `b`.`event`) `n`
+        join `event_code` `c`)
+where
+    ((`c`.`enum_type` = 'ClickEventSpecific') and (`c`.`code` = `n`.`event`));
 
 
 -- user_num_resource_events view source
 
 CREATE OR REPLACE VIEW `user_num_resource_events` (`user`, `experiment`, `count`, `event`) AS
 select
-    `r`.`user_id` AS `user_id`,
-    `r`.`experiment_id` AS `experiment_id`,
-    count(`r`.`event`) AS `COUNT(r.event)`,
-    `r`.`event` AS `event`
+    `n`.`user_id` AS `user_id`,
+    `n`.`experiment_id` AS `experiment_id`,
+    `n`.`count` AS `count`,
+    `c`.`name` AS `event`
 from
-    `resource_event` `r`
-group by
-    `r`.`user_id`,
-    `r`.`experiment_id`,
-    `r`.`event`;
+    ((select
+        `r`.`user_id` AS `user_id`,
+        `r`.`experiment_id` AS `experiment_id`,
+        count(`r`.`event`) AS `count`,
+        `r`.`event` AS `event`
+    from
+        `resource_event` `r`
+    group by
+        `r`.`user_id`,
+        `r`.`experiment_id`,
+        `r`.`event`) `n`
+        join `event_code` `c`)
+where
+    ((`c`.`enum_type` = 'ResourceEventSpecific') and (`c`.`code` = `n`.`event`));
 
 -- experiment_data view source
 
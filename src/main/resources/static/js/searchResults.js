@@ -1,12 +1,9 @@
 let userButton = document.getElementById("userButton");
 let userBody = document.getElementById("userBody");
-let userPage = 1;
 let experimentButton = document.getElementById("experimentButton");
 let experimentBody = document.getElementById("experimentBody");
-let experimentPage = 1;
 let courseButton = document.getElementById("courseButton");
 let courseBody = document.getElementById("courseBody");
-let coursePage = 1;
 let query = new URL(window.location.href).searchParams.get("query");
 
 /**
@@ -37,11 +34,10 @@ function loadUserResults() {
     let request = $.ajax({
         dataType: "json",
         url: contextPath + "/search/users",
-        data: {query: query, page: userPage}
+        data: {query: query, last: getLastId(userBody)}
     });
 
     request.done(function(result) {
-        userPage++;
         let html = userBody.innerHTML;
         result.forEach(function(element) {
             html += `
@@ -64,7 +60,7 @@ function loadUserResults() {
             `
         });
         userBody.innerHTML = html;
-        hideUserResultButton();
+        hideUserResultButton(result);
     });
 }
 
@@ -78,11 +74,10 @@ function loadExperimentResults() {
     let request = $.ajax({
         dataType: "json",
         url: contextPath + "/search/experiments",
-        data: {query: query, page: experimentPage}
+        data: {query: query, last: getLastId(experimentBody)}
     });
 
     request.done(function(result) {
-        experimentPage++;
         let html = experimentBody.innerHTML;
         result.forEach(function(element) {
             html += `
@@ -104,7 +99,7 @@ function loadExperimentResults() {
             `
         });
         experimentBody.innerHTML = html;
-        hideExperimentResultButton();
+        hideExperimentResultButton(result);
     });
 }
 
@@ -118,11 +113,10 @@ function loadCourseResults() {
     let request = $.ajax({
         dataType: "json",
         url: contextPath + "/search/courses",
-        data: {query: query, page: coursePage}
+        data: {query: query, last: getLastId(courseBody)}
     });
 
     request.done(function(result) {
-        coursePage++;
         let html = courseBody.innerHTML;
         result.forEach(function(element) {
             html += `
@@ -144,37 +138,56 @@ function loadCourseResults() {
             `
         });
         courseBody.innerHTML = html;
-        hideCourseResultButton();
+        hideCourseResultButton(result);
     });
 }
 
 /**
  * Checks, whether the total amount of user results matching the current query string is smaller than or equal to the
- * current amount of user results being displayed. If so, the button to load additional user results is hidden.
+ * current amount of user results being displayed or fewer results than requested have been retrieved. If so, the
+ * button to load additional user results is hidden.
+ *
+ * @param result The user results retrieved by the last request.
  */
-function hideUserResultButton() {
-    if (userCount <= userPage * pageSize) {
+function hideUserResultButton(result) {
+    if (result.length < pageSize || userCount <= userBody.rows.length) {
         userButton.style.visibility = "hidden";
     }
 }
 
 /**
  * Checks, whether the total amount of experiment results matching the current query string is smaller than or equal to
- * the current amount of experiment results being displayed. If so, the button to load additional experiment results is
- * hidden.
+ * the current amount of experiment results being displayed or fewer results than requested have been retrieved. If so,
+ * the button to load additional experiment results is hidden.
+ *
+ * @param result The experiment results retrieved by the last request.
  */
-function hideExperimentResultButton() {
-    if (experimentCount <= experimentPage * pageSize) {
+function hideExperimentResultButton(result) {
+    if (result.length < pageSize || experimentCount <= experimentBody.rows.length) {
         experimentButton.style.visibility = "hidden";
     }
 }
 
 /**
  * Checks, whether total amount of course results matching the current query string is smaller than or equal to the
- * current amount of course results being displayed. If so, the button to load additional course results is hidden.
+ * current amount of course results being displayed or fewer results than requested have been retrieved. If so, the
+ * button to load additional course results is hidden.
+ *
+ * @param result The course results retrieved by the last request.
  */
-function hideCourseResultButton() {
-    if (courseCount <= coursePage * pageSize) {
+function hideCourseResultButton(result) {
+    if (result.length < pageSize || courseCount <= courseBody.rows.length) {
         courseButton.style.visibility = "hidden";
     }
 }
+
+/**
+ * Returns the id of the last result displayed in the given table body, which is shown in the first cell of each row.
+ * Since the results are ordered by their id, the next results are those with a greater id.
+ *
+ * @param body The table body containing the results.
+ * @return The id of the last result.
+ */
+function getLastId(body) {
+    return body.rows[body.rows.length - 1].cells[0].innerText.trim();
+}
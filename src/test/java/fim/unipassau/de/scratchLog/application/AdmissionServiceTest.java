@@ -0,0 +1,168 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
+import fim.unipassau.de.scratchLog.web.dto.AdmissionStatusDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdmissionServiceTest {
+
+    private AdmissionService admissionService;
+
+    private static final String BLOCK = "block";
+    private static final String DEBUGGER = "debugger";
+    private static final String ZIP = "zip";
+    private static final int ID = 1;
+    private static final int RATE = 1;
+    private static final int BURST = 3;
+    private static final int MIN_CONCURRENCY = 2;
+    private static final int MAX_CONCURRENCY = 4;
+    private static final long LATENCY = 1000;
+
+    @BeforeEach
+    public void setup() {
+        admissionService = new AdmissionService(RATE, BURST, "debugger:1:1, zip:0:0", MIN_CONCURRENCY,
+                MAX_CONCURRENCY, LATENCY);
+    }
+
+    @Test
+    public void testCheckRate() {
+        for (int i = 0; i < BURST; i++) {
+            assertDoesNotThrow(() -> admissionService.checkRate(BLOCK, ID, ID));
+        }
+
+        assertAll(
+                () -> assertThrows(RateLimitException.class, () -> admissionService.checkRate(BLOCK, ID, ID)),
+                () -> assertDoesNotThrow(() -> admissionService.checkRate(BLOCK, ID + 1, ID)),
+                () -> assertDoesNotThrow(() -> admissionService.checkRate(BLOCK, ID, ID + 1)),
+                () -> assertDoesNotThrow(() -> admissionService.checkRate("click", ID, ID)),
+                () -> assertEquals(Map.of(BLOCK, 1L), admissionService.getStatus().getRateLimited())
+        );
+    }
+
+    @Test
+    public void testCheckRateSpecificLimits() {
+        assertDoesNotThrow(() -> admissionService.checkRate(DEBUGGER, ID, ID));
+        assertThrows(RateLimitException.class, () -> admissionService.checkRate(DEBUGGER, ID, ID));
+
+        for (int i = 0; i < BURST * 2; i++) {
+            assertDoesNotThrow(() -> admissionService.checkRate(ZIP, ID, ID));
+        }
+    }
+
+    @Test
+    public void testCheckRateUploadsUnlimited() {
+        admissionService = new AdmissionService(RATE, 1, "", MIN_CONCURRENCY, MAX_CONCURRENCY, LATENCY);
+
+        for (int i = 0; i < BURST; i++) {
+            assertDoesNotThrow(() -> admissionService.checkRate(ZIP, ID, ID));
+            assertDoesNotThrow(() -> admissionService.checkRate("file", ID, ID));
+        }
+
+        admissionService = new AdmissionService(RATE, BURST, "zip:1:1", MIN_CONCURRENCY, MAX_CONCURRENCY, LATENCY);
+        assertDoesNotThrow(() -> admissionService.checkRate(ZIP, ID, ID));
+        assertThrows(RateLimitException.class, () -> admissionService.checkRate(ZIP, ID, ID));
+    }
+
+    @Test
+    public void testCheckRateRefill() throws InterruptedException {
+        admissionService = new AdmissionService(1000, 1, "", MIN_CONCURRENCY, MAX_CONCURRENCY, LATENCY);
+        admissionService.checkRate(BLOCK, ID, ID);
+        assertThrows(RateLimitException.class, () -> admissionService.checkRate(BLOCK, ID, ID));
+        Thread.sleep(5);
+        assertDoesNotThrow(() -> admissionService.checkRate(BLOCK, ID, ID));
+    }
+
+    @Test
+    public void testInvalidLimits() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new AdmissionService(RATE, BURST, "debugger:1", MIN_CONCURRENCY, MAX_CONCURRENCY,
+                                LATENCY)
+                ),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> new AdmissionService(RATE, BURST, "debugger:a:1", MIN_CONCURRENCY, MAX_CONCURRENCY,
+                                LATENCY)
+                )
+        );
+    }
+
+    @Test
+    public void testAcquire() {
+        for (int i = 0; i < MAX_CONCURRENCY; i++) {
+            admissionService.acquire();
+        }
+
+        assertThrows(RateLimitException.class, () -> admissionService.acquire());
+        admissionService.release(0);
+        assertDoesNotThrow(() -> admissionService.acquire());
+        AdmissionStatusDTO status = admissionService.getStatus();
+        assertAll(
+                () -> assertEquals(MAX_CONCURRENCY, status.getInFlight()),
+                () -> assertEquals(MAX_CONCURRENCY, status.getLimit()),
+                () -> assertEquals(1, status.getConcurrencyLimited())
+        );
+    }
+
+    @Test
+    public void testReleaseLowersAndRaisesLimit() throws InterruptedException {
+        long slow = TimeUnit.MILLISECONDS.toNanos(LATENCY + 1);
+        admissionService = new AdmissionService(RATE, BURST, "", MIN_CONCURRENCY, MAX_CONCURRENCY, 1);
+        Thread.sleep(2);
+        admissionService.acquire();
+        admissionService.release(slow);
+        assertEquals(MAX_CONCURRENCY - 1, admissionService.getStatus().getLimit());
+        Thread.sleep(2);
+        admissionService.acquire();
+        admissionService.release(slow);
+        Thread.sleep(2);
+        admissionService.acquire();
+        admissionService.release(slow);
+        assertEquals(MIN_CONCURRENCY, admissionService.getStatus().getLimit());
+        admissionService.acquire();
+        admissionService.acquire();
+        admissionService.release(0);
+        admissionService.release(0);
+        assertEquals(MIN_CONCURRENCY + 1, admissionService.getStatus().getLimit());
+    }
+
+    @Test
+    public void testNoConcurrencyLimit() {
+        admissionService = new AdmissionService(RATE, BURST, "", MIN_CONCURRENCY, 0, LATENCY);
+
+        for (int i = 0; i < MAX_CONCURRENCY * 2; i++) {
+            assertDoesNotThrow(() -> admissionService.acquire());
+        }
+
+        assertEquals(0, admissionService.getStatus().getLimit());
+    }
+
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.AnalyticsService;
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityBucket;
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityOpcode;
+import fim.unipassau.de.scratchLog.persistence.repository.ActivityBucketRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ActivityOpcodeRepository;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+import fim.unipassau.de.scratchLog.web.dto.AnalyticsDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyShort;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AnalyticsServiceTest {
+
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private ActivityBucketRepository activityBucketRepository;
+
+    @Mock
+    private ActivityOpcodeRepository activityOpcodeRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private static final int ID = 1;
+    private static final int BUCKETS = 4;
+    private static final String OPCODE = "motion_movesteps";
+    private final LocalDateTime date = LocalDateTime.of(2023, 1, 1, 12, 0, 10);
+    private final long minute = date.toEpochSecond(ZoneOffset.UTC) / 60;
+
+    @BeforeEach
+    public void setup() {
+        analyticsService = new AnalyticsService(activityBucketRepository, activityOpcodeRepository, transactionManager,
+                BUCKETS);
+    }
+
+    @Test
+    public void testGetAnalytics() {
+        when(activityBucketRepository.findAllByExperimentOrderByBucketAsc(ID)).thenReturn(List.of(
+                new ActivityBucket(ID, minute - 1, ActivityKind.CLICK, 5)));
+        when(activityOpcodeRepository.findAllByExperimentOrderByTotalDesc(anyInt(), any())).thenReturn(
+                List.of(new ActivityOpcode(ID, "looks_say", 4)));
+        analyticsService.record(ID, ID, ActivityKind.BLOCK, date, OPCODE);
+        analyticsService.record(ID, ID, ActivityKind.BLOCK, date.plusSeconds(20), OPCODE);
+        analyticsService.record(ID, ID + 1, ActivityKind.QUESTION, date, "no opcode");
+        AnalyticsDTO analytics = analyticsService.getAnalytics(ID);
+        assertAll(
+                () -> assertEquals(ID, analytics.getExperiment()),
+                () -> assertEquals(List.of(date.minusMinutes(1).withSecond(0), date.withSecond(0)),
+                        analytics.getMinutes()),
+                () -> assertEquals(List.of(0L, 2L), analytics.getCounts().get(ActivityKind.BLOCK)),
+                () -> assertEquals(List.of(5L, 0L), analytics.getCounts().get(ActivityKind.CLICK)),
+                () -> assertEquals(List.of(0L, 2L), analytics.getCounts().get(ActivityKind.PARTICIPANT)),
+                () -> assertEquals(1L, analytics.getTotals().get(ActivityKind.QUESTION)),
+                () -> assertEquals(List.of("looks_say", OPCODE), List.copyOf(analytics.getOpcodes().keySet())),
+                () -> assertEquals(2L, analytics.getOpcodes().get(OPCODE))
+        );
+    }
+
+    @Test
+    public void testGetAnalyticsInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> analyticsService.getAnalytics(0)
+        );
+        verify(activityBucketRepository, never()).findAllByExperimentOrderByBucketAsc(anyInt());
+    }
+
+    @Test
+    public void testFlush() {
+        analyticsService.record(ID, ID, ActivityKind.BLOCK, date, OPCODE);
+        analyticsService.record(ID, ID, ActivityKind.BLOCK, date.plusMinutes(BUCKETS), null);
+        analyticsService.flush();
+        verify(activityBucketRepository).addTotal(ID, minute, ActivityKind.BLOCK.getCode(), 1);
+        verify(activityBucketRepository).addTotal(ID, minute + BUCKETS, ActivityKind.BLOCK.getCode(), 1);
+        verify(activityBucketRepository, times(4)).addTotal(anyInt(), anyLong(), anyShort(), anyLong());
+        verify(activityOpcodeRepository).addTotal(ID, OPCODE, 1);
+        analyticsService.flush();
+        verify(activityBucketRepository, times(4)).addTotal(anyInt(), anyLong(), anyShort(), anyLong());
+    }
+
+    @Test
+    public void testFlushMergeOverflow() {
+        analyticsService.record(ID, ID, ActivityKind.CLICK, date.plusMinutes(BUCKETS), null);
+
+        for (int i = 0; i < 3; i++) {
+            analyticsService.record(ID, ID, ActivityKind.CLICK, date, null);
+        }
+
+        analyticsService.flush();
+        verify(activityBucketRepository).addTotal(ID, minute, ActivityKind.CLICK.getCode(), 3);
+        verify(activityBucketRepository).addTotal(ID, minute + BUCKETS, ActivityKind.CLICK.getCode(), 1);
+    }
+
+    @Test
+    public void testFlushError() {
+        analyticsService.record(ID, ID, ActivityKind.RESOURCE, date, null);
+        doThrow(new DataAccessResourceFailureException("unavailable")).when(activityBucketRepository).addTotal(
+                anyInt(), anyLong(), anyShort(), anyLong());
+        analyticsService.flush();
+        AnalyticsDTO analytics = analyticsService.getAnalytics(ID);
+        assertAll(
+                () -> assertEquals(1L, analytics.getTotals().get(ActivityKind.RESOURCE)),
+                () -> assertEquals(1L, analytics.getTotals().get(ActivityKind.PARTICIPANT))
+        );
+    }
+
+    @Test
+    public void testShutdown() {
+        analyticsService.record(ID, ID, ActivityKind.QUESTION, date, null);
+        analyticsService.shutdown();
+        verify(activityBucketRepository).addTotal(ID, minute, ActivityKind.QUESTION.getCode(), 1);
+    }
+
+    @Test
+    public void testRecordNoDate() {
+        analyticsService.record(ID, ID, ActivityKind.BLOCK, null, OPCODE);
+        analyticsService.flush();
+        verify(activityBucketRepository, never()).addTotal(anyInt(), anyLong(), anyShort(), anyLong());
+        verify(activityOpcodeRepository, never()).addTotal(anyInt(), any(), anyLong());
+    }
+
+}
@@ -22,6 +22,7 @@ import fim.unipassau.de.scratchLog.application.exception.IncompleteDataException
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.CourseService;
+import fim.unipassau.de.scratchLog.application.service.ParticipantService;
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseExperiment;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
@@ -53,6 +54,7 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -85,6 +87,9 @@ public class CourseServiceTest {
     @Mock
     private ParticipantRepository participantRepository;
 
+    @Mock
+    private ParticipantService participantService;
+
     private static final String TITLE = "My Course";
     private static final String DESCRIPTION = "A description";
     private static final String CONTENT = "content";
@@ -92,7 +97,6 @@ public class CourseServiceTest {
     private static final String BLANK = "    ";
     private static final int ID = 1;
     private static final int INVALID_ID = 2;
-    private static final long MAX_DAYS = 180;
     private static final LocalDateTime DATE = LocalDateTime.now();
     private final CourseDTO courseDTO = new CourseDTO(ID, TITLE, DESCRIPTION, CONTENT, false, LocalDateTime.now());
     private final Course course = new Course(ID, TITLE, DESCRIPTION, CONTENT, false, DATE);
@@ -738,6 +742,7 @@ public class CourseServiceTest {
         courseService.saveCourseExperiment(ID, INVALID_ID);
         assertAll(
                 () -> assertTrue(experiment1.isActive()),
+                () -> assertTrue(experiment1.isCourseExperiment()),
                 () -> assertTrue(course.isActive()),
                 () -> assertTrue(course.getLastChanged().isAfter(DATE))
         );
@@ -746,6 +751,19 @@ public class CourseServiceTest {
         verify(courseExperimentRepository).save(any());
         verify(courseRepository).save(course);
         verify(experimentRepository).save(experiment1);
+        verify(participantService).saveParticipants(INVALID_ID, ID);
+    }
+
+    @Test
+    public void testSaveCourseExperimentParticipantsNotSaved() {
+        when(courseRepository.getReferenceById(ID)).thenReturn(course);
+        when(experimentRepository.getReferenceById(INVALID_ID)).thenReturn(experiment1);
+        doThrow(StoreException.class).when(participantService).saveParticipants(INVALID_ID, ID);
+        assertThrows(StoreException.class,
+                () -> courseService.saveCourseExperiment(ID, INVALID_ID)
+        );
+        verify(courseExperimentRepository).save(any());
+        verify(participantService).saveParticipants(INVALID_ID, ID);
     }
 
     @Test
@@ -761,6 +779,7 @@ public class CourseServiceTest {
         verify(courseExperimentRepository).save(any());
         verify(courseRepository, never()).save(any());
         verify(experimentRepository, never()).save(any());
+        verify(participantService, never()).saveParticipants(anyInt(), anyInt());
     }
 
     @Test
@@ -807,11 +826,15 @@ public class CourseServiceTest {
         when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(experimentRepository.findByTitle(TITLE)).thenReturn(Optional.of(experiment1));
         courseService.deleteCourseExperiment(ID, TITLE);
-        assertTrue(course.getLastChanged().isAfter(DATE));
+        assertAll(
+                () -> assertTrue(course.getLastChanged().isAfter(DATE)),
+                () -> assertFalse(experiment1.isCourseExperiment())
+        );
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).findByTitle(TITLE);
         verify(courseExperimentRepository).deleteById(any());
         verify(courseRepository).save(course);
+        verify(experimentRepository).save(experiment1);
     }
 
     @Test
@@ -876,97 +899,77 @@ public class CourseServiceTest {
     @Test
     public void testAddParticipantToCourseExperiments() {
         user.setSecret(null);
-        when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment,
-                courseExperiment));
+        when(participantRepository.insertCourseExperimentParticipant(ID, ID)).thenReturn(2);
         assertDoesNotThrow(() -> courseService.addParticipantToCourseExperiments(ID, ID));
-        verify(courseRepository).getReferenceById(ID);
+        assertNotNull(user.getSecret());
         verify(userRepository).getReferenceById(ID);
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(participantRepository, times(2)).existsByUserAndExperiment(user, experiment2);
-        verify(participantRepository, times(2)).save(any());
+        verify(participantRepository).existsCourseExperimentParticipant(ID, ID);
+        verify(participantRepository).insertCourseExperimentParticipant(ID, ID);
+        verify(participantRepository, never()).save(any());
         verify(userRepository).save(user);
     }
 
     @Test
     public void testAddParticipantToCourseExperimentsSecretNotNull() {
-        when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment,
-                courseExperiment));
+        when(participantRepository.insertCourseExperimentParticipant(ID, ID)).thenReturn(2);
         assertDoesNotThrow(() -> courseService.addParticipantToCourseExperiments(ID, ID));
-        verify(courseRepository).getReferenceById(ID);
         verify(userRepository).getReferenceById(ID);
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(participantRepository, times(2)).existsByUserAndExperiment(user, experiment2);
-        verify(participantRepository, times(2)).save(any());
+        verify(participantRepository).existsCourseExperimentParticipant(ID, ID);
+        verify(participantRepository).insertCourseExperimentParticipant(ID, ID);
         verify(userRepository, never()).save(any());
     }
 
     @Test
     public void testAddParticipantToCourseExperimentsNoExperiments() {
-        when(courseRepository.getReferenceById(ID)).thenReturn(course);
+        user.setSecret(null);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         assertDoesNotThrow(() -> courseService.addParticipantToCourseExperiments(ID, ID));
-        verify(courseRepository).getReferenceById(ID);
         verify(userRepository).getReferenceById(ID);
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(participantRepository, never()).existsByUserAndExperiment(any(), any());
-        verify(participantRepository, never()).save(any());
+        verify(participantRepository).existsCourseExperimentParticipant(ID, ID);
+        verify(participantRepository).insertCourseExperimentParticipant(ID, ID);
         verify(userRepository, never()).save(any());
     }
 
     @Test
     public void testAddParticipantToCourseExperimentsParticipantExists() {
-        when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment,
-                courseExperiment));
-        when(participantRepository.existsByUserAndExperiment(user, experiment2)).thenReturn(true);
+        when(participantRepository.existsCourseExperimentParticipant(ID, ID)).thenReturn(true);
         assertThrows(IllegalStateException.class,
                 () -> courseService.addParticipantToCourseExperiments(ID, ID)
         );
-        verify(courseRepository).getReferenceById(ID);
         verify(userRepository).getReferenceById(ID);
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(participantRepository).existsByUserAndExperiment(user, experiment2);
-        verify(participantRepository, never()).save(any());
+        verify(participantRepository).existsCourseExperimentParticipant(ID, ID);
+        verify(participantRepository, never()).insertCourseExperimentParticipant(anyInt(), anyInt());
         verify(userRepository, never()).save(any());
     }
 
     @Test
     public void testAddParticipantToCourseExperimentsConstraintViolation() {
-        when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment,
-                courseExperiment));
-        when(participantRepository.save(any())).thenThrow(ConstraintViolationException.class);
+        when(participantRepository.insertCourseExperimentParticipant(ID, ID)).thenThrow(
+                ConstraintViolationException.class);
         assertThrows(StoreException.class,
                 () -> courseService.addParticipantToCourseExperiments(ID, ID)
         );
-        verify(courseRepository).getReferenceById(ID);
         verify(userRepository).getReferenceById(ID);
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(participantRepository).existsByUserAndExperiment(user, experiment2);
-        verify(participantRepository).save(any());
+        verify(participantRepository).existsCourseExperimentParticipant(ID, ID);
+        verify(participantRepository).insertCourseExperimentParticipant(ID, ID);
         verify(userRepository, never()).save(any());
     }
 
     @Test
     public void testAddParticipantToCourseExperimentsEntityNotFound() {
-        when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
-        when(courseExperimentRepository.findAllByCourse(course)).thenThrow(EntityNotFoundException.class);
+        when(participantRepository.insertCourseExperimentParticipant(ID, ID)).thenReturn(1);
+        user.setSecret(null);
+        when(userRepository.save(user)).thenThrow(EntityNotFoundException.class);
         assertThrows(NotFoundException.class,
                 () -> courseService.addParticipantToCourseExperiments(ID, ID)
         );
-        verify(courseRepository).getReferenceById(ID);
         verify(userRepository).getReferenceById(ID);
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(participantRepository, never()).existsByUserAndExperiment(any(), any());
-        verify(participantRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository).insertCourseExperimentParticipant(ID, ID);
     }
 
     @Test
@@ -974,11 +977,9 @@ public class CourseServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> courseService.addParticipantToCourseExperiments(ID, -1)
         );
-        verify(courseRepository, never()).getReferenceById(anyInt());
         verify(userRepository, never()).getReferenceById(anyInt());
-        verify(courseExperimentRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).existsByUserAndExperiment(any(), any());
-        verify(participantRepository, never()).save(any());
+        verify(participantRepository, never()).existsCourseExperimentParticipant(anyInt(), anyInt());
+        verify(participantRepository, never()).insertCourseExperimentParticipant(anyInt(), anyInt());
         verify(userRepository, never()).save(any());
     }
 
@@ -987,11 +988,9 @@ public class CourseServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> courseService.addParticipantToCourseExperiments(0, ID)
         );
-        verify(courseRepository, never()).getReferenceById(anyInt());
         verify(userRepository, never()).getReferenceById(anyInt());
-        verify(courseExperimentRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).existsByUserAndExperiment(any(), any());
-        verify(participantRepository, never()).save(any());
+        verify(participantRepository, never()).existsCourseExperimentParticipant(anyInt(), anyInt());
+        verify(participantRepository, never()).insertCourseExperimentParticipant(anyInt(), anyInt());
         verify(userRepository, never()).save(any());
     }
 
@@ -1097,54 +1096,20 @@ public class CourseServiceTest {
 
     @Test
     public void testDeactivateInactiveCourses() {
-        course.setActive(true);
-        course.setLastChanged(LocalDateTime.now().minusDays(MAX_DAYS));
-        when(courseRepository.findAllByActiveIsTrue()).thenReturn(List.of(course));
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment,
-                courseExperiment));
-        courseService.deactivateInactiveCourses();
-        assertFalse(course.isActive());
-        verify(courseRepository).findAllByActiveIsTrue();
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(courseRepository).save(course);
-    }
-
-    @Test
-    public void testDeactivateInactiveCoursesLastChanged() {
-        course.setActive(true);
-        when(courseRepository.findAllByActiveIsTrue()).thenReturn(List.of(course));
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment));
-        courseService.deactivateInactiveCourses();
-        assertTrue(course.isActive());
-        verify(courseRepository).findAllByActiveIsTrue();
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(courseRepository, never()).save(any());
-    }
-
-    @Test
-    public void testDeactivateInactiveCoursesExperimentActive() {
-        course.setActive(true);
-        course.setLastChanged(LocalDateTime.now().minusDays(MAX_DAYS));
-        experiment2.setActive(true);
-        when(courseRepository.findAllByActiveIsTrue()).thenReturn(List.of(course));
-        when(courseExperimentRepository.findAllByCourse(course)).thenReturn(List.of(courseExperiment));
-        courseService.deactivateInactiveCourses();
-        assertTrue(course.isActive());
-        verify(courseRepository).findAllByActiveIsTrue();
-        verify(courseExperimentRepository).findAllByCourse(course);
+        List<Integer> ids = List.of(ID);
+        when(courseRepository.findInactiveCourseIds(any())).thenReturn(ids);
+        when(courseRepository.deactivateCourses(ids)).thenReturn(ids.size());
+        assertEquals(ids.size(), courseService.deactivateInactiveCourses());
+        verify(courseRepository).deactivateCourses(ids);
+        verify(courseExperimentRepository, never()).findAllByCourse(any());
         verify(courseRepository, never()).save(any());
     }
 
     @Test
-    public void testDeactivateInactiveCoursesNoExperiments() {
-        course.setActive(true);
-        course.setLastChanged(LocalDateTime.now().minusDays(MAX_DAYS));
-        when(courseRepository.findAllByActiveIsTrue()).thenReturn(List.of(course));
-        courseService.deactivateInactiveCourses();
-        assertTrue(course.isActive());
-        verify(courseRepository).findAllByActiveIsTrue();
-        verify(courseExperimentRepository).findAllByCourse(course);
-        verify(courseRepository, never()).save(any());
+    public void testDeactivateInactiveCoursesNone() {
+        assertEquals(0, courseService.deactivateInactiveCourses());
+        verify(courseRepository).findInactiveCourseIds(any());
+        verify(courseRepository, never()).deactivateCourses(any());
     }
 
 }
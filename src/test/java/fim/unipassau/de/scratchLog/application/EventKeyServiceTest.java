@@ -0,0 +1,90 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.EventKeyService;
+import fim.unipassau.de.scratchLog.persistence.repository.EventKeyRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventKeyServiceTest {
+
+    @InjectMocks
+    private EventKeyService eventKeyService;
+
+    @Mock
+    private EventKeyRepository eventKeyRepository;
+
+    private static final int ID = 1;
+    private static final String KEY = "3f1b6c1e-5d4a-4c55-9a8e-0d2c1f6e7a90";
+
+    @Test
+    public void testIsDuplicate() {
+        assertTrue(eventKeyService.isDuplicate(ID, ID, KEY));
+        verify(eventKeyRepository).insertKey(eq(ID), eq(ID), anyLong());
+    }
+
+    @Test
+    public void testIsDuplicateNewKey() {
+        when(eventKeyRepository.insertKey(eq(ID), eq(ID), anyLong())).thenReturn(1);
+        assertFalse(eventKeyService.isDuplicate(ID, ID, KEY));
+        verify(eventKeyRepository).insertKey(eq(ID), eq(ID), anyLong());
+    }
+
+    @Test
+    public void testIsDuplicateSameHash() {
+        when(eventKeyRepository.insertKey(eq(ID), eq(ID), anyLong())).thenReturn(1, 0);
+        assertAll(
+                () -> assertFalse(eventKeyService.isDuplicate(ID, ID, KEY)),
+                () -> assertTrue(eventKeyService.isDuplicate(ID, ID, KEY))
+        );
+    }
+
+    @Test
+    public void testRemoveKeys() {
+        when(eventKeyRepository.deleteKeys(ID, ID)).thenReturn(2);
+        eventKeyService.removeKeys(ID, ID);
+        verify(eventKeyRepository).deleteKeys(ID, ID);
+    }
+
+    @Test
+    public void testIsDuplicateNoKey() {
+        assertAll(
+                () -> assertFalse(eventKeyService.isDuplicate(ID, ID, null)),
+                () -> assertFalse(eventKeyService.isDuplicate(ID, ID, " "))
+        );
+        verify(eventKeyRepository, never()).insertKey(anyInt(), anyInt(), anyLong());
+    }
+
+}
@@ -19,7 +19,10 @@
 package fim.unipassau.de.scratchLog.application;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.service.AnalyticsService;
+import fim.unipassau.de.scratchLog.application.service.EventKeyService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.SnapshotService;
 import fim.unipassau.de.scratchLog.persistence.entity.BlockEvent;
 import fim.unipassau.de.scratchLog.persistence.entity.ClickEvent;
 import fim.unipassau.de.scratchLog.persistence.entity.CodesData;
@@ -42,6 +45,7 @@ import fim.unipassau.de.scratchLog.persistence.repository.QuestionEventRepositor
 import fim.unipassau.de.scratchLog.persistence.repository.ResourceEventRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
 import fim.unipassau.de.scratchLog.util.enums.BlockEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.BlockEventType;
 import fim.unipassau.de.scratchLog.util.enums.ClickEventSpecific;
@@ -78,6 +82,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
@@ -127,7 +132,17 @@ public class EventServiceTest {
     @Mock
     private CodesDataRepository codesDataRepository;
 
+    @Mock
+    private SnapshotService snapshotService;
+
+    @Mock
+    private EventKeyService eventKeyService;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
     private static final int ID = 1;
+    private static final String KEY = "3f1b6c1e-5d4a-4c55-9a8e-0d2c1f6e7a90";
     private static final String GUI_URL = "scratch";
     private final BlockEventDTO blockEventDTO = new BlockEventDTO(1, 1, LocalDateTime.now(), BlockEventType.CHANGE,
             BlockEventSpecific.CHANGE, "sprite", "meta", "xml", "json");
@@ -167,27 +182,6 @@ public class EventServiceTest {
     private final List<ResourceEvent> resourceEventData = getResourceEvents(2);
     private final Page<BlockEventProjection> blockEventProjections = new PageImpl<>(getBlockEventProjections(5));
     private final PageRequest pageRequest = PageRequest.of(0, Constants.PAGE_SIZE);
-    private BlockEventJSONProjection projection = new BlockEventJSONProjection() {
-        @Override
-        public Integer getId() {
-            return 1;
-        }
-
-        @Override
-        public String getCode() {
-            return "json";
-        }
-
-        @Override
-        public LocalDateTime getDate() {
-            return LocalDateTime.now();
-        }
-
-        @Override
-        public String getEvent() {
-            return "event";
-        }
-    };
 
     @BeforeEach
     public void setup() {
@@ -214,6 +208,9 @@ public class EventServiceTest {
         verify(experimentRepository).getReferenceById(ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
         verify(blockEventRepository).save(any());
+        verify(snapshotService).saveSnapshot(user, experiment, blockEventDTO.getDate(), JSON);
+        verify(analyticsService).record(ID, ID, ActivityKind.BLOCK, blockEventDTO.getDate(),
+                blockEventDTO.getMetadata());
     }
 
     @Test
@@ -227,6 +224,7 @@ public class EventServiceTest {
         verify(experimentRepository).getReferenceById(ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
         verify(blockEventRepository, never()).save(any());
+        verify(snapshotService, never()).saveSnapshot(any(), any(), any(), any());
     }
 
     @Test
@@ -299,6 +297,50 @@ public class EventServiceTest {
         verify(blockEventRepository, never()).save(any());
     }
 
+    @Test
+    public void testSaveBlockEventReceivedBeforeParticipantFinished() {
+        LocalDateTime end = LocalDateTime.now();
+        participant.setEnd(end);
+        user.setActive(false);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertDoesNotThrow(
+                () -> eventService.saveBlockEvent(blockEventDTO, end.minusSeconds(1))
+        );
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
+        verify(blockEventRepository).save(any());
+        verify(snapshotService).saveSnapshot(user, experiment, blockEventDTO.getDate(), JSON);
+    }
+
+    @Test
+    public void testSaveBlockEventReceivedAfterParticipantFinished() {
+        LocalDateTime end = LocalDateTime.now();
+        participant.setEnd(end);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertDoesNotThrow(
+                () -> eventService.saveBlockEvent(blockEventDTO, end.plusSeconds(1))
+        );
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
+        verify(blockEventRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveBlockEventReceivedExperimentInactive() {
+        user.setActive(false);
+        experiment.setActive(false);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertDoesNotThrow(
+                () -> eventService.saveBlockEvent(blockEventDTO, LocalDateTime.now())
+        );
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
+        verify(blockEventRepository, never()).save(any());
+    }
+
     @Test
     public void testSaveBlockEventExperimentInactive() {
         experiment.setActive(false);
@@ -314,6 +356,35 @@ public class EventServiceTest {
         verify(blockEventRepository, never()).save(any());
     }
 
+    @Test
+    public void testSaveBlockEventDuplicate() {
+        blockEventDTO.setKey(KEY);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        when(eventKeyService.isDuplicate(ID, ID, KEY)).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventService.saveBlockEvent(blockEventDTO)
+        );
+        verify(eventKeyService).isDuplicate(ID, ID, KEY);
+        verify(blockEventRepository, never()).save(any());
+        verify(snapshotService, never()).saveSnapshot(any(), any(), any(), any());
+        verify(analyticsService, never()).record(anyInt(), anyInt(), any(), any(), any());
+    }
+
+    @Test
+    public void testSaveClickEventDuplicate() {
+        clickEventDTO.setKey(KEY);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        when(eventKeyService.isDuplicate(ID, ID, KEY)).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventService.saveClickEvent(clickEventDTO)
+        );
+        verify(clickEventRepository, never()).save(any());
+    }
+
     @Test
     public void testSaveBlockEventConstraintViolation() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
@@ -683,25 +754,24 @@ public class EventServiceTest {
     public void testFindFirstJSON() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment))
-                .thenReturn(projection);
+        when(snapshotService.findSnapshot(ID, ID)).thenReturn(JSON);
         when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
-        assertEquals(projection.getCode(), eventService.findFirstJSON(ID, ID));
+        assertEquals(JSON, eventService.findFirstJSON(ID, ID));
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
+        verify(snapshotService).findSnapshot(ID, ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
     }
 
     @Test
-    public void testFindFirstJSONProjectionNull() {
+    public void testFindFirstJSONSnapshotNull() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
         when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
         assertNull(eventService.findFirstJSON(ID, ID));
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
+        verify(snapshotService).findSnapshot(ID, ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
     }
 
@@ -709,12 +779,11 @@ public class EventServiceTest {
     public void testFindFirstJSONParticipantNull() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment))
-                .thenReturn(projection);
+        when(snapshotService.findSnapshot(ID, ID)).thenReturn(JSON);
         assertNull(eventService.findFirstJSON(ID, ID));
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
+        verify(snapshotService).findSnapshot(ID, ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
     }
 
@@ -723,13 +792,12 @@ public class EventServiceTest {
         user.setActive(false);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment))
-                .thenReturn(projection);
+        when(snapshotService.findSnapshot(ID, ID)).thenReturn(JSON);
         when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
         assertNull(eventService.findFirstJSON(ID, ID));
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
+        verify(snapshotService).findSnapshot(ID, ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
     }
 
@@ -738,13 +806,12 @@ public class EventServiceTest {
         experiment.setActive(false);
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment))
-                .thenReturn(projection);
+        when(snapshotService.findSnapshot(ID, ID)).thenReturn(JSON);
         when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
         assertNull(eventService.findFirstJSON(ID, ID));
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
+        verify(snapshotService).findSnapshot(ID, ID);
         verify(participantRepository).findByUserAndExperiment(user, experiment);
     }
 
@@ -752,15 +819,14 @@ public class EventServiceTest {
     public void testFindFirstJSONEntityNotFound() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment))
-                .thenThrow(EntityNotFoundException.class);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenThrow(EntityNotFoundException.class);
         assertThrows(NotFoundException.class,
                 () -> eventService.findFirstJSON(ID, ID)
         );
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(user, experiment);
-        verify(participantRepository, never()).findByUserAndExperiment(any(), any());
+        verify(snapshotService).findSnapshot(ID, ID);
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
     }
 
     @Test
@@ -770,7 +836,7 @@ public class EventServiceTest {
         );
         verify(userRepository, never()).getReferenceById(anyInt());
         verify(experimentRepository, never()).getReferenceById(anyInt());
-        verify(blockEventRepository, never()).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(any(), any());
+        verify(snapshotService, never()).findSnapshot(anyInt(), anyInt());
         verify(participantRepository, never()).findByUserAndExperiment(any(), any());
     }
 
@@ -781,7 +847,7 @@ public class EventServiceTest {
         );
         verify(userRepository, never()).getReferenceById(anyInt());
         verify(experimentRepository, never()).getReferenceById(anyInt());
-        verify(blockEventRepository, never()).findFirstByUserAndExperimentAndCodeIsNotNullOrderByDateDesc(any(), any());
+        verify(snapshotService, never()).findSnapshot(anyInt(), anyInt());
         verify(participantRepository, never()).findByUserAndExperiment(any(), any());
     }
 
@@ -1001,6 +1067,95 @@ public class EventServiceTest {
         verify(blockEventRepository, never()).findAllByXmlIsNotNullAndUserAndExperiment(any(), any());
     }
 
+    @Test
+    public void testGetJsonAt() {
+        LocalDateTime first = LocalDateTime.now();
+        LocalDateTime second = first.minusMinutes(5);
+        LocalDateTime third = first.minusMinutes(10);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(user,
+                experiment, first)).thenReturn(Optional.of(jsonProjections.get(1)));
+        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(user,
+                experiment, second)).thenReturn(Optional.of(jsonProjections.get(0)));
+        Map<LocalDateTime, BlockEventJSONProjection> projections = eventService.getJsonAt(ID, ID,
+                List.of(first, second, third));
+        assertAll(
+                () -> assertEquals(2, projections.size()),
+                () -> assertEquals(jsonProjections.get(1), projections.get(first)),
+                () -> assertEquals(jsonProjections.get(0), projections.get(second)),
+                () -> assertNull(projections.get(third))
+        );
+        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(
+                user, experiment, third);
+    }
+
+    @Test
+    public void testGetJsonAtNoEntry() {
+        LocalDateTime date = LocalDateTime.now();
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        assertThrows(NotFoundException.class,
+                () -> eventService.getJsonAt(ID, ID, List.of(date))
+        );
+        verify(blockEventRepository).findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(
+                user, experiment, date);
+    }
+
+    @Test
+    public void testGetJsonAtEntityNotFound() {
+        LocalDateTime date = LocalDateTime.now();
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(user,
+                experiment, date)).thenThrow(EntityNotFoundException.class);
+        assertThrows(NotFoundException.class,
+                () -> eventService.getJsonAt(ID, ID, List.of(date))
+        );
+    }
+
+    @Test
+    public void testGetJsonAtInvalidParameters() {
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> eventService.getJsonAt(0, ID, List.of(LocalDateTime.now()))
+                ),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> eventService.getJsonAt(ID, ID, List.of())
+                ),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> eventService.getJsonAt(ID, ID, Arrays.asList(LocalDateTime.now(), null))
+                )
+        );
+        verify(userRepository, never()).getReferenceById(anyInt());
+        verify(blockEventRepository, never())
+                .findFirstByUserAndExperimentAndCodeIsNotNullAndDateLessThanEqualOrderByDateDesc(any(), any(), any());
+    }
+
+    @Test
+    public void testGetXmlAt() {
+        LocalDateTime date = LocalDateTime.now();
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findFirstByUserAndExperimentAndXmlIsNotNullAndDateLessThanEqualOrderByDateDesc(user,
+                experiment, date)).thenReturn(Optional.of(xmlProjections.get(0)));
+        Map<LocalDateTime, BlockEventXMLProjection> projections = eventService.getXmlAt(ID, ID, List.of(date));
+        assertAll(
+                () -> assertEquals(1, projections.size()),
+                () -> assertEquals("xml0", projections.get(date).getXml())
+        );
+    }
+
+    @Test
+    public void testGetXmlAtNoEntry() {
+        LocalDateTime date = LocalDateTime.now();
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        assertThrows(NotFoundException.class,
+                () -> eventService.getXmlAt(ID, ID, List.of(date))
+        );
+    }
+
     @Test
     public void testGetCodesForUser() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
@@ -0,0 +1,382 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.persistence.entity.SpoolCheckpoint;
+import fim.unipassau.de.scratchLog.persistence.repository.SpoolCheckpointRepository;
+import fim.unipassau.de.scratchLog.web.dto.SpoolStatusDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assumptions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.CannotAcquireLockException;
+import org.springframework.transaction.CannotCreateTransactionException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.PosixFilePermissions;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventSpoolServiceTest {
+
+    private EventSpoolService eventSpoolService;
+
+    @Mock
+    private SpoolCheckpointRepository spoolCheckpointRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @TempDir
+    private Path directory;
+
+    private static final String NAME = "default";
+    private static final String BLOCK = "block";
+    private static final String CLICK = "click";
+    private static final String RESOURCE = "resource";
+    private static final String DATA = "{\"user\":1,\"experiment\":1,\"secret\":\"secret\"}";
+    private static final long SEGMENT_SIZE = 1024;
+    private static final long MAX_SIZE = 4096;
+    private static final int BATCH_SIZE = 10;
+    private final List<String> replayed = new ArrayList<>();
+
+    @BeforeEach
+    public void setup() {
+        eventSpoolService = createService(true, SEGMENT_SIZE, MAX_SIZE);
+    }
+
+    @AfterEach
+    public void closeService() {
+        eventSpoolService.close();
+    }
+
+    @Test
+    public void testAppendDisabled() {
+        eventSpoolService = createService(false, SEGMENT_SIZE, MAX_SIZE);
+        assertAll(
+                () -> assertFalse(eventSpoolService.isEnabled()),
+                () -> assertFalse(eventSpoolService.append(BLOCK, DATA)),
+                () -> assertEquals(0, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(0, countSegments())
+        );
+        verify(spoolCheckpointRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testAppendAndReplayEvents() {
+        assertTrue(eventSpoolService.append(BLOCK, DATA));
+        assertTrue(eventSpoolService.append(CLICK, DATA + 2));
+        List<String> data = new ArrayList<>();
+        List<LocalDateTime> received = new ArrayList<>();
+        int count = eventSpoolService.replayEvents(BATCH_SIZE, record -> {
+            replayed.add(record.getKind());
+            data.add(record.getData());
+            received.add(record.getReceived());
+        });
+        SpoolStatusDTO status = eventSpoolService.getStatus();
+        assertAll(
+                () -> assertEquals(2, count),
+                () -> assertEquals(List.of(BLOCK, CLICK), replayed),
+                () -> assertEquals(List.of(DATA, DATA + 2), data),
+                () -> assertTrue(received.stream().allMatch(time -> time != null
+                        && !time.isAfter(LocalDateTime.now()))),
+                () -> assertEquals(2, status.getReplayed()),
+                () -> assertEquals(0, status.getPending()),
+                () -> assertEquals(1, status.getSegments()),
+                () -> assertNotNull(status.getLastReplay())
+        );
+        verify(spoolCheckpointRepository).findById(NAME);
+        verify(spoolCheckpointRepository).save(any());
+    }
+
+    @Test
+    public void testReplayEventsInBatches() {
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.append(CLICK, DATA);
+        eventSpoolService.append(RESOURCE, DATA);
+        assertAll(
+                () -> assertEquals(3, eventSpoolService.replayEvents(1, record -> replayed.add(record.getKind()))),
+                () -> assertEquals(List.of(BLOCK, CLICK, RESOURCE), replayed),
+                () -> assertEquals(0, eventSpoolService.replayEvents(1, record -> replayed.add(record.getKind())))
+        );
+        verify(spoolCheckpointRepository, times(3)).save(any());
+    }
+
+    @Test
+    public void testReplayEventsDeletesSegments() throws IOException {
+        eventSpoolService = createService(true, 1, MAX_SIZE);
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.append(CLICK, DATA);
+        eventSpoolService.append(RESOURCE, DATA);
+        assertEquals(3, countSegments());
+        assertAll(
+                () -> assertEquals(3, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(List.of(BLOCK, CLICK, RESOURCE), replayed),
+                () -> assertEquals(1, countSegments()),
+                () -> assertEquals(1, eventSpoolService.getStatus().getSegments())
+        );
+    }
+
+    @Test
+    public void testAppendSpoolFull() {
+        eventSpoolService = createService(true, SEGMENT_SIZE, DATA.length() + 60);
+        assertAll(
+                () -> assertTrue(eventSpoolService.append(BLOCK, DATA)),
+                () -> assertFalse(eventSpoolService.append(BLOCK, DATA)),
+                () -> assertEquals(1, eventSpoolService.getStatus().getRejected())
+        );
+    }
+
+    @Test
+    public void testReplayEventsSkipsFailedEvent() {
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.append(CLICK, DATA);
+        eventSpoolService.append(RESOURCE, DATA);
+        int count = eventSpoolService.replayEvents(BATCH_SIZE, record -> {
+            if (record.getKind().equals(CLICK)) {
+                throw new IllegalStateException("failed");
+            }
+            replayed.add(record.getKind());
+        });
+        SpoolStatusDTO status = eventSpoolService.getStatus();
+        assertAll(
+                () -> assertEquals(3, count),
+                () -> assertEquals(List.of(BLOCK, BLOCK, RESOURCE), replayed),
+                () -> assertEquals(2, status.getReplayed()),
+                () -> assertEquals(1, status.getFailed()),
+                () -> assertEquals("failed", status.getLastError())
+        );
+        verify(spoolCheckpointRepository, times(3)).save(any());
+    }
+
+    @Test
+    public void testReplayEventsDatabaseUnavailable() throws NoSuchFieldException, IllegalAccessException {
+        RuntimeException unavailable = new IllegalStateException("unavailable");
+        when(spoolCheckpointRepository.save(any())).thenThrow(unavailable, unavailable, unavailable).thenReturn(null);
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.append(CLICK, DATA);
+        assertEquals(0, eventSpoolService.replayEvents(BATCH_SIZE, record -> { }));
+        assertEquals("unavailable", eventSpoolService.getStatus().getLastError());
+        resetRetry();
+        assertAll(
+                () -> assertEquals(2, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(List.of(BLOCK, CLICK), replayed)
+        );
+    }
+
+    @Test
+    public void testReplayEventsTransientFailure() throws NoSuchFieldException, IllegalAccessException {
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.append(CLICK, DATA);
+        int count = eventSpoolService.replayEvents(BATCH_SIZE, record -> {
+            if (record.getKind().equals(CLICK)) {
+                throw new CannotAcquireLockException("deadlock");
+            }
+            replayed.add(record.getKind());
+        });
+        assertAll(
+                () -> assertEquals(0, count),
+                () -> assertEquals(List.of(BLOCK), replayed),
+                () -> assertEquals(0, eventSpoolService.getStatus().getFailed()),
+                () -> assertEquals(0, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind())))
+        );
+        verify(spoolCheckpointRepository, never()).save(any());
+        resetRetry();
+        assertAll(
+                () -> assertEquals(2, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(List.of(BLOCK, BLOCK, CLICK), replayed)
+        );
+    }
+
+    @Test
+    public void testReplayEventsCannotCreateTransaction() throws NoSuchFieldException, IllegalAccessException {
+        when(transactionManager.getTransaction(any())).thenThrow(new CannotCreateTransactionException("unavailable"))
+                .thenReturn(null);
+        eventSpoolService.append(BLOCK, DATA);
+        assertEquals(0, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(record.getKind())));
+        resetRetry();
+        assertAll(
+                () -> assertEquals(1, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(List.of(BLOCK), replayed),
+                () -> assertEquals(0, eventSpoolService.getStatus().getFailed())
+        );
+    }
+
+    @Test
+    public void testReplayEventsResumesFromCheckpoint() {
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(record.getKind()));
+        ArgumentCaptor<SpoolCheckpoint> captor = ArgumentCaptor.forClass(SpoolCheckpoint.class);
+        verify(spoolCheckpointRepository).save(captor.capture());
+        eventSpoolService.append(CLICK, DATA);
+        eventSpoolService.close();
+        when(spoolCheckpointRepository.findById(NAME)).thenReturn(Optional.of(captor.getValue()));
+        eventSpoolService = createService(true, SEGMENT_SIZE, MAX_SIZE);
+        eventSpoolService.append(RESOURCE, DATA);
+        assertAll(
+                () -> assertEquals(2, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(List.of(BLOCK, CLICK, RESOURCE), replayed),
+                () -> assertEquals(1, countSegments())
+        );
+    }
+
+    @Test
+    public void testReplayEventsSkipsCorruptedEnd() throws IOException {
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.close();
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            Path segment = paths.findFirst().orElseThrow();
+            Files.write(segment, new byte[]{1, 2, 3}, StandardOpenOption.APPEND);
+        }
+
+        eventSpoolService = createService(true, SEGMENT_SIZE, MAX_SIZE);
+        eventSpoolService.append(CLICK, DATA);
+        assertAll(
+                () -> assertEquals(2, eventSpoolService.replayEvents(BATCH_SIZE, record -> replayed.add(
+                        record.getKind()))),
+                () -> assertEquals(List.of(BLOCK, CLICK), replayed)
+        );
+    }
+
+    @Test
+    public void testReplayEventsWithoutReceivingTime() throws IOException {
+        eventSpoolService.append(BLOCK, DATA);
+        eventSpoolService.close();
+        byte[] payload = (CLICK + "\n" + DATA).getBytes(StandardCharsets.UTF_8);
+        CRC32 crc = new CRC32();
+        crc.update(payload);
+        ByteBuffer buffer = ByteBuffer.allocate(8 + payload.length).putInt(payload.length)
+                .putInt((int) crc.getValue()).put(payload);
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            Path segment = paths.findFirst().orElseThrow();
+            Files.write(segment, buffer.array(), StandardOpenOption.APPEND);
+        }
+
+        eventSpoolService = createService(true, SEGMENT_SIZE, MAX_SIZE);
+        List<LocalDateTime> received = new ArrayList<>();
+        int count = eventSpoolService.replayEvents(BATCH_SIZE, record -> {
+            replayed.add(record.getKind());
+            received.add(record.getReceived());
+        });
+        assertAll(
+                () -> assertEquals(2, count),
+                () -> assertEquals(List.of(BLOCK, CLICK), replayed),
+                () -> assertNotNull(received.get(0)),
+                () -> assertNull(received.get(1))
+        );
+    }
+
+    @Test
+    public void testAppendOwnerOnly() throws IOException {
+        Assumptions.assumeTrue(directory.getFileSystem().supportedFileAttributeViews().contains("posix"));
+        eventSpoolService.append(BLOCK, DATA);
+
+        try (Stream<Path> paths = Files.list(directory)) {
+            Path segment = paths.findFirst().orElseThrow();
+            assertAll(
+                    () -> assertEquals(PosixFilePermissions.fromString("rwx------"),
+                            Files.getPosixFilePermissions(directory)),
+                    () -> assertEquals(PosixFilePermissions.fromString("rw-------"),
+                            Files.getPosixFilePermissions(segment))
+            );
+        }
+    }
+
+    @Test
+    public void testCreateServiceNoDirectory() {
+        assertThrows(IllegalStateException.class,
+                () -> new EventSpoolService(spoolCheckpointRepository, transactionManager, true, "", NAME,
+                        SEGMENT_SIZE, MAX_SIZE, true)
+        );
+    }
+
+    @Test
+    public void testCreateServiceNoName() {
+        assertThrows(IllegalStateException.class,
+                () -> new EventSpoolService(spoolCheckpointRepository, transactionManager, true, directory.toString(),
+                        " ", SEGMENT_SIZE, MAX_SIZE, true)
+        );
+    }
+
+    @Test
+    public void testCreateServiceDisabledNoDirectory() {
+        eventSpoolService = new EventSpoolService(spoolCheckpointRepository, transactionManager, false, "", "",
+                SEGMENT_SIZE, MAX_SIZE, true);
+        assertFalse(eventSpoolService.append(BLOCK, DATA));
+    }
+
+    private EventSpoolService createService(final boolean enabled, final long segmentSize, final long maxSize) {
+        return new EventSpoolService(spoolCheckpointRepository, transactionManager, enabled, directory.toString(),
+                NAME, segmentSize, maxSize, false);
+    }
+
+    private void resetRetry() throws NoSuchFieldException, IllegalAccessException {
+        Field retryAt = eventSpoolService.getClass().getDeclaredField("retryAt");
+        retryAt.setAccessible(true);
+        retryAt.set(eventSpoolService, 0L);
+    }
+
+    private long countSegments() throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.count();
+        }
+    }
+
+}
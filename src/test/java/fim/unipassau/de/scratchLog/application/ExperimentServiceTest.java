@@ -22,12 +22,18 @@ import fim.unipassau.de.scratchLog.application.exception.IncompleteDataException
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.ExperimentData;
+import fim.unipassau.de.scratchLog.persistence.entity.ExperimentProject;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentVersionProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentDataRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentProjectRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentProjectDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -35,6 +41,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.util.DigestUtils;
 
 import java.util.Arrays;
 import java.util.List;
@@ -44,11 +51,13 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -64,6 +73,12 @@ public class ExperimentServiceTest {
     @Mock
     private ExperimentDataRepository experimentDataRepository;
 
+    @Mock
+    private ExperimentProjectRepository experimentProjectRepository;
+
+    @Mock
+    private ResultCacheService resultCacheService;
+
     private static final String TITLE = "My Experiment";
     private static final String DESCRIPTION = "A description";
     private static final String BLANK = "    ";
@@ -77,6 +92,7 @@ public class ExperimentServiceTest {
     private final ExperimentDTO experimentDTO = new ExperimentDTO(ID, TITLE, DESCRIPTION, "Some info text",
             "Some postscript", false, true, GUI_URL);
     private final ExperimentData experimentData = new ExperimentData(ID, 5, 3, 2);
+    private final ExperimentProject experimentProject = new ExperimentProject(experiment, CONTENT);
     private final ExperimentProjection projection = new ExperimentProjection() {
         @Override
         public Integer getId() {
@@ -101,7 +117,7 @@ public class ExperimentServiceTest {
         experimentDTO.setDescription(DESCRIPTION);
         experimentDTO.setGuiURL(GUI_URL);
         experiment.setActive(false);
-        experiment.setProject(null);
+        experimentProject.setProject(CONTENT);
     }
 
     @Test
@@ -180,15 +196,15 @@ public class ExperimentServiceTest {
 
     @Test
     public void testHasProjectFile() {
-        when(experimentRepository.existsByIdAndProjectIsNotNull(ID)).thenReturn(true);
+        when(experimentProjectRepository.existsById(ID)).thenReturn(true);
         assertTrue(experimentService.hasProjectFile(ID));
-        verify(experimentRepository).existsByIdAndProjectIsNotNull(ID);
+        verify(experimentProjectRepository).existsById(ID);
     }
 
     @Test
     public void testHasProjectFileFalse() {
         assertFalse(experimentService.hasProjectFile(ID));
-        verify(experimentRepository).existsByIdAndProjectIsNotNull(ID);
+        verify(experimentProjectRepository).existsById(ID);
     }
 
     @Test
@@ -196,7 +212,7 @@ public class ExperimentServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> experimentService.hasProjectFile(0)
         );
-        verify(experimentRepository, never()).existsByIdAndProjectIsNotNull(anyInt());
+        verify(experimentProjectRepository, never()).existsById(anyInt());
     }
 
     @Test
@@ -427,19 +443,32 @@ public class ExperimentServiceTest {
     public void testUploadSb3Project() {
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
         assertDoesNotThrow(() -> experimentService.uploadSb3Project(ID, CONTENT));
+        verify(experimentProjectRepository).findById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(experimentRepository).save(any());
+        verify(experimentProjectRepository).save(any());
+        verify(resultCacheService).invalidateExperimentResults(ID);
+    }
+
+    @Test
+    public void testUploadSb3ProjectExisting() {
+        byte[] project = new byte[]{4, 5};
+        when(experimentProjectRepository.findById(ID)).thenReturn(Optional.of(experimentProject));
+        assertDoesNotThrow(() -> experimentService.uploadSb3Project(ID, project));
+        assertEquals(project, experimentProject.getProject());
+        verify(experimentProjectRepository).findById(ID);
+        verify(experimentRepository, never()).getReferenceById(anyInt());
+        verify(experimentProjectRepository).save(experimentProject);
     }
 
     @Test
     public void testUploadSb3ProjectEntityNotFound() {
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(experimentRepository.save(any())).thenThrow(EntityNotFoundException.class);
+        when(experimentProjectRepository.save(any())).thenThrow(EntityNotFoundException.class);
         assertThrows(NotFoundException.class,
                 () -> experimentService.uploadSb3Project(ID, CONTENT)
         );
         verify(experimentRepository).getReferenceById(ID);
-        verify(experimentRepository).save(any());
+        verify(experimentProjectRepository).save(any());
     }
 
     @Test
@@ -448,7 +477,7 @@ public class ExperimentServiceTest {
                 () -> experimentService.uploadSb3Project(0, CONTENT)
         );
         verify(experimentRepository, never()).getReferenceById(anyInt());
-        verify(experimentRepository, never()).save(any());
+        verify(experimentProjectRepository, never()).save(any());
     }
 
     @Test
@@ -457,26 +486,26 @@ public class ExperimentServiceTest {
                 () -> experimentService.uploadSb3Project(ID, null)
         );
         verify(experimentRepository, never()).getReferenceById(anyInt());
-        verify(experimentRepository, never()).save(any());
+        verify(experimentProjectRepository, never()).save(any());
     }
 
     @Test
     public void testDeleteSb3Project() {
-        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(experimentRepository.existsById(ID)).thenReturn(true);
         assertDoesNotThrow(() -> experimentService.deleteSb3Project(ID));
-        verify(experimentRepository).getReferenceById(ID);
-        verify(experimentRepository).save(any());
+        verify(experimentRepository).existsById(ID);
+        verify(experimentProjectRepository).deleteById(ID);
+        verify(resultCacheService).invalidateExperimentResults(ID);
     }
 
     @Test
-    public void testDeleteSb3ProjectEntityNotFound() {
-        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
-        when(experimentRepository.save(any())).thenThrow(EntityNotFoundException.class);
+    public void testDeleteSb3ProjectNotFound() {
         assertThrows(NotFoundException.class,
                 () -> experimentService.deleteSb3Project(ID)
         );
-        verify(experimentRepository).getReferenceById(ID);
-        verify(experimentRepository).save(any());
+        verify(experimentRepository).existsById(ID);
+        verify(experimentProjectRepository, never()).deleteById(anyInt());
+        verify(resultCacheService, never()).invalidateExperimentResults(anyInt());
     }
 
     @Test
@@ -484,8 +513,8 @@ public class ExperimentServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> experimentService.deleteSb3Project(-1)
         );
-        verify(experimentRepository, never()).getReferenceById(anyInt());
-        verify(experimentRepository, never()).save(any());
+        verify(experimentRepository, never()).existsById(anyInt());
+        verify(experimentProjectRepository, never()).deleteById(anyInt());
     }
 
     @Test
@@ -540,4 +569,174 @@ public class ExperimentServiceTest {
         verify(experimentRepository).findExperimentById(ID);
     }
 
+
+    @Test
+    public void testGetSb3Project() {
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        when(experimentProjectRepository.findById(ID)).thenReturn(Optional.of(experimentProject));
+        ExperimentProjectDTO experimentProjectDTO = experimentService.getSb3Project(ID);
+        assertAll(
+                () -> assertEquals(ID, experimentProjectDTO.getExperiment()),
+                () -> assertEquals(CONTENT, experimentProjectDTO.getProject()),
+                () -> assertEquals("\"" + ID + "-" + DigestUtils.md5DigestAsHex(CONTENT) + "\"",
+                        experimentProjectDTO.getVersion())
+        );
+        verify(experimentRepository).findExperimentVersionById(ID);
+        verify(experimentProjectRepository).findById(ID);
+    }
+
+    @Test
+    public void testGetSb3ProjectCached() {
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        when(experimentProjectRepository.findById(ID)).thenReturn(Optional.of(experimentProject));
+        ExperimentProjectDTO first = experimentService.getSb3Project(ID);
+        ExperimentProjectDTO second = experimentService.getSb3Project(ID);
+        assertAll(
+                () -> assertEquals(first.getVersion(), second.getVersion()),
+                () -> assertEquals(first.getProject(), second.getProject())
+        );
+        verify(experimentRepository, times(2)).findExperimentVersionById(ID);
+        verify(experimentProjectRepository).findById(ID);
+    }
+
+    @Test
+    public void testGetSb3ProjectChangedOnOtherNode() {
+        byte[] project = new byte[]{4, 5};
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        when(experimentProjectRepository.findById(ID)).thenReturn(Optional.of(experimentProject));
+        ExperimentProjectDTO first = experimentService.getSb3Project(ID);
+        experimentProject.setProject(project);
+        ExperimentProjectDTO second = experimentService.getSb3Project(ID);
+        assertAll(
+                () -> assertNotEquals(first.getVersion(), second.getVersion()),
+                () -> assertEquals(project, second.getProject())
+        );
+        verify(experimentProjectRepository, times(2)).findById(ID);
+        verify(experimentProjectRepository, never()).save(any());
+    }
+
+    @Test
+    public void testGetSb3ProjectInvalidatedByUpload() {
+        byte[] project = new byte[]{4, 5};
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        when(experimentProjectRepository.findById(ID)).thenReturn(Optional.of(experimentProject));
+        ExperimentProjectDTO first = experimentService.getSb3Project(ID);
+        experimentService.uploadSb3Project(ID, project);
+        ExperimentProjectDTO second = experimentService.getSb3Project(ID);
+        assertAll(
+                () -> assertNotEquals(first.getVersion(), second.getVersion()),
+                () -> assertEquals(project, second.getProject())
+        );
+        verify(experimentProjectRepository, times(3)).findById(ID);
+    }
+
+    @Test
+    public void testGetSb3ProjectInvalidatedWhileLoading() {
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        when(experimentRepository.existsById(ID)).thenReturn(true);
+        when(experimentProjectRepository.findById(ID)).thenAnswer(invocation -> {
+            experimentService.deleteSb3Project(ID);
+            return Optional.of(experimentProject);
+        }).thenReturn(Optional.of(experimentProject));
+        experimentService.getSb3Project(ID);
+        experimentService.getSb3Project(ID);
+        verify(experimentProjectRepository).deleteById(ID);
+        verify(experimentProjectRepository, times(2)).findById(ID);
+    }
+
+    @Test
+    public void testGetSb3ProjectEvictLeastRecentlyUsed() {
+        when(experimentRepository.findExperimentVersionById(anyInt())).thenReturn(Optional.of(createVersion(true)));
+        when(experimentProjectRepository.findById(anyInt())).thenReturn(Optional.of(experimentProject));
+
+        for (int id = ID; id <= Constants.PROJECT_CACHE_SIZE + 1; id++) {
+            experimentService.getSb3Project(id);
+        }
+
+        experimentService.getSb3Project(ID + 1);
+        experimentService.getSb3Project(ID);
+        verify(experimentProjectRepository, times(2)).findById(ID);
+        verify(experimentProjectRepository).findById(ID + 1);
+    }
+
+    @Test
+    public void testGetSb3ProjectInvalidatedByDelete() {
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        when(experimentRepository.existsById(ID)).thenReturn(true);
+        when(experimentProjectRepository.findById(ID)).thenReturn(Optional.of(experimentProject));
+        experimentService.getSb3Project(ID);
+        experimentService.deleteSb3Project(ID);
+        experimentProject.setProject(null);
+        assertThrows(NotFoundException.class,
+                () -> experimentService.getSb3Project(ID)
+        );
+        verify(experimentProjectRepository).deleteById(ID);
+        verify(experimentProjectRepository).findById(ID);
+    }
+
+    @Test
+    public void testGetSb3ProjectNoProject() {
+        experimentProject.setProject(null);
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        assertThrows(NotFoundException.class,
+                () -> experimentService.getSb3Project(ID)
+        );
+        verify(experimentRepository).findExperimentVersionById(ID);
+        verify(experimentProjectRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testGetSb3ProjectDeletedWhileLoading() {
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(true)));
+        assertThrows(NotFoundException.class,
+                () -> experimentService.getSb3Project(ID)
+        );
+        verify(experimentProjectRepository).findById(ID);
+    }
+
+    @Test
+    public void testGetSb3ProjectInactive() {
+        when(experimentRepository.findExperimentVersionById(ID)).thenReturn(Optional.of(createVersion(false)));
+        assertThrows(NotFoundException.class,
+                () -> experimentService.getSb3Project(ID)
+        );
+        verify(experimentProjectRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testGetSb3ProjectNotFound() {
+        assertThrows(NotFoundException.class,
+                () -> experimentService.getSb3Project(ID)
+        );
+        verify(experimentRepository).findExperimentVersionById(ID);
+        verify(experimentProjectRepository, never()).findById(anyInt());
+    }
+
+    @Test
+    public void testGetSb3ProjectInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> experimentService.getSb3Project(0)
+        );
+        verify(experimentRepository, never()).findExperimentVersionById(anyInt());
+    }
+
+    private ExperimentVersionProjection createVersion(final boolean active) {
+        return new ExperimentVersionProjection() {
+            @Override
+            public Integer getId() {
+                return ID;
+            }
+
+            @Override
+            public boolean isActive() {
+                return active;
+            }
+
+            @Override
+            public String getHash() {
+                return experimentProject.getHash();
+            }
+        };
+    }
+
 }
@@ -19,6 +19,7 @@
 package fim.unipassau.de.scratchLog.application;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.service.EventKeyService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.File;
@@ -82,7 +83,11 @@ public class FileServiceTest {
     @Mock
     private Sb3ZipRepository sb3ZipRepository;
 
+    @Mock
+    private EventKeyService eventKeyService;
+
     private static final int ID = 1;
+    private static final String KEY = "42";
     private static final String GUI_URL = "scratch";
     private final FileDTO fileDTO = new FileDTO(ID, ID, LocalDateTime.now(), "file", "png", new byte[]{1, 2, 3, 4});
     private final Sb3ZipDTO sb3ZipDTO = new Sb3ZipDTO(ID, ID, LocalDateTime.now(), "zip", new byte[]{1, 2, 3, 4});
@@ -221,6 +226,19 @@ public class FileServiceTest {
         verify(sb3ZipRepository).save(any());
     }
 
+    @Test
+    public void testSaveSb3ZipDuplicate() {
+        sb3ZipDTO.setKey(KEY);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        when(eventKeyService.isDuplicate(ID, ID, KEY)).thenReturn(true);
+        assertDoesNotThrow(
+                () -> fileService.saveSb3Zip(sb3ZipDTO)
+        );
+        verify(sb3ZipRepository, never()).save(any());
+    }
+
     @Test
     public void testSaveSb3ZipConstraintViolation() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
@@ -265,6 +283,35 @@ public class FileServiceTest {
         verify(sb3ZipRepository, never()).save(any());
     }
 
+    @Test
+    public void testSaveSb3ZipReceivedBeforeParticipantFinished() {
+        LocalDateTime end = LocalDateTime.now();
+        participant.setEnd(end);
+        user.setActive(false);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertDoesNotThrow(
+                () -> fileService.saveSb3Zip(sb3ZipDTO, end)
+        );
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
+        verify(sb3ZipRepository).save(any());
+    }
+
+    @Test
+    public void testSaveSb3ZipReceivedAfterParticipantFinished() {
+        LocalDateTime end = LocalDateTime.now();
+        participant.setEnd(end);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertDoesNotThrow(
+                () -> fileService.saveSb3Zip(sb3ZipDTO, end.plusSeconds(1))
+        );
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
+        verify(sb3ZipRepository, never()).save(any());
+    }
+
     @Test
     public void testSaveSb3ZipParticipantNull() {
         when(userRepository.getReferenceById(ID)).thenReturn(user);
@@ -0,0 +1,288 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.JobService;
+import fim.unipassau.de.scratchLog.web.dto.JobRunDTO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import javax.sql.DataSource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+import java.util.function.ToIntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class JobServiceTest {
+
+    private static AnnotationConfigApplicationContext node1;
+
+    private static AnnotationConfigApplicationContext node2;
+
+    private JobService jobService1;
+
+    private JobService jobService2;
+
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String URL = "jdbc:h2:mem:jobs;DB_CLOSE_DELAY=-1";
+    private static final String NODE1 = "node1";
+    private static final String NODE2 = "node2";
+    private static final String JOB = "token_cleanup";
+    private static final String OTHER_JOB = "deactivation";
+    private static final long LEASE = 60000;
+    private static final long INTERVAL = 600000;
+    private static final int AFFECTED = 5;
+    private static final String COUNT = "deleted_tokens";
+    private static final String OTHER_COUNT = "deleted_accounts";
+    private static final String INSERT_LEASE = "INSERT INTO job_lease (name, owner, locked_until) VALUES (?, ?, ?)";
+    private static final String INSERT_RUN = "INSERT INTO job_run (name, node, started, duration, affected, failed) "
+            + "VALUES (?, ?, ?, ?, ?, ?)";
+
+    @BeforeAll
+    public static void startNodes() {
+        node1 = createNode(NODE1);
+        node2 = createNode(NODE2);
+        new ResourceDatabasePopulator(new ClassPathResource("schema-test.sql")).execute(node1.getBean(
+                DataSource.class));
+    }
+
+    @AfterAll
+    public static void stopNodes() {
+        node1.close();
+        node2.close();
+    }
+
+    @BeforeEach
+    public void setup() {
+        jobService1 = node1.getBean(JobService.class);
+        jobService2 = node2.getBean(JobService.class);
+        jdbcTemplate = node1.getBean(JdbcTemplate.class);
+        jdbcTemplate.update("DELETE FROM job_lease");
+        jdbcTemplate.update("DELETE FROM job_run");
+    }
+
+    @Test
+    public void testRunExclusively() {
+        AtomicInteger runs = new AtomicInteger();
+        ToIntFunction<BooleanSupplier> job = heartbeat -> runs.incrementAndGet();
+        assertAll(
+                () -> assertTrue(jobService1.runExclusively(JOB, LEASE, INTERVAL, job)),
+                () -> assertFalse(jobService2.runExclusively(JOB, LEASE, INTERVAL, job)),
+                () -> assertFalse(jobService1.runExclusively(JOB, LEASE, INTERVAL, job)),
+                () -> assertTrue(jobService2.runExclusively(OTHER_JOB, LEASE, INTERVAL, job)),
+                () -> assertEquals(2, runs.get())
+        );
+    }
+
+    @Test
+    public void testRunExclusivelyWhileRunning() {
+        AtomicInteger runs = new AtomicInteger();
+        assertTrue(jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> {
+            assertFalse(jobService2.runExclusively(JOB, LEASE, INTERVAL, other -> runs.incrementAndGet()));
+            return AFFECTED;
+        }));
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    public void testRunExclusivelyIntervalPassed() {
+        assertAll(
+                () -> assertTrue(jobService1.runExclusively(JOB, LEASE, 0, heartbeat -> AFFECTED)),
+                () -> assertTrue(jobService2.runExclusively(JOB, LEASE, 0, heartbeat -> AFFECTED))
+        );
+    }
+
+    @Test
+    public void testRunExclusivelyLeaseExpired() {
+        jdbcTemplate.update(INSERT_LEASE, JOB, NODE1, LocalDateTime.now().plusMinutes(1));
+        assertFalse(jobService2.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> AFFECTED));
+        jdbcTemplate.update("UPDATE job_lease SET locked_until = ?", LocalDateTime.now().minusMinutes(1));
+        assertTrue(jobService2.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> AFFECTED));
+        assertEquals(NODE2, jdbcTemplate.queryForObject("SELECT owner FROM job_lease WHERE name = ?", String.class,
+                JOB));
+    }
+
+    @Test
+    public void testRunExclusivelyRenewLease() {
+        assertTrue(jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> {
+            jdbcTemplate.update("UPDATE job_lease SET locked_until = ?", LocalDateTime.now().minusMinutes(1));
+            assertTrue(heartbeat.getAsBoolean());
+            assertFalse(jobService2.runExclusively(JOB, LEASE, INTERVAL, other -> AFFECTED));
+            return AFFECTED;
+        }));
+    }
+
+    @Test
+    public void testRunExclusivelyLeaseLost() {
+        assertTrue(jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> {
+            jdbcTemplate.update("UPDATE job_lease SET owner = ?", NODE2);
+            assertFalse(heartbeat.getAsBoolean());
+            return AFFECTED;
+        }));
+        assertEquals(NODE2, jdbcTemplate.queryForObject("SELECT owner FROM job_lease WHERE name = ?", String.class,
+                JOB));
+    }
+
+    @Test
+    public void testRunExclusivelyFailed() {
+        assertThrows(IllegalStateException.class,
+                () -> jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> {
+                    throw new IllegalStateException("failed");
+                })
+        );
+        assertTrue(jobService2.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> AFFECTED));
+        List<JobRunDTO> runs = jobService1.getRecentRuns();
+        assertAll(
+                () -> assertEquals(2, runs.size()),
+                () -> assertFalse(runs.get(0).isFailed()),
+                () -> assertEquals(NODE2, runs.get(0).getNode()),
+                () -> assertTrue(runs.get(1).isFailed()),
+                () -> assertEquals(NODE1, runs.get(1).getNode())
+        );
+    }
+
+    @Test
+    public void testRunExclusivelyConcurrently() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch latch = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        List<Callable<Boolean>> tasks = new ArrayList<>();
+
+        for (JobService jobService : List.of(jobService1, jobService2)) {
+            tasks.add(() -> {
+                latch.await();
+                return jobService.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> runs.incrementAndGet());
+            });
+        }
+
+        try {
+            List<Future<Boolean>> futures = new ArrayList<>();
+            tasks.forEach(task -> futures.add(executor.submit(task)));
+            latch.countDown();
+            assertTrue(futures.get(0).get() ^ futures.get(1).get());
+        } finally {
+            executor.shutdown();
+        }
+
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    public void testGetRecentRuns() {
+        jdbcTemplate.update(INSERT_RUN, JOB, NODE1, LocalDateTime.now().minusDays(31), 0, 0, false);
+        jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> AFFECTED);
+        jobService2.runExclusively(OTHER_JOB, LEASE, INTERVAL, heartbeat -> AFFECTED + 1);
+        List<JobRunDTO> runs = jobService2.getRecentRuns();
+        assertAll(
+                () -> assertEquals(2, runs.size()),
+                () -> assertEquals(OTHER_JOB, runs.get(0).getName()),
+                () -> assertEquals(NODE2, runs.get(0).getNode()),
+                () -> assertEquals(AFFECTED + 1, runs.get(0).getAffected()),
+                () -> assertEquals(JOB, runs.get(1).getName()),
+                () -> assertEquals(NODE1, runs.get(1).getNode()),
+                () -> assertEquals(AFFECTED, runs.get(1).getAffected())
+        );
+    }
+
+    @Test
+    public void testRunExclusivelyRecordsCounts() {
+        assertTrue(jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> {
+            heartbeat.count(COUNT, 2);
+            heartbeat.count(OTHER_COUNT, 0);
+            heartbeat.count(COUNT, 3);
+            return AFFECTED;
+        }));
+        List<JobRunDTO> runs = jobService2.getRecentRuns();
+        assertAll(
+                () -> assertEquals(1, runs.size()),
+                () -> assertEquals(Map.of(COUNT, 5L, OTHER_COUNT, 0L), runs.get(0).getCounts())
+        );
+    }
+
+    @Test
+    public void testFindLatestRun() {
+        jdbcTemplate.update(INSERT_RUN, JOB, NODE2, LocalDateTime.now().minusHours(1), 0, 0, false);
+        jobService1.runExclusively(JOB, LEASE, INTERVAL, heartbeat -> {
+            heartbeat.count(COUNT, AFFECTED);
+            return AFFECTED;
+        });
+        jobService2.runExclusively(OTHER_JOB, LEASE, INTERVAL, heartbeat -> AFFECTED + 1);
+        Optional<JobRunDTO> run = jobService2.findLatestRun(JOB);
+        assertAll(
+                () -> assertTrue(run.isPresent()),
+                () -> assertEquals(NODE1, run.get().getNode()),
+                () -> assertEquals(AFFECTED, run.get().getAffected()),
+                () -> assertEquals(Map.of(COUNT, (long) AFFECTED), run.get().getCounts()),
+                () -> assertTrue(jobService2.findLatestRun("unknown").isEmpty())
+        );
+    }
+
+    @Test
+    public void testFindLatestRunWithoutCounts() {
+        jdbcTemplate.update(INSERT_RUN, JOB, NODE2, LocalDateTime.now(), 0, AFFECTED, false);
+        Optional<JobRunDTO> run = jobService1.findLatestRun(JOB);
+        assertAll(
+                () -> assertTrue(run.isPresent()),
+                () -> assertTrue(run.get().getCounts().isEmpty())
+        );
+    }
+
+    @Test
+    public void testGenerateNodeName() {
+        JobService jobService = new JobService(jdbcTemplate, "");
+        assertAll(
+                () -> assertFalse(jobService.getNode().isBlank()),
+                () -> assertEquals(NODE1, jobService1.getNode())
+        );
+    }
+
+    private static AnnotationConfigApplicationContext createNode(final String node) {
+        AnnotationConfigApplicationContext context = new AnnotationConfigApplicationContext();
+        context.registerBean(DataSource.class, () -> new DriverManagerDataSource(URL));
+        context.registerBean(JdbcTemplate.class, () -> new JdbcTemplate(context.getBean(DataSource.class)));
+        context.registerBean(JobService.class, () -> new JobService(context.getBean(JdbcTemplate.class), node));
+        context.refresh();
+        return context;
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.persistence.entity.OutboxMail;
+import fim.unipassau.de.scratchLog.persistence.repository.OutboxMailRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.javamail.JavaMailSenderImpl;
+import org.thymeleaf.spring6.SpringTemplateEngine;
+
+import java.io.IOException;
+import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class MailDeliveryTest {
+
+    private MailService mailService;
+
+    private LocalSmtpServer smtpServer;
+
+    @Mock
+    private SpringTemplateEngine springTemplateEngine;
+
+    @Mock
+    private OutboxMailRepository outboxMailRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private static final String HTML_BODY = "Unicorns are real!";
+    private static final String SUBJECT = "Unicorns";
+    private static final String TEMPLATE = "unicorns";
+    private final LocalDateTime now = LocalDateTime.now();
+    private final List<OutboxMail> mails = List.of(
+            OutboxMail.builder().id(1).recipient("unicorn1@unicorns.com").subject(SUBJECT).template(TEMPLATE)
+                    .model("{}").nextAttempt(now).created(now).build(),
+            OutboxMail.builder().id(2).recipient("unicorn2@unicorns.com").subject(SUBJECT).template(TEMPLATE)
+                    .model("{}").nextAttempt(now).created(now).build(),
+            OutboxMail.builder().id(3).recipient("unicorn3@unicorns.com").subject(SUBJECT).template(TEMPLATE)
+                    .model("{}").nextAttempt(now).created(now).build()
+    );
+
+    @BeforeEach
+    public void setup() throws IOException, NoSuchFieldException, IllegalAccessException {
+        smtpServer = new LocalSmtpServer();
+        JavaMailSenderImpl mailSender = new JavaMailSenderImpl();
+        mailSender.setHost("localhost");
+        mailSender.setPort(smtpServer.getPort());
+        mailService = new MailService(mailSender, springTemplateEngine, outboxMailRepository, jdbcTemplate);
+        Field from = mailService.getClass().getDeclaredField("email");
+        from.setAccessible(true);
+        from.set(mailService, "unicorns@unicorns.com");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        smtpServer.close();
+    }
+
+    @Test
+    public void testSendMailsOverOneConnection() {
+        when(springTemplateEngine.process(anyString(), any())).thenReturn(HTML_BODY);
+        mailService.sendMails(mails);
+        verify(outboxMailRepository).deleteAllByIdInBatch(List.of(1, 2, 3));
+        verify(outboxMailRepository, never()).saveAll(any());
+        assertAll(
+                () -> assertEquals(1, smtpServer.getConnections()),
+                () -> assertEquals(3, smtpServer.getMessages().size()),
+                () -> assertTrue(smtpServer.getMessages().get(0).contains("To: unicorn1@unicorns.com")),
+                () -> assertEquals(3, mailService.getStatus().getSent())
+        );
+    }
+
+    @Test
+    public void testSendMailsServerUnavailable() throws IOException {
+        smtpServer.close();
+        when(springTemplateEngine.process(anyString(), any())).thenReturn(HTML_BODY);
+        mailService.sendMails(mails);
+        verify(outboxMailRepository, never()).deleteAllByIdInBatch(any());
+        verify(outboxMailRepository).saveAll(mails);
+        assertAll(
+                () -> assertTrue(mails.stream().allMatch(mail -> mail.getAttempts() == 1)),
+                () -> assertEquals(3, mailService.getStatus().getRetried())
+        );
+    }
+
+}
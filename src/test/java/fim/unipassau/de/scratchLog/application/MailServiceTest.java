@@ -19,25 +19,46 @@
 package fim.unipassau.de.scratchLog.application;
 
 import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.persistence.entity.OutboxMail;
+import fim.unipassau.de.scratchLog.persistence.repository.OutboxMailRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.dto.MailStatusDTO;
 import jakarta.mail.MessagingException;
 import jakarta.mail.internet.MimeMessage;
+import org.json.JSONObject;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.mail.MailSendException;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.thymeleaf.spring6.SpringTemplateEngine;
 
 import java.lang.reflect.Field;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -59,6 +80,21 @@ public class MailServiceTest {
     @Mock
     private MimeMessageHelper mimeMessageHelper;
 
+    @Mock
+    private OutboxMailRepository outboxMailRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Captor
+    private ArgumentCaptor<OutboxMail> mailCaptor;
+
+    @Captor
+    private ArgumentCaptor<Collection<OutboxMail>> mailsCaptor;
+
+    @Captor
+    private ArgumentCaptor<Collection<Map.Entry<String, Map<String, Object>>>> entryCaptor;
+
     private static final String HTML_BODY = "message";
     private static final String TO = "gordon.fraser@uni-passau.de";
     private static final String CC = "MoreUnicorns!";
@@ -66,23 +102,156 @@ public class MailServiceTest {
     private static final String REPLY_TO = "JustIgnoreThis";
     private static final String SUBJECT = "Unicorns";
     private static final String TEMPLATE = "unicorns";
+    private static final String ERROR = "Mailbox unavailable";
+    private static final int ID = 1;
     private static final Map<String, Object> MODEL = new HashMap<>();
+    private OutboxMail mail;
 
     @BeforeEach
     public void setup() throws NoSuchFieldException, IllegalAccessException {
         Field from = mailService.getClass().getDeclaredField("email");
         from.setAccessible(true);
         from.set(mailService, "unicorns@unicorns.com");
+        MODEL.put("secret", "unicorn");
+        LocalDateTime now = LocalDateTime.now();
+        mail = OutboxMail.builder().id(ID).recipient(TO).subject(SUBJECT).template(TEMPLATE)
+                .model("{\"secret\":\"unicorn\"}").nextAttempt(now).created(now).build();
     }
 
     @Test
     public void testSendEmail() {
+        assertTrue(mailService.sendEmail(TO, SUBJECT, MODEL, TEMPLATE));
+        verify(outboxMailRepository).save(mailCaptor.capture());
+        OutboxMail queued = mailCaptor.getValue();
+        assertAll(
+                () -> assertEquals(TO, queued.getRecipient()),
+                () -> assertEquals(SUBJECT, queued.getSubject()),
+                () -> assertEquals(TEMPLATE, queued.getTemplate()),
+                () -> assertEquals("unicorn", new JSONObject(queued.getModel()).getString("secret")),
+                () -> assertEquals(0, queued.getAttempts()),
+                () -> assertFalse(queued.isFailed())
+        );
+        verify(javaMailSender, never()).send(any(MimeMessage.class));
+    }
+
+    @Test
+    public void testSendEmailRecipientNull() {
+        assertAll(
+                () -> assertFalse(mailService.sendEmail(null, SUBJECT, MODEL, TEMPLATE)),
+                () -> assertFalse(mailService.sendEmail(" ", SUBJECT, MODEL, TEMPLATE))
+        );
+        verify(outboxMailRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSendEmails() {
+        Map<String, Map<String, Object>> templateModels = new HashMap<>();
+        templateModels.put(TO, MODEL);
+        templateModels.put(CC, MODEL);
+        templateModels.put(" ", MODEL);
+        assertEquals(2, mailService.sendEmails(templateModels, SUBJECT, TEMPLATE));
+        verify(jdbcTemplate).batchUpdate(anyString(), entryCaptor.capture(), eq(Constants.MAIL_BATCH_SIZE), any());
+        assertTrue(entryCaptor.getValue().stream().map(Map.Entry::getKey).allMatch(to -> to.equals(TO)
+                || to.equals(CC)));
+        verify(outboxMailRepository, never()).save(any());
+    }
+
+    @Test
+    public void testClaimMails() {
+        when(outboxMailRepository.findDueMailIds(any(), anyInt())).thenReturn(List.of(ID));
+        when(outboxMailRepository.claimMails(eq(List.of(ID)), anyString(), any(), any())).thenReturn(1);
+        when(outboxMailRepository.findAllByClaim(anyString())).thenReturn(List.of(mail));
+        assertEquals(List.of(mail), mailService.claimMails(Constants.MAIL_BATCH_SIZE));
+        verify(outboxMailRepository).findDueMailIds(any(), anyInt());
+        verify(outboxMailRepository).claimMails(eq(List.of(ID)), anyString(), any(), any());
+        verify(outboxMailRepository).findAllByClaim(anyString());
+    }
+
+    @Test
+    public void testClaimMailsClaimedConcurrently() {
+        when(outboxMailRepository.findDueMailIds(any(), anyInt())).thenReturn(List.of(ID));
+        assertTrue(mailService.claimMails(Constants.MAIL_BATCH_SIZE).isEmpty());
+        verify(outboxMailRepository).claimMails(eq(List.of(ID)), anyString(), any(), any());
+        verify(outboxMailRepository, never()).findAllByClaim(anyString());
+    }
+
+    @Test
+    public void testClaimMailsNone() {
+        assertTrue(mailService.claimMails(Constants.MAIL_BATCH_SIZE).isEmpty());
+        verify(outboxMailRepository, never()).claimMails(any(), any(), any(), any());
+    }
+
+    @Test
+    public void testSendMails() {
         when(springTemplateEngine.process(anyString(), any())).thenReturn(HTML_BODY);
         when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
-        assertTrue(mailService.sendEmail(TO, SUBJECT, MODEL, TEMPLATE));
-        verify(springTemplateEngine).process(anyString(), any());
-        verify(javaMailSender).createMimeMessage();
-        verify(javaMailSender).send(any(MimeMessage.class));
+        mailService.sendMails(List.of(mail));
+        verify(javaMailSender).send(new MimeMessage[]{mimeMessage});
+        verify(outboxMailRepository).deleteAllByIdInBatch(List.of(ID));
+        verify(outboxMailRepository, never()).saveAll(any());
+        assertEquals(1, mailService.getStatus().getSent());
+    }
+
+    @Test
+    public void testSendMailsFailed() {
+        when(springTemplateEngine.process(anyString(), any())).thenReturn(HTML_BODY);
+        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
+        doThrow(new MailSendException(Map.<Object, Exception>of(mimeMessage, new MessagingException(ERROR))))
+                .when(javaMailSender).send(any(MimeMessage[].class));
+        LocalDateTime before = LocalDateTime.now();
+        mailService.sendMails(List.of(mail));
+        verify(outboxMailRepository).saveAll(mailsCaptor.capture());
+        verify(outboxMailRepository, never()).deleteAllByIdInBatch(any());
+        assertAll(
+                () -> assertEquals(List.of(mail), mailsCaptor.getValue()),
+                () -> assertEquals(1, mail.getAttempts()),
+                () -> assertFalse(mail.isFailed()),
+                () -> assertTrue(mail.getNextAttempt().isAfter(before.plusSeconds(Constants.MAIL_RETRY_DELAY - 1))),
+                () -> assertEquals(ERROR, mail.getLastError()),
+                () -> assertEquals(1, mailService.getStatus().getRetried())
+        );
+    }
+
+    @Test
+    public void testSendMailsMaxTries() {
+        mail.setAttempts(Constants.MAX_EMAIL_TRIES - 1);
+        when(springTemplateEngine.process(anyString(), any())).thenReturn(HTML_BODY);
+        when(javaMailSender.createMimeMessage()).thenReturn(mimeMessage);
+        doThrow(new MailSendException(ERROR)).when(javaMailSender).send(any(MimeMessage[].class));
+        mailService.sendMails(List.of(mail));
+        verify(outboxMailRepository).saveAll(List.of(mail));
+        assertAll(
+                () -> assertEquals(Constants.MAX_EMAIL_TRIES, mail.getAttempts()),
+                () -> assertTrue(mail.isFailed())
+        );
+    }
+
+    @Test
+    public void testSendMailsTemplateError() {
+        when(springTemplateEngine.process(anyString(), any())).thenThrow(RuntimeException.class);
+        mailService.sendMails(List.of(mail));
+        verify(javaMailSender, never()).send(any(MimeMessage[].class));
+        verify(outboxMailRepository).saveAll(List.of(mail));
+        assertEquals(1, mail.getAttempts());
+    }
+
+    @Test
+    public void testGetStatus() {
+        when(outboxMailRepository.countByFailed(false)).thenReturn(3L);
+        when(outboxMailRepository.countByFailed(true)).thenReturn(1L);
+        when(outboxMailRepository.findFirstByFailedFalseOrderByCreatedAsc()).thenReturn(Optional.of(mail));
+        MailStatusDTO status = mailService.getStatus();
+        assertAll(
+                () -> assertEquals(3, status.getPending()),
+                () -> assertEquals(1, status.getFailed()),
+                () -> assertEquals(mail.getCreated(), status.getOldestPending()),
+                () -> assertEquals(0, status.getSent())
+        );
+    }
+
+    @Test
+    public void testGetStatusEmpty() {
+        assertNull(mailService.getStatus().getOldestPending());
     }
 
     @Test
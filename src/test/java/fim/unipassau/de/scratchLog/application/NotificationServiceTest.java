@@ -0,0 +1,198 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.application.service.ExperimentService;
+import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
+import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.TokenService;
+import fim.unipassau.de.scratchLog.application.service.UserService;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
+import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
+import fim.unipassau.de.scratchLog.web.dto.UserDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class NotificationServiceTest {
+
+    @InjectMocks
+    private NotificationService notificationService;
+
+    @Mock
+    private UserService userService;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private ParticipantService participantService;
+
+    @Mock
+    private ExperimentService experimentService;
+
+    @Mock
+    private MailService mailService;
+
+    private static final String SUBJECT = "subject";
+    private static final String TEMPLATE = "template";
+    private static final String EMAIL = "participant@participant.de";
+    private static final String SECRET = "secret";
+    private static final int ID = 1;
+    private static final int EXPERIMENT_ID = 2;
+    private final UserDTO userDTO = new UserDTO("participant", EMAIL, Role.PARTICIPANT, Language.ENGLISH, null,
+            SECRET);
+    private final UserDTO germanDTO = new UserDTO("teilnehmer", "teilnehmer@teilnehmer.de", Role.PARTICIPANT,
+            Language.GERMAN, null, SECRET);
+    private final TokenDTO tokenDTO = new TokenDTO(TokenType.REGISTER, LocalDateTime.now(), null, ID);
+    private final ExperimentDTO experimentDTO = new ExperimentDTO();
+
+    @BeforeEach
+    public void setup() {
+        userDTO.setId(ID);
+        userDTO.setEmail(EMAIL);
+        germanDTO.setId(ID + 1);
+        tokenDTO.setValue("value");
+    }
+
+    @Test
+    public void testSaveUser() {
+        when(userService.saveUser(userDTO)).thenReturn(userDTO);
+        when(tokenService.generateToken(TokenType.REGISTER, null, ID)).thenReturn(tokenDTO);
+        when(mailService.sendEmail(eq(EMAIL), eq(SUBJECT), any(), anyString())).thenReturn(true);
+        assertEquals(userDTO, notificationService.saveUser(userDTO, SUBJECT));
+        verify(userService).saveUser(userDTO);
+        verify(tokenService).generateToken(TokenType.REGISTER, null, ID);
+        verify(mailService).sendEmail(eq(EMAIL), eq(SUBJECT), argThat(model -> model.get("token").toString()
+                .endsWith("/token?value=value")), eq("password-set-email.html"));
+    }
+
+    @Test
+    public void testSaveUserMailNotQueued() {
+        when(userService.saveUser(userDTO)).thenReturn(userDTO);
+        when(tokenService.generateToken(TokenType.REGISTER, null, ID)).thenReturn(tokenDTO);
+        assertThrows(StoreException.class, () -> notificationService.saveUser(userDTO, SUBJECT));
+        verify(mailService).sendEmail(eq(EMAIL), eq(SUBJECT), any(), anyString());
+    }
+
+    @Test
+    public void testSendToken() {
+        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, EMAIL, ID)).thenReturn(tokenDTO);
+        when(mailService.sendEmail(eq(EMAIL), eq(SUBJECT), any(), eq(TEMPLATE))).thenReturn(true);
+        notificationService.sendToken(TokenType.CHANGE_EMAIL, EMAIL, ID, EMAIL, SUBJECT, TEMPLATE);
+        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, EMAIL, ID);
+        verify(mailService).sendEmail(eq(EMAIL), eq(SUBJECT), any(), eq(TEMPLATE));
+    }
+
+    @Test
+    public void testSendTokenNotFound() {
+        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, EMAIL, ID)).thenThrow(NotFoundException.class);
+        assertThrows(NotFoundException.class, () -> notificationService.sendToken(TokenType.CHANGE_EMAIL, EMAIL, ID,
+                EMAIL, SUBJECT, TEMPLATE));
+        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+    }
+
+    @Test
+    public void testSaveParticipantNew() {
+        userDTO.setId(null);
+        UserDTO saved = new UserDTO("participant", EMAIL, Role.PARTICIPANT, Language.ENGLISH, null, SECRET);
+        saved.setId(ID);
+        when(userService.saveUser(userDTO)).thenReturn(saved);
+        when(mailService.sendEmail(eq(EMAIL), anyString(), any(), eq("participant-email"))).thenReturn(true);
+        assertEquals(saved, notificationService.saveParticipant(userDTO, EXPERIMENT_ID, true));
+        verify(userService).saveUser(userDTO);
+        verify(userService, never()).updateUser(any());
+        verify(participantService).saveParticipant(ID, EXPERIMENT_ID);
+        verify(mailService).sendEmail(eq(EMAIL), anyString(), argThat(model -> model.get("secret").toString()
+                .endsWith("/users/authenticate?id=" + EXPERIMENT_ID + "&secret=" + SECRET)), eq("participant-email"));
+    }
+
+    @Test
+    public void testSaveParticipantExistingNoMail() {
+        when(userService.updateUser(userDTO)).thenReturn(userDTO);
+        assertEquals(userDTO, notificationService.saveParticipant(userDTO, EXPERIMENT_ID, false));
+        verify(userService, never()).saveUser(any());
+        verify(userService).updateUser(userDTO);
+        verify(participantService).saveParticipant(ID, EXPERIMENT_ID);
+        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+    }
+
+    @Test
+    public void testSaveParticipantEmailNull() {
+        userDTO.setEmail(null);
+        when(userService.updateUser(userDTO)).thenReturn(userDTO);
+        assertThrows(StoreException.class, () -> notificationService.saveParticipant(userDTO, EXPERIMENT_ID, true));
+        verify(participantService).saveParticipant(ID, EXPERIMENT_ID);
+        verify(mailService).sendEmail(any(), anyString(), any(), anyString());
+    }
+
+    @Test
+    public void testOpenExperiment() {
+        when(experimentService.changeExperimentStatus(true, EXPERIMENT_ID)).thenReturn(experimentDTO);
+        when(userService.reactivateUserAccounts(EXPERIMENT_ID)).thenReturn(List.of(userDTO, germanDTO));
+        assertEquals(experimentDTO, notificationService.openExperiment(EXPERIMENT_ID, true));
+        verify(experimentService).changeExperimentStatus(true, EXPERIMENT_ID);
+        verify(userService).reactivateUserAccounts(EXPERIMENT_ID);
+        verify(mailService, times(2)).sendEmails(argThat(models -> models.size() == 1), anyString(),
+                eq("participant-email"));
+    }
+
+    @Test
+    public void testOpenExperimentNoMails() {
+        when(experimentService.changeExperimentStatus(true, EXPERIMENT_ID)).thenReturn(experimentDTO);
+        assertEquals(experimentDTO, notificationService.openExperiment(EXPERIMENT_ID, false));
+        verify(userService).reactivateUserAccounts(EXPERIMENT_ID);
+        verify(mailService, never()).sendEmails(anyMap(), anyString(), anyString());
+    }
+
+    @Test
+    public void testOpenExperimentNotFound() {
+        when(experimentService.changeExperimentStatus(true, EXPERIMENT_ID)).thenThrow(NotFoundException.class);
+        assertThrows(NotFoundException.class, () -> notificationService.openExperiment(EXPERIMENT_ID, true));
+        verify(userService, never()).reactivateUserAccounts(anyInt());
+        verify(mailService, never()).sendEmails(anyMap(), anyString(), anyString());
+    }
+
+}
@@ -20,9 +20,10 @@ package fim.unipassau.de.scratchLog.application;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.application.service.EventKeyService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.SnapshotService;
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
-import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
@@ -32,6 +33,7 @@ import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Language;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.web.dto.ParticipantDTO;
@@ -43,6 +45,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -59,6 +62,9 @@ import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -88,6 +94,15 @@ public class ParticipantServiceTest {
     @Mock
     private ParticipantRepository participantRepository;
 
+    @Mock
+    private SnapshotService snapshotService;
+
+    @Mock
+    private EventKeyService eventKeyService;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
     private static final String USERNAME = "participant";
     private static final String PASSWORD = "participant1";
     private static final String EMAIL = "participant@participant.de";
@@ -96,6 +111,7 @@ public class ParticipantServiceTest {
     private static final String GUI_URL = "scratch";
     private static final int ID = 1;
     private static final long MAX_DAYS = 90;
+    private static final List<Integer> USER_IDS = List.of(2, 3);
     private static final LocalDateTime MAX_TIME = LocalDateTime.now().minusDays(MAX_DAYS);
     private final User user = new User(USERNAME, EMAIL, Role.PARTICIPANT, Language.ENGLISH, PASSWORD, SECRET);
     private final Experiment experiment1 = new Experiment(ID, "title", "description", "info", "postscript", true,
@@ -108,12 +124,12 @@ public class ParticipantServiceTest {
     private final Course course = new Course(ID, "title", "description", "content", true,
             LocalDateTime.now());
     private final List<Participant> participantList = getParticipants(5);
-    private final List<CourseParticipant> courseParticipants = getCourseParticipants(3);
 
     @BeforeEach
     public void setup() {
         participantDTO.setUser(ID);
         participantDTO.setExperiment(ID);
+        participantDTO.setEnd(null);
         user.setId(ID);
         user.setActive(false);
         course.setActive(true);
@@ -190,14 +206,17 @@ public class ParticipantServiceTest {
         when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment2);
         when(courseExperimentRepository.existsByCourseAndExperiment(course, experiment2)).thenReturn(true);
-        when(courseParticipantRepository.findAllByCourse(course)).thenReturn(courseParticipants);
+        when(participantRepository.insertCourseParticipants(ID, ID)).thenReturn(3);
+        when(courseParticipantRepository.findUserIdsWithoutSecret(ID)).thenReturn(USER_IDS);
         assertDoesNotThrow(() -> participantService.saveParticipants(ID, ID));
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
         verify(courseExperimentRepository).existsByCourseAndExperiment(course, experiment2);
-        verify(courseParticipantRepository).findAllByCourse(course);
-        verify(participantRepository, times(3)).save(any());
-        verify(userRepository, times(2)).save(any());
+        verify(participantRepository).insertCourseParticipants(ID, ID);
+        verify(courseParticipantRepository).findUserIdsWithoutSecret(ID);
+        verify(jdbcTemplate).batchUpdate(anyString(), eq(USER_IDS), eq(Constants.USER_BATCH_SIZE), any());
+        verify(participantRepository, never()).save(any());
+        verify(userRepository, never()).save(any());
     }
 
     @Test
@@ -205,15 +224,14 @@ public class ParticipantServiceTest {
         when(courseRepository.getReferenceById(ID)).thenReturn(course);
         when(experimentRepository.getReferenceById(ID)).thenReturn(experiment2);
         when(courseExperimentRepository.existsByCourseAndExperiment(course, experiment2)).thenReturn(true);
-        when(courseParticipantRepository.findAllByCourse(course)).thenReturn(courseParticipants);
-        when(participantRepository.save(any())).thenThrow(ConstraintViolationException.class);
+        when(participantRepository.insertCourseParticipants(ID, ID)).thenThrow(ConstraintViolationException.class);
         assertThrows(StoreException.class, () -> participantService.saveParticipants(ID, ID));
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
         verify(courseExperimentRepository).existsByCourseAndExperiment(course, experiment2);
-        verify(courseParticipantRepository).findAllByCourse(course);
-        verify(participantRepository).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository).insertCourseParticipants(ID, ID);
+        verify(courseParticipantRepository, never()).findUserIdsWithoutSecret(anyInt());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
     }
 
     @Test
@@ -226,9 +244,8 @@ public class ParticipantServiceTest {
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
         verify(courseExperimentRepository).existsByCourseAndExperiment(course, experiment2);
-        verify(courseParticipantRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository, never()).insertCourseParticipants(anyInt(), anyInt());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
     }
 
     @Test
@@ -238,9 +255,8 @@ public class ParticipantServiceTest {
         assertThrows(IllegalStateException.class, () -> participantService.saveParticipants(ID, ID));
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(courseParticipantRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository, never()).insertCourseParticipants(anyInt(), anyInt());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
     }
 
     @Test
@@ -251,9 +267,8 @@ public class ParticipantServiceTest {
         assertThrows(IllegalStateException.class, () -> participantService.saveParticipants(ID, ID));
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(courseParticipantRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository, never()).insertCourseParticipants(anyInt(), anyInt());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
     }
 
     @Test
@@ -264,9 +279,8 @@ public class ParticipantServiceTest {
         assertThrows(IllegalStateException.class, () -> participantService.saveParticipants(ID, ID));
         verify(courseRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
-        verify(courseParticipantRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository, never()).insertCourseParticipants(anyInt(), anyInt());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
     }
 
     @Test
@@ -277,9 +291,8 @@ public class ParticipantServiceTest {
         );
         verify(courseRepository, never()).getReferenceById(anyInt());
         verify(experimentRepository, never()).getReferenceById(anyInt());
-        verify(courseParticipantRepository, never()).findAllByCourse(any());
-        verify(participantRepository, never()).save(any());
-        verify(userRepository, never()).save(any());
+        verify(participantRepository, never()).insertCourseParticipants(anyInt(), anyInt());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), anyList(), anyInt(), any());
     }
 
     @Test
@@ -333,6 +346,19 @@ public class ParticipantServiceTest {
         verify(userRepository).getReferenceById(ID);
         verify(experimentRepository).getReferenceById(ID);
         verify(participantRepository).save(any());
+        verify(snapshotService, never()).evictSnapshot(anyInt(), anyInt());
+        verify(eventKeyService, never()).removeKeys(anyInt(), anyInt());
+    }
+
+    @Test
+    public void testUpdateParticipantFinished() {
+        participantDTO.setEnd(LocalDateTime.now());
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment1);
+        assertTrue(participantService.updateParticipant(participantDTO));
+        verify(participantRepository).save(any());
+        verify(snapshotService).evictSnapshot(ID, ID);
+        verify(eventKeyService).removeKeys(ID, ID);
     }
 
     @Test
@@ -487,6 +513,7 @@ public class ParticipantServiceTest {
     public void testDeleteParticipant() {
         assertDoesNotThrow(() -> participantService.deleteParticipant(ID, ID));
         verify(participantRepository).deleteById(any());
+        verify(snapshotService).discardSnapshot(ID, ID);
     }
 
     @Test
@@ -666,48 +693,75 @@ public class ParticipantServiceTest {
     }
 
     @Test
-    public void testDeactivateInactiveExperiments() {
-        when(experimentRepository.findAllByActiveIsTrue()).thenReturn(List.of(experiment1, experiment2));
-        when(participantRepository.findAllByExperiment(experiment1)).thenReturn(List.of(participant1));
-        when(participantRepository.findAllByExperiment(experiment2)).thenReturn(List.of(participant1, participant2));
-        participantService.deactivateInactiveExperiments();
+    public void testIsVerifiedParticipant() {
+        user.setActive(true);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment1);
+        when(participantRepository.findByUserAndExperiment(user, experiment1)).thenReturn(Optional.of(participant1));
+        assertFalse(participantService.isInvalidParticipant(ID, ID, SECRET, true));
         assertAll(
-                () -> assertTrue(experiment1.isActive()),
-                () -> assertFalse(experiment2.isActive())
+                () -> assertTrue(participantService.isVerifiedParticipant(ID, ID, SECRET)),
+                () -> assertFalse(participantService.isVerifiedParticipant(ID, ID, "other")),
+                () -> assertFalse(participantService.isVerifiedParticipant(ID, ID, null)),
+                () -> assertFalse(participantService.isVerifiedParticipant(ID, ID + 1, SECRET))
         );
-        verify(experimentRepository).findAllByActiveIsTrue();
-        verify(participantRepository).findAllByExperiment(experiment1);
-        verify(participantRepository).findAllByExperiment(experiment2);
-        verify(experimentRepository).save(experiment2);
+        verify(participantRepository).findByUserAndExperiment(user, experiment1);
     }
 
     @Test
-    public void testDeactivateInactiveExperimentsLastStart() {
-        participant2.setEnd(LocalDateTime.now());
-        when(experimentRepository.findAllByActiveIsTrue()).thenReturn(List.of(experiment1, experiment2));
-        when(participantRepository.findAllByExperiment(experiment1)).thenReturn(new ArrayList<>());
-        when(participantRepository.findAllByExperiment(experiment2)).thenReturn(List.of(participant2));
-        participantService.deactivateInactiveExperiments();
-        assertAll(
-                () -> assertTrue(experiment1.isActive()),
-                () -> assertFalse(experiment2.isActive())
-        );
-        verify(experimentRepository).findAllByActiveIsTrue();
-        verify(participantRepository).findAllByExperiment(experiment1);
-        verify(participantRepository).findAllByExperiment(experiment2);
-        verify(experimentRepository).save(experiment2);
+    public void testIsVerifiedParticipantNotVerified() {
+        assertFalse(participantService.isVerifiedParticipant(ID, ID, SECRET));
+        verify(participantRepository, never()).findByUserAndExperiment(any(), any());
+    }
+
+    @Test
+    public void testIsVerifiedParticipantUserInactiveAllowed() {
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment1);
+        when(participantRepository.findByUserAndExperiment(user, experiment1)).thenReturn(Optional.of(participant1));
+        assertFalse(participantService.isInvalidParticipant(ID, ID, SECRET, false));
+        assertFalse(participantService.isVerifiedParticipant(ID, ID, SECRET));
+    }
+
+    @Test
+    public void testIsVerifiedParticipantFinished() {
+        user.setActive(true);
+        participantDTO.setEnd(LocalDateTime.now());
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment1);
+        when(participantRepository.findByUserAndExperiment(user, experiment1)).thenReturn(Optional.of(participant1));
+        assertFalse(participantService.isInvalidParticipant(ID, ID, SECRET, true));
+        assertTrue(participantService.updateParticipant(participantDTO));
+        assertFalse(participantService.isVerifiedParticipant(ID, ID, SECRET));
+    }
+
+    @Test
+    public void testIsVerifiedParticipantDeleted() {
+        user.setActive(true);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment1);
+        when(participantRepository.findByUserAndExperiment(user, experiment1)).thenReturn(Optional.of(participant1));
+        assertFalse(participantService.isInvalidParticipant(ID, ID, SECRET, true));
+        participantService.deleteParticipant(ID, ID);
+        assertFalse(participantService.isVerifiedParticipant(ID, ID, SECRET));
     }
 
     @Test
-    public void testDeactivateInactiveExperimentsLastEnd() {
-        participant2.setStart(LocalDateTime.now());
-        when(experimentRepository.findAllByActiveIsTrue()).thenReturn(List.of(experiment2));
-        when(participantRepository.findAllByExperiment(experiment2)).thenReturn(List.of(participant2));
-        participantService.deactivateInactiveExperiments();
-        assertFalse(experiment2.isActive());
-        verify(experimentRepository).findAllByActiveIsTrue();
-        verify(participantRepository).findAllByExperiment(experiment2);
-        verify(experimentRepository).save(experiment2);
+    public void testDeactivateInactiveExperiments() {
+        List<Integer> ids = List.of(ID, ID + 1);
+        when(experimentRepository.findInactiveExperimentIds(any())).thenReturn(ids);
+        when(experimentRepository.deactivateExperiments(ids)).thenReturn(ids.size());
+        assertEquals(ids.size(), participantService.deactivateInactiveExperiments());
+        verify(experimentRepository).deactivateExperiments(ids);
+        verify(participantRepository, never()).findAllByExperiment(any());
+        verify(experimentRepository, never()).save(any());
+    }
+
+    @Test
+    public void testDeactivateInactiveExperimentsNone() {
+        assertEquals(0, participantService.deactivateInactiveExperiments());
+        verify(experimentRepository).findInactiveExperimentIds(any());
+        verify(experimentRepository, never()).deactivateExperiments(any());
     }
 
     private List<Participant> getParticipants(int number) {
@@ -723,19 +777,4 @@ public class ParticipantServiceTest {
         return participants;
     }
 
-    private List<CourseParticipant> getCourseParticipants(int number) {
-        List<CourseParticipant> participants = new ArrayList<>();
-        for (int i = 0; i < number; i++) {
-            User user = new User();
-            user.setId(i + 1);
-
-            if (user.getId() == 1) {
-                user.setSecret("secret");
-                user.setActive(true);
-            }
-
-            participants.add(new CourseParticipant(user, course, LocalDateTime.now()));
-        }
-        return participants;
-    }
 }
@@ -0,0 +1,370 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.JobService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.Participant;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ResultCacheServiceTest {
+
+    private ResultCacheService resultCacheService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExperimentRepository experimentRepository;
+
+    @Mock
+    private ParticipantRepository participantRepository;
+
+    @Mock
+    private JobService jobService;
+
+    @TempDir
+    private Path directory;
+
+    private static final int ID = 1;
+    private static final long MAX_SIZE = 10;
+    private static final String PARAMETERS = "sb3s_0_0_0_true";
+    private static final String OTHER_PARAMETERS = "jsons";
+    private static final String NODE = "node";
+    private static final String OTHER_NODE = "other";
+    private final byte[] content = new byte[]{1, 2, 3, 4};
+    private final User user = new User("participant", "email", Role.PARTICIPANT, Language.GERMAN, "password", "secret");
+    private final Experiment experiment = new Experiment(ID, "title", "description", "info", "postscript", true,
+            false, "scratch");
+    private final Participant participant = new Participant(user, experiment, LocalDateTime.now(), null);
+
+    @BeforeEach
+    public void setup() {
+        participant.setEnd(LocalDateTime.now());
+        resultCacheService = createService(NODE);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        resultCacheService.close();
+    }
+
+    @Test
+    public void testIsFinished() {
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertTrue(resultCacheService.isFinished(ID, ID));
+        verify(participantRepository).findByUserAndExperiment(user, experiment);
+    }
+
+    @Test
+    public void testIsFinishedEndNull() {
+        participant.setEnd(null);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenReturn(Optional.of(participant));
+        assertFalse(resultCacheService.isFinished(ID, ID));
+    }
+
+    @Test
+    public void testIsFinishedNoParticipant() {
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        assertFalse(resultCacheService.isFinished(ID, ID));
+    }
+
+    @Test
+    public void testIsFinishedEntityNotFound() {
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(participantRepository.findByUserAndExperiment(user, experiment)).thenThrow(
+                EntityNotFoundException.class);
+        assertFalse(resultCacheService.isFinished(ID, ID));
+    }
+
+    @Test
+    public void testIsFinishedInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> resultCacheService.isFinished(0, ID)
+        );
+        verify(participantRepository, never()).findByUserAndExperiment(any(), any());
+    }
+
+    @Test
+    public void testSaveAndFindResult() throws IOException {
+        Path file = createFile(content);
+        resultCacheService.saveResult(ID, ID, PARAMETERS, file, resultCacheService.getGeneration());
+        Optional<Path> result = resultCacheService.findResult(ID, ID, PARAMETERS);
+        assertAll(
+                () -> assertTrue(result.isPresent()),
+                () -> assertArrayEquals(content, Files.readAllBytes(result.get())),
+                () -> assertFalse(Files.exists(file)),
+                () -> assertFalse(resultCacheService.findResult(ID, ID, OTHER_PARAMETERS).isPresent()),
+                () -> assertFalse(resultCacheService.findResult(ID + 1, ID, PARAMETERS).isPresent())
+        );
+    }
+
+    @Test
+    public void testSaveResultReplace() throws IOException {
+        resultCacheService.saveResult(ID, ID, PARAMETERS, createFile(content), resultCacheService.getGeneration());
+        Path old = resultCacheService.findResult(ID, ID, PARAMETERS).get();
+        byte[] other = new byte[]{5, 6};
+        resultCacheService.saveResult(ID, ID, PARAMETERS, createFile(other), resultCacheService.getGeneration());
+        Path replaced = resultCacheService.findResult(ID, ID, PARAMETERS).get();
+        assertAll(
+                () -> assertNotEquals(old, replaced),
+                () -> assertFalse(Files.exists(old)),
+                () -> assertArrayEquals(other, Files.readAllBytes(replaced))
+        );
+    }
+
+    @Test
+    public void testSaveResultTooLarge() throws IOException {
+        Path file = createFile(new byte[(int) MAX_SIZE + 1]);
+        resultCacheService.saveResult(ID, ID, PARAMETERS, file, resultCacheService.getGeneration());
+        assertAll(
+                () -> assertFalse(resultCacheService.findResult(ID, ID, PARAMETERS).isPresent()),
+                () -> assertFalse(Files.exists(file))
+        );
+    }
+
+    @Test
+    public void testSaveResultInvalidatedInMeantime() throws IOException {
+        long generation = resultCacheService.getGeneration();
+        Path file = createFile(content);
+        resultCacheService.invalidateResults(ID, ID);
+        resultCacheService.saveResult(ID, ID, PARAMETERS, file, generation);
+        assertAll(
+                () -> assertFalse(resultCacheService.findResult(ID, ID, PARAMETERS).isPresent()),
+                () -> assertFalse(Files.exists(file))
+        );
+    }
+
+    @Test
+    public void testSaveResultEvictLeastRecentlyUsed() throws IOException {
+        resultCacheService.saveResult(ID, ID, PARAMETERS, createFile(content), resultCacheService.getGeneration());
+        resultCacheService.saveResult(ID, ID, OTHER_PARAMETERS, createFile(content),
+                resultCacheService.getGeneration());
+        Path evicted = resultCacheService.findResult(ID, ID, OTHER_PARAMETERS).get();
+        resultCacheService.findResult(ID, ID, PARAMETERS);
+        resultCacheService.saveResult(ID + 1, ID, PARAMETERS, createFile(content),
+                resultCacheService.getGeneration());
+        assertAll(
+                () -> assertTrue(resultCacheService.findResult(ID, ID, PARAMETERS).isPresent()),
+                () -> assertFalse(resultCacheService.findResult(ID, ID, OTHER_PARAMETERS).isPresent()),
+                () -> assertTrue(resultCacheService.findResult(ID + 1, ID, PARAMETERS).isPresent()),
+                () -> assertFalse(Files.exists(evicted))
+        );
+    }
+
+    @Test
+    public void testSaveResultInvalidParameters() throws IOException {
+        Path file = createFile(content);
+        assertAll(
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> resultCacheService.saveResult(ID, ID, "../sb3s", file, 0)
+                ),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> resultCacheService.saveResult(ID, ID, null, file, 0)
+                ),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> resultCacheService.saveResult(ID, -1, PARAMETERS, file, 0)
+                ),
+                () -> assertThrows(IllegalArgumentException.class,
+                        () -> resultCacheService.findResult(ID, ID, "../sb3s")
+                )
+        );
+    }
+
+    @Test
+    public void testInvalidateResults() throws IOException {
+        resultCacheService.saveResult(ID, ID, PARAMETERS, createFile(content), resultCacheService.getGeneration());
+        resultCacheService.saveResult(ID + 10, ID, PARAMETERS, createFile(content),
+                resultCacheService.getGeneration());
+        resultCacheService.invalidateResults(ID, ID);
+        assertAll(
+                () -> assertFalse(resultCacheService.findResult(ID, ID, PARAMETERS).isPresent()),
+                () -> assertTrue(resultCacheService.findResult(ID + 10, ID, PARAMETERS).isPresent())
+        );
+    }
+
+    @Test
+    public void testInvalidateResultsInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> resultCacheService.invalidateResults(ID, 0)
+        );
+    }
+
+    @Test
+    public void testInvalidateExperimentResults() throws IOException {
+        resultCacheService.saveResult(ID, ID, PARAMETERS, createFile(new byte[]{1}),
+                resultCacheService.getGeneration());
+        resultCacheService.saveResult(ID + 1, ID, PARAMETERS, createFile(new byte[]{1}),
+                resultCacheService.getGeneration());
+        resultCacheService.saveResult(ID, ID + 10, PARAMETERS, createFile(new byte[]{1}),
+                resultCacheService.getGeneration());
+        resultCacheService.invalidateExperimentResults(ID);
+        assertAll(
+                () -> assertFalse(resultCacheService.findResult(ID, ID, PARAMETERS).isPresent()),
+                () -> assertFalse(resultCacheService.findResult(ID + 1, ID, PARAMETERS).isPresent()),
+                () -> assertTrue(resultCacheService.findResult(ID, ID + 10, PARAMETERS).isPresent())
+        );
+    }
+
+    @Test
+    public void testInvalidateExperimentResultsInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> resultCacheService.invalidateExperimentResults(0)
+        );
+    }
+
+    @Test
+    public void testClearDirectoryOnStartup() throws IOException {
+        Path node = directory.resolve("node-" + NODE);
+        Path stale = node.resolve(ID + "_" + ID);
+        Path temp = node.resolve("tmp");
+        Path notes = node.resolve(ID + "_" + ID + "_notes");
+        Path other = directory.resolve("notes.txt");
+        Files.createDirectories(stale);
+        Files.createDirectories(temp);
+        Files.createDirectories(notes);
+        Files.write(stale.resolve(PARAMETERS + "_0.zip"), content);
+        Files.write(temp.resolve("result123.zip"), content);
+        Files.write(notes.resolve(PARAMETERS + "_0.zip"), content);
+        Files.write(other, content);
+        resultCacheService.close();
+        resultCacheService = createService(NODE);
+        assertAll(
+                () -> assertFalse(Files.exists(stale)),
+                () -> assertFalse(Files.exists(temp)),
+                () -> assertTrue(Files.exists(notes.resolve(PARAMETERS + "_0.zip"))),
+                () -> assertTrue(Files.exists(other)),
+                () -> assertFalse(resultCacheService.findResult(ID, ID, PARAMETERS).isPresent())
+        );
+    }
+
+    @Test
+    public void testClearDirectoryOnStartupKeepOtherFiles() throws IOException {
+        Path stale = directory.resolve("node-" + NODE).resolve(ID + "_" + ID);
+        Path notes = stale.resolve("notes.txt");
+        Files.createDirectories(stale);
+        Files.write(stale.resolve(PARAMETERS + "_0.zip"), content);
+        Files.write(notes, content);
+        resultCacheService.close();
+        resultCacheService = createService(NODE);
+        assertAll(
+                () -> assertFalse(Files.exists(stale.resolve(PARAMETERS + "_0.zip"))),
+                () -> assertTrue(Files.exists(notes))
+        );
+    }
+
+    @Test
+    public void testClearAbandonedDirectory() throws IOException {
+        ResultCacheService otherService = createService(OTHER_NODE);
+        otherService.saveResult(ID, ID, PARAMETERS, createFile(otherService, content),
+                otherService.getGeneration());
+        otherService.close();
+        resultCacheService.close();
+        resultCacheService = createService(NODE);
+        assertFalse(Files.exists(directory.resolve("node-" + OTHER_NODE)));
+    }
+
+    @Test
+    public void testKeepDirectoryInUse() throws IOException {
+        ResultCacheService otherService = createService(OTHER_NODE);
+
+        try {
+            otherService.saveResult(ID, ID, PARAMETERS, createFile(otherService, content),
+                    otherService.getGeneration());
+            resultCacheService.close();
+            resultCacheService = createService(NODE);
+            assertTrue(Files.exists(otherService.findResult(ID, ID, PARAMETERS).orElseThrow()));
+        } finally {
+            otherService.close();
+        }
+    }
+
+    @Test
+    public void testKeepDirectoryWithoutLock() throws IOException {
+        Path foreign = directory.resolve("node-foreign").resolve(ID + "_" + ID);
+        Files.createDirectories(foreign);
+        Files.write(foreign.resolve(PARAMETERS + "_0.zip"), content);
+        resultCacheService.close();
+        resultCacheService = createService(NODE);
+        assertTrue(Files.exists(foreign.resolve(PARAMETERS + "_0.zip")));
+    }
+
+    @Test
+    public void testCreateServiceSameNode() {
+        assertThrows(IllegalStateException.class,
+                () -> createService(NODE)
+        );
+    }
+
+    private ResultCacheService createService(final String node) {
+        when(jobService.getNode()).thenReturn(node);
+        return new ResultCacheService(userRepository, experimentRepository, participantRepository, jobService,
+                directory.toString(), MAX_SIZE);
+    }
+
+    private Path createFile(final ResultCacheService service, final byte[] fileContent) throws IOException {
+        Path file = service.createTempFile();
+        Files.write(file, fileContent);
+        return file;
+    }
+
+    private Path createFile(final byte[] fileContent) throws IOException {
+        return createFile(resultCacheService, fileContent);
+    }
+
+}
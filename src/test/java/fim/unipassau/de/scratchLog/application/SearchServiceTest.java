@@ -19,30 +19,38 @@
 package fim.unipassau.de.scratchLog.application;
 
 import fim.unipassau.de.scratchLog.application.service.SearchService;
+import fim.unipassau.de.scratchLog.application.service.SuggestionIndexService;
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseExperiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.projection.CourseResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.CourseTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentTableProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserResultProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.CourseExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.web.dto.SearchResultDTO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
@@ -56,9 +64,10 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 public class SearchServiceTest {
 
-    @InjectMocks
     private SearchService searchService;
 
+    private SearchService indexedSearchService;
+
     @Mock
     private UserRepository userRepository;
 
@@ -71,6 +80,9 @@ public class SearchServiceTest {
     @Mock
     private ExperimentRepository experimentRepository;
 
+    @Mock
+    private SuggestionIndexService suggestionIndexService;
+
     private static final String PARTICIPANT = "PARTICIPANT";
     private static final String USERNAME1 = "user1";
     private static final String USERNAME2 = "user2";
@@ -83,11 +95,14 @@ public class SearchServiceTest {
     private static final String TITLE3 = "Course 1";
     private static final String QUERY = "user";
     private static final String SUGGESTION_QUERY = "r";
+    private static final String PHRASE = "\"user\"";
+    private static final String WILDCARD_QUERY = "user_1";
     private static final String BLANK = "  ";
     private static final int ID = 1;
     private static final int LIMIT = Constants.PAGE_SIZE;
-    private static final int COUNT = 25;
-    private static final int PAGE = 1;
+    private static final int LAST = 10;
+    private static final int THREADS = 3;
+    private static final long TOTAL = 42;
     private final Experiment experiment1 = new Experiment(ID, "My Experiment", "Some description", "", "", true, false,
             "url");
     private final Experiment experiment2 = new Experiment(ID, "My Experiment", "Some description", "", "", true, true,
@@ -98,181 +113,72 @@ public class SearchServiceTest {
     private final List<ExperimentTableProjection> experiments = addExperimentSuggestions();
     private final List<CourseTableProjection> courses = addCourseSuggestions();
 
-    @Test
-    public void testGetUserList() {
-        when(userRepository.findUserResults(QUERY, LIMIT, 0)).thenReturn(users);
-        List<UserProjection> userProjections = searchService.getUserList(QUERY, LIMIT);
-        assertAll(
-                () -> assertEquals(3, userProjections.size()),
-                () -> assertTrue(userProjections.stream().anyMatch(user -> user.getId() == ID)),
-                () -> assertTrue(userProjections.stream().anyMatch(user -> user.getId() == ID + 1)),
-                () -> assertTrue(userProjections.stream().anyMatch(user -> user.getId() == ID + 2))
-        );
-        verify(userRepository).findUserResults(QUERY, LIMIT, 0);
+    @BeforeEach
+    public void setup() {
+        searchService = new SearchService(userRepository, experimentRepository, courseRepository,
+                courseExperimentRepository, suggestionIndexService, false, THREADS);
+        indexedSearchService = new SearchService(userRepository, experimentRepository, courseRepository,
+                courseExperimentRepository, suggestionIndexService, true, THREADS);
     }
 
-    @Test
-    public void testGetUserListLimitInvalid() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getUserList(QUERY, 9)
-        );
-        verify(userRepository, never()).findUserResults(anyString(), anyInt(), anyInt());
+    @AfterEach
+    public void shutdown() {
+        searchService.shutdown();
+        indexedSearchService.shutdown();
     }
 
     @Test
-    public void testGetUserListQueryBlank() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getUserList(BLANK, LIMIT)
-        );
-        verify(userRepository, never()).findUserResults(anyString(), anyInt(), anyInt());
-    }
-
-    @Test
-    public void testGetUserListQueryNull() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getUserList(null, LIMIT)
-        );
-        verify(userRepository, never()).findUserResults(anyString(), anyInt(), anyInt());
-    }
-
-    @Test
-    public void testGetExperimentList() {
-        when(experimentRepository.findExperimentResults(QUERY, LIMIT, 0)).thenReturn(experiments);
-        List<ExperimentTableProjection> experimentList = searchService.getExperimentList(QUERY, LIMIT);
+    public void testGetSearchResults() {
+        when(userRepository.findUserResultPage(QUERY, LIMIT)).thenReturn(List.of(getUserResult()));
+        when(experimentRepository.findExperimentResultPage(QUERY, LIMIT)).thenReturn(List.of(getExperimentResult()));
+        SearchResultDTO results = searchService.getSearchResults(QUERY);
         assertAll(
-                () -> assertEquals(2, experimentList.size()),
-                () -> assertTrue(experimentList.stream().anyMatch(experiment -> experiment.getId() == ID)),
-                () -> assertTrue(experimentList.stream().anyMatch(experiment -> experiment.getId() == ID + 1))
-        );
-        verify(experimentRepository).findExperimentResults(QUERY, LIMIT, 0);
-    }
-
-    @Test
-    public void testGetExperimentListLimitInvalid() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getExperimentList(QUERY, 0)
-        );
-        verify(experimentRepository, never()).findExperimentResults(anyString(), anyInt(), anyInt());
-    }
-
-    @Test
-    public void testGetExperimentListQueryBlank() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getExperimentList(BLANK, LIMIT)
+                () -> assertEquals(1, results.getUsers().size()),
+                () -> assertEquals(1, results.getExperiments().size()),
+                () -> assertTrue(results.getCourses().isEmpty()),
+                () -> assertEquals(TOTAL, results.getUserCount()),
+                () -> assertEquals(TOTAL, results.getExperimentCount()),
+                () -> assertEquals(0, results.getCourseCount())
         );
-        verify(experimentRepository, never()).findExperimentResults(anyString(), anyInt(), anyInt());
+        verify(courseRepository).findCourseResultPage(QUERY, LIMIT);
     }
 
     @Test
-    public void testGetExperimentListQueryNull() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getExperimentList(null, LIMIT)
-        );
-        verify(experimentRepository, never()).findExperimentResults(anyString(), anyInt(), anyInt());
-    }
-
-    @Test
-    public void testGetCourseList() {
-        when(courseRepository.findCourseResults(QUERY, LIMIT, 0)).thenReturn(courses);
-        List<CourseTableProjection> courseList = searchService.getCourseList(QUERY, LIMIT);
+    public void testGetSearchResultsIndexed() {
+        when(courseRepository.findCourseResultPageByIndex(PHRASE, QUERY, LIMIT)).thenReturn(List.of(getCourseResult()));
+        SearchResultDTO results = indexedSearchService.getSearchResults(QUERY);
         assertAll(
-                () -> assertEquals(1, courseList.size()),
-                () -> assertTrue(courseList.stream().anyMatch(course -> course.getId() == ID))
+                () -> assertEquals(1, results.getCourses().size()),
+                () -> assertEquals(TOTAL, results.getCourseCount()),
+                () -> assertEquals(0, results.getUserCount())
         );
-        verify(courseRepository).findCourseResults(QUERY, LIMIT, 0);
+        verify(userRepository).findUserResultPageByIndex(PHRASE, QUERY, LIMIT);
+        verify(experimentRepository).findExperimentResultPageByIndex(PHRASE, QUERY, LIMIT);
+        verify(courseRepository, never()).findCourseResultPage(anyString(), anyInt());
     }
 
     @Test
-    public void testGetCourseListLimitInvalid() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getCourseList(QUERY, 0)
-        );
-        verify(courseRepository, never()).findCourseResults(anyString(), anyInt(), anyInt());
+    public void testGetSearchResultsIndexedWildcard() {
+        when(userRepository.findUserResultPage(WILDCARD_QUERY, LIMIT)).thenReturn(List.of(getUserResult()));
+        SearchResultDTO results = indexedSearchService.getSearchResults(WILDCARD_QUERY);
+        assertEquals(1, results.getUsers().size());
+        verify(userRepository, never()).findUserResultPageByIndex(anyString(), anyString(), anyInt());
     }
 
     @Test
-    public void testGetCourseListQueryBlank() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getCourseList(BLANK, LIMIT)
+    public void testGetSearchResultsException() {
+        when(userRepository.findUserResultPage(QUERY, LIMIT)).thenThrow(IllegalStateException.class);
+        assertThrows(IllegalStateException.class,
+                () -> searchService.getSearchResults(QUERY)
         );
-        verify(courseRepository, never()).findCourseResults(anyString(), anyInt(), anyInt());
     }
 
     @Test
-    public void testGetCourseListQueryNull() {
+    public void testGetSearchResultsQueryBlank() {
         assertThrows(IllegalArgumentException.class,
-                () -> searchService.getCourseList(null, LIMIT)
+                () -> searchService.getSearchResults(BLANK)
         );
-        verify(courseRepository, never()).findCourseResults(anyString(), anyInt(), anyInt());
-    }
-
-    @Test
-    public void testGetUserCount() {
-        when(userRepository.getUserResultsCount(QUERY)).thenReturn(COUNT);
-        assertEquals(COUNT, searchService.getUserCount(QUERY));
-        verify(userRepository).getUserResultsCount(QUERY);
-    }
-
-    @Test
-    public void testGetUserCountQueryBlank() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getUserCount(BLANK)
-        );
-        verify(userRepository, never()).getUserResultsCount(anyString());
-    }
-
-    @Test
-    public void testGetUserCountQueryNull() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getUserCount(null)
-        );
-        verify(userRepository, never()).getUserResultsCount(anyString());
-    }
-
-    @Test
-    public void testGetExperimentCount() {
-        when(experimentRepository.getExperimentResultsCount(QUERY)).thenReturn(COUNT);
-        assertEquals(COUNT, searchService.getExperimentCount(QUERY));
-        verify(experimentRepository).getExperimentResultsCount(QUERY);
-    }
-
-    @Test
-    public void testGetExperimentCountQueryBlank() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getExperimentCount(BLANK)
-        );
-        verify(experimentRepository, never()).getExperimentResultsCount(anyString());
-    }
-
-    @Test
-    public void testGetExperimentCountQueryNull() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getExperimentCount(null)
-        );
-        verify(experimentRepository, never()).getExperimentResultsCount(anyString());
-    }
-
-    @Test
-    public void testGetCourseCount() {
-        when(courseRepository.getCourseResultsCount(QUERY)).thenReturn(COUNT);
-        assertEquals(COUNT, searchService.getCourseCount(QUERY));
-        verify(courseRepository).getCourseResultsCount(QUERY);
-    }
-
-    @Test
-    public void testGetCourseCountQueryBlank() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getCourseCount(BLANK)
-        );
-        verify(courseRepository, never()).getCourseResultsCount(anyString());
-    }
-
-    @Test
-    public void testGetCourseCountQueryNull() {
-        assertThrows(IllegalArgumentException.class,
-                () -> searchService.getCourseCount(null)
-        );
-        verify(courseRepository, never()).getCourseResultsCount(anyString());
+        verify(userRepository, never()).findUserResultPage(anyString(), anyInt());
     }
 
     @Test
@@ -514,8 +420,8 @@ public class SearchServiceTest {
 
     @Test
     public void testGetNextUsers() {
-        when(userRepository.findUserResults(QUERY, LIMIT, PAGE * LIMIT)).thenReturn(users);
-        List<String[]> userInfo = searchService.getNextUsers(QUERY, PAGE);
+        when(userRepository.findUserResultsAfter(QUERY, LAST, LIMIT)).thenReturn(users);
+        List<String[]> userInfo = searchService.getNextUsers(QUERY, LAST);
         String[] firstUser = userInfo.get(0);
         String[] secondUser = userInfo.get(1);
         String[] thirdUser = userInfo.get(2);
@@ -534,13 +440,13 @@ public class SearchServiceTest {
                 () -> assertEquals(EMAIL3, thirdUser[2]),
                 () -> assertEquals(PARTICIPANT, thirdUser[3])
         );
-        verify(userRepository).findUserResults(QUERY, LIMIT, PAGE * LIMIT);
+        verify(userRepository).findUserResultsAfter(QUERY, LAST, LIMIT);
     }
 
     @Test
     public void testGetNextExperiments() {
-        when(experimentRepository.findExperimentResults(QUERY, LIMIT, PAGE * LIMIT)).thenReturn(experiments);
-        List<String[]> experimentInfo = searchService.getNextExperiments(QUERY, PAGE);
+        when(experimentRepository.findExperimentResultsAfter(QUERY, LAST, LIMIT)).thenReturn(experiments);
+        List<String[]> experimentInfo = searchService.getNextExperiments(QUERY, LAST);
         String[] firstExperiment = experimentInfo.get(0);
         String[] secondExperiment = experimentInfo.get(1);
         assertAll(
@@ -552,20 +458,155 @@ public class SearchServiceTest {
                 () -> assertEquals(experiments.get(1).getTitle(), secondExperiment[1]),
                 () -> assertEquals(experiments.get(1).getDescription(), secondExperiment[2])
         );
-        verify(experimentRepository).findExperimentResults(QUERY, LIMIT, PAGE * LIMIT);
+        verify(experimentRepository).findExperimentResultsAfter(QUERY, LAST, LIMIT);
     }
 
     @Test
     public void testGetNextCourses() {
-        when(courseRepository.findCourseResults(QUERY, LIMIT, PAGE * LIMIT)).thenReturn(courses);
-        List<String[]> courseInfo = searchService.getNextCourses(QUERY, PAGE);
+        when(courseRepository.findCourseResultsAfter(QUERY, LAST, LIMIT)).thenReturn(courses);
+        List<String[]> courseInfo = searchService.getNextCourses(QUERY, LAST);
         assertAll(
                 () -> assertEquals(1, courseInfo.size()),
                 () -> assertEquals(courses.get(0).getId().toString(), courseInfo.get(0)[0]),
                 () -> assertEquals(courses.get(0).getTitle(), courseInfo.get(0)[1]),
                 () -> assertEquals(courses.get(0).getDescription(), courseInfo.get(0)[2])
         );
-        verify(courseRepository).findCourseResults(QUERY, LIMIT, PAGE * LIMIT);
+        verify(courseRepository).findCourseResultsAfter(QUERY, LAST, LIMIT);
+    }
+
+    @Test
+    public void testGetSearchSuggestionsIndexed() {
+        when(userRepository.findUserSuggestionsByIndex(PHRASE, QUERY, Constants.MAX_SEARCH_RESULTS)).thenReturn(users);
+        when(experimentRepository.findExperimentSuggestionsByIndex(PHRASE, QUERY,
+                Constants.MAX_SEARCH_RESULTS)).thenReturn(experiments);
+        when(courseRepository.findCourseSuggestionsByIndex(PHRASE, QUERY,
+                Constants.MAX_SEARCH_RESULTS)).thenReturn(courses);
+        assertEquals(6, indexedSearchService.getSearchSuggestions(QUERY).size());
+        verify(userRepository, never()).findUserSuggestions(anyString(), anyInt());
+    }
+
+    @Test
+    public void testGetSearchSuggestionsFromSuggestionIndex() {
+        when(suggestionIndexService.isReady()).thenReturn(true);
+        when(suggestionIndexService.findCourses(SUGGESTION_QUERY, Constants.MAX_SEARCH_RESULTS)).thenReturn(
+                Map.of(ID, new String[]{TITLE3}));
+        when(suggestionIndexService.findExperiments(SUGGESTION_QUERY, Constants.MAX_SEARCH_RESULTS)).thenReturn(
+                Map.of(ID, new String[]{TITLE1}));
+        when(suggestionIndexService.findUsers(SUGGESTION_QUERY, Constants.MAX_SEARCH_RESULTS)).thenReturn(
+                Map.of(ID, new String[]{USERNAME1, EMAIL1}));
+        List<String[]> suggestions = searchService.getSearchSuggestions(SUGGESTION_QUERY);
+        assertAll(
+                () -> assertEquals(3, suggestions.size()),
+                () -> assertArrayEquals(new String[]{"/course?id=" + ID, String.valueOf(ID), TITLE3},
+                        suggestions.get(0)),
+                () -> assertArrayEquals(new String[]{"/experiment?id=" + ID, String.valueOf(ID), TITLE1},
+                        suggestions.get(1)),
+                () -> assertArrayEquals(new String[]{"/users/profile?name=" + USERNAME1, USERNAME1, EMAIL1},
+                        suggestions.get(2))
+        );
+        verify(userRepository, never()).findUserSuggestions(anyString(), anyInt());
+        verify(courseRepository, never()).findCourseSuggestions(anyString(), anyInt());
+    }
+
+    @Test
+    public void testGetSearchSuggestionsIndexedQueryTooShort() {
+        when(userRepository.findUserSuggestions(SUGGESTION_QUERY, Constants.MAX_SEARCH_RESULTS)).thenReturn(users);
+        assertEquals(3, indexedSearchService.getSearchSuggestions(SUGGESTION_QUERY).size());
+        verify(userRepository, never()).findUserSuggestionsByIndex(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    public void testGetNextCoursesIndexed() {
+        when(courseRepository.findCourseResultsAfterByIndex(PHRASE, QUERY, LAST, LIMIT)).thenReturn(courses);
+        assertEquals(1, indexedSearchService.getNextCourses(QUERY, LAST).size());
+        verify(courseRepository, never()).findCourseResultsAfter(anyString(), anyInt(), anyInt());
+    }
+
+    private UserResultProjection getUserResult() {
+        return new UserResultProjection() {
+            @Override
+            public Long getTotal() {
+                return TOTAL;
+            }
+
+            @Override
+            public Integer getId() {
+                return ID;
+            }
+
+            @Override
+            public String getUsername() {
+                return USERNAME1;
+            }
+
+            @Override
+            public String getEmail() {
+                return EMAIL1;
+            }
+
+            @Override
+            public Role getRole() {
+                return Role.PARTICIPANT;
+            }
+        };
+    }
+
+    private ExperimentResultProjection getExperimentResult() {
+        return new ExperimentResultProjection() {
+            @Override
+            public Long getTotal() {
+                return TOTAL;
+            }
+
+            @Override
+            public Integer getId() {
+                return ID;
+            }
+
+            @Override
+            public String getTitle() {
+                return TITLE1;
+            }
+
+            @Override
+            public String getDescription() {
+                return "description";
+            }
+
+            @Override
+            public boolean isActive() {
+                return true;
+            }
+        };
+    }
+
+    private CourseResultProjection getCourseResult() {
+        return new CourseResultProjection() {
+            @Override
+            public Long getTotal() {
+                return TOTAL;
+            }
+
+            @Override
+            public Integer getId() {
+                return ID;
+            }
+
+            @Override
+            public String getTitle() {
+                return TITLE3;
+            }
+
+            @Override
+            public String getDescription() {
+                return "description";
+            }
+
+            @Override
+            public boolean isActive() {
+                return true;
+            }
+        };
     }
 
     private List<UserProjection> addUserSuggestions() {
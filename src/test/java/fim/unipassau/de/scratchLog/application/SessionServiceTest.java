@@ -0,0 +1,183 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.SessionService;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.projection.EventTimeProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.BlockEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ClickEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.DebuggerEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.QuestionEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ResourceEventRepository;
+import fim.unipassau.de.scratchLog.web.dto.SessionDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionServiceTest {
+
+    private SessionService sessionService;
+
+    @Mock
+    private BlockEventRepository blockEventRepository;
+
+    @Mock
+    private ClickEventRepository clickEventRepository;
+
+    @Mock
+    private DebuggerEventRepository debuggerEventRepository;
+
+    @Mock
+    private QuestionEventRepository questionEventRepository;
+
+    @Mock
+    private ResourceEventRepository resourceEventRepository;
+
+    @Mock
+    private ExperimentRepository experimentRepository;
+
+    private static final int ID = 1;
+    private static final long IDLE = 60;
+    private static final long TIMEOUT = 1800;
+    private final LocalDateTime start = LocalDateTime.of(2023, 5, 2, 10, 0);
+    private final Experiment experiment = new Experiment(ID, "title", "description", "info", "postscript", true,
+            false, "scratch");
+
+    @BeforeEach
+    public void setup() {
+        sessionService = new SessionService(blockEventRepository, clickEventRepository, debuggerEventRepository,
+                questionEventRepository, resourceEventRepository, experimentRepository, IDLE, TIMEOUT);
+    }
+
+    @Test
+    public void testGetSession() {
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findTimesAfter(eq(experiment), eq(ID), eq(0), any(), eq(0), any())).thenReturn(
+                List.of(getEvent(1, ID, start), getEvent(2, ID, start.plusSeconds(30)),
+                        getEvent(3, ID, start.plusMinutes(40))));
+        when(clickEventRepository.findTimesAfter(eq(experiment), eq(ID), eq(0), any(), eq(0), any())).thenReturn(
+                List.of(getEvent(1, ID, start.plusSeconds(10))));
+        when(resourceEventRepository.findTimesAfter(eq(experiment), eq(ID), eq(0), any(), eq(0), any())).thenReturn(
+                List.of(getEvent(1, ID, start.plusMinutes(5))));
+        SessionDTO session = sessionService.getSession(ID, ID);
+        assertAll(
+                () -> assertEquals(ID, session.getUser()),
+                () -> assertEquals(5, session.getEvents()),
+                () -> assertEquals(2, session.getSessions()),
+                () -> assertEquals(30, session.getActive()),
+                () -> assertEquals(270, session.getIdle()),
+                () -> assertEquals(1, session.getIdleGaps()),
+                () -> assertEquals(270, session.getLongestIdle()),
+                () -> assertEquals(start, session.getFirst()),
+                () -> assertEquals(start.plusMinutes(40), session.getLast())
+        );
+        verify(debuggerEventRepository).findTimesAfter(eq(experiment), eq(ID), eq(0), any(), eq(0), any());
+        verify(questionEventRepository).findTimesAfter(eq(experiment), eq(ID), eq(0), any(), eq(0), any());
+    }
+
+    @Test
+    public void testGetSessionNoEvents() {
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        SessionDTO session = sessionService.getSession(ID, ID);
+        assertAll(
+                () -> assertEquals(ID, session.getUser()),
+                () -> assertEquals(0, session.getSessions()),
+                () -> assertEquals(0, session.getEvents()),
+                () -> assertNull(session.getFirst())
+        );
+    }
+
+    @Test
+    public void testGetSessionInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> sessionService.getSession(ID, 0)
+        );
+        verify(blockEventRepository, never()).findTimesAfter(any(), anyInt(), anyInt(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testGetSessionData() {
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findTimesAfter(eq(experiment), eq(Integer.MAX_VALUE), eq(0), any(), eq(0), any()))
+                .thenReturn(List.of(getEvent(1, ID, start), getEvent(2, ID + 1, start)));
+        when(clickEventRepository.findTimesAfter(eq(experiment), eq(Integer.MAX_VALUE), eq(0), any(), eq(0), any()))
+                .thenReturn(List.of(getEvent(1, ID, start.plusSeconds(20))));
+        List<String[]> rows = new ArrayList<>();
+        assertEquals(2, sessionService.getSessionData(ID, rows::add));
+        assertAll(
+                () -> assertEquals(3, rows.size()),
+                () -> assertEquals("user", rows.get(0)[0]),
+                () -> assertArrayEquals(new String[]{"1", "2", "1", "20", "0", "0", "0", start.toString(),
+                    start.plusSeconds(20).toString()}, rows.get(1)),
+                () -> assertEquals("2", rows.get(2)[0]),
+                () -> assertEquals("1", rows.get(2)[1])
+        );
+    }
+
+    @Test
+    public void testGetSessionDataInvalidId() {
+        List<String[]> rows = new ArrayList<>();
+        assertThrows(IllegalArgumentException.class,
+                () -> sessionService.getSessionData(-1, rows::add)
+        );
+        assertEquals(0, rows.size());
+    }
+
+    private EventTimeProjection getEvent(final int id, final int user, final LocalDateTime date) {
+        return new EventTimeProjection() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public Integer getUserId() {
+                return user;
+            }
+
+            @Override
+            public LocalDateTime getDate() {
+                return date;
+            }
+        };
+    }
+
+}
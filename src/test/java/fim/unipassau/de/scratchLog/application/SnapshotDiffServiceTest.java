@@ -0,0 +1,199 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.service.SnapshotDiffService;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.projection.BlockEventJSONProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.BlockEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.enums.BlockDiffType;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.web.dto.BlockDiffDTO;
+import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SnapshotDiffServiceTest {
+
+    @InjectMocks
+    private SnapshotDiffService snapshotDiffService;
+
+    @Mock
+    private BlockEventRepository blockEventRepository;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExperimentRepository experimentRepository;
+
+    private static final int ID = 1;
+    private static final String FIRST = "{\"targets\":[{\"name\":\"Stage\",\"blocks\":{}},{\"name\":\"Sprite1\","
+            + "\"blocks\":{\"a\":{\"opcode\":\"event_whenflagclicked\",\"next\":\"b\",\"parent\":null,\"x\":0,"
+            + "\"y\":0},\"b\":{\"opcode\":\"motion_movesteps\",\"next\":null,\"parent\":\"a\"}}}]}";
+    private static final String SECOND = "{\"targets\":[{\"name\":\"Stage\",\"blocks\":{}},{\"name\":\"Sprite1\","
+            + "\"blocks\":{\"a\":{\"opcode\":\"event_whenflagclicked\",\"next\":null,\"parent\":null,\"x\":10,"
+            + "\"y\":0},\"b\":{\"opcode\":\"motion_movesteps\",\"next\":null,\"parent\":null,\"x\":50,\"y\":50},"
+            + "\"c\":[12,\"my variable\",\"var\",100,100]}}]}";
+    private static final String THIRD = "{\"targets\":[{\"name\":\"Stage\",\"blocks\":{}},{\"name\":\"Sprite1\","
+            + "\"blocks\":{\"a\":{\"opcode\":\"event_whenflagclicked\",\"next\":null,\"parent\":null,\"x\":10,"
+            + "\"y\":0},\"b\":{\"opcode\":\"motion_movesteps\",\"next\":null,\"parent\":null,\"x\":50,\"y\":50}}}]}";
+    private static final String MALFORMED = "{\"targets\":[{\"name\":\"Sprite1\",\"blocks\":{\"a\":{\"opcode\":"
+            + "\"event_whenflagclicked\",\"parent\":null,\"x\":0,\"y\":0},\"b\":\"unexpected\",\"c\":5,\"d\":null}}]}";
+    private final User user = new User("participant", "email", Role.PARTICIPANT, Language.GERMAN, "password", "secret");
+    private final Experiment experiment = new Experiment(ID, "title", "description", "info", "postscript", true,
+            false, "scratch");
+
+    @Test
+    public void testDiffSnapshots() {
+        List<BlockEventJSONProjection> projections = List.of(getProjection(1, FIRST), getProjection(2, "invalid"),
+                getProjection(3, SECOND), getProjection(4, THIRD));
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findAllByUserAndExperimentAndCodeIsNotNull(eq(user), eq(experiment),
+                any())).thenReturn(projections);
+        List<BlockDiffDTO> diffs = new ArrayList<>();
+        int count = snapshotDiffService.diffSnapshots(ID, ID, diffs::add);
+        assertAll(
+                () -> assertEquals(3, count),
+                () -> assertEquals(6, diffs.size()),
+                () -> assertTrue(diffs.stream().limit(2).allMatch(diff -> diff.getType() == BlockDiffType.ADDED
+                        && diff.getEventId() == 1 && diff.getSprite().equals("Sprite1"))),
+                () -> assertTrue(diffs.stream().anyMatch(diff -> diff.getType() == BlockDiffType.MOVED
+                        && diff.getEventId() == 3 && diff.getBlock().equals("a"))),
+                () -> assertTrue(diffs.stream().anyMatch(diff -> diff.getType() == BlockDiffType.MOVED
+                        && diff.getEventId() == 3 && diff.getOpcode().equals("motion_movesteps"))),
+                () -> assertTrue(diffs.stream().anyMatch(diff -> diff.getType() == BlockDiffType.ADDED
+                        && diff.getEventId() == 3 && diff.getBlock().equals("c"))),
+                () -> assertEquals(BlockDiffType.REMOVED, diffs.get(5).getType()),
+                () -> assertEquals("c", diffs.get(5).getBlock()),
+                () -> assertEquals(4, diffs.get(5).getEventId())
+        );
+        verify(blockEventRepository, never()).findJsonAfter(any(), any(), any(), anyInt(), any());
+    }
+
+    @Test
+    public void testDiffSnapshotsNextBatch() {
+        List<BlockEventJSONProjection> projections = new ArrayList<>();
+
+        for (int i = 0; i < Constants.SNAPSHOT_DIFF_BATCH_SIZE; i++) {
+            projections.add(getProjection(i, FIRST));
+        }
+
+        BlockEventJSONProjection last = projections.get(projections.size() - 1);
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findAllByUserAndExperimentAndCodeIsNotNull(eq(user), eq(experiment),
+                any())).thenReturn(projections);
+        when(blockEventRepository.findJsonAfter(eq(user), eq(experiment), eq(last.getDate()), eq(last.getId()),
+                any())).thenReturn(List.of(getProjection(Constants.SNAPSHOT_DIFF_BATCH_SIZE, THIRD)));
+        List<BlockDiffDTO> diffs = new ArrayList<>();
+        assertEquals(Constants.SNAPSHOT_DIFF_BATCH_SIZE + 1, snapshotDiffService.diffSnapshots(ID, ID, diffs::add));
+        assertAll(
+                () -> assertEquals(4, diffs.size()),
+                () -> assertEquals(Constants.SNAPSHOT_DIFF_BATCH_SIZE, diffs.get(3).getEventId())
+        );
+    }
+
+    @Test
+    public void testDiffSnapshotsMalformedBlocks() {
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findAllByUserAndExperimentAndCodeIsNotNull(eq(user), eq(experiment),
+                any())).thenReturn(List.of(getProjection(1, MALFORMED)));
+        List<BlockDiffDTO> diffs = new ArrayList<>();
+        assertEquals(1, snapshotDiffService.diffSnapshots(ID, ID, diffs::add));
+        assertAll(
+                () -> assertEquals(1, diffs.size()),
+                () -> assertEquals("a", diffs.get(0).getBlock()),
+                () -> assertEquals(BlockDiffType.ADDED, diffs.get(0).getType())
+        );
+    }
+
+    @Test
+    public void testDiffSnapshotsEntityNotFound() {
+        when(userRepository.getReferenceById(ID)).thenReturn(user);
+        when(experimentRepository.getReferenceById(ID)).thenReturn(experiment);
+        when(blockEventRepository.findAllByUserAndExperimentAndCodeIsNotNull(eq(user), eq(experiment),
+                any())).thenThrow(EntityNotFoundException.class);
+        assertThrows(NotFoundException.class,
+                () -> snapshotDiffService.diffSnapshots(ID, ID, diff -> { })
+        );
+    }
+
+    @Test
+    public void testDiffSnapshotsInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshotDiffService.diffSnapshots(ID, 0, diff -> { })
+        );
+        verify(blockEventRepository, never()).findAllByUserAndExperimentAndCodeIsNotNull(any(), any(), any());
+    }
+
+    private BlockEventJSONProjection getProjection(int id, String code) {
+        LocalDateTime date = LocalDateTime.of(2023, 5, 2, 10, 0).plusSeconds(id);
+        return new BlockEventJSONProjection() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getCode() {
+                return code;
+            }
+
+            @Override
+            public LocalDateTime getDate() {
+                return date;
+            }
+
+            @Override
+            public String getEvent() {
+                return "MOVE";
+            }
+        };
+    }
+
+}
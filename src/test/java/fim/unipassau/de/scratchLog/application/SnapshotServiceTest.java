@@ -0,0 +1,238 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.SnapshotService;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.LastSnapshot;
+import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.LastSnapshotRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SnapshotServiceTest {
+
+    private SnapshotService snapshotService;
+
+    @Mock
+    private LastSnapshotRepository lastSnapshotRepository;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private static final int ID = 1;
+    private static final int MAX_SIZE = 1;
+    private static final String JSON = "json";
+    private static final String OLD_JSON = "old";
+    private static final LocalDateTime DATE = LocalDateTime.now();
+    private final User user = new User("participant", "email", Role.PARTICIPANT, Language.GERMAN, "password", "secret");
+    private final User other = new User("other", "other", Role.PARTICIPANT, Language.GERMAN, "password", "secret");
+    private final Experiment experiment = new Experiment(ID, "title", "description", "info", "postscript", true,
+            false, "scratch");
+    private final ParticipantId participantId = new ParticipantId(ID, ID);
+    private final LastSnapshot lastSnapshot = new LastSnapshot(ID, ID, DATE, JSON);
+
+    @BeforeEach
+    public void setup() {
+        user.setId(ID);
+        other.setId(ID + 1);
+        lastSnapshot.setDate(DATE);
+        lastSnapshot.setCode(JSON);
+        snapshotService = new SnapshotService(lastSnapshotRepository, transactionManager, MAX_SIZE);
+    }
+
+    @AfterEach
+    public void cleanup() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    public void testSaveSnapshot() {
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        assertEquals(JSON, snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).saveIfNewer(ID, ID, DATE, JSON);
+        verify(lastSnapshotRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testSaveSnapshotAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        verify(lastSnapshotRepository, never()).saveIfNewer(anyInt(), anyInt(), any(), any());
+        TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        TransactionSynchronizationManager.clearSynchronization();
+        verify(lastSnapshotRepository).saveIfNewer(ID, ID, DATE, JSON);
+    }
+
+    @Test
+    public void testSaveSnapshotRolledBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        TransactionSynchronizationManager.clearSynchronization();
+        assertNull(snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository, never()).saveIfNewer(anyInt(), anyInt(), any(), any());
+        verify(lastSnapshotRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testSaveSnapshotOutdatedCached() {
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        snapshotService.saveSnapshot(user, experiment, DATE.minusMinutes(1), OLD_JSON);
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        assertEquals(JSON, snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).saveIfNewer(ID, ID, DATE.minusMinutes(1), OLD_JSON);
+        verify(lastSnapshotRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testSaveSnapshotEvictLeastRecentlyUsed() {
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        snapshotService.saveSnapshot(other, experiment, DATE, OLD_JSON);
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        when(lastSnapshotRepository.findById(participantId)).thenReturn(Optional.of(lastSnapshot));
+        assertEquals(JSON, snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).saveIfNewer(ID, ID, DATE, JSON);
+        verify(lastSnapshotRepository).saveIfNewer(ID + 1, ID, DATE, OLD_JSON);
+        verify(lastSnapshotRepository).findById(participantId);
+    }
+
+    @Test
+    public void testSaveSnapshotParticipantDeleted() {
+        doThrow(DataIntegrityViolationException.class).when(lastSnapshotRepository).saveIfNewer(ID, ID, DATE, JSON);
+        assertDoesNotThrow(() -> snapshotService.saveSnapshot(user, experiment, DATE, JSON));
+        assertNull(snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).saveIfNewer(ID, ID, DATE, JSON);
+    }
+
+    @Test
+    public void testSaveSnapshotCodeNull() {
+        snapshotService.saveSnapshot(user, experiment, DATE, null);
+        assertNull(snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository, never()).saveIfNewer(anyInt(), anyInt(), any(), any());
+    }
+
+    @Test
+    public void testFindSnapshot() {
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        when(lastSnapshotRepository.findById(participantId)).thenReturn(Optional.of(lastSnapshot));
+        assertAll(
+                () -> assertEquals(JSON, snapshotService.findSnapshot(ID, ID)),
+                () -> assertEquals(JSON, snapshotService.findSnapshot(ID, ID))
+        );
+        verify(lastSnapshotRepository, times(2)).findDateByUserAndExperiment(ID, ID);
+        verify(lastSnapshotRepository).findById(participantId);
+    }
+
+    @Test
+    public void testFindSnapshotNewerInDatabase() {
+        snapshotService.saveSnapshot(user, experiment, DATE.minusMinutes(1), OLD_JSON);
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        when(lastSnapshotRepository.findById(participantId)).thenReturn(Optional.of(lastSnapshot));
+        assertEquals(JSON, snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).findById(participantId);
+    }
+
+    @Test
+    public void testFindSnapshotEmpty() {
+        assertNull(snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).findDateByUserAndExperiment(ID, ID);
+        verify(lastSnapshotRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testFindSnapshotDeletedInBetween() {
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        assertNull(snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).findById(participantId);
+    }
+
+    @Test
+    public void testFindSnapshotInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshotService.findSnapshot(0, ID)
+        );
+        verify(lastSnapshotRepository, never()).findDateByUserAndExperiment(anyInt(), anyInt());
+        verify(lastSnapshotRepository, never()).findById(any());
+    }
+
+    @Test
+    public void testEvictSnapshot() {
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        snapshotService.evictSnapshot(ID, ID);
+        when(lastSnapshotRepository.findDateByUserAndExperiment(ID, ID)).thenReturn(Optional.of(DATE));
+        when(lastSnapshotRepository.findById(participantId)).thenReturn(Optional.of(lastSnapshot));
+        assertEquals(JSON, snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).saveIfNewer(ID, ID, DATE, JSON);
+        verify(lastSnapshotRepository).findById(participantId);
+    }
+
+    @Test
+    public void testEvictSnapshotInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshotService.evictSnapshot(ID, -1)
+        );
+    }
+
+    @Test
+    public void testDiscardSnapshot() {
+        snapshotService.saveSnapshot(user, experiment, DATE, JSON);
+        snapshotService.discardSnapshot(ID, ID);
+        assertNull(snapshotService.findSnapshot(ID, ID));
+        verify(lastSnapshotRepository).findDateByUserAndExperiment(ID, ID);
+    }
+
+    @Test
+    public void testDiscardSnapshotInvalidId() {
+        assertThrows(IllegalArgumentException.class,
+                () -> snapshotService.discardSnapshot(0, ID)
+        );
+    }
+
+}
@@ -0,0 +1,287 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.application;
+
+import fim.unipassau.de.scratchLog.application.service.SuggestionIndexService;
+import fim.unipassau.de.scratchLog.persistence.entity.Course;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeEvent;
+import fim.unipassau.de.scratchLog.persistence.projection.TitleProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SuggestionIndexServiceTest {
+
+    @InjectMocks
+    private SuggestionIndexService suggestionIndexService;
+
+    @Mock
+    private UserRepository userRepository;
+
+    @Mock
+    private ExperimentRepository experimentRepository;
+
+    @Mock
+    private CourseRepository courseRepository;
+
+    private static final int ID = 1;
+    private static final int LIMIT = 3;
+    private static final int PAGE_SIZE = 1000;
+    private final User user1 = new User("participant1", "part1@test.de", Role.PARTICIPANT, Language.GERMAN, "password",
+            "secret1");
+    private final User user2 = new User("admin", "admin@test.de", Role.ADMIN, Language.ENGLISH, "password", "secret2");
+    private final Experiment experiment = new Experiment(ID, "My Experiment", "description", "info", "postscript",
+            true, false, "scratch");
+    private final Course course = new Course(ID, "Programming Course", "description", "content", true,
+            LocalDateTime.now());
+
+    @BeforeEach
+    public void setup() {
+        user1.setId(ID);
+        user2.setId(ID + 1);
+    }
+
+    @Test
+    public void testBuildIndex() {
+        buildIndex();
+        Map<Integer, String[]> users = suggestionIndexService.findUsers("TEST.DE", LIMIT);
+        assertAll(
+                () -> assertTrue(suggestionIndexService.isReady()),
+                () -> assertEquals(List.of(ID, ID + 1), List.copyOf(users.keySet())),
+                () -> assertArrayEquals(new String[]{"participant1", "part1@test.de"}, users.get(ID)),
+                () -> assertEquals(1, suggestionIndexService.findExperiments("experiment", LIMIT).size()),
+                () -> assertEquals(1, suggestionIndexService.findCourses("ming cou", LIMIT).size()),
+                () -> assertTrue(suggestionIndexService.findCourses("experiment", LIMIT).isEmpty())
+        );
+    }
+
+    @Test
+    public void testBuildIndexChangedDuringBuild() {
+        User removed = new User("removed", "removed@test.de", Role.PARTICIPANT, Language.GERMAN, "password",
+                "secret3");
+        removed.setId(ID + 2);
+        when(userRepository.findUsersAfter(0, PAGE_SIZE)).thenAnswer(invocation -> {
+            suggestionIndexService.onEntityChange(new EntityChangeEvent(removed, true));
+            user2.setUsername("teacher");
+            suggestionIndexService.onEntityChange(new EntityChangeEvent(user2, false));
+            return List.of(getUser(user1), getUser(ID + 1, "admin", "admin@test.de"), getUser(removed));
+        });
+        when(experimentRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of(getTitle(ID,
+                experiment.getTitle())));
+        when(courseRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of(getTitle(ID, course.getTitle())));
+        suggestionIndexService.buildIndex();
+        assertAll(
+                () -> assertTrue(suggestionIndexService.findUsers("removed", LIMIT).isEmpty()),
+                () -> assertTrue(suggestionIndexService.findUsers("admin", LIMIT).isEmpty()),
+                () -> assertTrue(suggestionIndexService.findUsers("teacher", LIMIT).containsKey(ID + 1))
+        );
+    }
+
+    @Test
+    public void testBuildIndexRefresh() {
+        buildIndex();
+        Experiment other = new Experiment(ID + 1, "Other Experiment", "description", "info", "postscript", true,
+                false, "scratch");
+        when(userRepository.findUsersAfter(0, PAGE_SIZE)).thenReturn(List.of(getUser(user2)));
+        when(experimentRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of(getTitle(ID,
+                experiment.getTitle()), getTitle(ID + 1, other.getTitle())));
+        when(courseRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of());
+        suggestionIndexService.buildIndex();
+        assertAll(
+                () -> assertEquals(List.of(ID + 1), List.copyOf(suggestionIndexService.findUsers("test",
+                        LIMIT).keySet())),
+                () -> assertEquals(2, suggestionIndexService.findExperiments("experiment", LIMIT).size()),
+                () -> assertTrue(suggestionIndexService.findCourses("course", LIMIT).isEmpty())
+        );
+    }
+
+    @Test
+    public void testBuildIndexPages() {
+        List<UserProjection> page = new ArrayList<>();
+
+        for (int i = 1; i <= PAGE_SIZE; i++) {
+            page.add(getUser(i, "user" + i, "user" + i + "@test.de"));
+        }
+
+        when(userRepository.findUsersAfter(0, PAGE_SIZE)).thenReturn(page);
+        when(userRepository.findUsersAfter(PAGE_SIZE, PAGE_SIZE)).thenReturn(List.of(getUser(PAGE_SIZE + 1, "last",
+                "last@test.de")));
+        when(experimentRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of());
+        when(courseRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of());
+        suggestionIndexService.buildIndex();
+        assertAll(
+                () -> assertEquals(List.of(PAGE_SIZE + 1), List.copyOf(suggestionIndexService.findUsers("last",
+                        LIMIT).keySet())),
+                () -> assertEquals(List.of(1), List.copyOf(suggestionIndexService.findUsers("user1@",
+                        LIMIT).keySet())),
+                () -> verify(userRepository).findUsersAfter(PAGE_SIZE, PAGE_SIZE)
+        );
+    }
+
+    @Test
+    public void testIsReadyNotBuilt() {
+        assertFalse(suggestionIndexService.isReady());
+    }
+
+    @Test
+    public void testFindUsersLimit() {
+        buildIndex();
+        Map<Integer, String[]> users = suggestionIndexService.findUsers("@", 1);
+        assertAll(
+                () -> assertEquals(1, users.size()),
+                () -> assertTrue(users.containsKey(ID))
+        );
+    }
+
+    @Test
+    public void testFindLongQuery() {
+        buildIndex();
+        assertAll(
+                () -> assertTrue(suggestionIndexService.findUsers("participant1@", LIMIT).isEmpty()),
+                () -> assertEquals(1, suggestionIndexService.findUsers("ARTICIPANT1", LIMIT).size()),
+                () -> assertEquals(1, suggestionIndexService.findExperiments("my experiment", LIMIT).size()),
+                () -> assertTrue(suggestionIndexService.findExperiments("my experimental", LIMIT).isEmpty())
+        );
+    }
+
+    @Test
+    public void testFindInvalidQuery() {
+        buildIndex();
+        assertAll(
+                () -> assertTrue(suggestionIndexService.findUsers(null, LIMIT).isEmpty()),
+                () -> assertTrue(suggestionIndexService.findUsers("", LIMIT).isEmpty()),
+                () -> assertTrue(suggestionIndexService.findUsers("admin", 0).isEmpty())
+        );
+    }
+
+    @Test
+    public void testOnEntityChangeUpdate() {
+        buildIndex();
+        user2.setUsername("teacher");
+        suggestionIndexService.onEntityChange(new EntityChangeEvent(user2, false));
+        assertAll(
+                () -> assertTrue(suggestionIndexService.findUsers("admin", LIMIT).containsKey(ID + 1)),
+                () -> assertTrue(suggestionIndexService.findUsers("teach", LIMIT).containsKey(ID + 1)),
+                () -> assertEquals(1, suggestionIndexService.findUsers("admin", LIMIT).size())
+        );
+    }
+
+    @Test
+    public void testOnEntityChangeRemove() {
+        buildIndex();
+        suggestionIndexService.onEntityChange(new EntityChangeEvent(experiment, true));
+        suggestionIndexService.onEntityChange(new EntityChangeEvent(user1, true));
+        assertAll(
+                () -> assertTrue(suggestionIndexService.findExperiments("experiment", LIMIT).isEmpty()),
+                () -> assertEquals(List.of(ID + 1), List.copyOf(suggestionIndexService.findUsers("test",
+                        LIMIT).keySet()))
+        );
+    }
+
+    @Test
+    public void testOnEntityChangeAdd() {
+        Course other = new Course(ID + 1, "Other Course", "description", "content", true, LocalDateTime.now());
+        suggestionIndexService.onEntityChange(new EntityChangeEvent(other, false));
+        suggestionIndexService.onEntityChange(new EntityChangeEvent(course, false));
+        assertEquals(List.of(ID, ID + 1), List.copyOf(suggestionIndexService.findCourses("course", LIMIT).keySet()));
+    }
+
+    @Test
+    public void testOnEntityChangeOtherEntity() {
+        suggestionIndexService.onEntityChange(new EntityChangeEvent("course", false));
+        assertTrue(suggestionIndexService.findCourses("course", LIMIT).isEmpty());
+    }
+
+    private void buildIndex() {
+        when(userRepository.findUsersAfter(0, PAGE_SIZE)).thenReturn(List.of(getUser(user1), getUser(user2)));
+        when(experimentRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of(getTitle(ID,
+                experiment.getTitle())));
+        when(courseRepository.findTitlesAfter(0, PAGE_SIZE)).thenReturn(List.of(getTitle(ID, course.getTitle())));
+        suggestionIndexService.buildIndex();
+    }
+
+    private UserProjection getUser(final User user) {
+        return getUser(user.getId(), user.getUsername(), user.getEmail());
+    }
+
+    private UserProjection getUser(final int id, final String username, final String email) {
+        return new UserProjection() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getUsername() {
+                return username;
+            }
+
+            @Override
+            public String getEmail() {
+                return email;
+            }
+
+            @Override
+            public Role getRole() {
+                return Role.PARTICIPANT;
+            }
+        };
+    }
+
+    private TitleProjection getTitle(final int id, final String title) {
+        return new TitleProjection() {
+            @Override
+            public Integer getId() {
+                return id;
+            }
+
+            @Override
+            public String getTitle() {
+                return title;
+            }
+        };
+    }
+
+}
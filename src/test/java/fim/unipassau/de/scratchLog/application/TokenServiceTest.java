@@ -20,34 +20,43 @@ package fim.unipassau.de.scratchLog.application;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.application.service.JobService;
 import fim.unipassau.de.scratchLog.application.service.TokenService;
 import fim.unipassau.de.scratchLog.persistence.entity.Token;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeEvent;
 import fim.unipassau.de.scratchLog.persistence.repository.TokenRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import fim.unipassau.de.scratchLog.web.dto.JobRunDTO;
+import fim.unipassau.de.scratchLog.web.dto.TokenCleanupStatusDTO;
 import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
 import jakarta.persistence.EntityNotFoundException;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.PageRequest;
 
 import java.time.LocalDateTime;
-import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
-import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -65,16 +74,20 @@ public class TokenServiceTest {
     @Mock
     private TokenRepository tokenRepository;
 
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    @Mock
+    private JobService jobService;
+
     private static final String VALUE = "value";
     private static final String EMAIL = "admin@admin.com";
     private static final String BLANK = "   ";
+    private static final String NODE = "node1";
     private static final int ID = 1;
+    private static final List<Integer> USER_IDS = List.of(ID, ID + 2);
     private final User user = new User();
-    private final LocalDateTime date = LocalDateTime.now();
     private final Token token = new Token(TokenType.CHANGE_EMAIL, LocalDateTime.now(), EMAIL, user);
-    private final Token registerToken1 = new Token(TokenType.REGISTER, date, null, user);
-    private final Token registerToken2 = new Token(TokenType.REGISTER, date, null, user);
-    private final List<Token> registerTokens = new ArrayList<>();
 
     @BeforeEach
     public void setup() {
@@ -83,9 +96,6 @@ public class TokenServiceTest {
         user.setActive(false);
         token.setValue(VALUE);
         token.setType(TokenType.CHANGE_EMAIL);
-        registerToken1.setUser(user);
-        registerTokens.add(registerToken1);
-        registerTokens.add(registerToken2);
     }
 
     @Test
@@ -252,8 +262,20 @@ public class TokenServiceTest {
 
     @Test
     public void testDeleteExpiredTokens() {
-        tokenService.deleteExpiredTokens(LocalDateTime.now());
-        verify(tokenRepository).deleteAllByDateBefore(any());
+        LocalDateTime dateTime = LocalDateTime.now();
+        List<String> values = List.of(VALUE, EMAIL);
+        when(tokenRepository.findValuesByDateBefore(eq(dateTime), any())).thenReturn(values);
+        when(tokenRepository.deleteByValues(values)).thenReturn(values.size());
+        assertEquals(values.size(), tokenService.deleteExpiredTokens(dateTime));
+        verify(tokenRepository).deleteByValues(values);
+        verify(tokenRepository).findValuesByDateBefore(dateTime, PageRequest.of(0,
+                Constants.TOKEN_CLEANUP_CHUNK_SIZE));
+    }
+
+    @Test
+    public void testDeleteExpiredTokensNone() {
+        assertEquals(0, tokenService.deleteExpiredTokens(LocalDateTime.now()));
+        verify(tokenRepository, never()).deleteByValues(any());
     }
 
     @Test
@@ -261,30 +283,32 @@ public class TokenServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> tokenService.deleteExpiredTokens(null)
         );
-        verify(tokenRepository, never()).deleteAllByDateBefore(any());
+        verify(tokenRepository, never()).deleteByValues(any());
     }
 
     @Test
     public void testDeleteExpiredAccounts() {
         LocalDateTime dateTime = LocalDateTime.now();
-        when(tokenRepository.findAllByDateBeforeAndType(dateTime, TokenType.REGISTER)).thenReturn(registerTokens);
-        assertDoesNotThrow(
-                () -> tokenService.deleteExpiredAccounts(dateTime)
+        when(tokenRepository.findUserIdsByDateBeforeAndType(eq(dateTime), eq(TokenType.REGISTER), any()))
+                .thenReturn(USER_IDS);
+        when(userRepository.deleteUsers(USER_IDS)).thenReturn(USER_IDS.size());
+        assertEquals(USER_IDS.size(), tokenService.deleteExpiredAccounts(dateTime));
+        verify(userRepository).deleteUsers(USER_IDS);
+        verify(userRepository, never()).deleteById(anyInt());
+        ArgumentCaptor<EntityChangeEvent> captor = ArgumentCaptor.forClass(EntityChangeEvent.class);
+        verify(publisher, times(USER_IDS.size())).publishEvent(captor.capture());
+        assertAll(
+                () -> assertTrue(captor.getAllValues().stream().allMatch(EntityChangeEvent::isRemoved)),
+                () -> assertEquals(USER_IDS, captor.getAllValues().stream().map(event
+                        -> ((User) event.getEntity()).getId()).toList())
         );
-        verify(tokenRepository).findAllByDateBeforeAndType(dateTime, TokenType.REGISTER);
-        verify(userRepository, times(2)).deleteById(ID);
     }
 
     @Test
-    public void testDeleteExpiredAccountsUserNull() {
-        registerToken1.setUser(null);
-        LocalDateTime dateTime = LocalDateTime.now();
-        when(tokenRepository.findAllByDateBeforeAndType(dateTime, TokenType.REGISTER)).thenReturn(registerTokens);
-        assertThrows(IllegalStateException.class,
-                () -> tokenService.deleteExpiredAccounts(dateTime)
-        );
-        verify(tokenRepository).findAllByDateBeforeAndType(dateTime, TokenType.REGISTER);
-        verify(userRepository, never()).deleteById(anyInt());
+    public void testDeleteExpiredAccountsNone() {
+        assertEquals(0, tokenService.deleteExpiredAccounts(LocalDateTime.now()));
+        verify(userRepository, never()).deleteUsers(any());
+        verify(publisher, never()).publishEvent(any(EntityChangeEvent.class));
     }
 
     @Test
@@ -292,72 +316,66 @@ public class TokenServiceTest {
         assertThrows(IllegalArgumentException.class,
                 () -> tokenService.deleteExpiredAccounts(null)
         );
-        verify(tokenRepository, never()).findAllByDateBeforeAndType(any(), any());
-        verify(userRepository, never()).deleteById(anyInt());
+        verify(tokenRepository, never()).findUserIdsByDateBeforeAndType(any(), any(), any());
+        verify(userRepository, never()).deleteUsers(any());
     }
 
     @Test
     public void testReactivateUserAccounts() {
         LocalDateTime dateTime = LocalDateTime.now();
-        when(tokenRepository.findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED)).thenReturn(registerTokens);
-        when(userRepository.getReferenceById(ID)).thenReturn(user);
-        tokenService.reactivateUserAccounts(dateTime);
-        assertAll(
-                () -> assertTrue(user.isActive()),
-                () -> assertEquals(0, user.getAttempts())
-        );
-        verify(tokenRepository).findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED);
-        verify(userRepository, times(2)).getReferenceById(ID);
-        verify(userRepository, times(2)).save(user);
+        when(tokenRepository.findUserIdsByDateBeforeAndType(eq(dateTime), eq(TokenType.DEACTIVATED), any()))
+                .thenReturn(USER_IDS);
+        when(userRepository.reactivateUsers(USER_IDS)).thenReturn(USER_IDS.size());
+        when(tokenRepository.deleteByUsersAndDateBeforeAndType(USER_IDS, dateTime, TokenType.DEACTIVATED))
+                .thenReturn(USER_IDS.size());
+        assertEquals(USER_IDS.size(), tokenService.reactivateUserAccounts(dateTime));
+        verify(userRepository).reactivateUsers(USER_IDS);
+        verify(tokenRepository).deleteByUsersAndDateBeforeAndType(USER_IDS, dateTime, TokenType.DEACTIVATED);
+        verify(userRepository, never()).save(any());
     }
 
     @Test
-    public void testReactivateUserAccountsEntityNotFound() {
-        LocalDateTime dateTime = LocalDateTime.now();
-        when(tokenRepository.findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED)).thenReturn(registerTokens);
-        when(userRepository.getReferenceById(ID)).thenReturn(user);
-        when(userRepository.save(user)).thenThrow(EntityNotFoundException.class);
-        assertThrows(NotFoundException.class,
-                () -> tokenService.reactivateUserAccounts(dateTime)
-        );
-        verify(tokenRepository).findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED);
-        verify(userRepository).getReferenceById(ID);
-        verify(userRepository).save(user);
+    public void testReactivateUserAccountsNone() {
+        assertEquals(0, tokenService.reactivateUserAccounts(LocalDateTime.now()));
+        verify(userRepository, never()).reactivateUsers(any());
+        verify(tokenRepository, never()).deleteByUsersAndDateBeforeAndType(any(), any(), any());
     }
 
     @Test
-    public void testReactivateUserAccountsIdNull() {
-        user.setId(null);
-        LocalDateTime dateTime = LocalDateTime.now();
-        when(tokenRepository.findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED)).thenReturn(registerTokens);
-        assertThrows(IllegalStateException.class,
-                () -> tokenService.reactivateUserAccounts(dateTime)
+    public void testReactivateUserAccountsTimeNull() {
+        assertThrows(IllegalArgumentException.class,
+                () -> tokenService.reactivateUserAccounts(null)
         );
-        verify(tokenRepository).findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED);
-        verify(userRepository, never()).getReferenceById(anyInt());
-        verify(userRepository, never()).save(any());
+        verify(tokenRepository, never()).findUserIdsByDateBeforeAndType(any(), any(), any());
+        verify(userRepository, never()).reactivateUsers(any());
     }
 
     @Test
-    public void testReactivateUserAccountsUserNull() {
-        registerToken1.setUser(null);
-        LocalDateTime dateTime = LocalDateTime.now();
-        when(tokenRepository.findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED)).thenReturn(registerTokens);
-        assertThrows(IllegalStateException.class,
-                () -> tokenService.reactivateUserAccounts(dateTime)
+    public void testGetCleanupStatus() {
+        LocalDateTime start = LocalDateTime.now();
+        JobRunDTO run = JobRunDTO.builder().name(Constants.TOKEN_CLEANUP_JOB).node(NODE).started(start).duration(42)
+                .counts(Map.of(Constants.TOKEN_CLEANUP_DELETED_ACCOUNTS, 2L,
+                        Constants.TOKEN_CLEANUP_DELETED_TOKENS, 5L)).build();
+        when(jobService.findLatestRun(Constants.TOKEN_CLEANUP_JOB)).thenReturn(Optional.of(run));
+        TokenCleanupStatusDTO status = tokenService.getCleanupStatus();
+        assertAll(
+                () -> assertEquals(start, status.getLastRun()),
+                () -> assertEquals(NODE, status.getNode()),
+                () -> assertEquals(42, status.getDuration()),
+                () -> assertEquals(2, status.getDeletedAccounts()),
+                () -> assertEquals(0, status.getReactivatedAccounts()),
+                () -> assertEquals(5, status.getDeletedTokens())
         );
-        verify(tokenRepository).findAllByDateBeforeAndType(dateTime, TokenType.DEACTIVATED);
-        verify(userRepository, never()).getReferenceById(anyInt());
-        verify(userRepository, never()).save(any());
     }
 
     @Test
-    public void testReactivateUserAccountsTimeNull() {
-        assertThrows(IllegalArgumentException.class,
-                () -> tokenService.reactivateUserAccounts(null)
+    public void testGetCleanupStatusNoRun() {
+        TokenCleanupStatusDTO status = tokenService.getCleanupStatus();
+        assertAll(
+                () -> assertNull(status.getLastRun()),
+                () -> assertNull(status.getNode()),
+                () -> assertEquals(0, status.getDeletedTokens())
         );
-        verify(tokenRepository, never()).findAllByDateBeforeAndType(any(), any());
-        verify(userRepository, never()).getReferenceById(anyInt());
-        verify(userRepository, never()).save(any());
+        verify(jobService).findLatestRun(Constants.TOKEN_CLEANUP_JOB);
     }
 }
@@ -24,26 +24,34 @@ import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.listener.EntityChangeEvent;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Language;
 import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.web.dto.UserBulkResultDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserDTO;
 import jakarta.persistence.EntityNotFoundException;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.ValueSource;
-import org.mockito.InjectMocks;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.security.crypto.password.PasswordEncoder;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -51,12 +59,14 @@ import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -65,7 +75,6 @@ import static org.mockito.Mockito.when;
 @ExtendWith(MockitoExtension.class)
 public class UserServiceTest {
 
-    @InjectMocks
     private UserService userService;
 
     @Mock
@@ -80,6 +89,15 @@ public class UserServiceTest {
     @Mock
     private PasswordEncoder passwordEncoder;
 
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private ApplicationEventPublisher publisher;
+
+    @Captor
+    private ArgumentCaptor<Collection<User>> userCaptor;
+
     private static final String USERNAME = "admin";
     private static final String BLANK = "   ";
     private static final String PASSWORD = "admin1";
@@ -87,7 +105,7 @@ public class UserServiceTest {
     private static final String SECRET = "secret";
     private static final String GUI_URL = "scratch";
     private static final int ID = 1;
-    private static final long INACTIVE_DAYS = 90;
+    private static final int THREADS = 2;
     private final Experiment experiment = new Experiment(ID, "title", "description", "info", "postscript", true,
             false, GUI_URL);
     private final User user1 = new User(USERNAME, EMAIL, Role.ADMIN, Language.ENGLISH, PASSWORD, SECRET);
@@ -106,6 +124,8 @@ public class UserServiceTest {
 
     @BeforeEach
     public void setup() {
+        userService = new UserService(userRepository, participantRepository, experimentRepository, passwordEncoder,
+                jdbcTemplate, publisher, THREADS);
         admins = new ArrayList<>();
         participants = new ArrayList<>();
         user2.setId(2);
@@ -126,6 +146,11 @@ public class UserServiceTest {
         userDTO.setPassword(PASSWORD);
     }
 
+    @AfterEach
+    public void shutdown() {
+        userService.shutdown();
+    }
+
     @Test
     public void testExistsUser() {
         when(userRepository.existsByUsername(USERNAME)).thenReturn(true);
@@ -234,6 +259,116 @@ public class UserServiceTest {
         verify(userRepository, times(2)).save(any());
     }
 
+    @Test
+    public void testFindExistingUsernames() {
+        when(userRepository.findExistingUsernames(List.of(USERNAME))).thenReturn(List.of(USERNAME));
+        assertEquals(List.of(USERNAME), userService.findExistingUsernames(List.of(USERNAME)));
+    }
+
+    @Test
+    public void testFindExistingUsernamesEmpty() {
+        assertTrue(userService.findExistingUsernames(List.of()).isEmpty());
+        verify(userRepository, never()).findExistingUsernames(any());
+    }
+
+    @Test
+    public void testFindExistingEmails() {
+        when(userRepository.findExistingEmails(List.of(EMAIL))).thenReturn(List.of(EMAIL));
+        assertEquals(List.of(EMAIL), userService.findExistingEmails(List.of(EMAIL)));
+    }
+
+    @Test
+    public void testFindExistingEmailsEmpty() {
+        assertTrue(userService.findExistingEmails(List.of()).isEmpty());
+        verify(userRepository, never()).findExistingEmails(any());
+    }
+
+    @Test
+    public void testEncodePasswords() {
+        when(passwordEncoder.encode(PASSWORD)).thenReturn(SECRET);
+        when(passwordEncoder.encode(USERNAME)).thenReturn(EMAIL);
+        assertEquals(List.of(SECRET, EMAIL, SECRET), userService.encodePasswords(List.of(PASSWORD, USERNAME,
+                PASSWORD)));
+        verify(passwordEncoder, times(2)).encode(PASSWORD);
+        verify(passwordEncoder).encode(USERNAME);
+    }
+
+    @Test
+    public void testEncodePasswordsError() {
+        when(passwordEncoder.encode(PASSWORD)).thenThrow(IllegalArgumentException.class);
+        assertThrows(IllegalArgumentException.class, () -> userService.encodePasswords(List.of(PASSWORD)));
+    }
+
+    @Test
+    public void testSaveUsersBulk() {
+        UserDTO first = new UserDTO(user2.getUsername(), null, Role.PARTICIPANT, Language.ENGLISH, null, null);
+        UserDTO existing = new UserDTO(user3.getUsername(), null, Role.PARTICIPANT, Language.ENGLISH, null, null);
+        UserDTO duplicate = new UserDTO(user2.getUsername().toUpperCase(), null, Role.PARTICIPANT, Language.ENGLISH,
+                null, null);
+        when(userRepository.findExistingUsernames(List.of(user2.getUsername(), user3.getUsername(),
+                duplicate.getUsername()))).thenReturn(List.of(user3.getUsername()));
+        when(userRepository.findAllByUsernameInOrderById(List.of(user2.getUsername()))).thenReturn(List.of(user2));
+        UserBulkResultDTO result = userService.saveUsersBulk(List.of(first, existing, duplicate));
+        verify(jdbcTemplate).batchUpdate(anyString(), userCaptor.capture(), eq(Constants.USER_BATCH_SIZE), any());
+        User inserted = userCaptor.getValue().iterator().next();
+        assertAll(
+                () -> assertEquals(1, result.getUsers().size()),
+                () -> assertEquals(user2.getId(), result.getUsers().get(0).getId()),
+                () -> assertEquals(List.of(user3.getUsername(), duplicate.getUsername()), result.getRejected()),
+                () -> assertEquals(1, userCaptor.getValue().size()),
+                () -> assertEquals(user2.getUsername(), inserted.getUsername()),
+                () -> assertEquals(Constants.SECRET_LENGTH * 2, inserted.getSecret().length()),
+                () -> assertNotNull(inserted.getLastLogin())
+        );
+        verify(publisher).publishEvent(any(EntityChangeEvent.class));
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void testSaveUsersBulkAllRejected() {
+        UserDTO existing = new UserDTO(user2.getUsername(), null, Role.PARTICIPANT, Language.ENGLISH, null, null);
+        when(userRepository.findExistingUsernames(List.of(user2.getUsername()))).thenReturn(List.of(
+                user2.getUsername()));
+        UserBulkResultDTO result = userService.saveUsersBulk(List.of(existing));
+        assertAll(
+                () -> assertTrue(result.getUsers().isEmpty()),
+                () -> assertEquals(List.of(user2.getUsername()), result.getRejected())
+        );
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(), anyInt(), any());
+        verify(userRepository, never()).findAllByUsernameInOrderById(any());
+        verify(publisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testSaveUsersBulkNotAllSaved() {
+        UserDTO first = new UserDTO(user2.getUsername(), null, Role.PARTICIPANT, Language.ENGLISH, null, null);
+        assertThrows(StoreException.class,
+                () -> userService.saveUsersBulk(List.of(first))
+        );
+        verify(jdbcTemplate).batchUpdate(anyString(), any(), anyInt(), any());
+        verify(publisher, never()).publishEvent(any());
+    }
+
+    @Test
+    public void testSaveUsersBulkEmpty() {
+        UserBulkResultDTO result = userService.saveUsersBulk(new ArrayList<>());
+        assertAll(
+                () -> assertTrue(result.getUsers().isEmpty()),
+                () -> assertTrue(result.getRejected().isEmpty())
+        );
+        verify(userRepository, never()).findExistingUsernames(any());
+    }
+
+    @Test
+    public void testSaveUsersBulkUsernameBlank() {
+        UserDTO blank = new UserDTO(BLANK, null, Role.PARTICIPANT, Language.ENGLISH, null, null);
+        assertThrows(IllegalArgumentException.class,
+                () -> userService.saveUsersBulk(List.of(userDTO, blank))
+        );
+        verify(userRepository, never()).findExistingUsernames(any());
+        verify(jdbcTemplate, never()).batchUpdate(anyString(), any(), anyInt(), any());
+    }
+
     @Test
     public void testSaveUser() {
         when(userRepository.save(any())).thenReturn(user1);
@@ -596,16 +731,19 @@ public class UserServiceTest {
 
     @Test
     public void testDeactivateOldParticipantAccounts() {
-        user2.setActive(true);
-        user2.setLastLogin(LocalDateTime.now().minusDays(INACTIVE_DAYS));
-        when(userRepository.findAllByRoleAndLastLoginBefore(any(), any())).thenReturn(List.of(user2));
-        userService.deactivateOldParticipantAccounts();
-        assertAll(
-                () -> assertFalse(user2.isActive()),
-                () -> assertNull(user2.getSecret())
-        );
-        verify(userRepository).findAllByRoleAndLastLoginBefore(any(), any());
-        verify(userRepository).save(user2);
+        List<Integer> ids = List.of(ID, ID + 1);
+        when(userRepository.findInactiveParticipantIds(any(), eq(Constants.DEACTIVATION_CHUNK_SIZE))).thenReturn(ids);
+        when(userRepository.deactivateUsers(ids)).thenReturn(ids.size());
+        assertEquals(ids.size(), userService.deactivateOldParticipantAccounts());
+        verify(userRepository).deactivateUsers(ids);
+        verify(userRepository, never()).save(any());
+    }
+
+    @Test
+    public void testDeactivateOldParticipantAccountsNone() {
+        assertEquals(0, userService.deactivateOldParticipantAccounts());
+        verify(userRepository).findInactiveParticipantIds(any(), eq(Constants.DEACTIVATION_CHUNK_SIZE));
+        verify(userRepository, never()).deactivateUsers(any());
     }
 
     @Test
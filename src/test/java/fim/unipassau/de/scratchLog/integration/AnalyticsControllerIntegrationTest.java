@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.integration;
+
+import fim.unipassau.de.scratchLog.application.service.AnalyticsService;
+import fim.unipassau.de.scratchLog.spring.configuration.SecurityTestConfig;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+import fim.unipassau.de.scratchLog.web.controller.AnalyticsController;
+import fim.unipassau.de.scratchLog.web.dto.AnalyticsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(AnalyticsController.class)
+@Import(SecurityTestConfig.class)
+@ActiveProfiles("test")
+public class AnalyticsControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private AnalyticsService analyticsService;
+
+    private static final String ANALYTICS = "analytics";
+    private static final String ERROR = "redirect:/error";
+    private static final String ID_PARAM = "id";
+    private static final String ID_STRING = "1";
+    private static final int ID = 1;
+    private final AnalyticsDTO analyticsDTO = new AnalyticsDTO(ID, List.of(LocalDateTime.of(2023, 1, 1, 12, 0)),
+            Map.of(ActivityKind.BLOCK, List.of(3L)), Map.of(ActivityKind.BLOCK, 3L), Map.of("motion_movesteps", 2L));
+
+    @Test
+    public void testGetAnalytics() throws Exception {
+        when(analyticsService.getAnalytics(ID)).thenReturn(analyticsDTO);
+        mvc.perform(get("/analytics")
+                        .param(ID_PARAM, ID_STRING)
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute(ANALYTICS, analyticsDTO))
+                .andExpect(view().name(ANALYTICS));
+        verify(analyticsService).getAnalytics(ID);
+    }
+
+    @Test
+    public void testGetAnalyticsInvalidId() throws Exception {
+        mvc.perform(get("/analytics")
+                        .param(ID_PARAM, "-1")
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.ALL))
+                .andExpect(status().is3xxRedirection())
+                .andExpect(view().name(ERROR));
+        verify(analyticsService, never()).getAnalytics(anyInt());
+    }
+
+    @Test
+    public void testGetAnalyticsData() throws Exception {
+        when(analyticsService.getAnalytics(ID)).thenReturn(analyticsDTO);
+        mvc.perform(get("/analytics/data")
+                        .param(ID_PARAM, ID_STRING)
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.experiment").value(ID))
+                .andExpect(jsonPath("$.counts.BLOCK[0]").value(3))
+                .andExpect(jsonPath("$.opcodes.motion_movesteps").value(2));
+    }
+
+    @Test
+    public void testGetAnalyticsDataInvalidId() throws Exception {
+        mvc.perform(get("/analytics/data")
+                        .param(ID_PARAM, "id")
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+        verify(analyticsService, never()).getAnalytics(anyInt());
+    }
+
+}
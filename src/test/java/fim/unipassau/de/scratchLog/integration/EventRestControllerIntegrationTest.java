@@ -19,7 +19,10 @@
 package fim.unipassau.de.scratchLog.integration;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
@@ -45,6 +48,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -73,6 +77,12 @@ public class EventRestControllerIntegrationTest {
     @MockBean
     private ParticipantService participantService;
 
+    @MockBean
+    private EventSpoolService eventSpoolService;
+
+    @MockBean
+    private AdmissionService admissionService;
+
     private static final String JSON = "json";
     private static final String SECRET = "secret";
     private static final int USER_ID = 2;
@@ -188,6 +198,17 @@ public class EventRestControllerIntegrationTest {
         verify(eventService).saveBlockEvent(any());
     }
 
+    @Test
+    public void testStoreBlockEventRateLimited() throws Exception {
+        doThrow(RateLimitException.class).when(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        mvc.perform(post("/store/block")
+                        .content(blockEventObject.toString())
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isTooManyRequests());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
     @Test
     public void testStoreBlockEventInvalidParticipant() throws Exception {
         when(participantService.isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true)).thenReturn(true);
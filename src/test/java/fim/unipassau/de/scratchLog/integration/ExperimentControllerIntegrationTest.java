@@ -21,12 +21,15 @@ package fim.unipassau.de.scratchLog.integration;
 import fim.unipassau.de.scratchLog.MailServerSetter;
 import fim.unipassau.de.scratchLog.StringCreator;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.CourseService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.PageService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.SessionService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
@@ -75,6 +78,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -117,9 +121,15 @@ public class ExperimentControllerIntegrationTest {
     @MockBean
     private MailService mailService;
 
+    @MockBean
+    private NotificationService notificationService;
+
     @MockBean
     private EventService eventService;
 
+    @MockBean
+    private SessionService sessionService;
+
     private static final String TITLE = "My Experiment";
     private static final String DESCRIPTION = "A description";
     private static final String INFO = "Some info text";
@@ -497,7 +507,6 @@ public class ExperimentControllerIntegrationTest {
         verify(experimentService).existsExperiment(TITLE, ID);
         verify(experimentService).saveExperiment(experimentDTO);
         verify(courseService).saveCourseExperiment(ID, ID);
-        verify(participantService).saveParticipants(ID, ID);
         verify(experimentService, never()).deleteExperiment(anyInt());
     }
 
@@ -664,10 +673,7 @@ public class ExperimentControllerIntegrationTest {
     public void testChangeExperimentStatusOpen() throws Exception {
         MailServerSetter.setMailServer(true);
         experimentDTO.setActive(true);
-        List<UserDTO> userDTOS = new ArrayList<>();
-        userDTOS.add(participant);
-        when(experimentService.changeExperimentStatus(true, ID)).thenReturn(experimentDTO);
-        when(userService.reactivateUserAccounts(ID)).thenReturn(userDTOS);
+        when(notificationService.openExperiment(ID, true)).thenReturn(experimentDTO);
         when(pageService.getLastParticipantPage(ID)).thenReturn(LAST_PAGE);
         when(pageService.getParticipantPage(anyInt(), any(PageRequest.class))).thenReturn(participants);
         mvc.perform(get("/experiment/status")
@@ -689,9 +695,7 @@ public class ExperimentControllerIntegrationTest {
                 )))
                 .andExpect(status().isOk())
                 .andExpect(view().name(EXPERIMENT));
-        verify(experimentService).changeExperimentStatus(true, ID);
-        verify(userService).reactivateUserAccounts(ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).openExperiment(ID, true);
         verify(pageService).getLastParticipantPage(ID);
         verify(pageService).getParticipantPage(anyInt(), any(PageRequest.class));
     }
@@ -700,10 +704,7 @@ public class ExperimentControllerIntegrationTest {
     public void testChangeExperimentStatusOpenNoMailServer() throws Exception {
         MailServerSetter.setMailServer(false);
         experimentDTO.setActive(true);
-        List<UserDTO> userDTOS = new ArrayList<>();
-        userDTOS.add(participant);
-        when(experimentService.changeExperimentStatus(true, ID)).thenReturn(experimentDTO);
-        when(userService.reactivateUserAccounts(ID)).thenReturn(userDTOS);
+        when(notificationService.openExperiment(ID, false)).thenReturn(experimentDTO);
         mvc.perform(get("/experiment/status")
                         .param(STATUS_PARAM, "open")
                         .param(ID_PARAM, ID_STRING)
@@ -711,9 +712,7 @@ public class ExperimentControllerIntegrationTest {
                         .accept(MediaType.ALL))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(view().name(REDIRECT_SECRET_LIST + ID));
-        verify(experimentService).changeExperimentStatus(true, ID);
-        verify(userService).reactivateUserAccounts(ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).openExperiment(ID, false);
         verify(pageService, never()).getLastParticipantPage(ID);
         verify(pageService, never()).getParticipantPage(anyInt(), any(PageRequest.class));
     }
@@ -779,8 +778,6 @@ public class ExperimentControllerIntegrationTest {
         participant.setSecret("secret");
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANT)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         mvc.perform(get("/experiment/search")
                 .param(PARTICIPANT, PARTICIPANT)
                 .param(ID_PARAM, ID_STRING)
@@ -790,9 +787,7 @@ public class ExperimentControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_EXPERIMENT + ID));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANT);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
     }
 
     @Test
@@ -801,8 +796,6 @@ public class ExperimentControllerIntegrationTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANT)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         mvc.perform(get("/experiment/search")
                 .param(PARTICIPANT, PARTICIPANT)
                 .param(ID_PARAM, ID_STRING)
@@ -812,9 +805,7 @@ public class ExperimentControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_EXPERIMENT + ID));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANT);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
     }
 
     @Test
@@ -824,7 +815,6 @@ public class ExperimentControllerIntegrationTest {
         participant.setSecret("secret");
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANT)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
         mvc.perform(get("/experiment/search")
                         .param(PARTICIPANT, PARTICIPANT)
                         .param(ID_PARAM, ID_STRING)
@@ -834,9 +824,7 @@ public class ExperimentControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_SECRET + participant.getId() + EXPERIMENT_PARAM + ID));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANT);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, false);
     }
 
     @Test
@@ -862,7 +850,7 @@ public class ExperimentControllerIntegrationTest {
         verify(userService).getUserByUsernameOrEmail(PARTICIPANT);
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -891,7 +879,7 @@ public class ExperimentControllerIntegrationTest {
         verify(userService).existsParticipant(participant.getId(), ID);
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -918,7 +906,7 @@ public class ExperimentControllerIntegrationTest {
         verify(userService, never()).existsParticipant(anyInt(), anyInt());
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -943,7 +931,7 @@ public class ExperimentControllerIntegrationTest {
         verify(userService, never()).getUserByUsernameOrEmail(PARTICIPANT);
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -960,7 +948,7 @@ public class ExperimentControllerIntegrationTest {
         verify(userService, never()).getUserByUsernameOrEmail(PARTICIPANT);
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -1058,6 +1046,7 @@ public class ExperimentControllerIntegrationTest {
         verify(eventService).getResourceEventCount(ID);
         verify(eventService).getCodesDataForExperiment(ID);
         verify(experimentService).getExperimentData(ID);
+        verify(sessionService).getSessionData(eq(ID), any());
     }
 
     @Test
@@ -1075,6 +1064,7 @@ public class ExperimentControllerIntegrationTest {
         verify(eventService, never()).getResourceEventCount(anyInt());
         verify(eventService, never()).getCodesDataForExperiment(anyInt());
         verify(experimentService, never()).getExperimentData(anyInt());
+        verify(sessionService, never()).getSessionData(anyInt(), any());
     }
 
     @Test
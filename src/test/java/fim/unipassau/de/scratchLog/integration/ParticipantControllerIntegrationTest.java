@@ -20,10 +20,12 @@ package fim.unipassau.de.scratchLog.integration;
 
 import fim.unipassau.de.scratchLog.MailServerSetter;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.PageService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.spring.configuration.SecurityTestConfig;
@@ -61,7 +63,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.verify;
@@ -94,7 +96,10 @@ public class ParticipantControllerIntegrationTest {
     private PageService pageService;
 
     @MockBean
-    private MailService mailService;
+    private NotificationService notificationService;
+
+    @MockBean
+    private ResultCacheService resultCacheService;
 
     private static final String GUI_URL = "scratch";
     private static final String ERROR = "redirect:/error";
@@ -145,7 +150,7 @@ public class ParticipantControllerIntegrationTest {
     }
 
     @AfterEach
-    public void resetService() {reset(userService, experimentService, participantService, mailService);}
+    public void resetService() {reset(userService, experimentService, participantService, notificationService);}
 
     @Test
     public void testGetParticipantForm() throws Exception {
@@ -219,8 +224,7 @@ public class ParticipantControllerIntegrationTest {
     @Test
     public void testAddParticipant() throws Exception {
         MailServerSetter.setMailServer(true);
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
-        when(mailService.sendEmail(anyString(), any(), any(), anyString())).thenReturn(true);
+        when(notificationService.saveParticipant(newUser, ID, true)).thenReturn(userDTO);
         mvc.perform(post("/participant/add")
                 .flashAttr(USER_DTO, newUser)
                 .param(EXP_ID_PARAM, ID_STRING)
@@ -228,15 +232,13 @@ public class ParticipantControllerIntegrationTest {
                 .accept(MediaType.ALL))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(view().name(REDIRECT_EXPERIMENT + ID));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(newUser, ID, true);
     }
 
     @Test
     public void testAddParticipantNoMailServer() throws Exception {
         MailServerSetter.setMailServer(false);
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
+        when(notificationService.saveParticipant(newUser, ID, false)).thenReturn(userDTO);
         mvc.perform(post("/participant/add")
                         .flashAttr(USER_DTO, newUser)
                         .param(EXP_ID_PARAM, ID_STRING)
@@ -244,15 +246,13 @@ public class ParticipantControllerIntegrationTest {
                         .accept(MediaType.ALL))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(view().name(REDIRECT_SECRET + userDTO.getId() + EXPERIMENT_PARAM + ID));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(newUser, ID, false);
     }
 
     @Test
     public void testAddParticipantMessagingError() throws Exception {
         MailServerSetter.setMailServer(true);
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
+        when(notificationService.saveParticipant(newUser, ID, true)).thenThrow(StoreException.class);
         mvc.perform(post("/participant/add")
                 .flashAttr(USER_DTO, newUser)
                 .param(EXP_ID_PARAM, ID_STRING)
@@ -260,15 +260,12 @@ public class ParticipantControllerIntegrationTest {
                 .accept(MediaType.ALL))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(view().name(ERROR));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(newUser, ID, true);
     }
 
     @Test
     public void testAddParticipantNotFound() throws Exception {
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
-        doThrow(NotFoundException.class).when(participantService).saveParticipant(userDTO.getId(), ID);
+        when(notificationService.saveParticipant(eq(newUser), eq(ID), anyBoolean())).thenThrow(NotFoundException.class);
         mvc.perform(post("/participant/add")
                 .flashAttr(USER_DTO, newUser)
                 .param(EXP_ID_PARAM, ID_STRING)
@@ -276,9 +273,7 @@ public class ParticipantControllerIntegrationTest {
                 .accept(MediaType.ALL))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(view().name(ERROR));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(eq(newUser), eq(ID), anyBoolean());
     }
 
     @Test
@@ -295,7 +290,7 @@ public class ParticipantControllerIntegrationTest {
                 .andExpect(view().name(PARTICIPANT));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -311,7 +306,7 @@ public class ParticipantControllerIntegrationTest {
                 .andExpect(view().name(PARTICIPANT));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -327,7 +322,7 @@ public class ParticipantControllerIntegrationTest {
                 .andExpect(view().name(PARTICIPANT));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -341,7 +336,7 @@ public class ParticipantControllerIntegrationTest {
                 .andExpect(view().name(ERROR));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -355,7 +350,7 @@ public class ParticipantControllerIntegrationTest {
                 .andExpect(view().name(ERROR));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
     }
 
     @Test
@@ -22,6 +22,9 @@ import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.service.EventService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
+import fim.unipassau.de.scratchLog.application.service.SessionService;
+import fim.unipassau.de.scratchLog.application.service.SnapshotDiffService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventJSONProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventProjection;
@@ -34,6 +37,7 @@ import fim.unipassau.de.scratchLog.web.dto.CodesDataDTO;
 import fim.unipassau.de.scratchLog.web.dto.EventCountDTO;
 import fim.unipassau.de.scratchLog.web.dto.FileDTO;
 import fim.unipassau.de.scratchLog.web.dto.Sb3ZipDTO;
+import fim.unipassau.de.scratchLog.web.dto.SessionDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -55,6 +59,7 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.hamcrest.Matchers.is;
@@ -92,6 +97,15 @@ public class ResultControllerIntegrationTest {
     @MockBean
     private FileService fileService;
 
+    @MockBean
+    private ResultCacheService resultCacheService;
+
+    @MockBean
+    private SnapshotDiffService snapshotDiffService;
+
+    @MockBean
+    private SessionService sessionService;
+
     private static final String RESULT = "result";
     private static final String ERROR = "redirect:/error";
     private static final String ID_STRING = "1";
@@ -103,6 +117,8 @@ public class ResultControllerIntegrationTest {
     private static final String START_PARAM = "start";
     private static final String END_PARAM = "end";
     private static final String INCLUDE_PARAM = "include";
+    private static final String TIME_PARAM = "time";
+    private static final String TIME = "2023-05-02T10:15:30";
     private static final String PAGE = "0";
     private static final String JSON = "json";
     private static final int ID = 1;
@@ -111,6 +127,8 @@ public class ResultControllerIntegrationTest {
     private final FileDTO zip = new FileDTO(ID, ID, LocalDateTime.now(), "file.zip", "wav",
             new byte[]{1, 2, 3, 4});
     private final Sb3ZipDTO sb3ZipDTO = new Sb3ZipDTO(ID, ID, LocalDateTime.now(), "file", new byte[]{1, 2, 3});
+    private final SessionDTO sessionDTO = SessionDTO.builder().user(ID).events(4).sessions(1).active(75).idle(90)
+            .idleGaps(1).longestIdle(90).build();
     private final CodesDataDTO codesDataDTO = new CodesDataDTO(ID, ID, 9);
     private final List<EventCountDTO> blockEvents = getEventCounts(5, "CREATE");
     private final List<EventCountDTO> clickEvents = getEventCounts(3, "GREENFLAG");
@@ -147,6 +165,7 @@ public class ResultControllerIntegrationTest {
         when(fileService.getFiles(ID, ID)).thenReturn(files);
         when(fileService.getZipIds(ID, ID)).thenReturn(zips);
         when(eventService.getCodesData(ID, ID)).thenReturn(codesDataDTO);
+        when(sessionService.getSession(ID, ID)).thenReturn(sessionDTO);
         mvc.perform(get("/result")
                 .param(EXPERIMENT_PARAM, ID_STRING)
                 .param(USER_PARAM, ID_STRING)
@@ -160,6 +179,7 @@ public class ResultControllerIntegrationTest {
                 .andExpect(model().attribute("user", is(ID)))
                 .andExpect(model().attribute("experiment", is(ID)))
                 .andExpect(model().attribute("codeCount", is(codesDataDTO.getCount())))
+                .andExpect(model().attribute("session", is(sessionDTO)))
                 .andExpect(status().isOk())
                 .andExpect(view().name(RESULT));
         verify(userService).existsParticipant(ID, ID);
@@ -169,6 +189,7 @@ public class ResultControllerIntegrationTest {
         verify(fileService).getFiles(ID, ID);
         verify(fileService).getZipIds(ID, ID);
         verify(eventService).getCodesData(ID, ID);
+        verify(sessionService).getSession(ID, ID);
     }
 
     @Test
@@ -180,6 +201,7 @@ public class ResultControllerIntegrationTest {
         when(fileService.getFiles(ID, ID)).thenReturn(files);
         when(fileService.getZipIds(ID, ID)).thenReturn(zips);
         when(eventService.getCodesData(ID, ID)).thenReturn(new CodesDataDTO());
+        when(sessionService.getSession(ID, ID)).thenReturn(new SessionDTO());
         mvc.perform(get("/result")
                 .param(EXPERIMENT_PARAM, ID_STRING)
                 .param(USER_PARAM, ID_STRING)
@@ -553,6 +575,70 @@ public class ResultControllerIntegrationTest {
         verify(eventService).getJsonForUser(ID, ID);
     }
 
+    @Test
+    public void testDownloadDiffs() throws Exception {
+        mvc.perform(get("/result/diffs")
+                .param(EXPERIMENT_PARAM, ID_STRING)
+                .param(USER_PARAM, ID_STRING)
+                .contentType(MediaType.ALL)
+                .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Disposition",
+                        "attachment;filename=diffs_user1_experiment1.csv"));
+        verify(snapshotDiffService).diffSnapshots(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void testDownloadDiffsNotFound() throws Exception {
+        when(snapshotDiffService.diffSnapshots(anyInt(), anyInt(), any())).thenThrow(NotFoundException.class);
+        mvc.perform(get("/result/diffs")
+                .param(EXPERIMENT_PARAM, ID_STRING)
+                .param(USER_PARAM, ID_STRING)
+                .contentType(MediaType.ALL)
+                .accept(MediaType.ALL))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testDownloadProject() throws Exception {
+        LocalDateTime date = LocalDateTime.parse(TIME);
+        when(eventService.getJsonAt(ID, ID, List.of(date))).thenReturn(Map.of(date, jsonProjections.get(0)));
+        mvc.perform(get("/result/project")
+                .param(EXPERIMENT_PARAM, ID_STRING)
+                .param(USER_PARAM, ID_STRING)
+                .param(TIME_PARAM, TIME)
+                .contentType(MediaType.ALL)
+                .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(content().string(jsonProjections.get(0).getCode()));
+        verify(eventService).getJsonAt(ID, ID, List.of(date));
+    }
+
+    @Test
+    public void testDownloadProjectNotFound() throws Exception {
+        LocalDateTime date = LocalDateTime.parse(TIME);
+        when(eventService.getJsonAt(ID, ID, List.of(date))).thenThrow(NotFoundException.class);
+        mvc.perform(get("/result/project")
+                .param(EXPERIMENT_PARAM, ID_STRING)
+                .param(USER_PARAM, ID_STRING)
+                .param(TIME_PARAM, TIME)
+                .contentType(MediaType.ALL)
+                .accept(MediaType.ALL))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void testDownloadProjectsInvalidTime() throws Exception {
+        mvc.perform(get("/result/projects")
+                .param(EXPERIMENT_PARAM, ID_STRING)
+                .param(USER_PARAM, ID_STRING)
+                .param(TIME_PARAM, TIME, "minute 12")
+                .contentType(MediaType.ALL)
+                .accept(MediaType.ALL))
+                .andExpect(status().isBadRequest());
+        verify(eventService, never()).getJsonAt(anyInt(), anyInt(), any());
+    }
+
     @Test
     public void testDownloadAllJsonFilesNotFound() throws Exception {
         when(eventService.getJsonForUser(ID, ID)).thenThrow(NotFoundException.class);
@@ -27,6 +27,7 @@ import fim.unipassau.de.scratchLog.spring.configuration.SecurityTestConfig;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.web.controller.SearchController;
+import fim.unipassau.de.scratchLog.web.dto.SearchResultDTO;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
@@ -44,7 +45,6 @@ import java.util.List;
 
 import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.is;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
@@ -93,12 +93,8 @@ public class SearchControllerIntegrationTest {
         users = getUsers(Constants.PAGE_SIZE);
         experiments = getExperiments(Constants.PAGE_SIZE);
         courses = new ArrayList<>();
-        when(searchService.getUserCount(QUERY)).thenReturn(COUNT);
-        when(searchService.getExperimentCount(QUERY)).thenReturn(COUNT);
-        when(searchService.getCourseCount(QUERY)).thenReturn(COUNT);
-        when(searchService.getUserList(QUERY, Constants.PAGE_SIZE)).thenReturn(users);
-        when(searchService.getExperimentList(QUERY, Constants.PAGE_SIZE)).thenReturn(experiments);
-        when(searchService.getCourseList(QUERY, Constants.PAGE_SIZE)).thenReturn(courses);
+        when(searchService.getSearchResults(QUERY)).thenReturn(new SearchResultDTO(users, experiments, courses, COUNT,
+                COUNT, COUNT));
         mvc.perform(get(PATH)
                 .param(QUERY, QUERY)
                 .contentType(MediaType.APPLICATION_JSON)
@@ -113,12 +109,7 @@ public class SearchControllerIntegrationTest {
                 .andExpect(model().attribute(QUERY, is(QUERY)))
                 .andExpect(status().isOk())
                 .andExpect(view().name(SEARCH));
-        verify(searchService).getUserCount(QUERY);
-        verify(searchService).getExperimentCount(QUERY);
-        verify(searchService).getCourseCount(QUERY);
-        verify(searchService).getUserList(QUERY, Constants.PAGE_SIZE);
-        verify(searchService).getExperimentList(QUERY, Constants.PAGE_SIZE);
-        verify(searchService).getCourseList(QUERY, Constants.PAGE_SIZE);
+        verify(searchService).getSearchResults(QUERY);
     }
 
     @Test
@@ -137,12 +128,7 @@ public class SearchControllerIntegrationTest {
                 .andExpect(model().attribute(QUERY, is("")))
                 .andExpect(status().isOk())
                 .andExpect(view().name(SEARCH));
-        verify(searchService, never()).getUserCount(anyString());
-        verify(searchService, never()).getExperimentCount(anyString());
-        verify(searchService, never()).getCourseCount(anyString());
-        verify(searchService, never()).getUserList(anyString(), anyInt());
-        verify(searchService, never()).getExperimentList(anyString(), anyInt());
-        verify(searchService, never()).getCourseList(anyString(), anyInt());
+        verify(searchService, never()).getSearchResults(anyString());
     }
 
     @Test
@@ -153,12 +139,7 @@ public class SearchControllerIntegrationTest {
                 .accept(MediaType.APPLICATION_JSON))
                 .andExpect(status().is3xxRedirection())
                 .andExpect(view().name(ERROR));
-        verify(searchService, never()).getUserCount(anyString());
-        verify(searchService, never()).getExperimentCount(anyString());
-        verify(searchService, never()).getCourseCount(anyString());
-        verify(searchService, never()).getUserList(anyString(), anyInt());
-        verify(searchService, never()).getExperimentList(anyString(), anyInt());
-        verify(searchService, never()).getCourseList(anyString(), anyInt());
+        verify(searchService, never()).getSearchResults(anyString());
     }
 
     private List<UserProjection> getUsers(int number) {
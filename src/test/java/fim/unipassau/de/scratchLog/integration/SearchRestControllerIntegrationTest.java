@@ -58,15 +58,15 @@ public class SearchRestControllerIntegrationTest {
     private SearchService searchService;
 
     private static final String ID_STRING = "1";
-    private static final String PAGE_STRING = "2";
+    private static final String LAST_STRING = "2";
     private static final String QUERY = "participant";
     private static final String BLANK = "   ";
     private static final String QUERY_PARAM = "query";
     private static final String ID_PARAM = "id";
-    private static final String PAGE_PARAM = "page";
+    private static final String LAST_PARAM = "last";
     private static final String PARTICIPANT = "PARTICIPANT";
     private static final int ID = 1;
-    private static final int PAGE = 2;
+    private static final int LAST = 2;
     private List<String[]> userData;
     private List<String[]> userProjectionData;
     private List<String[]> experimentData;
@@ -112,10 +112,10 @@ public class SearchRestControllerIntegrationTest {
 
     @Test
     public void testGetMoreUsers() throws Exception {
-        when(searchService.getNextUsers(QUERY, PAGE)).thenReturn(userProjectionData);
+        when(searchService.getNextUsers(QUERY, LAST)).thenReturn(userProjectionData);
         mvc.perform(get("/search/users")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, PAGE_STRING)
+                        .param(LAST_PARAM, LAST_STRING)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -132,14 +132,14 @@ public class SearchRestControllerIntegrationTest {
                 .andExpect(jsonPath("$.[2].[1]").value("participant2"))
                 .andExpect(jsonPath("$.[2].[2]").value("participant2@participant.de"))
                 .andExpect(jsonPath("$.[2].[3]").value(PARTICIPANT));
-        verify(searchService).getNextUsers(QUERY, PAGE);
+        verify(searchService).getNextUsers(QUERY, LAST);
     }
 
     @Test
     public void testGetMoreUsersInvalidPage() throws Exception {
         mvc.perform(get("/search/users")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, "-1")
+                        .param(LAST_PARAM, "-1")
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -151,7 +151,7 @@ public class SearchRestControllerIntegrationTest {
     public void testGetMoreUsersPageBlank() throws Exception {
         mvc.perform(get("/search/users")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, BLANK)
+                        .param(LAST_PARAM, BLANK)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -163,7 +163,7 @@ public class SearchRestControllerIntegrationTest {
     public void testGetMoreUsersQueryBlank() throws Exception {
         mvc.perform(get("/search/users")
                         .param(QUERY_PARAM, BLANK)
-                        .param(PAGE_PARAM, PAGE_STRING)
+                        .param(LAST_PARAM, LAST_STRING)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -173,10 +173,10 @@ public class SearchRestControllerIntegrationTest {
 
     @Test
     public void testGetMoreExperiments() throws Exception {
-        when(searchService.getNextExperiments(QUERY, PAGE)).thenReturn(experimentTableData);
+        when(searchService.getNextExperiments(QUERY, LAST)).thenReturn(experimentTableData);
         mvc.perform(get("/search/experiments")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, PAGE_STRING)
+                        .param(LAST_PARAM, LAST_STRING)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -187,14 +187,14 @@ public class SearchRestControllerIntegrationTest {
                 .andExpect(jsonPath("$.[1].[0]").value("1"))
                 .andExpect(jsonPath("$.[1].[1]").value("experiment1"))
                 .andExpect(jsonPath("$.[1].[2]").value("description1"));
-        verify(searchService).getNextExperiments(QUERY, PAGE);
+        verify(searchService).getNextExperiments(QUERY, LAST);
     }
 
     @Test
     public void testGetMoreExperimentsInvalidPage() throws Exception {
         mvc.perform(get("/search/experiments")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, "0")
+                        .param(LAST_PARAM, "0")
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -206,7 +206,7 @@ public class SearchRestControllerIntegrationTest {
     public void testGetMoreExperimentsPageNaN() throws Exception {
         mvc.perform(get("/search/experiments")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, "a")
+                        .param(LAST_PARAM, "a")
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -218,7 +218,7 @@ public class SearchRestControllerIntegrationTest {
     public void testGetMoreExperimentsQueryBlank() throws Exception {
         mvc.perform(get("/search/experiments")
                         .param(QUERY_PARAM, BLANK)
-                        .param(PAGE_PARAM, PAGE_STRING)
+                        .param(LAST_PARAM, LAST_STRING)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -228,10 +228,10 @@ public class SearchRestControllerIntegrationTest {
 
     @Test
     public void testGetMoreCourses() throws Exception {
-        when(searchService.getNextCourses(QUERY, PAGE)).thenReturn(courseTableData);
+        when(searchService.getNextCourses(QUERY, LAST)).thenReturn(courseTableData);
         mvc.perform(get("/search/courses")
                         .param(QUERY_PARAM, QUERY)
-                        .param(PAGE_PARAM, PAGE_STRING)
+                        .param(LAST_PARAM, LAST_STRING)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
@@ -242,14 +242,14 @@ public class SearchRestControllerIntegrationTest {
                 .andExpect(jsonPath("$.[1].[0]").value("1"))
                 .andExpect(jsonPath("$.[1].[1]").value("course1"))
                 .andExpect(jsonPath("$.[1].[2]").value("description1"));
-        verify(searchService).getNextCourses(QUERY, PAGE);
+        verify(searchService).getNextCourses(QUERY, LAST);
     }
 
     @Test
     public void testGetMoreCoursesQueryBlank() throws Exception {
         mvc.perform(get("/search/courses")
                         .param(QUERY_PARAM, BLANK)
-                        .param(PAGE_PARAM, PAGE_STRING)
+                        .param(LAST_PARAM, LAST_STRING)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
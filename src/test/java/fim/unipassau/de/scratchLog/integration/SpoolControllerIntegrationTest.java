@@ -0,0 +1,101 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.integration;
+
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.spring.configuration.SecurityTestConfig;
+import fim.unipassau.de.scratchLog.web.controller.SpoolController;
+import fim.unipassau.de.scratchLog.web.dto.AdmissionStatusDTO;
+import fim.unipassau.de.scratchLog.web.dto.SpoolStatusDTO;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.util.Map;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(SpoolController.class)
+@Import(SecurityTestConfig.class)
+@ActiveProfiles("test")
+public class SpoolControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private EventSpoolService eventSpoolService;
+
+    @MockBean
+    private AdmissionService admissionService;
+
+    private static final String SPOOL = "spool";
+    private static final String STATUS = "status";
+    private final SpoolStatusDTO enabled = SpoolStatusDTO.builder().enabled(true).segments(2).pending(100)
+            .maxSize(1000).replayed(5).lastError("error").build();
+    private final SpoolStatusDTO disabled = SpoolStatusDTO.builder().enabled(false).build();
+    private final AdmissionStatusDTO admission = AdmissionStatusDTO.builder().inFlight(1).limit(64)
+            .concurrencyLimited(2).rateLimited(Map.of("debugger", 3L)).build();
+
+    @BeforeEach
+    public void setup() {
+        when(admissionService.getStatus()).thenReturn(admission);
+    }
+
+    @Test
+    public void testGetSpool() throws Exception {
+        when(eventSpoolService.getStatus()).thenReturn(enabled);
+        mvc.perform(get("/spool")
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute(STATUS, enabled))
+                .andExpect(model().attribute("admission", admission))
+                .andExpect(view().name(SPOOL));
+        verify(eventSpoolService).getStatus();
+    }
+
+    @Test
+    public void testGetSpoolDisabled() throws Exception {
+        when(eventSpoolService.getStatus()).thenReturn(disabled);
+        mvc.perform(get("/spool")
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute(STATUS, disabled))
+                .andExpect(view().name(SPOOL));
+    }
+
+}
@@ -0,0 +1,94 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.integration;
+
+import fim.unipassau.de.scratchLog.application.service.JobService;
+import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.TokenService;
+import fim.unipassau.de.scratchLog.spring.configuration.SecurityTestConfig;
+import fim.unipassau.de.scratchLog.web.controller.StatusController;
+import fim.unipassau.de.scratchLog.web.dto.JobRunDTO;
+import fim.unipassau.de.scratchLog.web.dto.MailStatusDTO;
+import fim.unipassau.de.scratchLog.web.dto.TokenCleanupStatusDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.junit.jupiter.SpringExtension;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
+
+@ExtendWith(SpringExtension.class)
+@WebMvcTest(StatusController.class)
+@Import(SecurityTestConfig.class)
+@ActiveProfiles("test")
+public class StatusControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mvc;
+
+    @MockBean
+    private MailService mailService;
+
+    @MockBean
+    private TokenService tokenService;
+
+    @MockBean
+    private JobService jobService;
+
+    private static final String STATUS = "status";
+    private final MailStatusDTO mail = MailStatusDTO.builder().pending(3).failed(1).oldestPending(LocalDateTime.now())
+            .sent(10).retried(2).build();
+    private final TokenCleanupStatusDTO tokens = TokenCleanupStatusDTO.builder().lastRun(LocalDateTime.now())
+            .node("node1").duration(20).deletedAccounts(1).reactivatedAccounts(2).deletedTokens(5).build();
+    private final List<JobRunDTO> jobs = List.of(JobRunDTO.builder().name("token_cleanup").node("node1")
+            .started(LocalDateTime.now()).duration(20).affected(8).build(), JobRunDTO.builder().name("deactivation")
+            .node("node2").started(LocalDateTime.now()).duration(5).failed(true).build());
+
+    @Test
+    public void testGetStatus() throws Exception {
+        when(mailService.getStatus()).thenReturn(mail);
+        when(tokenService.getCleanupStatus()).thenReturn(tokens);
+        when(jobService.getRecentRuns()).thenReturn(jobs);
+        mvc.perform(get("/status")
+                        .contentType(MediaType.ALL)
+                        .accept(MediaType.ALL))
+                .andExpect(status().isOk())
+                .andExpect(model().attribute("mail", mail))
+                .andExpect(model().attribute("tokens", tokens))
+                .andExpect(model().attribute("jobs", jobs))
+                .andExpect(view().name(STATUS));
+        verify(mailService).getStatus();
+    }
+
+}
@@ -20,7 +20,8 @@ package fim.unipassau.de.scratchLog.integration;
 
 import fim.unipassau.de.scratchLog.MailServerSetter;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
 import fim.unipassau.de.scratchLog.application.service.TokenService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
@@ -32,8 +33,8 @@ import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.util.enums.TokenType;
 import fim.unipassau.de.scratchLog.web.controller.UserController;
 import fim.unipassau.de.scratchLog.web.dto.PasswordDTO;
-import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserBulkDTO;
+import fim.unipassau.de.scratchLog.web.dto.UserBulkResultDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserDTO;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
@@ -53,26 +54,31 @@ import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
 import org.springframework.web.context.WebApplicationContext;
 
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 
 import static org.hamcrest.Matchers.allOf;
+import static org.hamcrest.Matchers.containsString;
 import static org.hamcrest.Matchers.hasProperty;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.nullValue;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
-import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.multipart;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.model;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.view;
@@ -99,7 +105,7 @@ public class UserControllerIntegrationTest {
     private TokenService tokenService;
 
     @MockBean
-    private MailService mailService;
+    private NotificationService notificationService;
 
     @MockBean
     private CustomAuthenticationProvider authenticationProvider;
@@ -139,7 +145,6 @@ public class UserControllerIntegrationTest {
     private static final int AMOUNT = 5;
     private final UserDTO userDTO = new UserDTO(USERNAME, EMAIL, Role.ADMIN, Language.ENGLISH, PASSWORD, SECRET);
     private final UserDTO oldDTO = new UserDTO(USERNAME, EMAIL, Role.ADMIN, Language.ENGLISH, PASSWORD, SECRET);
-    private final TokenDTO tokenDTO = new TokenDTO(TokenType.CHANGE_EMAIL, LocalDateTime.now(), NEW_EMAIL, ID);
     private final PasswordDTO passwordDTO = new PasswordDTO(PASSWORD);
     private final UserBulkDTO userBulkDTO = new UserBulkDTO(AMOUNT, Language.ENGLISH, USERNAME, true);
 
@@ -167,7 +172,7 @@ public class UserControllerIntegrationTest {
     }
 
     @AfterEach
-    public void resetService() {reset(userService, tokenService, mailService);}
+    public void resetService() {reset(userService, tokenService, notificationService);}
 
     @Test
     public void testAuthenticateUser() throws Exception {
@@ -356,9 +361,7 @@ public class UserControllerIntegrationTest {
     public void testAddUser() throws Exception {
         MailServerSetter.setMailServer(true);
         userDTO.setId(null);
-        when(userService.saveUser(userDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.REGISTER, null, oldDTO.getId())).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
+        when(notificationService.saveUser(eq(userDTO), anyString())).thenReturn(oldDTO);
         mvc.perform(post("/users/add")
                 .flashAttr(USER_DTO, userDTO)
                 .accept(MediaType.APPLICATION_JSON))
@@ -366,17 +369,15 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_SUCCESS));
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService).existsEmail(userDTO.getEmail());
-        verify(userService).saveUser(userDTO);
-        verify(tokenService).generateToken(TokenType.REGISTER, null, oldDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(userService, never()).saveUser(any());
+        verify(notificationService).saveUser(eq(userDTO), anyString());
     }
 
     @Test
     public void testAddUserEmailNotSent() throws Exception {
         MailServerSetter.setMailServer(true);
         userDTO.setId(null);
-        when(userService.saveUser(userDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.REGISTER, null, oldDTO.getId())).thenReturn(tokenDTO);
+        when(notificationService.saveUser(eq(userDTO), anyString())).thenThrow(StoreException.class);
         mvc.perform(post("/users/add")
                 .flashAttr(USER_DTO, userDTO)
                 .accept(MediaType.APPLICATION_JSON))
@@ -384,9 +385,8 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(Constants.ERROR));
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService).existsEmail(userDTO.getEmail());
-        verify(userService).saveUser(userDTO);
-        verify(tokenService).generateToken(TokenType.REGISTER, null, oldDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(userService, never()).saveUser(any());
+        verify(notificationService).saveUser(eq(userDTO), anyString());
     }
 
     @Test
@@ -394,8 +394,6 @@ public class UserControllerIntegrationTest {
         MailServerSetter.setMailServer(false);
         userDTO.setId(null);
         when(userService.saveUser(userDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.REGISTER, null, oldDTO.getId())).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         mvc.perform(post("/users/add")
                         .flashAttr(USER_DTO, userDTO)
                         .accept(MediaType.APPLICATION_JSON))
@@ -404,8 +402,7 @@ public class UserControllerIntegrationTest {
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService).saveUser(userDTO);
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -421,8 +418,7 @@ public class UserControllerIntegrationTest {
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService, never()).existsEmail(anyString());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -438,8 +434,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).existsUser(anyString());
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -464,6 +459,8 @@ public class UserControllerIntegrationTest {
 
     @Test
     public void testAddParticipants() throws Exception {
+        when(userService.saveUsersBulk(anyList())).thenReturn(new UserBulkResultDTO(new ArrayList<>(),
+                new ArrayList<>()));
         mvc.perform(post("/users/bulk")
                         .flashAttr(USER_BULK_DTO, userBulkDTO)
                         .accept(MediaType.APPLICATION_JSON))
@@ -472,15 +469,15 @@ public class UserControllerIntegrationTest {
                 .andExpect(model().attribute(ERROR_ATTRIBUTE, nullValue()));
         verify(userService).findValidNumberForUsername(userBulkDTO.getUsername());
         verify(userService, never()).findLastId();
-        verify(userService, times(AMOUNT)).existsUser(anyString());
-        verify(userService, times(AMOUNT)).saveUser(any());
+        verify(userService).saveUsersBulk(anyList());
     }
 
     @Test
     public void testAddParticipantsUsernameExists() throws Exception {
         List<String> existingNames = List.of("admin5");
         when(userService.findValidNumberForUsername(userBulkDTO.getUsername())).thenReturn(1);
-        when(userService.existsUser(existingNames.get(0))).thenReturn(true);
+        when(userService.saveUsersBulk(anyList())).thenReturn(new UserBulkResultDTO(new ArrayList<>(),
+                existingNames));
         mvc.perform(post("/users/bulk")
                         .flashAttr(USER_BULK_DTO, userBulkDTO)
                         .accept(MediaType.APPLICATION_JSON))
@@ -489,8 +486,7 @@ public class UserControllerIntegrationTest {
                 .andExpect(model().attribute(ERROR_ATTRIBUTE, is(existingNames)));
         verify(userService).findValidNumberForUsername(userBulkDTO.getUsername());
         verify(userService, never()).findLastId();
-        verify(userService, times(AMOUNT)).existsUser(anyString());
-        verify(userService, times(AMOUNT - existingNames.size())).saveUser(any());
+        verify(userService).saveUsersBulk(anyList());
     }
 
     @Test
@@ -504,8 +500,7 @@ public class UserControllerIntegrationTest {
                 .andExpect(model().attribute(ERROR_ATTRIBUTE, nullValue()));
         verify(userService, never()).findValidNumberForUsername(anyString());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
@@ -519,8 +514,7 @@ public class UserControllerIntegrationTest {
                 .andExpect(model().attribute(ERROR_ATTRIBUTE, nullValue()));
         verify(userService, never()).findValidNumberForUsername(anyString());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
@@ -534,16 +528,20 @@ public class UserControllerIntegrationTest {
     public void testAddCSVParticipants() throws Exception {
         MockMultipartFile file = new MockMultipartFile("file", FILENAME, FILETYPE,
                 new ClassPathResource("users.csv").getInputStream());
+        when(userService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.saveUsersBulk(anyList())).thenAnswer(invocation -> new UserBulkResultDTO(
+                new ArrayList<>(invocation.getArgument(0)), new ArrayList<>()));
         MockMvc mockMvc = MockMvcBuilders.webAppContextSetup(webApplicationContext).build();
         mockMvc.perform(multipart("/users/csv")
                         .file(file)
                         .contentType(MediaType.ALL)
                         .accept(MediaType.ALL))
-                .andExpect(status().isOk());
-        verify(userService, times(2)).existsUser(anyString());
-        verify(userService, times(2)).existsEmail(anyString());
-        verify(userService, times(2)).encodePassword(anyString());
-        verify(userService).saveUsers(any());
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("newUser2, ")));
+        verify(userService).findExistingUsernames(anyList());
+        verify(userService).findExistingEmails(anyList());
+        verify(userService).encodePasswords(anyList());
+        verify(userService).saveUsersBulk(anyList());
     }
 
     @Test
@@ -557,10 +555,10 @@ public class UserControllerIntegrationTest {
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
                 .andExpect(view().name(PARTICIPANTS_CSV));
-        verify(userService).existsUser(anyString());
-        verify(userService).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService).findExistingUsernames(anyList());
+        verify(userService).findExistingEmails(anyList());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
@@ -574,10 +572,10 @@ public class UserControllerIntegrationTest {
                         .accept(MediaType.ALL))
                 .andExpect(status().isOk())
                 .andExpect(view().name(PARTICIPANTS_CSV));
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
@@ -585,8 +583,6 @@ public class UserControllerIntegrationTest {
         MailServerSetter.setMailServer(true);
         when(userService.getUser(userDTO.getUsername())).thenReturn(userDTO);
         when(userService.getUserByEmail(userDTO.getEmail())).thenReturn(userDTO);
-        when(tokenService.generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId())).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         mvc.perform(post("/users/reset")
                 .flashAttr(USER_DTO, userDTO)
                 .accept(MediaType.APPLICATION_JSON))
@@ -594,8 +590,8 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_INFO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService).generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).sendToken(eq(TokenType.FORGOT_PASSWORD), isNull(), eq(userDTO.getId()),
+                eq(userDTO.getEmail()), anyString(), anyString());
     }
 
     @Test
@@ -603,7 +599,8 @@ public class UserControllerIntegrationTest {
         MailServerSetter.setMailServer(true);
         when(userService.getUser(userDTO.getUsername())).thenReturn(userDTO);
         when(userService.getUserByEmail(userDTO.getEmail())).thenReturn(userDTO);
-        when(tokenService.generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId())).thenReturn(tokenDTO);
+        doThrow(StoreException.class).when(notificationService).sendToken(eq(TokenType.FORGOT_PASSWORD), isNull(),
+                eq(userDTO.getId()), eq(userDTO.getEmail()), anyString(), anyString());
         mvc.perform(post("/users/reset")
                 .flashAttr(USER_DTO, userDTO)
                 .accept(MediaType.APPLICATION_JSON))
@@ -611,8 +608,8 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_INFO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService).generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).sendToken(eq(TokenType.FORGOT_PASSWORD), isNull(), eq(userDTO.getId()),
+                eq(userDTO.getEmail()), anyString(), anyString());
     }
 
     @Test
@@ -625,8 +622,7 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(Constants.ERROR));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -642,8 +638,7 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_INFO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -657,8 +652,7 @@ public class UserControllerIntegrationTest {
                 .andExpect(view().name(REDIRECT_INFO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -945,8 +939,6 @@ public class UserControllerIntegrationTest {
         userDTO.setEmail(NEW_EMAIL);
         when(userService.getUserById(ID)).thenReturn(oldDTO);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), any(), any(), anyString())).thenReturn(true);
         when(userService.getUser(PROFILE)).thenReturn(oldDTO);
         mvc.perform(post("/users/update")
                 .flashAttr(USER_DTO, userDTO)
@@ -959,8 +951,8 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService).updateUser(oldDTO);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
-        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID);
+        verify(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL),
+                anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -971,8 +963,6 @@ public class UserControllerIntegrationTest {
         userDTO.setEmail(NEW_EMAIL);
         when(userService.getUserById(ID)).thenReturn(oldDTO);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), any(), any(), anyString())).thenReturn(true);
         when(userService.getUser(PROFILE)).thenReturn(oldDTO);
         mvc.perform(post("/users/update")
                         .flashAttr(USER_DTO, userDTO)
@@ -985,8 +975,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService).updateUser(oldDTO);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -1001,8 +990,6 @@ public class UserControllerIntegrationTest {
         userDTO.setEmail(NEW_EMAIL);
         when(userService.getUserById(ID)).thenReturn(oldDTO);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), any(), any(), anyString())).thenReturn(true);
         when(userService.matchesPassword(PASSWORD, PASSWORD)).thenReturn(true);
         when(userService.encodePassword(VALID_PASSWORD)).thenReturn(VALID_PASSWORD);
         mvc.perform(post("/users/update")
@@ -1016,8 +1003,8 @@ public class UserControllerIntegrationTest {
         verify(userService).encodePassword(anyString());
         verify(authenticationProvider).authenticate(any());
         verify(userService).updateUser(oldDTO);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
-        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID);
+        verify(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL),
+                anyString(), anyString());
         verify(userService, never()).getUser(anyString());
     }
 
@@ -1028,7 +1015,8 @@ public class UserControllerIntegrationTest {
         userDTO.setEmail(NEW_EMAIL);
         when(userService.getUserById(ID)).thenReturn(oldDTO);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenReturn(tokenDTO);
+        doThrow(StoreException.class).when(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL),
+                eq(ID), eq(NEW_EMAIL), anyString(), anyString());
         when(userService.getUser(PROFILE)).thenReturn(oldDTO);
         mvc.perform(post("/users/update")
                 .flashAttr(USER_DTO, userDTO)
@@ -1041,8 +1029,8 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService).updateUser(oldDTO);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
-        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID);
+        verify(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL),
+                anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -1068,7 +1056,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -1091,7 +1079,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -1112,7 +1100,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -1133,7 +1121,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
         verify(userService).getUser(PROFILE);
     }
 
@@ -1155,7 +1143,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1172,7 +1160,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1190,7 +1178,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1210,7 +1198,7 @@ public class UserControllerIntegrationTest {
         verify(userService, never()).encodePassword(anyString());
         verify(authenticationProvider, never()).authenticate(any());
         verify(userService, never()).updateUser(any());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -0,0 +1,421 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.load;
+
+import fim.unipassau.de.scratchLog.util.enums.BlockEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.BlockEventType;
+import fim.unipassau.de.scratchLog.util.enums.ClickEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.ClickEventType;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.ResourceEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.ResourceEventType;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Populates the database with a synthetic dataset of courses, experiments, users, participants and events for
+ * benchmarking the repository queries at scale. The data is inserted with batched JDBC statements and explicit ids
+ * following the highest existing ids, so the generator can be used on an empty as well as an already populated
+ * database. The same seed and sizes always produce the same dataset.
+ */
+public class DatasetGenerator {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(DatasetGenerator.class);
+
+    /**
+     * The date from which the generated event dates start.
+     */
+    private static final LocalDateTime START = LocalDateTime.of(2023, 1, 1, 8, 0);
+
+    /**
+     * The share of block events that contain the xml and json code of the project.
+     */
+    private static final double CODE_SHARE = 0.1;
+
+    /**
+     * The jdbc template used to insert the data.
+     */
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * The random generator determining the generated values.
+     */
+    private final Random random;
+
+    /**
+     * The number of rows inserted per batch.
+     */
+    private final int batchSize;
+
+    /**
+     * The project code stored in the block events containing code.
+     */
+    private final String code;
+
+    /**
+     * The id of the first generated course.
+     */
+    private int firstCourse;
+
+    /**
+     * The id of the first generated experiment.
+     */
+    private int firstExperiment;
+
+    /**
+     * The id of the first generated user.
+     */
+    private int firstUser;
+
+    /**
+     * Constructs a new dataset generator.
+     *
+     * @param jdbcTemplate The {@link JdbcTemplate} to use.
+     * @param seed The seed of the random generator.
+     * @param batchSize The number of rows inserted per batch.
+     * @param codeSize The size of the xml and json code stored in block events in characters.
+     */
+    public DatasetGenerator(final JdbcTemplate jdbcTemplate, final long seed, final int batchSize,
+                            final int codeSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.random = new Random(seed);
+        this.batchSize = batchSize;
+        this.code = "a".repeat(codeSize);
+    }
+
+    /**
+     * Generates the dataset. Every user participates in the given number of consecutive experiments, and every
+     * experiment is assigned to one of the courses, whose participants are the users taking part in its experiments.
+     * The events are distributed randomly among the participants, with block events making up 70%, click events 20%
+     * and resource events 10% of them.
+     *
+     * @param courses The number of courses.
+     * @param experiments The number of experiments.
+     * @param users The number of participant users.
+     * @param experimentsPerUser The number of experiments each user participates in.
+     * @param events The total number of events.
+     */
+    public void generate(final int courses, final int experiments, final int users, final int experimentsPerUser,
+                         final long events) {
+        if (courses < 1 || experiments < 1 || users < 1 || experimentsPerUser < 1
+                || experimentsPerUser > experiments) {
+            throw new IllegalArgumentException("Cannot generate dataset with " + courses + " courses, " + experiments
+                    + " experiments, " + users + " users and " + experimentsPerUser + " experiments per user!");
+        }
+
+        firstCourse = nextId("course");
+        firstExperiment = nextId("experiment");
+        firstUser = nextId("`user`");
+        long start = System.currentTimeMillis();
+        insertCourses(courses);
+        insertExperiments(courses, experiments);
+        insertUsers(users);
+        insertParticipants(courses, experiments, users, experimentsPerUser);
+        insertEvents(experiments, users, experimentsPerUser, events);
+        LOGGER.info("Generated " + courses + " courses, " + experiments + " experiments, " + users + " users and "
+                + events + " events in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    /**
+     * Returns the id of the first generated course.
+     *
+     * @return The course id.
+     */
+    public int getFirstCourse() {
+        return firstCourse;
+    }
+
+    /**
+     * Returns the id of the first generated experiment.
+     *
+     * @return The experiment id.
+     */
+    public int getFirstExperiment() {
+        return firstExperiment;
+    }
+
+    /**
+     * Returns the id of the first generated user.
+     *
+     * @return The user id.
+     */
+    public int getFirstUser() {
+        return firstUser;
+    }
+
+    /**
+     * Returns the id of the experiment the given user participates in as their n-th experiment.
+     *
+     * @param user The index of the user.
+     * @param n The index of the participation.
+     * @param experiments The number of experiments.
+     * @return The experiment id.
+     */
+    public int getExperiment(final int user, final int n, final int experiments) {
+        return firstExperiment + (user + n) % experiments;
+    }
+
+    /**
+     * Inserts the given number of courses.
+     *
+     * @param courses The number of courses.
+     */
+    private void insertCourses(final int courses) {
+        List<Object[]> rows = new ArrayList<>();
+
+        for (int i = 0; i < courses; i++) {
+            rows.add(new Object[]{firstCourse + i, "Course " + (firstCourse + i), "Description of course " + i,
+                    random.nextBoolean(), timestamp(random.nextInt(365 * 24 * 60))});
+        }
+
+        insert("INSERT INTO course (id, title, description, active, last_changed) VALUES (?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Inserts the given number of experiments and assigns every second experiment to a course.
+     *
+     * @param courses The number of courses.
+     * @param experiments The number of experiments.
+     */
+    private void insertExperiments(final int courses, final int experiments) {
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> courseExperiments = new ArrayList<>();
+
+        for (int i = 0; i < experiments; i++) {
+            int id = firstExperiment + i;
+            rows.add(new Object[]{id, "Experiment " + id, "Description of experiment " + i, random.nextBoolean(),
+                    i % 2 == 0, "scratch"});
+
+            if (i % 2 == 0) {
+                courseExperiments.add(new Object[]{firstCourse + i % courses, id, timestamp(i)});
+            }
+        }
+
+        insert("INSERT INTO experiment (id, title, description, active, course_experiment, gui_url) "
+                + "VALUES (?, ?, ?, ?, ?, ?)", rows);
+        insert("INSERT INTO course_experiment (course_id, experiment_id, added) VALUES (?, ?, ?)",
+                courseExperiments);
+    }
+
+    /**
+     * Inserts the given number of participant users and a registration token for every tenth user.
+     *
+     * @param users The number of users.
+     */
+    private void insertUsers(final int users) {
+        List<Object[]> rows = new ArrayList<>();
+        List<Object[]> tokens = new ArrayList<>();
+        Language[] languages = Language.values();
+
+        for (int i = 0; i < users; i++) {
+            int id = firstUser + i;
+            rows.add(new Object[]{id, "participant" + id, "participant" + id + "@example.com",
+                    Role.PARTICIPANT.toString(), languages[random.nextInt(languages.length)].toString(),
+                    "secret" + id + "_" + random.nextInt(Integer.MAX_VALUE), random.nextBoolean(),
+                    timestamp(random.nextInt(365 * 24 * 60))});
+
+            if (i % 10 == 0) {
+                tokens.add(new Object[]{"token" + id, TokenType.REGISTER.toString(),
+                        timestamp(random.nextInt(365 * 24 * 60)), id});
+            }
+
+            if (rows.size() >= batchSize) {
+                insertUserRows(rows);
+            }
+        }
+
+        insertUserRows(rows);
+        insert("INSERT INTO token (value, type, expiration, user_id) VALUES (?, ?, ?, ?)", tokens);
+    }
+
+    /**
+     * Inserts the given user rows.
+     *
+     * @param rows The rows to insert.
+     */
+    private void insertUserRows(final List<Object[]> rows) {
+        insert("INSERT INTO `user` (id, username, email, role, language, secret, active, last_login) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", rows);
+    }
+
+    /**
+     * Inserts the participations of all users as well as the course participations resulting from them.
+     *
+     * @param courses The number of courses.
+     * @param experiments The number of experiments.
+     * @param users The number of users.
+     * @param experimentsPerUser The number of experiments each user participates in.
+     */
+    private void insertParticipants(final int courses, final int experiments, final int users,
+                                    final int experimentsPerUser) {
+        List<Object[]> participants = new ArrayList<>();
+        List<Object[]> courseParticipants = new ArrayList<>();
+
+        for (int i = 0; i < users; i++) {
+            int user = firstUser + i;
+            List<Integer> userCourses = new ArrayList<>();
+
+            for (int n = 0; n < experimentsPerUser; n++) {
+                int experiment = getExperiment(i, n, experiments);
+                int started = random.nextInt(365 * 24 * 60);
+                boolean finished = random.nextInt(3) > 0;
+                participants.add(new Object[]{user, experiment, timestamp(started),
+                        finished ? timestamp(started + 30 + random.nextInt(90)) : null});
+                int course = firstCourse + (experiment - firstExperiment) % courses;
+
+                if ((experiment - firstExperiment) % 2 == 0 && !userCourses.contains(course)) {
+                    userCourses.add(course);
+                    courseParticipants.add(new Object[]{user, course, timestamp(started)});
+                }
+            }
+
+            if (participants.size() >= batchSize) {
+                insertParticipantRows(participants, courseParticipants);
+            }
+        }
+
+        insertParticipantRows(participants, courseParticipants);
+    }
+
+    /**
+     * Inserts the given participant and course participant rows.
+     *
+     * @param participants The participant rows to insert.
+     * @param courseParticipants The course participant rows to insert.
+     */
+    private void insertParticipantRows(final List<Object[]> participants, final List<Object[]> courseParticipants) {
+        insert("INSERT INTO participant (user_id, experiment_id, start, finish) VALUES (?, ?, ?, ?)", participants);
+        insert("INSERT INTO course_participant (user_id, course_id, added) VALUES (?, ?, ?)", courseParticipants);
+    }
+
+    /**
+     * Inserts the given number of block, click and resource events for randomly chosen participants.
+     *
+     * @param experiments The number of experiments.
+     * @param users The number of users.
+     * @param experimentsPerUser The number of experiments each user participates in.
+     * @param events The number of events.
+     */
+    private void insertEvents(final int experiments, final int users, final int experimentsPerUser,
+                              final long events) {
+        List<Object[]> blockEvents = new ArrayList<>();
+        List<Object[]> clickEvents = new ArrayList<>();
+        List<Object[]> resourceEvents = new ArrayList<>();
+        BlockEventType[] blockTypes = BlockEventType.values();
+        BlockEventSpecific[] blockSpecifics = BlockEventSpecific.values();
+        ClickEventType[] clickTypes = ClickEventType.values();
+        ClickEventSpecific[] clickSpecifics = ClickEventSpecific.values();
+        ResourceEventType[] resourceTypes = ResourceEventType.values();
+        ResourceEventSpecific[] resourceSpecifics = ResourceEventSpecific.values();
+
+        for (long i = 0; i < events; i++) {
+            int index = random.nextInt(users);
+            int user = firstUser + index;
+            int experiment = getExperiment(index, random.nextInt(experimentsPerUser), experiments);
+            Timestamp date = timestamp(random.nextInt(365 * 24 * 60));
+            int type = random.nextInt(10);
+
+            if (type < 7) {
+                boolean withCode = random.nextDouble() < CODE_SHARE;
+                blockEvents.add(new Object[]{user, experiment, date,
+                        blockTypes[random.nextInt(blockTypes.length)].getCode(),
+                        blockSpecifics[random.nextInt(blockSpecifics.length)].getCode(), "Sprite1",
+                        withCode ? "<xml>" + code + "</xml>" : null, withCode ? "{\"code\":\"" + code + "\"}" : null});
+            } else if (type < 9) {
+                clickEvents.add(new Object[]{user, experiment, date,
+                        clickTypes[random.nextInt(clickTypes.length)].getCode(),
+                        clickSpecifics[random.nextInt(clickSpecifics.length)].getCode()});
+            } else {
+                resourceEvents.add(new Object[]{user, experiment, date,
+                        resourceTypes[random.nextInt(resourceTypes.length)].getCode(),
+                        resourceSpecifics[random.nextInt(resourceSpecifics.length)].getCode(), "Costume" + i,
+                        Long.toHexString(random.nextLong()), "svg", random.nextInt(3)});
+            }
+
+            if (blockEvents.size() + clickEvents.size() + resourceEvents.size() >= batchSize) {
+                insertEventRows(blockEvents, clickEvents, resourceEvents);
+            }
+        }
+
+        insertEventRows(blockEvents, clickEvents, resourceEvents);
+    }
+
+    /**
+     * Inserts the given block, click and resource event rows.
+     *
+     * @param blockEvents The block event rows to insert.
+     * @param clickEvents The click event rows to insert.
+     * @param resourceEvents The resource event rows to insert.
+     */
+    private void insertEventRows(final List<Object[]> blockEvents, final List<Object[]> clickEvents,
+                                 final List<Object[]> resourceEvents) {
+        insert("INSERT INTO block_event (user_id, experiment_id, date, event_type, event, spritename, xml, json) "
+                + "VALUES (?, ?, ?, ?, ?, ?, ?, ?)", blockEvents);
+        insert("INSERT INTO click_event (user_id, experiment_id, date, event_type, event) VALUES (?, ?, ?, ?, ?)",
+                clickEvents);
+        insert("INSERT INTO resource_event (user_id, experiment_id, date, event_type, event, name, md5, type, "
+                + "library) VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?)", resourceEvents);
+    }
+
+    /**
+     * Inserts the given rows in batches and clears the list afterwards.
+     *
+     * @param sql The insert statement.
+     * @param rows The rows to insert.
+     */
+    private void insert(final String sql, final List<Object[]> rows) {
+        for (int i = 0; i < rows.size(); i += batchSize) {
+            jdbcTemplate.batchUpdate(sql, rows.subList(i, Math.min(i + batchSize, rows.size())));
+        }
+
+        rows.clear();
+    }
+
+    /**
+     * Returns the id following the highest id currently stored in the given table.
+     *
+     * @param table The name of the table.
+     * @return The next free id.
+     */
+    private int nextId(final String table) {
+        Integer max = jdbcTemplate.queryForObject("SELECT MAX(id) FROM " + table, Integer.class);
+        return max == null ? 1 : max + 1;
+    }
+
+    /**
+     * Returns the timestamp the given number of minutes after the start date.
+     *
+     * @param minutes The number of minutes.
+     * @return The timestamp.
+     */
+    private static Timestamp timestamp(final long minutes) {
+        return Timestamp.valueOf(START.plusMinutes(minutes));
+    }
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.load;
+
+import org.json.JSONObject;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Generates the request bodies sent by the Scratch GUI and VM to the logging endpoints. The events are either replayed
+ * from a recorded session or generated with a mix of endpoints and payload sizes similar to a real session, using the
+ * sb3 project in the test resources for the json code, file and zip uploads.
+ */
+public class EventGenerator {
+
+    /**
+     * The endpoints to which events are sent and their relative frequency in a generated session.
+     */
+    private static final Map<String, Integer> WEIGHTS = Map.of("block", 60, "click", 20, "resource", 10, "file", 5,
+            "zip", 5);
+
+    /**
+     * The format of the timestamps sent by the GUI.
+     */
+    private static final DateTimeFormatter TIME_FORMAT = DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss.SSS'Z'");
+
+    /**
+     * The json code sent with block events.
+     */
+    private final String code;
+
+    /**
+     * The base64 encoded sound file sent with file events.
+     */
+    private final String file;
+
+    /**
+     * The base64 encoded sb3 project sent with zip events.
+     */
+    private final String zip;
+
+    /**
+     * The recorded events to replay, or an empty list, if the events are to be generated.
+     */
+    private final List<JSONObject> recording;
+
+    /**
+     * Constructs a new event generator using the sb3 project from the test resources.
+     *
+     * @param codeSize The minimum size of the json code sent with block events in bytes.
+     * @param recording The path to a recorded session to replay, or {@code null}, if the events are to be generated.
+     * @throws IOException if the project or recording could not be read.
+     */
+    public EventGenerator(final int codeSize, final Path recording) throws IOException {
+        byte[] project;
+
+        try (InputStream in = getClass().getResourceAsStream("/Scratch-Projekt.sb3")) {
+            if (in == null) {
+                throw new IOException("Could not find the sb3 project in the test resources!");
+            }
+
+            project = in.readAllBytes();
+        }
+
+        String projectJson = new String(readEntry(project, "project.json"), StandardCharsets.UTF_8);
+        this.code = new JSONObject().put("project", new JSONObject(projectJson))
+                .put("padding", "a".repeat(Math.max(0, codeSize - projectJson.length()))).toString();
+        this.file = Base64.getEncoder().encodeToString(readEntry(project, "83c36d806dc92327b9e7049a565c6bff.wav"));
+        this.zip = Base64.getEncoder().encodeToString(project);
+        this.recording = new ArrayList<>();
+
+        if (recording != null) {
+            for (String line : Files.readAllLines(recording, StandardCharsets.UTF_8)) {
+                if (!line.isBlank()) {
+                    this.recording.add(new JSONObject(line));
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the next event of the given participant as a pair of the endpoint and the request body.
+     *
+     * @param random The random generator of the participant.
+     * @param sequence The number of events the participant has already sent.
+     * @param user The user id of the participant.
+     * @param experiment The experiment id of the participant.
+     * @param secret The secret of the participant.
+     * @return The endpoint and request body.
+     */
+    public Map.Entry<String, String> next(final Random random, final int sequence, final int user,
+                                          final int experiment, final String secret) {
+        JSONObject body;
+        String endpoint;
+
+        if (recording.isEmpty()) {
+            endpoint = nextEndpoint(random);
+            body = createBody(endpoint);
+        } else {
+            JSONObject event = recording.get(sequence % recording.size());
+            endpoint = event.getString("endpoint");
+            body = new JSONObject(event.getJSONObject("body").toString());
+        }
+
+        body.put("user", user);
+        body.put("experiment", experiment);
+        body.put("secret", secret);
+        body.put("time", LocalDateTime.now(ZoneOffset.UTC).format(TIME_FORMAT));
+        return Map.entry(endpoint, body.toString());
+    }
+
+    /**
+     * Chooses the endpoint of the next generated event according to the endpoint weights.
+     *
+     * @param random The random generator to use.
+     * @return The endpoint.
+     */
+    private String nextEndpoint(final Random random) {
+        int total = WEIGHTS.values().stream().mapToInt(Integer::intValue).sum();
+        int value = random.nextInt(total);
+
+        for (Map.Entry<String, Integer> weight : WEIGHTS.entrySet()) {
+            value -= weight.getValue();
+
+            if (value < 0) {
+                return weight.getKey();
+            }
+        }
+
+        return "block";
+    }
+
+    /**
+     * Creates the request body of a generated event for the given endpoint.
+     *
+     * @param endpoint The endpoint.
+     * @return The request body without participant information.
+     */
+    private JSONObject createBody(final String endpoint) {
+        JSONObject body = new JSONObject();
+
+        switch (endpoint) {
+            case "click" -> body.put("type", "ICON").put("event", "GREENFLAG").put("metadata", "");
+            case "resource" -> body.put("type", "ADD").put("event", "ADD_SOUND").put("name", "Meow")
+                    .put("md5", "83c36d806dc92327b9e7049a565c6bff.wav").put("dataFormat", "wav")
+                    .put("libraryResource", "TRUE");
+            case "file" -> body.put("name", "Meow.wav").put("type", "audio/x-wav").put("file", file);
+            case "zip" -> body.put("name", "Scratch-Projekt.sb3").put("zip", zip);
+            default -> body.put("type", "CHANGE").put("event", "CHANGE").put("spritename", "Sprite1")
+                    .put("metadata", "").put("xml", "<xml></xml>").put("json", code);
+        }
+
+        return body;
+    }
+
+    /**
+     * Returns the content of the zip entry with the given name.
+     *
+     * @param zipFile The content of the zip file.
+     * @param name The name of the entry.
+     * @return The content of the entry.
+     * @throws IOException if the entry could not be found or read.
+     */
+    private static byte[] readEntry(final byte[] zipFile, final String name) throws IOException {
+        try (ZipInputStream in = new ZipInputStream(new ByteArrayInputStream(zipFile))) {
+            ZipEntry entry;
+
+            while ((entry = in.getNextEntry()) != null) {
+                if (entry.getName().equals(name)) {
+                    ByteArrayOutputStream out = new ByteArrayOutputStream();
+                    in.transferTo(out);
+                    return out.toByteArray();
+                }
+            }
+        }
+
+        throw new IOException("Could not find entry " + name + " in the sb3 project!");
+    }
+
+}
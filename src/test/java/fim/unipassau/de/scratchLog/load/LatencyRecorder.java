@@ -0,0 +1,163 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.load;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Records the latencies and failures of the requests sent to each endpoint during a load test and computes the
+ * statistics written to the load test report.
+ */
+public class LatencyRecorder {
+
+    /**
+     * The latencies of the successful requests in nanoseconds per endpoint.
+     */
+    private final Map<String, List<Long>> latencies = new ConcurrentHashMap<>();
+
+    /**
+     * The number of failed requests per endpoint.
+     */
+    private final Map<String, AtomicLong> errors = new ConcurrentHashMap<>();
+
+    /**
+     * Records a successful request to the given endpoint.
+     *
+     * @param endpoint The endpoint.
+     * @param nanos The latency of the request in nanoseconds.
+     */
+    public void recordSuccess(final String endpoint, final long nanos) {
+        latencies.computeIfAbsent(endpoint, key -> Collections.synchronizedList(new ArrayList<>())).add(nanos);
+        errors.computeIfAbsent(endpoint, key -> new AtomicLong());
+    }
+
+    /**
+     * Records a failed request to the given endpoint.
+     *
+     * @param endpoint The endpoint.
+     */
+    public void recordError(final String endpoint) {
+        latencies.computeIfAbsent(endpoint, key -> Collections.synchronizedList(new ArrayList<>()));
+        errors.computeIfAbsent(endpoint, key -> new AtomicLong()).incrementAndGet();
+    }
+
+    /**
+     * Returns the total number of recorded requests.
+     *
+     * @return The number of requests.
+     */
+    public long getRequests() {
+        return latencies.values().stream().mapToLong(List::size).sum() + getErrors();
+    }
+
+    /**
+     * Returns the total number of failed requests.
+     *
+     * @return The number of failed requests.
+     */
+    public long getErrors() {
+        return errors.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Returns the error rate over all recorded requests.
+     *
+     * @return The error rate between 0 and 1.
+     */
+    public double getErrorRate() {
+        long requests = getRequests();
+        return requests == 0 ? 0 : (double) getErrors() / requests;
+    }
+
+    /**
+     * Creates the statistics for each endpoint and in total, containing the number of requests and errors, the error
+     * rate, the throughput in requests per second and the 50th, 95th and 99th percentile and maximum latency in
+     * milliseconds.
+     *
+     * @param seconds The duration of the load test in seconds.
+     * @return The statistics per endpoint.
+     */
+    public Map<String, Map<String, Object>> createReport(final double seconds) {
+        Map<String, Map<String, Object>> report = new TreeMap<>();
+        List<Long> all = new ArrayList<>();
+
+        for (Map.Entry<String, List<Long>> entry : latencies.entrySet()) {
+            List<Long> values;
+
+            synchronized (entry.getValue()) {
+                values = new ArrayList<>(entry.getValue());
+            }
+
+            all.addAll(values);
+            report.put(entry.getKey(), createStatistics(values, errors.get(entry.getKey()).get(), seconds));
+        }
+
+        report.put("total", createStatistics(all, getErrors(), seconds));
+        return report;
+    }
+
+    /**
+     * Creates the statistics for the given latencies and number of errors.
+     *
+     * @param values The latencies of the successful requests in nanoseconds.
+     * @param errorCount The number of failed requests.
+     * @param seconds The duration of the load test in seconds.
+     * @return The statistics.
+     */
+    private Map<String, Object> createStatistics(final List<Long> values, final long errorCount,
+                                                 final double seconds) {
+        Collections.sort(values);
+        long count = values.size() + errorCount;
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("count", count);
+        statistics.put("errors", errorCount);
+        statistics.put("errorRate", count == 0 ? 0 : (double) errorCount / count);
+        statistics.put("throughput", seconds > 0 ? count / seconds : 0);
+        statistics.put("p50", percentile(values, 50));
+        statistics.put("p95", percentile(values, 95));
+        statistics.put("p99", percentile(values, 99));
+        statistics.put("max", values.isEmpty() ? 0 : values.get(values.size() - 1) / 1_000_000.0);
+        return statistics;
+    }
+
+    /**
+     * Returns the given percentile of the sorted latencies in milliseconds using the nearest rank method.
+     *
+     * @param sorted The sorted latencies in nanoseconds.
+     * @param percentile The percentile between 1 and 100.
+     * @return The latency in milliseconds, or 0, if no latencies have been recorded.
+     */
+    private static double percentile(final List<Long> sorted, final int percentile) {
+        if (sorted.isEmpty()) {
+            return 0;
+        }
+
+        int rank = (int) Math.ceil(percentile / 100.0 * sorted.size());
+        return sorted.get(Math.max(rank, 1) - 1) / 1_000_000.0;
+    }
+
+}
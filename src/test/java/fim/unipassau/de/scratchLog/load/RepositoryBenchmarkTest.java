@@ -0,0 +1,395 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fim.unipassau.de.scratchLog.persistence.entity.Course;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.BlockEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ClickEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.CodesDataRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.CourseExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.CourseParticipantRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.EventCountRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentDataRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentProjectRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.FileRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.LastSnapshotRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.ResourceEventRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.Sb3ZipRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.TokenRepository;
+import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Benchmark timing the queries of the repositories in {@link fim.unipassau.de.scratchLog.persistence.repository}
+ * against a synthetic dataset created by the {@link DatasetGenerator}. The benchmark is excluded from the default test
+ * run and can be started with {@code mvn test -Pload-test}. The size of the dataset and the number of iterations are
+ * configured in {@code application-load.properties}. Queries modifying data are not timed. The timings per query are
+ * written to a json report.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@ActiveProfiles({"test", "load"})
+public class RepositoryBenchmarkTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(RepositoryBenchmarkTest.class);
+
+    private static final String QUERY = "participant1";
+
+    private static final int LIMIT = 5;
+
+    private static final Pageable PAGEABLE = PageRequest.of(0, 10);
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Autowired
+    private BlockEventRepository blockEventRepository;
+
+    @Autowired
+    private ClickEventRepository clickEventRepository;
+
+    @Autowired
+    private ResourceEventRepository resourceEventRepository;
+
+    @Autowired
+    private CodesDataRepository codesDataRepository;
+
+    @Autowired
+    private CourseRepository courseRepository;
+
+    @Autowired
+    private CourseExperimentRepository courseExperimentRepository;
+
+    @Autowired
+    private CourseParticipantRepository courseParticipantRepository;
+
+    @Autowired
+    private EventCountRepository eventCountRepository;
+
+    @Autowired
+    private ExperimentRepository experimentRepository;
+
+    @Autowired
+    private ExperimentDataRepository experimentDataRepository;
+
+    @Autowired
+    private ExperimentProjectRepository experimentProjectRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private LastSnapshotRepository lastSnapshotRepository;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    @Autowired
+    private Sb3ZipRepository sb3ZipRepository;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Value("${dataset.seed}")
+    private long seed;
+
+    @Value("${dataset.batch-size}")
+    private int batchSize;
+
+    @Value("${dataset.code-size}")
+    private int codeSize;
+
+    @Value("${dataset.courses}")
+    private int courses;
+
+    @Value("${dataset.experiments}")
+    private int experiments;
+
+    @Value("${dataset.users}")
+    private int users;
+
+    @Value("${dataset.experiments-per-user}")
+    private int experimentsPerUser;
+
+    @Value("${dataset.events}")
+    private long events;
+
+    @Value("${benchmark.warmup}")
+    private int warmup;
+
+    @Value("${benchmark.iterations}")
+    private int iterations;
+
+    @Value("${benchmark.report}")
+    private String report;
+
+    @Test
+    public void testRepositoryQueries() throws Exception {
+        DatasetGenerator generator = new DatasetGenerator(jdbcTemplate, seed, batchSize, codeSize);
+        generator.generate(courses, experiments, users, experimentsPerUser, events);
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        Map<String, Runnable> queries = createQueries(generator);
+        Map<String, Map<String, Object>> timings = new LinkedHashMap<>();
+
+        for (Map.Entry<String, Runnable> query : queries.entrySet()) {
+            List<Long> durations = new ArrayList<>();
+
+            for (int i = 0; i < warmup + iterations; i++) {
+                long start = System.nanoTime();
+                transactionTemplate.executeWithoutResult(status -> query.getValue().run());
+
+                if (i >= warmup) {
+                    durations.add(System.nanoTime() - start);
+                }
+            }
+
+            timings.put(query.getKey(), createStatistics(durations));
+            LOGGER.info(query.getKey() + ": " + timings.get(query.getKey()));
+        }
+
+        writeReport(timings);
+        assertEquals(queries.size(), timings.size());
+    }
+
+    private Map<String, Runnable> createQueries(final DatasetGenerator generator) {
+        int userId = generator.getFirstUser();
+        int experimentId = generator.getExperiment(0, 0, experiments);
+        int courseId = generator.getFirstCourse();
+        User user = userRepository.findById(userId).orElseThrow();
+        Experiment experiment = experimentRepository.findById(experimentId);
+        Course course = courseRepository.findById(courseId).orElseThrow();
+        LocalDateTime date = LocalDateTime.of(2023, 7, 1, 0, 0);
+        Map<String, Runnable> queries = new LinkedHashMap<>();
+
+        queries.put("BlockEventRepository.findAllByXmlIsNotNullAndUserAndExperiment",
+                () -> blockEventRepository.findAllByXmlIsNotNullAndUserAndExperiment(user, experiment));
+        queries.put("BlockEventRepository.findAllByCodeIsNotNullAndUserAndExperimentOrderByDateAsc",
+                () -> blockEventRepository.findAllByCodeIsNotNullAndUserAndExperimentOrderByDateAsc(user, experiment));
+        queries.put("BlockEventRepository.findAllByUserAndExperimentAndXmlIsNotNull",
+                () -> blockEventRepository.findAllByUserAndExperimentAndXmlIsNotNull(user, experiment, PAGEABLE));
+        queries.put("BlockEventRepository.findAllByExperiment",
+                () -> blockEventRepository.findAllByExperiment(experiment));
+        queries.put("ClickEventRepository.findAllByExperiment",
+                () -> clickEventRepository.findAllByExperiment(experiment));
+        queries.put("ResourceEventRepository.findAllByExperiment",
+                () -> resourceEventRepository.findAllByExperiment(experiment));
+        queries.put("CodesDataRepository.findByUserAndExperiment",
+                () -> codesDataRepository.findByUserAndExperiment(userId, experimentId));
+        queries.put("CodesDataRepository.findAllByExperiment",
+                () -> codesDataRepository.findAllByExperiment(experimentId));
+        queries.put("CourseRepository.existsByTitle", () -> courseRepository.existsByTitle(course.getTitle()));
+        queries.put("CourseRepository.findByTitle", () -> courseRepository.findByTitle(course.getTitle()));
+        queries.put("CourseRepository.findById", () -> courseRepository.findById(courseId));
+        queries.put("CourseRepository.findAllProjectedBy", () -> courseRepository.findAllProjectedBy(PAGEABLE));
+        queries.put("CourseRepository.findAllByActiveIsTrue", () -> courseRepository.findAllByActiveIsTrue());
+        queries.put("CourseRepository.findCourseSuggestions",
+                () -> courseRepository.findCourseSuggestions("Course 1", LIMIT));
+        queries.put("CourseRepository.findCoursesByParticipant",
+                () -> courseRepository.findCoursesByParticipant(userId, PAGEABLE));
+        queries.put("CourseRepository.getParticipantPageCount",
+                () -> courseRepository.getParticipantPageCount(userId));
+        queries.put("CourseExperimentRepository.existsByCourseAndExperiment",
+                () -> courseExperimentRepository.existsByCourseAndExperiment(course, experiment));
+        queries.put("CourseExperimentRepository.findAllByCourse",
+                () -> courseExperimentRepository.findAllByCourse(course));
+        queries.put("CourseExperimentRepository.findAllByExperiment",
+                () -> courseExperimentRepository.findAllByExperiment(experiment));
+        queries.put("CourseExperimentRepository.findByExperiment",
+                () -> courseExperimentRepository.findByExperiment(experiment));
+        queries.put("CourseExperimentRepository.findAllProjectedByCourse",
+                () -> courseExperimentRepository.findAllProjectedByCourse(PAGEABLE, course));
+        queries.put("CourseExperimentRepository.getCourseExperimentRowCount",
+                () -> courseExperimentRepository.getCourseExperimentRowCount(courseId));
+        queries.put("CourseParticipantRepository.existsByCourseAndUser",
+                () -> courseParticipantRepository.existsByCourseAndUser(course, user));
+        queries.put("CourseParticipantRepository.findAllByCourse",
+                () -> courseParticipantRepository.findAllByCourse(course));
+        queries.put("CourseParticipantRepository.findAllByCourse(Pageable)",
+                () -> courseParticipantRepository.findAllByCourse(course, PAGEABLE));
+        queries.put("CourseParticipantRepository.getCourseParticipantRowCount",
+                () -> courseParticipantRepository.getCourseParticipantRowCount(courseId));
+        queries.put("EventCountRepository.findAllBlockEventsByUserAndExperiment",
+                () -> eventCountRepository.findAllBlockEventsByUserAndExperiment(userId, experimentId));
+        queries.put("EventCountRepository.findAllBlockEventsByExperiment",
+                () -> eventCountRepository.findAllBlockEventsByExperiment(experimentId));
+        queries.put("EventCountRepository.findAllClickEventsByUserAndExperiment",
+                () -> eventCountRepository.findAllClickEventsByUserAndExperiment(userId, experimentId));
+        queries.put("EventCountRepository.findAllClickEventsByExperiment",
+                () -> eventCountRepository.findAllClickEventsByExperiment(experimentId));
+        queries.put("EventCountRepository.findAllResourceEventsByUserIdAndExperimentId",
+                () -> eventCountRepository.findAllResourceEventsByUserIdAndExperimentId(userId, experimentId));
+        queries.put("EventCountRepository.findAllResourceEventsByExperiment",
+                () -> eventCountRepository.findAllResourceEventsByExperiment(experimentId));
+        queries.put("ExperimentRepository.existsByTitle",
+                () -> experimentRepository.existsByTitle(experiment.getTitle()));
+        queries.put("ExperimentRepository.existsById", () -> experimentRepository.existsById(experimentId));
+        queries.put("ExperimentRepository.findByTitle", () -> experimentRepository.findByTitle(experiment.getTitle()));
+        queries.put("ExperimentRepository.findById", () -> experimentRepository.findById(experimentId));
+        queries.put("ExperimentRepository.findExperimentById",
+                () -> experimentRepository.findExperimentById(experimentId));
+        queries.put("ExperimentRepository.findExperimentVersionById",
+                () -> experimentRepository.findExperimentVersionById(experimentId));
+        queries.put("ExperimentRepository.findAllProjectedBy", () -> experimentRepository.findAllProjectedBy(PAGEABLE));
+        queries.put("ExperimentRepository.findAllByActiveIsTrue", () -> experimentRepository.findAllByActiveIsTrue());
+        queries.put("ExperimentRepository.findExperimentSuggestions",
+                () -> experimentRepository.findExperimentSuggestions("Experiment 1", LIMIT));
+        queries.put("ExperimentRepository.findCourseExperimentSuggestions",
+                () -> experimentRepository.findCourseExperimentSuggestions("Experiment 1", courseId, LIMIT));
+        queries.put("ExperimentRepository.findCourseExperimentDeleteSuggestions",
+                () -> experimentRepository.findCourseExperimentDeleteSuggestions("Experiment 1", courseId, LIMIT));
+        queries.put("ExperimentRepository.findExperimentsByParticipant",
+                () -> experimentRepository.findExperimentsByParticipant(userId, PAGEABLE));
+        queries.put("ExperimentRepository.getParticipantPageCount",
+                () -> experimentRepository.getParticipantPageCount(userId));
+        queries.put("ExperimentDataRepository.findByExperiment",
+                () -> experimentDataRepository.findByExperiment(experimentId));
+        queries.put("ExperimentProjectRepository.existsById",
+                () -> experimentProjectRepository.existsById(experimentId));
+        queries.put("ExperimentProjectRepository.findById",
+                () -> experimentProjectRepository.findById(experimentId));
+        queries.put("FileRepository.findFilesByUserAndExperiment",
+                () -> fileRepository.findFilesByUserAndExperiment(user, experiment));
+        queries.put("FileRepository.findAllByUserAndExperiment",
+                () -> fileRepository.findAllByUserAndExperiment(user, experiment));
+        queries.put("LastSnapshotRepository.findById",
+                () -> lastSnapshotRepository.findById(new ParticipantId(userId, experimentId)));
+        queries.put("ParticipantRepository.existsByUserAndExperiment",
+                () -> participantRepository.existsByUserAndExperiment(user, experiment));
+        queries.put("ParticipantRepository.findByUserAndExperiment",
+                () -> participantRepository.findByUserAndExperiment(user, experiment));
+        queries.put("ParticipantRepository.findAllByExperiment(Pageable)",
+                () -> participantRepository.findAllByExperiment(experiment, PAGEABLE));
+        queries.put("ParticipantRepository.findAllByExperiment",
+                () -> participantRepository.findAllByExperiment(experiment));
+        queries.put("ParticipantRepository.findAllByExperimentAndEnd",
+                () -> participantRepository.findAllByExperimentAndEnd(experiment, null));
+        queries.put("ParticipantRepository.findAllByUser", () -> participantRepository.findAllByUser(user));
+        queries.put("ParticipantRepository.findAllByEndIsNullAndUser",
+                () -> participantRepository.findAllByEndIsNullAndUser(user));
+        queries.put("Sb3ZipRepository.findById", () -> sb3ZipRepository.findById(1));
+        queries.put("Sb3ZipRepository.findFirstByUserAndExperimentOrderByIdDesc",
+                () -> sb3ZipRepository.findFirstByUserAndExperimentOrderByIdDesc(user, experiment));
+        queries.put("Sb3ZipRepository.findAllIdsByUserAndExperiment",
+                () -> sb3ZipRepository.findAllIdsByUserAndExperiment(user, experiment));
+        queries.put("Sb3ZipRepository.findAllByUserAndExperiment",
+                () -> sb3ZipRepository.findAllByUserAndExperiment(user, experiment));
+        queries.put("TokenRepository.findByValue", () -> tokenRepository.findByValue("token" + userId));
+        queries.put("TokenRepository.findAllByDateBeforeAndType",
+                () -> tokenRepository.findAllByDateBeforeAndType(date, TokenType.REGISTER));
+        queries.put("UserRepository.existsByUsername", () -> userRepository.existsByUsername(user.getUsername()));
+        queries.put("UserRepository.existsByEmail", () -> userRepository.existsByEmail(user.getEmail()));
+        queries.put("UserRepository.findUserByUsername",
+                () -> userRepository.findUserByUsername(user.getUsername()));
+        queries.put("UserRepository.findUserBySecret", () -> userRepository.findUserBySecret(user.getSecret()));
+        queries.put("UserRepository.findUserByUsernameOrEmail",
+                () -> userRepository.findUserByUsernameOrEmail(user.getUsername(), user.getEmail()));
+        queries.put("UserRepository.findById", () -> userRepository.findById(userId));
+        queries.put("UserRepository.findByEmail", () -> userRepository.findByEmail(user.getEmail()));
+        queries.put("UserRepository.findAllByRole", () -> userRepository.findAllByRole(Role.ADMIN));
+        queries.put("UserRepository.findAllByRoleAndLastLoginBefore",
+                () -> userRepository.findAllByRoleAndLastLoginBefore(Role.PARTICIPANT, date));
+        queries.put("UserRepository.findFirstByOrderByIdDesc", () -> userRepository.findFirstByOrderByIdDesc());
+        queries.put("UserRepository.findUserSuggestions", () -> userRepository.findUserSuggestions(QUERY, LIMIT));
+        queries.put("UserRepository.findParticipantSuggestions",
+                () -> userRepository.findParticipantSuggestions(QUERY, experimentId, LIMIT));
+        queries.put("UserRepository.findParticipantSuggestions(course)",
+                () -> userRepository.findParticipantSuggestions(QUERY, experimentId, courseId, LIMIT));
+        queries.put("UserRepository.findDeleteParticipantSuggestions",
+                () -> userRepository.findDeleteParticipantSuggestions(QUERY, experimentId, LIMIT));
+        queries.put("UserRepository.findCourseParticipantSuggestions",
+                () -> userRepository.findCourseParticipantSuggestions(QUERY, courseId, LIMIT));
+        queries.put("UserRepository.findDeleteCourseParticipantSuggestions",
+                () -> userRepository.findDeleteCourseParticipantSuggestions(QUERY, courseId, LIMIT));
+        queries.put("UserRepository.findLastUsername", () -> userRepository.findLastUsername("participant"));
+        return queries;
+    }
+
+    private Map<String, Object> createStatistics(final List<Long> durations) {
+        Collections.sort(durations);
+        Map<String, Object> statistics = new LinkedHashMap<>();
+        statistics.put("iterations", durations.size());
+        statistics.put("min", durations.get(0) / 1_000_000.0);
+        statistics.put("mean", durations.stream().mapToLong(Long::longValue).average().orElse(0) / 1_000_000.0);
+        statistics.put("median", durations.get(durations.size() / 2) / 1_000_000.0);
+        statistics.put("max", durations.get(durations.size() - 1) / 1_000_000.0);
+        return statistics;
+    }
+
+    private void writeReport(final Map<String, Map<String, Object>> timings) throws Exception {
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("date", LocalDateTime.now().toString());
+        content.put("seed", seed);
+        content.put("courses", courses);
+        content.put("experiments", experiments);
+        content.put("users", users);
+        content.put("experimentsPerUser", experimentsPerUser);
+        content.put("events", events);
+        content.put("queries", timings);
+        Path path = Paths.get(report);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), content);
+        LOGGER.info("Benchmarked " + timings.size() + " queries, report written to " + path.toAbsolutePath());
+    }
+
+}
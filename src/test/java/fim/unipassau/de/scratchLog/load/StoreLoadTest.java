@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import fim.unipassau.de.scratchLog.application.service.ExperimentService;
+import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.UserService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.util.Secrets;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentDTO;
+import fim.unipassau.de.scratchLog.web.dto.UserDTO;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Load test replaying Scratch GUI sessions of synthetic participants against the endpoints of the
+ * {@link fim.unipassau.de.scratchLog.web.controller.EventRestController}. The test is excluded from the default test
+ * run and can be started with {@code mvn test -Pload-test}. The parameters of the run are configured in
+ * {@code application-load.properties} and can be overwritten with system properties. The latencies, throughput and
+ * error rates per endpoint are written to a json report.
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+@ActiveProfiles({"test", "load"})
+public class StoreLoadTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(StoreLoadTest.class);
+
+    @LocalServerPort
+    private int port;
+
+    @Autowired
+    private UserService userService;
+
+    @Autowired
+    private ExperimentService experimentService;
+
+    @Autowired
+    private ParticipantService participantService;
+
+    @Value("${load.participants}")
+    private int participants;
+
+    @Value("${load.duration}")
+    private int duration;
+
+    @Value("${load.rate}")
+    private double rate;
+
+    @Value("${load.threads}")
+    private int threads;
+
+    @Value("${load.json-size}")
+    private int jsonSize;
+
+    @Value("${load.max-error-rate}")
+    private double maxErrorRate;
+
+    @Value("${load.report}")
+    private String report;
+
+    @Value("${load.recording:}")
+    private String recording;
+
+    @Test
+    public void testStoreEvents() throws Exception {
+        EventGenerator generator = new EventGenerator(jsonSize, recording.isBlank() ? null : Paths.get(recording));
+        LatencyRecorder recorder = new LatencyRecorder();
+        ExperimentDTO experiment = experimentService.saveExperiment(ExperimentDTO.builder().title("Load test "
+                + System.nanoTime()).description("load test").guiURL("scratch").active(true).build());
+        List<UserDTO> users = createParticipants(experiment.getId());
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        ScheduledExecutorService scheduler = Executors.newScheduledThreadPool(Math.min(threads, participants));
+        HttpClient client = HttpClient.newBuilder().executor(executor).connectTimeout(Duration.ofSeconds(10))
+                .build();
+        Queue<CompletableFuture<Void>> pending = new ConcurrentLinkedQueue<>();
+        long period = Math.max(1, Math.round(1_000_000 / rate));
+        long start = System.nanoTime();
+
+        for (UserDTO user : users) {
+            Random random = new Random(user.getId());
+            AtomicInteger sequence = new AtomicInteger();
+            scheduler.scheduleAtFixedRate(() -> {
+                Map.Entry<String, String> event = generator.next(random, sequence.getAndIncrement(), user.getId(),
+                        experiment.getId(), user.getSecret());
+                pending.add(send(client, recorder, event.getKey(), event.getValue()));
+            }, random.nextLong(period), period, TimeUnit.MICROSECONDS);
+        }
+
+        scheduler.awaitTermination(duration, TimeUnit.SECONDS);
+        scheduler.shutdownNow();
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).get(1, TimeUnit.MINUTES);
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        executor.shutdownNow();
+        writeReport(recorder, seconds);
+        assertTrue(recorder.getErrorRate() <= maxErrorRate, "Error rate " + recorder.getErrorRate()
+                + " exceeds the maximum error rate " + maxErrorRate);
+    }
+
+    private List<UserDTO> createParticipants(final int experimentId) {
+        List<UserDTO> users = new ArrayList<>();
+
+        for (int i = 0; i < participants; i++) {
+            UserDTO userDTO = new UserDTO("load" + experimentId + "_" + i, null, Role.PARTICIPANT, Language.ENGLISH,
+                    null, Secrets.generateRandomBytes(Constants.SECRET_LENGTH));
+            userDTO.setActive(true);
+            UserDTO saved = userService.saveUser(userDTO);
+            participantService.saveParticipant(saved.getId(), experimentId);
+            users.add(saved);
+        }
+
+        return users;
+    }
+
+    private CompletableFuture<Void> send(final HttpClient client, final LatencyRecorder recorder,
+                                         final String endpoint, final String body) {
+        HttpRequest request = HttpRequest.newBuilder(URI.create("http://localhost:" + port + "/store/" + endpoint))
+                .header("Content-Type", "application/json").timeout(Duration.ofSeconds(30))
+                .POST(HttpRequest.BodyPublishers.ofString(body)).build();
+        long sent = System.nanoTime();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).handle((response, exception) -> {
+            if (exception == null && response.statusCode() < 400) {
+                recorder.recordSuccess(endpoint, System.nanoTime() - sent);
+            } else {
+                recorder.recordError(endpoint);
+            }
+
+            return null;
+        });
+    }
+
+    private void writeReport(final LatencyRecorder recorder, final double seconds) throws Exception {
+        Map<String, Object> content = new LinkedHashMap<>();
+        content.put("date", LocalDateTime.now().toString());
+        content.put("participants", participants);
+        content.put("rate", rate);
+        content.put("duration", seconds);
+        content.put("jsonSize", jsonSize);
+        content.put("recording", recording);
+        content.put("endpoints", recorder.createReport(seconds));
+        Path path = Paths.get(report);
+
+        if (path.getParent() != null) {
+            Files.createDirectories(path.getParent());
+        }
+
+        new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT).writeValue(path.toFile(), content);
+        LOGGER.info("Sent " + recorder.getRequests() + " requests in " + seconds + " seconds with error rate "
+                + recorder.getErrorRate() + ", report written to " + path.toAbsolutePath());
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityBucket;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.repository.ActivityBucketRepository;
+import fim.unipassau.de.scratchLog.util.enums.ActivityKind;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles({"test", "mysql"})
+public class ActivityBucketRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ActivityBucketRepository activityBucketRepository;
+
+    private static final long BUCKET = 100;
+    private Experiment experiment = new Experiment(null, "Experiment", "Description", "Some info", "Some postscript",
+            true, false, "url");
+
+    @BeforeEach
+    public void setup() {
+        experiment = entityManager.persist(experiment);
+        entityManager.flush();
+    }
+
+    @Test
+    public void testAddTotal() {
+        activityBucketRepository.addTotal(experiment.getId(), BUCKET + 1, ActivityKind.BLOCK.getCode(), 2);
+        activityBucketRepository.addTotal(experiment.getId(), BUCKET, ActivityKind.BLOCK.getCode(), 3);
+        activityBucketRepository.addTotal(experiment.getId(), BUCKET, ActivityKind.BLOCK.getCode(), 4);
+        activityBucketRepository.addTotal(experiment.getId(), BUCKET, ActivityKind.CLICK.getCode(), 5);
+        entityManager.clear();
+        List<ActivityBucket> buckets = activityBucketRepository.findAllByExperimentOrderByBucketAsc(
+                experiment.getId());
+        assertAll(
+                () -> assertEquals(3, buckets.size()),
+                () -> assertEquals(7, buckets.stream().filter(bucket -> bucket.getBucket() == BUCKET
+                        && bucket.getKind() == ActivityKind.BLOCK).findFirst().orElseThrow().getTotal()),
+                () -> assertEquals(5, buckets.stream().filter(bucket -> bucket.getKind() == ActivityKind.CLICK)
+                        .findFirst().orElseThrow().getTotal()),
+                () -> assertEquals(BUCKET + 1, buckets.get(2).getBucket())
+        );
+    }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.ActivityOpcode;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.repository.ActivityOpcodeRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles({"test", "mysql"})
+public class ActivityOpcodeRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ActivityOpcodeRepository activityOpcodeRepository;
+
+    private static final String MOVE = "motion_movesteps";
+    private static final String SAY = "looks_say";
+    private Experiment experiment = new Experiment(null, "Experiment", "Description", "Some info", "Some postscript",
+            true, false, "url");
+
+    @BeforeEach
+    public void setup() {
+        experiment = entityManager.persist(experiment);
+        entityManager.flush();
+    }
+
+    @Test
+    public void testAddTotal() {
+        activityOpcodeRepository.addTotal(experiment.getId(), MOVE, 2);
+        activityOpcodeRepository.addTotal(experiment.getId(), SAY, 3);
+        activityOpcodeRepository.addTotal(experiment.getId(), MOVE, 4);
+        entityManager.clear();
+        List<ActivityOpcode> opcodes = activityOpcodeRepository.findAllByExperimentOrderByTotalDesc(
+                experiment.getId(), PageRequest.of(0, 10));
+        assertAll(
+                () -> assertEquals(2, opcodes.size()),
+                () -> assertEquals(MOVE, opcodes.get(0).getOpcode()),
+                () -> assertEquals(6, opcodes.get(0).getTotal()),
+                () -> assertEquals(SAY, opcodes.get(1).getOpcode()),
+                () -> assertEquals(3, opcodes.get(1).getTotal())
+        );
+    }
+
+    @Test
+    public void testAddTotalLimit() {
+        activityOpcodeRepository.addTotal(experiment.getId(), MOVE, 2);
+        activityOpcodeRepository.addTotal(experiment.getId(), SAY, 3);
+        entityManager.clear();
+        List<ActivityOpcode> opcodes = activityOpcodeRepository.findAllByExperimentOrderByTotalDesc(
+                experiment.getId(), PageRequest.of(0, 1));
+        assertAll(
+                () -> assertEquals(1, opcodes.size()),
+                () -> assertEquals(SAY, opcodes.get(0).getOpcode())
+        );
+    }
+
+}
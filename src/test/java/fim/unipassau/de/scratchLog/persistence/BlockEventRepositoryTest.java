@@ -0,0 +1,134 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.BlockEvent;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.projection.EventTimeProjection;
+import fim.unipassau.de.scratchLog.persistence.repository.BlockEventRepository;
+import fim.unipassau.de.scratchLog.util.enums.BlockEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.BlockEventType;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles({"test", "mysql"})
+public class BlockEventRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private BlockEventRepository blockEventRepository;
+
+    private static final LocalDateTime START = LocalDateTime.of(1970, 1, 1, 0, 0);
+    private static final LocalDateTime DATE = LocalDateTime.now().withNano(0);
+    private static final String GUI_URL = "scratch";
+    private User user1 = new User("participant1", "part1@part.de", Role.PARTICIPANT, Language.GERMAN, "password",
+            "secret1");
+    private User user2 = new User("participant2", "part2@part.de", Role.PARTICIPANT, Language.GERMAN, "password",
+            "secret2");
+    private Experiment experiment1 = new Experiment(null, "experiment1", "description", "info", "postscript", true,
+            false, GUI_URL);
+    private Experiment experiment2 = new Experiment(null, "experiment2", "description", "info", "postscript", true,
+            false, GUI_URL);
+    private BlockEvent blockEvent1;
+    private BlockEvent blockEvent2;
+    private BlockEvent blockEvent3;
+    private BlockEvent blockEvent4;
+
+    @BeforeEach
+    public void setup() {
+        user1.setLastLogin(DATE);
+        user2.setLastLogin(DATE);
+        user1 = entityManager.persist(user1);
+        user2 = entityManager.persist(user2);
+        experiment1 = entityManager.persist(experiment1);
+        experiment2 = entityManager.persist(experiment2);
+        blockEvent1 = entityManager.persist(createEvent(user1, experiment1, DATE.plusMinutes(1)));
+        blockEvent2 = entityManager.persist(createEvent(user1, experiment1, DATE));
+        blockEvent3 = entityManager.persist(createEvent(user1, experiment1, DATE));
+        blockEvent4 = entityManager.persist(createEvent(user2, experiment1, DATE.minusMinutes(1)));
+        entityManager.persist(createEvent(user1, experiment2, DATE));
+        entityManager.flush();
+    }
+
+    @Test
+    public void testFindTimesAfter() {
+        List<EventTimeProjection> times = blockEventRepository.findTimesAfter(experiment1, user2.getId(), 0, START, 0,
+                PageRequest.of(0, 10));
+        assertAll(
+                () -> assertEquals(4, times.size()),
+                () -> assertEquals(blockEvent2.getId(), times.get(0).getId()),
+                () -> assertEquals(blockEvent3.getId(), times.get(1).getId()),
+                () -> assertEquals(blockEvent1.getId(), times.get(2).getId()),
+                () -> assertEquals(blockEvent4.getId(), times.get(3).getId()),
+                () -> assertEquals(user2.getId(), times.get(3).getUserId()),
+                () -> assertEquals(DATE.minusMinutes(1), times.get(3).getDate())
+        );
+    }
+
+    @Test
+    public void testFindTimesAfterLastReturned() {
+        List<EventTimeProjection> times = blockEventRepository.findTimesAfter(experiment1, user2.getId(),
+                user1.getId(), DATE, blockEvent2.getId(), PageRequest.of(0, 2));
+        assertAll(
+                () -> assertEquals(2, times.size()),
+                () -> assertEquals(blockEvent3.getId(), times.get(0).getId()),
+                () -> assertEquals(blockEvent1.getId(), times.get(1).getId())
+        );
+    }
+
+    @Test
+    public void testFindTimesAfterLastUser() {
+        List<EventTimeProjection> times = blockEventRepository.findTimesAfter(experiment1, user1.getId(), 0, START, 0,
+                PageRequest.of(0, 10));
+        assertAll(
+                () -> assertEquals(3, times.size()),
+                () -> assertTrue(times.stream().allMatch(time -> time.getUserId().equals(user1.getId())))
+        );
+    }
+
+    @Test
+    public void testFindTimesAfterNone() {
+        assertTrue(blockEventRepository.findTimesAfter(experiment1, user2.getId(), user2.getId(), DATE,
+                blockEvent4.getId(), PageRequest.of(0, 10)).isEmpty());
+    }
+
+    private BlockEvent createEvent(final User user, final Experiment experiment, final LocalDateTime date) {
+        return new BlockEvent(user, experiment, date, BlockEventType.CREATE, BlockEventSpecific.CREATE, "Figur1",
+                null, null, null);
+    }
+
+}
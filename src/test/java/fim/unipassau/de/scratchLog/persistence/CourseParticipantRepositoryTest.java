@@ -32,9 +32,11 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
 @ActiveProfiles("test")
@@ -84,4 +86,15 @@ public class CourseParticipantRepositoryTest {
         );
     }
 
+    @Test
+    public void testFindUserIdsWithoutSecret() {
+        List<Integer> ids = repository.findUserIdsWithoutSecret(course1.getId());
+        assertAll(
+                () -> assertEquals(2, ids.size()),
+                () -> assertTrue(ids.containsAll(List.of(user1.getId(), user3.getId()))),
+                () -> assertEquals(List.of(user1.getId()), repository.findUserIdsWithoutSecret(course2.getId())),
+                () -> assertTrue(repository.findUserIdsWithoutSecret(course3.getId()).isEmpty())
+        );
+    }
+
 }
@@ -19,10 +19,15 @@
 package fim.unipassau.de.scratchLog.persistence;
 
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
+import fim.unipassau.de.scratchLog.persistence.entity.CourseExperiment;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.projection.CourseResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.CourseTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.TitleProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.CourseRepository;
+import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Language;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import org.junit.jupiter.api.BeforeEach;
@@ -39,6 +44,7 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -57,6 +63,7 @@ public class CourseRepositoryTest {
     private static final int LIMIT = 3;
     private static final int SEARCH_LIMIT = 5;
     private static final LocalDateTime DATE = LocalDateTime.now();
+    private static final LocalDateTime INACTIVE = DATE.minusDays(Constants.COURSE_INACTIVE_DAYS);
     private PageRequest pageRequest;
     private User user1 = new User("user1", "email1", Role.PARTICIPANT, Language.ENGLISH, "password", "secret1");
     private User user2 = new User("user2", "email2", Role.PARTICIPANT, Language.ENGLISH, "password", "secret2");
@@ -88,6 +95,44 @@ public class CourseRepositoryTest {
         participant5 = entityManager.persist(participant5);
     }
 
+    @Test
+    public void testFindInactiveCourseIds() {
+        Experiment experiment1 = entityManager.persist(new Experiment(null, "Experiment 1", "Description", "", "",
+                false, true, "scratch"));
+        Experiment experiment2 = entityManager.persist(new Experiment(null, "Experiment 2", "Description", "", "",
+                true, true, "scratch"));
+        entityManager.persist(new CourseExperiment(course1, experiment1, DATE));
+        entityManager.persist(new CourseExperiment(course2, experiment1, DATE));
+        entityManager.persist(new CourseExperiment(course2, experiment2, DATE));
+        entityManager.persist(new CourseExperiment(course4, experiment1, DATE));
+        List.of(course1, course2, course3, course4).forEach(course -> course.setActive(true));
+        course1.setLastChanged(INACTIVE.minusDays(1));
+        course2.setLastChanged(INACTIVE.minusDays(1));
+        course3.setLastChanged(INACTIVE.minusDays(1));
+        entityManager.flush();
+        assertEquals(List.of(course1.getId()), courseRepository.findInactiveCourseIds(INACTIVE));
+    }
+
+    @Test
+    public void testFindInactiveCourseIdsNone() {
+        assertTrue(courseRepository.findInactiveCourseIds(INACTIVE).isEmpty());
+    }
+
+    @Test
+    public void testDeactivateCourses() {
+        course1.setActive(true);
+        course2.setActive(true);
+        entityManager.flush();
+        int deactivated = courseRepository.deactivateCourses(List.of(course1.getId()));
+        entityManager.refresh(course1);
+        entityManager.refresh(course2);
+        assertAll(
+                () -> assertEquals(1, deactivated),
+                () -> assertFalse(course1.isActive()),
+                () -> assertTrue(course2.isActive())
+        );
+    }
+
     @Test
     public void testFindCourseSuggestions() {
         List<CourseTableProjection> projections = courseRepository.findCourseSuggestions(SHORT_QUERY, SEARCH_LIMIT);
@@ -120,58 +165,28 @@ public class CourseRepositoryTest {
     }
 
     @Test
-    public void testFindCourseResults() {
-        List<CourseTableProjection> projections = courseRepository.findCourseResults(SHORT_QUERY, LIMIT, 0);
-        assertAll(
-                () -> assertEquals(3, projections.size()),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course1.getTitle()))),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course2.getTitle()))),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course3.getTitle())))
-        );
-    }
-
-    @Test
-    public void testFindCourseResultsAll() {
-        List<CourseTableProjection> projections = courseRepository.findCourseResults(SHORT_QUERY, SEARCH_LIMIT, 0);
-        assertAll(
-                () -> assertEquals(4, projections.size()),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course1.getTitle()))),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course2.getTitle()))),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course3.getTitle()))),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course4.getTitle())))
-        );
-    }
-
-    @Test
-    public void testFindCourseResultsOffset() {
-        List<CourseTableProjection> projections = courseRepository.findCourseResults(SHORT_QUERY, LIMIT, 2);
+    public void testFindCourseResultPageAndResultsAfter() {
+        List<CourseResultProjection> page = courseRepository.findCourseResultPage(SHORT_QUERY, 2);
+        List<CourseTableProjection> courses = courseRepository.findCourseResultsAfter(SHORT_QUERY, page.get(1).getId(),
+                LIMIT);
         assertAll(
-                () -> assertEquals(2, projections.size()),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course4.getTitle()))),
-                () -> assertTrue(projections.stream().anyMatch(projection
-                        -> projection.getTitle().equals(course3.getTitle())))
+                () -> assertEquals(2, page.size()),
+                () -> assertEquals(4, page.get(0).getTotal().intValue()),
+                () -> assertEquals(2, courses.size()),
+                () -> assertTrue(courses.stream().allMatch(course -> course.getId() > page.get(1).getId()))
         );
     }
 
     @Test
-    public void testFindCourseResultsNone() {
-        assertTrue(courseRepository.findCourseResults(SHORT_QUERY, LIMIT, 5).isEmpty());
-    }
-
-    @Test
-    public void testGetCourseResultsCount() {
+    public void testFindTitlesAfter() {
+        List<TitleProjection> page = courseRepository.findTitlesAfter(0, LIMIT);
+        List<TitleProjection> courses = courseRepository.findTitlesAfter(page.get(LIMIT - 1).getId(), LIMIT);
         assertAll(
-                () -> assertEquals(4, courseRepository.getCourseResultsCount(SHORT_QUERY)),
-                () -> assertEquals(1, courseRepository.getCourseResultsCount(TITLE_QUERY)),
-                () -> assertEquals(0, courseRepository.getCourseResultsCount(NO_RESULTS))
+                () -> assertEquals(LIMIT, page.size()),
+                () -> assertEquals(course1.getId(), page.get(0).getId()),
+                () -> assertEquals(course1.getTitle(), page.get(0).getTitle()),
+                () -> assertEquals(1, courses.size()),
+                () -> assertEquals(course4.getTitle(), courses.get(0).getTitle())
         );
     }
 
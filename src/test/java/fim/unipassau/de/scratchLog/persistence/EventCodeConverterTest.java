@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.converter.BlockEventSpecificConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.EventCodeConverter;
+import fim.unipassau.de.scratchLog.persistence.converter.ResourceEventTypeConverter;
+import fim.unipassau.de.scratchLog.util.enums.BlockEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.EventCode;
+import fim.unipassau.de.scratchLog.util.enums.ResourceEventType;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class EventCodeConverterTest {
+
+    private final BlockEventSpecificConverter blockEventSpecificConverter = new BlockEventSpecificConverter();
+    private final ResourceEventTypeConverter resourceEventTypeConverter = new ResourceEventTypeConverter();
+
+    @Test
+    public void testConvertToDatabaseColumn() {
+        assertAll(
+                () -> assertEquals((short) 5, blockEventSpecificConverter.convertToDatabaseColumn(
+                        BlockEventSpecific.CREATE)),
+                () -> assertEquals((short) 3, resourceEventTypeConverter.convertToDatabaseColumn(
+                        ResourceEventType.DELETE)),
+                () -> assertNull(blockEventSpecificConverter.convertToDatabaseColumn(null))
+        );
+    }
+
+    @Test
+    public void testConvertToEntityAttribute() {
+        for (BlockEventSpecific event : BlockEventSpecific.values()) {
+            assertEquals(event, blockEventSpecificConverter.convertToEntityAttribute(
+                    blockEventSpecificConverter.convertToDatabaseColumn(event)));
+        }
+
+        assertNull(resourceEventTypeConverter.convertToEntityAttribute(null));
+    }
+
+    @Test
+    public void testConvertToEntityAttributeUnknownCode() {
+        assertThrows(IllegalArgumentException.class,
+                () -> resourceEventTypeConverter.convertToEntityAttribute((short) 0)
+        );
+    }
+
+    @Test
+    public void testDuplicateCode() {
+        assertThrows(IllegalStateException.class,
+                () -> new EventCodeConverter<DuplicateCode>(DuplicateCode.class) { }
+        );
+    }
+
+    private enum DuplicateCode implements EventCode {
+
+        FIRST,
+
+        SECOND;
+
+        @Override
+        public short getCode() {
+            return 1;
+        }
+
+    }
+
+}
@@ -29,7 +29,12 @@ import fim.unipassau.de.scratchLog.util.enums.BlockEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.BlockEventType;
 import fim.unipassau.de.scratchLog.util.enums.ClickEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.ClickEventType;
+import fim.unipassau.de.scratchLog.util.enums.DebuggerEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.DebuggerEventType;
+import fim.unipassau.de.scratchLog.util.enums.EventCode;
 import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.QuestionEventSpecific;
+import fim.unipassau.de.scratchLog.util.enums.QuestionEventType;
 import fim.unipassau.de.scratchLog.util.enums.ResourceEventSpecific;
 import fim.unipassau.de.scratchLog.util.enums.ResourceEventType;
 import fim.unipassau.de.scratchLog.util.enums.Role;
@@ -41,7 +46,9 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDateTime;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
@@ -198,4 +205,26 @@ public class EventCountRepositoryTest {
         List<EventCount> eventCounts = eventCountRepository.findAllResourceEventsByExperiment(experiment1.getId());
         assertEquals(3, eventCounts.size());
     }
+
+    @Test
+    public void testEventCodesMatchLookupTable() {
+        Set<String> expected = new HashSet<>();
+        List<Class<? extends EventCode>> types = List.of(BlockEventType.class, BlockEventSpecific.class,
+                ClickEventType.class, ClickEventSpecific.class, DebuggerEventType.class, DebuggerEventSpecific.class,
+                QuestionEventType.class, QuestionEventSpecific.class, ResourceEventType.class,
+                ResourceEventSpecific.class);
+        types.forEach(type -> {
+            for (EventCode constant : type.getEnumConstants()) {
+                expected.add(type.getSimpleName() + "_" + constant.getCode() + "_" + constant);
+            }
+        });
+        Set<String> actual = new HashSet<>();
+        List<?> rows = testEntityManager.getEntityManager().createNativeQuery(
+                "SELECT enum_type, code, name FROM event_code").getResultList();
+        rows.forEach(row -> {
+            Object[] values = (Object[]) row;
+            actual.add(values[0] + "_" + values[1] + "_" + values[2]);
+        });
+        assertEquals(expected, actual);
+    }
 }
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.Participant;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.EventKeyRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+@DataJpaTest
+@ActiveProfiles({"test", "mysql"})
+public class EventKeyRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private EventKeyRepository eventKeyRepository;
+
+    private static final long HASH = 42;
+    private static final LocalDateTime DATE = LocalDateTime.now();
+    private Experiment experiment = new Experiment(null, "Experiment", "Description", "Some info", "Some postscript",
+            true, false, "url");
+    private User user1 = new User("user1", "part1@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", "secret1");
+    private User user2 = new User("user2", "part2@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", "secret2");
+
+    @BeforeEach
+    public void setup() {
+        user1.setLastLogin(DATE);
+        user2.setLastLogin(DATE);
+        experiment = entityManager.persist(experiment);
+        user1 = entityManager.persist(user1);
+        user2 = entityManager.persist(user2);
+        entityManager.persist(new Participant(user1, experiment, DATE, null));
+        entityManager.persist(new Participant(user2, experiment, DATE, null));
+        entityManager.flush();
+    }
+
+    @Test
+    public void testInsertKey() {
+        assertAll(
+                () -> assertEquals(1, eventKeyRepository.insertKey(user1.getId(), experiment.getId(), HASH)),
+                () -> assertEquals(0, eventKeyRepository.insertKey(user1.getId(), experiment.getId(), HASH)),
+                () -> assertEquals(1, eventKeyRepository.insertKey(user1.getId(), experiment.getId(), HASH + 1)),
+                () -> assertEquals(1, eventKeyRepository.insertKey(user2.getId(), experiment.getId(), HASH)),
+                () -> assertEquals(3, eventKeyRepository.count())
+        );
+    }
+
+    @Test
+    public void testDeleteKeys() {
+        eventKeyRepository.insertKey(user1.getId(), experiment.getId(), HASH);
+        eventKeyRepository.insertKey(user1.getId(), experiment.getId(), HASH + 1);
+        eventKeyRepository.insertKey(user2.getId(), experiment.getId(), HASH);
+        assertAll(
+                () -> assertEquals(2, eventKeyRepository.deleteKeys(user1.getId(), experiment.getId())),
+                () -> assertEquals(1, eventKeyRepository.count()),
+                () -> assertEquals(1, eventKeyRepository.insertKey(user1.getId(), experiment.getId(), HASH))
+        );
+    }
+
+}
@@ -21,9 +21,14 @@ package fim.unipassau.de.scratchLog.persistence;
 import fim.unipassau.de.scratchLog.persistence.entity.Course;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseExperiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.ExperimentProject;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentResultProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.ExperimentTableProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.ExperimentVersionProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.TitleProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.ExperimentRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Language;
@@ -36,14 +41,18 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.test.context.ActiveProfiles;
+import org.springframework.util.DigestUtils;
 
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Objects;
+import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -63,6 +72,7 @@ public class ExperimentRepositoryTest {
     private static final int LIMIT = 5;
     private static final int SMALL_LIMIT = 2;
     private static final LocalDateTime DATE = LocalDateTime.now();
+    private static final LocalDateTime INACTIVE = DATE.minusDays(Constants.EXPERIMENT_INACTIVE_DAYS);
     private PageRequest pageRequest;
     private User user = new User("user", "email", Role.PARTICIPANT, Language.ENGLISH, "password", "secret");
     private Course course1 = new Course(null, "Course 1", "Description for my course", "No info", true,
@@ -125,6 +135,87 @@ public class ExperimentRepositoryTest {
         assertFalse(experiment2.isActive());
     }
 
+    @Test
+    public void testFindInactiveExperimentIds() {
+        experiment1.setActive(true);
+        experiment3.setActive(true);
+        experiment5.setActive(true);
+        participant1.setStart(INACTIVE.minusDays(1));
+        participant2.setStart(DATE);
+        participant2.setEnd(INACTIVE.minusDays(1));
+        participant3.setStart(DATE);
+        participant3.setEnd(DATE);
+        participant4.setStart(INACTIVE.minusDays(1));
+        entityManager.flush();
+        List<Integer> ids = repository.findInactiveExperimentIds(INACTIVE);
+        assertAll(
+                () -> assertEquals(2, ids.size()),
+                () -> assertTrue(ids.contains(experiment1.getId())),
+                () -> assertTrue(ids.contains(experiment2.getId()))
+        );
+    }
+
+    @Test
+    public void testFindInactiveExperimentIdsNoDates() {
+        assertTrue(repository.findInactiveExperimentIds(INACTIVE).isEmpty());
+    }
+
+    @Test
+    public void testDeactivateExperiments() {
+        int deactivated = repository.deactivateExperiments(List.of(experiment2.getId()));
+        entityManager.refresh(experiment2);
+        assertAll(
+                () -> assertEquals(1, deactivated),
+                () -> assertFalse(experiment2.isActive())
+        );
+    }
+
+    @Test
+    public void testFindExperimentById() {
+        byte[] content = new byte[]{1, 2, 3};
+        entityManager.persist(new ExperimentProject(experiment2, content));
+        Optional<ExperimentProjection> projection = repository.findExperimentById(experiment2.getId());
+        assertAll(
+                () -> assertTrue(projection.isPresent()),
+                () -> assertEquals(experiment2.getId(), projection.get().getId()),
+                () -> assertTrue(projection.get().isActive()),
+                () -> assertArrayEquals(content, projection.get().getProject())
+        );
+    }
+
+    @Test
+    public void testFindExperimentByIdNoProject() {
+        Optional<ExperimentProjection> projection = repository.findExperimentById(experiment1.getId());
+        assertAll(
+                () -> assertTrue(projection.isPresent()),
+                () -> assertFalse(projection.get().isActive()),
+                () -> assertNull(projection.get().getProject())
+        );
+    }
+
+    @Test
+    public void testFindExperimentVersionById() {
+        byte[] content = new byte[]{1, 2, 3};
+        entityManager.persist(new ExperimentProject(experiment2, content));
+        Optional<ExperimentVersionProjection> projection = repository.findExperimentVersionById(experiment2.getId());
+        assertAll(
+                () -> assertTrue(projection.isPresent()),
+                () -> assertEquals(experiment2.getId(), projection.get().getId()),
+                () -> assertTrue(projection.get().isActive()),
+                () -> assertEquals(DigestUtils.md5DigestAsHex(content), projection.get().getHash())
+        );
+    }
+
+    @Test
+    public void testFindExperimentVersionByIdNoProject() {
+        Optional<ExperimentVersionProjection> projection = repository.findExperimentVersionById(experiment1.getId());
+        assertAll(
+                () -> assertTrue(projection.isPresent()),
+                () -> assertFalse(projection.get().isActive()),
+                () -> assertNull(projection.get().getHash())
+        );
+    }
+
     @Test
     public void testFindExperimentSuggestions() {
         List<ExperimentTableProjection> experiments = repository.findExperimentSuggestions(SHORT_QUERY, LIMIT);
@@ -221,82 +312,43 @@ public class ExperimentRepositoryTest {
     }
 
     @Test
-    public void testFindExperimentResults() {
-        List<ExperimentTableProjection> experiments = repository.findExperimentResults(SHORT_QUERY, LIMIT, 0);
-        assertAll(
-                () -> assertEquals(5, experiments.size()),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment1.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment2.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment3.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment4.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment5.getTitle())))
-        );
+    public void testFindExperimentResultsNoResults() {
+        assertTrue(repository.findExperimentSuggestions(NO_RESULTS, LIMIT).isEmpty());
     }
 
     @Test
-    public void testFindExperimentResultsOffset() {
-        List<ExperimentTableProjection> experiments = repository.findExperimentResults(SHORT_QUERY, LIMIT, 2);
+    public void testFindExperimentResultPage() {
+        List<ExperimentResultProjection> experiments = repository.findExperimentResultPage(SHORT_QUERY, LIMIT);
         assertAll(
-                () -> assertEquals(4, experiments.size()),
-                () -> assertFalse(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment1.getTitle()))),
-                () -> assertFalse(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment2.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment3.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment4.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment5.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment6.getTitle())))
+                () -> assertEquals(5, experiments.size()),
+                () -> assertTrue(experiments.stream().allMatch(experiment -> experiment.getTotal() == 6)),
+                () -> assertTrue(repository.findExperimentResultPage(NO_RESULTS, LIMIT).isEmpty())
         );
     }
 
     @Test
-    public void testFindExperimentResultsAll() {
-        List<ExperimentTableProjection> experiments = repository.findExperimentResults(SHORT_QUERY,
-                Constants.PAGE_SIZE, 0);
+    public void testFindExperimentResultsAfter() {
+        List<ExperimentResultProjection> page = repository.findExperimentResultPage(SHORT_QUERY, LIMIT);
+        List<ExperimentTableProjection> experiments = repository.findExperimentResultsAfter(SHORT_QUERY,
+                page.get(LIMIT - 1).getId(), LIMIT);
         assertAll(
-                () -> assertEquals(6, experiments.size()),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment1.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment2.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment3.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment4.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment5.getTitle()))),
-                () -> assertTrue(experiments.stream().anyMatch(experiment
-                        -> experiment.getTitle().equals(experiment6.getTitle())))
+                () -> assertEquals(1, experiments.size()),
+                () -> assertTrue(experiments.get(0).getId() > page.get(LIMIT - 1).getId())
         );
     }
 
     @Test
-    public void testFindExperimentResultsNoResults() {
-        assertTrue(repository.findExperimentSuggestions(NO_RESULTS, LIMIT).isEmpty());
-    }
-
-    @Test
-    public void testGetExperimentResultCount() {
-        assertEquals(6, repository.getExperimentResultsCount(SHORT_QUERY));
-    }
-
-    @Test
-    public void testGetExperimentResultCount4() {
-        assertEquals(4, repository.getExperimentResultsCount(TITLE_QUERY));
-    }
-
-    @Test
-    public void testGetExperimentResultCountZero() {
-        assertEquals(0, repository.getExperimentResultsCount(NO_RESULTS));
+    public void testFindTitlesAfter() {
+        List<TitleProjection> page = repository.findTitlesAfter(0, SMALL_LIMIT);
+        List<TitleProjection> experiments = repository.findTitlesAfter(experiment2.getId(), LIMIT);
+        assertAll(
+                () -> assertEquals(SMALL_LIMIT, page.size()),
+                () -> assertEquals(experiment1.getId(), page.get(0).getId()),
+                () -> assertEquals(experiment1.getTitle(), page.get(0).getTitle()),
+                () -> assertEquals(4, experiments.size()),
+                () -> assertEquals(experiment3.getId(), experiments.get(0).getId()),
+                () -> assertEquals(experiment6.getTitle(), experiments.get(3).getTitle())
+        );
     }
 
     @Test
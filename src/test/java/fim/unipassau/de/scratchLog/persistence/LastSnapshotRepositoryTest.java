@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.LastSnapshot;
+import fim.unipassau.de.scratchLog.persistence.entity.Participant;
+import fim.unipassau.de.scratchLog.persistence.entity.ParticipantId;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.LastSnapshotRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles({"test", "mysql"})
+public class LastSnapshotRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private LastSnapshotRepository lastSnapshotRepository;
+
+    private static final String JSON = "json";
+    private static final String NEW_JSON = "new";
+    private static final LocalDateTime DATE = LocalDateTime.now().withNano(0);
+    private Experiment experiment = new Experiment(null, "Experiment", "Description", "Some info", "Some postscript",
+            true, false, "url");
+    private User user = new User("user", "part@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", "secret");
+    private ParticipantId participantId;
+
+    @BeforeEach
+    public void setup() {
+        user.setLastLogin(DATE);
+        experiment = entityManager.persist(experiment);
+        user = entityManager.persist(user);
+        entityManager.persist(new Participant(user, experiment, DATE, null));
+        entityManager.flush();
+        participantId = new ParticipantId(user.getId(), experiment.getId());
+    }
+
+    @Test
+    public void testSaveIfNewer() {
+        lastSnapshotRepository.saveIfNewer(user.getId(), experiment.getId(), DATE, JSON);
+        entityManager.clear();
+        Optional<LastSnapshot> snapshot = lastSnapshotRepository.findById(participantId);
+        assertAll(
+                () -> assertTrue(snapshot.isPresent()),
+                () -> assertEquals(JSON, snapshot.get().getCode()),
+                () -> assertEquals(DATE, snapshot.get().getDate())
+        );
+    }
+
+    @Test
+    public void testSaveIfNewerReplacesOlder() {
+        lastSnapshotRepository.saveIfNewer(user.getId(), experiment.getId(), DATE, JSON);
+        lastSnapshotRepository.saveIfNewer(user.getId(), experiment.getId(), DATE.plusMinutes(1), NEW_JSON);
+        entityManager.clear();
+        Optional<LastSnapshot> snapshot = lastSnapshotRepository.findById(participantId);
+        assertAll(
+                () -> assertTrue(snapshot.isPresent()),
+                () -> assertEquals(NEW_JSON, snapshot.get().getCode()),
+                () -> assertEquals(DATE.plusMinutes(1), snapshot.get().getDate())
+        );
+    }
+
+    @Test
+    public void testSaveIfNewerKeepsNewer() {
+        lastSnapshotRepository.saveIfNewer(user.getId(), experiment.getId(), DATE, JSON);
+        lastSnapshotRepository.saveIfNewer(user.getId(), experiment.getId(), DATE.minusMinutes(1), NEW_JSON);
+        entityManager.clear();
+        Optional<LastSnapshot> snapshot = lastSnapshotRepository.findById(participantId);
+        assertAll(
+                () -> assertTrue(snapshot.isPresent()),
+                () -> assertEquals(JSON, snapshot.get().getCode()),
+                () -> assertEquals(DATE, snapshot.get().getDate())
+        );
+    }
+
+    @Test
+    public void testFindDateByUserAndExperiment() {
+        lastSnapshotRepository.saveIfNewer(user.getId(), experiment.getId(), DATE, JSON);
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(Optional.of(DATE), lastSnapshotRepository.findDateByUserAndExperiment(user.getId(),
+                        experiment.getId())),
+                () -> assertTrue(lastSnapshotRepository.findDateByUserAndExperiment(user.getId(),
+                        experiment.getId() + 1).isEmpty())
+        );
+    }
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.OutboxMail;
+import fim.unipassau.de.scratchLog.persistence.repository.OutboxMailRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class OutboxMailRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private OutboxMailRepository outboxMailRepository;
+
+    private static final int LIMIT = 5;
+    private static final String CLAIM = "claim";
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+    private OutboxMail mail1 = createMail("email1", NOW.minusMinutes(2), false);
+    private OutboxMail mail2 = createMail("email2", NOW.minusMinutes(3), false);
+    private OutboxMail mail3 = createMail("email3", NOW.plusMinutes(1), false);
+    private OutboxMail mail4 = createMail("email4", NOW.minusMinutes(5), true);
+
+    @BeforeEach
+    public void setup() {
+        mail1 = entityManager.persist(mail1);
+        mail2 = entityManager.persist(mail2);
+        mail3 = entityManager.persist(mail3);
+        mail4 = entityManager.persist(mail4);
+    }
+
+    @Test
+    public void testFindDueMailIds() {
+        assertEquals(List.of(mail2.getId(), mail1.getId()), outboxMailRepository.findDueMailIds(NOW, LIMIT));
+    }
+
+    @Test
+    public void testFindDueMailIdsLimit() {
+        assertEquals(List.of(mail2.getId()), outboxMailRepository.findDueMailIds(NOW, 1));
+    }
+
+    @Test
+    public void testClaimMails() {
+        assertEquals(2, outboxMailRepository.claimMails(List.of(mail1.getId(), mail2.getId(), mail3.getId(),
+                mail4.getId()), CLAIM, NOW, NOW.plusMinutes(10)));
+        entityManager.clear();
+        List<OutboxMail> claimed = outboxMailRepository.findAllByClaim(CLAIM);
+        assertAll(
+                () -> assertEquals(2, claimed.size()),
+                () -> assertTrue(claimed.stream().allMatch(mail -> mail.getNextAttempt().equals(NOW.plusMinutes(10)))),
+                () -> assertTrue(outboxMailRepository.findDueMailIds(NOW, LIMIT).isEmpty()),
+                () -> assertEquals(3, outboxMailRepository.findDueMailIds(NOW.plusMinutes(10), LIMIT).size())
+        );
+    }
+
+    @Test
+    public void testClaimMailsClaimedAlready() {
+        outboxMailRepository.claimMails(List.of(mail1.getId()), CLAIM, NOW, NOW.plusMinutes(10));
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(0, outboxMailRepository.claimMails(List.of(mail1.getId()), "other", NOW,
+                        NOW.plusMinutes(10))),
+                () -> assertTrue(outboxMailRepository.findAllByClaim("other").isEmpty())
+        );
+    }
+
+    @Test
+    public void testCountByFailed() {
+        assertAll(
+                () -> assertEquals(3, outboxMailRepository.countByFailed(false)),
+                () -> assertEquals(1, outboxMailRepository.countByFailed(true))
+        );
+    }
+
+    @Test
+    public void testFindFirstByFailedFalseOrderByCreatedAsc() {
+        Optional<OutboxMail> mail = outboxMailRepository.findFirstByFailedFalseOrderByCreatedAsc();
+        assertAll(
+                () -> assertTrue(mail.isPresent()),
+                () -> assertEquals(mail2.getId(), mail.get().getId())
+        );
+    }
+
+    private OutboxMail createMail(final String recipient, final LocalDateTime time, final boolean failed) {
+        return OutboxMail.builder().recipient(recipient).subject("subject").template("template").model("{}")
+                .failed(failed).nextAttempt(time).created(time).build();
+    }
+
+}
@@ -0,0 +1,127 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Course;
+import fim.unipassau.de.scratchLog.persistence.entity.CourseExperiment;
+import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
+import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
+import fim.unipassau.de.scratchLog.persistence.entity.Participant;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.ParticipantRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class ParticipantRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ParticipantRepository participantRepository;
+
+    private static final LocalDateTime DATE = LocalDateTime.now();
+    private Course course1 = new Course(null, "Course 1", "Description 1", "", true, DATE);
+    private Course course2 = new Course(null, "Course 2", "Description 2", "", true, DATE);
+    private Experiment experiment1 = new Experiment(null, "Experiment 1", "Description for experiment 1", "Some info",
+            "Some postscript", true, true, "url");
+    private Experiment experiment2 = new Experiment(null, "Experiment 2", "Description for experiment 2", "Some info",
+            "Some postscript", true, true, "url");
+    private User user1 = new User("user1", "part1@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", null);
+    private User user2 = new User("user2", "part2@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", "secret2");
+    private User user3 = new User("user3", "part3@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", null);
+
+    @BeforeEach
+    public void setUp() {
+        user1.setLastLogin(DATE);
+        user2.setLastLogin(DATE);
+        user3.setLastLogin(DATE);
+        course1 = entityManager.persist(course1);
+        course2 = entityManager.persist(course2);
+        experiment1 = entityManager.persist(experiment1);
+        experiment2 = entityManager.persist(experiment2);
+        user1 = entityManager.persist(user1);
+        user2 = entityManager.persist(user2);
+        user3 = entityManager.persist(user3);
+        entityManager.persist(new CourseParticipant(user1, course1, DATE));
+        entityManager.persist(new CourseParticipant(user2, course1, DATE));
+        entityManager.persist(new CourseParticipant(user3, course2, DATE));
+        entityManager.persist(new CourseExperiment(course1, experiment1, DATE));
+        entityManager.persist(new CourseExperiment(course1, experiment2, DATE));
+        entityManager.persist(new Participant(user2, experiment1, DATE, null));
+        entityManager.flush();
+    }
+
+    @Test
+    public void testExistsCourseExperimentParticipant() {
+        assertAll(
+                () -> assertTrue(participantRepository.existsCourseExperimentParticipant(course1.getId(),
+                        user2.getId())),
+                () -> assertFalse(participantRepository.existsCourseExperimentParticipant(course1.getId(),
+                        user1.getId())),
+                () -> assertFalse(participantRepository.existsCourseExperimentParticipant(course2.getId(),
+                        user2.getId()))
+        );
+    }
+
+    @Test
+    public void testInsertCourseParticipants() {
+        assertEquals(1, participantRepository.insertCourseParticipants(course1.getId(), experiment1.getId()));
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(2, participantRepository.findAllByExperiment(experiment1).size()),
+                () -> assertTrue(participantRepository.existsByUserAndExperiment(user1, experiment1)),
+                () -> assertFalse(participantRepository.existsByUserAndExperiment(user3, experiment1))
+        );
+    }
+
+    @Test
+    public void testInsertCourseParticipantsNoParticipants() {
+        assertEquals(0, participantRepository.insertCourseParticipants(course2.getId() + 1, experiment2.getId()));
+    }
+
+    @Test
+    public void testInsertCourseExperimentParticipant() {
+        assertEquals(2, participantRepository.insertCourseExperimentParticipant(course1.getId(), user1.getId()));
+        assertEquals(1, participantRepository.insertCourseExperimentParticipant(course1.getId(), user2.getId()));
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(2, participantRepository.findAllByUser(user1).size()),
+                () -> assertEquals(2, participantRepository.findAllByUser(user2).size()),
+                () -> assertEquals(0, participantRepository.insertCourseExperimentParticipant(course2.getId(),
+                        user3.getId()))
+        );
+    }
+
+}
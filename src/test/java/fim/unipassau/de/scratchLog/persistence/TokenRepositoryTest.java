@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.persistence;
+
+import fim.unipassau.de.scratchLog.persistence.entity.Token;
+import fim.unipassau.de.scratchLog.persistence.entity.User;
+import fim.unipassau.de.scratchLog.persistence.repository.TokenRepository;
+import fim.unipassau.de.scratchLog.util.enums.Language;
+import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.util.enums.TokenType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@DataJpaTest
+@ActiveProfiles("test")
+public class TokenRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private TokenRepository tokenRepository;
+
+    private static final LocalDateTime NOW = LocalDateTime.now().withNano(0);
+    private static final PageRequest PAGE = PageRequest.of(0, 5);
+    private User user1 = new User("user1", "email1", Role.PARTICIPANT, Language.ENGLISH, "password", null);
+    private User user2 = new User("user2", "email2", Role.ADMIN, Language.ENGLISH, "password", null);
+    private User user3 = new User("user3", "email3", Role.ADMIN, Language.ENGLISH, "password", null);
+    private Token register1 = new Token(TokenType.REGISTER, NOW.minusHours(2), null, user1);
+    private Token register2 = new Token(TokenType.REGISTER, NOW.plusHours(1), null, user2);
+    private Token deactivated = new Token(TokenType.DEACTIVATED, NOW.minusHours(1), null, user3);
+    private Token email = new Token(TokenType.CHANGE_EMAIL, NOW.minusHours(3), "email", user2);
+
+    @BeforeEach
+    public void setup() {
+        user1.setLastLogin(NOW);
+        user2.setLastLogin(NOW);
+        user3.setLastLogin(NOW);
+        user1 = entityManager.persist(user1);
+        user2 = entityManager.persist(user2);
+        user3 = entityManager.persist(user3);
+        register1 = entityManager.persist(register1);
+        register2 = entityManager.persist(register2);
+        deactivated = entityManager.persist(deactivated);
+        email = entityManager.persist(email);
+    }
+
+    @Test
+    public void testFindUserIdsByDateBeforeAndType() {
+        assertAll(
+                () -> assertEquals(List.of(user1.getId()), tokenRepository.findUserIdsByDateBeforeAndType(NOW,
+                        TokenType.REGISTER, PAGE)),
+                () -> assertEquals(List.of(user3.getId()), tokenRepository.findUserIdsByDateBeforeAndType(NOW,
+                        TokenType.DEACTIVATED, PAGE)),
+                () -> assertTrue(tokenRepository.findUserIdsByDateBeforeAndType(NOW, TokenType.FORGOT_PASSWORD,
+                        PAGE).isEmpty())
+        );
+    }
+
+    @Test
+    public void testFindValuesByDateBefore() {
+        assertEquals(List.of(email.getValue(), register1.getValue(), deactivated.getValue()),
+                tokenRepository.findValuesByDateBefore(NOW, PAGE));
+    }
+
+    @Test
+    public void testFindValuesByDateBeforeLimit() {
+        assertEquals(List.of(email.getValue()), tokenRepository.findValuesByDateBefore(NOW, PageRequest.of(0, 1)));
+    }
+
+    @Test
+    public void testDeleteByValues() {
+        int deleted = tokenRepository.deleteByValues(List.of(register1.getValue(), email.getValue()));
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(2, deleted),
+                () -> assertNull(entityManager.find(Token.class, register1.getValue())),
+                () -> assertNull(entityManager.find(Token.class, email.getValue())),
+                () -> assertNotNull(entityManager.find(Token.class, register2.getValue()))
+        );
+    }
+
+    @Test
+    public void testDeleteByUsersAndDateBeforeAndType() {
+        int deleted = tokenRepository.deleteByUsersAndDateBeforeAndType(List.of(user1.getId(), user3.getId()), NOW,
+                TokenType.DEACTIVATED);
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(1, deleted),
+                () -> assertNull(entityManager.find(Token.class, deactivated.getValue())),
+                () -> assertNotNull(entityManager.find(Token.class, register1.getValue()))
+        );
+    }
+
+}
@@ -22,12 +22,15 @@ import fim.unipassau.de.scratchLog.persistence.entity.Course;
 import fim.unipassau.de.scratchLog.persistence.entity.CourseParticipant;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
+import fim.unipassau.de.scratchLog.persistence.entity.Token;
 import fim.unipassau.de.scratchLog.persistence.entity.User;
 import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
+import fim.unipassau.de.scratchLog.persistence.projection.UserResultProjection;
 import fim.unipassau.de.scratchLog.persistence.repository.UserRepository;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Language;
 import fim.unipassau.de.scratchLog.util.enums.Role;
+import fim.unipassau.de.scratchLog.util.enums.TokenType;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -42,6 +45,7 @@ import java.util.Optional;
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 @DataJpaTest
@@ -63,6 +67,7 @@ public class UserRepositoryTest {
     private static final String GUI_URL = "scratch";
     private static final int LIMIT = 5;
     private static final LocalDateTime DATE = LocalDateTime.now();
+    private static final LocalDateTime INACTIVE = DATE.minusDays(Constants.PARTICIPANT_INACTIVE_DAYS);
     private User user1 = new User(ADMIN1, "admin1@test.de", Role.ADMIN, Language.ENGLISH, "admin1", "secret1");
     private User user2 = new User("admin2", "admin2@test.com", Role.ADMIN, Language.ENGLISH, "admin2", "secret2");
     private User user3 = new User("user1", "part1@test.de", Role.PARTICIPANT, Language.ENGLISH, "user", null);
@@ -169,6 +174,37 @@ public class UserRepositoryTest {
         );
     }
 
+    @Test
+    public void testFindAllByUsernameInOrderById() {
+        List<User> users = userRepository.findAllByUsernameInOrderById(List.of(user4.getUsername(), ADMIN1,
+                ADMIN1 + 1));
+        assertAll(
+                () -> assertEquals(2, users.size()),
+                () -> assertEquals(user1.getId(), users.get(0).getId()),
+                () -> assertEquals(user4.getId(), users.get(1).getId())
+        );
+    }
+
+    @Test
+    public void testFindExistingUsernames() {
+        List<String> usernames = userRepository.findExistingUsernames(List.of(ADMIN1, user3.getUsername(),
+                ADMIN1 + 1));
+        assertAll(
+                () -> assertEquals(2, usernames.size()),
+                () -> assertTrue(usernames.contains(ADMIN1)),
+                () -> assertTrue(usernames.contains(user3.getUsername()))
+        );
+    }
+
+    @Test
+    public void testFindExistingEmails() {
+        List<String> emails = userRepository.findExistingEmails(List.of(user1.getEmail(), "none@test.de"));
+        assertAll(
+                () -> assertEquals(1, emails.size()),
+                () -> assertEquals(user1.getEmail(), emails.get(0))
+        );
+    }
+
     @Test
     public void testFindUserByRole() {
         List<User> admins = userRepository.findAllByRole(Role.ADMIN);
@@ -194,81 +230,46 @@ public class UserRepositoryTest {
     }
 
     @Test
-    public void testFindUserResults() {
-        List<UserProjection> users = userRepository.findUserResults(QUERY, Constants.PAGE_SIZE, 0);
+    public void testFindUserResultPage() {
+        List<UserResultProjection> users = userRepository.findUserResultPage(QUERY, Constants.PAGE_SIZE);
         assertAll(
                 () -> assertEquals(10, users.size()),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user1.getUsername())))
+                () -> assertTrue(users.stream().allMatch(user -> user.getTotal() == 17)),
+                () -> assertEquals(user1.getUsername(), users.get(0).getUsername())
         );
     }
 
     @Test
-    public void testFindUserResultsOffset() {
-        List<UserProjection> users = userRepository.findUserResults(QUERY, Constants.PAGE_SIZE, 2);
-        assertAll(
-                () -> assertEquals(10, users.size()),
-                () -> assertFalse(users.stream().anyMatch(user -> user.getUsername().equals(user1.getUsername()))),
-                () -> assertFalse(users.stream().anyMatch(user -> user.getUsername().equals(user2.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user3.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user4.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user5.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user6.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user7.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user8.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user9.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user10.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user11.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user12.getUsername())))
-        );
+    public void testFindUserResultPageNone() {
+        assertTrue(userRepository.findUserResultPage(LANGUAGE, Constants.PAGE_SIZE).isEmpty());
     }
 
     @Test
-    public void testFindUserResultsAll() {
-        List<UserProjection> users = userRepository.findUserResults(QUERY, 20, 0);
+    public void testFindUserResultsAfter() {
+        List<UserResultProjection> page = userRepository.findUserResultPage(QUERY, Constants.PAGE_SIZE);
+        List<UserProjection> users = userRepository.findUserResultsAfter(QUERY, page.get(9).getId(),
+                Constants.PAGE_SIZE);
         assertAll(
-                () -> assertEquals(17, users.size()),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user1.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user2.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user3.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user4.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user5.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user6.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user7.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user8.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user9.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user10.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user11.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user12.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user13.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user14.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user15.getUsername()))),
-                () -> assertTrue(users.stream().anyMatch(user -> user.getUsername().equals(user16.getUsername())))
+                () -> assertEquals(7, users.size()),
+                () -> assertTrue(users.stream().allMatch(user -> user.getId() > page.get(9).getId())),
+                () -> assertTrue(userRepository.findUserResultsAfter(QUERY, users.get(6).getId(),
+                        Constants.PAGE_SIZE).isEmpty())
         );
     }
 
     @Test
-    public void testFindUserResultsEmpty() {
-        assertTrue(userRepository.findUserResults(LANGUAGE, Constants.PAGE_SIZE, 0).isEmpty());
-    }
-
-    @Test
-    public void testGetUserResultCount() {
-        assertEquals(17, userRepository.getUserResultsCount(QUERY));
-    }
-
-    @Test
-    public void testGetUserResultCountUser() {
-        assertEquals(7, userRepository.getUserResultsCount(USERNAME_SEARCH));
-    }
-
-    @Test
-    public void testGetUserResultCountAdmin() {
-        assertEquals(1, userRepository.getUserResultsCount(ADMIN1));
-    }
-
-    @Test
-    public void testGetUserResultCountZero() {
-        assertEquals(0, userRepository.getUserResultsCount(LANGUAGE));
+    public void testFindUsersAfter() {
+        List<UserProjection> page = userRepository.findUsersAfter(0, LIMIT);
+        List<UserProjection> users = userRepository.findUsersAfter(page.get(LIMIT - 1).getId(), Constants.PAGE_SIZE);
+        assertAll(
+                () -> assertEquals(LIMIT, page.size()),
+                () -> assertEquals(user1.getId(), page.get(0).getId()),
+                () -> assertEquals(ADMIN1, page.get(0).getUsername()),
+                () -> assertEquals(user1.getEmail(), page.get(0).getEmail()),
+                () -> assertEquals(user6.getId(), users.get(0).getId()),
+                () -> assertEquals(user17.getId(), users.get(users.size() - 1).getId()),
+                () -> assertTrue(userRepository.findUsersAfter(user17.getId(), LIMIT).isEmpty())
+        );
     }
 
     @Test
@@ -442,6 +443,68 @@ public class UserRepositoryTest {
         );
     }
 
+    @Test
+    public void testFindInactiveParticipantIds() {
+        setInactiveUsers();
+        List<Integer> ids = userRepository.findInactiveParticipantIds(INACTIVE, LIMIT);
+        assertEquals(List.of(user4.getId(), user5.getId()), ids);
+    }
+
+    @Test
+    public void testFindInactiveParticipantIdsLimit() {
+        setInactiveUsers();
+        assertEquals(List.of(user4.getId()), userRepository.findInactiveParticipantIds(INACTIVE, 1));
+    }
+
+    @Test
+    public void testFindInactiveParticipantIdsNone() {
+        assertTrue(userRepository.findInactiveParticipantIds(INACTIVE, LIMIT).isEmpty());
+    }
+
+    @Test
+    public void testDeactivateUsers() {
+        user4.setActive(true);
+        entityManager.flush();
+        int deactivated = userRepository.deactivateUsers(List.of(user4.getId(), user5.getId()));
+        entityManager.clear();
+        User found = entityManager.find(User.class, user4.getId());
+        assertAll(
+                () -> assertEquals(2, deactivated),
+                () -> assertFalse(found.isActive()),
+                () -> assertNull(found.getSecret()),
+                () -> assertEquals(user1.getSecret(), entityManager.find(User.class, user1.getId()).getSecret())
+        );
+    }
+
+    @Test
+    public void testReactivateUsers() {
+        user4.setAttempts(3);
+        entityManager.flush();
+        int reactivated = userRepository.reactivateUsers(List.of(user4.getId()));
+        entityManager.clear();
+        User found = entityManager.find(User.class, user4.getId());
+        assertAll(
+                () -> assertEquals(1, reactivated),
+                () -> assertTrue(found.isActive()),
+                () -> assertEquals(0, found.getAttempts()),
+                () -> assertFalse(entityManager.find(User.class, user5.getId()).isActive())
+        );
+    }
+
+    @Test
+    public void testDeleteUsers() {
+        Token token = entityManager.persist(new Token(TokenType.REGISTER, DATE, null, user3));
+        int deleted = userRepository.deleteUsers(List.of(user3.getId(), user4.getId()));
+        entityManager.clear();
+        assertAll(
+                () -> assertEquals(2, deleted),
+                () -> assertNull(entityManager.find(User.class, user3.getId())),
+                () -> assertNull(entityManager.find(User.class, user4.getId())),
+                () -> assertNull(entityManager.find(Token.class, token.getValue())),
+                () -> assertTrue(userRepository.existsByUsername(user5.getUsername()))
+        );
+    }
+
     @Test
     public void testFindLastUsernameAddUser() {
         String username = "user18";
@@ -456,4 +519,14 @@ public class UserRepositoryTest {
         );
     }
 
+    private void setInactiveUsers() {
+        LocalDateTime lastLogin = INACTIVE.minusDays(1);
+        user1.setLastLogin(lastLogin);
+        user4.setLastLogin(lastLogin);
+        user5.setLastLogin(lastLogin);
+        user5.setActive(true);
+        user7.setLastLogin(lastLogin);
+        entityManager.flush();
+    }
+
 }
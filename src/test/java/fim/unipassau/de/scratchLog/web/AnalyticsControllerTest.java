@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web;
+
+import fim.unipassau.de.scratchLog.application.exception.IncompleteDataException;
+import fim.unipassau.de.scratchLog.application.service.AnalyticsService;
+import fim.unipassau.de.scratchLog.util.Constants;
+import fim.unipassau.de.scratchLog.web.controller.AnalyticsController;
+import fim.unipassau.de.scratchLog.web.dto.AnalyticsDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ui.Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AnalyticsControllerTest {
+
+    @InjectMocks
+    private AnalyticsController analyticsController;
+
+    @Mock
+    private AnalyticsService analyticsService;
+
+    @Mock
+    private Model model;
+
+    private static final String ANALYTICS = "analytics";
+    private static final String ID_STRING = "1";
+    private static final int ID = 1;
+    private final AnalyticsDTO analyticsDTO = AnalyticsDTO.builder().experiment(ID).build();
+
+    @Test
+    public void testGetAnalytics() {
+        when(analyticsService.getAnalytics(ID)).thenReturn(analyticsDTO);
+        assertEquals(ANALYTICS, analyticsController.getAnalytics(ID_STRING, model));
+        verify(model).addAttribute(ANALYTICS, analyticsDTO);
+    }
+
+    @Test
+    public void testGetAnalyticsInvalidId() {
+        assertEquals(Constants.ERROR, analyticsController.getAnalytics("0", model));
+        verify(analyticsService, never()).getAnalytics(anyInt());
+        verify(model, never()).addAttribute(anyString(), any());
+    }
+
+    @Test
+    public void testGetAnalyticsData() {
+        when(analyticsService.getAnalytics(ID)).thenReturn(analyticsDTO);
+        assertEquals(analyticsDTO, analyticsController.getAnalyticsData(ID_STRING));
+    }
+
+    @Test
+    public void testGetAnalyticsDataInvalidId() {
+        assertThrows(IncompleteDataException.class,
+                () -> analyticsController.getAnalyticsData("id")
+        );
+        verify(analyticsService, never()).getAnalytics(anyInt());
+    }
+
+}
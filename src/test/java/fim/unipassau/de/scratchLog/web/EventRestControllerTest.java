@@ -19,12 +19,15 @@
 package fim.unipassau.de.scratchLog.web;
 
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
-import fim.unipassau.de.scratchLog.persistence.projection.ExperimentProjection;
 import fim.unipassau.de.scratchLog.web.controller.EventRestController;
+import fim.unipassau.de.scratchLog.web.dto.ExperimentProjectDTO;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
@@ -36,15 +39,20 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpHeaders;
 
 import java.io.IOException;
 
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -66,11 +74,18 @@ public class EventRestControllerTest {
     @Mock
     private ParticipantService participantService;
 
+    @Mock
+    private EventSpoolService eventSpoolService;
+
+    @Mock
+    private AdmissionService admissionService;
+
     @Mock
     private HttpServletResponse httpServletResponse;
 
     private static final String JSON = "json";
     private static final String SECRET = "secret";
+    private static final String VERSION = "\"39-version\"";
     private static final int USER_ID = 3;
     private static final int Experiment_ID = 39;
     private final JSONObject blockEventObject = new JSONObject();
@@ -81,22 +96,8 @@ public class EventRestControllerTest {
     private final JSONObject fileEventObject = new JSONObject();
     private final JSONObject sb3ZipObject = new JSONObject();
     private final JSONObject dataObject = new JSONObject();
-    private final ExperimentProjection experimentProjection = new ExperimentProjection() {
-        @Override
-        public Integer getId() {
-            return 1;
-        }
-
-        @Override
-        public boolean isActive() {
-            return true;
-        }
-
-        @Override
-        public byte[] getProject() {
-            return new byte[]{1, 2, 3};
-        }
-    };
+    private final ExperimentProjectDTO experimentProjectDTO = new ExperimentProjectDTO(Experiment_ID,
+            new byte[]{1, 2, 3}, VERSION);
 
     @BeforeEach
     public void setup() throws JSONException {
@@ -177,6 +178,150 @@ public class EventRestControllerTest {
         verify(eventService).saveBlockEvent(any());
     }
 
+    @Test
+    public void testStoreBlockEventRateLimited() {
+        doThrow(RateLimitException.class).when(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        assertThrows(RateLimitException.class,
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(eventSpoolService, never()).append(anyString(), anyString());
+        verify(eventService, never()).saveBlockEvent(any());
+        verify(admissionService).release(anyLong());
+    }
+
+    @Test
+    public void testStoreBlockEventSpooledRateLimited() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(participantService.isVerifiedParticipant(USER_ID, Experiment_ID, SECRET)).thenReturn(true);
+        doThrow(RateLimitException.class).when(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        assertThrows(RateLimitException.class,
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(eventSpoolService, never()).append(anyString(), anyString());
+    }
+
+    @Test
+    public void testStoreBlockEventInvalidParticipantNotRateLimited() {
+        when(participantService.isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true)).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(admissionService, never()).checkRate(anyString(), anyInt(), anyInt());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventConcurrencyLimited() {
+        doThrow(RateLimitException.class).when(admissionService).acquire();
+        assertThrows(RateLimitException.class,
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(participantService, never()).isInvalidParticipant(anyInt(), anyInt(), anyString(), anyBoolean());
+        verify(admissionService, never()).release(anyLong());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventReleasesPermit() {
+        doThrow(IllegalStateException.class).when(eventService).saveBlockEvent(any());
+        assertThrows(IllegalStateException.class,
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(admissionService).acquire();
+        verify(admissionService).release(anyLong());
+    }
+
+    @Test
+    public void testStoreBlockEventSpooled() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(participantService.isVerifiedParticipant(USER_ID, Experiment_ID, SECRET)).thenReturn(true);
+        when(eventSpoolService.append("block", blockEventObject.toString())).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        verify(participantService, never()).isInvalidParticipant(anyInt(), anyInt(), anyString(), anyBoolean());
+        verify(admissionService, never()).acquire();
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventSpooledUnverifiedParticipant() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(eventSpoolService.append("block", blockEventObject.toString())).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
+        verify(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        verify(admissionService).acquire();
+        verify(admissionService).release(anyLong());
+        verify(eventSpoolService).append("block", blockEventObject.toString());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventSpooledUnverifiedParticipantRateLimited() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        doThrow(RateLimitException.class).when(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        assertThrows(RateLimitException.class,
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
+        verify(eventSpoolService, never()).append(anyString(), anyString());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventSpooledInvalidParticipant() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(participantService.isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true)).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(eventSpoolService, never()).append(anyString(), anyString());
+        verify(admissionService, never()).checkRate(anyString(), anyInt(), anyInt());
+        verify(admissionService).release(anyLong());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventSpooledUnverifiedParticipantConcurrencyLimited() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        doThrow(RateLimitException.class).when(admissionService).acquire();
+        assertThrows(RateLimitException.class,
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(participantService, never()).isInvalidParticipant(anyInt(), anyInt(), anyString(), anyBoolean());
+        verify(eventSpoolService, never()).append(anyString(), anyString());
+    }
+
+    @Test
+    public void testStoreBlockEventSpoolFull() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(participantService.isVerifiedParticipant(USER_ID, Experiment_ID, SECRET)).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        verify(participantService, never()).isInvalidParticipant(anyInt(), anyInt(), anyString(), anyBoolean());
+        verify(admissionService).acquire();
+        verify(eventService).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testStoreBlockEventSpoolFullUnverifiedParticipant() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeBlockEvent(blockEventObject.toString())
+        );
+        verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
+        verify(admissionService).checkRate("block", USER_ID, Experiment_ID);
+        verify(eventSpoolService).append("block", blockEventObject.toString());
+        verify(admissionService, times(2)).acquire();
+        verify(eventService).saveBlockEvent(any());
+    }
+
     @Test
     public void testStoreBlockEventInvalidParticipant() {
         when(participantService.isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true)).thenReturn(true);
@@ -351,6 +496,18 @@ public class EventRestControllerTest {
         verify(fileService).saveSb3Zip(any());
     }
 
+    @Test
+    public void testStoreZipFileSpooled() {
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(eventSpoolService.append("zip", sb3ZipObject.toString())).thenReturn(true);
+        assertDoesNotThrow(
+                () -> eventRestController.storeZipFile(sb3ZipObject.toString())
+        );
+        verify(participantService).isVerifiedParticipant(USER_ID, Experiment_ID, SECRET);
+        verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
+        verify(fileService, never()).saveSb3Zip(any());
+    }
+
     @Test
     public void testStoreZipFileInvalidParticipant() {
         when(participantService.isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true)).thenReturn(true);
@@ -373,7 +530,7 @@ public class EventRestControllerTest {
 
     @Test
     public void testRetrieveSb3File() throws IOException {
-        when(experimentService.getSb3File(Experiment_ID)).thenReturn(experimentProjection);
+        when(experimentService.getSb3Project(Experiment_ID)).thenReturn(experimentProjectDTO);
         when(httpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
             @Override
             public boolean isReady() {
@@ -391,10 +548,11 @@ public class EventRestControllerTest {
             }
         });
         assertDoesNotThrow(
-                () -> eventRestController.retrieveSb3File(dataObject.toString(), httpServletResponse)
+                () -> eventRestController.retrieveSb3File(dataObject.toString(), null, httpServletResponse)
         );
         verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
-        verify(experimentService).getSb3File(Experiment_ID);
+        verify(experimentService).getSb3Project(Experiment_ID);
+        verify(httpServletResponse).setHeader(HttpHeaders.ETAG, VERSION);
         verify(httpServletResponse).getOutputStream();
         verify(httpServletResponse).setContentType("application/zip");
         verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
@@ -402,55 +560,70 @@ public class EventRestControllerTest {
     }
 
     @Test
-    public void testRetrieveSb3FileIO() throws IOException {
-        when(experimentService.getSb3File(Experiment_ID)).thenReturn(experimentProjection);
-        when(httpServletResponse.getOutputStream()).thenThrow(IOException.class);
-        assertDoesNotThrow(
-                () -> eventRestController.retrieveSb3File(dataObject.toString(), httpServletResponse)
-        );
-        verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
-        verify(experimentService).getSb3File(Experiment_ID);
-        verify(httpServletResponse).getOutputStream();
-        verify(httpServletResponse).setContentType("application/zip");
-        verify(httpServletResponse).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
-    }
-
-    @Test
-    public void testRetrieveSb3FileProjectNull() throws IOException {
-        when(experimentService.getSb3File(Experiment_ID)).thenReturn(new ExperimentProjection() {
+    public void testRetrieveSb3FileOtherVersion() throws IOException {
+        when(experimentService.getSb3Project(Experiment_ID)).thenReturn(experimentProjectDTO);
+        when(httpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
             @Override
-            public Integer getId() {
-                return null;
+            public boolean isReady() {
+                return false;
             }
 
             @Override
-            public boolean isActive() {
-                return true;
+            public void setWriteListener(WriteListener writeListener) {
+
             }
 
             @Override
-            public byte[] getProject() {
-                return null;
+            public void write(int b) throws IOException {
+
             }
         });
         assertDoesNotThrow(
-                () -> eventRestController.retrieveSb3File(dataObject.toString(), httpServletResponse)
+                () -> eventRestController.retrieveSb3File(dataObject.toString(), "\"39-other\"", httpServletResponse)
+        );
+        verify(experimentService).getSb3Project(Experiment_ID);
+        verify(httpServletResponse).getOutputStream();
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
+        verify(httpServletResponse, never()).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+    }
+
+    @Test
+    public void testRetrieveSb3FileNotModified() throws IOException {
+        when(experimentService.getSb3Project(Experiment_ID)).thenReturn(experimentProjectDTO);
+        assertDoesNotThrow(
+                () -> eventRestController.retrieveSb3File(dataObject.toString(), "\"39-other\", W/" + VERSION,
+                        httpServletResponse)
         );
         verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
-        verify(experimentService).getSb3File(Experiment_ID);
+        verify(experimentService).getSb3Project(Experiment_ID);
+        verify(httpServletResponse).setHeader(HttpHeaders.ETAG, VERSION);
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_NOT_MODIFIED);
         verify(httpServletResponse, never()).getOutputStream();
         verify(httpServletResponse, never()).setContentType(anyString());
-        verify(httpServletResponse).setStatus(HttpServletResponse.SC_NOT_FOUND);
+    }
+
+    @Test
+    public void testRetrieveSb3FileIO() throws IOException {
+        when(experimentService.getSb3Project(Experiment_ID)).thenReturn(experimentProjectDTO);
+        when(httpServletResponse.getOutputStream()).thenThrow(IOException.class);
+        assertDoesNotThrow(
+                () -> eventRestController.retrieveSb3File(dataObject.toString(), null, httpServletResponse)
+        );
+        verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
+        verify(experimentService).getSb3Project(Experiment_ID);
+        verify(httpServletResponse).getOutputStream();
+        verify(httpServletResponse).setContentType("application/zip");
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_INTERNAL_SERVER_ERROR);
     }
 
     @Test
     public void testRetrieveSb3FileNotFound() throws IOException {
-        when(experimentService.getSb3File(Experiment_ID)).thenThrow(NotFoundException.class);
+        when(experimentService.getSb3Project(Experiment_ID)).thenThrow(NotFoundException.class);
         assertDoesNotThrow(
-                () -> eventRestController.retrieveSb3File(dataObject.toString(), httpServletResponse)
+                () -> eventRestController.retrieveSb3File(dataObject.toString(), VERSION, httpServletResponse)
         );
         verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
-        verify(experimentService).getSb3File(Experiment_ID);
+        verify(experimentService).getSb3Project(Experiment_ID);
         verify(httpServletResponse, never()).getOutputStream();
         verify(httpServletResponse, never()).setContentType(anyString());
         verify(httpServletResponse).setStatus(HttpServletResponse.SC_NOT_FOUND);
@@ -460,10 +633,10 @@ public class EventRestControllerTest {
     public void testRetrieveSb3FileInvalidParticipant() throws IOException {
         when(participantService.isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true)).thenReturn(true);
         assertDoesNotThrow(
-                () -> eventRestController.retrieveSb3File(dataObject.toString(), httpServletResponse)
+                () -> eventRestController.retrieveSb3File(dataObject.toString(), null, httpServletResponse)
         );
         verify(participantService).isInvalidParticipant(USER_ID, Experiment_ID, SECRET, true);
-        verify(experimentService, never()).getSb3File(anyInt());
+        verify(experimentService, never()).getSb3Project(anyInt());
         verify(httpServletResponse, never()).getOutputStream();
         verify(httpServletResponse, never()).setContentType(anyString());
         verify(httpServletResponse).setStatus(HttpServletResponse.SC_BAD_REQUEST);
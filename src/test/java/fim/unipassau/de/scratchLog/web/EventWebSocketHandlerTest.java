@@ -0,0 +1,280 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web;
+
+import fim.unipassau.de.scratchLog.application.exception.RateLimitException;
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
+import fim.unipassau.de.scratchLog.application.service.EventService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.application.service.FileService;
+import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.web.dto.BlockEventDTO;
+import fim.unipassau.de.scratchLog.web.dto.ClickEventDTO;
+import fim.unipassau.de.scratchLog.web.socket.EventWebSocketHandler;
+import org.json.JSONObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertAll;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class EventWebSocketHandlerTest {
+
+    private EventWebSocketHandler eventWebSocketHandler;
+
+    @Mock
+    private EventService eventService;
+
+    @Mock
+    private FileService fileService;
+
+    @Mock
+    private ParticipantService participantService;
+
+    @Mock
+    private AdmissionService admissionService;
+
+    @Mock
+    private EventSpoolService eventSpoolService;
+
+    @Mock
+    private WebSocketSession session;
+
+    private static final String SECRET = "secret";
+    private static final int USER_ID = 3;
+    private static final int EXPERIMENT_ID = 39;
+    private static final int WINDOW = 4;
+    private static final int BATCH_SIZE = 2;
+    private final Map<String, Object> attributes = new HashMap<>();
+    private final JSONObject auth = new JSONObject();
+    private final JSONObject blockEvent = new JSONObject();
+    private final JSONObject clickEvent = new JSONObject();
+
+    @BeforeEach
+    public void setup() {
+        eventWebSocketHandler = new EventWebSocketHandler(eventService, fileService, participantService,
+                admissionService, eventSpoolService, WINDOW, BATCH_SIZE);
+        auth.put("kind", "auth");
+        auth.put("user", USER_ID);
+        auth.put("experiment", EXPERIMENT_ID);
+        auth.put(SECRET, SECRET);
+        blockEvent.put("kind", "block");
+        blockEvent.put("user", 1);
+        blockEvent.put("type", "DRAG");
+        blockEvent.put("time", "2021-06-28T12:36:37.601Z");
+        blockEvent.put("event", "ENDDRAG");
+        blockEvent.put("spritename", "Figur1");
+        blockEvent.put("json", "json");
+        clickEvent.put("kind", "click");
+        clickEvent.put("type", "ICON");
+        clickEvent.put("time", "2021-06-28T12:36:37.601Z");
+        clickEvent.put("event", "STOPALL");
+    }
+
+    @Test
+    public void testAuthenticate() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        ArgumentCaptor<TextMessage> captor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(session).sendMessage(captor.capture());
+        JSONObject ready = new JSONObject(captor.getValue().getPayload());
+        assertAll(
+                () -> assertEquals("ready", ready.getString("kind")),
+                () -> assertEquals(WINDOW, ready.getInt("window")),
+                () -> assertEquals(BATCH_SIZE, ready.getInt("batch"))
+        );
+        verify(session, never()).close(any());
+    }
+
+    @Test
+    public void testAuthenticateInvalidParticipant() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(true);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        verify(session).close(CloseStatus.POLICY_VIOLATION);
+        verify(session, never()).sendMessage(any());
+    }
+
+    @Test
+    public void testEventBeforeAuthentication() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        blockEvent.put("seq", 1);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        verify(session).close(CloseStatus.POLICY_VIOLATION);
+        verify(participantService, never()).isInvalidParticipant(anyInt(), anyInt(), anyString(), anyBoolean());
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testMalformedMessage() throws Exception {
+        eventWebSocketHandler.handleMessage(session, new TextMessage("{user"));
+        verify(session).close(CloseStatus.BAD_DATA);
+    }
+
+    @Test
+    public void testReceiveEventsAcknowledgeBatch() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        blockEvent.put("seq", 1);
+        clickEvent.put("seq", 2);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        eventWebSocketHandler.handleMessage(session, new TextMessage(clickEvent.toString()));
+        ArgumentCaptor<BlockEventDTO> blockCaptor = ArgumentCaptor.forClass(BlockEventDTO.class);
+        ArgumentCaptor<TextMessage> messageCaptor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(eventService).saveBlockEvent(blockCaptor.capture());
+        verify(eventService).saveClickEvent(any(ClickEventDTO.class));
+        verify(admissionService, times(2)).release(anyLong());
+        verify(session, times(2)).sendMessage(messageCaptor.capture());
+        JSONObject ack = new JSONObject(messageCaptor.getAllValues().get(1).getPayload());
+        assertAll(
+                () -> assertEquals(USER_ID, blockCaptor.getValue().getUser()),
+                () -> assertEquals(EXPERIMENT_ID, blockCaptor.getValue().getExperiment()),
+                () -> assertEquals("ack", ack.getString("kind")),
+                () -> assertEquals(2, ack.getLong("seq")),
+                () -> assertTrue(ack.getJSONArray("rejected").isEmpty())
+        );
+    }
+
+    @Test
+    public void testReceiveEventsSpooled() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        when(eventSpoolService.isEnabled()).thenReturn(true);
+        when(eventSpoolService.append(anyString(), anyString())).thenReturn(true, false);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        blockEvent.put("seq", 1);
+        clickEvent.put("seq", 2);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        eventWebSocketHandler.handleMessage(session, new TextMessage(clickEvent.toString()));
+        ArgumentCaptor<String> dataCaptor = ArgumentCaptor.forClass(String.class);
+        verify(eventSpoolService).append(eq("block"), dataCaptor.capture());
+        verify(eventService, never()).saveBlockEvent(any());
+        verify(eventService).saveClickEvent(any(ClickEventDTO.class));
+        verify(admissionService).acquire();
+        verify(admissionService).release(anyLong());
+        JSONObject spooled = new JSONObject(dataCaptor.getValue());
+        assertAll(
+                () -> assertEquals(USER_ID, spooled.getInt("user")),
+                () -> assertEquals(EXPERIMENT_ID, spooled.getInt("experiment")),
+                () -> assertEquals(SECRET, spooled.getString("secret"))
+        );
+    }
+
+    @Test
+    public void testReceiveEventsRejected() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        blockEvent.put("seq", 1);
+        blockEvent.put("type", "UNKNOWN");
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        eventWebSocketHandler.handleMessage(session, new TextMessage(new JSONObject().put("kind", "flush")
+                .toString()));
+        ArgumentCaptor<TextMessage> messageCaptor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(eventService, never()).saveBlockEvent(any());
+        verify(session, times(2)).sendMessage(messageCaptor.capture());
+        JSONObject ack = new JSONObject(messageCaptor.getAllValues().get(1).getPayload());
+        assertAll(
+                () -> assertEquals(1, ack.getLong("seq")),
+                () -> assertEquals(List.of(1), ack.getJSONArray("rejected").toList())
+        );
+    }
+
+    @Test
+    public void testReceiveEventRateLimited() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        doThrow(RateLimitException.class).when(admissionService).checkRate("block", USER_ID, EXPERIMENT_ID);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        blockEvent.put("seq", 1);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        eventWebSocketHandler.handleMessage(session, new TextMessage(new JSONObject().put("kind", "flush")
+                .toString()));
+        ArgumentCaptor<TextMessage> messageCaptor = ArgumentCaptor.forClass(TextMessage.class);
+        verify(eventService, never()).saveBlockEvent(any());
+        verify(admissionService, never()).acquire();
+        verify(eventSpoolService, never()).append(anyString(), anyString());
+        verify(session, times(2)).sendMessage(messageCaptor.capture());
+        JSONObject ack = new JSONObject(messageCaptor.getAllValues().get(1).getPayload());
+        assertEquals(List.of(1), ack.getJSONArray("rejected").toList());
+    }
+
+    @Test
+    public void testReceiveEventWindowExceeded() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        blockEvent.put("seq", WINDOW + 1);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        verify(session).close(CloseStatus.POLICY_VIOLATION);
+        verify(eventService, never()).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testReceiveEventInvalidSequence() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        blockEvent.put("seq", 1);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        eventWebSocketHandler.handleMessage(session, new TextMessage(blockEvent.toString()));
+        verify(session).close(CloseStatus.BAD_DATA);
+        verify(eventService).saveBlockEvent(any());
+    }
+
+    @Test
+    public void testAcknowledgeParticipantFinished() throws Exception {
+        when(session.getAttributes()).thenReturn(attributes);
+        when(participantService.isInvalidParticipant(USER_ID, EXPERIMENT_ID, SECRET, true)).thenReturn(false,
+                true);
+        eventWebSocketHandler.handleMessage(session, new TextMessage(auth.toString()));
+        eventWebSocketHandler.handleMessage(session, new TextMessage(new JSONObject().put("kind", "flush")
+                .toString()));
+        verify(session).close(CloseStatus.POLICY_VIOLATION);
+        verify(session, times(1)).sendMessage(any());
+    }
+
+}
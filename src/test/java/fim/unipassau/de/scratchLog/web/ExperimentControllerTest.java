@@ -22,12 +22,14 @@ import fim.unipassau.de.scratchLog.MailServerSetter;
 import fim.unipassau.de.scratchLog.StringCreator;
 import fim.unipassau.de.scratchLog.application.exception.IncompleteDataException;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.CourseService;
 import fim.unipassau.de.scratchLog.application.service.EventService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.PageService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.SessionService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.entity.Experiment;
 import fim.unipassau.de.scratchLog.persistence.entity.Participant;
@@ -75,6 +77,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -103,11 +106,14 @@ public class ExperimentControllerTest {
     private PageService pageService;
 
     @Mock
-    private MailService mailService;
+    private NotificationService notificationService;
 
     @Mock
     private EventService eventService;
 
+    @Mock
+    private SessionService sessionService;
+
     @Mock
     private Model model;
 
@@ -186,6 +192,7 @@ public class ExperimentControllerTest {
         participant.setSecret(null);
         userDTO.setActive(true);
         userDTO.setSecret("secret1");
+        userDTO.setLanguage(Language.ENGLISH);
         participant.setEmail(EMAIL);
         experimentDTO.setActive(false);
         experimentDTO.setCourseExperiment(false);
@@ -442,8 +449,8 @@ public class ExperimentControllerTest {
         verify(experimentService).existsExperiment(experimentDTO.getTitle(), experimentDTO.getId());
         verify(experimentService).saveExperiment(experimentDTO);
         verify(courseService).saveCourseExperiment(ID, ID);
-        verify(participantService).saveParticipants(ID, ID);
         verify(experimentService, never()).deleteExperiment(anyInt());
+        verify(userService, never()).findUnfinishedUsers(anyInt());
     }
 
     @Test
@@ -452,7 +459,7 @@ public class ExperimentControllerTest {
         experimentDTO.setCourseExperiment(true);
         when(courseService.existsActiveCourse(ID)).thenReturn(true);
         when(experimentService.saveExperiment(experimentDTO)).thenReturn(experimentDTO);
-        doThrow(NotFoundException.class).when(participantService).saveParticipants(ID, ID);
+        doThrow(NotFoundException.class).when(courseService).saveCourseExperiment(ID, ID);
         assertEquals(Constants.ERROR, experimentController.editExperiment(experimentDTO,
                 bindingResult));
         verify(bindingResult, never()).addError(any());
@@ -460,7 +467,6 @@ public class ExperimentControllerTest {
         verify(experimentService).existsExperiment(experimentDTO.getTitle(), experimentDTO.getId());
         verify(experimentService).saveExperiment(experimentDTO);
         verify(courseService).saveCourseExperiment(ID, ID);
-        verify(participantService).saveParticipants(ID, ID);
         verify(experimentService).deleteExperiment(ID);
     }
 
@@ -672,14 +678,10 @@ public class ExperimentControllerTest {
     @Test
     public void testChangeExperimentStatusOpen() {
         MailServerSetter.setMailServer(true);
-        when(experimentService.changeExperimentStatus(true, ID)).thenReturn(experimentDTO);
-        when(userService.reactivateUserAccounts(experimentDTO.getId())).thenReturn(userDTOS);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true).thenReturn(false);
+        when(notificationService.openExperiment(ID, true)).thenReturn(experimentDTO);
         when(pageService.getParticipantPage(anyInt(), any(PageRequest.class))).thenReturn(participants);
         assertEquals(EXPERIMENT, experimentController.changeExperimentStatus("open", ID_STRING, model));
-        verify(experimentService).changeExperimentStatus(true, ID);
-        verify(userService).reactivateUserAccounts(ID);
-        verify(mailService, times(2)).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).openExperiment(ID, true);
         verify(pageService).getLastParticipantPage(ID);
         verify(pageService).getParticipantPage(anyInt(), any(PageRequest.class));
         verify(model).addAttribute(EXPERIMENT_DTO, experimentDTO);
@@ -689,13 +691,10 @@ public class ExperimentControllerTest {
     @Test
     public void testChangeExperimentStatusOpenNoMailServer() {
         MailServerSetter.setMailServer(false);
-        when(experimentService.changeExperimentStatus(true, ID)).thenReturn(experimentDTO);
-        when(userService.reactivateUserAccounts(experimentDTO.getId())).thenReturn(userDTOS);
+        when(notificationService.openExperiment(ID, false)).thenReturn(experimentDTO);
         assertEquals(REDIRECT_SECRET_LIST + ID, experimentController.changeExperimentStatus("open",
                 ID_STRING, model));
-        verify(experimentService).changeExperimentStatus(true, ID);
-        verify(userService).reactivateUserAccounts(ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).openExperiment(ID, false);
         verify(pageService, never()).getLastParticipantPage(anyInt());
         verify(pageService, never()).getParticipantPage(anyInt(), any(PageRequest.class));
         verify(model, never()).addAttribute(anyString(), any());
@@ -737,9 +736,9 @@ public class ExperimentControllerTest {
 
     @Test
     public void testChangeExperimentStatusOpenNotFound() {
-        when(experimentService.changeExperimentStatus(true, ID)).thenThrow(NotFoundException.class);
+        when(notificationService.openExperiment(eq(ID), anyBoolean())).thenThrow(NotFoundException.class);
         assertEquals(ERROR, experimentController.changeExperimentStatus("open", ID_STRING, model));
-        verify(experimentService).changeExperimentStatus(true, ID);
+        verify(notificationService).openExperiment(eq(ID), anyBoolean());
         verify(model, never()).addAttribute(EXPERIMENT_DTO, experimentDTO);
     }
 
@@ -763,14 +762,10 @@ public class ExperimentControllerTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         assertEquals(REDIRECT_EXPERIMENT + ID, experimentController.searchForUser(PARTICIPANTS, ID_STRING, model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -782,15 +777,11 @@ public class ExperimentControllerTest {
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
         when(courseService.existsCourseParticipant(ID, participant.getId())).thenReturn(true);
-        when(userService.updateUser(participant)).thenReturn(participant);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         assertEquals(REDIRECT_EXPERIMENT + ID, experimentController.searchForUser(PARTICIPANTS, ID_STRING, model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
         verify(courseService).existsCourseParticipant(ID, participant.getId());
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -800,14 +791,11 @@ public class ExperimentControllerTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
         assertEquals(REDIRECT_SECRET + participant.getId() + EXPERIMENT_PARAM + ID,
                 experimentController.searchForUser(PARTICIPANTS, ID_STRING, model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, false);
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -817,15 +805,11 @@ public class ExperimentControllerTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         assertEquals(REDIRECT_EXPERIMENT + ID, experimentController.searchForUser(PARTICIPANTS, ID_STRING,
                 model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -835,13 +819,11 @@ public class ExperimentControllerTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
+        when(notificationService.saveParticipant(participant, ID, true)).thenThrow(StoreException.class);
         assertEquals(ERROR, experimentController.searchForUser(PARTICIPANTS, ID_STRING, model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -852,13 +834,11 @@ public class ExperimentControllerTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
+        when(notificationService.saveParticipant(participant, ID, true)).thenThrow(StoreException.class);
         assertEquals(ERROR, experimentController.searchForUser(PARTICIPANTS, ID_STRING, model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(participant, ID, true);
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -867,14 +847,12 @@ public class ExperimentControllerTest {
         experimentDTO.setActive(true);
         when(experimentService.getExperiment(ID)).thenReturn(experimentDTO);
         when(userService.getUserByUsernameOrEmail(PARTICIPANTS)).thenReturn(participant);
-        when(userService.updateUser(participant)).thenReturn(participant);
-        doThrow(NotFoundException.class).when(participantService).saveParticipant(participant.getId(), ID);
+        when(notificationService.saveParticipant(eq(participant), eq(ID), anyBoolean()))
+                .thenThrow(NotFoundException.class);
         assertEquals(ERROR, experimentController.searchForUser(PARTICIPANTS, ID_STRING, model));
         verify(experimentService).getExperiment(ID);
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
-        verify(userService).updateUser(participant);
-        verify(participantService).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).saveParticipant(eq(participant), eq(ID), anyBoolean());
         verify(model, never()).addAttribute(any(), any());
     }
 
@@ -891,7 +869,7 @@ public class ExperimentControllerTest {
         verify(courseService).existsCourseParticipant(ID, participant.getId());
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -905,7 +883,7 @@ public class ExperimentControllerTest {
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -920,7 +898,7 @@ public class ExperimentControllerTest {
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -935,7 +913,7 @@ public class ExperimentControllerTest {
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
         verify(userService, never()).updateUser(participant);
         verify(participantService, never()).saveParticipant(participant.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -949,7 +927,7 @@ public class ExperimentControllerTest {
         verify(userService).getUserByUsernameOrEmail(USERNAME);
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -962,7 +940,7 @@ public class ExperimentControllerTest {
         verify(userService).getUserByUsernameOrEmail(PARTICIPANTS);
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -974,7 +952,7 @@ public class ExperimentControllerTest {
         verify(userService, never()).getUserByUsernameOrEmail(anyString());
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, times(6)).addAttribute(anyString(), any());
     }
 
@@ -986,7 +964,7 @@ public class ExperimentControllerTest {
         verify(userService, never()).getUserByUsernameOrEmail(anyString());
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -997,7 +975,7 @@ public class ExperimentControllerTest {
         verify(userService, never()).getUserByUsernameOrEmail(anyString());
         verify(userService, never()).updateUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -1082,6 +1060,7 @@ public class ExperimentControllerTest {
         verify(eventService).getResourceEventCount(ID);
         verify(eventService).getCodesDataForExperiment(ID);
         verify(experimentService).getExperimentData(ID);
+        verify(sessionService).getSessionData(eq(ID), any());
         verify(httpServletResponse).getWriter();
     }
 
@@ -1099,6 +1078,7 @@ public class ExperimentControllerTest {
         verify(eventService, never()).getResourceEventCount(anyInt());
         verify(eventService, never()).getCodesDataForExperiment(anyInt());
         verify(experimentService, never()).getExperimentData(anyInt());
+        verify(sessionService, never()).getSessionData(anyInt(), any());
         verify(httpServletResponse).getWriter();
     }
 
@@ -1115,6 +1095,7 @@ public class ExperimentControllerTest {
         verify(eventService, never()).getResourceEventCount(anyInt());
         verify(eventService, never()).getCodesDataForExperiment(anyInt());
         verify(experimentService, never()).getExperimentData(anyInt());
+        verify(sessionService, never()).getSessionData(anyInt(), any());
         verify(httpServletResponse, never()).getWriter();
     }
 
@@ -1131,6 +1112,7 @@ public class ExperimentControllerTest {
         verify(eventService, never()).getResourceEventCount(anyInt());
         verify(eventService, never()).getCodesDataForExperiment(anyInt());
         verify(experimentService, never()).getExperimentData(anyInt());
+        verify(sessionService, never()).getSessionData(anyInt(), any());
         verify(httpServletResponse, never()).getWriter();
     }
 
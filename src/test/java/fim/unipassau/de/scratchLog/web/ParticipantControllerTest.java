@@ -21,10 +21,12 @@ package fim.unipassau.de.scratchLog.web;
 import fim.unipassau.de.scratchLog.MailServerSetter;
 import fim.unipassau.de.scratchLog.StringCreator;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.PageService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Language;
@@ -61,7 +63,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
-import static org.mockito.Mockito.doThrow;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -86,7 +88,10 @@ public class ParticipantControllerTest {
     private PageService pageService;
 
     @Mock
-    private MailService mailService;
+    private NotificationService notificationService;
+
+    @Mock
+    private ResultCacheService resultCacheService;
 
     @Mock
     private Model model;
@@ -224,47 +229,37 @@ public class ParticipantControllerTest {
     @Test
     public void testAddParticipant() {
         MailServerSetter.setMailServer(true);
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
-        when(mailService.sendEmail(anyString(), any(), any(), anyString())).thenReturn(true);
+        when(notificationService.saveParticipant(newUser, ID, true)).thenReturn(userDTO);
         assertEquals(REDIRECT_EXPERIMENT + ID, participantController.addParticipant(ID_STRING, newUser, model,
                 bindingResult));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(newUser, ID, true);
         verify(bindingResult, never()).addError(any());
     }
 
     @Test
     public void testAddParticipantNoMailServer() {
         MailServerSetter.setMailServer(false);
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
+        when(notificationService.saveParticipant(newUser, ID, false)).thenReturn(userDTO);
         assertEquals(REDIRECT_SECRET + userDTO.getId() + EXPERIMENT_PARAM + ID,
                 participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(newUser, ID, false);
         verify(bindingResult, never()).addError(any());
     }
 
     @Test
     public void testAddParticipantMessagingException() {
         MailServerSetter.setMailServer(true);
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
+        when(notificationService.saveParticipant(newUser, ID, true)).thenThrow(StoreException.class);
         assertEquals(ERROR, participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(newUser, ID, true);
         verify(bindingResult, never()).addError(any());
     }
 
     @Test
     public void testAddParticipantNotFound() {
-        when(userService.saveUser(newUser)).thenReturn(userDTO);
-        doThrow(NotFoundException.class).when(participantService).saveParticipant(userDTO.getId(), ID);
+        when(notificationService.saveParticipant(eq(newUser), eq(ID), anyBoolean())).thenThrow(NotFoundException.class);
         assertEquals(ERROR, participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
-        verify(userService).saveUser(newUser);
-        verify(participantService).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).saveParticipant(eq(newUser), eq(ID), anyBoolean());
         verify(bindingResult, never()).addError(any());
     }
 
@@ -275,7 +270,7 @@ public class ParticipantControllerTest {
         assertEquals(PARTICIPANT, participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult).addError(any());
     }
 
@@ -286,7 +281,7 @@ public class ParticipantControllerTest {
         assertEquals(PARTICIPANT, participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult).addError(any());
     }
 
@@ -297,7 +292,7 @@ public class ParticipantControllerTest {
         assertEquals(PARTICIPANT, participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult).addError(any());
     }
 
@@ -308,7 +303,7 @@ public class ParticipantControllerTest {
         assertEquals(PARTICIPANT, participantController.addParticipant(ID_STRING, newUser, model, bindingResult));
         verify(userService, never()).saveUser(any());
         verify(participantService, never()).saveParticipant(anyInt(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult).addError(any());
     }
 
@@ -317,7 +312,7 @@ public class ParticipantControllerTest {
         assertEquals(ERROR, participantController.addParticipant("0", newUser, model, bindingResult));
         verify(userService, never()).saveUser(userDTO);
         verify(participantService, never()).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult, never()).addError(any());
     }
 
@@ -326,7 +321,7 @@ public class ParticipantControllerTest {
         assertEquals(ERROR, participantController.addParticipant(ID_STRING, userDTO, model, bindingResult));
         verify(userService, never()).saveUser(userDTO);
         verify(participantService, never()).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult, never()).addError(any());
     }
 
@@ -336,7 +331,7 @@ public class ParticipantControllerTest {
         assertEquals(ERROR, participantController.addParticipant(ID_STRING, userDTO, model, bindingResult));
         verify(userService, never()).saveUser(userDTO);
         verify(participantService, never()).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult, never()).addError(any());
     }
 
@@ -346,7 +341,7 @@ public class ParticipantControllerTest {
         assertEquals(ERROR, participantController.addParticipant(ID_STRING, userDTO, model, bindingResult));
         verify(userService, never()).saveUser(userDTO);
         verify(participantService, never()).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult, never()).addError(any());
     }
 
@@ -355,7 +350,7 @@ public class ParticipantControllerTest {
         assertEquals(ERROR, participantController.addParticipant(null, userDTO, model, bindingResult));
         verify(userService, never()).saveUser(userDTO);
         verify(participantService, never()).saveParticipant(userDTO.getId(), ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).saveParticipant(any(), anyInt(), anyBoolean());
         verify(bindingResult, never()).addError(any());
     }
 
@@ -373,6 +368,7 @@ public class ParticipantControllerTest {
         verify(participantService).simultaneousParticipation(ID);
         verify(userService).updateUser(userDTO);
         verify(participantService).deleteParticipant(userDTO.getId(), ID);
+        verify(resultCacheService).invalidateResults(userDTO.getId(), ID);
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -921,6 +917,7 @@ public class ParticipantControllerTest {
         verify(experimentService).getExperiment(ID);
         verify(participantService).getParticipant(ID, ID);
         verify(participantService).updateParticipant(participantDTO);
+        verify(resultCacheService).invalidateResults(ID, ID);
         verify(userService).updateUser(userDTO);
     }
 
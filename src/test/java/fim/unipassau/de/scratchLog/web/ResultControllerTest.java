@@ -23,6 +23,9 @@ import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
 import fim.unipassau.de.scratchLog.application.service.EventService;
 import fim.unipassau.de.scratchLog.application.service.ExperimentService;
 import fim.unipassau.de.scratchLog.application.service.FileService;
+import fim.unipassau.de.scratchLog.application.service.ResultCacheService;
+import fim.unipassau.de.scratchLog.application.service.SessionService;
+import fim.unipassau.de.scratchLog.application.service.SnapshotDiffService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventJSONProjection;
 import fim.unipassau.de.scratchLog.persistence.projection.BlockEventProjection;
@@ -35,6 +38,7 @@ import fim.unipassau.de.scratchLog.web.dto.CodesDataDTO;
 import fim.unipassau.de.scratchLog.web.dto.EventCountDTO;
 import fim.unipassau.de.scratchLog.web.dto.FileDTO;
 import fim.unipassau.de.scratchLog.web.dto.Sb3ZipDTO;
+import fim.unipassau.de.scratchLog.web.dto.SessionDTO;
 import jakarta.servlet.ServletOutputStream;
 import jakarta.servlet.WriteListener;
 import jakarta.servlet.http.HttpServletResponse;
@@ -54,20 +58,28 @@ import org.springframework.ui.Model;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
+import java.io.PrintWriter;
+import java.io.StringWriter;
 import java.net.URL;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.assertAll;
 import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -91,6 +103,15 @@ public class ResultControllerTest {
     @Mock
     private FileService fileService;
 
+    @Mock
+    private ResultCacheService resultCacheService;
+
+    @Mock
+    private SnapshotDiffService snapshotDiffService;
+
+    @Mock
+    private SessionService sessionService;
+
     @Mock
     private Model model;
 
@@ -102,6 +123,9 @@ public class ResultControllerTest {
     private static final String ID_STRING = "1";
     private static final String PAGE = "0";
     private static final String JSON = "json";
+    private static final String SB3S_PARAMETERS = "sb3s_0_0_0_true";
+    private static final String TIME = "2023-05-02T10:15:30";
+    private static final LocalDateTime DATE = LocalDateTime.parse(TIME);
     private static final int ID = 1;
     private final FileDTO fileDTO = new FileDTO(ID, ID, LocalDateTime.now(), "file", "type",
             new byte[]{1, 2, 3});
@@ -109,6 +133,7 @@ public class ResultControllerTest {
             new byte[]{1, 2, 3, 4});
     private final Sb3ZipDTO sb3ZipDTO = new Sb3ZipDTO(ID, ID, LocalDateTime.now().plusMinutes(15), "file",
             new byte[]{1, 2, 3});
+    private final SessionDTO sessionDTO = SessionDTO.builder().user(ID).events(4).sessions(1).active(30).build();
     private final CodesDataDTO codesDataDTO = new CodesDataDTO(ID, ID, 9);
     private final List<EventCountDTO> blockEvents = getEventCounts(5, "CREATE");
     private final List<EventCountDTO> clickEvents = getEventCounts(3, "GREENFLAG");
@@ -152,6 +177,7 @@ public class ResultControllerTest {
         when(fileService.getFiles(ID, ID)).thenReturn(files);
         when(fileService.getZipIds(ID, ID)).thenReturn(zips);
         when(eventService.getCodesData(ID, ID)).thenReturn(codesDataDTO);
+        when(sessionService.getSession(ID, ID)).thenReturn(sessionDTO);
         assertEquals(RESULT, resultController.getResult(ID_STRING, ID_STRING, model).getViewName());
         verify(userService).existsParticipant(ID, ID);
         verify(eventService).getBlockEventCounts(ID, ID);
@@ -160,7 +186,9 @@ public class ResultControllerTest {
         verify(fileService).getFiles(ID, ID);
         verify(fileService).getZipIds(ID, ID);
         verify(eventService).getCodesData(ID, ID);
-        verify(model, times(9)).addAttribute(anyString(), any());
+        verify(sessionService).getSession(ID, ID);
+        verify(model).addAttribute("session", sessionDTO);
+        verify(model, times(10)).addAttribute(anyString(), any());
     }
 
     @Test
@@ -172,6 +200,7 @@ public class ResultControllerTest {
         when(fileService.getFiles(ID, ID)).thenReturn(files);
         when(fileService.getZipIds(ID, ID)).thenReturn(zips);
         when(eventService.getCodesData(ID, ID)).thenReturn(new CodesDataDTO());
+        when(sessionService.getSession(ID, ID)).thenReturn(sessionDTO);
         assertEquals(RESULT, resultController.getResult(ID_STRING, ID_STRING, model).getViewName());
         verify(userService).existsParticipant(ID, ID);
         verify(eventService).getBlockEventCounts(ID, ID);
@@ -180,7 +209,9 @@ public class ResultControllerTest {
         verify(fileService).getFiles(ID, ID);
         verify(fileService).getZipIds(ID, ID);
         verify(eventService).getCodesData(ID, ID);
-        verify(model, times(9)).addAttribute(anyString(), any());
+        verify(sessionService).getSession(ID, ID);
+        verify(model).addAttribute("session", sessionDTO);
+        verify(model, times(10)).addAttribute(anyString(), any());
     }
 
     @Test
@@ -966,6 +997,76 @@ public class ResultControllerTest {
         verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
     }
 
+    @Test
+    public void testDownloadSb3FilesFinishedParticipant() throws IOException {
+        when(httpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+
+            }
+        });
+        when(experimentService.getSb3File(ID)).thenReturn(experimentProjection);
+        when(fileService.getFileDTOs(ID, ID)).thenReturn(fileDTOS);
+        when(eventService.getJsonForUser(ID, ID)).thenReturn(jsonProjections);
+        when(fileService.findFinalProject(ID, ID)).thenReturn(Optional.of(sb3ZipDTO));
+        when(resultCacheService.isFinished(ID, ID)).thenReturn(true);
+        when(resultCacheService.createTempFile()).thenReturn(Files.createTempFile("result", ".zip"));
+        assertDoesNotThrow(
+                () -> resultController.downloadSb3Files(ID_STRING, ID_STRING, null, null, null, null,
+                        httpServletResponse)
+        );
+        verify(resultCacheService).findResult(ID, ID, SB3S_PARAMETERS);
+        verify(experimentService).getSb3File(ID);
+        verify(eventService).getJsonForUser(ID, ID);
+        verify(resultCacheService).saveResult(anyInt(), anyInt(), anyString(), any(), anyLong());
+        verify(httpServletResponse, times(2)).getOutputStream();
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    public void testDownloadSb3FilesCached() throws IOException {
+        when(httpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+
+            }
+        });
+        Path cached = Files.write(Files.createTempFile("result", ".zip"), new byte[]{1, 2, 3});
+        when(resultCacheService.findResult(ID, ID, SB3S_PARAMETERS)).thenReturn(Optional.of(cached));
+        assertDoesNotThrow(
+                () -> resultController.downloadSb3Files(ID_STRING, ID_STRING, null, null, null, null,
+                        httpServletResponse)
+        );
+        verify(experimentService, never()).getSb3File(anyInt());
+        verify(fileService, never()).getFileDTOs(anyInt(), anyInt());
+        verify(eventService, never()).getJsonForUser(anyInt(), anyInt());
+        verify(resultCacheService, never()).saveResult(anyInt(), anyInt(), anyString(), any(), anyLong());
+        verify(httpServletResponse, times(2)).getOutputStream();
+        verify(httpServletResponse).setContentType("application/zip");
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
+        Files.deleteIfExists(cached);
+    }
+
     @Test
     public void testDownloadSb3FilesProjectionNull() throws IOException {
         when(httpServletResponse.getOutputStream()).thenReturn(new ServletOutputStream() {
@@ -1475,6 +1576,164 @@ public class ResultControllerTest {
         verify(httpServletResponse, never()).getOutputStream();
     }
 
+    @Test
+    public void testDownloadDiffs() throws IOException {
+        StringWriter writer = new StringWriter();
+        when(httpServletResponse.getWriter()).thenReturn(new PrintWriter(writer));
+        assertDoesNotThrow(
+                () -> resultController.downloadDiffs(ID_STRING, ID_STRING, httpServletResponse)
+        );
+        verify(snapshotDiffService).diffSnapshots(eq(ID), eq(ID), any());
+        verify(httpServletResponse).setContentType("text/csv");
+        verify(httpServletResponse).setHeader("Content-Disposition", "attachment;filename=diffs_user1_experiment1.csv");
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
+        assertTrue(writer.toString().startsWith("\"id\",\"date\",\"event\",\"sprite\",\"change\""));
+    }
+
+    @Test
+    public void testDownloadDiffsInvalidId() throws IOException {
+        assertThrows(IncompleteDataException.class,
+                () -> resultController.downloadDiffs(ID_STRING, "-1", httpServletResponse)
+        );
+        verify(snapshotDiffService, never()).diffSnapshots(anyInt(), anyInt(), any());
+        verify(httpServletResponse, never()).getWriter();
+    }
+
+    @Test
+    public void testDownloadProject() throws IOException {
+        when(httpServletResponse.getOutputStream()).thenReturn(getServletOutputStream());
+        when(eventService.getJsonAt(ID, ID, List.of(DATE))).thenReturn(Map.of(DATE, jsonProjections.get(1)));
+        assertDoesNotThrow(
+                () -> resultController.downloadProject(ID_STRING, ID_STRING, TIME, null, httpServletResponse)
+        );
+        verify(eventService).getJsonAt(ID, ID, List.of(DATE));
+        verify(experimentService, never()).getSb3File(anyInt());
+        verify(httpServletResponse).setContentType("application/json");
+        verify(httpServletResponse).setHeader("Content-Disposition",
+                "attachment;filename=json_user1_experiment1_1.json");
+        verify(httpServletResponse).setStatus(HttpServletResponse.SC_OK);
+    }
+
+    @Test
+    public void testDownloadProjectXml() throws IOException {
+        when(httpServletResponse.getOutputStream()).thenReturn(getServletOutputStream());
+        when(eventService.getXmlAt(ID, ID, List.of(DATE))).thenReturn(Map.of(DATE, xmlProjections.get(2)));
+        assertDoesNotThrow(
+                () -> resultController.downloadProject(ID_STRING, ID_STRING, TIME, "xml", httpServletResponse)
+        );
+        verify(eventService).getXmlAt(ID, ID, List.of(DATE));
+        verify(eventService, never()).getJsonAt(anyInt(), anyInt(), any());
+        verify(httpServletResponse).setContentType("application/xml");
+    }
+
+    @Test
+    public void testDownloadProjectSb3() throws IOException {
+        when(httpServletResponse.getOutputStream()).thenReturn(getServletOutputStream());
+        when(eventService.getJsonAt(ID, ID, List.of(DATE))).thenReturn(Map.of(DATE, jsonProjections.get(0)));
+        when(experimentService.getSb3File(ID)).thenReturn(experimentProjection);
+        when(fileService.getFileDTOs(ID, ID)).thenReturn(fileDTOS);
+        assertDoesNotThrow(
+                () -> resultController.downloadProject(ID_STRING, ID_STRING, TIME, "sb3", httpServletResponse)
+        );
+        verify(experimentService).getSb3File(ID);
+        verify(fileService).getFileDTOs(ID, ID);
+        verify(httpServletResponse).setContentType("application/zip");
+    }
+
+    @Test
+    public void testDownloadProjectNotFound() {
+        when(eventService.getJsonAt(ID, ID, List.of(DATE))).thenThrow(NotFoundException.class);
+        assertThrows(NotFoundException.class,
+                () -> resultController.downloadProject(ID_STRING, ID_STRING, TIME, JSON, httpServletResponse)
+        );
+        verify(httpServletResponse, never()).setStatus(anyInt());
+    }
+
+    @Test
+    public void testDownloadProjectInvalidParameters() {
+        assertAll(
+                () -> assertThrows(IncompleteDataException.class,
+                        () -> resultController.downloadProject(ID_STRING, ID_STRING, "12", JSON, httpServletResponse)
+                ),
+                () -> assertThrows(IncompleteDataException.class,
+                        () -> resultController.downloadProject(ID_STRING, ID_STRING, TIME, "png", httpServletResponse)
+                ),
+                () -> assertThrows(IncompleteDataException.class,
+                        () -> resultController.downloadProject(ID_STRING, "0", TIME, JSON, httpServletResponse)
+                ),
+                () -> assertThrows(IncompleteDataException.class,
+                        () -> resultController.downloadProject(ID_STRING, ID_STRING, null, JSON, httpServletResponse)
+                )
+        );
+        verify(eventService, never()).getJsonAt(anyInt(), anyInt(), any());
+    }
+
+    @Test
+    public void testDownloadProjects() throws IOException {
+        LocalDateTime later = DATE.plusMinutes(12);
+        List<LocalDateTime> dates = List.of(DATE, later);
+        when(httpServletResponse.getOutputStream()).thenReturn(getServletOutputStream());
+        when(eventService.getJsonAt(ID, ID, dates)).thenReturn(Map.of(DATE, jsonProjections.get(0), later,
+                jsonProjections.get(1)));
+        when(experimentService.getSb3File(ID)).thenReturn(experimentProjection);
+        when(fileService.getFileDTOs(ID, ID)).thenReturn(fileDTOS);
+        assertDoesNotThrow(
+                () -> resultController.downloadProjects(ID_STRING, ID_STRING, List.of(TIME, later.toString()), "sb3",
+                        httpServletResponse)
+        );
+        verify(eventService).getJsonAt(ID, ID, dates);
+        verify(experimentService).getSb3File(ID);
+        verify(fileService).getFileDTOs(ID, ID);
+        verify(httpServletResponse).setContentType("application/zip");
+        verify(httpServletResponse).setHeader("Content-Disposition",
+                "attachment;filename=projects_sb3_user1_experiment1.zip");
+    }
+
+    @Test
+    public void testDownloadProjectsXml() throws IOException {
+        when(httpServletResponse.getOutputStream()).thenReturn(getServletOutputStream());
+        when(eventService.getXmlAt(ID, ID, List.of(DATE))).thenReturn(Map.of(DATE, xmlProjections.get(0)));
+        assertDoesNotThrow(
+                () -> resultController.downloadProjects(ID_STRING, ID_STRING, List.of(TIME), "xml",
+                        httpServletResponse)
+        );
+        verify(eventService).getXmlAt(ID, ID, List.of(DATE));
+        verify(experimentService, never()).getSb3File(anyInt());
+    }
+
+    @Test
+    public void testDownloadProjectsTooManyTimes() {
+        List<String> times = new ArrayList<>();
+
+        for (int i = 0; i <= Constants.MAX_PROJECT_TIMES; i++) {
+            times.add(TIME);
+        }
+
+        assertThrows(IncompleteDataException.class,
+                () -> resultController.downloadProjects(ID_STRING, ID_STRING, times, JSON, httpServletResponse)
+        );
+        verify(eventService, never()).getJsonAt(anyInt(), anyInt(), any());
+    }
+
+    private ServletOutputStream getServletOutputStream() {
+        return new ServletOutputStream() {
+            @Override
+            public boolean isReady() {
+                return false;
+            }
+
+            @Override
+            public void setWriteListener(WriteListener writeListener) {
+
+            }
+
+            @Override
+            public void write(int b) throws IOException {
+
+            }
+        };
+    }
+
     private List<EventCountDTO> getEventCounts(int number, String event) {
         List<EventCountDTO> eventCountDTOS = new ArrayList<>();
         for (int i = 0; i < number; i++) {
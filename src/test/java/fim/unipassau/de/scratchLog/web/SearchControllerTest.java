@@ -26,6 +26,7 @@ import fim.unipassau.de.scratchLog.persistence.projection.UserProjection;
 import fim.unipassau.de.scratchLog.util.Constants;
 import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.web.controller.SearchController;
+import fim.unipassau.de.scratchLog.web.dto.SearchResultDTO;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
@@ -38,7 +39,6 @@ import java.util.List;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.anyInt;
 import static org.mockito.ArgumentMatchers.anyString;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -71,55 +71,33 @@ public class SearchControllerTest {
     public void testGetSearchPage() {
         users = getUsers(Constants.PAGE_SIZE);
         experiments = getExperiments(Constants.PAGE_SIZE);
-        when(searchService.getUserCount(QUERY)).thenReturn(COUNT);
-        when(searchService.getExperimentCount(QUERY)).thenReturn(COUNT);
-        when(searchService.getCourseCount(QUERY)).thenReturn(COUNT);
-        when(searchService.getUserList(QUERY, Constants.PAGE_SIZE)).thenReturn(users);
-        when(searchService.getExperimentList(QUERY, Constants.PAGE_SIZE)).thenReturn(experiments);
-        when(searchService.getCourseList(QUERY, Constants.PAGE_SIZE)).thenReturn(courses);
+        SearchResultDTO results = new SearchResultDTO(users, experiments, courses, COUNT, COUNT, COUNT);
+        when(searchService.getSearchResults(QUERY)).thenReturn(results);
         assertEquals(SEARCH, searchController.getSearchPage(QUERY, model));
-        verify(searchService).getUserCount(QUERY);
-        verify(searchService).getExperimentCount(QUERY);
-        verify(searchService).getCourseCount(QUERY);
-        verify(searchService).getUserList(QUERY, Constants.PAGE_SIZE);
-        verify(searchService).getExperimentList(QUERY, Constants.PAGE_SIZE);
-        verify(searchService).getCourseList(QUERY, Constants.PAGE_SIZE);
+        verify(searchService).getSearchResults(QUERY);
+        verify(model).addAttribute("users", users);
+        verify(model).addAttribute("userCount", COUNT);
         verify(model, times(8)).addAttribute(anyString(), any());
     }
 
     @Test
     public void testGetSearchPageQueryBlank() {
         assertEquals(SEARCH, searchController.getSearchPage(BLANK, model));
-        verify(searchService, never()).getUserCount(anyString());
-        verify(searchService, never()).getExperimentCount(anyString());
-        verify(searchService, never()).getCourseCount(anyString());
-        verify(searchService, never()).getUserList(anyString(), anyInt());
-        verify(searchService, never()).getExperimentList(anyString(), anyInt());
-        verify(searchService, never()).getCourseList(anyString(), anyInt());
+        verify(searchService, never()).getSearchResults(anyString());
         verify(model, times(8)).addAttribute(anyString(), any());
     }
 
     @Test
     public void testGetSearchPageQueryTooLong() {
         assertEquals(ERROR, searchController.getSearchPage(LONG_QUERY, model));
-        verify(searchService, never()).getUserCount(anyString());
-        verify(searchService, never()).getExperimentCount(anyString());
-        verify(searchService, never()).getCourseCount(anyString());
-        verify(searchService, never()).getUserList(anyString(), anyInt());
-        verify(searchService, never()).getExperimentList(anyString(), anyInt());
-        verify(searchService, never()).getCourseList(anyString(), anyInt());
+        verify(searchService, never()).getSearchResults(anyString());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
     @Test
     public void testGetSearchPageQueryNull() {
         assertEquals(ERROR, searchController.getSearchPage(null, model));
-        verify(searchService, never()).getUserCount(anyString());
-        verify(searchService, never()).getExperimentCount(anyString());
-        verify(searchService, never()).getCourseCount(anyString());
-        verify(searchService, never()).getUserList(anyString(), anyInt());
-        verify(searchService, never()).getExperimentList(anyString(), anyInt());
-        verify(searchService, never()).getCourseList(anyString(), anyInt());
+        verify(searchService, never()).getSearchResults(anyString());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
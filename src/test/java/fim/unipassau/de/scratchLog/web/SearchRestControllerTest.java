@@ -48,12 +48,12 @@ public class SearchRestControllerTest {
     private SearchService searchService;
 
     private static final String ID_STRING = "1";
-    private static final String PAGE_STRING = "2";
+    private static final String LAST_STRING = "2";
     private static final String QUERY = "participant";
     private static final String BLANK = "   ";
     private static final String PARTICIPANT = "PARTICIPANT";
     private static final int ID = 1;
-    private static final int PAGE = 2;
+    private static final int LAST = 2;
     private List<String[]> userData;
     private List<String[]> userProjectionData;
     private List<String[]> experimentData;
@@ -92,9 +92,9 @@ public class SearchRestControllerTest {
 
     @Test
     public void testGetMoreUsers() {
-        when(searchService.getNextUsers(QUERY, PAGE)).thenReturn(userProjectionData);
-        assertEquals(2, searchRestController.getMoreUsers(QUERY, PAGE_STRING).size());
-        verify(searchService).getNextUsers(QUERY, PAGE);
+        when(searchService.getNextUsers(QUERY, LAST)).thenReturn(userProjectionData);
+        assertEquals(2, searchRestController.getMoreUsers(QUERY, LAST_STRING).size());
+        verify(searchService).getNextUsers(QUERY, LAST);
     }
 
     @Test
@@ -105,9 +105,9 @@ public class SearchRestControllerTest {
 
     @Test
     public void testGetMoreExperiments() {
-        when(searchService.getNextExperiments(QUERY, PAGE)).thenReturn(experimentTableData);
-        assertEquals(2, searchRestController.getMoreExperiments(QUERY, PAGE_STRING).size());
-        verify(searchService).getNextExperiments(QUERY, PAGE);
+        when(searchService.getNextExperiments(QUERY, LAST)).thenReturn(experimentTableData);
+        assertEquals(2, searchRestController.getMoreExperiments(QUERY, LAST_STRING).size());
+        verify(searchService).getNextExperiments(QUERY, LAST);
     }
 
     @Test
@@ -124,9 +124,9 @@ public class SearchRestControllerTest {
 
     @Test
     public void testGetMoreCourses() {
-        when(searchService.getNextCourses(QUERY, PAGE)).thenReturn(courseTableData);
-        assertEquals(3, searchRestController.getMoreCourses(QUERY, PAGE_STRING).size());
-        verify(searchService).getNextCourses(QUERY, PAGE);
+        when(searchService.getNextCourses(QUERY, LAST)).thenReturn(courseTableData);
+        assertEquals(3, searchRestController.getMoreCourses(QUERY, LAST_STRING).size());
+        verify(searchService).getNextCourses(QUERY, LAST);
     }
 
     @Test
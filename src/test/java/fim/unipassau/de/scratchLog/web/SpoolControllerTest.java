@@ -0,0 +1,68 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web;
+
+import fim.unipassau.de.scratchLog.application.service.AdmissionService;
+import fim.unipassau.de.scratchLog.application.service.EventSpoolService;
+import fim.unipassau.de.scratchLog.web.controller.SpoolController;
+import fim.unipassau.de.scratchLog.web.dto.AdmissionStatusDTO;
+import fim.unipassau.de.scratchLog.web.dto.SpoolStatusDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ui.Model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class SpoolControllerTest {
+
+    @InjectMocks
+    private SpoolController spoolController;
+
+    @Mock
+    private EventSpoolService eventSpoolService;
+
+    @Mock
+    private AdmissionService admissionService;
+
+    @Mock
+    private Model model;
+
+    private static final String SPOOL = "spool";
+    private static final String STATUS = "status";
+    private static final String ADMISSION = "admission";
+    private final SpoolStatusDTO status = SpoolStatusDTO.builder().enabled(true).segments(1).pending(10).build();
+    private final AdmissionStatusDTO admission = AdmissionStatusDTO.builder().inFlight(1).limit(64).build();
+
+    @Test
+    public void testGetSpool() {
+        when(eventSpoolService.getStatus()).thenReturn(status);
+        when(admissionService.getStatus()).thenReturn(admission);
+        assertEquals(SPOOL, spoolController.getSpool(model));
+        verify(model).addAttribute(STATUS, status);
+        verify(model).addAttribute(ADMISSION, admission);
+    }
+
+}
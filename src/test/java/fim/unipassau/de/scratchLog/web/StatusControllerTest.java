@@ -0,0 +1,79 @@
+/*
+ * Copyright (C) 2023 ScratchLog contributors
+ *
+ * This file is part of ScratchLog.
+ *
+ * ScratchLog is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or (at
+ * your option) any later version.
+ *
+ * ScratchLog is distributed in the hope that it will be useful, but
+ * WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with ScratchLog. If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package fim.unipassau.de.scratchLog.web;
+
+import fim.unipassau.de.scratchLog.application.service.JobService;
+import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.service.TokenService;
+import fim.unipassau.de.scratchLog.web.controller.StatusController;
+import fim.unipassau.de.scratchLog.web.dto.JobRunDTO;
+import fim.unipassau.de.scratchLog.web.dto.MailStatusDTO;
+import fim.unipassau.de.scratchLog.web.dto.TokenCleanupStatusDTO;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.ui.Model;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class StatusControllerTest {
+
+    @InjectMocks
+    private StatusController statusController;
+
+    @Mock
+    private MailService mailService;
+
+    @Mock
+    private TokenService tokenService;
+
+    @Mock
+    private JobService jobService;
+
+    @Mock
+    private Model model;
+
+    private static final String STATUS = "status";
+    private static final String MAIL = "mail";
+    private static final String TOKENS = "tokens";
+    private static final String JOBS = "jobs";
+    private final MailStatusDTO mail = MailStatusDTO.builder().pending(3).sent(10).build();
+    private final TokenCleanupStatusDTO tokens = TokenCleanupStatusDTO.builder().duration(5).deletedTokens(2).build();
+    private final List<JobRunDTO> jobs = List.of(JobRunDTO.builder().name("token_cleanup").affected(2).build());
+
+    @Test
+    public void testGetStatus() {
+        when(mailService.getStatus()).thenReturn(mail);
+        when(tokenService.getCleanupStatus()).thenReturn(tokens);
+        when(jobService.getRecentRuns()).thenReturn(jobs);
+        assertEquals(STATUS, statusController.getStatus(model));
+        verify(model).addAttribute(MAIL, mail);
+        verify(model).addAttribute(TOKENS, tokens);
+        verify(model).addAttribute(JOBS, jobs);
+    }
+
+}
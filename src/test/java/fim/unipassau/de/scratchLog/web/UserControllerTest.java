@@ -21,7 +21,8 @@ package fim.unipassau.de.scratchLog.web;
 import fim.unipassau.de.scratchLog.MailServerSetter;
 import fim.unipassau.de.scratchLog.StringCreator;
 import fim.unipassau.de.scratchLog.application.exception.NotFoundException;
-import fim.unipassau.de.scratchLog.application.service.MailService;
+import fim.unipassau.de.scratchLog.application.exception.StoreException;
+import fim.unipassau.de.scratchLog.application.service.NotificationService;
 import fim.unipassau.de.scratchLog.application.service.ParticipantService;
 import fim.unipassau.de.scratchLog.application.service.TokenService;
 import fim.unipassau.de.scratchLog.application.service.UserService;
@@ -32,8 +33,8 @@ import fim.unipassau.de.scratchLog.util.enums.Role;
 import fim.unipassau.de.scratchLog.util.enums.TokenType;
 import fim.unipassau.de.scratchLog.web.controller.UserController;
 import fim.unipassau.de.scratchLog.web.dto.PasswordDTO;
-import fim.unipassau.de.scratchLog.web.dto.TokenDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserBulkDTO;
+import fim.unipassau.de.scratchLog.web.dto.UserBulkResultDTO;
 import fim.unipassau.de.scratchLog.web.dto.UserDTO;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -48,8 +49,7 @@ import org.mockito.MockedStatic;
 import org.mockito.Mockito;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.core.io.ClassPathResource;
-import org.springframework.http.HttpStatusCode;
-import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.mock.web.MockMultipartFile;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContext;
@@ -61,7 +61,7 @@ import org.springframework.web.servlet.LocaleResolver;
 
 import java.io.IOException;
 import java.security.Principal;
-import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
@@ -75,7 +75,12 @@ import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyBoolean;
 import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
 import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
@@ -94,7 +99,7 @@ public class UserControllerTest {
     private ParticipantService participantService;
 
     @Mock
-    private MailService mailService;
+    private NotificationService notificationService;
 
     @Mock
     private TokenService tokenService;
@@ -171,7 +176,6 @@ public class UserControllerTest {
     private final UserDTO userDTO = new UserDTO(USERNAME, EMAIL, Role.ADMIN, Language.ENGLISH, PASSWORD, SECRET);
     private final UserDTO oldDTO = new UserDTO(USERNAME, EMAIL, Role.ADMIN, Language.ENGLISH, PASSWORD, SECRET);
     private final UserBulkDTO userBulkDTO = new UserBulkDTO(AMOUNT, Language.ENGLISH, USERNAME, false);
-    private final TokenDTO tokenDTO = new TokenDTO(TokenType.CHANGE_EMAIL, LocalDateTime.now(), NEW_EMAIL, ID);
     private final PasswordDTO passwordDTO = new PasswordDTO(PASSWORD);
 
     @BeforeEach
@@ -476,31 +480,26 @@ public class UserControllerTest {
     public void testAddUser() {
         MailServerSetter.setMailServer(true);
         userDTO.setId(null);
-        when(userService.saveUser(userDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.REGISTER, null, oldDTO.getId())).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
+        when(notificationService.saveUser(eq(userDTO), anyString())).thenReturn(oldDTO);
         assertEquals(REDIRECT_SUCCESS, userController.addUser(userDTO, bindingResult));
         verify(bindingResult, never()).addError(any());
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService).existsUser(userDTO.getUsername());
-        verify(userService).saveUser(userDTO);
-        verify(tokenService).generateToken(TokenType.REGISTER, null, oldDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(userService, never()).saveUser(any());
+        verify(notificationService).saveUser(eq(userDTO), anyString());
     }
 
     @Test
     public void testAddUserMailNotSent() {
         MailServerSetter.setMailServer(true);
         userDTO.setId(null);
-        when(userService.saveUser(userDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.REGISTER, null, oldDTO.getId())).thenReturn(tokenDTO);
+        when(notificationService.saveUser(eq(userDTO), anyString())).thenThrow(StoreException.class);
         assertEquals(Constants.ERROR, userController.addUser(userDTO, bindingResult));
         verify(bindingResult, never()).addError(any());
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService).existsUser(userDTO.getUsername());
-        verify(userService).saveUser(userDTO);
-        verify(tokenService).generateToken(TokenType.REGISTER, null, oldDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(userService, never()).saveUser(any());
+        verify(notificationService).saveUser(eq(userDTO), anyString());
     }
 
     @Test
@@ -513,8 +512,7 @@ public class UserControllerTest {
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService).saveUser(userDTO);
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -527,8 +525,7 @@ public class UserControllerTest {
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -541,8 +538,7 @@ public class UserControllerTest {
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService, never()).existsUser(anyString());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -555,8 +551,7 @@ public class UserControllerTest {
         verify(userService).existsEmail(userDTO.getEmail());
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -571,8 +566,7 @@ public class UserControllerTest {
         verify(userService, never()).existsEmail(anyString());
         verify(userService).existsUser(userDTO.getUsername());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -584,8 +578,7 @@ public class UserControllerTest {
         verify(userService, never()).existsEmail(anyString());
         verify(userService, never()).existsUser(anyString());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -597,8 +590,7 @@ public class UserControllerTest {
         verify(userService, never()).existsEmail(anyString());
         verify(userService, never()).existsUser(anyString());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -610,8 +602,7 @@ public class UserControllerTest {
         verify(userService, never()).existsEmail(anyString());
         verify(userService, never()).existsUser(anyString());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -621,8 +612,7 @@ public class UserControllerTest {
         verify(userService, never()).existsEmail(anyString());
         verify(userService, never()).existsUser(anyString());
         verify(userService, never()).saveUser(any());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).saveUser(any(), anyString());
     }
 
     @Test
@@ -640,11 +630,14 @@ public class UserControllerTest {
     @Test
     public void testAddParticipants() {
         when(userService.findLastId()).thenReturn(AMOUNT);
+        when(userService.saveUsersBulk(anyList())).thenReturn(new UserBulkResultDTO(new ArrayList<>(),
+                new ArrayList<>()));
         assertEquals(REDIRECT_SUCCESS, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult, never()).addError(any());
         verify(userService).findLastId();
-        verify(userService, times(AMOUNT)).existsUser(anyString());
-        verify(userService, times(AMOUNT)).saveUser(any());
+        verify(userService).saveUsersBulk(argThat(users -> users.size() == AMOUNT));
+        verify(userService, never()).existsUser(anyString());
+        verify(userService, never()).saveUser(any());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -652,12 +645,12 @@ public class UserControllerTest {
     public void testAddParticipantsStartOneUsernameExists() {
         List<String> existingNames = List.of("admin0");
         userBulkDTO.setStartAtOne(true);
-        when(userService.existsUser(existingNames.get(0))).thenReturn(true);
+        when(userService.saveUsersBulk(anyList())).thenReturn(new UserBulkResultDTO(new ArrayList<>(),
+                existingNames));
         assertEquals(PARTICIPANTS_ADD, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult, never()).addError(any());
         verify(userService, never()).findLastId();
-        verify(userService, times(AMOUNT)).existsUser(anyString());
-        verify(userService, times(AMOUNT - existingNames.size())).saveUser(any());
+        verify(userService).saveUsersBulk(argThat(users -> users.size() == AMOUNT));
         verify(model).addAttribute("error", existingNames);
     }
 
@@ -667,8 +660,7 @@ public class UserControllerTest {
         assertEquals(PARTICIPANTS_ADD, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult).addError(any());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -678,8 +670,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult, never()).addError(any());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -689,8 +680,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult, never()).addError(any());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -700,8 +690,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult, never()).addError(any());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -711,8 +700,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.addParticipants(userBulkDTO, bindingResult, model));
         verify(bindingResult, never()).addError(any());
         verify(userService, never()).findLastId();
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).saveUsersBulk(any());
         verify(model, never()).addAttribute(anyString(), any());
     }
 
@@ -725,66 +713,129 @@ public class UserControllerTest {
     public void testAddCSVParticipants() throws IOException {
         MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
                 new ClassPathResource("users.csv").getInputStream());
-        ResponseEntity entity = (ResponseEntity) userController.addCSVParticipants(file, model);
-        assertEquals(HttpStatusCode.valueOf(200), entity.getStatusCode());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(userService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.saveUsersBulk(anyList())).thenAnswer(invocation -> new UserBulkResultDTO(
+                new ArrayList<>(invocation.getArgument(0)), new ArrayList<>()));
+        assertNull(userController.addCSVParticipants(file, model, response));
+        String[] lines = response.getContentAsString().split(System.lineSeparator());
+        assertAll(
+                () -> assertEquals(HttpServletResponse.SC_OK, response.getStatus()),
+                () -> assertEquals(3, lines.length),
+                () -> assertTrue(lines[1].startsWith("newUser1, ")),
+                () -> assertTrue(lines[1].endsWith(", created")),
+                () -> assertTrue(lines[2].startsWith("newUser2, "))
+        );
         verify(model, never()).addAttribute(anyString(), any());
-        verify(userService, times(2)).existsUser(anyString());
-        verify(userService, times(2)).existsEmail(anyString());
-        verify(userService, times(2)).encodePassword(anyString());
-        verify(userService).saveUsers(any());
+        verify(userService).findExistingUsernames(List.of("newUser1", "newUser2"));
+        verify(userService).findExistingEmails(List.of("newUser1@user.de", "newUser2@user.com"));
+        verify(userService).encodePasswords(anyList());
+        verify(userService).saveUsersBulk(anyList());
+        verify(userService, never()).saveUsers(any());
     }
 
     @Test
     public void testAddCSVParticipantsNoEmail() throws IOException {
         MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
                 new ClassPathResource("usersSimple.csv").getInputStream());
-        ResponseEntity entity = (ResponseEntity) userController.addCSVParticipants(file, model);
-        assertEquals(HttpStatusCode.valueOf(200), entity.getStatusCode());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(userService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.saveUsersBulk(anyList())).thenAnswer(invocation -> new UserBulkResultDTO(
+                new ArrayList<>(invocation.getArgument(0)), new ArrayList<>()));
+        assertNull(userController.addCSVParticipants(file, model, response));
+        assertEquals(3, response.getContentAsString().split(System.lineSeparator()).length);
         verify(model, never()).addAttribute(anyString(), any());
-        verify(userService, times(2)).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, times(2)).encodePassword(anyString());
-        verify(userService).saveUsers(any());
+        verify(userService).findExistingUsernames(anyList());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService).encodePasswords(anyList());
+        verify(userService).saveUsersBulk(anyList());
+    }
+
+    @Test
+    public void testAddCSVParticipantsUsernameTakenInMeantime() throws IOException {
+        MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
+                new ClassPathResource("usersSimple.csv").getInputStream());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(userService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.saveUsersBulk(anyList())).thenAnswer(invocation -> new UserBulkResultDTO(
+                new ArrayList<>(List.of(invocation.<List<UserDTO>>getArgument(0).get(1))),
+                new ArrayList<>(List.of("newUser1"))));
+        assertNull(userController.addCSVParticipants(file, model, response));
+        String[] lines = response.getContentAsString().split(System.lineSeparator());
+        assertAll(
+                () -> assertEquals(3, lines.length),
+                () -> assertTrue(lines[1].startsWith("newUser2, ")),
+                () -> assertEquals("newUser1, , rejected", lines[2])
+        );
     }
 
+    @Test
+    public void testAddCSVParticipantsStoreException() throws IOException {
+        MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
+                new ClassPathResource("usersSimple.csv").getInputStream());
+        MockHttpServletResponse response = new MockHttpServletResponse();
+        when(userService.encodePasswords(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(userService.saveUsersBulk(anyList())).thenThrow(StoreException.class);
+        assertNull(userController.addCSVParticipants(file, model, response));
+        String[] lines = response.getContentAsString().split(System.lineSeparator());
+        assertAll(
+                () -> assertEquals(HttpServletResponse.SC_OK, response.getStatus()),
+                () -> assertEquals(3, lines.length),
+                () -> assertEquals("newUser1, , failed", lines[1]),
+                () -> assertEquals("newUser2, , failed", lines[2])
+        );
+        verify(userService).saveUsersBulk(anyList());
+    }
 
     @Test
     public void testAddCSVParticipantsEmailExists() throws IOException {
         MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
                 new ClassPathResource("users.csv").getInputStream());
-        when(userService.existsEmail(anyString())).thenReturn(true);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        when(userService.findExistingEmails(anyList())).thenReturn(List.of("newUser1@user.de"));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(model).addAttribute(anyString(), any());
-        verify(userService, times(2)).existsUser(anyString());
-        verify(userService, times(2)).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService).findExistingUsernames(anyList());
+        verify(userService).findExistingEmails(anyList());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
+        verify(httpServletResponse, never()).getWriter();
     }
 
     @Test
     public void testAddCSVParticipantsUsernameExists() throws IOException {
         MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
                 new ClassPathResource("users.csv").getInputStream());
-        when(userService.existsUser(anyString())).thenReturn(true);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        when(userService.findExistingUsernames(anyList())).thenReturn(List.of("newUser2"));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(model).addAttribute(anyString(), any());
-        verify(userService, times(2)).existsUser(anyString());
-        verify(userService, times(2)).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService).findExistingUsernames(anyList());
+        verify(userService).findExistingEmails(anyList());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
+    }
+
+    @Test
+    public void testAddCSVParticipantsDuplicateUsername() throws IOException {
+        MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
+                ("username,language" + System.lineSeparator() + "newUser1,GERMAN" + System.lineSeparator()
+                        + "NEWUSER1,ENGLISH").getBytes());
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
+        verify(model).addAttribute(anyString(), any());
+        verify(userService).findExistingUsernames(List.of("newUser1"));
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
     public void testAddCSVParticipantsInvalidAttributes() throws IOException {
         MockMultipartFile file = new MockMultipartFile(FILENAME, FILENAME, FILETYPE,
                 new ClassPathResource("usersInvalid.csv").getInputStream());
-        when(userService.existsUser(anyString())).thenReturn(true);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(model).addAttribute(anyString(), any());
-        verify(userService).existsUser(anyString());
-        verify(userService).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService).findExistingUsernames(List.of("newUser2"));
+        verify(userService).findExistingEmails(List.of("newUser1@user.de"));
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
@@ -792,79 +843,79 @@ public class UserControllerTest {
         when(file.getOriginalFilename()).thenReturn(FILENAME);
         when(file.getContentType()).thenReturn(FILETYPE);
         when(file.getInputStream()).thenThrow(IOException.class);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(file, times(2)).getContentType();
         verify(file, times(2)).getOriginalFilename();
         verify(model).addAttribute(anyString(), any());
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
     public void testAddCSVParticipantsInvalidFilename() {
         when(file.getOriginalFilename()).thenReturn(EMAIL);
         when(file.getContentType()).thenReturn(FILETYPE);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(file, times(2)).getContentType();
         verify(file, times(3)).getOriginalFilename();
         verify(model).addAttribute(anyString(), any());
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
     public void testAddCSVParticipantsFilenameNull() {
         when(file.getContentType()).thenReturn(FILETYPE);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(file, times(2)).getContentType();
         verify(file, times(2)).getOriginalFilename();
         verify(model).addAttribute(anyString(), any());
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
     public void testAddCSVParticipantsInvalidContentType() {
         when(file.getContentType()).thenReturn(FILENAME);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(file, times(3)).getContentType();
         verify(file, never()).getOriginalFilename();
         verify(model).addAttribute(anyString(), any());
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUser(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
     public void testAddCSVParticipantsContentTypeNull() {
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(file, times(2)).getContentType();
         verify(file, never()).getOriginalFilename();
         verify(model).addAttribute(anyString(), any());
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
     public void testAddCSVParticipantsFileEmpty() {
         when(file.isEmpty()).thenReturn(true);
-        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model));
+        assertEquals(PARTICIPANTS_CSV, userController.addCSVParticipants(file, model, httpServletResponse));
         verify(file, never()).getContentType();
         verify(file, never()).getOriginalFilename();
         verify(model).addAttribute(anyString(), any());
-        verify(userService, never()).existsUser(anyString());
-        verify(userService, never()).existsEmail(anyString());
-        verify(userService, never()).encodePassword(anyString());
-        verify(userService, never()).saveUsers(any());
+        verify(userService, never()).findExistingUsernames(any());
+        verify(userService, never()).findExistingEmails(any());
+        verify(userService, never()).encodePasswords(anyList());
+        verify(userService, never()).saveUsersBulk(any());
     }
 
     @Test
@@ -872,13 +923,11 @@ public class UserControllerTest {
         MailServerSetter.setMailServer(true);
         when(userService.getUser(userDTO.getUsername())).thenReturn(userDTO);
         when(userService.getUserByEmail(userDTO.getEmail())).thenReturn(userDTO);
-        when(tokenService.generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId())).thenReturn(tokenDTO);
-        when(mailService.sendEmail(anyString(), anyString(), any(), anyString())).thenReturn(true);
         assertEquals(REDIRECT_INFO, userController.passwordReset(userDTO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService).generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).sendToken(eq(TokenType.FORGOT_PASSWORD), isNull(), eq(userDTO.getId()),
+                eq(userDTO.getEmail()), anyString(), anyString());
     }
 
     @Test
@@ -886,12 +935,13 @@ public class UserControllerTest {
         MailServerSetter.setMailServer(true);
         when(userService.getUser(userDTO.getUsername())).thenReturn(userDTO);
         when(userService.getUserByEmail(userDTO.getEmail())).thenReturn(userDTO);
-        when(tokenService.generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId())).thenReturn(tokenDTO);
+        doThrow(StoreException.class).when(notificationService).sendToken(eq(TokenType.FORGOT_PASSWORD), isNull(),
+                eq(userDTO.getId()), eq(userDTO.getEmail()), anyString(), anyString());
         assertEquals(REDIRECT_INFO, userController.passwordReset(userDTO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService).generateToken(TokenType.FORGOT_PASSWORD, null, userDTO.getId());
-        verify(mailService).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService).sendToken(eq(TokenType.FORGOT_PASSWORD), isNull(), eq(userDTO.getId()),
+                eq(userDTO.getEmail()), anyString(), anyString());
     }
 
     @Test
@@ -903,8 +953,7 @@ public class UserControllerTest {
         assertEquals(REDIRECT_INFO, userController.passwordReset(userDTO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -915,8 +964,7 @@ public class UserControllerTest {
         assertEquals(REDIRECT_INFO, userController.passwordReset(userDTO));
         verify(userService).getUser(userDTO.getUsername());
         verify(userService).getUserByEmail(userDTO.getEmail());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -925,8 +973,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -936,8 +983,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -947,8 +993,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -958,8 +1003,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -969,8 +1013,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -980,8 +1023,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -991,8 +1033,7 @@ public class UserControllerTest {
         assertEquals(Constants.ERROR, userController.passwordReset(userDTO));
         verify(userService, never()).getUser(anyString());
         verify(userService, never()).getUserByEmail(anyString());
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), anyString(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
     }
 
     @Test
@@ -1307,8 +1348,6 @@ public class UserControllerTest {
         securityContextHolder.when(SecurityContextHolder::getContext).thenReturn(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(mailService.sendEmail(anyString(), any(), any(), anyString())).thenReturn(true);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenReturn(tokenDTO);
         when(httpServletRequest.isUserInRole(Constants.ROLE_ADMIN)).thenReturn(true);
         assertEquals(EMAIL_REDIRECT + USERNAME, userController.updateUser(userDTO, bindingResult,
                 httpServletRequest, httpServletResponse));
@@ -1317,8 +1356,8 @@ public class UserControllerTest {
         verify(authentication).getName();
         verify(userService).updateUser(oldDTO);
         verify(userService).existsEmail(NEW_EMAIL);
-        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID);
-        verify(mailService).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL),
+                anyString(), anyString());
         verify(httpServletRequest, never()).getSession(false);
     }
 
@@ -1332,7 +1371,8 @@ public class UserControllerTest {
         securityContextHolder.when(SecurityContextHolder::getContext).thenReturn(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenReturn(tokenDTO);
+        doThrow(StoreException.class).when(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL),
+                eq(ID), eq(NEW_EMAIL), anyString(), anyString());
         when(httpServletRequest.isUserInRole(Constants.ROLE_ADMIN)).thenReturn(true);
         assertEquals(PROFILE_REDIRECT + USERNAME, userController.updateUser(userDTO, bindingResult,
                 httpServletRequest, httpServletResponse));
@@ -1341,7 +1381,8 @@ public class UserControllerTest {
         verify(authentication).getName();
         verify(userService).updateUser(oldDTO);
         verify(userService).existsEmail(NEW_EMAIL);
-        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID);
+        verify(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL),
+                anyString(), anyString());
         verify(httpServletRequest, never()).getSession(false);
     }
 
@@ -1355,7 +1396,8 @@ public class UserControllerTest {
         securityContextHolder.when(SecurityContextHolder::getContext).thenReturn(securityContext);
         when(securityContext.getAuthentication()).thenReturn(authentication);
         when(userService.updateUser(oldDTO)).thenReturn(oldDTO);
-        when(tokenService.generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID)).thenThrow(NotFoundException.class);
+        doThrow(NotFoundException.class).when(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL),
+                eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL), anyString(), anyString());
         when(httpServletRequest.isUserInRole(Constants.ROLE_ADMIN)).thenReturn(true);
         assertEquals(PROFILE_REDIRECT + USERNAME, userController.updateUser(userDTO, bindingResult,
                 httpServletRequest, httpServletResponse));
@@ -1364,8 +1406,8 @@ public class UserControllerTest {
         verify(authentication).getName();
         verify(userService).updateUser(oldDTO);
         verify(userService).existsEmail(NEW_EMAIL);
-        verify(tokenService).generateToken(TokenType.CHANGE_EMAIL, NEW_EMAIL, ID);
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService).sendToken(eq(TokenType.CHANGE_EMAIL), eq(NEW_EMAIL), eq(ID), eq(NEW_EMAIL),
+                anyString(), anyString());
         verify(httpServletRequest, never()).getSession(false);
     }
 
@@ -1387,8 +1429,7 @@ public class UserControllerTest {
         verify(authentication).getName();
         verify(userService).updateUser(oldDTO);
         verify(userService).existsEmail(NEW_EMAIL);
-        verify(tokenService, never()).generateToken(any(), anyString(), anyInt());
-        verify(mailService, never()).sendEmail(anyString(), any(), any(), anyString());
+        verify(notificationService, never()).sendToken(any(), any(), anyInt(), anyString(), anyString(), anyString());
         verify(httpServletRequest, never()).getSession(false);
     }
 